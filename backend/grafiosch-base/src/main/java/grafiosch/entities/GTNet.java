@@ -2,6 +2,7 @@ package grafiosch.entities;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -136,6 +137,14 @@ public class GTNet extends BaseID<Integer> {
   @Column(name = "last_modified_time")
   private LocalDateTime lastModifiedTime;
 
+  @Schema(description = """
+      Comma separated names of the compact payload encodings this server can read in addition to JSON, e.g.
+      'HQ_COLUMNAR_V1'. Set by the application for the local entry at startup and taken over from the sourceGtNet of
+      every received message for remote entries. A sender uses a compact encoding only when the receiver lists it.""")
+  @Size(max = 64)
+  @Column(name = "payload_encodings")
+  private String payloadEncodings;
+
   public Integer getIdGtNet() {
     return idGtNet;
   }
@@ -208,6 +217,24 @@ public class GTNet extends BaseID<Integer> {
     this.lastModifiedTime = lastModifiedTime;
   }
 
+  public String getPayloadEncodings() {
+    return payloadEncodings;
+  }
+
+  public void setPayloadEncodings(String payloadEncodings) {
+    this.payloadEncodings = payloadEncodings;
+  }
+
+  /**
+   * Checks whether this server has announced that it can read the given payload encoding.
+   *
+   * @param payloadEncoding the name of the encoding
+   * @return true if the encoding is contained in the announced payload encodings
+   */
+  public boolean supportsPayloadEncoding(String payloadEncoding) {
+    return payloadEncodings != null && Arrays.asList(payloadEncodings.split(",")).contains(payloadEncoding);
+  }
+
   public List<GTNetEntity> getGtNetEntities() {
     return gtNetEntities;
   }
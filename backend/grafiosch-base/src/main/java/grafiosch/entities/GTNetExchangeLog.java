@@ -77,6 +77,27 @@ public class GTNetExchangeLog {
   @NotNull
   private int requestCount = 1;
 
+  @Schema(description = """
+      Size in bytes of the payloads as transmitted. Only counted when a compact payload encoding was used, otherwise
+      0.""")
+  @Column(name = "bytes_on_wire")
+  @NotNull
+  private long bytesOnWire;
+
+  @Schema(description = """
+      Size in bytes the same payloads would have had as JSON. The difference to bytesOnWire is the saving of the
+      compact payload encoding.""")
+  @Column(name = "bytes_json")
+  @NotNull
+  private long bytesJson;
+
+  @Schema(description = """
+      Time in milliseconds until the response of the remote server was received, summed over the aggregated requests.
+      Only measured for consumer requests, otherwise 0.""")
+  @Column(name = "response_millis")
+  @NotNull
+  private long responseMillis;
+
   public GTNetExchangeLog() {
   }
 
@@ -94,6 +115,13 @@ public class GTNetExchangeLog {
     this.requestCount = 1;
   }
 
+  public GTNetExchangeLog(Integer idGtNet, IExchangeKindType entityKind, boolean logAsSupplier,
+      int entitiesSent, int entitiesUpdated, int entitiesInResponse, long bytesOnWire, long bytesJson) {
+    this(idGtNet, entityKind, logAsSupplier, entitiesSent, entitiesUpdated, entitiesInResponse);
+    this.bytesOnWire = bytesOnWire;
+    this.bytesJson = bytesJson;
+  }
+
   public Integer getIdGtNetExchangeLog() {
     return idGtNetExchangeLog;
   }
@@ -190,6 +218,30 @@ public class GTNetExchangeLog {
     this.requestCount = requestCount;
   }
 
+  public long getBytesOnWire() {
+    return bytesOnWire;
+  }
+
+  public void setBytesOnWire(long bytesOnWire) {
+    this.bytesOnWire = bytesOnWire;
+  }
+
+  public long getBytesJson() {
+    return bytesJson;
+  }
+
+  public void setBytesJson(long bytesJson) {
+    this.bytesJson = bytesJson;
+  }
+
+  public long getResponseMillis() {
+    return responseMillis;
+  }
+
+  public void setResponseMillis(long responseMillis) {
+    this.responseMillis = responseMillis;
+  }
+
   /**
    * Aggregates another log entry into this one by summing the counters.
    */
@@ -198,6 +250,9 @@ public class GTNetExchangeLog {
     this.entitiesUpdated += other.entitiesUpdated;
     this.entitiesInResponse += other.entitiesInResponse;
     this.requestCount += other.requestCount;
+    this.bytesOnWire += other.bytesOnWire;
+    this.bytesJson += other.bytesJson;
+    this.responseMillis += other.responseMillis;
     if (other.timestamp.isAfter(this.timestamp)) {
       this.timestamp = other.timestamp;
     }
@@ -2,6 +2,8 @@ package grafiosch.gtnet;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Collectors;
 
 import grafiosch.dynamic.model.ClassDescriptorInputAndShow;
@@ -54,6 +56,9 @@ public abstract class GTNetModelHelper {
   /** Registry mapping message codes to their model class and response expectation. */
   private static Map<GTNetMessageCode, GTNetMsgRequest> msgFormMap;
 
+  /** Compact payload encodings the application can read besides JSON, announced to the peers. */
+  private static final Set<String> payloadEncodings = new ConcurrentSkipListSet<>();
+
   static {
     msgFormMap = new HashMap<>();
 
@@ -105,6 +110,25 @@ public abstract class GTNetModelHelper {
     msgFormMap.put(messageCode, new GTNetMsgRequest(model, responseExpected, repeatSendAsMany));
   }
 
+  /**
+   * Registers a compact payload encoding the application can read at application startup. The local GTNet entry
+   * announces the registered encodings to every peer, a peer uses an encoding only after it was announced.
+   *
+   * @param payloadEncoding the name of the encoding, must not contain a comma
+   */
+  public static void registerPayloadEncoding(String payloadEncoding) {
+    payloadEncodings.add(payloadEncoding);
+  }
+
+  /**
+   * Returns the registered payload encodings in the form of {@link grafiosch.entities.GTNet#getPayloadEncodings()}.
+   *
+   * @return the comma separated encodings, or null if only JSON is supported
+   */
+  public static String getPayloadEncodings() {
+    return payloadEncodings.isEmpty() ? null : String.join(",", payloadEncodings);
+  }
+
   /**
    * Returns form definitions for all client-initiatable message types.
    *
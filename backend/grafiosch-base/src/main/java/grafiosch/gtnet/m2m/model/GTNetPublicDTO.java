@@ -2,6 +2,7 @@ package grafiosch.gtnet.m2m.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import grafiosch.entities.GTNet;
@@ -50,6 +51,11 @@ public class GTNetPublicDTO {
   @Schema(description = "Timestamp when this entry was last modified, used to determine freshness during server list exchange")
   private LocalDateTime lastModifiedTime;
 
+  @Schema(description = """
+      Comma separated names of the compact payload encodings this server can read in addition to JSON. Missing for
+      servers which only understand JSON.""")
+  private String payloadEncodings;
+
   public GTNetPublicDTO() {
   }
 
@@ -66,6 +72,7 @@ public class GTNetPublicDTO {
     this.serverOnline = gtNet.getServerOnline();
     this.allowServerCreation = gtNet.isAllowServerCreation();
     this.lastModifiedTime = gtNet.getLastModifiedTime();
+    this.payloadEncodings = gtNet.getPayloadEncodings();
 
     if (gtNet.getGtNetEntities() != null) {
       for (GTNetEntity entity : gtNet.getGtNetEntities()) {
@@ -153,4 +160,19 @@ public class GTNetPublicDTO {
   public void setLastModifiedTime(LocalDateTime lastModifiedTime) {
     this.lastModifiedTime = lastModifiedTime;
   }
+
+  public String getPayloadEncodings() {
+    return payloadEncodings;
+  }
+
+  public void setPayloadEncodings(String payloadEncodings) {
+    this.payloadEncodings = payloadEncodings;
+  }
+
+  /**
+   * Checks whether the server has announced that it can read the given payload encoding.
+   */
+  public boolean supportsPayloadEncoding(String payloadEncoding) {
+    return payloadEncodings != null && Arrays.asList(payloadEncodings.split(",")).contains(payloadEncoding);
+  }
 }
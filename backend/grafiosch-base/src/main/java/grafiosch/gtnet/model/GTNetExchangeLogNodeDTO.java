@@ -35,6 +35,12 @@ public class GTNetExchangeLogNodeDTO {
   @Schema(description = "Number of requests in this period")
   public int requestCount;
 
+  @Schema(description = "Size in bytes of the transmitted payloads with a compact payload encoding")
+  public long bytesOnWire;
+
+  @Schema(description = "Size in bytes the same payloads would have had as JSON")
+  public long bytesJson;
+
   @Schema(description = "Child nodes (shorter periods contained within this period)")
   public List<GTNetExchangeLogNodeDTO> children;
 
@@ -57,6 +63,8 @@ public class GTNetExchangeLogNodeDTO {
     this.entitiesUpdated += other.entitiesUpdated;
     this.entitiesInResponse += other.entitiesInResponse;
     this.requestCount += other.requestCount;
+    this.bytesOnWire += other.bytesOnWire;
+    this.bytesJson += other.bytesJson;
   }
 
   /**
@@ -1,5 +1,8 @@
 package grafiosch.exportdelete;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -13,6 +16,13 @@ import grafiosch.entities.User;
  */
 public class MySqlDeleteMyData {
 
+  /** Maximum number of rows removed by one statement when the rows of a single table are deleted. */
+  private static final int DELETE_CHUNK_SIZE = 5000;
+
+  /** Matches a delete on a single table without alias, only such a statement may be limited. */
+  private static final Pattern SINGLE_TABLE_DELETE = Pattern.compile("^DELETE FROM (\\w+) WHERE ",
+      Pattern.CASE_INSENSITIVE);
+
   private JdbcTemplate jdbcTemplate;
   private User user;
   private final Logger log = LoggerFactory.getLogger(this.getClass());
@@ -57,7 +67,10 @@ public class MySqlDeleteMyData {
   }
 
   /**
-   * Prepares and executes an update (DELETE or UPDATE) query based on an {@link ExportDefinition}.
+   * Prepares and executes an update (DELETE or UPDATE) query based on an {@link ExportDefinition}. A delete on the
+   * table of the definition alone is repeated with a row limit until all rows are removed, so the history-derived
+   * tables of a large tenant do not have to be deleted with one statement. Deletes which join other tables and
+   * updates are executed with a single statement.
    *
    * @param exportDefinition The definition guiding the query generation and execution.
    */
@@ -65,7 +78,20 @@ public class MySqlDeleteMyData {
     String query = ExportDeleteHelper.getQuery(exportDefinition, ExportDefinition.DELETE_USE, user);
     Object[] idArray = ExportDeleteHelper.getParamArrayOfStatementForIdTenantOrIdUser(exportDefinition, query, user);
     log.info("Execute: query={}, param={}", query, idArray);
-    jdbcTemplate.update(query, idArray);
+    if (isSingleTableDelete(exportDefinition, query)) {
+      String chunkQuery = query + " LIMIT " + DELETE_CHUNK_SIZE;
+      int deletedRows;
+      do {
+        deletedRows = jdbcTemplate.update(chunkQuery, idArray);
+      } while (deletedRows == DELETE_CHUNK_SIZE);
+    } else {
+      jdbcTemplate.update(query, idArray);
+    }
+  }
+
+  private boolean isSingleTableDelete(ExportDefinition exportDefinition, String query) {
+    Matcher matcher = SINGLE_TABLE_DELETE.matcher(query);
+    return matcher.find() && matcher.group(1).equalsIgnoreCase(exportDefinition.table);
   }
 
 }
@@ -1,8 +1,9 @@
 package grafiosch.exportdelete;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,14 +32,14 @@ public class MySqlExportMyData {
   /**
    * Exports the user's data as a series of SQL INSERT statements. It iterates through
    * {@link ExportDeleteHelper#exportDefinitions}, and for each definition marked for export
-   * ({@link ExportDefinition#isExport()}), it fetches the data and creates corresponding INSERT statements. Finally, it
+   * ({@link ExportDefinition#isExport()}), it fetches the data and writes corresponding INSERT statements. Finally, it
    * appends INSERT statements to grant the user administrative roles.
    *
-   * @return A {@link StringBuilder} containing the SQL INSERT statements for the exported data.
+   * @param writer receives the SQL INSERT statements, it is neither flushed nor closed
    * @throws Exception if an error occurs during data fetching or statement creation.
    */
-  public StringBuilder exportDataMyData() throws Exception {
-    return exportDataMyData(Collections.emptyList());
+  public void exportDataMyData(Writer writer) throws Exception {
+    exportDataMyData(Collections.emptyList(), writer);
   }
 
   /**
@@ -46,94 +47,74 @@ public class MySqlExportMyData {
    * {@link IExportMyDataAddon} implementations. The additional rows are appended after the regular
    * {@link ExportDefinition}-driven export but before the user-role grant, so they stay within the
    * {@code NO_AUTO_VALUE_ON_ZERO} sql_mode wrapper and benefit from all parent rows already inserted.
+   * <p>
+   * The rows of each query are written while its result set is read, the export of a tenant with many years of data
+   * therefore does not need more memory than a small one.
+   * </p>
    *
    * @param additionalExportQueries extra queries whose rows are appended as INSERT statements; may be empty
-   * @return A {@link StringBuilder} containing the SQL INSERT statements for the exported data.
+   * @param writer                  receives the SQL INSERT statements, it is neither flushed nor closed
    * @throws Exception if an error occurs during data fetching or statement creation.
    */
-  public StringBuilder exportDataMyData(List<AdditionalExportQuery> additionalExportQueries) throws Exception {
-    StringBuilder sqlStatement = new StringBuilder();
-    sqlStatement.append("SET @old_sql_mode = @@SESSION.sql_mode;\n");
-    sqlStatement.append("SET SESSION sql_mode = CONCAT_WS(',', @@SESSION.sql_mode, 'NO_AUTO_VALUE_ON_ZERO');\n");
+  public void exportDataMyData(List<AdditionalExportQuery> additionalExportQueries, Writer writer) throws Exception {
+    writer.write("SET @old_sql_mode = @@SESSION.sql_mode;\n");
+    writer.write("SET SESSION sql_mode = CONCAT_WS(',', @@SESSION.sql_mode, 'NO_AUTO_VALUE_ON_ZERO');\n");
     for (ExportDefinition exportDefinition : ExportDeleteHelper.exportDefinitions) {
       if (exportDefinition.isExport()) {
-        sqlStatement.append(getDataAndCreateInsertStatement(exportDefinition));
+        writeInsertStatements(exportDefinition, writer);
       }
     }
     for (AdditionalExportQuery additionalExportQuery : additionalExportQueries) {
-      sqlStatement.append(
-          getDataAndCreateInsertStatementRaw(additionalExportQuery.getTableName(), additionalExportQuery.getSelectSql()));
+      writeInsertStatementsRaw(additionalExportQuery.getTableName(), additionalExportQuery.getSelectSql(), writer);
     }
-    sqlStatement.append(createInsertUserRole(user.getIdUser()));
-    sqlStatement.append("SET SESSION sql_mode = @old_sql_mode;\n");
-    return sqlStatement;
+    writer.write(createInsertUserRole(user.getIdUser()));
+    writer.write("SET SESSION sql_mode = @old_sql_mode;\n");
   }
 
   /**
-   * Fetches data based on an {@link ExportDefinition} and creates SQL INSERT statements for that data. Delegates to
+   * Fetches data based on an {@link ExportDefinition} and writes SQL INSERT statements for that data. Delegates to
    * {@link MySqlInsertStatementGenerator} for the actual SQL generation.
    *
    * @param exportDefinition The definition guiding data fetching and statement creation.
-   * @return A {@link StringBuilder} containing INSERT statements for the fetched data.
-   * @throws Exception if an error occurs during database query or metadata retrieval.
+   * @param writer           Receives the INSERT statements for the fetched data.
+   * @throws IOException if writing the statements fails.
    */
-  private StringBuilder getDataAndCreateInsertStatement(ExportDefinition exportDefinition) throws Exception {
-    StringBuilder sqlStatement = new StringBuilder();
+  private void writeInsertStatements(ExportDefinition exportDefinition, Writer writer) throws IOException {
     String query = ExportDeleteHelper.getQuery(exportDefinition, ExportDefinition.EXPORT_USE, user);
-
     Object[] idArray = ExportDeleteHelper.getParamArrayOfStatementForIdTenantOrIdUser(exportDefinition, query, user);
 
     log.debug("Execute: query={}, param={}", query, idArray);
-    final List<Map<String, Object>> rows = jdbcTemplate.queryForList(query, idArray);
-    if (!rows.isEmpty()) {
-      query = query + " LIMIT 1";
-      java.sql.ResultSetMetaData metaData = jdbcTemplate
-          .query(query, (resultSet, _) -> resultSet.getMetaData(), idArray).get(0);
-      if (log.isDebugEnabled()) {
-        log.debug(exportDefinition.table);
-        for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
-          log.debug("Name: {}, Type: {}", metaData.getColumnName(columnIndex), metaData.getColumnType(columnIndex));
-        }
-      }
-      sqlStatement.append(MySqlInsertStatementGenerator.createInsertStatements(exportDefinition.table, metaData, rows));
-    }
-
-    return sqlStatement;
+    int rowCount = MySqlInsertStatementGenerator.writeInsertStatements(jdbcTemplate, exportDefinition.table, query,
+        idArray, writer);
+    log.debug("Exported {} rows of {}", rowCount, exportDefinition.table);
   }
 
   /**
-   * Runs a ready-to-use {@code SELECT} (no bind parameters) and turns its rows into INSERT statements for the given
-   * table. Unlike {@link #getDataAndCreateInsertStatement(ExportDefinition)} this bypasses
+   * Runs a ready-to-use {@code SELECT} (no bind parameters) and writes its rows as INSERT statements for the given
+   * table. Unlike {@link #writeInsertStatements(ExportDefinition, Writer)} this bypasses
    * {@link ExportDeleteHelper#getQuery} / parameter binding, because the SQL is already complete with all identifiers
    * inlined. Used for rows contributed by {@link IExportMyDataAddon}.
    *
    * @param tableName the target table the rows belong to (INSERT target)
    * @param sql       the complete {@code SELECT ... FROM ...} statement to execute
-   * @return a {@link StringBuilder} with the INSERT statements, or empty if the query returned no rows
-   * @throws Exception if an error occurs during the database query or metadata retrieval
+   * @param writer    receives the INSERT statements, nothing is written if the query returned no rows
+   * @throws IOException if writing the statements fails
    */
-  private StringBuilder getDataAndCreateInsertStatementRaw(String tableName, String sql) throws Exception {
-    StringBuilder sqlStatement = new StringBuilder();
+  private void writeInsertStatementsRaw(String tableName, String sql, Writer writer) throws IOException {
     log.debug("Execute additional export query: table={}, query={}", tableName, sql);
-    final List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
-    if (!rows.isEmpty()) {
-      java.sql.ResultSetMetaData metaData = jdbcTemplate
-          .query(sql + " LIMIT 1", (resultSet, _) -> resultSet.getMetaData()).get(0);
-      sqlStatement.append(MySqlInsertStatementGenerator.createInsertStatements(tableName, metaData, rows));
-    }
-    return sqlStatement;
+    MySqlInsertStatementGenerator.writeInsertStatements(jdbcTemplate, tableName, sql, new Object[0], writer);
   }
 
   /**
    * Creates an SQL INSERT statement to grant a user specific roles (ROLE_ADMIN, ROLE_ALLEDIT, ROLE_USER).
    *
    * @param idUser The ID of the user to whom the roles will be assigned.
-   * @return A {@link StringBuilder} containing the SQL INSERT statement for user roles.
+   * @return The SQL INSERT statement for user roles.
    */
-  private StringBuilder createInsertUserRole(Integer idUser) {
-    return new StringBuilder(String.format(
+  private String createInsertUserRole(Integer idUser) {
+    return String.format(
         "INSERT INTO user_role (id_role, id_user) SELECT id_role, %d FROM role WHERE rolename IN('ROLE_ADMIN', 'ROLE_ALLEDIT', 'ROLE_USER');",
-        idUser));
+        idUser);
   }
 
 }
@@ -1,5 +1,10 @@
 package grafiosch.exportdelete;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
@@ -10,6 +15,8 @@ import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
 
 /**
  * Utility class for generating SQL INSERT and DELETE statements from database table data. Used for exporting database
@@ -22,6 +29,8 @@ public class MySqlInsertStatementGenerator {
 
   private static final Logger log = LoggerFactory.getLogger(MySqlInsertStatementGenerator.class);
   private static final int ROWS_PER_INSERT = 500;
+  /** Rows the driver fetches with each round trip while the rows of an export are streamed. */
+  private static final int FETCH_SIZE = 1000;
 
   /**
    * Generates SQL INSERT statements for all rows in the specified table.
@@ -70,34 +79,7 @@ public class MySqlInsertStatementGenerator {
       Map<String, Object> row = rows.get(rowCounter);
       sqlStatement.append("(");
       for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
-        int columnType = metaData.getColumnType(columnIndex);
-        Object value = row.get(metaData.getColumnName(columnIndex));
-        if (value != null) {
-          switch (columnType) {
-          case Types.TIMESTAMP:
-          case Types.DATE:
-          case Types.TIME:
-            sqlStatement.append("'").append(value).append("'");
-            break;
-          case Types.LONGVARCHAR:
-          case Types.VARCHAR:
-          case Types.CHAR:
-            value = ((String) value).replace("'", "\\'").replaceAll("\n", "\\\\n").replaceAll("\r", "\\\\r");
-            sqlStatement.append("'").append(value).append("'");
-            break;
-          case Types.BLOB:
-          case Types.BINARY:
-          case Types.VARBINARY:
-          case Types.LONGVARBINARY:
-            byte[] bytes = (byte[]) value;
-            sqlStatement.append("0x").append(Hex.encodeHexString(bytes));
-            break;
-          default: // Number
-            sqlStatement.append(value);
-          }
-        } else {
-          sqlStatement.append("NULL");
-        }
+        appendValue(sqlStatement, metaData.getColumnType(columnIndex), row.get(metaData.getColumnName(columnIndex)));
         if (columnIndex < metaData.getColumnCount()) {
           sqlStatement.append(", ");
         }
@@ -116,6 +98,38 @@ public class MySqlInsertStatementGenerator {
     return sqlStatement;
   }
 
+  /**
+   * Runs the query and writes its rows as multi-row SQL INSERT statements while the result set is being read. The
+   * driver is asked to fetch the rows in portions, so neither the rows nor the statements are held in memory.
+   *
+   * @param jdbcTemplate the JDBC template for querying the database
+   * @param tableName    the table the rows are inserted into
+   * @param query        the SELECT statement, its projection must match the columns of the table
+   * @param params       the values of the bind parameters of the query
+   * @param writer       receives the INSERT statements, it is neither flushed nor closed
+   * @return the number of exported rows
+   * @throws IOException if writing the statements fails
+   */
+  public static int writeInsertStatements(JdbcTemplate jdbcTemplate, String tableName, String query, Object[] params,
+      Writer writer) throws IOException {
+    InsertStatementWriter insertStatementWriter = new InsertStatementWriter(tableName, writer);
+    try {
+      jdbcTemplate.query(connection -> {
+        PreparedStatement ps = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(FETCH_SIZE);
+        for (int i = 0; i < params.length; i++) {
+          ps.setObject(i + 1, params[i]);
+        }
+        return ps;
+      }, insertStatementWriter);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    insertStatementWriter.finish();
+    return insertStatementWriter.rowCount;
+  }
+
   /**
    * Generates SQL INSERT statements for a table with a self-referencing foreign key. Rows where the self-referencing
    * column is NULL are inserted first, followed by rows that reference other rows in the same table. This avoids FK
@@ -155,6 +169,38 @@ public class MySqlInsertStatementGenerator {
     return sqlStatement;
   }
 
+  /**
+   * Appends a single column value formatted as an SQL literal.
+   */
+  private static void appendValue(StringBuilder sqlStatement, int columnType, Object value) {
+    if (value == null) {
+      sqlStatement.append("NULL");
+      return;
+    }
+    switch (columnType) {
+    case Types.TIMESTAMP:
+    case Types.DATE:
+    case Types.TIME:
+      sqlStatement.append("'").append(value).append("'");
+      break;
+    case Types.LONGVARCHAR:
+    case Types.VARCHAR:
+    case Types.CHAR:
+      value = ((String) value).replace("'", "\\'").replaceAll("\n", "\\\\n").replaceAll("\r", "\\\\r");
+      sqlStatement.append("'").append(value).append("'");
+      break;
+    case Types.BLOB:
+    case Types.BINARY:
+    case Types.VARBINARY:
+    case Types.LONGVARBINARY:
+      byte[] bytes = (byte[]) value;
+      sqlStatement.append("0x").append(Hex.encodeHexString(bytes));
+      break;
+    default: // Number
+      sqlStatement.append(value);
+    }
+  }
+
   /**
    * Creates the "INSERT INTO `table_name` (`col1`, `col2`, ...) VALUES " prefix of an SQL INSERT statement.
    */
@@ -168,4 +214,58 @@ public class MySqlInsertStatementGenerator {
     return sqlStatement;
   }
 
+  /**
+   * Writes each row of a result set as soon as it is read. A new INSERT statement is started after
+   * {@link #ROWS_PER_INSERT} rows.
+   */
+  private static class InsertStatementWriter implements RowCallbackHandler {
+    private final String tableName;
+    private final Writer writer;
+    private final StringBuilder rowBuffer = new StringBuilder();
+    private ResultSetMetaData metaData;
+    private int rowsInStatement;
+    private int rowCount;
+
+    InsertStatementWriter(String tableName, Writer writer) {
+      this.tableName = tableName;
+      this.writer = writer;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      if (metaData == null) {
+        metaData = rs.getMetaData();
+      }
+      rowBuffer.setLength(0);
+      if (rowsInStatement == 0) {
+        rowBuffer.append(appendInsertToString(tableName, metaData));
+      } else {
+        rowBuffer.append(",\n");
+      }
+      rowBuffer.append("(");
+      for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+        appendValue(rowBuffer, metaData.getColumnType(columnIndex), JdbcUtils.getResultSetValue(rs, columnIndex));
+        if (columnIndex < metaData.getColumnCount()) {
+          rowBuffer.append(", ");
+        }
+      }
+      rowBuffer.append(")");
+      rowCount++;
+      if (++rowsInStatement == ROWS_PER_INSERT) {
+        rowBuffer.append(";\n");
+        rowsInStatement = 0;
+      }
+      try {
+        writer.append(rowBuffer);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void finish() throws IOException {
+      if (rowsInStatement > 0) {
+        writer.write(";\n");
+      }
+    }
+  }
 }
@@ -1,6 +1,7 @@
 package grafiosch.gtnet;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,7 +84,7 @@ public class GTNetLifecycleListener {
   public void onApplicationReady(ApplicationReadyEvent event) {
     if (checkGTNetIsUsedAndSetup()) {
       try {
-        // Ensure local server shows as online
+        // Ensure local server shows as online with the payload encodings of this version
         ensureLocalServerOnlineStatus();
 
         log.info("Scheduling GTNet server status check task to run in {} seconds", STARTUP_DELAY_SECONDS);
@@ -99,16 +100,20 @@ public class GTNetLifecycleListener {
 
   /**
    * Ensures the local GTNet server entry has SOS_ONLINE status.
-   * The local server is always online when the application is running.
+   * The local server is always online when the application is running. The payload encodings registered with
+   * {@link GTNetModelHelper#registerPayloadEncoding(String)} are taken over as well, since they depend on the version
+   * of the running application.
    */
   private void ensureLocalServerOnlineStatus() {
     Integer myEntryId = globalparametersJpaRepository.getGTNetMyEntryID();
     if (myEntryId != null) {
       GTNet myGTNet = gtNetJpaRepository.findById(myEntryId).orElse(null);
-      if (myGTNet != null && myGTNet.getServerOnline() != GTNetServerOnlineStatusTypes.SOS_ONLINE) {
+      if (myGTNet != null && (myGTNet.getServerOnline() != GTNetServerOnlineStatusTypes.SOS_ONLINE
+          || !Objects.equals(myGTNet.getPayloadEncodings(), GTNetModelHelper.getPayloadEncodings()))) {
         myGTNet.setServerOnline(GTNetServerOnlineStatusTypes.SOS_ONLINE);
+        myGTNet.setPayloadEncodings(GTNetModelHelper.getPayloadEncodings());
         gtNetJpaRepository.save(myGTNet);
-        log.info("Set local GTNet server status to ONLINE");
+        log.info("Set local GTNet server status to ONLINE with payload encodings {}", myGTNet.getPayloadEncodings());
       }
     }
   }
@@ -1,9 +1,23 @@
 package grafiosch.m2m.client;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.codec.json.JacksonJsonDecoder;
 import org.springframework.http.codec.json.JacksonJsonEncoder;
@@ -15,18 +29,24 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 
 import grafiosch.gtnet.m2m.model.MessageEnvelope;
 import grafiosch.gtnet.model.msg.ApplicationInfo;
+import grafiosch.security.filter.GzipRequestBodyFilter;
 import grafiosch.rest.RequestMappings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.netty.channel.ChannelOption;
 import io.netty.resolver.ResolvedAddressTypes;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import tools.jackson.databind.ObjectMapper;
 
 /**
  * HTTP client for machine-to-machine (M2M) communication with remote GTNet instances.
  *
- * Uses Spring WebClient with Reactor Netty for non-blocking HTTP calls (though currently used
- * in blocking mode via .block()). Handles two types of requests:
+ * Uses Spring WebClient with Reactor Netty. Each remote domain gets one long-lived client with its own connection
+ * pool, so TLS handshakes and connection setup are not repeated for every message. Handles two types of requests:
  * <ul>
  *   <li><b>Actuator Info</b>: GET to /actuator/info for liveness checks and metadata retrieval</li>
  *   <li><b>GTNet Messages</b>: POST to /m2m/gtnet for all GTNet protocol messages</li>
@@ -40,24 +60,65 @@ import tools.jackson.databind.ObjectMapper;
  * The client is configured to prefer IPv6 addresses, which may need adjustment depending on
  * deployment environments.
  *
- * <h3>Error Handling</h3>
- * Currently no explicit error handling - WebClient exceptions will propagate to callers.
- * Future improvements should include retry logic and proper error classification.
+ * <h3>Compression</h3>
+ * Responses are requested gzip compressed. Request bodies are only compressed for a remote that has announced with
+ * the {@link GzipRequestBodyFilter#ACCEPT_REQUEST_ENCODING_HEADER} response header that it can decompress them, so
+ * older instances keep working.
+ *
+ * <h3>Asynchronous Use</h3>
+ * {@link #sendToMsgWithStatusAsync} returns a {@link Mono} which never signals an error, every failure including an
+ * unreadable response is mapped to a {@link SendResult}. {@link #sendToMsgsWithStatus(List)} sends several messages
+ * to different remotes at once.
+ *
+ * <h3>Metrics</h3>
+ * Connection pool metrics (active connections, pending acquires) and the response time of every remote are published
+ * through Micrometer by Reactor Netty, tagged with the remote address. In addition every GTNet message records its
+ * round-trip time as {@code g.gtnet.message} and the size of the uncompressed JSON of request and response as
+ * {@code g.gtnet.message.payload}, tagged with the host of the remote and the message code.
  */
 @Service
-public class BaseDataClient {
+public class BaseDataClient implements DisposableBean {
 
   private static final Logger log = LoggerFactory.getLogger(BaseDataClient.class);
 
   /** Standard HTTP Authorization header name. */
   public static final String AUTHORIZATION_HEADER = "Authorization";
 
+  /** Maximum number of simultaneous connections to one remote instance. */
+  private static final int MAX_CONNECTIONS_PER_PEER = 8;
+  /** Maximum number of requests waiting for a connection of one remote instance. */
+  private static final int MAX_PENDING_ACQUIRE_PER_PEER = 64;
+  /** Idle connections are closed after this time, remote servers often close them earlier. */
+  private static final Duration MAX_IDLE_TIME = Duration.ofSeconds(30);
+  private static final Duration MAX_LIFE_TIME = Duration.ofMinutes(10);
+  /** Request bodies smaller than this are not compressed. */
+  private static final int MIN_GZIP_REQUEST_BYTES = 8192;
+
   private final ObjectMapper objectMapper;
 
+  /** One connection pool per remote domain. */
+  private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+
+  /** WebClients by remote domain and connection timeout, they all share the pool of their domain. */
+  private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
+  /** Remote domains that accept gzip compressed request bodies. */
+  private final Set<String> gzipRequestDomains = ConcurrentHashMap.newKeySet();
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
   public BaseDataClient(ObjectMapper objectMapper) {
     this.objectMapper = objectMapper;
   }
 
+  /**
+   * A message for one remote instance, used to send several messages at once.
+   */
+  public record PeerRequest(String tokenRemote, String targetDomain, MessageEnvelope messageEnvelope,
+      int connectionTimeoutSeconds) {
+  }
+
   /**
    * Result wrapper for M2M message sending operations.
    * Distinguishes between successful delivery, HTTP errors, and network failures.
@@ -79,6 +140,16 @@ public class BaseDataClient {
       return new SendResult(false, false, 0, null, false, null);
     }
 
+    /**
+     * The message could not be delivered for another reason, for example the response of the remote could not be read
+     * or the request could not be created.
+     *
+     * @param errorMessage the cause of the failure
+     */
+    public static SendResult failed(String errorMessage) {
+      return new SendResult(false, false, 0, null, false, errorMessage);
+    }
+
     /**
      * Server responded with an HTTP error status (4xx, 5xx).
      *
@@ -106,7 +177,7 @@ public class BaseDataClient {
     }
 
     /**
-     * Returns true if delivery failed (unreachable or HTTP error).
+     * Returns true if delivery failed (unreachable, HTTP error or unreadable response).
      */
     public boolean isFailed() {
       return !serverReachable || httpError;
@@ -183,52 +254,167 @@ public class BaseDataClient {
    */
   public SendResult sendToMsgWithStatus(String tokenRemote, String targetDomain, MessageEnvelope messageEnvelope,
       int connectionTimeoutSeconds) {
-    try {
-      WebClient.RequestBodySpec requestSpec = getWebClientForDomain(targetDomain, connectionTimeoutSeconds).post()
-          .uri(uriBuilder -> uriBuilder.path(RequestMappings.GTNET_M2M_MAP).build())
-          .contentType(org.springframework.http.MediaType.APPLICATION_JSON);
+    return sendToMsgWithStatusAsync(tokenRemote, targetDomain, messageEnvelope, connectionTimeoutSeconds).block();
+  }
 
-      if (tokenRemote != null) {
-        requestSpec = requestSpec.header(AUTHORIZATION_HEADER, tokenRemote);
-      }
+  /**
+   * Sends several GTNet messages at the same time, normally each to another remote instance. The call returns when
+   * all remotes have answered or failed.
+   *
+   * @param peerRequests the messages to send
+   * @return the results in the order of the requests
+   */
+  public List<SendResult> sendToMsgsWithStatus(List<PeerRequest> peerRequests) {
+    if (peerRequests.isEmpty()) {
+      return List.of();
+    }
+    return Flux.mergeSequential(peerRequests.stream().map(pr -> sendToMsgWithStatusAsync(pr.tokenRemote(),
+        pr.targetDomain(), pr.messageEnvelope(), pr.connectionTimeoutSeconds())).toList()).collectList().block();
+  }
+
+  /**
+   * Non-blocking variant of {@link #sendToMsgWithStatus(String, String, MessageEnvelope, int)}. The returned
+   * {@link Mono} does not signal errors, a failed delivery, a response which cannot be read and a message which cannot
+   * be serialized are reported as {@link SendResult}. Use
+   * {@link Mono#toFuture()} when a {@link java.util.concurrent.CompletableFuture} is required.
+   *
+   * @param tokenRemote the authentication token received from the remote during handshake
+   * @param targetDomain the base URL of the remote instance
+   * @param messageEnvelope the message to send
+   * @param connectionTimeoutSeconds TCP connection timeout in seconds (0 = use Netty default)
+   * @return Mono emitting the SendResult
+   */
+  public Mono<SendResult> sendToMsgWithStatusAsync(String tokenRemote, String targetDomain,
+      MessageEnvelope messageEnvelope, int connectionTimeoutSeconds) {
+    String peer = getPeerName(targetDomain);
+    String code = String.valueOf(messageEnvelope.messageCode);
+    long startTime = System.nanoTime();
+    // Building the request is part of the Mono, so a failing serialization is mapped to a SendResult as well
+    return Mono.defer(() -> exchange(tokenRemote, targetDomain, messageEnvelope, connectionTimeoutSeconds, peer, code,
+        startTime)).onErrorResume(e -> {
+          // Unreadable response of the remote, response too large or a request that could not be created
+          recordRoundTrip(peer, code, "failed", startTime);
+          log.warn("GTNet message to {} failed: {}", targetDomain, e.toString());
+          return Mono.just(SendResult.failed(e.getMessage()));
+        });
+  }
+
+  /**
+   * Creates the request and maps the answer of the remote. Connection errors and HTTP error states are mapped here, any
+   * other error is mapped by the caller.
+   */
+  private Mono<SendResult> exchange(String tokenRemote, String targetDomain, MessageEnvelope messageEnvelope,
+      int connectionTimeoutSeconds, String peer, String code, long startTime) {
+    WebClient.RequestBodySpec requestSpec = getWebClientForDomain(targetDomain, connectionTimeoutSeconds).post()
+        .uri(uriBuilder -> uriBuilder.path(RequestMappings.GTNET_M2M_MAP).build())
+        .contentType(MediaType.APPLICATION_JSON);
+
+    if (tokenRemote != null) {
+      requestSpec = requestSpec.header(AUTHORIZATION_HEADER, tokenRemote);
+    }
 
-      MessageEnvelope response = requestSpec
-          .body(Mono.just(messageEnvelope), MessageEnvelope.class)
-          .retrieve()
-          .bodyToMono(MessageEnvelope.class)
-          .block();
+    byte[] body = objectMapper.writeValueAsBytes(messageEnvelope);
+    recordPayload(peer, code, "request", body.length);
+    if (body.length >= MIN_GZIP_REQUEST_BYTES && gzipRequestDomains.contains(targetDomain)) {
+      body = gzip(body);
+      requestSpec = requestSpec.header(HttpHeaders.CONTENT_ENCODING, GzipRequestBodyFilter.GZIP);
+    }
 
-      if (response == null) {
+    return requestSpec.bodyValue(body).retrieve().toEntity(byte[].class).map(responseEntity -> {
+      if (GzipRequestBodyFilter.GZIP.equals(
+          responseEntity.getHeaders().getFirst(GzipRequestBodyFilter.ACCEPT_REQUEST_ENCODING_HEADER))) {
+        gzipRequestDomains.add(targetDomain);
+      }
+      byte[] responseBody = responseEntity.getBody();
+      MessageEnvelope response = null;
+      if (responseBody == null || responseBody.length == 0) {
         log.warn("GTNet server at {} returned 2xx but empty/null response body", targetDomain);
       } else {
+        recordPayload(peer, code, "response", responseBody.length);
+        response = objectMapper.readValue(responseBody, MessageEnvelope.class);
         log.info("GTNet server reached at {}", targetDomain);
       }
+      recordRoundTrip(peer, code, "delivered", startTime);
       return SendResult.success(response);
-    } catch (WebClientRequestException e) {
+    }).onErrorResume(WebClientRequestException.class, e -> {
       // Connection error - server is unreachable
+      recordRoundTrip(peer, code, "unreachable", startTime);
       log.warn("GTNet server unreachable at {}: {}", targetDomain, e.getMessage());
-      return SendResult.unreachable();
-    } catch (WebClientResponseException e) {
+      return Mono.just(SendResult.unreachable());
+    }).onErrorResume(WebClientResponseException.class, e -> {
       // Server responded with an error status (4xx, 5xx) - server is reachable but returned error
+      recordRoundTrip(peer, code, "http_error", startTime);
       String errorBody = e.getResponseBodyAsString();
       log.warn("GTNet server at {} returned error status {}: {} - Body: {}",
           targetDomain, e.getStatusCode(), e.getMessage(), errorBody);
-      return SendResult.httpError(e.getStatusCode().value(), errorBody);
+      return Mono.just(SendResult.httpError(e.getStatusCode().value(), errorBody));
+    });
+  }
+
+  private void recordRoundTrip(String peer, String code, String outcome, long startTime) {
+    if (meterRegistry != null) {
+      Timer.builder("g.gtnet.message").description("Round-trip time of a GTNet message").tag("peer", peer)
+          .tag("code", code).tag("outcome", outcome).register(meterRegistry)
+          .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void recordPayload(String peer, String code, String direction, int bytes) {
+    if (meterRegistry != null) {
+      DistributionSummary.builder("g.gtnet.message.payload").description("Uncompressed size of a GTNet message")
+          .baseUnit("bytes").tag("peer", peer).tag("code", code).tag("direction", direction).register(meterRegistry)
+          .record(bytes);
+    }
+  }
+
+  /**
+   * Returns the host of a remote domain for the meter tags. A domain without scheme has no host in its URI, then the
+   * domain itself is used.
+   */
+  private static String getPeerName(String domain) {
+    try {
+      String host = URI.create(domain).getHost();
+      return host == null ? domain : host;
+    } catch (IllegalArgumentException e) {
+      return domain;
+    }
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream gzipOut = new GZIPOutputStream(bos)) {
+      gzipOut.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
+    return bos.toByteArray();
   }
 
   /**
-   * Creates a WebClient configured for the specified domain with optional connection timeout.
+   * Returns the WebClient for the specified domain with optional connection timeout. The clients are created once and
+   * share the connection pool of their domain.
    *
    * @param domainName the base URL for the WebClient
    * @param connectionTimeoutSeconds TCP connection timeout in seconds (0 = use Netty default)
    * @return configured WebClient instance
    */
   private WebClient getWebClientForDomain(String domainName, int connectionTimeoutSeconds) {
-    HttpClient httpClient = HttpClient.create().resolver(spec -> {
+    return webClients.computeIfAbsent(domainName + "#" + Math.max(connectionTimeoutSeconds, 0),
+        _ -> createWebClientForDomain(domainName, connectionTimeoutSeconds));
+  }
+
+  private WebClient createWebClientForDomain(String domainName, int connectionTimeoutSeconds) {
+    ConnectionProvider connectionProvider = connectionProviders.computeIfAbsent(domainName,
+        _ -> ConnectionProvider.builder("gtnet-" + getPeerName(domainName))
+            .maxConnections(MAX_CONNECTIONS_PER_PEER).pendingAcquireMaxCount(MAX_PENDING_ACQUIRE_PER_PEER)
+            .maxIdleTime(MAX_IDLE_TIME).maxLifeTime(MAX_LIFE_TIME).evictInBackground(MAX_IDLE_TIME).metrics(true)
+            .build());
+
+    HttpClient httpClient = HttpClient.create(connectionProvider).compress(true).resolver(spec -> {
       spec.resolvedAddressTypes(ResolvedAddressTypes.IPV6_PREFERRED);
       spec.disableRecursionDesired(false);
-    });
+    }).metrics(true, uri -> uri.startsWith(RequestMappings.ACTUATOR_MAP) ? RequestMappings.ACTUATOR_MAP
+        : RequestMappings.GTNET_M2M_MAP);
 
     if (connectionTimeoutSeconds > 0) {
       httpClient = httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeoutSeconds * 1000)
@@ -244,4 +430,12 @@ public class BaseDataClient {
         .baseUrl(domainName).build();
   }
 
+  /**
+   * Closes the connection pools of all remote domains.
+   */
+  @Override
+  public void destroy() {
+    connectionProviders.values().forEach(ConnectionProvider::dispose);
+  }
+
 }
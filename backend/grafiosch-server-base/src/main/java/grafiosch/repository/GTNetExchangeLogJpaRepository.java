@@ -91,4 +91,19 @@ public interface GTNetExchangeLogJpaRepository
    */
   @Query(nativeQuery = true, name = "GTNetExchangeLog.getSupplierSuccessRates")
   List<Object[]> getSupplierSuccessRates(@Param("entityKind") byte entityKind, @Param("fromDate") LocalDate fromDate);
+
+  /**
+   * Calculates the median and the 90th percentile of the response times per GTNet supplier. Only individual consumer
+   * logs with a measured response time are included, aggregated logs no longer contain single response times. The
+   * window is therefore limited to the logs not yet aggregated, by default the last day (key D of
+   * {@code g.gnet.log.aggregate.days}). Without exchange logging the result is empty.
+   *
+   * Named query: GTNetExchangeLog.getSupplierLatencyPercentiles
+   *
+   * @param entityKind the entity kind to filter by
+   * @return list of Object[] where [0]=idGtNet (Integer), [1]=p50 in milliseconds (Double), [2]=p90 in milliseconds
+   *         (Double)
+   */
+  @Query(nativeQuery = true, name = "GTNetExchangeLog.getSupplierLatencyPercentiles")
+  List<Object[]> getSupplierLatencyPercentiles(@Param("entityKind") byte entityKind);
 }
@@ -26,6 +26,38 @@ public interface GTNetExchangeLogJpaRepositoryCustom {
   void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
       int entitiesSent, int entitiesUpdated, int entitiesInResponse);
 
+  /**
+   * Logs an exchange operation together with the payload sizes of a compact payload encoding.
+   *
+   * @param gtNet the remote GTNet domain
+   * @param entityKind the type of data exchanged
+   * @param asSupplier true if logging as supplier, false if as consumer
+   * @param entitiesSent number of entities sent or received
+   * @param entitiesUpdated number of entities successfully updated
+   * @param entitiesInResponse number of entities in the response
+   * @param bytesOnWire size in bytes of the payload as transmitted
+   * @param bytesJson size in bytes the payload would have had as JSON
+   */
+  void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
+      int entitiesSent, int entitiesUpdated, int entitiesInResponse, long bytesOnWire, long bytesJson);
+
+  /**
+   * Logs an exchange operation together with the payload sizes and the response time of the remote server.
+   *
+   * @param gtNet the remote GTNet domain
+   * @param entityKind the type of data exchanged
+   * @param asSupplier true if logging as supplier, false if as consumer
+   * @param entitiesSent number of entities sent or received
+   * @param entitiesUpdated number of entities successfully updated
+   * @param entitiesInResponse number of entities in the response
+   * @param bytesOnWire size in bytes of the payload as transmitted
+   * @param bytesJson size in bytes the payload would have had as JSON
+   * @param responseMillis time in milliseconds until the response was received, 0 if not measured
+   */
+  void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
+      int entitiesSent, int entitiesUpdated, int entitiesInResponse, long bytesOnWire, long bytesJson,
+      long responseMillis);
+
   /**
    * Aggregates log entries from one period type to the next.
    * Groups entries by (idGtNet, entityKind, logAsSupplier) and sums statistics.
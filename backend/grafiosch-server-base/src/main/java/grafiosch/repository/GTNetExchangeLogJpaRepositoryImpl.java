@@ -55,6 +55,22 @@ public class GTNetExchangeLogJpaRepositoryImpl implements GTNetExchangeLogJpaRep
   @Transactional
   public void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
       int entitiesSent, int entitiesUpdated, int entitiesInResponse) {
+    logExchange(gtNet, entityKind, asSupplier, entitiesSent, entitiesUpdated, entitiesInResponse, 0, 0);
+  }
+
+  @Override
+  @Transactional
+  public void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
+      int entitiesSent, int entitiesUpdated, int entitiesInResponse, long bytesOnWire, long bytesJson) {
+    logExchange(gtNet, entityKind, asSupplier, entitiesSent, entitiesUpdated, entitiesInResponse, bytesOnWire,
+        bytesJson, 0);
+  }
+
+  @Override
+  @Transactional
+  public void logExchange(GTNet gtNet, IExchangeKindType entityKind, boolean asSupplier,
+      int entitiesSent, int entitiesUpdated, int entitiesInResponse, long bytesOnWire, long bytesJson,
+      long responseMillis) {
     // Check if global logging is enabled
     if (!globalparametersJpaRepository.isGTNetLogEnabled()) {
       return;
@@ -76,7 +92,8 @@ public class GTNetExchangeLogJpaRepositoryImpl implements GTNetExchangeLogJpaRep
 
     GTNetExchangeLog log = new GTNetExchangeLog(
         gtNet.getIdGtNet(), entityKind, asSupplier,
-        entitiesSent, entitiesUpdated, entitiesInResponse);
+        entitiesSent, entitiesUpdated, entitiesInResponse, bytesOnWire, bytesJson);
+    log.setResponseMillis(responseMillis);
     entityManager.persist(log);
   }
 
@@ -239,6 +256,8 @@ public class GTNetExchangeLogJpaRepositoryImpl implements GTNetExchangeLogJpaRep
           node.entitiesUpdated += log.getEntitiesUpdated();
           node.entitiesInResponse += log.getEntitiesInResponse();
           node.requestCount += log.getRequestCount();
+          node.bytesOnWire += log.getBytesOnWire();
+          node.bytesJson += log.getBytesJson();
         }
 
         root.children.add(node);
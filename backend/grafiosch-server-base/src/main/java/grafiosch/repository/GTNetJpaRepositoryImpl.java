@@ -1370,6 +1370,12 @@ public class GTNetJpaRepositoryImpl extends BaseRepositoryImpl<GTNet> implements
         needsSave = true;
       }
 
+      // Sync the payload encodings the remote can read besides JSON
+      if (!java.util.Objects.equals(sourceGtNet.getPayloadEncodings(), localRemoteEntry.getPayloadEncodings())) {
+        localRemoteEntry.setPayloadEncodings(sourceGtNet.getPayloadEncodings());
+        needsSave = true;
+      }
+
       // Sync GTNetEntities (data exchange capabilities)
       if (sourceGtNet.getGtNetEntities() != null) {
         needsSave |= syncGtNetEntitiesFromDTO(localRemoteEntry, sourceGtNet.getGtNetEntities());
@@ -1,6 +1,7 @@
 package grafiosch.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,9 @@ public interface TaskDataChangeJpaRepository extends JpaRepository<TaskDataChang
   Optional<TaskDataChange> findTopByProgressStateTypeAndEarliestStartTimeLessThanEqualOrderByExecutionPriorityAscCreationTimeAsc(
       byte progressState, LocalDateTime earliestStartTime);
 
+  Optional<TaskDataChange> findTopByProgressStateTypeAndEarliestStartTimeLessThanEqualAndIdTaskNotInOrderByExecutionPriorityAscCreationTimeAsc(
+      byte progressState, LocalDateTime earliestStartTime, Collection<Byte> excludedIdTasks);
+
   Optional<TaskDataChange> findByIdTaskAndIdEntityAndProgressStateType(byte idTask, Integer idEntity,
       byte progressStateType);
 
@@ -45,4 +49,21 @@ public interface TaskDataChangeJpaRepository extends JpaRepository<TaskDataChang
   @Query("UPDATE TaskDataChange t SET t.progressStateType = ?2 WHERE t.progressStateType = ?1")
   int changeFromToProgressState(byte fromState, byte toState);
 
+  /**
+   * Claims a waiting task for execution. The state is only changed when the task is still in the expected state, so
+   * a task can never be started twice.
+   *
+   * @param idTaskDataChange the task to claim
+   * @param fromState        the expected current state, normally waiting
+   * @param toState          the new state, normally running
+   * @param execStartTime    the start time of the execution
+   * @return 1 when the task was claimed, 0 when another worker claimed it before or it was removed
+   */
+  @Modifying
+  @Transactional
+  @Query("""
+      UPDATE TaskDataChange t SET t.progressStateType = ?3, t.execStartTime = ?4
+      WHERE t.idTaskDataChange = ?1 AND t.progressStateType = ?2""")
+  int claimTask(Integer idTaskDataChange, byte fromState, byte toState, LocalDateTime execStartTime);
+
 }
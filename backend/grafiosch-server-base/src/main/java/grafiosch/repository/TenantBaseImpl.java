@@ -1,8 +1,11 @@
 package grafiosch.repository;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -12,6 +15,8 @@ import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
@@ -39,6 +44,8 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public abstract class TenantBaseImpl<T> extends BaseRepositoryImpl<T> implements TenantBaseCustom {
 
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
@@ -131,15 +138,16 @@ public abstract class TenantBaseImpl<T> extends BaseRepositoryImpl<T> implements
    * <li>A DML (Data Manipulation Language) script ("gt_data.sql") containing the user's personal data as INSERT
    * statements.</li>
    * </ol>
-   * The method retrieves the user from the security context, generates the DML data using
-   * MySqlExportMyData#exportDataMyData(), and then streams the DDL file and the generated DML data into a ZIP file
-   * directly to the {@link HttpServletResponse}.
+   * The method retrieves the user from the security context and streams the DDL file into a ZIP file directly to the
+   * {@link HttpServletResponse}. The DML data is written by MySqlExportMyData#exportDataMyData() into its ZIP entry
+   * while the rows are read from the database, so the size of the export does not determine the memory used. When the
+   * export fails after the first bytes were sent, the ZIP is not completed and the exception aborts the download.
    *
    * @param response The {@link HttpServletResponse} to which the ZIP file will be written. The response headers will be
    *                 set for a file attachment named "gt.zip".
    * @throws Exception if any error occurs during data export, resource loading, ZIP stream creation, or writing to the
    *                   response stream. This can include {@link java.io.IOException} during stream operations or
-   *                   exceptions from {@link MySqlExportMyData#exportDataMyData()}.
+   *                   exceptions from {@link MySqlExportMyData#exportDataMyData(Writer)}.
    */
   @Override
   public void getExportPersonalDataAsZip(HttpServletResponse response) throws Exception {
@@ -155,21 +163,34 @@ public abstract class TenantBaseImpl<T> extends BaseRepositoryImpl<T> implements
       zipTextEntries.putAll(addon.getZipTextEntries(user));
     }
 
-    StringBuilder sqlStatement = new MySqlExportMyData(jdbcTemplate, user).exportDataMyData(additionalExportQueries);
-
     // setting headers
     response.setStatus(HttpServletResponse.SC_OK);
     response.addHeader("Content-Disposition", "attachment; filename=\"gt.zip\"");
 
-    ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream());
-    addZipEntry(zipOutputStream, resourceDdl.getInputStream(), ddlFileName);
-    InputStream dmlInputStream = new ByteArrayInputStream(sqlStatement.toString().getBytes());
-    addZipEntry(zipOutputStream, dmlInputStream, "gt_data.sql");
-    for (Map.Entry<String, String> textEntry : zipTextEntries.entrySet()) {
-      addZipEntry(zipOutputStream, new ByteArrayInputStream(textEntry.getValue().getBytes(StandardCharsets.UTF_8)),
-          textEntry.getKey());
+    try {
+      ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream());
+      addZipEntry(zipOutputStream, resourceDdl.getInputStream(), ddlFileName);
+      // The INSERT statements are compressed into the ZIP entry while the rows are read
+      zipOutputStream.putNextEntry(new ZipEntry("gt_data.sql"));
+      Writer dmlWriter = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8));
+      new MySqlExportMyData(jdbcTemplate, user).exportDataMyData(additionalExportQueries, dmlWriter);
+      dmlWriter.flush();
+      zipOutputStream.closeEntry();
+      for (Map.Entry<String, String> textEntry : zipTextEntries.entrySet()) {
+        addZipEntry(zipOutputStream, new ByteArrayInputStream(textEntry.getValue().getBytes(StandardCharsets.UTF_8)),
+            textEntry.getKey());
+      }
+      zipOutputStream.close();
+    } catch (Exception e) {
+      if (!response.isCommitted()) {
+        // Nothing was sent yet, the client gets the usual error response
+        response.reset();
+        throw e;
+      }
+      // The ZIP is left incomplete, the container aborts the committed response and the download fails
+      log.error("Export of the personal data of user {} failed, the download is aborted", user.getIdUser(), e);
+      throw e;
     }
-    zipOutputStream.close();
   }
 
   /**
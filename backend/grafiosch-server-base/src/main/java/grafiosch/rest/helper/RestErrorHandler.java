@@ -111,13 +111,23 @@ public class RestErrorHandler {
    * full exception details and returns a generic error response to avoid exposing sensitive system information to
    * clients.
    * </p>
+   * <p>
+   * When the response is already committed, as with a streamed download, an error body would be appended to the sent
+   * content. The exception is then passed on to the container, which closes the connection so that the client sees the
+   * request fail.
+   * </p>
    * 
-   * @param ex the exception that was thrown
+   * @param ex       the exception that was thrown
+   * @param response the response of the failed request
    * @return ErrorWrapper containing a generic error message with the root cause
+   * @throws Exception the given exception when the response is already committed
    */
   @ExceptionHandler(value = { Exception.class })
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-  public ErrorWrapper serverException(final Exception ex) {
+  public ErrorWrapper serverException(final Exception ex, final HttpServletResponse response) throws Exception {
+    if (response.isCommitted()) {
+      throw ex;
+    }
     log.error(ex.getMessage(), ex);
     return new ErrorWrapper(new SingleNativeMsgError(ExceptionUtils.getRootCauseMessage(ex)));
   }
@@ -0,0 +1,174 @@
+package grafiosch.security.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Decompresses gzip encoded request bodies of the machine-to-machine endpoint. Servlet containers only compress
+ * responses, a request with {@code Content-Encoding: gzip} would otherwise reach the JSON converter compressed.
+ *
+ * <p>
+ * Every response of the endpoint carries the {@link #ACCEPT_REQUEST_ENCODING_HEADER} header. A remote instance only
+ * compresses its requests after it has seen this header, therefore instances without this filter are not affected.
+ * </p>
+ * <p>
+ * The body is decompressed before the request is passed on. A body which inflates to more than the configured number
+ * of bytes is rejected with status 413, so a small compressed request cannot make the server inflate gigabytes.
+ * </p>
+ */
+public class GzipRequestBodyFilter extends OncePerRequestFilter {
+
+  public static final String GZIP = "gzip";
+
+  /** Response header that tells the client that request bodies may be sent gzip compressed. */
+  public static final String ACCEPT_REQUEST_ENCODING_HEADER = "X-GTNet-Accept-Request-Encoding";
+
+  private final String pathPrefix;
+  private final int maxInflatedBytes;
+
+  /**
+   * @param pathPrefix       only requests whose servlet path starts with this prefix are handled
+   * @param maxInflatedBytes maximum size of a decompressed request body
+   */
+  public GzipRequestBodyFilter(String pathPrefix, int maxInflatedBytes) {
+    this.pathPrefix = pathPrefix;
+    this.maxInflatedBytes = maxInflatedBytes;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getServletPath().startsWith(pathPrefix);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    response.setHeader(ACCEPT_REQUEST_ENCODING_HEADER, GZIP);
+    if (GZIP.equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+      byte[] body = inflate(request.getInputStream());
+      if (body == null) {
+        response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+      } else {
+        chain.doFilter(new GzipRequestWrapper(request, body), response);
+      }
+    } else {
+      chain.doFilter(request, response);
+    }
+  }
+
+  /**
+   * Decompresses the body and stops as soon as it exceeds the maximum size.
+   *
+   * @return the decompressed body, null if it is larger than allowed
+   */
+  private byte[] inflate(InputStream compressedIn) throws IOException {
+    try (GZIPInputStream gzipIn = new GZIPInputStream(compressedIn)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = gzipIn.read(buffer)) >= 0) {
+        if (out.size() + n > maxInflatedBytes) {
+          return null;
+        }
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * Exposes the decompressed body with its length and hides the content encoding.
+   */
+  private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    GzipRequestWrapper(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      ByteArrayInputStream bodyIn = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+
+        @Override
+        public int read() throws IOException {
+          return bodyIn.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          return bodyIn.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return bodyIn.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        /** The whole body is already in memory, so the listener can read it at once. */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          try {
+            if (!isFinished()) {
+              readListener.onDataAvailable();
+            }
+            readListener.onAllDataRead();
+          } catch (IOException e) {
+            readListener.onError(e);
+          }
+        }
+      };
+    }
+
+    @Override
+    public String getHeader(String name) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        return String.valueOf(body.length);
+      }
+      return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        return Collections.enumeration(Collections.singletonList(String.valueOf(body.length)));
+      }
+      return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) ? Collections.emptyEnumeration()
+          : super.getHeaders(name);
+    }
+
+    @Override
+    public int getContentLength() {
+      return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return body.length;
+    }
+  }
+}
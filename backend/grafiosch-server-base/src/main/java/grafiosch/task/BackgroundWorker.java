@@ -3,11 +3,18 @@ package grafiosch.task;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.slf4j.Logger;
@@ -28,12 +35,24 @@ import grafiosch.exceptions.TaskBackgroundException;
 import grafiosch.exceptions.TaskInterruptException;
 import grafiosch.repository.TaskDataChangeJpaRepository;
 import grafiosch.types.ProgressStateType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
- * One thread is started, which sequentially starts another thread per task. For a task a timeout can be set, this
- * preferably with threads with the possibility of an endless run exists. This continues to run and becomes a zombie but
- * does not hinder the start of new tasks.
+ * A dispatcher thread claims waiting tasks and starts for each task a supervisor thread, which starts another thread
+ * for the task itself. For a task a timeout can be set, this preferably with threads with the possibility of an
+ * endless run exists. This continues to run and becomes a zombie but does not hinder the start of new tasks.
  *
+ * <p>
+ * Tasks of different {@link TaskConcurrencyClass} run in parallel, within a class and within a task type the number of
+ * simultaneously running tasks is limited. A waiting task is claimed with a conditional update, so it is never started
+ * twice. The dispatcher is woken up when a task is committed or a running task ends, otherwise it polls the table.
+ * </p>
+ * <p>
+ * Per task type the time a task waited for its start ({@code g.task.queue.wait}), the run time with the final state
+ * ({@code g.task.run}) and the timeouts ({@code g.task.timeout}) are published as meters.
+ * </p>
  */
 @Component
 public class BackgroundWorker implements DisposableBean, Runnable, ApplicationListener<ApplicationReadyEvent> {
@@ -52,25 +71,37 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
   @Autowired
   private ApplicationEventPublisher applicationEventPublisher;
 
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private TenantTaskLock tenantTaskLock;
+
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-  /** Main background thread that polls for tasks */
+  /** Main background thread that dispatches the waiting tasks */
   private Thread backgroundThread;
 
-  /** Worker thread that executes individual tasks */
-  private Thread workerThread;
-
   /** Flag indicating if the main loop should continue running */
   private volatile boolean runningLoop;
 
-  /** Information about the currently running task */
-  private RunningTask runningTask;
+  /** Currently running tasks by the id of the task data change */
+  private final Map<Integer, RunningTask> runningTasks = new ConcurrentHashMap<>();
 
-  /** Flag indicating if the current task has timed out */
-  private boolean timeout;
+  /** Guards the slot counters and the wake-up signal */
+  private final Object lock = new Object();
+
+  /** Number of running tasks per concurrency class */
+  private final Map<TaskConcurrencyClass, Integer> runningByClass = new EnumMap<>(TaskConcurrencyClass.class);
+
+  /** Number of running tasks per task type */
+  private final Map<Byte, Integer> runningByTaskType = new HashMap<>();
+
+  /** Set when a new task was committed or a running task ended since the last dispatch */
+  private boolean wakeUpSignal;
 
   BackgroundWorker() {
-    backgroundThread = new Thread(this);
+    backgroundThread = new Thread(this, "BackgroundWorker");
   }
 
   @Override
@@ -84,16 +115,117 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
   public void run() {
     while (runningLoop) {
       try {
-        Optional<TaskDataChange> taskDataChangeOpt = taskDataChangeRepository
-            .findTopByProgressStateTypeAndEarliestStartTimeLessThanEqualOrderByExecutionPriorityAscCreationTimeAsc(
-                ProgressStateType.PROG_WAITING.getValue(), LocalDateTime.now());
-        if (taskDataChangeOpt.isPresent()) {
-          final TaskDataChange taskDataChange = taskDataChangeOpt.get();
-          timeoutProcessRunningThread(taskDataChange);
+        dispatchWaitingTasks();
+        synchronized (lock) {
+          if (!wakeUpSignal) {
+            lock.wait(TimeUnit.SECONDS.toMillis(POLLING_TIME_SECONDS));
+          }
+          wakeUpSignal = false;
         }
-        TimeUnit.SECONDS.sleep(POLLING_TIME_SECONDS);
       } catch (InterruptedException ie) {
         log.warn("Backgroud thread was interrupted, Failed to complete operation");
+      } catch (Exception e) {
+        log.error("Dispatching of background tasks failed", e);
+      }
+    }
+  }
+
+  /**
+   * Signals the dispatcher that a task may be ready for execution. Called when a task data change was committed.
+   */
+  public void wakeUp() {
+    synchronized (lock) {
+      wakeUpSignal = true;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Starts waiting tasks as long as one exists whose concurrency class and task type still have a free slot.
+   */
+  private void dispatchWaitingTasks() {
+    while (runningLoop) {
+      Set<Byte> excludedIdTasks = getIdTasksWithoutFreeSlot();
+      Optional<TaskDataChange> taskDataChangeOpt = excludedIdTasks.isEmpty()
+          ? taskDataChangeRepository
+              .findTopByProgressStateTypeAndEarliestStartTimeLessThanEqualOrderByExecutionPriorityAscCreationTimeAsc(
+                  ProgressStateType.PROG_WAITING.getValue(), LocalDateTime.now())
+          : taskDataChangeRepository
+              .findTopByProgressStateTypeAndEarliestStartTimeLessThanEqualAndIdTaskNotInOrderByExecutionPriorityAscCreationTimeAsc(
+                  ProgressStateType.PROG_WAITING.getValue(), LocalDateTime.now(), excludedIdTasks);
+      if (taskDataChangeOpt.isEmpty() || !startTask(taskDataChangeOpt.get())) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Determines the task types that cannot be started at the moment, because their concurrency class or the task type
+   * itself has reached its limit.
+   */
+  private Set<Byte> getIdTasksWithoutFreeSlot() {
+    synchronized (lock) {
+      return tasks.stream().filter(task -> !hasFreeSlot(task)).map(task -> task.getTaskType().getValue())
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private boolean hasFreeSlot(ITask task) {
+    return runningByClass.getOrDefault(task.getConcurrencyClass(), 0) < task.getConcurrencyClass()
+        .getMaxConcurrentTasks()
+        && runningByTaskType.getOrDefault(task.getTaskType().getValue(), 0) < task.getMaxConcurrentInstances();
+  }
+
+  /**
+   * Claims the task and starts it with its own supervisor thread.
+   *
+   * @param taskDataChange the waiting task
+   * @return false if no implementation exists for this task type, the dispatching stops then
+   */
+  private boolean startTask(final TaskDataChange taskDataChange) {
+    Optional<ITask> taskOpt = tasks.stream().filter(task -> task.getTaskType() == taskDataChange.getIdTask())
+        .findFirst();
+    if (taskOpt.isEmpty()) {
+      return false;
+    }
+    final ITask task = taskOpt.get();
+    final LocalDateTime startTime = LocalDateTime.now();
+    synchronized (lock) {
+      if (!hasFreeSlot(task)) {
+        return false;
+      }
+      if (taskDataChangeRepository.claimTask(taskDataChange.getIdTaskDataChange(),
+          ProgressStateType.PROG_WAITING.getValue(), ProgressStateType.PROG_RUNNING.getValue(), startTime) == 0) {
+        // Removed or changed in the meantime, the next candidate is searched
+        return true;
+      }
+      runningByClass.merge(task.getConcurrencyClass(), 1, Integer::sum);
+      runningByTaskType.merge(task.getTaskType().getValue(), 1, Integer::sum);
+    }
+    taskDataChange.setExecStartTime(startTime);
+    taskDataChange.setProgressStateType(ProgressStateType.PROG_RUNNING);
+    recordQueueWait(task, taskDataChange, startTime);
+    RunningTask runningTask = new RunningTask(task, taskDataChange);
+    runningTasks.put(taskDataChange.getIdTaskDataChange(), runningTask);
+    new Thread(() -> superviseTask(runningTask, startTime), "BackgroundWorker-" + task.getTaskType()).start();
+    return true;
+  }
+
+  /**
+   * Runs the task and releases its slot afterwards, even when it ended as zombie.
+   */
+  private void superviseTask(RunningTask runningTask, LocalDateTime startTime) {
+    try {
+      timeoutProcessRunningThread(runningTask, startTime);
+    } catch (InterruptedException ie) {
+      log.warn("Supervisor of background task {} was interrupted", runningTask.taskDataChange.getIdTaskDataChange());
+    } finally {
+      runningTasks.remove(runningTask.taskDataChange.getIdTaskDataChange());
+      synchronized (lock) {
+        runningByClass.merge(runningTask.taskType.getConcurrencyClass(), -1, Integer::sum);
+        runningByTaskType.merge(runningTask.taskType.getTaskType().getValue(), -1, Integer::sum);
+        wakeUpSignal = true;
+        lock.notifyAll();
       }
     }
   }
@@ -113,27 +245,29 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
    * Executes a task with timeout handling. Creates a worker thread to run the task and monitors for timeout conditions.
    * If timeout occurs, attempts to interrupt the thread and handles zombie processes.
    * 
-   * @param taskDataChange the task to execute
+   * @param runningTask the claimed task to execute
+   * @param startTime   the execution start time
    * @throws InterruptedException if the thread is interrupted
    */
-  private void timeoutProcessRunningThread(final TaskDataChange taskDataChange) throws InterruptedException {
-    final LocalDateTime startTime = LocalDateTime.now();
-    Optional<ITask> taskOpt = tasks.stream().filter(task -> task.getTaskType() == taskDataChange.getIdTask())
-        .findFirst();
-    if (taskOpt.isPresent()) {
-      timeout = false;
-      workerThread = new Thread(() -> executeJob(taskOpt.get(), taskDataChange, startTime));
-      workerThread.start();
-      workerThread.join(taskOpt.get().getTimeoutInSeconds() * 1000);
+  private void timeoutProcessRunningThread(final RunningTask runningTask, final LocalDateTime startTime)
+      throws InterruptedException {
+    TaskDataChange taskDataChange = runningTask.taskDataChange;
+    Thread workerThread = new Thread(() -> executeJob(runningTask, startTime));
+    runningTask.workerThread = workerThread;
+    workerThread.start();
+    workerThread.join(runningTask.taskType.getTimeoutInSeconds() * 1000);
+    if (workerThread.isAlive()) {
+      runningTask.timeout = true;
+      if (meterRegistry != null) {
+        Counter.builder("g.task.timeout").description("Background tasks which exceeded their timeout")
+            .tag("task", runningTask.taskType.getTaskType().toString()).register(meterRegistry).increment();
+      }
+      workerThread.interrupt();
+      Thread.sleep(WAIT_MILISECONDS_AFTER_TIMEOUT);
       if (workerThread.isAlive()) {
-        timeout = true;
-        workerThread.interrupt();
-        Thread.sleep(WAIT_MILISECONDS_AFTER_TIMEOUT);
-        if (workerThread.isAlive()) {
-          finishedJob(taskDataChange, startTime, ProgressStateType.PROG_ZOMBIE);
-          applicationEventPublisher.publishEvent(new AlertEvent(this, AlertBaseType.ALERT_GET_ZOMBIE_BACKGROUND_JOB,
-              taskDataChange.getIdTaskDataChange()));
-        }
+        finishedJob(runningTask.taskType, taskDataChange, startTime, ProgressStateType.PROG_ZOMBIE);
+        applicationEventPublisher.publishEvent(new AlertEvent(this, AlertBaseType.ALERT_GET_ZOMBIE_BACKGROUND_JOB,
+            taskDataChange.getIdTaskDataChange()));
       }
     }
   }
@@ -142,20 +276,19 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
    * Executes the actual task logic with error handling. Handles task interruption, background exceptions, and general
    * exceptions. Updates task progress state and manages transaction rollback when needed.
    * 
-   * @param task           the task implementation to execute
-   * @param taskDataChange the task data
-   * @param startTime      the execution start time
+   * @param runningTask the task implementation with its already claimed task data
+   * @param startTime   the execution start time
    */
-  private void executeJob(final ITask task, TaskDataChange taskDataChange, LocalDateTime startTime) {
+  private void executeJob(final RunningTask runningTask, LocalDateTime startTime) {
+    final ITask task = runningTask.taskType;
+    final TaskDataChange taskDataChange = runningTask.taskDataChange;
     try {
-      runningTask = new RunningTask(task, taskDataChange);
-      taskDataChange = startJob(taskDataChange, startTime);
-      task.doWork(cloneTaskDataChange(taskDataChange));
-      finishedJob(taskDataChange, startTime, ProgressStateType.PROG_PROCESSED);
+      doWorkWithTenantLock(task, cloneTaskDataChange(taskDataChange));
+      finishedJob(task, taskDataChange, startTime, ProgressStateType.PROG_PROCESSED);
       removeOtherSamePendingJobs(task);
     } catch (TaskInterruptException tie) {
-      finishedJob(taskDataChange, startTime,
-          timeout ? ProgressStateType.PROG_TIMEOUT : ProgressStateType.PROG_INTERRUPTED);
+      finishedJob(task, taskDataChange, startTime,
+          runningTask.timeout ? ProgressStateType.PROG_TIMEOUT : ProgressStateType.PROG_INTERRUPTED);
     } catch (TaskBackgroundException tbe) {
       if (tbe.getErrorMsgOfSystem() != null) {
         StringBuilder failure = new StringBuilder("");
@@ -167,15 +300,28 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
       if (tbe.isRollback()) {
         TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
       }
-      finishedJob(taskDataChange, startTime, ProgressStateType.PROG_FAILED);
+      finishedJob(task, taskDataChange, startTime, ProgressStateType.PROG_FAILED);
     } catch (Exception e) {
       StringWriter errors = new StringWriter();
       e.printStackTrace(new PrintWriter(errors));
       taskDataChange.setFailedStackTrace(errors.toString().substring(0,
           Math.min(TaskDataChange.MAX_SIZE_FAILED_STRACK_TRACE, errors.toString().length())));
-      finishedJob(taskDataChange, startTime, ProgressStateType.PROG_FAILED);
-    } finally {
-      runningTask = null;
+      finishedJob(task, taskDataChange, startTime, ProgressStateType.PROG_FAILED);
+    }
+  }
+
+  /**
+   * Runs the task while it holds the lock of the tenant it works on, the lock is released after the transaction of the
+   * task was completed.
+   */
+  private void doWorkWithTenantLock(ITask task, TaskDataChange taskDataChange) throws TaskBackgroundException {
+    Integer idTenant = task.getLockedIdTenant(taskDataChange);
+    if (idTenant == null) {
+      task.doWork(taskDataChange);
+    } else {
+      try (TenantTaskLock.TenantLock _ = tenantTaskLock.lock(idTenant)) {
+        task.doWork(taskDataChange);
+      }
     }
   }
 
@@ -194,30 +340,39 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
     return tdcNew;
   }
 
-  /**
-   * Marks a task as started and updates its state.
-   * 
-   * @param taskDataChange the task to start
-   * @param startTime      the start time
-   * @return the updated task data change
-   */
-  private TaskDataChange startJob(final TaskDataChange taskDataChange, LocalDateTime startTime) {
-    taskDataChange.setExecStartTime(startTime);
-    taskDataChange.setProgressStateType(ProgressStateType.PROG_RUNNING);
-    return taskDataChangeRepository.save(taskDataChange);
-  }
-
   /**
    * Marks a task as finished with the specified state.
    * 
+   * @param task              the task implementation
    * @param taskDataChange    the task to finish
    * @param startTime         the start time
    * @param progressStateType the final progress state
    */
-  private void finishedJob(final TaskDataChange taskDataChange, LocalDateTime startTime,
+  private void finishedJob(final ITask task, final TaskDataChange taskDataChange, LocalDateTime startTime,
       ProgressStateType progressStateType) {
     taskDataChange.finishedJob(startTime, progressStateType);
     taskDataChangeRepository.save(taskDataChange);
+    if (meterRegistry != null) {
+      Timer.builder("g.task.run").description("Run time of background tasks by their final state")
+          .tag("task", task.getTaskType().toString()).tag("state", progressStateType.name()).register(meterRegistry)
+          .record(Duration.between(startTime, LocalDateTime.now()));
+    }
+  }
+
+  /**
+   * Records the time a task waited from its creation, or its later earliest start time, until it was started.
+   */
+  private void recordQueueWait(ITask task, TaskDataChange taskDataChange, LocalDateTime startTime) {
+    LocalDateTime creationTime = taskDataChange.getCreationTime();
+    if (meterRegistry != null && creationTime != null) {
+      LocalDateTime earliestStartTime = taskDataChange.getEarliestStartTime();
+      LocalDateTime readyTime = earliestStartTime != null && earliestStartTime.isAfter(creationTime)
+          ? earliestStartTime
+          : creationTime;
+      Timer.builder("g.task.queue.wait").description("Time a background task waited for its start")
+          .tag("task", task.getTaskType().toString()).register(meterRegistry)
+          .record(Duration.between(readyTime, startTime));
+    }
   }
 
   /**
@@ -233,28 +388,31 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
   }
 
   /**
-   * Shuts down the background worker. Stops the main loop and interrupts any running job.
+   * Shuts down the background worker. Stops the main loop and interrupts all running jobs.
    */
   @Override
   public void destroy() {
     runningLoop = false;
+    wakeUp();
     interruptingRunningJob(null);
   }
 
   /**
    * Interrupts a running job if it can be interrupted.
    * 
-   * @param idTaskDataChange the ID of the task to interrupt, or null to interrupt any running task
+   * @param idTaskDataChange the ID of the task to interrupt, or null to interrupt all running tasks
    * @return true if the job was interrupted, false otherwise
    */
   public boolean interruptingRunningJob(Integer idTaskDataChange) {
-    if (workerThread != null && workerThread.isAlive()
-        && (idTaskDataChange == null || runningTask != null && runningTask.taskType.canBeInterrupted()
-            && runningTask.taskDataChange.getIdTaskDataChange().equals(idTaskDataChange))) {
-      workerThread.interrupt();
-      return workerThread.isInterrupted();
+    if (idTaskDataChange == null) {
+      boolean interrupted = false;
+      for (RunningTask runningTask : runningTasks.values()) {
+        interrupted |= runningTask.interrupt();
+      }
+      return interrupted;
     }
-    return false;
+    RunningTask runningTask = runningTasks.get(idTaskDataChange);
+    return runningTask != null && runningTask.taskType.canBeInterrupted() && runningTask.interrupt();
   }
 
   /**
@@ -263,15 +421,28 @@ public class BackgroundWorker implements DisposableBean, Runnable, ApplicationLi
    */
   private static class RunningTask {
     /** The task implementation being executed */
-    public ITask taskType;
+    public final ITask taskType;
     /** The task data being processed */
-    public TaskDataChange taskDataChange;
+    public final TaskDataChange taskDataChange;
+    /** Worker thread that executes the task */
+    public volatile Thread workerThread;
+    /** Flag indicating if the task has timed out */
+    public volatile boolean timeout;
 
     public RunningTask(ITask taskType, TaskDataChange taskDataChange) {
       this.taskType = taskType;
       this.taskDataChange = taskDataChange;
     }
 
+    public boolean interrupt() {
+      Thread thread = workerThread;
+      if (thread != null && thread.isAlive()) {
+        thread.interrupt();
+        return thread.isInterrupted();
+      }
+      return false;
+    }
+
   }
 
-}
\ No newline at end of file
+}
@@ -67,4 +67,35 @@ public interface ITask {
     return 0L;
   }
 
+  /**
+   * Gets the concurrency class of this task. Tasks of different classes may run at the same time.
+   *
+   * @return the concurrency class, {@link TaskConcurrencyClass#SERIAL} by default
+   */
+  default TaskConcurrencyClass getConcurrencyClass() {
+    return TaskConcurrencyClass.SERIAL;
+  }
+
+  /**
+   * Gets the tenant whose data this task changes. The {@link BackgroundWorker} locks it with {@link TenantTaskLock}
+   * for the duration of the task, a task of another concurrency class which works on the same tenant waits meanwhile.
+   * A serial task locks all tenants by default, since it may change the data of any tenant.
+   *
+   * @param taskDataChange the task data containing execution parameters
+   * @return the ID of the tenant, {@link TenantTaskLock#ALL_TENANTS} or null when no tenant is locked
+   */
+  default Integer getLockedIdTenant(TaskDataChange taskDataChange) {
+    return getConcurrencyClass() == TaskConcurrencyClass.SERIAL ? TenantTaskLock.ALL_TENANTS : null;
+  }
+
+  /**
+   * Gets the maximum number of jobs of this task type that may run at the same time. The limit of the concurrency
+   * class applies additionally.
+   *
+   * @return the maximum number of simultaneously running jobs of this task type
+   */
+  default int getMaxConcurrentInstances() {
+    return 1;
+  }
+
 }
@@ -0,0 +1,32 @@
+package grafiosch.task;
+
+/**
+ * Concurrency classes of background tasks. The {@link BackgroundWorker} runs tasks of different classes in parallel,
+ * while the number of simultaneously running tasks within one class is limited by {@link #getMaxConcurrentTasks()}.
+ */
+public enum TaskConcurrencyClass {
+  /**
+   * Default class. Its tasks are executed one after the other, as they change data of the same tenant or instrument
+   * and must not overlap. A serial task locks all tenants with {@link TenantTaskLock}, unless it declares the single
+   * tenant it works on.
+   */
+  SERIAL(1),
+  /**
+   * Long-running bulk jobs, for example the rebuild of the holding tables of all tenants or a GTNet import. They run
+   * one after the other but beside the serial class, so they do not block short user-triggered jobs. Data of a tenant
+   * which a serial task changes as well is only written under the {@link TenantTaskLock} of this tenant.
+   */
+  LONG_RUNNING(1),
+  /** Independent housekeeping jobs which do not interfere with any other task. */
+  PARALLEL(3);
+
+  private final int maxConcurrentTasks;
+
+  private TaskConcurrencyClass(int maxConcurrentTasks) {
+    this.maxConcurrentTasks = maxConcurrentTasks;
+  }
+
+  public int getMaxConcurrentTasks() {
+    return maxConcurrentTasks;
+  }
+}
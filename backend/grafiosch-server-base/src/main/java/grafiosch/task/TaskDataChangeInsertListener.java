@@ -0,0 +1,55 @@
+package grafiosch.task;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import grafiosch.entities.TaskDataChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Wakes up the {@link BackgroundWorker} as soon as a new {@link TaskDataChange} is committed. Background jobs are
+ * created in many places with a simple save of the entity, therefore the notification is hooked into the Hibernate
+ * post-commit insert event instead of every caller. The polling of the worker remains as a fallback, for example for
+ * jobs with an earliest start time in the future.
+ */
+@Component
+public class TaskDataChangeInsertListener implements PostCommitInsertEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  @Autowired
+  private transient EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private transient BackgroundWorker backgroundWorker;
+
+  @PostConstruct
+  public void registerListener() {
+    entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+        .getService(EventListenerRegistry.class).appendListeners(EventType.POST_COMMIT_INSERT, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (event.getEntity() instanceof TaskDataChange) {
+      backgroundWorker.wakeUp();
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return persister.getMappedClass() == TaskDataChange.class;
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {
+  }
+
+}
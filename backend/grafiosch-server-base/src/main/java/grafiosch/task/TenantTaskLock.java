@@ -0,0 +1,75 @@
+package grafiosch.task;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import grafiosch.exceptions.TaskInterruptException;
+
+/**
+ * Excludes background tasks from each other which change the data of the same tenant, while tasks of different tenants
+ * run at the same time.
+ * <p>
+ * A task locks a single tenant, or with {@link #ALL_TENANTS} every tenant. The lock of every tenant waits until no
+ * single tenant is locked any more and blocks new single tenant locks until it is released. This allows a long-running
+ * task such as the rebuild of the holdings of all tenants to run beside the serial tasks: it locks one tenant after the
+ * other and waits only for a serial task which works on the same tenant or on all tenants.
+ * </p>
+ */
+@Component
+public class TenantTaskLock {
+
+  /** Passed instead of the ID of a tenant to lock every tenant. */
+  public static final Integer ALL_TENANTS = -1;
+
+  /** Single tenant locks share the read lock, the lock of all tenants holds the write lock. */
+  private final ReentrantReadWriteLock allTenantsLock = new ReentrantReadWriteLock();
+
+  private final Map<Integer, ReentrantLock> tenantLocks = new ConcurrentHashMap<>();
+
+  /**
+   * Locks a tenant or all tenants, waiting as long as another task holds it.
+   *
+   * @param idTenant the ID of the tenant or {@link #ALL_TENANTS}
+   * @return the lock to release, it must be closed by the same thread
+   * @throws TaskInterruptException when the thread is interrupted while waiting
+   */
+  public TenantLock lock(Integer idTenant) {
+    try {
+      if (ALL_TENANTS.equals(idTenant)) {
+        Lock writeLock = allTenantsLock.writeLock();
+        writeLock.lockInterruptibly();
+        return writeLock::unlock;
+      }
+      Lock readLock = allTenantsLock.readLock();
+      readLock.lockInterruptibly();
+      ReentrantLock tenantLock = tenantLocks.computeIfAbsent(idTenant, _ -> new ReentrantLock());
+      try {
+        tenantLock.lockInterruptibly();
+      } catch (InterruptedException ie) {
+        readLock.unlock();
+        throw ie;
+      }
+      return () -> {
+        tenantLock.unlock();
+        readLock.unlock();
+      };
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new TaskInterruptException(ie);
+    }
+  }
+
+  /**
+   * A held lock, it is released with {@link #close()}.
+   */
+  @FunctionalInterface
+  public interface TenantLock extends AutoCloseable {
+    @Override
+    void close();
+  }
+}
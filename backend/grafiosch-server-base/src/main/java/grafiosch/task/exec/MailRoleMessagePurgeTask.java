@@ -14,6 +14,7 @@ import grafiosch.exceptions.TaskBackgroundException;
 import grafiosch.repository.MailSendRecvJpaRepository;
 import grafiosch.repository.TaskDataChangeJpaRepository;
 import grafiosch.task.ITask;
+import grafiosch.task.TaskConcurrencyClass;
 import grafiosch.types.ITaskType;
 import grafiosch.types.TaskDataExecPriority;
 import grafiosch.types.TaskTypeBase;
@@ -55,6 +56,11 @@ public class MailRoleMessagePurgeTask implements ITask {
     return TaskTypeBase.MAIL_ROLE_MESSAGE_PURGE;
   }
 
+  @Override
+  public TaskConcurrencyClass getConcurrencyClass() {
+    return TaskConcurrencyClass.PARALLEL;
+  }
+
   @Override
   public void doWork(TaskDataChange taskDataChange) throws TaskBackgroundException {
     List<Integer> keys = mailSendRecvJpaRepository.findPurgeableRoleThreadKeys();
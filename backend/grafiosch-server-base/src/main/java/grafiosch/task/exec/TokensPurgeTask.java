@@ -10,6 +10,7 @@ import grafiosch.exceptions.TaskBackgroundException;
 import grafiosch.repository.TaskDataChangeJpaRepository;
 import grafiosch.repository.UserJpaRepository;
 import grafiosch.task.ITask;
+import grafiosch.task.TaskConcurrencyClass;
 import grafiosch.types.ITaskType;
 import grafiosch.types.TaskDataExecPriority;
 import grafiosch.types.TaskTypeBase;
@@ -38,6 +39,11 @@ public class TokensPurgeTask implements ITask {
     return TaskTypeBase.TOKEN_USER_REGISTRATION_PURGE;
   }
 
+  @Override
+  public TaskConcurrencyClass getConcurrencyClass() {
+    return TaskConcurrencyClass.PARALLEL;
+  }
+
   @Override
   public void doWork(TaskDataChange taskDataChange) throws TaskBackgroundException {
     userJpaRepository.removeWithExpiredVerificationToken();
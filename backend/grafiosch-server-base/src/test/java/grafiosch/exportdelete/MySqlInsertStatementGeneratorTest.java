@@ -0,0 +1,159 @@
+package grafiosch.exportdelete;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Tests that the INSERT statements written by {@link MySqlInsertStatementGenerator#writeInsertStatements} while the
+ * rows are read match the statements created from the rows held in memory.
+ */
+class MySqlInsertStatementGeneratorTest {
+
+  private static final String TABLE = "user";
+  private static final String[] COLUMNS = { "id_user", "nickname", "note", "last_login", "avatar" };
+  private static final int[] TYPES = { Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+      Types.VARBINARY };
+
+  private final ResultSetMetaData metaData = createMetaData();
+
+  @Test
+  @DisplayName("NULL, quotes, line breaks, timestamps and binary values are written like the in-memory statements")
+  void valuesTest() throws Exception {
+    List<Object[]> rows = List.of(
+        new Object[] { 1, "O'Brien", "first\nsecond\rthird", Timestamp.valueOf("2026-03-02 15:30:00"),
+            new byte[] { 10, (byte) 255 } },
+        new Object[] { 2, "Anna", null, null, null });
+
+    String written = write(rows);
+
+    assertThat(written).isEqualTo(createInMemory(rows));
+    assertThat(written).contains("(1, 'O\\'Brien', 'first\\nsecond\\rthird', '2026-03-02 15:30:00.0', 0x0aff)")
+        .contains("(2, 'Anna', NULL, NULL, NULL)").startsWith("INSERT INTO `user`(`id_user`, `nickname`, `note`, "
+            + "`last_login`, `avatar`) VALUES \n");
+  }
+
+  @Test
+  @DisplayName("A statement holds at most 500 rows, the rows and their order are the same as in memory")
+  void splitTest() throws Exception {
+    List<Object[]> rows = createRows(1201);
+
+    String written = write(rows);
+
+    List<String> statements = Arrays.asList(written.split("(?<=;\n)"));
+    assertThat(statements).hasSize(3).allSatisfy(statement -> assertThat(statement).startsWith("INSERT INTO")
+        .endsWith(");\n"));
+    assertThat(statements).extracting(statement -> getRowLines(statement).size()).containsExactly(500, 500, 201);
+    assertThat(getRowLines(written)).isEqualTo(getRowLines(createInMemory(rows)));
+  }
+
+  @Test
+  @DisplayName("Exactly 500 rows give a single statement, an empty result writes nothing")
+  void boundaryTest() throws Exception {
+    List<Object[]> rows = createRows(500);
+
+    assertThat(write(rows)).isEqualTo(createInMemory(rows));
+    assertThat(write(List.of())).isEmpty();
+  }
+
+  /**
+   * Runs {@link MySqlInsertStatementGenerator#writeInsertStatements} with a JDBC template which passes the given rows
+   * to the row callback.
+   */
+  private String write(List<Object[]> rows) throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getMetaData()).thenReturn(metaData);
+    int[] rowIndex = new int[1];
+    when(rs.getObject(anyInt()))
+        .thenAnswer(invocation -> rows.get(rowIndex[0])[invocation.<Integer>getArgument(0) - 1]);
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    doAnswer(invocation -> {
+      invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+      RowCallbackHandler rowCallbackHandler = invocation.getArgument(1);
+      for (rowIndex[0] = 0; rowIndex[0] < rows.size(); rowIndex[0]++) {
+        rowCallbackHandler.processRow(rs);
+      }
+      return null;
+    }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+    StringWriter writer = new StringWriter();
+    int rowCount = MySqlInsertStatementGenerator.writeInsertStatements(jdbcTemplate, TABLE,
+        "SELECT * FROM user WHERE id_user=?", new Object[] { 7 }, writer);
+
+    assertThat(rowCount).isEqualTo(rows.size());
+    verify(ps).setObject(1, 7);
+    verify(ps).setFetchSize(anyInt());
+    return writer.toString();
+  }
+
+  private String createInMemory(List<Object[]> rows) throws SQLException {
+    List<Map<String, Object>> rowMaps = new ArrayList<>();
+    for (Object[] row : rows) {
+      Map<String, Object> rowMap = new LinkedHashMap<>();
+      for (int i = 0; i < COLUMNS.length; i++) {
+        rowMap.put(COLUMNS[i], row[i]);
+      }
+      rowMaps.add(rowMap);
+    }
+    return MySqlInsertStatementGenerator.createInsertStatements(TABLE, metaData, rowMaps).toString();
+  }
+
+  /**
+   * Returns the value tuples of the statements without the separators between the rows and statements.
+   */
+  private static List<String> getRowLines(String statements) {
+    return statements.lines().filter(line -> line.startsWith("("))
+        .map(line -> line.endsWith(",") || line.endsWith(";") ? line.substring(0, line.length() - 1) : line).toList();
+  }
+
+  private static List<Object[]> createRows(int count) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      rows.add(new Object[] { i, "user" + i, i % 3 == 0 ? null : "note's " + i,
+          Timestamp.valueOf("2026-03-02 15:30:00"), null });
+    }
+    return rows;
+  }
+
+  private static ResultSetMetaData createMetaData() {
+    try {
+      ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+      when(metaData.getColumnCount()).thenReturn(COLUMNS.length);
+      for (int i = 0; i < COLUMNS.length; i++) {
+        when(metaData.getColumnName(i + 1)).thenReturn(COLUMNS[i]);
+        when(metaData.getColumnType(i + 1)).thenReturn(TYPES[i]);
+      }
+      return metaData;
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package grafiosch.m2m.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import grafiosch.gtnet.m2m.model.MessageEnvelope;
+import grafiosch.m2m.client.BaseDataClient.PeerRequest;
+import grafiosch.m2m.client.BaseDataClient.SendResult;
+import grafiosch.rest.RequestMappings;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests that {@link BaseDataClient#sendToMsgsWithStatus(List)} reports a remote which answers with an unreadable body
+ * as failed, while the messages to the other remotes are still delivered.
+ */
+class BaseDataClientTest {
+
+  private static final byte MESSAGE_CODE = 3;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private final BaseDataClient baseDataClient = new BaseDataClient(jsonMapper);
+  private HttpServer validPeer;
+  private HttpServer invalidPeer;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MessageEnvelope answer = new MessageEnvelope();
+    answer.messageCode = MESSAGE_CODE;
+    answer.message = "ok";
+    validPeer = startPeer(jsonMapper.writeValueAsBytes(answer));
+    invalidPeer = startPeer("{\"messageCode\": <html>".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @AfterEach
+  void tearDown() {
+    baseDataClient.destroy();
+    validPeer.stop(0);
+    invalidPeer.stop(0);
+  }
+
+  @Test
+  @DisplayName("A remote answering with invalid JSON fails without affecting the other remotes")
+  void invalidJsonTest() {
+    List<SendResult> results = baseDataClient.sendToMsgsWithStatus(
+        List.of(peerRequest(invalidPeer), peerRequest(validPeer)));
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).isFailed()).isTrue();
+    assertThat(results.get(0).errorMessage()).isNotNull();
+    assertThat(results.get(1).isDelivered()).isTrue();
+    assertThat(results.get(1).response().message).isEqualTo("ok");
+  }
+
+  private PeerRequest peerRequest(HttpServer peer) {
+    MessageEnvelope messageEnvelope = new MessageEnvelope();
+    messageEnvelope.messageCode = MESSAGE_CODE;
+    return new PeerRequest(null, "http://localhost:" + peer.getAddress().getPort(), messageEnvelope, 5);
+  }
+
+  private static HttpServer startPeer(byte[] responseBody) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(RequestMappings.GTNET_M2M_MAP, exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, responseBody.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(responseBody);
+      }
+    });
+    server.start();
+    return server;
+  }
+}
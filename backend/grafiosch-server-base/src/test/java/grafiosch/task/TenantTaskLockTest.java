@@ -0,0 +1,57 @@
+package grafiosch.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafiosch.task.TenantTaskLock.TenantLock;
+
+/**
+ * Tests that {@link TenantTaskLock} excludes tasks of the same tenant, while different tenants are locked at the same
+ * time and the lock of all tenants waits for every single tenant lock.
+ */
+class TenantTaskLockTest {
+
+  private final TenantTaskLock tenantTaskLock = new TenantTaskLock();
+
+  @Test
+  @DisplayName("A locked tenant blocks the same tenant but not another one")
+  void singleTenantTest() throws Exception {
+    TenantLock lock = tenantTaskLock.lock(1);
+    CompletableFuture<Void> sameTenant = lockAndReleaseAsync(1);
+    CompletableFuture<Void> otherTenant = lockAndReleaseAsync(2);
+
+    otherTenant.get(5, TimeUnit.SECONDS);
+    Thread.sleep(100);
+    assertThat(sameTenant).isNotDone();
+
+    lock.close();
+    sameTenant.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  @DisplayName("The lock of all tenants waits for a single tenant and blocks every tenant")
+  void allTenantsTest() throws Exception {
+    TenantLock lock = tenantTaskLock.lock(1);
+    CompletableFuture<Void> allTenants = lockAndReleaseAsync(TenantTaskLock.ALL_TENANTS);
+    Thread.sleep(100);
+    assertThat(allTenants).isNotDone();
+    lock.close();
+    allTenants.get(5, TimeUnit.SECONDS);
+
+    TenantLock allLock = tenantTaskLock.lock(TenantTaskLock.ALL_TENANTS);
+    CompletableFuture<Void> otherTenant = lockAndReleaseAsync(2);
+    Thread.sleep(100);
+    assertThat(otherTenant).isNotDone();
+    allLock.close();
+    otherTenant.get(5, TimeUnit.SECONDS);
+  }
+
+  private CompletableFuture<Void> lockAndReleaseAsync(Integer idTenant) {
+    return CompletableFuture.runAsync(() -> tenantTaskLock.lock(idTenant).close());
+  }
+}
@@ -19,7 +19,7 @@ import grafiosch.types.TaskTypeBase;
 
 /**
  * Schedules a background job through the batch processing monitor endpoint and verifies that it is persisted as waiting
- * with the requested delay, without waiting for the single-threaded {@code BackgroundWorker} to pick it up.
+ * with the requested delay, without waiting for the {@code BackgroundWorker} to pick it up.
  *
  * <p>
  * The task type is one of the library's own ({@code TaskTypeBase}); applications add theirs in the value band above 29.
@@ -0,0 +1,271 @@
+package grafioschtrader.benchmark.connector;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import grafioschtrader.connector.instrument.FeedConnectorHelper;
+import grafioschtrader.entities.GenericConnectorEndpoint;
+import grafioschtrader.entities.GenericConnectorFieldMapping;
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.types.DateFormatType;
+import grafioschtrader.types.JsonDataStructure;
+import grafioschtrader.types.NumberFormatType;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * The history parsing of the generic connector before it was replaced by the compiled streaming parser, kept as the
+ * baseline of {@link GenericHistoryParserBenchmark}. A JSON response is read into a {@code JsonNode} tree and every
+ * field mapping navigates its path per row, a CSV response is split into lines and columns with regular expressions.
+ * The code is unchanged apart from the debug logging of values which could not be parsed.
+ */
+class FormerGenericHistoryParser {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final GenericConnectorEndpoint endpoint;
+
+  FormerGenericHistoryParser(GenericConnectorEndpoint endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  List<Historyquote> parseJson(String body) {
+    JsonNode root = objectMapper.readTree(body);
+
+    if (endpoint.getJsonStatusPath() != null) {
+      JsonNode statusNode = navigatePath(root, endpoint.getJsonStatusPath());
+      if (statusNode != null && endpoint.getJsonStatusOkValue() != null
+          && !endpoint.getJsonStatusOkValue().equals(statusNode.asString())) {
+        throw new RuntimeException("Data provider status error: " + statusNode.asString());
+      }
+    }
+
+    JsonNode dataNode = endpoint.getJsonDataPath() != null ? navigatePath(root, endpoint.getJsonDataPath()) : root;
+    List<Historyquote> quotes = new ArrayList<>();
+    JsonDataStructure structure = endpoint.getJsonDataStructure();
+
+    if (structure == JsonDataStructure.ARRAY_OF_OBJECTS && dataNode.isArray()) {
+      for (JsonNode row : dataNode) {
+        Historyquote hq = new Historyquote();
+        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+          JsonNode valueNode = navigatePath(row, mapping.getSourceExpression());
+          if (valueNode != null && !valueNode.isNull()) {
+            setHistoryField(hq, mapping, valueNode.asString());
+          }
+        }
+        if (hq.getDate() != null) {
+          quotes.add(hq);
+        }
+      }
+    } else if (structure == JsonDataStructure.PARALLEL_ARRAYS && dataNode.isObject()) {
+      Map<String, JsonNode> arrays = new HashMap<>();
+      for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+        JsonNode arr = navigatePath(dataNode, mapping.getSourceExpression());
+        if (arr != null && arr.isArray()) {
+          arrays.put(mapping.getTargetField(), arr);
+        }
+      }
+      int size = arrays.values().stream().mapToInt(JsonNode::size).min().orElse(0);
+      for (int i = 0; i < size; i++) {
+        Historyquote hq = new Historyquote();
+        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+          JsonNode arr = arrays.get(mapping.getTargetField());
+          if (arr != null && i < arr.size()) {
+            setHistoryField(hq, mapping, arr.get(i).asString());
+          }
+        }
+        if (hq.getDate() != null) {
+          quotes.add(hq);
+        }
+      }
+    } else if (structure == JsonDataStructure.COLUMN_ROW_ARRAYS) {
+      Map<String, Integer> colIndex = buildColumnIndex(root);
+      for (JsonNode row : dataNode) {
+        if (!row.isArray()) {
+          continue;
+        }
+        Historyquote hq = new Historyquote();
+        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+          Integer idx = colIndex.get(mapping.getSourceExpression());
+          if (idx != null && idx < row.size()) {
+            JsonNode valueNode = row.get(idx);
+            if (valueNode != null && !valueNode.isNull()) {
+              setHistoryField(hq, mapping, valueNode.asString());
+            }
+          }
+        }
+        if (hq.getDate() != null) {
+          quotes.add(hq);
+        }
+      }
+    }
+
+    return quotes;
+  }
+
+  List<Historyquote> parseCsv(String body) {
+    List<Historyquote> quotes = new ArrayList<>();
+    String[] lines = body.split("\\r?\\n");
+    int skip = endpoint.getCsvSkipHeaderLines() != null ? endpoint.getCsvSkipHeaderLines() : 1;
+    String delimiter = resolveCsvDelimiter();
+
+    for (int i = skip; i < lines.length; i++) {
+      String line = lines[i].trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] columns = line.split(delimiter, -1);
+      Historyquote hq = new Historyquote();
+      boolean valid = true;
+      for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+        int colIdx = mapping.getCsvColumnIndex() != null ? mapping.getCsvColumnIndex() : 0;
+        if (colIdx < columns.length) {
+          try {
+            setHistoryField(hq, mapping, stripQuotes(columns[colIdx].trim()));
+          } catch (Exception e) {
+            if (mapping.isRequired()) {
+              valid = false;
+            }
+          }
+        }
+      }
+      if (valid && hq.getDate() != null) {
+        quotes.add(hq);
+      }
+    }
+    return quotes;
+  }
+
+  private Map<String, Integer> buildColumnIndex(JsonNode root) {
+    Map<String, Integer> colIndex = new HashMap<>();
+    if (endpoint.getJsonColumnNamesPath() != null) {
+      JsonNode colNamesNode = navigatePath(root, endpoint.getJsonColumnNamesPath());
+      if (colNamesNode != null && colNamesNode.isArray()) {
+        for (int i = 0; i < colNamesNode.size(); i++) {
+          colIndex.put(colNamesNode.get(i).asString(), i);
+        }
+      }
+    }
+    return colIndex;
+  }
+
+  private JsonNode navigatePath(JsonNode node, String dotPath) {
+    String[] parts = dotPath.split("\\.");
+    for (String part : parts) {
+      if (node == null) {
+        return null;
+      }
+      try {
+        int index = Integer.parseInt(part);
+        node = node.get(index);
+      } catch (NumberFormatException e) {
+        node = node.get(part);
+      }
+    }
+    return node;
+  }
+
+  private static String stripQuotes(String value) {
+    if (value != null && value.length() >= 2
+        && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+      return value.substring(1, value.length() - 1);
+    }
+    return value;
+  }
+
+  private String resolveCsvDelimiter() {
+    String delimiter = endpoint.getCsvDelimiter();
+    if (delimiter == null) {
+      return ",";
+    }
+    if ("\\t".equals(delimiter)) {
+      return "\t";
+    }
+    return Pattern.quote(delimiter);
+  }
+
+  private void setHistoryField(Historyquote hq, GenericConnectorFieldMapping mapping, String rawValue) {
+    if (rawValue == null || rawValue.isEmpty()) {
+      return;
+    }
+    String target = mapping.getTargetField();
+    try {
+      if ("date".equals(target)) {
+        hq.setDate(parseDate(rawValue));
+      } else {
+        double val = parseNumber(rawValue, endpoint.getNumberFormat());
+        if (mapping.getDividerExpression() != null) {
+          val /= Double.parseDouble(mapping.getDividerExpression());
+        }
+        switch (target) {
+        case "open":
+          hq.setOpen(val);
+          break;
+        case "high":
+          hq.setHigh(val);
+          break;
+        case "low":
+          hq.setLow(val);
+          break;
+        case "close":
+          hq.setClose(val);
+          break;
+        case "volume":
+          hq.setVolume((long) val);
+          break;
+        }
+      }
+    } catch (Exception e) {
+      // The former code logged the value on debug level
+    }
+  }
+
+  private LocalDate parseDate(String rawValue) {
+    DateFormatType dft = endpoint.getDateFormatType();
+    try {
+      switch (dft) {
+      case UNIX_SECONDS:
+        long epochSec = Long.parseLong(rawValue);
+        return Instant.ofEpochSecond(epochSec).atZone(ZoneId.systemDefault()).toLocalDate();
+      case UNIX_MILLIS:
+        long epochMs = Long.parseLong(rawValue);
+        return Instant.ofEpochMilli(epochMs).atZone(ZoneId.systemDefault()).toLocalDate();
+      case PATTERN:
+        return LocalDate.parse(rawValue, DateTimeFormatter.ofPattern(endpoint.getDateFormatPattern()));
+      case ISO_DATE:
+        return LocalDate.parse(rawValue);
+      case ISO_DATE_TIME:
+        return LocalDate.parse(rawValue.substring(0, Math.min(rawValue.length(), 10)));
+      default:
+        return null;
+      }
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private double parseNumber(String rawValue, NumberFormatType numberFormat) throws ParseException {
+    if (rawValue == null || rawValue.isBlank()) {
+      return 0.0;
+    }
+    switch (numberFormat) {
+    case GERMAN:
+      return FeedConnectorHelper.parseDoubleGE(rawValue);
+    case US:
+      return FeedConnectorHelper.parseDoubleUS(rawValue);
+    case SWISS:
+      return FeedConnectorHelper.parseDoubleCH(rawValue);
+    case PLAIN:
+    default:
+      return Double.parseDouble(rawValue.replace(",", "").trim());
+    }
+  }
+}
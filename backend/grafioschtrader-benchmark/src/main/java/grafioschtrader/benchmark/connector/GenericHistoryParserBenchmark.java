@@ -0,0 +1,220 @@
+package grafioschtrader.benchmark.connector;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import grafioschtrader.connector.instrument.generic.GenericHistoryParser;
+import grafioschtrader.entities.GenericConnectorEndpoint;
+import grafioschtrader.entities.GenericConnectorFieldMapping;
+import grafioschtrader.types.DateFormatType;
+import grafioschtrader.types.JsonDataStructure;
+import grafioschtrader.types.NumberFormatType;
+import grafioschtrader.types.ResponseFormatType;
+
+/**
+ * Measures the history parser of the generic connector on full history responses of several MB. The responses are
+ * generated in the shape of the data providers which use the respective structure: an array of objects with many
+ * unmapped properties, a chart with parallel arrays, a dataset with column names and row arrays, and a CSV download.
+ * {@link #parseFormer} runs the former tree based parsing of the connector on the same endpoint and response. Run with
+ * {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenericHistoryParserBenchmark {
+
+  @Param({ "ARRAY_OF_OBJECTS", "PARALLEL_ARRAYS", "COLUMN_ROW_ARRAYS", "CSV" })
+  public String shape;
+
+  /** Number of trading days in the response, 25000 are about 100 years or a 5 MB array of objects. */
+  @Param({ "25000" })
+  public int days;
+
+  private GenericConnectorEndpoint endpoint;
+  private GenericHistoryParser parser;
+  private FormerGenericHistoryParser formerParser;
+  private String body;
+
+  @Setup
+  public void setup() {
+    endpoint = new GenericConnectorEndpoint();
+    endpoint.setNumberFormat(NumberFormatType.PLAIN);
+    endpoint.setDateFormatType(DateFormatType.ISO_DATE);
+    endpoint.setResponseFormat(ResponseFormatType.JSON);
+    endpoint.setFieldMappings(new ArrayList<>());
+    Bar[] bars = generateBars();
+    switch (shape) {
+    case "ARRAY_OF_OBJECTS":
+      body = arrayOfObjects(bars);
+      break;
+    case "PARALLEL_ARRAYS":
+      body = parallelArrays(bars);
+      break;
+    case "COLUMN_ROW_ARRAYS":
+      body = columnRowArrays(bars);
+      break;
+    default:
+      body = csv(bars);
+    }
+    parser = new GenericHistoryParser(endpoint);
+    formerParser = new FormerGenericHistoryParser(endpoint);
+  }
+
+  @Benchmark
+  public void parse(Blackhole bh) {
+    bh.consume(endpoint.getResponseFormat() == ResponseFormatType.CSV ? parser.parseCsv(body) : parser.parseJson(body));
+  }
+
+  @Benchmark
+  public void parseFormer(Blackhole bh) {
+    bh.consume(endpoint.getResponseFormat() == ResponseFormatType.CSV ? formerParser.parseCsv(body)
+        : formerParser.parseJson(body));
+  }
+
+  private String arrayOfObjects(Bar[] bars) {
+    endpoint.setJsonDataStructure(JsonDataStructure.ARRAY_OF_OBJECTS);
+    endpoint.setJsonDataPath("historical");
+    addMappings("date", "open", "high", "low", "close", "volume");
+    StringBuilder sb = new StringBuilder("{\"symbol\":\"NESN.SW\",\"historical\":[");
+    for (int i = 0; i < bars.length; i++) {
+      Bar b = bars[i];
+      sb.append(i == 0 ? "" : ",").append("{\"date\":\"").append(b.date).append("\",\"open\":").append(b.open)
+          .append(",\"high\":").append(b.high).append(",\"low\":").append(b.low).append(",\"close\":")
+          .append(b.close).append(",\"adjClose\":").append(b.close).append(",\"volume\":").append(b.volume)
+          .append(",\"unadjustedVolume\":").append(b.volume).append(",\"change\":").append(fmt(b.close - b.open))
+          .append(",\"changePercent\":").append(fmt((b.close - b.open) / b.open * 100)).append(",\"vwap\":")
+          .append(fmt((b.high + b.low + b.close) / 3)).append(",\"label\":\"").append(b.date)
+          .append("\",\"changeOverTime\":").append(fmt((b.close - b.open) / b.open)).append("}");
+    }
+    return sb.append("]}").toString();
+  }
+
+  private String parallelArrays(Bar[] bars) {
+    endpoint.setJsonDataStructure(JsonDataStructure.PARALLEL_ARRAYS);
+    endpoint.setDateFormatType(DateFormatType.UNIX_SECONDS);
+    endpoint.setJsonDataPath("chart.result.0");
+    endpoint.getFieldMappings().add(mapping("date", "timestamp"));
+    for (String field : new String[] { "open", "high", "low", "close", "volume" }) {
+      endpoint.getFieldMappings().add(mapping(field, "indicators.quote.0." + field));
+    }
+    StringBuilder sb = new StringBuilder("{\"chart\":{\"result\":[{\"meta\":{\"currency\":\"CHF\",\"symbol\":"
+        + "\"NESN.SW\",\"exchangeName\":\"EBS\",\"instrumentType\":\"EQUITY\"},\"timestamp\":[");
+    for (int i = 0; i < bars.length; i++) {
+      sb.append(i == 0 ? "" : ",").append(bars[i].date.atStartOfDay(ZoneId.systemDefault()).toEpochSecond());
+    }
+    sb.append("],\"indicators\":{\"quote\":[{");
+    appendArray(sb, "open", bars, b -> b.open).append(",");
+    appendArray(sb, "high", bars, b -> b.high).append(",");
+    appendArray(sb, "low", bars, b -> b.low).append(",");
+    appendArray(sb, "close", bars, b -> b.close).append(",");
+    appendArray(sb, "volume", bars, b -> b.volume).append("}],\"adjclose\":[{");
+    appendArray(sb, "adjclose", bars, b -> b.close);
+    return sb.append("}]}}],\"error\":null}}").toString();
+  }
+
+  private String columnRowArrays(Bar[] bars) {
+    endpoint.setJsonDataStructure(JsonDataStructure.COLUMN_ROW_ARRAYS);
+    endpoint.setJsonDataPath("dataset.data");
+    endpoint.setJsonColumnNamesPath("dataset.column_names");
+    String[] columns = { "Date", "Open", "High", "Low", "Close", "Volume" };
+    String[] targets = { "date", "open", "high", "low", "close", "volume" };
+    for (int i = 0; i < columns.length; i++) {
+      endpoint.getFieldMappings().add(mapping(targets[i], columns[i]));
+    }
+    StringBuilder sb = new StringBuilder("{\"dataset\":{\"id\":4711,\"dataset_code\":\"NESN\",\"column_names\":"
+        + "[\"Date\",\"Open\",\"High\",\"Low\",\"Close\",\"Volume\",\"Turnover\",\"Adj. Close\"],\"data\":[");
+    for (int i = 0; i < bars.length; i++) {
+      Bar b = bars[i];
+      sb.append(i == 0 ? "" : ",").append("[\"").append(b.date).append("\",").append(b.open).append(",")
+          .append(b.high).append(",").append(b.low).append(",").append(b.close).append(",").append(b.volume)
+          .append(",").append(fmt(b.volume * b.close)).append(",").append(b.close).append("]");
+    }
+    return sb.append("]}}").toString();
+  }
+
+  private String csv(Bar[] bars) {
+    endpoint.setResponseFormat(ResponseFormatType.CSV);
+    String[] targets = { "date", "open", "high", "low", "close", null, "volume" };
+    for (int i = 0; i < targets.length; i++) {
+      if (targets[i] != null) {
+        GenericConnectorFieldMapping mapping = mapping(targets[i], null);
+        mapping.setCsvColumnIndex((short) i);
+        endpoint.getFieldMappings().add(mapping);
+      }
+    }
+    StringBuilder sb = new StringBuilder("Date,Open,High,Low,Close,Adj Close,Volume\n");
+    for (Bar b : bars) {
+      sb.append(b.date).append(",").append(b.open).append(",").append(b.high).append(",").append(b.low).append(",")
+          .append(b.close).append(",").append(b.close).append(",").append(b.volume).append("\n");
+    }
+    return sb.toString();
+  }
+
+  private void addMappings(String... fields) {
+    for (String field : fields) {
+      endpoint.getFieldMappings().add(mapping(field, field));
+    }
+  }
+
+  private static GenericConnectorFieldMapping mapping(String targetField, String sourceExpression) {
+    GenericConnectorFieldMapping mapping = new GenericConnectorFieldMapping();
+    mapping.setTargetField(targetField);
+    mapping.setSourceExpression(sourceExpression);
+    return mapping;
+  }
+
+  private static StringBuilder appendArray(StringBuilder sb, String name, Bar[] bars, BarValue value) {
+    sb.append("\"").append(name).append("\":[");
+    for (int i = 0; i < bars.length; i++) {
+      sb.append(i == 0 ? "" : ",").append(value.get(bars[i]));
+    }
+    return sb.append("]");
+  }
+
+  private static String fmt(double value) {
+    return String.format(Locale.US, "%.6f", value);
+  }
+
+  private Bar[] generateBars() {
+    Random random = new Random(42);
+    Bar[] bars = new Bar[days];
+    LocalDate date = LocalDate.now().minusDays(days * 7L / 5);
+    double close = 100;
+    for (int i = 0; i < days; i++) {
+      double open = close;
+      close = Math.round(close * (1 + random.nextGaussian() * 0.01) * 100) / 100.0;
+      double spread = Math.abs(random.nextGaussian()) * 0.005 * close;
+      bars[i] = new Bar(date, open, Math.round((Math.max(open, close) + spread) * 100) / 100.0,
+          Math.round((Math.min(open, close) - spread) * 100) / 100.0, close, 100_000 + random.nextInt(5_000_000));
+      date = date.plusDays(date.getDayOfWeek().getValue() >= 5 ? 8 - date.getDayOfWeek().getValue() : 1);
+    }
+    return bars;
+  }
+
+  private record Bar(LocalDate date, double open, double high, double low, double close, long volume) {
+  }
+
+  private interface BarValue {
+    Object get(Bar bar);
+  }
+}
@@ -0,0 +1,77 @@
+package grafioschtrader.benchmark.position;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import grafioschtrader.repository.helper.GroupCurrency;
+
+/**
+ * Measures the position calculations of a whole tenant end to end: the security position summary, the dividends
+ * report, the account summary grouped by currency and the rebuild of the security holdings. The data comes from a
+ * {@link SyntheticTenant} held in memory, so the benchmarks run offline and measure the calculation without the
+ * database. Run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionCalcBenchmark {
+
+  /** Number of portfolios, each with a security account and a cash account in CHF, USD and EUR. */
+  @Param({ "5", "20" })
+  public int accounts;
+
+  /** Number of instruments: equities, ETFs, bonds and CFDs in CHF, USD and EUR. */
+  @Param({ "40" })
+  public int securities;
+
+  /** Number of transactions of each portfolio over ten years. */
+  @Param({ "500", "2000" })
+  public int transactions;
+
+  private PositionCalcFixture fixture;
+
+  @Setup
+  public void setup() {
+    fixture = new PositionCalcFixture(new SyntheticTenant(accounts, securities, transactions, 42));
+  }
+
+  @Benchmark
+  public void securityPositionSummary(Blackhole bh) throws Exception {
+    bh.consume(fixture.securityPositionSummaryReport.getSecurityPositionGrandSummaryIdTenant(true,
+        SyntheticTenant.UNTIL_DATE));
+  }
+
+  @Benchmark
+  public void securityDividends(Blackhole bh) {
+    bh.consume(fixture.securityDividendsReport.getSecurityDividendsGrandTotalByTenant(SyntheticTenant.ID_TENANT,
+        List.of(-1), List.of(-1)));
+  }
+
+  @Benchmark
+  public void accountPositionGroupSummary(Blackhole bh) {
+    bh.consume(fixture.accountPositionGroupSummaryReport.getAccountGrandSummaryIdTenant(SyntheticTenant.ID_TENANT,
+        new GroupCurrency(), SyntheticTenant.UNTIL_DATE));
+  }
+
+  @Benchmark
+  public void holdingsRebuild(Blackhole bh) {
+    fixture.holdSecurityaccountSecurityRepository.createSecurityHoldingsEntireByTenant(SyntheticTenant.ID_TENANT);
+    bh.consume(fixture.lastHoldingsCount);
+  }
+}
@@ -0,0 +1,245 @@
+package grafioschtrader.benchmark.position;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ReflectionUtils;
+
+import grafiosch.common.DataHelper;
+import grafiosch.entities.User;
+import grafiosch.repository.GlobalparametersJpaRepository;
+import grafiosch.security.UserAuthentication;
+import grafioschtrader.config.NegativeIdNumberCreater;
+import grafioschtrader.entities.HoldSecurityaccountSecurity;
+import grafioschtrader.entities.Security;
+import grafioschtrader.instrument.SecurityCalcService;
+import grafioschtrader.reports.AccountPositionGroupSummaryReport;
+import grafioschtrader.reports.ReportMeter;
+import grafioschtrader.reports.SecurityDividendsReport;
+import grafioschtrader.reports.SecurityPositionByCurrencyGrandSummaryReport;
+import grafioschtrader.reports.SecurityPositionSummaryReport;
+import grafioschtrader.reportviews.CurrencypairRateSeries;
+import grafioschtrader.reportviews.account.CashaccountPositionSummary;
+import grafioschtrader.reportviews.securityaccount.SecurityPositionSummary;
+import grafioschtrader.repository.CurrencypairJpaRepository;
+import grafioschtrader.repository.HistoryquoteJpaRepository;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepositoryImpl;
+import grafioschtrader.repository.HoldTenantBatchWriter;
+import grafioschtrader.repository.IctaxSecurityTaxDataJpaRepository;
+import grafioschtrader.repository.SecurityJpaRepository;
+import grafioschtrader.repository.SecuritysplitJpaRepository;
+import grafioschtrader.repository.TaxSecurityYearConfigJpaRepository;
+import grafioschtrader.repository.TaxYearCorrectionJpaRepository;
+import grafioschtrader.repository.TaxYearJpaRepository;
+import grafioschtrader.repository.TenantJpaRepository;
+import grafioschtrader.repository.TradingDaysPlusJpaRepository;
+import grafioschtrader.repository.TransactionJpaRepository;
+import grafioschtrader.service.CurrencypairRateStore;
+import grafioschtrader.service.GlobalparametersService;
+
+/**
+ * Wires the position calculation components of the server with the data of a {@link SyntheticTenant} instead of a
+ * database. The components are created like Spring does it, but every repository is a proxy which answers the queries
+ * the calculations use from the tenant. Any other repository method throws an {@link UnsupportedOperationException},
+ * so a calculation which starts to use a new query fails loudly instead of measuring nothing.
+ */
+public class PositionCalcFixture {
+
+  private final SyntheticTenant tenant;
+  private final Map<Class<?>, Object> beanMap = new HashMap<>();
+
+  final SecurityPositionSummaryReport securityPositionSummaryReport;
+  final SecurityDividendsReport securityDividendsReport;
+  final AccountPositionGroupSummaryReport accountPositionGroupSummaryReport;
+  final HoldSecurityaccountSecurityJpaRepositoryImpl holdSecurityaccountSecurityRepository;
+
+  /** Number of holdings of the last rebuild. */
+  volatile int lastHoldingsCount;
+
+  public PositionCalcFixture(SyntheticTenant tenant) {
+    this.tenant = tenant;
+    registerRepositories();
+    GlobalparametersService globalparametersService = autowire(new GlobalparametersService());
+    beanMap.put(GlobalparametersService.class, globalparametersService);
+    beanMap.put(NegativeIdNumberCreater.class, new NegativeIdNumberCreater());
+    beanMap.put(CurrencypairRateStore.class, new SyntheticRateStore());
+    beanMap.put(HoldTenantBatchWriter.class, new CountingBatchWriter());
+    beanMap.put(ReportMeter.class, new ReportMeter());
+    beanMap.put(SecurityCalcService.class, autowire(new SecurityCalcService()));
+
+    TradingDaysPlusJpaRepository tradingDaysPlusJpaRepository = getBean(TradingDaysPlusJpaRepository.class);
+    securityPositionSummaryReport = autowire(new SecurityPositionByCurrencyGrandSummaryReport(
+        tradingDaysPlusJpaRepository, globalparametersService.getCurrencyPrecision()));
+    securityDividendsReport = autowire(new SecurityDividendsReport());
+    accountPositionGroupSummaryReport = autowire(
+        new AccountPositionGroupSummaryReport(tradingDaysPlusJpaRepository, globalparametersService));
+    holdSecurityaccountSecurityRepository = autowire(new HoldSecurityaccountSecurityJpaRepositoryImpl());
+
+    SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UserAuthentication(new User(SyntheticTenant.ID_TENANT)));
+  }
+
+  private void registerRepositories() {
+    register(TenantJpaRepository.class, Map.of("getReferenceById", _ -> tenant.tenant));
+    register(GlobalparametersJpaRepository.class, Map.of("findById", _ -> Optional.empty()));
+    register(TradingDaysPlusJpaRepository.class, Map.of("hasTradingDayBetweenUntilYesterday", _ -> true));
+    register(CurrencypairJpaRepository.class, Map.of(
+        "getAllCurrencypairsByTenantInPortfolioAndAccounts", _ -> tenant.getCurrencypairs(),
+        "getAllCurrencypairsForTenantByTenant", _ -> tenant.getCurrencypairs(),
+        "calcGainLossBasedOnDateOrNewestPrice", args -> {
+          calcCashaccountGainLoss(castList(args[0]));
+          return null;
+        }));
+    register(SecuritysplitJpaRepository.class, Map.of(
+        "getSecuritysplitMapByIdTenant", _ -> tenant.securitysplitMap,
+        "getSecuritysplitMapByIdSecuritycashaccount", _ -> tenant.securitysplitMap));
+    register(SecurityJpaRepository.class, Map.of("processOpenPositionsWithActualPrice",
+        args -> processOpenPositionsWithActualPrice(castMap(args[1]))));
+    register(HistoryquoteJpaRepository.class, Map.of(
+        "getSecuritycurrencyHistoryEndOfYearsByIdTenant", _ -> tenant.getEndOfYearHistoryquotes(),
+        "getHistoryquotesForAllForeignTransactionsByIdTenant", _ -> tenant.getForeignTransactionRates()));
+    register(HoldSecurityaccountSecurityJpaRepository.class, Map.of(
+        "getBuySellTransWithSecuritySplitByIdSecurityaccount",
+        args -> tenant.getBuySellTransWithSecuritySplit((Integer) args[0])));
+    register(TransactionJpaRepository.class, Map.of(
+        "getMarginTransactionMapForSecurityaccount", args -> tenant.getMarginTransactions((Integer) args[0])));
+    register(IctaxSecurityTaxDataJpaRepository.class, Map.of("findByIsinInAndTaxYear", _ -> List.of()));
+    register(TaxYearCorrectionJpaRepository.class, Map.of("findByIdTenantAndTaxYearIn", _ -> List.of()));
+    register(TaxSecurityYearConfigJpaRepository.class, Map.of("findByIdIdTenantAndIdTaxYear", _ -> List.of()));
+    register(TaxYearJpaRepository.class, Map.of("findAll", _ -> List.of()));
+  }
+
+  /**
+   * Values the open positions with the last price like the security repository, the result must be mutable.
+   */
+  private List<SecurityPositionSummary> processOpenPositionsWithActualPrice(
+      Map<Security, SecurityPositionSummary> summarySecurityMap) {
+    List<SecurityPositionSummary> openPositions = summarySecurityMap.values().stream().filter(s -> s.units != 0)
+        .collect(Collectors.toCollection(ArrayList::new));
+    for (SecurityPositionSummary sps : openPositions) {
+      double price = sps.securitycurrency.getSLast() * sps.closePriceFactor;
+      sps.calcGainLossByPrice(price);
+      sps.closePrice = price;
+      sps.closeDate = sps.securitycurrency.getSTimestamp().toLocalDate();
+    }
+    return openPositions;
+  }
+
+  private void calcCashaccountGainLoss(List<CashaccountPositionSummary> cashaccountPositionSummaries) {
+    for (CashaccountPositionSummary cps : cashaccountPositionSummaries) {
+      double price = cps.securitycurrency.getSLast();
+      cps.gainLossCurrencyMC = DataHelper.round(cps.balanceCurrencyTransaction * price
+          - cps.balanceCurrencyTransactionMC, 2);
+      cps.closePrice = price;
+      cps.closeDate = cps.securitycurrency.getSTimestamp().toLocalDate();
+    }
+  }
+
+  private <T> void register(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+    beanMap.put(type, createRepository(type, handlers));
+  }
+
+  /**
+   * Returns the registered bean. An interface which is not registered becomes a repository proxy without any query, any
+   * other type which is not registered is not used by the calculations and remains null.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T getBean(Class<T> type) {
+    return type.isInterface() ? (T) beanMap.computeIfAbsent(type, t -> createRepository(t, Collections.emptyMap()))
+        : (T) beanMap.get(type);
+  }
+
+  /**
+   * Injects the {@code @Autowired} fields and setters of the whole class hierarchy.
+   */
+  private <T> T autowire(T bean) {
+    ReflectionUtils.doWithFields(bean.getClass(), field -> {
+      ReflectionUtils.makeAccessible(field);
+      field.set(bean, getBean(field.getType()));
+    }, PositionCalcFixture::isAutowired);
+    ReflectionUtils.doWithMethods(bean.getClass(), method -> {
+      ReflectionUtils.makeAccessible(method);
+      ReflectionUtils.invokeMethod(method, bean, getBean(method.getParameterTypes()[0]));
+    }, method -> method.isAnnotationPresent(Autowired.class) && method.getParameterCount() == 1);
+    return bean;
+  }
+
+  private static boolean isAutowired(Field field) {
+    return field.isAnnotationPresent(Autowired.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T createRepository(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+    InvocationHandler invocationHandler = (proxy, method, args) -> {
+      Function<Object[], Object> handler = handlers.get(method.getName());
+      if (handler != null) {
+        return handler.apply(args);
+      }
+      if (method.getDeclaringClass() == Object.class) {
+        return invokeObjectMethod(type, proxy, method, args);
+      }
+      if (method.isDefault()) {
+        return InvocationHandler.invokeDefault(proxy, method, args);
+      }
+      throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+    };
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocationHandler);
+  }
+
+  private static Object invokeObjectMethod(Class<?> type, Object proxy, Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "equals" -> proxy == args[0];
+      case "hashCode" -> System.identityHashCode(proxy);
+      default -> "In memory " + type.getSimpleName();
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> List<T> castList(Object list) {
+    return (List<T>) list;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Map<K, V> castMap(Object map) {
+    return (Map<K, V>) map;
+  }
+
+  /**
+   * Serves the exchange rates of the synthetic tenant instead of loading them from the historical quotes.
+   */
+  private class SyntheticRateStore extends CurrencypairRateStore {
+    @Override
+    public CurrencypairRateSeries getRateSeries(String fromCurrency, String toCurrency) {
+      return tenant.getRateSeries(fromCurrency, toCurrency);
+    }
+
+    @Override
+    public CurrencypairRateSeries getRateSeries(Integer idCurrencypair) {
+      return tenant.getRateSeries(idCurrencypair);
+    }
+  }
+
+  /**
+   * Counts the rebuilt holdings instead of writing them to the database.
+   */
+  private class CountingBatchWriter extends HoldTenantBatchWriter {
+    @Override
+    public void replaceSecurityHoldings(Integer idTenant, List<HoldSecurityaccountSecurity> holdings) {
+      lastHoldingsCount = holdings.size();
+    }
+  }
+}
@@ -0,0 +1,590 @@
+package grafioschtrader.benchmark.position;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import grafiosch.common.DataHelper;
+import grafioschtrader.dto.IDateAndClose;
+import grafioschtrader.entities.Assetclass;
+import grafioschtrader.entities.Cashaccount;
+import grafioschtrader.entities.Currencypair;
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.entities.Portfolio;
+import grafioschtrader.entities.Security;
+import grafioschtrader.entities.Securityaccount;
+import grafioschtrader.entities.Securitycashaccount;
+import grafioschtrader.entities.Securitycurrency;
+import grafioschtrader.entities.Securitysplit;
+import grafioschtrader.entities.Tenant;
+import grafioschtrader.entities.Transaction;
+import grafioschtrader.reportviews.CurrencypairRateSeries;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository.ITransactionSecuritySplit;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository.TransactionSecuritySplit;
+import grafioschtrader.types.AssetclassType;
+import grafioschtrader.types.CreateType;
+import grafioschtrader.types.DistributionFrequency;
+import grafioschtrader.types.HistoryquoteCreateType;
+import grafioschtrader.types.SpecialInvestmentInstruments;
+import grafioschtrader.types.TransactionType;
+
+/**
+ * Generates a tenant with reproducible random data for the position calculation benchmarks. The tenant has the main
+ * currency CHF and one portfolio per account, each with a security account and a cash account in CHF, USD and EUR.
+ * <p>
+ * The instruments are equities and ETFs in the three currencies, some of them with a split, bonds which are bought and
+ * sold with accrued interest and CFDs which are opened, closed in parts and charged with finance costs. A part of the
+ * foreign securities is paid from the CHF cash account with an exchange rate. Beside the security transactions there
+ * are deposits, withdrawals, fees and interest on all cash accounts.
+ * </p>
+ * <p>
+ * Every transaction falls on a weekday between {@link #FIRST_DAY} and {@link #UNTIL_DATE}. For each of these days there
+ * is a rate of USD/CHF and EUR/CHF and a close of every instrument, so no report misses a price.
+ * </p>
+ */
+public class SyntheticTenant {
+
+  public static final Integer ID_TENANT = 1;
+  public static final String MAIN_CURRENCY = "CHF";
+  public static final LocalDate FIRST_DAY = LocalDate.of(2016, 1, 4);
+  public static final LocalDate UNTIL_DATE = LocalDate.of(2025, 12, 31);
+
+  private static final String[] CURRENCIES = { MAIN_CURRENCY, "USD", "EUR" };
+  private static final double[] START_RATES = { 1.0, 0.99, 1.09 };
+  private static final double VALUE_PER_POINT = 10.0;
+
+  private final Random random;
+  private final List<LocalDate> weekdays = new ArrayList<>();
+  private int nextId = 1;
+  private int transactionCount;
+
+  final Tenant tenant = new Tenant();
+  /** The currency pairs to the main currency with their from currency as key. */
+  final Map<String, Currencypair> currencypairMap = new LinkedHashMap<>();
+  final List<Security> securities = new ArrayList<>();
+  /** The splits of a security ordered by date, the ID of the security is the key. */
+  final Map<Integer, List<Securitysplit>> securitysplitMap = new HashMap<>();
+  /** Closes of every weekday of the instruments and currency pairs, the ID of the security currency is the key. */
+  private final Map<Integer, double[]> closeMap = new HashMap<>();
+  private final Map<String, CurrencypairRateSeries> rateSeriesMap = new HashMap<>();
+  private final Map<Integer, List<ITransactionSecuritySplit>> transactionSecuritySplitMap = new HashMap<>();
+  private final Map<Integer, List<Transaction>> marginTransactionMap = new HashMap<>();
+  private final List<Object[]> foreignTransactionRates = new ArrayList<>();
+  private final List<Historyquote> endOfYearHistoryquotes = new ArrayList<>();
+
+  private final List<Security> nonMarginSecurities = new ArrayList<>();
+  private final List<Security> marginSecurities = new ArrayList<>();
+
+  /**
+   * Creates the tenant.
+   *
+   * @param accounts               number of portfolios, each with a security account and three cash accounts
+   * @param securityCount          number of instruments, every eighth is a CFD and every eighth a bond
+   * @param transactionsPerAccount number of transactions of each portfolio, without the initial deposits
+   * @param seed                   seed of the random generator
+   */
+  public SyntheticTenant(int accounts, int securityCount, int transactionsPerAccount, long seed) {
+    random = new Random(seed);
+    for (LocalDate date = FIRST_DAY; !date.isAfter(UNTIL_DATE); date = date.plusDays(1)) {
+      if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        weekdays.add(date);
+      }
+    }
+    createCurrencypairs();
+    createSecurities(securityCount);
+    tenant.setIdTenant(ID_TENANT);
+    tenant.setCurrency(MAIN_CURRENCY);
+    tenant.setCountry("CH");
+    List<Portfolio> portfolios = new ArrayList<>();
+    for (int i = 0; i < accounts; i++) {
+      portfolios.add(createPortfolio(i, transactionsPerAccount));
+    }
+    tenant.setPortfolioList(portfolios);
+    createEndOfYearHistoryquotes();
+  }
+
+  public int getTransactionCount() {
+    return transactionCount;
+  }
+
+  /**
+   * Returns the rates of a currency pair to the main currency like the rate store, null for any other currency pair.
+   */
+  CurrencypairRateSeries getRateSeries(String fromCurrency, String toCurrency) {
+    return MAIN_CURRENCY.equals(toCurrency) ? rateSeriesMap.get(fromCurrency) : null;
+  }
+
+  CurrencypairRateSeries getRateSeries(Integer idCurrencypair) {
+    return currencypairMap.values().stream().filter(c -> c.getIdSecuritycurrency().equals(idCurrencypair))
+        .map(c -> rateSeriesMap.get(c.getFromCurrency())).findFirst().orElse(null);
+  }
+
+  List<Currencypair> getCurrencypairs() {
+    return new ArrayList<>(currencypairMap.values());
+  }
+
+  /**
+   * Buy and sell transactions and splits of a security account, as returned by the query of the holdings.
+   */
+  List<ITransactionSecuritySplit> getBuySellTransWithSecuritySplit(Integer idSecurityaccount) {
+    return transactionSecuritySplitMap.getOrDefault(idSecurityaccount, Collections.emptyList());
+  }
+
+  List<Transaction> getMarginTransactions(Integer idSecurityaccount) {
+    return marginTransactionMap.getOrDefault(idSecurityaccount, Collections.emptyList());
+  }
+
+  /**
+   * Rate of the transaction date for every transaction on a foreign cash account, rows of date, from currency and
+   * close.
+   */
+  List<Object[]> getForeignTransactionRates() {
+    return foreignTransactionRates;
+  }
+
+  List<Historyquote> getEndOfYearHistoryquotes() {
+    return endOfYearHistoryquotes;
+  }
+
+  private void createCurrencypairs() {
+    for (int i = 1; i < CURRENCIES.length; i++) {
+      Currencypair currencypair = new Currencypair(CURRENCIES[i], MAIN_CURRENCY);
+      currencypair.setIdSecuritycurrency(nextId++);
+      double[] closes = randomWalk(START_RATES[i], 0.004, null);
+      setLastPrice(currencypair.getIdSecuritycurrency(), closes, currencypair);
+      currencypairMap.put(CURRENCIES[i], currencypair);
+      List<DateClose> rates = new ArrayList<>(weekdays.size());
+      for (int d = 0; d < weekdays.size(); d++) {
+        rates.add(new DateClose(weekdays.get(d), closes[d]));
+      }
+      rateSeriesMap.put(CURRENCIES[i], CurrencypairRateSeries.of(rates));
+    }
+  }
+
+  private void createSecurities(int securityCount) {
+    Assetclass equity = createAssetclass(AssetclassType.EQUITIES, SpecialInvestmentInstruments.DIRECT_INVESTMENT);
+    Assetclass etf = createAssetclass(AssetclassType.EQUITIES, SpecialInvestmentInstruments.ETF);
+    Assetclass bond = createAssetclass(AssetclassType.FIXED_INCOME, SpecialInvestmentInstruments.DIRECT_INVESTMENT);
+    Assetclass cfd = createAssetclass(AssetclassType.EQUITIES, SpecialInvestmentInstruments.CFD);
+    for (int i = 0; i < securityCount; i++) {
+      int kind = i % 8;
+      Assetclass assetclass = kind < 4 ? equity : kind < 6 ? etf : kind == 6 ? bond : cfd;
+      Security security = new Security("Security " + i, CURRENCIES[i % CURRENCIES.length], assetclass, null,
+          FIRST_DAY.minusYears(5), null, DistributionFrequency.DF_YEAR, "SEC" + i, String.format("XS%010d", i));
+      security.setIdSecuritycurrency(nextId++);
+      double startPrice;
+      double volatility;
+      if (assetclass == bond) {
+        security.setDenomination(1000);
+        startPrice = 1000;
+        volatility = 0.002;
+      } else if (assetclass == cfd) {
+        startPrice = 5000;
+        volatility = 0.01;
+      } else {
+        startPrice = 20 + random.nextInt(200);
+        volatility = 0.015;
+        if (i % 3 == 0) {
+          LocalDate splitDate = weekdays.get(weekdays.size() / 5 + random.nextInt(weekdays.size() * 3 / 5));
+          securitysplitMap.put(security.getIdSecuritycurrency(), List.of(new Securitysplit(
+              security.getIdSecuritycurrency(), splitDate, 1, random.nextBoolean() ? 2 : 4, CreateType.CONNECTOR_CREATED)));
+        }
+      }
+      setLastPrice(security.getIdSecuritycurrency(),
+          randomWalk(startPrice, volatility, securitysplitMap.get(security.getIdSecuritycurrency())), security);
+      securities.add(security);
+      (assetclass == cfd ? marginSecurities : nonMarginSecurities).add(security);
+    }
+  }
+
+  private Assetclass createAssetclass(AssetclassType assetclassType, SpecialInvestmentInstruments instrument) {
+    Assetclass assetclass = new Assetclass(assetclassType, instrument, instrument.name(), instrument.name());
+    assetclass.setIdAssetClass(nextId++);
+    return assetclass;
+  }
+
+  /**
+   * Closes of every weekday, a split divides the close by its factor from the split date on.
+   */
+  private double[] randomWalk(double start, double volatility, List<Securitysplit> splits) {
+    double[] closes = new double[weekdays.size()];
+    double close = start;
+    for (int d = 0; d < closes.length; d++) {
+      close *= 1 + random.nextGaussian() * volatility + volatility / 20;
+      if (splits != null) {
+        for (Securitysplit split : splits) {
+          if (split.getSplitDate().equals(weekdays.get(d))) {
+            close = close * split.getFromFactor() / split.getToFactor();
+          }
+        }
+      }
+      closes[d] = DataHelper.round(close, 4);
+    }
+    return closes;
+  }
+
+  private void setLastPrice(Integer idSecuritycurrency, double[] closes, Securitycurrency<?> securitycurrency) {
+    closeMap.put(idSecuritycurrency, closes);
+    securitycurrency.setSLast(closes[closes.length - 1]);
+    securitycurrency.setSTimestamp(UNTIL_DATE.atTime(17, 30));
+  }
+
+  private double getClose(Integer idSecuritycurrency, LocalDate date) {
+    return closeMap.get(idSecuritycurrency)[Collections.binarySearch(weekdays, date)];
+  }
+
+  private double getRate(String currency, LocalDate date) {
+    return MAIN_CURRENCY.equals(currency) ? 1.0 : getClose(currencypairMap.get(currency).getIdSecuritycurrency(), date);
+  }
+
+  private Portfolio createPortfolio(int index, int transactionsPerAccount) {
+    Portfolio portfolio = new Portfolio(ID_TENANT, "Portfolio " + index, MAIN_CURRENCY);
+    portfolio.setIdPortfolio(nextId++);
+    Securityaccount securityaccount = new Securityaccount("Securities " + index, portfolio);
+    securityaccount.setIdSecuritycashAccount(nextId++);
+    securityaccount.setIdTenant(ID_TENANT);
+    List<Securitycashaccount> accounts = new ArrayList<>();
+    accounts.add(securityaccount);
+    Map<String, Cashaccount> cashaccountMap = new HashMap<>();
+    for (String currency : CURRENCIES) {
+      Cashaccount cashaccount = new Cashaccount("Cash " + currency + " " + index, 0.0, currency, portfolio);
+      cashaccount.setIdSecuritycashAccount(nextId++);
+      cashaccount.setIdTenant(ID_TENANT);
+      cashaccount.setConnectIdSecurityaccount(securityaccount.getIdSecuritycashAccount());
+      cashaccountMap.put(currency, cashaccount);
+      accounts.add(cashaccount);
+    }
+    portfolio.setSecuritycashaccountList(accounts);
+    new AccountTransactions(securityaccount, cashaccountMap).generate(transactionsPerAccount);
+    return portfolio;
+  }
+
+  private void createEndOfYearHistoryquotes() {
+    for (int year = FIRST_DAY.getYear(); year <= UNTIL_DATE.getYear(); year++) {
+      int index = Collections.binarySearch(weekdays, LocalDate.of(year, 12, 31));
+      LocalDate date = weekdays.get(index >= 0 ? index : -index - 2);
+      for (Map.Entry<Integer, double[]> entry : closeMap.entrySet()) {
+        endOfYearHistoryquotes.add(new Historyquote(entry.getKey(), HistoryquoteCreateType.CONNECTOR_CREATED, date,
+            getClose(entry.getKey(), date)));
+      }
+    }
+  }
+
+  /**
+   * Creates the transactions of one portfolio in the order of their date and keeps the holdings, so that only held
+   * units are sold or receive a dividend.
+   */
+  private class AccountTransactions {
+    private final Securityaccount securityaccount;
+    private final Map<String, Cashaccount> cashaccountMap;
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final Map<Security, Double> holdings = new HashMap<>();
+    private final Map<Security, LocalDate> holdingsDates = new HashMap<>();
+    /** Open margin positions with their open units. */
+    private final Map<Transaction, Double> openMarginUnits = new LinkedHashMap<>();
+
+    AccountTransactions(Securityaccount securityaccount, Map<String, Cashaccount> cashaccountMap) {
+      this.securityaccount = securityaccount;
+      this.cashaccountMap = cashaccountMap;
+    }
+
+    void generate(int transactionCount) {
+      addCashTransaction(cashaccountMap.get(MAIN_CURRENCY), 500_000.0, TransactionType.DEPOSIT, FIRST_DAY);
+      addCashTransaction(cashaccountMap.get("USD"), 200_000.0, TransactionType.DEPOSIT, FIRST_DAY);
+      addCashTransaction(cashaccountMap.get("EUR"), 200_000.0, TransactionType.DEPOSIT, FIRST_DAY);
+      List<LocalDate> dates = new ArrayList<>(transactionCount);
+      for (int i = 0; i < transactionCount; i++) {
+        dates.add(weekdays.get(1 + random.nextInt(weekdays.size() - 1)));
+      }
+      Collections.sort(dates);
+      for (LocalDate date : dates) {
+        int action = random.nextInt(100);
+        if (action < 40) {
+          buy(date);
+        } else if (action < 55) {
+          sell(date);
+        } else if (action < 68) {
+          dividend(date);
+        } else if (action < 76) {
+          margin(date);
+        } else if (action < 86) {
+          transfer(date);
+        } else if (action < 93) {
+          addCashTransaction(randomCashaccount(), -DataHelper.round(5 + random.nextDouble() * 45, 2),
+              TransactionType.FEE, date);
+        } else {
+          addCashTransaction(randomCashaccount(), DataHelper.round(1 + random.nextDouble() * 200, 2),
+              TransactionType.INTEREST_CASHACCOUNT, date);
+        }
+      }
+      assignTransactions();
+    }
+
+    private void buy(LocalDate date) {
+      if (nonMarginSecurities.isEmpty()) {
+        transfer(date);
+        return;
+      }
+      Security security = nonMarginSecurities.get(random.nextInt(nonMarginSecurities.size()));
+      if (isSplitDate(security, date)) {
+        return;
+      }
+      double quotation = getClose(security.getIdSecuritycurrency(), date);
+      double units = security.getDenomination() != null ? 5 + random.nextInt(20)
+          : Math.max(1, Math.round((5_000 + random.nextInt(15_000)) / quotation));
+      addSecurityBuySell(security, TransactionType.ACCUMULATE, units, quotation, date);
+      holdings.put(security, getUnits(security, date) + units);
+    }
+
+    private void sell(LocalDate date) {
+      Security security = randomHeldSecurity(date);
+      if (security == null) {
+        buy(date);
+        return;
+      }
+      double held = getUnits(security, date);
+      double units = random.nextInt(3) == 0 ? held : Math.max(1, Math.floor(held * (0.2 + random.nextDouble() * 0.6)));
+      addSecurityBuySell(security, TransactionType.REDUCE, units, getClose(security.getIdSecuritycurrency(), date),
+          date);
+      holdings.put(security, held - units);
+    }
+
+    /**
+     * A foreign security is paid in three of ten cases from the CHF cash account with the exchange rate of the day.
+     */
+    private void addSecurityBuySell(Security security, TransactionType transactionType, double units,
+        double quotation, LocalDate date) {
+      boolean exchange = !MAIN_CURRENCY.equals(security.getCurrency()) && random.nextInt(10) < 3;
+      Cashaccount cashaccount = cashaccountMap.get(exchange ? MAIN_CURRENCY : security.getCurrency());
+      Double currencyExRate = exchange ? getRate(security.getCurrency(), date) : null;
+      Integer idCurrencypair = exchange ? currencypairMap.get(security.getCurrency()).getIdSecuritycurrency() : null;
+      Double accruedInterest = security.getDenomination() != null
+          ? DataHelper.round(units * random.nextDouble() * 20, 2)
+          : null;
+      double value = units * quotation + (accruedInterest == null ? 0 : accruedInterest);
+      double transactionCost = DataHelper.round(5 + value * 0.001, 2);
+      double sign = transactionType == TransactionType.ACCUMULATE ? -1 : 1;
+      double cashaccountAmount = DataHelper
+          .round(sign * value * (exchange ? currencyExRate : 1.0) - transactionCost, 2);
+      addTransaction(new Transaction(securityaccount.getIdSecuritycashAccount(), cashaccount, security,
+          cashaccountAmount, units, quotation, transactionType, null, transactionCost, accruedInterest, time(date),
+          currencyExRate, idCurrencypair, null, Boolean.FALSE));
+    }
+
+    private void dividend(LocalDate date) {
+      Security security = randomHeldSecurity(date);
+      if (security == null) {
+        buy(date);
+        return;
+      }
+      double units = getUnits(security, date);
+      double quotation = DataHelper.round(getClose(security.getIdSecuritycurrency(), date)
+          * (0.005 + random.nextDouble() * 0.02), 4);
+      double gross = units * quotation;
+      double taxCost = DataHelper.round(gross * (MAIN_CURRENCY.equals(security.getCurrency()) ? 0.35 : 0.15), 2);
+      addTransaction(new Transaction(securityaccount.getIdSecuritycashAccount(),
+          cashaccountMap.get(security.getCurrency()), security, DataHelper.round(gross - taxCost, 2), units,
+          quotation, TransactionType.DIVIDEND, taxCost, null, null, time(date), null, null, date,
+          security.getDenomination() != null));
+    }
+
+    /**
+     * Opens a CFD position or closes an open one fully or partly, or charges the finance cost of an open position.
+     */
+    private void margin(LocalDate date) {
+      if (marginSecurities.isEmpty()) {
+        buy(date);
+        return;
+      }
+      if (openMarginUnits.isEmpty() || random.nextInt(3) == 0) {
+        Security security = marginSecurities.get(random.nextInt(marginSecurities.size()));
+        double units = 1 + random.nextInt(10);
+        double transactionCost = DataHelper.round(3 + random.nextDouble() * 10, 2);
+        Transaction open = new Transaction(securityaccount.getIdSecuritycashAccount(),
+            cashaccountMap.get(security.getCurrency()), security, -transactionCost, units,
+            getClose(security.getIdSecuritycurrency(), date), TransactionType.ACCUMULATE, null, transactionCost,
+            null, time(date), null, null, null, Boolean.FALSE);
+        open.setAssetInvestmentValue2(VALUE_PER_POINT);
+        addTransaction(open);
+        openMarginUnits.put(open, units);
+        return;
+      }
+      List<Transaction> openTransactions = new ArrayList<>(openMarginUnits.keySet());
+      Transaction open = openTransactions.get(random.nextInt(openTransactions.size()));
+      Security security = open.getSecurity();
+      double openUnits = openMarginUnits.get(open);
+      double quotation = getClose(security.getIdSecuritycurrency(), date);
+      Cashaccount cashaccount = cashaccountMap.get(security.getCurrency());
+      int choice = random.nextInt(3);
+      Transaction transaction;
+      if (choice == 0) {
+        double financeCost = DataHelper.round(openUnits * quotation * VALUE_PER_POINT * 0.0002, 2);
+        transaction = new Transaction(securityaccount.getIdSecuritycashAccount(), cashaccount, security, -financeCost,
+            openUnits, null, TransactionType.FINANCE_COST, null, null, null, time(date), null, null, null,
+            Boolean.FALSE);
+      } else {
+        double units = choice == 1 ? openUnits : Math.max(1, Math.floor(openUnits / 2));
+        double transactionCost = DataHelper.round(3 + random.nextDouble() * 10, 2);
+        transaction = new Transaction(securityaccount.getIdSecuritycashAccount(), cashaccount, security,
+            DataHelper.round(units * (quotation - open.getQuotation()) * VALUE_PER_POINT - transactionCost, 2), units,
+            quotation, TransactionType.REDUCE, null, transactionCost, null, time(date), null, null, null,
+            Boolean.FALSE);
+        transaction.setAssetInvestmentValue2(VALUE_PER_POINT);
+        if (units >= openUnits) {
+          openMarginUnits.remove(open);
+        } else {
+          openMarginUnits.put(open, openUnits - units);
+        }
+      }
+      transaction.setConnectedIdTransaction(open.getIdTransaction());
+      addTransaction(transaction);
+    }
+
+    private void transfer(LocalDate date) {
+      boolean deposit = random.nextInt(10) < 6;
+      double amount = DataHelper.round(1_000 + random.nextDouble() * 19_000, 2);
+      addCashTransaction(randomCashaccount(), deposit ? amount : -amount,
+          deposit ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL, date);
+    }
+
+    private void addCashTransaction(Cashaccount cashaccount, double amount, TransactionType transactionType,
+        LocalDate date) {
+      Transaction transaction = new Transaction(cashaccount, amount, transactionType, time(date));
+      transaction.setTaxableInterest(transactionType == TransactionType.INTEREST_CASHACCOUNT);
+      addTransaction(transaction);
+    }
+
+    private void addTransaction(Transaction transaction) {
+      transaction.setIdTransaction(nextId++);
+      transaction.setIdTenant(ID_TENANT);
+      transaction.onPrePersist();
+      transactions.add(transaction);
+      String currency = transaction.getCashaccount().getCurrency();
+      if (!MAIN_CURRENCY.equals(currency)) {
+        foreignTransactionRates.add(new Object[] { transaction.getTransactionDate(), currency,
+            getRate(currency, transaction.getTransactionDate()) });
+      }
+    }
+
+    private LocalDateTime time(LocalDate date) {
+      return date.atTime(9, 0).plusSeconds(transactionCount++ % 28_800);
+    }
+
+    private Cashaccount randomCashaccount() {
+      return cashaccountMap.get(CURRENCIES[random.nextInt(CURRENCIES.length)]);
+    }
+
+    private Security randomHeldSecurity(LocalDate date) {
+      List<Security> held = holdings.keySet().stream().filter(s -> !isSplitDate(s, date) && getUnits(s, date) > 0)
+          .sorted(Comparator.comparing(Security::getIdSecuritycurrency)).toList();
+      return held.isEmpty() ? null : held.get(random.nextInt(held.size()));
+    }
+
+    /**
+     * Returns the held units of a security on a date, splits since the last transaction are applied.
+     */
+    private double getUnits(Security security, LocalDate date) {
+      double units = holdings.getOrDefault(security, 0.0);
+      LocalDate lastDate = holdingsDates.put(security, date);
+      List<Securitysplit> splits = securitysplitMap.get(security.getIdSecuritycurrency());
+      if (lastDate != null && splits != null) {
+        for (Securitysplit split : splits) {
+          if (split.getSplitDate().isAfter(lastDate) && !split.getSplitDate().isAfter(date)) {
+            units = units * split.getToFactor() / split.getFromFactor();
+          }
+        }
+        holdings.put(security, units);
+      }
+      return units;
+    }
+
+    private boolean isSplitDate(Security security, LocalDate date) {
+      List<Securitysplit> splits = securitysplitMap.get(security.getIdSecuritycurrency());
+      return splits != null && splits.stream().anyMatch(s -> s.getSplitDate().equals(date));
+    }
+
+    /**
+     * Puts the transactions to their accounts and derives the rows of the holdings query from them.
+     */
+    private void assignTransactions() {
+      Collections.sort(transactions);
+      List<Transaction> securityTransactions = transactions.stream().filter(t -> t.getSecurity() != null).toList();
+      securityaccount.setSecurityTransactionList(new ArrayList<>(securityTransactions));
+      for (Cashaccount cashaccount : cashaccountMap.values()) {
+        cashaccount.setTransactionList(
+            new ArrayList<>(transactions.stream().filter(t -> t.getCashaccount() == cashaccount).toList()));
+      }
+      Integer idSecurityaccount = securityaccount.getIdSecuritycashAccount();
+      marginTransactionMap.put(idSecurityaccount,
+          securityTransactions.stream().filter(t -> t.getSecurity().isMarginInstrument()).toList());
+      transactionSecuritySplitMap.put(idSecurityaccount, createTransactionSecuritySplits(securityTransactions));
+    }
+
+    /**
+     * Buy and sell transactions of a regular security are summed up per day, those of a margin instrument are single
+     * rows multiplied by the value per point. Every split of a traded security is added, ordered by security and time.
+     */
+    private List<ITransactionSecuritySplit> createTransactionSecuritySplits(List<Transaction> securityTransactions) {
+      Map<String, TransactionSecuritySplitSum> sumMap = new LinkedHashMap<>();
+      List<TransactionSecuritySplit> rows = new ArrayList<>();
+      Map<Integer, Security> tradedSecurities = new HashMap<>();
+      for (Transaction t : securityTransactions) {
+        if (t.getTransactionType() != TransactionType.ACCUMULATE && t.getTransactionType() != TransactionType.REDUCE) {
+          continue;
+        }
+        Security security = t.getSecurity();
+        tradedSecurities.put(security.getIdSecuritycurrency(), security);
+        double units = (t.getTransactionType() == TransactionType.ACCUMULATE ? 1 : -1) * t.getUnits();
+        if (security.isMarginInstrument()) {
+          rows.add(new TransactionSecuritySplit(null, security.getIdSecuritycurrency(), t.getTransactionTime(),
+              units * t.getAssetInvestmentValue2(), t.getIdTransaction(), security.getCurrency()));
+        } else {
+          sumMap.computeIfAbsent(security.getIdSecuritycurrency() + "/" + t.getTransactionDate(),
+              _ -> new TransactionSecuritySplitSum(security, t.getTransactionTime())).factorUnits += units;
+        }
+      }
+      sumMap.values().forEach(s -> rows.add(new TransactionSecuritySplit(null, s.security.getIdSecuritycurrency(),
+          s.tsDate, s.factorUnits, null, s.security.getCurrency())));
+      for (Integer idSecuritycurrency : tradedSecurities.keySet()) {
+        for (Securitysplit split : securitysplitMap.getOrDefault(idSecuritycurrency, Collections.emptyList())) {
+          rows.add(new TransactionSecuritySplit(null, idSecuritycurrency, split.getSplitDate().atStartOfDay(),
+              (double) split.getToFactor() / split.getFromFactor(), null, null));
+        }
+      }
+      rows.sort(Comparator.comparing(TransactionSecuritySplit::getIdSecuritycurrency)
+          .thenComparing(TransactionSecuritySplit::getTsDate));
+      return new ArrayList<>(rows);
+    }
+  }
+
+  private static class TransactionSecuritySplitSum {
+    private final Security security;
+    private final LocalDateTime tsDate;
+    private double factorUnits;
+
+    TransactionSecuritySplitSum(Security security, LocalDateTime tsDate) {
+      this.security = security;
+      this.tsDate = tsDate;
+    }
+  }
+
+  private record DateClose(LocalDate date, Double close) implements IDateAndClose {
+    @Override
+    public LocalDate getDate() {
+      return date;
+    }
+
+    @Override
+    public Double getClose() {
+      return close;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package grafioschtrader.benchmark.ta;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import grafioschtrader.ta.TaIndicatorData;
+import grafioschtrader.ta.TaIndicators;
+import grafioschtrader.ta.indicator.calc.CalcAccessIndicator;
+import grafioschtrader.ta.indicator.calc.ExponentialMovingAverage;
+import grafioschtrader.ta.indicator.calc.PrimitiveCalcIndicator;
+import grafioschtrader.ta.indicator.calc.RelativeStrengthIndex;
+import grafioschtrader.ta.indicator.calc.SimpleMovingAverage;
+import grafioschtrader.ta.indicator.calc.TaIndicatorEngine;
+
+/**
+ * Compares the object based indicator calculators with the primitive ring buffer calculators. Each benchmark computes
+ * the chart traces SMA(20, 50, 200), EMA(20, 50, 200) and RSI(14, 21) of one instrument. Run with {@code -prof gc} to
+ * see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaIndicatorBenchmark {
+
+  private static final int[] MA_PERIODS = { 20, 50, 200 };
+  private static final int[] RSI_PERIODS = { 14, 21 };
+
+  /** Number of trading days, 5000 are about 20 years. */
+  @Param({ "1000", "5000" })
+  public int days;
+
+  private LocalDate[] dates;
+  private int[] epochDays;
+  private double[] closes;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    dates = new LocalDate[days];
+    epochDays = new int[days];
+    closes = new double[days];
+    LocalDate date = LocalDate.of(2000, 1, 3);
+    double close = 100;
+    for (int i = 0; i < days; i++) {
+      dates[i] = date;
+      epochDays[i] = (int) date.toEpochDay();
+      close *= 1 + random.nextGaussian() * 0.01;
+      closes[i] = close;
+      date = date.plusDays(date.getDayOfWeek().getValue() >= 5 ? 8 - date.getDayOfWeek().getValue() : 1);
+    }
+  }
+
+  @Benchmark
+  public void objectCalculators(Blackhole blackhole) {
+    for (int period : MA_PERIODS) {
+      blackhole.consume(runObject(new SimpleMovingAverage(period, days)));
+      blackhole.consume(runObject(new ExponentialMovingAverage(period, days)));
+    }
+    for (int period : RSI_PERIODS) {
+      blackhole.consume(runObject(new RelativeStrengthIndex(period, days)));
+    }
+  }
+
+  @Benchmark
+  public void primitiveCalculators(Blackhole blackhole) {
+    for (int period : MA_PERIODS) {
+      blackhole.consume(runPrimitive(PrimitiveCalcIndicator.create(TaIndicators.SMA, period, days)));
+      blackhole.consume(runPrimitive(PrimitiveCalcIndicator.create(TaIndicators.EMA, period, days)));
+    }
+    for (int period : RSI_PERIODS) {
+      blackhole.consume(runPrimitive(PrimitiveCalcIndicator.create(TaIndicators.RSI, period, days)));
+    }
+  }
+
+  @Benchmark
+  public void primitiveEngineSinglePass(Blackhole blackhole) {
+    TaIndicatorEngine engine = new TaIndicatorEngine(days);
+    for (int period : MA_PERIODS) {
+      blackhole.consume(engine.add(TaIndicators.SMA, period));
+      blackhole.consume(engine.add(TaIndicators.EMA, period));
+    }
+    for (int period : RSI_PERIODS) {
+      blackhole.consume(engine.add(TaIndicators.RSI, period));
+    }
+    engine.run(epochDays, closes);
+  }
+
+  private TaIndicatorData[] runObject(CalcAccessIndicator calcAccessIndicator) {
+    for (int i = 0; i < days; i++) {
+      calcAccessIndicator.addData(dates[i], closes[i]);
+    }
+    return calcAccessIndicator.getTaIndicatorData();
+  }
+
+  private Object runPrimitive(PrimitiveCalcIndicator calcIndicator) {
+    for (int i = 0; i < days; i++) {
+      calcIndicator.addData(epochDays[i], closes[i]);
+    }
+    return calcIndicator.getTaIndicatorSeries();
+  }
+}
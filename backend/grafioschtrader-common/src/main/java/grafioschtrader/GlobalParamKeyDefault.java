@@ -145,6 +145,11 @@ public class GlobalParamKeyDefault extends GlobalParamKeyBaseDefault {
   public static final String GLOB_KEY_GTNET_EXCHANGE_SYNC_TIMESTAMP = GlobalConstants.GT_PREFIX + "gtnet.exchange.sync.timestamp";
   /** Default value for GTNet exchange sync timestamp - epoch start means never synced. */
   public static final LocalDateTime DEFAULT_GTNET_EXCHANGE_SYNC_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0, 0);
+  /** History quotes changed after this time have not yet been checked against the materialized period valuation. */
+  public static final String GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP = GlobalConstants.GT_PREFIX
+      + "period.valuation.scan.timestamp";
+  /** Default value for the period valuation scan timestamp - epoch start means every history quote is checked. */
+  public static final LocalDateTime DEFAULT_PERIOD_VALUATION_SCAN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0, 0);
   /** Tenant data entity limits */
   private static final String MAX = "max.";
   /** Total (lifetime) number of transactions a single tenant may create. Resolves to {@code gt.max.transaction}. */
@@ -0,0 +1,128 @@
+package grafioschtrader.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import grafioschtrader.dto.HistoryquoteDateClose;
+import grafioschtrader.dto.HistoryquoteDateOHLC;
+
+/**
+ * Reduces a long time series to about the number of points a chart can show. A chart of several decades of daily
+ * quotes has far more points than pixels, the reduced series keeps the visible shape with a fraction of the data.
+ * <p>
+ * A close series is reduced with Largest-Triangle-Three-Buckets (LTTB): from each bucket the point is kept which forms
+ * the largest triangle with the point kept before and the average of the next bucket, peaks and troughs therefore
+ * remain. OHLC data is aggregated per bucket like a candle of a longer period, so the highest high and the lowest low
+ * of each bucket are kept.
+ * </p>
+ */
+public abstract class ChartDownsampler {
+
+  /** LTTB keeps the first and the last point, fewer points can not be selected. */
+  private static final int MIN_LTTB_POINTS = 3;
+
+  /**
+   * Reduces a date/close series with LTTB.
+   *
+   * @param dateCloseList the series in ascending date order
+   * @param maxPoints     the number of returned points
+   * @return the selected points, the series itself when it has not more points
+   */
+  public static List<HistoryquoteDateClose> downsampleClose(List<HistoryquoteDateClose> dateCloseList,
+      int maxPoints) {
+    return lttb(dateCloseList, maxPoints, dc -> dc.date.toEpochDay(), dc -> dc.close);
+  }
+
+  /**
+   * Reduces an OHLC series by aggregating consecutive days of equal count into one point. The point has the date and
+   * open of the first day, the close of the last day, the highest high, the lowest low and the sum of the volume.
+   *
+   * @param ohlcList  the series in ascending date order
+   * @param maxPoints the number of returned points
+   * @return the aggregated points, the series itself when it has not more points
+   */
+  public static List<HistoryquoteDateOHLC> downsampleOhlc(List<HistoryquoteDateOHLC> ohlcList, int maxPoints) {
+    int size = ohlcList.size();
+    if (maxPoints < 1 || size <= maxPoints) {
+      return ohlcList;
+    }
+    List<HistoryquoteDateOHLC> aggregated = new ArrayList<>(maxPoints);
+    for (int bucket = 0; bucket < maxPoints; bucket++) {
+      int from = (int) ((long) bucket * size / maxPoints);
+      int to = (int) ((long) (bucket + 1) * size / maxPoints);
+      aggregated.add(aggregate(ohlcList.subList(from, to)));
+    }
+    return aggregated;
+  }
+
+  /**
+   * Largest-Triangle-Three-Buckets. The first and last point are always kept, the other points are divided into
+   * buckets of equal count and one point of each bucket is selected.
+   */
+  static <T> List<T> lttb(List<T> points, int maxPoints, ToDoubleFunction<T> x, ToDoubleFunction<T> y) {
+    int size = points.size();
+    if (maxPoints < MIN_LTTB_POINTS || size <= maxPoints) {
+      return points;
+    }
+    List<T> sampled = new ArrayList<>(maxPoints);
+    double bucketSize = (double) (size - 2) / (maxPoints - 2);
+    int selected = 0;
+    sampled.add(points.getFirst());
+    for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+      // Average of the next bucket, for the last bucket it is the last point
+      int avgFrom = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      int avgTo = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = avgFrom; i < avgTo; i++) {
+        avgX += x.applyAsDouble(points.get(i));
+        avgY += y.applyAsDouble(points.get(i));
+      }
+      avgX /= avgTo - avgFrom;
+      avgY /= avgTo - avgFrom;
+
+      int from = (int) Math.floor(bucket * bucketSize) + 1;
+      int to = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      double selectedX = x.applyAsDouble(points.get(selected));
+      double selectedY = y.applyAsDouble(points.get(selected));
+      double maxArea = -1;
+      int next = from;
+      for (int i = from; i < to; i++) {
+        double area = Math.abs((selectedX - avgX) * (y.applyAsDouble(points.get(i)) - selectedY)
+            - (selectedX - x.applyAsDouble(points.get(i))) * (avgY - selectedY));
+        if (area > maxArea) {
+          maxArea = area;
+          next = i;
+        }
+      }
+      sampled.add(points.get(next));
+      selected = next;
+    }
+    sampled.add(points.getLast());
+    return sampled;
+  }
+
+  private static HistoryquoteDateOHLC aggregate(List<HistoryquoteDateOHLC> days) {
+    HistoryquoteDateOHLC first = days.getFirst();
+    Double open = null;
+    Double high = null;
+    Double low = null;
+    Long volume = null;
+    for (HistoryquoteDateOHLC day : days) {
+      if (open == null) {
+        open = day.open;
+      }
+      if (day.high != null && (high == null || day.high > high)) {
+        high = day.high;
+      }
+      if (day.low != null && (low == null || day.low < low)) {
+        low = day.low;
+      }
+      if (day.volume != null) {
+        volume = volume == null ? day.volume : volume + day.volume;
+      }
+    }
+    return new HistoryquoteDateOHLC(first.date, open, high, low, days.getLast().close, volume);
+  }
+}
@@ -0,0 +1,78 @@
+package grafioschtrader.dto;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import grafiosch.BaseConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Chart data as parallel arrays. The value of a day is at the same index in every array, the property names are so
+ * transferred once instead of once for every day.
+ */
+@Schema(description = """
+    Historical quote chart data as parallel arrays, the values of a trading day have the same index in every array.
+    The arrays open, high and low are only present with OHLC data, volume only when volume data is available.
+    """)
+public class HistoryquoteChartColumns {
+
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter
+      .ofPattern(BaseConstants.STANDARD_DATE_FORMAT);
+
+  @Schema(description = "Trading dates in ascending order")
+  public String[] date;
+
+  @Schema(description = "Closing prices")
+  public Double[] close;
+
+  @Schema(description = "Opening prices, only with OHLC data")
+  public Double[] open;
+
+  @Schema(description = "Highest prices, only with OHLC data")
+  public Double[] high;
+
+  @Schema(description = "Lowest prices, only with OHLC data")
+  public Double[] low;
+
+  @Schema(description = "Trading volumes, only when volume data is available")
+  public Long[] volume;
+
+  public HistoryquoteChartColumns() {
+  }
+
+  public static HistoryquoteChartColumns ofDateClose(List<HistoryquoteDateClose> dateCloseList) {
+    HistoryquoteChartColumns columns = new HistoryquoteChartColumns();
+    int size = dateCloseList.size();
+    columns.date = new String[size];
+    columns.close = new Double[size];
+    for (int i = 0; i < size; i++) {
+      HistoryquoteDateClose dateClose = dateCloseList.get(i);
+      columns.date[i] = dateClose.date.format(DATE_FORMATTER);
+      columns.close[i] = dateClose.close;
+    }
+    return columns;
+  }
+
+  public static HistoryquoteChartColumns ofOhlc(List<HistoryquoteDateOHLC> ohlcList, boolean volumeAvailable) {
+    HistoryquoteChartColumns columns = new HistoryquoteChartColumns();
+    int size = ohlcList.size();
+    columns.date = new String[size];
+    columns.close = new Double[size];
+    columns.open = new Double[size];
+    columns.high = new Double[size];
+    columns.low = new Double[size];
+    columns.volume = volumeAvailable ? new Long[size] : null;
+    for (int i = 0; i < size; i++) {
+      HistoryquoteDateOHLC ohlc = ohlcList.get(i);
+      columns.date[i] = ohlc.date.format(DATE_FORMATTER);
+      columns.close[i] = ohlc.close;
+      columns.open[i] = ohlc.open;
+      columns.high[i] = ohlc.high;
+      columns.low[i] = ohlc.low;
+      if (volumeAvailable) {
+        columns.volume[i] = ohlc.volume;
+      }
+    }
+    return columns;
+  }
+}
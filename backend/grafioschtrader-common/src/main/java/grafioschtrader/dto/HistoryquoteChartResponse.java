@@ -40,6 +40,17 @@ public class HistoryquoteChartResponse {
       """)
   private boolean volumeAvailable;
 
+  @Schema(description = """
+      The chart data as parallel arrays. When requested it is populated instead of dateCloseList and ohlcList.
+      """)
+  private HistoryquoteChartColumns columns;
+
+  @Schema(description = """
+      Indicates whether the quotes were reduced to the requested number of points. A reduced close series keeps
+      selected days, reduced OHLC data aggregates consecutive days into one point.
+      """)
+  private boolean downsampled;
+
   public HistoryquoteChartResponse() {
   }
 
@@ -57,6 +68,20 @@ public class HistoryquoteChartResponse {
     return response;
   }
 
+  /**
+   * Creates a response with the chart data as parallel arrays.
+   *
+   * @param columns       the chart data
+   * @param ohlcAvailable whether the columns contain OHLC data
+   * @return a new HistoryquoteChartResponse with columnar data
+   */
+  public static HistoryquoteChartResponse ofColumns(HistoryquoteChartColumns columns, boolean ohlcAvailable) {
+    HistoryquoteChartResponse response = new HistoryquoteChartResponse();
+    response.ohlcAvailable = ohlcAvailable;
+    response.columns = columns;
+    return response;
+  }
+
   /**
    * Creates a response with simple date/close data.
    *
@@ -102,4 +127,20 @@ public class HistoryquoteChartResponse {
   public void setVolumeAvailable(boolean volumeAvailable) {
     this.volumeAvailable = volumeAvailable;
   }
+
+  public HistoryquoteChartColumns getColumns() {
+    return columns;
+  }
+
+  public void setColumns(HistoryquoteChartColumns columns) {
+    this.columns = columns;
+  }
+
+  public boolean isDownsampled() {
+    return downsampled;
+  }
+
+  public void setDownsampled(boolean downsampled) {
+    this.downsampled = downsampled;
+  }
 }
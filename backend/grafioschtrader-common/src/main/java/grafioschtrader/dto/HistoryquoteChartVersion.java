@@ -0,0 +1,30 @@
+package grafioschtrader.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * State of the history quotes of an instrument. A new or changed quote changes the last modification time, a deleted
+ * quote the count. A chart can therefore be revalidated with this state instead of transferring its quotes again.
+ *
+ * @param quoteCount   number of history quotes of the instrument
+ * @param lastModified latest creation or modification time of these quotes, null without quotes
+ */
+public record HistoryquoteChartVersion(long quoteCount, LocalDateTime lastModified) {
+
+  /**
+   * Returns the last modification as epoch milliseconds as used by the HTTP header Last-Modified, -1 without quotes.
+   */
+  public long lastModifiedMillis() {
+    return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  /**
+   * Returns a strong validator for a chart of these quotes.
+   *
+   * @param variant distinguishes the charts of the same quotes, for example by their date range and number of points
+   */
+  public String eTag(String variant) {
+    return "\"" + quoteCount + "-" + Math.max(0, lastModifiedMillis()) + "-" + variant + "\"";
+  }
+}
@@ -66,6 +66,10 @@ public abstract class HoldBase {
     return idPortfolio;
   }
 
+  public LocalDateTime getValidTimestamp() {
+    return validTimestamp;
+  }
+
   @Override
   public String toString() {
     return "HoldBase [idTenant=" + idTenant + ", idPortfolio=" + idPortfolio + ", toHoldDate=" + toHoldDate + "]";
@@ -240,6 +240,14 @@ public class HoldCashaccountBalance extends HoldBase {
       this.fromHoldDate = fromHoldDate;
     }
 
+    public Integer getIdSecuritycashAccount() {
+      return idSecuritycashAccount;
+    }
+
+    public LocalDate getFromHoldDate() {
+      return fromHoldDate;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -199,6 +199,10 @@ public class HoldSecurityaccountSecurity extends HoldBase {
     return idCurrencypairPortoflio;
   }
 
+  public Double getMarginRealHoldings() {
+    return marginRealHoldings;
+  }
+
   public Double getMarginAveragePrice() {
     return marginAveragePrice;
   }
@@ -113,6 +113,10 @@ public class HoldSecurityaccountSecurityKey implements Serializable {
     this.fromHoldDate = fromHoldDate;
   }
 
+  public Integer getIdSecuritycashAccount() {
+    return idSecuritycashAccount;
+  }
+
   public Integer getIdSecuritycurrency() {
     return idSecuritycurrency;
   }
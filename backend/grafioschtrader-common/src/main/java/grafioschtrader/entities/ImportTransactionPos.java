@@ -603,6 +603,13 @@ public class ImportTransactionPos extends TenantBaseID implements Comparable<Imp
         : ImportKnownOtherFlags.decode(knownOtherFlags);
   }
 
+  /**
+   * Tells whether the flags were ever set, the column stays NULL otherwise.
+   */
+  public boolean hasKnownOtherFlags() {
+    return knownOtherFlags != null;
+  }
+
   public void setKnownOtherFlags(EnumSet<ImportKnownOtherFlags> importKnownOtherFlagsSet) {
     this.knownOtherFlags = ImportKnownOtherFlags.encode(importKnownOtherFlagsSet);
   }
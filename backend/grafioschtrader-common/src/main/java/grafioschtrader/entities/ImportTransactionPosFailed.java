@@ -78,6 +78,10 @@ public class ImportTransactionPosFailed extends BaseID<Integer> implements Seria
     this.idTransactionImportTemplate = idTransactionImportTemplate;
   }
 
+  public Integer getIdTransactionPos() {
+    return idTransactionPos;
+  }
+
   public String getLastMatchingProperty() {
     return lastMatchingProperty;
   }
@@ -0,0 +1,374 @@
+package grafioschtrader.gtnet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import grafioschtrader.gtnet.m2m.model.HistoryquoteRecordDTO;
+import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
+import grafioschtrader.gtnet.model.msg.HistoryquoteExchangeMsg;
+
+/**
+ * Compact columnar encoding of the price records of a {@link HistoryquoteExchangeMsg}. The instrument identification
+ * stays JSON, only the records of all instruments are moved into one gzip compressed binary block. A peer uses this
+ * encoding only when the receiver announced {@link #ENCODING} in its payload encodings, otherwise the records are sent
+ * as JSON.
+ *
+ * <h3>Layout of HQ_COLUMNAR_V1</h3>
+ * For each instrument, securities first and then currency pairs in the order of the message:
+ * <ul>
+ * <li>Number of records as variable length integer.</li>
+ * <li>Date column: epoch day of the first record, followed by the day difference to the previous record.</li>
+ * <li>Price columns open, high, low and close: a presence marker (none, all, or a bitmap), then the scale. With a
+ * decimal scale of 0 to 8 digits the prices are written as differences of scaled integers. Prices which are not
+ * exactly representable with 8 decimal digits are written as XOR of the IEEE bits with the previous price, shifted by
+ * its trailing zeros.</li>
+ * <li>Volume column: presence marker, then the differences to the previous volume.</li>
+ * </ul>
+ * All integers are zigzag encoded variable length integers, so small differences of consecutive days need one byte.
+ * The encoding is lossless, a decoded price has exactly the bits of the encoded price.
+ * <p>
+ * The encoded records come from another peer. Decoding limits the decompressed size to {@link #MAX_DECODED_BYTES} and
+ * the records of an instrument to {@link #MAX_RECORDS}. A record count which is larger than the remaining bytes or a
+ * value outside the layout is rejected before anything is allocated for it.
+ * </p>
+ */
+public abstract class HistoryquoteColumnarCodec {
+
+  /** Name of the encoding as announced in the payload encodings of a GTNet entry. */
+  public static final String ENCODING = "HQ_COLUMNAR_V1";
+
+  /** Maximum number of records of a single instrument, more than the trading days of three centuries. */
+  static final int MAX_RECORDS = 100_000;
+
+  /** Maximum size of the records of a message after decompression. */
+  static final int MAX_DECODED_BYTES = 32 * 1024 * 1024;
+
+  private static final int MAX_SCALE = 8;
+  private static final byte SCALE_XOR = -1;
+  private static final double MAX_EXACT_DOUBLE = 1L << 53;
+  private static final double[] POW10 = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000 };
+
+  private static final byte PRESENT_NONE = 0;
+  private static final byte PRESENT_ALL = 1;
+  private static final byte PRESENT_BITMAP = 2;
+
+  private static final List<Function<HistoryquoteRecordDTO, Double>> PRICE_COLUMNS = List.of(
+      HistoryquoteRecordDTO::getOpen, HistoryquoteRecordDTO::getHigh, HistoryquoteRecordDTO::getLow,
+      HistoryquoteRecordDTO::getClose);
+
+  /**
+   * Moves the records of all instruments into {@link HistoryquoteExchangeMsg#encodedRecords}. The record lists of the
+   * instruments are empty afterwards.
+   *
+   * @param msg the message with records
+   */
+  public static void encode(HistoryquoteExchangeMsg msg) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+      for (InstrumentHistoryquoteDTO instrument : instruments(msg)) {
+        List<HistoryquoteRecordDTO> records = instrument.getRecords() == null ? List.of() : instrument.getRecords();
+        writeRecords(out, records);
+        instrument.setRecords(new ArrayList<>());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    msg.recordEncoding = ENCODING;
+    msg.encodedRecords = bytes.toByteArray();
+  }
+
+  /**
+   * Restores the records of the instruments of a message with encoded records. A message without encoded records is
+   * left unchanged.
+   *
+   * @param msg the received message
+   * @throws IllegalArgumentException if the records are in an unknown encoding, exceed the limits or do not follow the
+   *                                  layout
+   */
+  public static void decode(HistoryquoteExchangeMsg msg) {
+    if (msg.recordEncoding == null) {
+      return;
+    }
+    if (!ENCODING.equals(msg.recordEncoding)) {
+      throw new IllegalArgumentException("Unsupported historyquote record encoding: " + msg.recordEncoding);
+    }
+    if (msg.encodedRecords == null) {
+      throw new IllegalArgumentException("Historyquote records encoded with " + ENCODING + " are missing");
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(inflate(msg.encodedRecords)))) {
+      for (InstrumentHistoryquoteDTO instrument : instruments(msg)) {
+        instrument.setRecords(readRecords(in));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    msg.recordEncoding = null;
+    msg.encodedRecords = null;
+  }
+
+  private static byte[] inflate(byte[] encodedRecords) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encodedRecords))) {
+      byte[] decoded = in.readNBytes(MAX_DECODED_BYTES + 1);
+      if (decoded.length > MAX_DECODED_BYTES) {
+        throw new IllegalArgumentException(
+            "Historyquote records exceed " + MAX_DECODED_BYTES + " bytes after decompression");
+      }
+      return decoded;
+    }
+  }
+
+  private static List<InstrumentHistoryquoteDTO> instruments(HistoryquoteExchangeMsg msg) {
+    return Stream.concat(msg.securities == null ? Stream.empty() : msg.securities.stream(),
+        msg.currencypairs == null ? Stream.empty() : msg.currencypairs.stream()).toList();
+  }
+
+  private static void writeRecords(DataOutputStream out, List<HistoryquoteRecordDTO> records) throws IOException {
+    int n = records.size();
+    writeVarLong(out, n);
+    if (n == 0) {
+      return;
+    }
+    long previousDay = 0;
+    for (HistoryquoteRecordDTO record : records) {
+      long epochDay = record.getDate().toEpochDay();
+      writeVarLong(out, zigzag(epochDay - previousDay));
+      previousDay = epochDay;
+    }
+    for (Function<HistoryquoteRecordDTO, Double> column : PRICE_COLUMNS) {
+      writePriceColumn(out, records.stream().map(column).toList());
+    }
+    writeVolumeColumn(out, records.stream().map(HistoryquoteRecordDTO::getVolume).toList());
+  }
+
+  private static List<HistoryquoteRecordDTO> readRecords(DataInputStream in) throws IOException {
+    long count = readVarLong(in);
+    // Each record takes at least one byte for its date
+    if (count < 0 || count > MAX_RECORDS || count > in.available()) {
+      throw new IllegalArgumentException("Invalid number of historyquote records: " + count);
+    }
+    int n = (int) count;
+    List<HistoryquoteRecordDTO> records = new ArrayList<>(n);
+    if (n == 0) {
+      return records;
+    }
+    LocalDate[] dates = new LocalDate[n];
+    long epochDay = 0;
+    for (int i = 0; i < n; i++) {
+      epochDay += unzigzag(readVarLong(in));
+      dates[i] = LocalDate.ofEpochDay(epochDay);
+    }
+    Double[] open = readPriceColumn(in, n);
+    Double[] high = readPriceColumn(in, n);
+    Double[] low = readPriceColumn(in, n);
+    Double[] close = readPriceColumn(in, n);
+    Long[] volume = readVolumeColumn(in, n);
+    for (int i = 0; i < n; i++) {
+      records.add(new HistoryquoteRecordDTO(dates[i], open[i], high[i], low[i], close[i], volume[i]));
+    }
+    return records;
+  }
+
+  private static void writePriceColumn(DataOutputStream out, List<Double> values) throws IOException {
+    if (!writePresence(out, values)) {
+      return;
+    }
+    int scale = findScale(values);
+    if (scale >= 0) {
+      out.writeByte(scale);
+      long previous = 0;
+      for (Double value : values) {
+        if (value != null) {
+          long scaled = Math.round(value * POW10[scale]);
+          writeVarLong(out, zigzag(scaled - previous));
+          previous = scaled;
+        }
+      }
+    } else {
+      out.writeByte(SCALE_XOR);
+      long previousBits = 0;
+      for (Double value : values) {
+        if (value != null) {
+          long bits = Double.doubleToRawLongBits(value);
+          long xor = bits ^ previousBits;
+          int trailingZeros = Long.numberOfTrailingZeros(xor);
+          out.writeByte(trailingZeros);
+          if (xor != 0) {
+            writeVarLong(out, xor >>> trailingZeros);
+          }
+          previousBits = bits;
+        }
+      }
+    }
+  }
+
+  private static Double[] readPriceColumn(DataInputStream in, int n) throws IOException {
+    boolean[] present = readPresence(in, n);
+    Double[] values = new Double[n];
+    if (present == null) {
+      return values;
+    }
+    byte scale = in.readByte();
+    if (scale != SCALE_XOR && (scale < 0 || scale > MAX_SCALE)) {
+      throw new IllegalArgumentException("Invalid price scale: " + scale);
+    }
+    long previous = 0;
+    for (int i = 0; i < n; i++) {
+      if (present[i]) {
+        if (scale == SCALE_XOR) {
+          int trailingZeros = in.readUnsignedByte();
+          long xor = trailingZeros == Long.SIZE ? 0 : readVarLong(in) << trailingZeros;
+          previous ^= xor;
+          values[i] = Double.longBitsToDouble(previous);
+        } else {
+          previous += unzigzag(readVarLong(in));
+          values[i] = previous / POW10[scale];
+        }
+      }
+    }
+    return values;
+  }
+
+  private static void writeVolumeColumn(DataOutputStream out, List<Long> values) throws IOException {
+    if (writePresence(out, values)) {
+      long previous = 0;
+      for (Long value : values) {
+        if (value != null) {
+          writeVarLong(out, zigzag(value - previous));
+          previous = value;
+        }
+      }
+    }
+  }
+
+  private static Long[] readVolumeColumn(DataInputStream in, int n) throws IOException {
+    boolean[] present = readPresence(in, n);
+    Long[] values = new Long[n];
+    if (present != null) {
+      long previous = 0;
+      for (int i = 0; i < n; i++) {
+        if (present[i]) {
+          previous += unzigzag(readVarLong(in));
+          values[i] = previous;
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the smallest decimal scale with which every price of the column is an exact integer, or -1 if there is
+   * none up to {@link #MAX_SCALE}.
+   */
+  static int findScale(List<Double> values) {
+    for (int scale = 0; scale <= MAX_SCALE; scale++) {
+      if (isExactWithScale(values, scale)) {
+        return scale;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isExactWithScale(List<Double> values, int scale) {
+    for (Double value : values) {
+      if (value != null) {
+        double multiplied = value * POW10[scale];
+        if (!(Math.abs(multiplied) < MAX_EXACT_DOUBLE) || Double.doubleToRawLongBits(
+            Math.round(multiplied) / POW10[scale]) != Double.doubleToRawLongBits(value)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes which values of the column are present.
+   *
+   * @return true if at least one value is present
+   */
+  private static boolean writePresence(DataOutputStream out, List<?> values) throws IOException {
+    long presentCount = values.stream().filter(v -> v != null).count();
+    if (presentCount == 0) {
+      out.writeByte(PRESENT_NONE);
+      return false;
+    }
+    if (presentCount == values.size()) {
+      out.writeByte(PRESENT_ALL);
+    } else {
+      out.writeByte(PRESENT_BITMAP);
+      byte[] bitmap = new byte[(values.size() + 7) / 8];
+      for (int i = 0; i < values.size(); i++) {
+        if (values.get(i) != null) {
+          bitmap[i >> 3] |= (byte) (1 << (i & 7));
+        }
+      }
+      out.write(bitmap);
+    }
+    return true;
+  }
+
+  /**
+   * Reads which values of the column are present.
+   *
+   * @return the presence of each value, or null if no value is present
+   */
+  private static boolean[] readPresence(DataInputStream in, int n) throws IOException {
+    byte marker = in.readByte();
+    if (marker == PRESENT_NONE) {
+      return null;
+    }
+    boolean[] present = new boolean[n];
+    if (marker == PRESENT_ALL) {
+      Arrays.fill(present, true);
+    } else if (marker != PRESENT_BITMAP) {
+      throw new IllegalArgumentException("Invalid presence marker: " + marker);
+    } else {
+      byte[] bitmap = new byte[(n + 7) / 8];
+      in.readFully(bitmap);
+      for (int i = 0; i < n; i++) {
+        present[i] = (bitmap[i >> 3] & (1 << (i & 7))) != 0;
+      }
+    }
+    return present;
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length integer");
+  }
+}
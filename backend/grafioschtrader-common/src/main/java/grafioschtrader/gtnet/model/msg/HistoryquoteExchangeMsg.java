@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 
 import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -38,6 +40,23 @@ public class HistoryquoteExchangeMsg {
       Only populated in GT_NET_HISTORYQUOTE_PUSH_ACK_S responses.""")
   public Integer acceptedCount;
 
+  @Schema(description = """
+      Name of the compact encoding of the price records, e.g. 'HQ_COLUMNAR_V1'. When set, the records lists of all
+      instruments are empty and the records are contained in encodedRecords. Only used when the receiver announced
+      the encoding in its payload encodings.""")
+  @JsonInclude(Include.NON_NULL)
+  public String recordEncoding;
+
+  @Schema(description = "Records of all instruments in the compact encoding named by recordEncoding (Base64 in JSON)")
+  @JsonInclude(Include.NON_NULL)
+  public byte[] encodedRecords;
+
+  @Schema(description = """
+      Size in bytes this payload would have had with the records as JSON. Set by the sender together with
+      recordEncoding, so that the receiver can log the saving.""")
+  @JsonInclude(Include.NON_NULL)
+  public Long jsonSize;
+
   public HistoryquoteExchangeMsg() {
   }
 
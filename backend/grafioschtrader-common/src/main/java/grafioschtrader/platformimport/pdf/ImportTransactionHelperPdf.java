@@ -2,10 +2,13 @@ package grafioschtrader.platformimport.pdf;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
@@ -32,9 +35,18 @@ import grafioschtrader.entities.ImportTransactionTemplate;
  * <p>PDF text extraction maintains document structure and positioning information, which is crucial for accurate
  * template matching against form-based PDF documents. The position-aware extraction ensures that text relationships
  * and spatial arrangements are preserved during the conversion process.</p>
+ *
+ * <h3>Template Cache</h3>
+ * <p>The compiled templates of a trading platform are kept per locale and reused as long as no template of the
+ * platform was added, removed or changed. The compiled configurations are only read during parsing and can
+ * therefore be shared by concurrent imports. They are compiled from a copy of the template, the cache never holds
+ * the entities of a caller and every call maps the compiled templates to the entities it passed.</p>
  */ 
 public abstract class ImportTransactionHelperPdf {
 
+  /** Compiled templates by trading platform and locale. */
+  private static final Map<String, CompiledTemplates> COMPILED_TEMPLATES_CACHE = new ConcurrentHashMap<>();
+
   /**
    * Converts a PDF input stream to text string using Apache PDFBox with position-aware text extraction.
    * 
@@ -97,4 +109,62 @@ public abstract class ImportTransactionHelperPdf {
     return templateScannedMap;
   }
 
+  /**
+   * Like {@link #readTemplates(List, Locale)}, but the compiled templates are cached by trading platform and locale.
+   * The cache entry is rebuilt when the identifier or version of a template differs. Templates which were not yet
+   * persisted are compiled without caching.
+   *
+   * @param importTransactionTemplateList all templates of one trading platform
+   * @param userLocale                    the locale for template configuration
+   * @return a map of the compiled templates to the passed entity they belong to
+   */
+  public static Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> readTemplatesCached(
+      List<ImportTransactionTemplate> importTransactionTemplateList, Locale userLocale) {
+    if (importTransactionTemplateList.isEmpty() || importTransactionTemplateList.stream()
+        .anyMatch(itt -> itt.getIdTransactionImportTemplate() == null || itt.getVersion() == null)) {
+      return readTemplates(importTransactionTemplateList, userLocale);
+    }
+    String cacheKey = importTransactionTemplateList.getFirst().getIdTransactionImportPlatform() + "|"
+        + userLocale.toLanguageTag();
+    String versionKey = importTransactionTemplateList.stream()
+        .sorted(Comparator.comparing(ImportTransactionTemplate::getIdTransactionImportTemplate))
+        .map(itt -> itt.getIdTransactionImportTemplate() + ":" + itt.getVersion()).collect(Collectors.joining(","));
+    CompiledTemplates compiledTemplates = COMPILED_TEMPLATES_CACHE.get(cacheKey);
+    if (compiledTemplates == null || !compiledTemplates.versionKey().equals(versionKey)) {
+      Map<Integer, TemplateConfigurationPDFasTXT> templateById = new HashMap<>();
+      readTemplates(importTransactionTemplateList.stream().map(ImportTransactionHelperPdf::copyTemplate).toList(),
+          userLocale).forEach((tc, itt) -> templateById.put(itt.getIdTransactionImportTemplate(), tc));
+      compiledTemplates = new CompiledTemplates(versionKey, Map.copyOf(templateById));
+      COMPILED_TEMPLATES_CACHE.put(cacheKey, compiledTemplates);
+    }
+    Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = new HashMap<>();
+    for (ImportTransactionTemplate itt : importTransactionTemplateList) {
+      templateScannedMap.put(compiledTemplates.templateById().get(itt.getIdTransactionImportTemplate()), itt);
+    }
+    return templateScannedMap;
+  }
+
+  /**
+   * Copies the attributes which a compiled template reads, so the cache does not keep the entity of the caller.
+   */
+  private static ImportTransactionTemplate copyTemplate(ImportTransactionTemplate itt) {
+    ImportTransactionTemplate copy = new ImportTransactionTemplate(itt.getTemplateCategory(),
+        itt.getTemplateFormatType(), itt.getTemplateLanguage());
+    copy.setIdTransactionImportTemplate(itt.getIdTransactionImportTemplate());
+    copy.setIdTransactionImportPlatform(itt.getIdTransactionImportPlatform());
+    copy.setTemplatePurpose(itt.getTemplatePurpose());
+    copy.setValidSince(itt.getValidSince());
+    copy.setTemplateAsTxt(itt.getTemplateAsTxt());
+    return copy;
+  }
+
+  /**
+   * Compiled templates of a trading platform.
+   *
+   * @param versionKey   identifier and version of every template, changes when a template changes
+   * @param templateById the compiled templates by the identifier of their template
+   */
+  private record CompiledTemplates(String versionKey, Map<Integer, TemplateConfigurationPDFasTXT> templateById) {
+  }
+
 }
@@ -3,6 +3,7 @@ package grafioschtrader.platformimport.pdf;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
@@ -51,6 +52,11 @@ import grafioschtrader.platformimport.ImportProperties;
  *   <li>Template purposes and validity dates for troubleshooting</li>
  * </ul>
  * 
+ * <h3>Anchor Word Pre-Filter</h3>
+ * <p>Only the templates whose literal anchor words all occur in the document are matched property by property. When
+ * none of them matches, the remaining templates are matched as well, so the diagnostic of a failed document still
+ * covers every template.</p>
+ *
  * <h3>Text Preprocessing</h3>
  * <p>Input text is automatically normalized by removing empty lines, standardizing
  * line endings, and collapsing multiple spaces to ensure consistent parsing.</p>
@@ -103,21 +109,44 @@ public class ParseFormInputPDFasTXT {
    * @throws Exception if parsing encounters errors
    */
   public List<ImportProperties> parseInput(Integer fileNumber) throws Exception {
-    templateScannedMap
-        .forEach((k, _) -> formInputTemplateMatchStateList.add(new FormInputTemplateMatchState(k, fileNumber)));
     String formInput = inputString.replaceAll(REMOVE_EMPTY_LINE_PATTERN, "")
         .replaceAll("\r\n|\r|\n", System.lineSeparator()).replaceAll(" +", " ").trim();
+    String lowerCaseFormInput = formInput.toLowerCase(Locale.ROOT);
+    List<FormInputTemplateMatchState> candidateStateList = new ArrayList<>();
+    List<FormInputTemplateMatchState> otherStateList = new ArrayList<>();
+    templateScannedMap.forEach((k, _) -> {
+      FormInputTemplateMatchState formInputTemplateMatchState = new FormInputTemplateMatchState(k, fileNumber);
+      formInputTemplateMatchStateList.add(formInputTemplateMatchState);
+      (k.containsAnchorWords(lowerCaseFormInput) ? candidateStateList : otherStateList)
+          .add(formInputTemplateMatchState);
+    });
     formInputLines = formInput.split(System.lineSeparator());
     for (int i = 0; i < formInputLines.length; i++) {
       formInputLines[i] = formInputLines[i].trim();
     }
-    for (int row = 0; row < formInputLines.length; row++) {
-      matchRequiredTemplatesPropertyByRow(row);
+    Map<FormInputTemplateMatchState, List<ImportProperties>> matchingTemplateMap = matchTemplates(
+        candidateStateList);
+    if (matchingTemplateMap.isEmpty() && !otherStateList.isEmpty()) {
+      matchingTemplateMap = matchTemplates(otherStateList);
     }
-    Map<FormInputTemplateMatchState, List<ImportProperties>> matchingTemplateMap = matchOptionalTemplatesProperties();
     return getMatchingPropertyList(matchingTemplateMap);
   }
 
+  /**
+   * Matches the required and then the optional properties of the given templates.
+   *
+   * @param stateList the parsing states of the templates to match
+   * @return Map of successful template states to their extracted transaction properties
+   * @throws Exception if property matching encounters errors
+   */
+  private Map<FormInputTemplateMatchState, List<ImportProperties>> matchTemplates(
+      List<FormInputTemplateMatchState> stateList) throws Exception {
+    for (int row = 0; row < formInputLines.length; row++) {
+      matchRequiredTemplatesPropertyByRow(stateList, row);
+    }
+    return matchOptionalTemplatesProperties(stateList);
+  }
+
   /**
    * Returns the template that successfully parsed the given transaction properties.
    * Used to identify which template configuration matched the document.
@@ -128,7 +157,7 @@ public class ParseFormInputPDFasTXT {
   public ImportTransactionTemplate getSuccessTemplate(List<ImportProperties> importPropertiesList) {
     FormInputTemplateMatchState formInputTemplateMatchState = formInputTemplateMatchStateList.stream()
         .filter(fitms -> fitms.getImportPropertiesList() == importPropertiesList).findFirst().get();
-    return formInputTemplateMatchState.getTemplateConfigurationPDFasTXT().getImportTransactionTemplate();
+    return templateScannedMap.get(formInputTemplateMatchState.getTemplateConfigurationPDFasTXT());
   }
 
   /**
@@ -172,11 +201,13 @@ public class ParseFormInputPDFasTXT {
    * Attempts to match required template properties for all templates against a specific text line.
    * Each template maintains its own parsing state as it progresses through the document.
    * 
+   * @param stateList the parsing states of the templates to match
    * @param row Line number in the normalized input text
    * @throws Exception if property matching encounters errors
    */
-  private void matchRequiredTemplatesPropertyByRow(int row) throws Exception {
-    for (FormInputTemplateMatchState tms : formInputTemplateMatchStateList) {
+  private void matchRequiredTemplatesPropertyByRow(List<FormInputTemplateMatchState> stateList, int row)
+      throws Exception {
+    for (FormInputTemplateMatchState tms : stateList) {
       tms.matchTemplatesProperties(formInputLines, row);
     }
   }
@@ -185,13 +216,15 @@ public class ParseFormInputPDFasTXT {
    * Processes optional properties for templates that successfully matched all required fields.
    * Only templates that completed required property matching participate in this phase.
    * 
+   * @param stateList the parsing states of the templates to match
    * @return Map of successful template states to their extracted transaction properties
    * @throws Exception if optional property processing encounters errors
    */
-  private Map<FormInputTemplateMatchState, List<ImportProperties>> matchOptionalTemplatesProperties() throws Exception {
+  private Map<FormInputTemplateMatchState, List<ImportProperties>> matchOptionalTemplatesProperties(
+      List<FormInputTemplateMatchState> stateList) throws Exception {
     Map<FormInputTemplateMatchState, List<ImportProperties>> matchingTemplateMap = new HashMap<>();
 
-    for (FormInputTemplateMatchState tms : formInputTemplateMatchStateList) {
+    for (FormInputTemplateMatchState tms : stateList) {
       if (tms.isFormMatches()) {
         tms.scanForOptionalProperties(formInputLines);
         matchingTemplateMap.put(tms, tms.getImportPropertiesList());
@@ -4,8 +4,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -84,6 +87,9 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
   /** Template lines split for processing. */
   private String[] templateLines;
 
+  /** Literal anchor words of the required properties in lower case, every matching document contains them. */
+  private final Set<String> anchorWords = new HashSet<>();
+
   /**
    * Creates a new PDF template configuration.
    * 
@@ -141,22 +147,27 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
       PropertyWithOptionsConfiguration propertyWithOptions = new PropertyWithOptionsConfiguration(fieldName, dataType,
           addBraces(getValuePattern(dataType)), startRow, propteryColumn);
       propertyOptionsList.add(propertyWithOptions);
+      List<String> literalAnchors = new ArrayList<>();
 
       for (int i = 1; i < propertyOptionsSplit.length; i++) {
         switch (propertyOptionsSplit[i]) {
         case "P":
           propertyWithOptions.prevRegex = getPrevStringPattern(rowSplitSpace, propteryColumn);
+          addLiteralAnchor(literalAnchors, rowSplitSpace, propteryColumn - 1);
           break;
         case "N":
           propertyWithOptions.nextRegex = getNextStringPattern(rowSplitSpace, propteryColumn);
+          addLiteralAnchor(literalAnchors, rowSplitSpace, propteryColumn + 1);
           break;
         case "Pc":
           propertyWithOptions.prevConcatenatedString = getPrevConcatenatedString(rowSplitSpace, propteryColumn,
               propertyWithOptionsAndBraces);
+          literalAnchors.add(getPrevConcatenatedText(rowSplitSpace, propteryColumn, propertyWithOptionsAndBraces));
           break;
         case "Nc":
           propertyWithOptions.nextConcatenatedString = getNextConcatenatedString(rowSplitSpace, propteryColumn,
               propertyWithOptionsAndBraces);
+          literalAnchors.add(getNextConcatenatedText(rowSplitSpace, propteryColumn, propertyWithOptionsAndBraces));
           break;
         case "PL":
         case "PLI":
@@ -198,6 +209,23 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
         }
       }
       propertyWithOptions.createRegex();
+      if (!propertyWithOptions.optional && !propertyWithOptions.firstColumnTable) {
+        literalAnchors.stream().filter(anchor -> !anchor.isEmpty())
+            .forEach(anchor -> anchorWords.add(anchor.toLowerCase(Locale.ROOT)));
+      }
+    }
+  }
+
+  /**
+   * Adds the word next to a property as anchor, when it is matched literally. A regex group, the line beginning or
+   * end and another property can not be searched as plain text.
+   */
+  private void addLiteralAnchor(List<String> literalAnchors, String[] rowSplitSpace, int column) {
+    if (column >= 0 && column < rowSplitSpace.length) {
+      String word = rowSplitSpace[column];
+      if (!word.startsWith("(?:") && !word.startsWith("[") && !word.contains("{")) {
+        literalAnchors.add(word);
+      }
     }
   }
 
@@ -270,8 +298,13 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
    */
   private String getPrevConcatenatedString(String[] rowSplitSpace, int propertyColum,
       String propertyWithOptionsAndBraces) {
+    return Pattern.quote(getPrevConcatenatedText(rowSplitSpace, propertyColum, propertyWithOptionsAndBraces));
+  }
+
+  private String getPrevConcatenatedText(String[] rowSplitSpace, int propertyColum,
+      String propertyWithOptionsAndBraces) {
     String fullWord = rowSplitSpace[propertyColum];
-    return Pattern.quote(fullWord.substring(0, fullWord.indexOf(propertyWithOptionsAndBraces)));
+    return fullWord.substring(0, fullWord.indexOf(propertyWithOptionsAndBraces));
   }
 
   /**
@@ -285,9 +318,13 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
    */
   private String getNextConcatenatedString(String[] rowSplitSpace, int propertyColum,
       String propertyWithOptionsAndBraces) {
+    return Pattern.quote(getNextConcatenatedText(rowSplitSpace, propertyColum, propertyWithOptionsAndBraces));
+  }
+
+  private String getNextConcatenatedText(String[] rowSplitSpace, int propertyColum,
+      String propertyWithOptionsAndBraces) {
     String fullWord = rowSplitSpace[propertyColum];
-    return Pattern.quote(
-        fullWord.substring(fullWord.indexOf(propertyWithOptionsAndBraces) + propertyWithOptionsAndBraces.length()));
+    return fullWord.substring(fullWord.indexOf(propertyWithOptionsAndBraces) + propertyWithOptionsAndBraces.length());
   }
 
   /**
@@ -357,6 +394,29 @@ public class TemplateConfigurationPDFasTXT extends TemplateConfiguration {
     return this.propertyOptionsList;
   }
 
+  /**
+   * Returns the literal anchor words of the required properties in lower case. The properties are matched case
+   * insensitive, a document which lacks one of these words can therefore not match this template.
+   */
+  public Set<String> getAnchorWords() {
+    return Collections.unmodifiableSet(anchorWords);
+  }
+
+  /**
+   * Pre-filter before the template is matched property by property.
+   *
+   * @param lowerCaseFormInput the normalized document text in lower case
+   * @return false when the document can not match this template, true when it may match
+   */
+  public boolean containsAnchorWords(String lowerCaseFormInput) {
+    for (String anchorWord : anchorWords) {
+      if (!lowerCaseFormInput.contains(anchorWord)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Returns the number of columns (words) in the template line containing a property.
    * 
@@ -0,0 +1,117 @@
+package grafioschtrader.reportviews;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import grafioschtrader.dto.IDateAndClose;
+
+/**
+ * Closing rates of one currency pair held in a primitive array which is indexed by the epoch day. A lookup by date is
+ * an array access, no key object is created.
+ * <p>
+ * Days without a quote, weekends and holidays, take the rate of the previous quote as long as it is not older than
+ * {@link #MAX_FORWARD_FILL_DAYS}. After the last quote no rate is returned, the caller decides whether the last price
+ * of the currency pair can be used instead.
+ * </p>
+ * <p>
+ * An instance is immutable and can be shared between threads, {@link #append(List)} returns a new instance.
+ * </p>
+ */
+public class CurrencypairRateSeries {
+
+  /** Maximum number of days a rate is carried forward, long enough for Easter from Good Friday to Easter Monday. */
+  public static final int MAX_FORWARD_FILL_DAYS = 4;
+
+  private final int firstEpochDay;
+  /** Rate per day since the first quote, NaN on a day without a quote. */
+  private final double[] rates;
+  private final int quoteCount;
+
+  private CurrencypairRateSeries(int firstEpochDay, double[] rates, int quoteCount) {
+    this.firstEpochDay = firstEpochDay;
+    this.rates = rates;
+    this.quoteCount = quoteCount;
+  }
+
+  /**
+   * @param quotes the quotes of the currency pair ordered by date
+   */
+  public static CurrencypairRateSeries of(List<? extends IDateAndClose> quotes) {
+    if (quotes.isEmpty()) {
+      return new CurrencypairRateSeries(0, new double[0], 0);
+    }
+    int firstEpochDay = (int) quotes.getFirst().getDate().toEpochDay();
+    double[] rates = newRates((int) quotes.getLast().getDate().toEpochDay() - firstEpochDay + 1, 0);
+    putAll(rates, firstEpochDay, quotes);
+    return new CurrencypairRateSeries(firstEpochDay, rates, quotes.size());
+  }
+
+  /**
+   * Returns a series extended by quotes which are all younger than the last quote of this series.
+   *
+   * @param quotes the new quotes ordered by date
+   */
+  public CurrencypairRateSeries append(List<? extends IDateAndClose> quotes) {
+    if (quotes.isEmpty()) {
+      return this;
+    } else if (quoteCount == 0) {
+      return of(quotes);
+    }
+    double[] extended = newRates((int) quotes.getLast().getDate().toEpochDay() - firstEpochDay + 1, rates.length);
+    System.arraycopy(rates, 0, extended, 0, rates.length);
+    putAll(extended, firstEpochDay, quotes);
+    return new CurrencypairRateSeries(firstEpochDay, extended, quoteCount + quotes.size());
+  }
+
+  /**
+   * Returns the rate of the date or of the nearest previous quote within {@link #MAX_FORWARD_FILL_DAYS}.
+   *
+   * @return the rate or NaN when there is none
+   */
+  public double getRate(LocalDate date) {
+    int index = (int) date.toEpochDay() - firstEpochDay;
+    if (index < 0 || index >= rates.length) {
+      return Double.NaN;
+    }
+    for (int stop = Math.max(0, index - MAX_FORWARD_FILL_DAYS); index >= stop; index--) {
+      if (!Double.isNaN(rates[index])) {
+        return rates[index];
+      }
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Returns the rate of a quote on exactly this date.
+   *
+   * @return the rate or NaN when there is no quote on this date
+   */
+  public double getExactRate(LocalDate date) {
+    int index = (int) date.toEpochDay() - firstEpochDay;
+    return index < 0 || index >= rates.length ? Double.NaN : rates[index];
+  }
+
+  /**
+   * Date of the youngest quote, null for an empty series.
+   */
+  public LocalDate getLastDate() {
+    return quoteCount == 0 ? null : LocalDate.ofEpochDay(firstEpochDay + rates.length - 1);
+  }
+
+  public int getQuoteCount() {
+    return quoteCount;
+  }
+
+  private static double[] newRates(int length, int nanFrom) {
+    double[] rates = new double[length];
+    Arrays.fill(rates, nanFrom, length, Double.NaN);
+    return rates;
+  }
+
+  private static void putAll(double[] rates, int firstEpochDay, List<? extends IDateAndClose> quotes) {
+    for (IDateAndClose quote : quotes) {
+      rates[(int) quote.getDate().toEpochDay() - firstEpochDay] = quote.getClose();
+    }
+  }
+}
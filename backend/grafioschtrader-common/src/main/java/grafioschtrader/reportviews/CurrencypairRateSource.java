@@ -0,0 +1,18 @@
+package grafioschtrader.reportviews;
+
+/**
+ * Provides the closing rates of currency pairs to {@link DateTransactionCurrencypairMap}. The implementation keeps the
+ * rates outside a single report, so they are not read from the database for every report.
+ */
+@FunctionalInterface
+public interface CurrencypairRateSource {
+
+  /**
+   * Returns the closing rates of a currency pair which are up to date with the database.
+   *
+   * @param fromCurrency the source currency
+   * @param toCurrency   the target currency
+   * @return the rates, or null when this currency pair does not exist
+   */
+  CurrencypairRateSeries getRateSeries(String fromCurrency, String toCurrency);
+}
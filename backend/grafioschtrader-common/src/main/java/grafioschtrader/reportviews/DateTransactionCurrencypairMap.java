@@ -5,6 +5,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +43,12 @@ import grafioschtrader.entities.Currencypair;
  * </ul>
  *
  * <p>
+ * The historical rates come from a {@link CurrencypairRateSource} which is shared by all reports. The rates of a source
+ * currency are requested once on its first use and kept for the lifetime of this object, a lookup by date is then an
+ * array access in {@link CurrencypairRateSeries}. A day without a quote takes the rate of the previous quote.
+ * </p>
+ *
+ * <p>
  * The class is designed for use in financial reporting where accurate currency conversion is critical for portfolio
  * valuation, performance calculations, and regulatory reporting.
  * </p>
@@ -50,17 +57,20 @@ public class DateTransactionCurrencypairMap {
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-  private DateCurrency searchDateCurrency = new DateCurrency();
+  /** Placeholder for a source currency without a currency pair to the main currency. */
+  private static final CurrencypairRateSeries NO_RATES = CurrencypairRateSeries.of(List.of());
+
   private String mainCurrency;
   private LocalDate untilDate;
-  private Map<DateCurrency, Double> dateFromCurrencyMap = new HashMap<>();
+  private CurrencypairRateSource currencypairRateSource;
+  /** Rates to the main currency with the source currency as key, filled on first use. */
+  private Map<String, CurrencypairRateSeries> fromCurrencyRateSeriesMap = new ConcurrentHashMap<>();
 
   private Map<FromToCurrencyWithDate, Double> fromToCurrencyWithDateMap = new HashMap<>();
 
   private Map<FromToCurrency, Currencypair> currencypairFromToCurrencyMap = new HashMap<>();
   private Map<Integer, Currencypair> currencypairIdCurrencypairMap = new HashMap<>();
   private boolean isUntilDateEqualNowOrAfter;
-  private boolean untilDateDataLoaded;
   private boolean isUntilDateEqualNowOrAfterOrInActualWeekend;
   private boolean useUntilDateForFeeAndInterest = true;
   private boolean hasTradingDaysBetweenUntilDateAndYesterday = false;
@@ -78,24 +88,23 @@ public class DateTransactionCurrencypairMap {
    * @param mainCurrency                               the main currency of the tenant or portfolio (target currency for
    *                                                   conversions)
    * @param untilDate                                  the latest date included in the report period
-   * @param dateTransactionCurrency                    historical exchange rate data as Object arrays containing
-   *                                                   [LocalDate, String, Double]
+   * @param currencypairRateSource                     shared source of the historical exchange rates
    * @param currencypairs                              list of currency pairs used by the tenant or portfolio
    * @param hasTradingDaysBetweenUntilDateAndYesterday whether trading days exist between until date and yesterday
    * @param useUntilDateForFeeAndInterest              whether to use until date for fee and interest rate calculations
    */
   public DateTransactionCurrencypairMap(final String mainCurrency, final LocalDate untilDate,
-      List<Object[]> dateTransactionCurrency, List<Currencypair> currencypairs,
+      CurrencypairRateSource currencypairRateSource, List<Currencypair> currencypairs,
       boolean hasTradingDaysBetweenUntilDateAndYesterday, boolean useUntilDateForFeeAndInterest) {
     this.mainCurrency = mainCurrency;
     this.untilDate = untilDate;
+    this.currencypairRateSource = currencypairRateSource;
     this.hasTradingDaysBetweenUntilDateAndYesterday = hasTradingDaysBetweenUntilDateAndYesterday;
     this.useUntilDateForFeeAndInterest = useUntilDateForFeeAndInterest;
     isUntilDateEqualNowOrAfter = untilDate == null || DateHelper.isTodayOrAfter(untilDate);
     isUntilDateEqualNowOrAfterOrInActualWeekend = untilDate == null
         || DateHelper.isUntilDateEqualNowOrAfterOrInActualWeekend(untilDate);
 
-    putToDateFromCurrencyMap(dateTransactionCurrency);
     currencypairs.forEach(currencypair -> {
       currencypairFromToCurrencyMap
           .put(new FromToCurrency(currencypair.getFromCurrency(), currencypair.getToCurrency()), currencypair);
@@ -105,40 +114,27 @@ public class DateTransactionCurrencypairMap {
   }
 
   public DateTransactionCurrencypairMap(final String mainCurrency, final LocalDate untilDate,
-      List<Object[]> dateTransactionCurrency, List<Currencypair> currencypairs,
+      CurrencypairRateSource currencypairRateSource, List<Currencypair> currencypairs,
       boolean hasTradingDaysBetweenUntilDateAndYesterday) {
-    this(mainCurrency, untilDate, dateTransactionCurrency, currencypairs, hasTradingDaysBetweenUntilDateAndYesterday,
+    this(mainCurrency, untilDate, currencypairRateSource, currencypairs, hasTradingDaysBetweenUntilDateAndYesterday,
         true);
   }
 
   /**
-   * Populates the internal exchange rate maps from the provided historical data. Processes Object arrays containing
-   * date, currency, and rate information.
+   * Adds the exact rates of transaction dates for {@link #getFromToCurrencyWithDateMap()}. Only needed by the
+   * conversion of deposits and withdrawals, which must use the rate of the transaction date and no other.
    *
    * @param dateCurrency list of Object arrays with [LocalDate, String, Double] representing exchange rates
    */
   public void putToDateFromCurrencyMap(List<Object[]> dateCurrency) {
-    dateCurrency.forEach(objects -> {
-      LocalDate localDate = (LocalDate) objects[0];
-      dateFromCurrencyMap.put(new DateCurrency(localDate, (String) objects[1]), (Double) objects[2]);
-      fromToCurrencyWithDateMap.put(
-          new FromToCurrencyWithDate((String) objects[1], mainCurrency, localDate),
-          (Double) objects[2]);
-    });
+    dateCurrency.forEach(objects -> fromToCurrencyWithDateMap.put(
+        new FromToCurrencyWithDate((String) objects[1], mainCurrency, (LocalDate) objects[0]), (Double) objects[2]));
   }
 
   public Map<FromToCurrencyWithDate, Double> getFromToCurrencyWithDateMap() {
     return fromToCurrencyWithDateMap;
   }
 
-  public void untilDateDataIsLoaded() {
-    this.untilDateDataLoaded = true;
-  }
-
-  public boolean isUntilDateDataLoaded() {
-    return untilDateDataLoaded;
-  }
-
   /**
    * Retrieves the exchange rate from a source currency to the main currency for a specific date. Uses intelligent
    * fallback logic when exact date data is not available.
@@ -153,27 +149,25 @@ public class DateTransactionCurrencypairMap {
     Double closePrice = getExactDateAndFromCurrency(date, fromCurrency);
     if (closePrice == null) {
       if (closePrice == null && required) {
-        log.warn("Missing close price for date {} and currency pair from {} to {}", searchDateCurrency.date,
-            fromCurrency, mainCurrency);
+        log.warn("Missing close price for date {} and currency pair from {} to {}", date, fromCurrency, mainCurrency);
         throw new DataViolationException("currencypair", "gt.missing.currencypair.day",
-            new Object[] { searchDateCurrency.date, fromCurrency, mainCurrency });
+            new Object[] { date, fromCurrency, mainCurrency });
       }
     }
     return closePrice;
   }
 
   /**
-   * Attempts to find the exact exchange rate for a specific date and currency. Falls back to current rates if
-   * historical data is missing and conditions permit.
+   * Attempts to find the exchange rate for a specific date and currency, on a day without a quote the rate of the
+   * previous quote. Falls back to current rates if historical data is missing and conditions permit.
    *
    * @param date         the date for which to find the exchange rate
    * @param fromCurrency the source currency
    * @return exchange rate if found, null otherwise
    */
   public Double getExactDateAndFromCurrency(LocalDate date, String fromCurrency) {
-    searchDateCurrency.date = date;
-    searchDateCurrency.fromCurrency = fromCurrency;
-    Double closePrice = dateFromCurrencyMap.get(searchDateCurrency);
+    double rate = fromCurrencyRateSeriesMap.computeIfAbsent(fromCurrency, this::loadRateSeries).getRate(date);
+    Double closePrice = Double.isNaN(rate) ? null : rate;
     if (closePrice == null
         && (!hasTradingDaysBetweenUntilDateAndYesterday && ChronoUnit.DAYS.between(date, untilDate) <= 1
             || untilDate.isAfter(LocalDate.now()))) {
@@ -183,6 +177,12 @@ public class DateTransactionCurrencypairMap {
     return closePrice;
   }
 
+  private CurrencypairRateSeries loadRateSeries(String fromCurrency) {
+    CurrencypairRateSeries rateSeries = currencypairRateSource == null ? null
+        : currencypairRateSource.getRateSeries(fromCurrency, mainCurrency);
+    return rateSeries == null ? NO_RATES : rateSeries;
+  }
+
   /**
    * Retrieves the current market rate when historical data is missing for recent dates. Only returns a rate if the date
    * is within an acceptable timeframe from now and no recent updates have occurred to provide historical data.
@@ -250,38 +250,3 @@ public class DateTransactionCurrencypairMap {
   }
 
 }
-
-/**
- * Internal key class for looking up exchange rates by date and source currency. Used as a composite key in the exchange
- * rate cache for efficient lookups.
- */
-class DateCurrency {
-  /** The date for the exchange rate lookup */
-  public LocalDate date;
-  /** The source currency for the exchange rate lookup */
-  public String fromCurrency;
-
-  public DateCurrency() {
-
-  }
-
-  public DateCurrency(LocalDate date, String fromCurrency) {
-    this.date = date;
-    this.fromCurrency = fromCurrency;
-  }
-
-  @Override
-  public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + date.hashCode();
-    result = prime * result + fromCurrency.hashCode();
-    return result;
-  }
-
-  @Override
-  public boolean equals(Object obj) {
-    DateCurrency dateCurrency = (DateCurrency) obj;
-    return this == obj || this.date.equals(dateCurrency.date) && this.fromCurrency.equals(dateCurrency.fromCurrency);
-  }
-}
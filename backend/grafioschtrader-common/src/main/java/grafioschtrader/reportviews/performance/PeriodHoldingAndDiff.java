@@ -38,7 +38,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
  * </p>
  */
 @Schema(description = "Data container for period holding values and computed differences used in performance analysis.")
-public class PeriodHoldingAndDiff {
+public class PeriodHoldingAndDiff implements IPeriodHolding {
   @JsonFormat(pattern = BaseConstants.STANDARD_DATE_FORMAT)
   @Schema(description = "The date for which these holding values apply.")
   private LocalDate date;
@@ -26,6 +26,10 @@ public class SecuritycurrencyGroup {
   public LocalDateTime lastTimestamp;
   @Schema(description = "The ID of the watchlist to which this group of instruments belongs.")
   public Integer idWatchlist;
+  @Schema(description = """
+      True when the last prices are being updated in the background and may be outdated. When the update has ended,
+      the rows with a changed price are sent over the web socket.""")
+  public boolean lastpriceRefreshPending;
 
   public SecuritycurrencyGroup(List<SecuritycurrencyPosition<Security>> securityPositionList,
       List<SecuritycurrencyPosition<Currencypair>> currencypairPositionList, LocalDateTime lastTimestamp,
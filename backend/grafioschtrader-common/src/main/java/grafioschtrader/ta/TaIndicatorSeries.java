@@ -0,0 +1,123 @@
+package grafioschtrader.ta;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Result series of a technical indicator held in two parallel primitive arrays, the date as epoch day and the
+ * calculated value. Compared to an array of {@link TaIndicatorData} no object is allocated per data point.
+ * <p>
+ * The JSON representation is the same as for {@code TaIndicatorData[]}, an array of objects with {@code date} and
+ * {@code value}. It is written directly from the primitive arrays.
+ * </p>
+ */
+@JsonSerialize(using = TaIndicatorSeries.TaIndicatorSeriesSerializer.class)
+public class TaIndicatorSeries {
+
+  private final int[] epochDays;
+  private final double[] values;
+  private int length;
+
+  /**
+   * @param capacity maximum number of data points of this series
+   */
+  public TaIndicatorSeries(int capacity) {
+    epochDays = new int[Math.max(0, capacity)];
+    values = new double[epochDays.length];
+  }
+
+  public void add(int epochDay, double value) {
+    epochDays[length] = epochDay;
+    values[length++] = value;
+  }
+
+  public int size() {
+    return length;
+  }
+
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  public int[] getEpochDays() {
+    return Arrays.copyOf(epochDays, length);
+  }
+
+  public double[] getValues() {
+    return Arrays.copyOf(values, length);
+  }
+
+  /**
+   * Converts this series to the object representation, only needed for callers which still work with
+   * {@link TaIndicatorData}.
+   */
+  public TaIndicatorData[] toTaIndicatorData() {
+    TaIndicatorData[] taIndicatorData = new TaIndicatorData[length];
+    for (int i = 0; i < length; i++) {
+      taIndicatorData[i] = new TaIndicatorData(LocalDate.ofEpochDay(epochDays[i]), values[i]);
+    }
+    return taIndicatorData;
+  }
+
+  /**
+   * Writes the series as array of {@code {"date":"yyyy-MM-dd","value":n}} objects. The date is formatted into a
+   * reused character buffer.
+   */
+  public static class TaIndicatorSeriesSerializer extends ValueSerializer<TaIndicatorSeries> {
+
+    @Override
+    public void serialize(TaIndicatorSeries series, JsonGenerator gen, SerializationContext ctxt)
+        throws JacksonException {
+      char[] dateBuffer = new char[10];
+      gen.writeStartArray(series, series.length);
+      for (int i = 0; i < series.length; i++) {
+        gen.writeStartObject();
+        gen.writeName("date");
+        gen.writeString(dateBuffer, 0, formatIsoDate(series.epochDays[i], dateBuffer));
+        gen.writeName("value");
+        gen.writeNumber(series.values[i]);
+        gen.writeEndObject();
+      }
+      gen.writeEndArray();
+    }
+
+    /**
+     * Formats an epoch day as ISO date (yyyy-MM-dd) without creating a {@link LocalDate}. Uses the civil-from-days
+     * algorithm of the proleptic Gregorian calendar, valid for the years 0 to 9999.
+     *
+     * @return number of characters written
+     */
+    static int formatIsoDate(int epochDay, char[] buffer) {
+      int z = epochDay + 719468;
+      int era = Math.floorDiv(z, 146097);
+      int doe = z - era * 146097;
+      int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+      int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+      int mp = (5 * doy + 2) / 153;
+      int day = doy - (153 * mp + 2) / 5 + 1;
+      int month = mp < 10 ? mp + 3 : mp - 9;
+      int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+      buffer[0] = (char) ('0' + year / 1000);
+      buffer[1] = (char) ('0' + year / 100 % 10);
+      buffer[2] = (char) ('0' + year / 10 % 10);
+      buffer[3] = (char) ('0' + year % 10);
+      buffer[4] = '-';
+      buffer[5] = (char) ('0' + month / 10);
+      buffer[6] = (char) ('0' + month % 10);
+      buffer[7] = '-';
+      buffer[8] = (char) ('0' + day / 10);
+      buffer[9] = (char) ('0' + day % 10);
+      return 10;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package grafioschtrader.ta;
 
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @Schema(description = """
@@ -18,13 +19,13 @@ public class TaTraceIndicatorData {
       For example, for an SMA(20), the period would be 20. May be null for indicators that do not use a period or for sub-traces not directly tied to the main period.""")
   public Integer period;
 
-  @Schema(description = """
+  @ArraySchema(schema = @Schema(implementation = TaIndicatorData.class), arraySchema = @Schema(description = """
       An array of individual data points for this indicator trace.
-      Each entry typically contains a date and the calculated indicator value for that date.""")
-  public TaIndicatorData[] taIndicatorData;
+      Each entry typically contains a date and the calculated indicator value for that date."""))
+  public TaIndicatorSeries taIndicatorData;
 
   public TaTraceIndicatorData(TaIndicators taIndicator, String traceName, Integer period,
-      TaIndicatorData[] taIndicatorData) {
+      TaIndicatorSeries taIndicatorData) {
     this.taIndicator = taIndicator;
     this.traceName = traceName;
     this.period = period;
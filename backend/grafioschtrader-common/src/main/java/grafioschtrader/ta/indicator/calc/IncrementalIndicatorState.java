@@ -0,0 +1,306 @@
+package grafioschtrader.ta.indicator.calc;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Running indicator state of a single instrument which is updated one close at a time.
+ * <p>
+ * The state keeps the most recent closes in a ring buffer and, for every requested period, the running values of the
+ * simple moving average (window sum), the exponential moving average and the Wilder smoothed RSI averages. An indicator
+ * period is computed once from the buffered closes when it is requested the first time; afterwards each
+ * {@link #append(LocalDate, double)} updates all registered indicators in constant time and reading a value costs
+ * nothing. The formulas are the same as in {@link SimpleMovingAverage}, {@link ExponentialMovingAverage} and
+ * {@link RelativeStrengthIndex}, including the number of closes required before a value is available.
+ * </p>
+ * <p>
+ * The EMA and RSI depend on where the history starts, they are therefore kept per period and start date. The first
+ * request calculates them over the buffered closes from this date on, so a caller gets the same value as from a history
+ * query limited to this date range. Afterwards {@link #append(LocalDate, double)} updates them like the SMA. A state
+ * which was not read since the previous append is dropped with the next append, a caller whose start date moves on
+ * with the calendar so leaves no states behind.
+ * </p>
+ * <p>
+ * A value which cannot be calculated because of insufficient data is returned as {@link Double#NaN}. This class is not
+ * thread-safe.
+ * </p>
+ */
+public class IncrementalIndicatorState {
+
+  private final int[] epochDays;
+  private final double[] closes;
+  /** Number of closes ever appended, the newest is at index {@code (count - 1) % capacity}. */
+  private int count;
+
+  private final Map<Integer, SmaState> smaStates = new HashMap<>();
+  private final Map<WindowKey, EmaState> emaStates = new HashMap<>();
+  private final Map<WindowKey, RsiState> rsiStates = new HashMap<>();
+
+  /**
+   * @param capacity maximum number of closes kept, limits the largest usable SMA period
+   */
+  public IncrementalIndicatorState(int capacity) {
+    epochDays = new int[capacity];
+    closes = new double[capacity];
+  }
+
+  /**
+   * Adds the close of the next trading day. The dates must be ascending.
+   */
+  public void append(LocalDate date, double close) {
+    int index = count % closes.length;
+    epochDays[index] = (int) date.toEpochDay();
+    closes[index] = close;
+    count++;
+    smaStates.values().forEach(s -> s.add(close));
+    appendWindow(emaStates, epochDays[index], close);
+    appendWindow(rsiStates, epochDays[index], close);
+  }
+
+  /**
+   * Drops the states which were not read since the previous append or whose start date has left the buffer, the others
+   * get the new close.
+   */
+  private <T extends WindowState> void appendWindow(Map<WindowKey, T> windowStates, int epochDay, double close) {
+    int firstEpochDay = epochDays[count <= closes.length ? 0 : count % closes.length];
+    windowStates.entrySet().removeIf(e -> !e.getValue().read
+        || (count > closes.length && e.getKey().fromEpochDay() < firstEpochDay));
+    windowStates.forEach((key, state) -> {
+      if (epochDay >= key.fromEpochDay()) {
+        state.add(close);
+      }
+      state.read = false;
+    });
+  }
+
+  /** Number of closes held in the buffer. */
+  public int size() {
+    return Math.min(count, closes.length);
+  }
+
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /** Date of the oldest close held in the buffer. */
+  public LocalDate getFirstDate() {
+    return count == 0 ? null : LocalDate.ofEpochDay(epochDays[count <= closes.length ? 0 : count % closes.length]);
+  }
+
+  public LocalDate getLastDate() {
+    return count == 0 ? null : LocalDate.ofEpochDay(epochDays[(count - 1) % closes.length]);
+  }
+
+  public double getLastClose() {
+    return count == 0 ? Double.NaN : closes[(count - 1) % closes.length];
+  }
+
+  public double getSma(int period) {
+    if (period <= 0 || period >= closes.length) {
+      return Double.NaN;
+    }
+    return smaStates.computeIfAbsent(period, p -> replay(new SmaState(p))).getValue();
+  }
+
+  /**
+   * Returns the SMA when at least {@code period + 1} closes were traded on or after the given date, which is the same
+   * condition as for a history starting at this date.
+   */
+  public double getSma(int period, LocalDate fromDate) {
+    return countFrom(fromDate) > period ? getSma(period) : Double.NaN;
+  }
+
+  /**
+   * Returns the EMA calculated over the buffered closes from the given date on, as if the history started at this date.
+   */
+  public double getEma(int period, LocalDate fromDate) {
+    return period <= 0 ? Double.NaN
+        : readWindow(emaStates, new WindowKey(period, (int) fromDate.toEpochDay()), () -> new EmaState(period));
+  }
+
+  /**
+   * Returns the RSI calculated over the buffered closes from the given date on, as if the history started at this date.
+   */
+  public double getRsi(int period, LocalDate fromDate) {
+    return period <= 0 ? Double.NaN
+        : readWindow(rsiStates, new WindowKey(period, (int) fromDate.toEpochDay()), () -> new RsiState(period));
+  }
+
+  /**
+   * Number of buffered closes with a date on or after the given date. The dates are ascending, so the boundary is found
+   * by a binary search.
+   */
+  public int countFrom(LocalDate fromDate) {
+    int fromEpochDay = (int) fromDate.toEpochDay();
+    // Search the number of closes from the newest backwards, the dates descend with it
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int back = (low + high) >>> 1;
+      if (epochDays[(count - 1 - back) % closes.length] >= fromEpochDay) {
+        low = back + 1;
+      } else {
+        high = back;
+      }
+    }
+    return low;
+  }
+
+  private <T extends WindowState> double readWindow(Map<WindowKey, T> windowStates, WindowKey key,
+      Supplier<T> creator) {
+    T state = windowStates.computeIfAbsent(key, k -> replayFrom(creator.get(), k.fromEpochDay()));
+    state.read = true;
+    return state.getValue();
+  }
+
+  /**
+   * Returns the close appended {@code back} steps before the newest one, 0 is the newest close.
+   */
+  private double getCloseBack(int back) {
+    return closes[(count - 1 - back) % closes.length];
+  }
+
+  private <T extends IndicatorCalc> T replay(T indicatorCalc) {
+    int size = size();
+    for (int back = size - 1; back >= 0; back--) {
+      indicatorCalc.replay(getCloseBack(back), size - 1 - back);
+    }
+    return indicatorCalc;
+  }
+
+  private <T extends IndicatorCalc> T replayFrom(T indicatorCalc, int fromEpochDay) {
+    for (int back = countFrom(LocalDate.ofEpochDay(fromEpochDay)) - 1; back >= 0; back--) {
+      indicatorCalc.add(getCloseBack(back));
+    }
+    return indicatorCalc;
+  }
+
+  private interface IndicatorCalc {
+    void add(double close);
+
+    /**
+     * Feeds a buffered close when the indicator is registered.
+     *
+     * @param close    the close
+     * @param position position of the close in the buffer, 0 is the oldest
+     */
+    default void replay(double close, int position) {
+      add(close);
+    }
+
+    double getValue();
+  }
+
+  /** Period and start date of an EMA or RSI state. */
+  private record WindowKey(int period, int fromEpochDay) {
+  }
+
+  /** Base of the states which are kept per start date. */
+  private abstract static class WindowState implements IndicatorCalc {
+    /** Whether the value was read since the last append. */
+    boolean read;
+  }
+
+  private class SmaState implements IndicatorCalc {
+    private final int period;
+    private double sum;
+    private int added;
+
+    SmaState(int period) {
+      this.period = period;
+    }
+
+    @Override
+    public void add(double close) {
+      // The new close is already in the buffer, the leaving one is 'period' positions behind
+      sum += close;
+      if (++added > period) {
+        sum -= getCloseBack(period);
+      }
+    }
+
+    @Override
+    public void replay(double close, int position) {
+      sum += close;
+      added++;
+      if (position >= period) {
+        sum -= closes[(count - size() + position - period) % closes.length];
+      }
+    }
+
+    @Override
+    public double getValue() {
+      return added > period ? sum / period : Double.NaN;
+    }
+  }
+
+  private static class EmaState extends WindowState {
+    private final int period;
+    private final double multiplier;
+    private double ema;
+    private int added;
+
+    EmaState(int period) {
+      this.period = period;
+      multiplier = 2d / (period + 1d);
+    }
+
+    @Override
+    public void add(double close) {
+      ema = added == 0 ? close : ema + (close - ema) * multiplier;
+      added++;
+    }
+
+    @Override
+    public double getValue() {
+      return added > period ? ema : Double.NaN;
+    }
+  }
+
+  private static class RsiState extends WindowState {
+    private final int period;
+    private final double alpha;
+    private double previousClose = Double.NaN;
+    private double avgGain;
+    private double avgLoss;
+    private int changes;
+
+    RsiState(int period) {
+      this.period = period;
+      alpha = 1.0 / period;
+    }
+
+    @Override
+    public void add(double close) {
+      if (!Double.isNaN(previousClose)) {
+        double change = close - previousClose;
+        double gain = Math.max(0, change);
+        double loss = Math.max(0, -change);
+        changes++;
+        if (changes <= period) {
+          // Sum during the initial period, the simple average is built with the last change of it
+          avgGain += gain;
+          avgLoss += loss;
+          if (changes == period) {
+            avgGain /= period;
+            avgLoss /= period;
+          }
+        } else {
+          avgGain = avgGain * (1 - alpha) + gain * alpha;
+          avgLoss = avgLoss * (1 - alpha) + loss * alpha;
+        }
+      }
+      previousClose = close;
+    }
+
+    @Override
+    public double getValue() {
+      if (changes < period) {
+        return Double.NaN;
+      }
+      return avgLoss == 0 ? 100.0 : 100.0 - (100.0 / (1.0 + avgGain / avgLoss));
+    }
+  }
+}
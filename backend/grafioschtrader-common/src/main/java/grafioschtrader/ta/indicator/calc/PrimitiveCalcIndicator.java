@@ -0,0 +1,66 @@
+package grafioschtrader.ta.indicator.calc;
+
+import java.time.LocalDate;
+
+import grafioschtrader.ta.TaIndicatorData;
+import grafioschtrader.ta.TaIndicatorSeries;
+import grafioschtrader.ta.TaIndicators;
+
+/**
+ * Base of the allocation-free indicator calculators. The input is processed with primitive values only and the result
+ * is written into a {@link TaIndicatorSeries} with parallel {@code int[]}/{@code double[]} arrays. The calculators
+ * produce the same values as their object based counterparts {@link SimpleMovingAverage},
+ * {@link ExponentialMovingAverage} and {@link RelativeStrengthIndex}; the first value is available after
+ * {@code period + 1} data points.
+ */
+public abstract class PrimitiveCalcIndicator implements CalcAccessIndicator {
+
+  protected final int period;
+  protected final TaIndicatorSeries taIndicatorSeries;
+
+  /**
+   * @param period             the number of periods of the indicator
+   * @param numberOfDatapoints the total number of data points that will be processed, used to pre-allocate the result
+   */
+  protected PrimitiveCalcIndicator(int period, int numberOfDatapoints) {
+    this.period = period;
+    taIndicatorSeries = new TaIndicatorSeries(numberOfDatapoints - period);
+  }
+
+  /**
+   * Creates the calculator for an indicator.
+   */
+  public static PrimitiveCalcIndicator create(TaIndicators taIndicator, int period, int numberOfDatapoints) {
+    return switch (taIndicator) {
+    case SMA -> new PrimitiveSimpleMovingAverage(period, numberOfDatapoints);
+    case EMA -> new PrimitiveExponentialMovingAverage(period, numberOfDatapoints);
+    case RSI -> new PrimitiveRelativeStrengthIndex(period, numberOfDatapoints);
+    };
+  }
+
+  /**
+   * Adds the closing price of the next day.
+   *
+   * @param epochDay   the date as epoch day
+   * @param closePrice the closing price of this day
+   */
+  public abstract void addData(int epochDay, double closePrice);
+
+  @Override
+  public void addData(LocalDate date, double closePrice) {
+    addData((int) date.toEpochDay(), closePrice);
+  }
+
+  public int getPeriod() {
+    return period;
+  }
+
+  public TaIndicatorSeries getTaIndicatorSeries() {
+    return taIndicatorSeries;
+  }
+
+  @Override
+  public TaIndicatorData[] getTaIndicatorData() {
+    return taIndicatorSeries.toTaIndicatorData();
+  }
+}
@@ -0,0 +1,24 @@
+package grafioschtrader.ta.indicator.calc;
+
+/**
+ * Exponential Moving Average (EMA), seeded with the first close.
+ */
+public class PrimitiveExponentialMovingAverage extends PrimitiveCalcIndicator {
+
+  private final double multiplier;
+  private double ema;
+  private int count;
+
+  public PrimitiveExponentialMovingAverage(int period, int numberOfDatapoints) {
+    super(period, numberOfDatapoints);
+    multiplier = 2d / (period + 1d);
+  }
+
+  @Override
+  public void addData(int epochDay, double closePrice) {
+    ema = count == 0 ? closePrice : ema + (closePrice - ema) * multiplier;
+    if (count++ >= period) {
+      taIndicatorSeries.add(epochDay, ema);
+    }
+  }
+}
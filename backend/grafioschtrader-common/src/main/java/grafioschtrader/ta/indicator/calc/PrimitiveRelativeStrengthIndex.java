@@ -0,0 +1,48 @@
+package grafioschtrader.ta.indicator.calc;
+
+/**
+ * Relative Strength Index (RSI) with Wilder's smoothing, see {@link RelativeStrengthIndex} for the method.
+ */
+public class PrimitiveRelativeStrengthIndex extends PrimitiveCalcIndicator {
+
+  private final double alpha;
+  private double previousClose;
+  private double avgGain;
+  private double avgLoss;
+  /** Number of price changes processed. */
+  private int changes = -1;
+
+  public PrimitiveRelativeStrengthIndex(int period, int numberOfDatapoints) {
+    super(period, numberOfDatapoints);
+    alpha = 1.0 / period;
+  }
+
+  @Override
+  public void addData(int epochDay, double closePrice) {
+    if (changes >= 0) {
+      double change = closePrice - previousClose;
+      double gain = Math.max(0, change);
+      double loss = Math.max(0, -change);
+      if (++changes < period) {
+        avgGain += gain;
+        avgLoss += loss;
+      } else if (changes == period) {
+        // First value with the simple average of the initial period
+        avgGain = (avgGain + gain) / period;
+        avgLoss = (avgLoss + loss) / period;
+        taIndicatorSeries.add(epochDay, calculateRsi());
+      } else {
+        avgGain = avgGain * (1 - alpha) + gain * alpha;
+        avgLoss = avgLoss * (1 - alpha) + loss * alpha;
+        taIndicatorSeries.add(epochDay, calculateRsi());
+      }
+    } else {
+      changes = 0;
+    }
+    previousClose = closePrice;
+  }
+
+  private double calculateRsi() {
+    return avgLoss == 0 ? 100.0 : 100.0 - (100.0 / (1.0 + avgGain / avgLoss));
+  }
+}
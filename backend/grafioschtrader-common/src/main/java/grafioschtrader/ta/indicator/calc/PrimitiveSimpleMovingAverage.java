@@ -0,0 +1,30 @@
+package grafioschtrader.ta.indicator.calc;
+
+/**
+ * Simple Moving Average (SMA) on a {@code double[]} ring buffer of the last {@code period} closes.
+ */
+public class PrimitiveSimpleMovingAverage extends PrimitiveCalcIndicator {
+
+  private final double[] window;
+  private double sum;
+  private int count;
+
+  public PrimitiveSimpleMovingAverage(int period, int numberOfDatapoints) {
+    super(period, numberOfDatapoints);
+    window = new double[period];
+  }
+
+  @Override
+  public void addData(int epochDay, double closePrice) {
+    int slot = count % period;
+    if (count >= period) {
+      // The slot holds the close of 'period' days ago, it leaves the window
+      sum -= window[slot];
+    }
+    window[slot] = closePrice;
+    sum += closePrice;
+    if (++count > period) {
+      taIndicatorSeries.add(epochDay, sum / period);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package grafioschtrader.ta.indicator.calc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import grafioschtrader.ta.TaIndicatorSeries;
+import grafioschtrader.ta.TaIndicators;
+
+/**
+ * Computes several indicators and periods in a single pass over a close series. Each registered indicator gets its own
+ * {@link PrimitiveCalcIndicator}; every close is read once and handed to all of them.
+ *
+ * <pre>
+ * TaIndicatorEngine engine = new TaIndicatorEngine(closes.length);
+ * TaIndicatorSeries sma20 = engine.add(TaIndicators.SMA, 20);
+ * TaIndicatorSeries rsi14 = engine.add(TaIndicators.RSI, 14);
+ * engine.run(epochDays, closes);
+ * </pre>
+ */
+public class TaIndicatorEngine {
+
+  private final int numberOfDatapoints;
+  private final List<PrimitiveCalcIndicator> calcIndicators = new ArrayList<>();
+
+  /**
+   * @param numberOfDatapoints the length of the close series
+   */
+  public TaIndicatorEngine(int numberOfDatapoints) {
+    this.numberOfDatapoints = numberOfDatapoints;
+  }
+
+  /**
+   * Registers an indicator. A period which is not smaller than the number of data points produces no value and
+   * results in an empty series.
+   *
+   * @return the series which is filled by {@link #run(int[], double[])}
+   */
+  public TaIndicatorSeries add(TaIndicators taIndicator, int period) {
+    if (period <= 0 || period >= numberOfDatapoints) {
+      return new TaIndicatorSeries(0);
+    }
+    PrimitiveCalcIndicator calcIndicator = PrimitiveCalcIndicator.create(taIndicator, period, numberOfDatapoints);
+    calcIndicators.add(calcIndicator);
+    return calcIndicator.getTaIndicatorSeries();
+  }
+
+  /**
+   * Feeds the close series to all registered indicators.
+   *
+   * @param epochDays the dates as epoch day in ascending order
+   * @param closes    the closing prices, parallel to {@code epochDays}
+   */
+  public void run(int[] epochDays, double[] closes) {
+    PrimitiveCalcIndicator[] calcs = calcIndicators.toArray(PrimitiveCalcIndicator[]::new);
+    for (int i = 0; i < numberOfDatapoints; i++) {
+      for (PrimitiveCalcIndicator calc : calcs) {
+        calc.addData(epochDays[i], closes[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package grafioschtrader.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.dto.HistoryquoteDateClose;
+import grafioschtrader.dto.HistoryquoteDateOHLC;
+
+/**
+ * Tests the reduction of long chart series by {@link ChartDownsampler} with LTTB for close prices and with buckets for
+ * OHLC data.
+ */
+class ChartDownsamplerTest {
+
+  private static final LocalDate START = LocalDate.of(2000, 1, 3);
+
+  @Test
+  @DisplayName("LTTB keeps the first and last day and the extremes of the close series")
+  void downsampleCloseTest() {
+    List<HistoryquoteDateClose> dateCloseList = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      double close = 100 + Math.sin(i / 50.0) * 10;
+      dateCloseList.add(new HistoryquoteDateClose(START.plusDays(i), i == 600 ? 300.0 : close));
+    }
+
+    List<HistoryquoteDateClose> sampled = ChartDownsampler.downsampleClose(dateCloseList, 100);
+
+    assertThat(sampled).hasSize(100);
+    assertThat(sampled.getFirst()).isSameAs(dateCloseList.getFirst());
+    assertThat(sampled.getLast()).isSameAs(dateCloseList.getLast());
+    assertThat(sampled).extracting(dc -> dc.close).contains(300.0);
+    assertThat(sampled).extracting(dc -> dc.date).isSorted();
+  }
+
+  @Test
+  @DisplayName("A series with not more points than requested is returned unchanged")
+  void notDownsampledTest() {
+    List<HistoryquoteDateClose> dateCloseList = List.of(new HistoryquoteDateClose(START, 1.0),
+        new HistoryquoteDateClose(START.plusDays(1), 2.0));
+    assertThat(ChartDownsampler.downsampleClose(dateCloseList, 100)).isSameAs(dateCloseList);
+    assertThat(ChartDownsampler.downsampleClose(dateCloseList, 0)).isSameAs(dateCloseList);
+  }
+
+  @Test
+  @DisplayName("OHLC buckets keep open of the first day, close of the last day, the highest high and lowest low")
+  void downsampleOhlcTest() {
+    List<HistoryquoteDateOHLC> ohlcList = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ohlcList.add(new HistoryquoteDateOHLC(START.plusDays(i), 10.0 + i, 12.0 + i, 8.0 + i, 11.0 + i,
+          i == 3 ? null : 100L));
+    }
+
+    List<HistoryquoteDateOHLC> aggregated = ChartDownsampler.downsampleOhlc(ohlcList, 2);
+
+    assertThat(aggregated).hasSize(2);
+    HistoryquoteDateOHLC first = aggregated.getFirst();
+    assertThat(first.date).isEqualTo(START);
+    assertThat(first.open).isEqualTo(10.0);
+    assertThat(first.close).isEqualTo(15.0);
+    assertThat(first.high).isEqualTo(16.0);
+    assertThat(first.low).isEqualTo(8.0);
+    assertThat(first.volume).isEqualTo(400L);
+    assertThat(aggregated.getLast().date).isEqualTo(START.plusDays(5));
+    assertThat(aggregated.getLast().close).isEqualTo(20.0);
+  }
+}
@@ -0,0 +1,151 @@
+package grafioschtrader.gtnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.gtnet.m2m.model.HistoryquoteRecordDTO;
+import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
+import grafioschtrader.gtnet.model.msg.HistoryquoteExchangeMsg;
+
+/**
+ * Round trip of GTNet historyquote messages through {@link HistoryquoteColumnarCodec}. Decoding must restore the
+ * records of the message exactly and reject records of a peer which do not follow the layout or exceed the limits.
+ */
+class HistoryquoteColumnarCodecTest {
+
+  private static final LocalDate START = LocalDate.of(2000, 1, 3);
+
+  @Test
+  @DisplayName("Records of securities and currency pairs are restored exactly, including gaps and missing values")
+  void roundTripTest() {
+    InstrumentHistoryquoteDTO security = InstrumentHistoryquoteDTO.forSecurityRequest("CH0038863350", "CHF", null,
+        null);
+    double close = 100.0;
+    for (int i = 0; i < 1000; i++) {
+      close = Math.round((close + Math.sin(i) * 2) * 100) / 100.0;
+      security.getRecords().add(new HistoryquoteRecordDTO(START.plusDays(i + i / 5 * 2), i % 7 == 0 ? null : close,
+          close + 1.25, close - 0.75, close, i % 3 == 0 ? null : 1000L + i * 17));
+    }
+    InstrumentHistoryquoteDTO currencypair = InstrumentHistoryquoteDTO.forCurrencypairRequest("EUR", "USD", null,
+        null);
+    for (int i = 0; i < 10; i++) {
+      currencypair.getRecords().add(new HistoryquoteRecordDTO(START.plusDays(i), null, null, null, 1.0 / 3 + i,
+          null));
+    }
+    InstrumentHistoryquoteDTO wanted = InstrumentHistoryquoteDTO.forSecurityWantToReceive("US0378331005", "USD",
+        START);
+    HistoryquoteExchangeMsg msg = HistoryquoteExchangeMsg.forRequest(new ArrayList<>(List.of(security, wanted)),
+        new ArrayList<>(List.of(currencypair)));
+    List<HistoryquoteRecordDTO> securityRecords = List.copyOf(security.getRecords());
+    List<HistoryquoteRecordDTO> currencypairRecords = List.copyOf(currencypair.getRecords());
+
+    HistoryquoteColumnarCodec.encode(msg);
+
+    assertThat(msg.recordEncoding).isEqualTo(HistoryquoteColumnarCodec.ENCODING);
+    assertThat(msg.getTotalRecordCount()).isZero();
+    assertThat(msg.encodedRecords.length).isLessThan(securityRecords.size() * 8);
+
+    HistoryquoteColumnarCodec.decode(msg);
+
+    assertThat(msg.recordEncoding).isNull();
+    assertThat(msg.encodedRecords).isNull();
+    assertThat(security.getRecords()).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(securityRecords);
+    assertThat(currencypair.getRecords()).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(currencypairRecords);
+    assertThat(wanted.getRecords()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("The smallest decimal scale is used, prices without one fall back to the XOR of the bits")
+  void findScaleTest() {
+    assertThat(HistoryquoteColumnarCodec.findScale(List.of(12.0, 13.0))).isZero();
+    assertThat(HistoryquoteColumnarCodec.findScale(Arrays.asList(1.23, null, 0.5))).isEqualTo(2);
+    assertThat(HistoryquoteColumnarCodec.findScale(List.of(1.0 / 3))).isEqualTo(-1);
+    assertThat(HistoryquoteColumnarCodec.findScale(List.of(-0.0))).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("A message without encoding is left unchanged, an unknown encoding is rejected")
+  void decodeOtherEncodingTest() {
+    HistoryquoteExchangeMsg msg = new HistoryquoteExchangeMsg();
+    HistoryquoteColumnarCodec.decode(msg);
+    assertThat(msg.isEmpty()).isTrue();
+
+    msg.recordEncoding = "HQ_COLUMNAR_V99";
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(msg)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("A record count which is negative, above the maximum or larger than the remaining bytes is rejected")
+  void decodeInvalidRecordCountTest() {
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(varLong(-1L))))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("-1");
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(varLong(Integer.MAX_VALUE + 1L))))
+        .isInstanceOf(IllegalArgumentException.class);
+    byte[] aboveMaximum = new byte[HistoryquoteColumnarCodec.MAX_RECORDS + 10];
+    byte[] count = varLong(HistoryquoteColumnarCodec.MAX_RECORDS + 1L);
+    System.arraycopy(count, 0, aboveMaximum, 0, count.length);
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(aboveMaximum)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(new byte[] { 10, 0, 2 })))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Truncated records, an invalid scale or an oversized decompression are rejected")
+  void decodeMalformedRecordsTest() {
+    // One record with its date, the open column ends after the presence marker
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(new byte[] { 1, 0, 1 })))
+        .isInstanceOf(UncheckedIOException.class);
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(new byte[] { 1, 0, 1, 42 })))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("scale");
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(createMsg(new byte[] { 1, 0, 7 })))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("marker");
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(
+        createMsg(new byte[HistoryquoteColumnarCodec.MAX_DECODED_BYTES + 1])))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("decompression");
+
+    HistoryquoteExchangeMsg notCompressed = createMsg(new byte[] { 0 });
+    notCompressed.encodedRecords = new byte[] { 0 };
+    assertThatThrownBy(() -> HistoryquoteColumnarCodec.decode(notCompressed))
+        .isInstanceOf(UncheckedIOException.class);
+  }
+
+  private static HistoryquoteExchangeMsg createMsg(byte[] records) {
+    HistoryquoteExchangeMsg msg = HistoryquoteExchangeMsg.forRequest(
+        new ArrayList<>(List.of(InstrumentHistoryquoteDTO.forSecurityRequest("CH0038863350", "CHF", null, null))),
+        new ArrayList<>());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(records);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    msg.recordEncoding = HistoryquoteColumnarCodec.ENCODING;
+    msg.encodedRecords = bytes.toByteArray();
+    return msg;
+  }
+
+  private static byte[] varLong(long value) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,142 @@
+package grafioschtrader.platformimport.pdf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.entities.ImportTransactionTemplate;
+import grafioschtrader.platformimport.ImportProperties;
+import grafioschtrader.types.TemplateCategory;
+import grafioschtrader.types.TemplateFormatType;
+
+/**
+ * Tests the anchor word pre-filter which {@link ParseFormInputPDFasTXT} applies before a PDF document is matched
+ * against the import templates of a trading platform.
+ */
+class ParseFormInputPDFasTXTTest {
+
+  private static final String BUY_TEMPLATE = """
+      Stock exchange transaction: {transType|P|N} Reference: GT-00000000
+      Date {date|P} Time {time|P}
+      Sample Security Inc ISIN: {isin|P}
+      Quantity {units|SL|N}
+      Price {quotation|SL|N}
+      Commission {tc1|SL|N|O}
+      Settlement currency {cac|SL|N}
+      Debited CHF {ta|SL|N}
+      [END]
+      transType=ACCUMULATE|Buy
+      dateFormat=dd.MM.yyyy
+      timeFormat=HH:mm:ss
+      templatePurpose=Buy receipt
+      """;
+
+  private static final String DIVIDEND_TEMPLATE = """
+      Dividend payment: {transType|P|N} Reference: GT-00000000
+      Payment date {date|P}
+      Sample Security Inc ISIN: {isin|P}
+      Quantity {units|SL|N}
+      Settlement currency {cac|SL|N}
+      Credited CHF {ta|SL|N}
+      [END]
+      transType=DIVIDEND|Dividend
+      dateFormat=dd.MM.yyyy
+      templatePurpose=Dividend receipt
+      """;
+
+  private static final String BUY_DOCUMENT = """
+      Stock exchange transaction: Buy Reference: GT-00000001
+
+      Date 03.01.2000 Time 10:15:00
+      Sample Security Inc ISIN: CH0012345678
+      Quantity 10
+      Price 100.50
+      Settlement currency CHF
+      Debited CHF 1005.00
+      """;
+
+  @Test
+  @DisplayName("Anchor words are the literal neighbours of required properties, without optional properties")
+  void anchorWordsTest() {
+    TemplateConfigurationPDFasTXT buyConfig = readTemplates(createTemplate(1, 1, BUY_TEMPLATE)).keySet().iterator()
+        .next();
+
+    assertThat(buyConfig.getAnchorWords()).containsExactlyInAnyOrder("transaction:", "reference:", "date", "time",
+        "isin:");
+    assertThat(buyConfig.containsAnchorWords(BUY_DOCUMENT.toLowerCase(Locale.ROOT))).isTrue();
+    assertThat(buyConfig.containsAnchorWords("dividend payment: dividend reference: gt-1")).isFalse();
+  }
+
+  @Test
+  @DisplayName("Only the template whose anchor words occur in the document is matched")
+  void matchCandidateTemplateTest() throws Exception {
+    ImportTransactionTemplate buyTemplate = createTemplate(1, 1, BUY_TEMPLATE);
+    Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = readTemplates(buyTemplate,
+        createTemplate(2, 1, DIVIDEND_TEMPLATE));
+
+    ParseFormInputPDFasTXT parseFormInputPDFasTXT = new ParseFormInputPDFasTXT(BUY_DOCUMENT, templateScannedMap);
+    List<ImportProperties> importPropertiesList = parseFormInputPDFasTXT.parseInput();
+
+    assertThat(importPropertiesList).isNotNull();
+    assertThat(parseFormInputPDFasTXT.getSuccessTemplate(importPropertiesList)).isSameAs(buyTemplate);
+  }
+
+  @Test
+  @DisplayName("Without any matching template the diagnostic covers every template")
+  void noMatchingTemplateTest() throws Exception {
+    Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = readTemplates(
+        createTemplate(1, 1, BUY_TEMPLATE), createTemplate(2, 1, DIVIDEND_TEMPLATE));
+
+    ParseFormInputPDFasTXT parseFormInputPDFasTXT = new ParseFormInputPDFasTXT("Account statement\nBalance 100",
+        templateScannedMap);
+
+    assertThat(parseFormInputPDFasTXT.parseInput()).isNull();
+    assertThat(parseFormInputPDFasTXT.getLastMatchingProperties()).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Compiled templates are reused until a template version changes and map to the passed entities")
+  void readTemplatesCachedTest() {
+    List<ImportTransactionTemplate> templates = List.of(createTemplate(1, 1, BUY_TEMPLATE),
+        createTemplate(2, 1, DIVIDEND_TEMPLATE));
+    var first = ImportTransactionHelperPdf.readTemplatesCached(templates, Locale.ENGLISH);
+    List<ImportTransactionTemplate> reloaded = List.of(createTemplate(1, 1, BUY_TEMPLATE),
+        createTemplate(2, 1, DIVIDEND_TEMPLATE));
+    var second = ImportTransactionHelperPdf.readTemplatesCached(reloaded, Locale.ENGLISH);
+
+    assertThat(second.keySet()).isEqualTo(first.keySet());
+    // The entities are compared by identity, they are equal by their ID
+    assertThat(second.values()).allMatch(itt -> reloaded.stream().anyMatch(r -> r == itt));
+    assertThat(second.keySet()).allMatch(tc -> Stream.concat(templates.stream(), reloaded.stream())
+        .noneMatch(itt -> itt == tc.getImportTransactionTemplate()));
+
+    reloaded.getLast().setVersion(2);
+    var changed = ImportTransactionHelperPdf.readTemplatesCached(reloaded, Locale.ENGLISH);
+    assertThat(changed).hasSize(2);
+    assertThat(changed.keySet()).isNotEqualTo(first.keySet());
+  }
+
+  private static Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> readTemplates(
+      ImportTransactionTemplate... templates) {
+    return ImportTransactionHelperPdf.readTemplates(List.of(templates), Locale.ENGLISH);
+  }
+
+  private static ImportTransactionTemplate createTemplate(int idTemplate, int version, String templateAsTxt) {
+    ImportTransactionTemplate template = new ImportTransactionTemplate(TemplateCategory.BUY_SELL_INSTRUMENT,
+        TemplateFormatType.PDF, "en");
+    template.setIdTransactionImportTemplate(idTemplate);
+    template.setIdTransactionImportPlatform(Integer.MAX_VALUE);
+    template.setVersion(version);
+    template.setValidSince(LocalDate.of(2000, 1, 1));
+    template.setTemplatePurpose("Template " + idTemplate);
+    template.setTemplateAsTxt(templateAsTxt);
+    return template;
+  }
+}
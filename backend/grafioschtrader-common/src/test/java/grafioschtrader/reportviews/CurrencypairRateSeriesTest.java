@@ -0,0 +1,77 @@
+package grafioschtrader.reportviews;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.dto.IDateAndClose;
+
+/**
+ * Tests the lookup of a closing rate by day in {@link CurrencypairRateSeries}, including the carry forward over days
+ * without a quote.
+ */
+class CurrencypairRateSeriesTest {
+
+  // Thursday before Good Friday 2024 until Tuesday after Easter Monday
+  private final List<IDateAndClose> quotes = List.of(quote(2024, 3, 27, 0.90), quote(2024, 3, 28, 0.91),
+      quote(2024, 4, 2, 0.92), quote(2024, 4, 3, 0.93));
+
+  @Test
+  @DisplayName("Days without a quote take the rate of the previous quote")
+  void forwardFillTest() {
+    CurrencypairRateSeries rateSeries = CurrencypairRateSeries.of(quotes);
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 3, 27))).isEqualTo(0.90);
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 3, 29))).isEqualTo(0.91);
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 4, 1))).isEqualTo(0.91);
+    assertThat(rateSeries.getExactRate(LocalDate.of(2024, 4, 1))).isNaN();
+  }
+
+  @Test
+  @DisplayName("No rate before the first and after the last quote")
+  void outsideOfQuotesTest() {
+    CurrencypairRateSeries rateSeries = CurrencypairRateSeries.of(quotes);
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 3, 26))).isNaN();
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 4, 4))).isNaN();
+    assertThat(rateSeries.getLastDate()).isEqualTo(LocalDate.of(2024, 4, 3));
+    assertThat(CurrencypairRateSeries.of(List.of()).getRate(LocalDate.of(2024, 4, 3))).isNaN();
+  }
+
+  @Test
+  @DisplayName("A rate is not carried forward over a gap longer than the limit")
+  void forwardFillLimitTest() {
+    CurrencypairRateSeries rateSeries = CurrencypairRateSeries
+        .of(List.of(quote(2024, 1, 1, 1.0), quote(2024, 1, 10, 1.1)));
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 1, 5))).isEqualTo(1.0);
+    assertThat(rateSeries.getRate(LocalDate.of(2024, 1, 6))).isNaN();
+  }
+
+  @Test
+  @DisplayName("Appending younger quotes gives the same series as loading all quotes")
+  void appendTest() {
+    CurrencypairRateSeries appended = CurrencypairRateSeries.of(quotes.subList(0, 2)).append(quotes.subList(2, 4));
+    CurrencypairRateSeries all = CurrencypairRateSeries.of(quotes);
+    assertThat(appended.getQuoteCount()).isEqualTo(all.getQuoteCount());
+    assertThat(appended.getLastDate()).isEqualTo(all.getLastDate());
+    for (LocalDate date = LocalDate.of(2024, 3, 25); date.isBefore(LocalDate.of(2024, 4, 6)); date = date.plusDays(1)) {
+      assertThat(appended.getRate(date)).isEqualTo(all.getRate(date));
+    }
+  }
+
+  private static IDateAndClose quote(int year, int month, int day, double close) {
+    return new IDateAndClose() {
+      @Override
+      public LocalDate getDate() {
+        return LocalDate.of(year, month, day);
+      }
+
+      @Override
+      public Double getClose() {
+        return close;
+      }
+    };
+  }
+}
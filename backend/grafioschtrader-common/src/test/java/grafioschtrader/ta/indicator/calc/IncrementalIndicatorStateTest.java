@@ -0,0 +1,147 @@
+package grafioschtrader.ta.indicator.calc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.ta.TaIndicatorData;
+
+/**
+ * Compares the values of {@link IncrementalIndicatorState} with the batch calculators, regardless of whether an
+ * indicator period was registered before or after the closes arrived.
+ */
+class IncrementalIndicatorStateTest {
+
+  private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+  private static double[] createCloses(int n) {
+    double[] closes = new double[n];
+    for (int i = 0; i < n; i++) {
+      closes[i] = 100 + 10 * Math.sin(i / 7.0) + (i % 5) * 0.3;
+    }
+    return closes;
+  }
+
+  private static double lastValue(CalcAccessIndicator calc, double[] closes, int n) {
+    for (int i = 0; i < n; i++) {
+      calc.addData(START.plusDays(i), closes[i]);
+    }
+    TaIndicatorData[] data = calc.getTaIndicatorData();
+    return data[data.length - 1].value;
+  }
+
+  @Test
+  @DisplayName("Values match the batch calculators when registered late and updated afterwards")
+  void matchesBatchCalculatorsTest() {
+    double[] closes = createCloses(300);
+    IncrementalIndicatorState state = new IncrementalIndicatorState(500);
+    for (int i = 0; i < 200; i++) {
+      state.append(START.plusDays(i), closes[i]);
+    }
+    assertThat(state.getSma(20)).isCloseTo(lastValue(new SimpleMovingAverage(20, 200), closes, 200), within(1e-9));
+    assertThat(state.getEma(12, START)).isCloseTo(lastValue(new ExponentialMovingAverage(12, 200), closes, 200),
+        within(1e-9));
+    assertThat(state.getRsi(14, START)).isCloseTo(lastValue(new RelativeStrengthIndex(14, 200), closes, 200),
+        within(1e-9));
+
+    for (int i = 200; i < 300; i++) {
+      state.append(START.plusDays(i), closes[i]);
+      // Read between the appends, so the states with a start date are kept and updated
+      state.getEma(12, START);
+      state.getRsi(14, START);
+    }
+    assertThat(state.getSma(20)).isCloseTo(lastValue(new SimpleMovingAverage(20, 300), closes, 300), within(1e-9));
+    assertThat(state.getEma(12, START)).isCloseTo(lastValue(new ExponentialMovingAverage(12, 300), closes, 300),
+        within(1e-9));
+    assertThat(state.getRsi(14, START)).isCloseTo(lastValue(new RelativeStrengthIndex(14, 300), closes, 300),
+        within(1e-9));
+    assertThat(state.getLastDate()).isEqualTo(START.plusDays(299));
+  }
+
+  @Test
+  @DisplayName("The ring buffer drops the oldest closes, the SMA stays exact")
+  void ringBufferTest() {
+    double[] closes = createCloses(120);
+    IncrementalIndicatorState state = new IncrementalIndicatorState(50);
+    state.getSma(10);
+    for (int i = 0; i < 120; i++) {
+      state.append(START.plusDays(i), closes[i]);
+    }
+    assertThat(state.size()).isEqualTo(50);
+    assertThat(state.getFirstDate()).isEqualTo(START.plusDays(70));
+    double expected = lastValue(new SimpleMovingAverage(10, 120), closes, 120);
+    assertThat(state.getSma(10)).isCloseTo(expected, within(1e-9));
+    // Registered after the buffer has wrapped around
+    assertThat(state.getSma(30)).isCloseTo(lastValue(new SimpleMovingAverage(30, 120), closes, 120), within(1e-9));
+  }
+
+  @Test
+  @DisplayName("Values with a start date match the batch calculators fed from this date")
+  void windowFromDateTest() {
+    double[] closes = createCloses(400);
+    IncrementalIndicatorState state = new IncrementalIndicatorState(500);
+    for (int i = 0; i < 400; i++) {
+      state.append(START.plusDays(i), closes[i]);
+    }
+    LocalDate fromDate = START.plusDays(300);
+    double[] window = Arrays.copyOfRange(closes, 300, 400);
+    assertThat(state.countFrom(fromDate)).isEqualTo(100);
+    assertThat(state.getEma(12, fromDate)).isCloseTo(lastValue(new ExponentialMovingAverage(12, 100), window, 100),
+        within(1e-9));
+    assertThat(state.getRsi(14, fromDate)).isCloseTo(lastValue(new RelativeStrengthIndex(14, 100), window, 100),
+        within(1e-9));
+    assertThat(state.getSma(20, fromDate)).isCloseTo(lastValue(new SimpleMovingAverage(20, 100), window, 100),
+        within(1e-9));
+    // The EMA over the whole history differs from the one over the window
+    assertThat(state.getEma(50, fromDate)).isNotCloseTo(state.getEma(50, START), within(1e-6));
+    assertThat(state.getSma(100, fromDate)).isNaN();
+  }
+
+  @Test
+  @DisplayName("Insufficient closes result in NaN")
+  void insufficientDataTest() {
+    IncrementalIndicatorState state = new IncrementalIndicatorState(100);
+    for (int i = 0; i < 14; i++) {
+      state.append(START.plusDays(i), 100 + i);
+    }
+    assertThat(state.getSma(14)).isNaN();
+    assertThat(state.getEma(14, START)).isNaN();
+    assertThat(state.getRsi(14, START)).isNaN();
+    state.append(START.plusDays(14), 120);
+    assertThat(state.getSma(14)).isNotNaN();
+    assertThat(state.getRsi(14, START)).isEqualTo(100.0);
+    assertThat(state.getSma(100)).isNaN();
+  }
+
+  @Test
+  @DisplayName("A state with a start date kept over appends has the value of a new calculation")
+  void keptWindowTest() {
+    double[] closes = createCloses(150);
+    IncrementalIndicatorState state = new IncrementalIndicatorState(100);
+    LocalDate fromDate = START.plusDays(60);
+    for (int i = 0; i < 150; i++) {
+      state.append(START.plusDays(i), closes[i]);
+      state.getEma(10, fromDate);
+      state.getRsi(14, fromDate);
+    }
+    double[] window = Arrays.copyOfRange(closes, 60, 150);
+    double ema = lastValue(new ExponentialMovingAverage(10, 90), window, 90);
+    double rsi = lastValue(new RelativeStrengthIndex(14, 90), window, 90);
+    assertThat(state.getEma(10, fromDate)).isCloseTo(ema, within(1e-9));
+    assertThat(state.getRsi(14, fromDate)).isCloseTo(rsi, within(1e-9));
+
+    // Not read since the previous append, the state is dropped and calculated again
+    state.append(START.plusDays(150), 110);
+    state.append(START.plusDays(151), 111);
+    double[] longerWindow = Arrays.copyOf(window, 92);
+    longerWindow[90] = 110;
+    longerWindow[91] = 111;
+    assertThat(state.getEma(10, fromDate)).isCloseTo(lastValue(new ExponentialMovingAverage(10, 92), longerWindow, 92),
+        within(1e-9));
+  }
+}
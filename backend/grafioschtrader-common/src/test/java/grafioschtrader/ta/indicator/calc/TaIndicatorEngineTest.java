@@ -0,0 +1,57 @@
+package grafioschtrader.ta.indicator.calc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.ta.TaIndicatorData;
+import grafioschtrader.ta.TaIndicatorSeries;
+import grafioschtrader.ta.TaIndicators;
+
+/**
+ * The primitive calculators of {@link TaIndicatorEngine} must produce the same dates and values as the object based
+ * calculators.
+ */
+class TaIndicatorEngineTest {
+
+  private static final int DAYS = 400;
+
+  @Test
+  @DisplayName("A single pass produces the same series as the object based calculators")
+  void sameAsObjectCalculatorsTest() {
+    int[] epochDays = new int[DAYS];
+    double[] closes = new double[DAYS];
+    for (int i = 0; i < DAYS; i++) {
+      epochDays[i] = (int) LocalDate.of(2020, 1, 1).plusDays(i).toEpochDay();
+      closes[i] = 50 + 5 * Math.cos(i / 11.0) + (i % 3) * 0.2;
+    }
+    TaIndicatorEngine engine = new TaIndicatorEngine(DAYS);
+    TaIndicatorSeries sma = engine.add(TaIndicators.SMA, 50);
+    TaIndicatorSeries ema = engine.add(TaIndicators.EMA, 20);
+    TaIndicatorSeries rsi = engine.add(TaIndicators.RSI, 14);
+    TaIndicatorSeries tooLong = engine.add(TaIndicators.SMA, DAYS);
+    engine.run(epochDays, closes);
+
+    assertSameSeries(sma, new SimpleMovingAverage(50, DAYS), epochDays, closes);
+    assertSameSeries(ema, new ExponentialMovingAverage(20, DAYS), epochDays, closes);
+    assertSameSeries(rsi, new RelativeStrengthIndex(14, DAYS), epochDays, closes);
+    assertThat(tooLong.size()).isZero();
+  }
+
+  private void assertSameSeries(TaIndicatorSeries series, CalcAccessIndicator expectedCalc, int[] epochDays,
+      double[] closes) {
+    for (int i = 0; i < DAYS; i++) {
+      expectedCalc.addData(LocalDate.ofEpochDay(epochDays[i]), closes[i]);
+    }
+    TaIndicatorData[] expected = expectedCalc.getTaIndicatorData();
+    assertThat(series.size()).isEqualTo(expected.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(series.getEpochDay(i)).isEqualTo((int) expected[i].date.toEpochDay());
+      assertThat(series.getValue(i)).isCloseTo(expected[i].value, within(1e-9));
+    }
+  }
+}
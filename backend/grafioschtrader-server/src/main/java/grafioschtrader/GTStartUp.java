@@ -18,6 +18,7 @@ import grafioschtrader.config.TenantConfig;
 import grafioschtrader.exportdelete.MyDataExportDeleteDefinition;
 import grafioschtrader.gtnet.GTNetExchangeKindType;
 import grafioschtrader.gtnet.GTNetMessageCodeType;
+import grafioschtrader.gtnet.HistoryquoteColumnarCodec;
 import grafioschtrader.gtnet.model.msg.SecurityLookupMsg;
 import grafioschtrader.types.MailSendForwardDefault;
 import grafioschtrader.types.MessageGTComType;
@@ -118,6 +119,9 @@ public class GTStartUp {
 
     // Register GT-specific exchange kind types
     registerExchangeKindTypes();
+
+    // Announce the compact encoding of historical prices to the GTNet peers
+    GTNetModelHelper.registerPayloadEncoding(HistoryquoteColumnarCodec.ENCODING);
   }
 
   /**
@@ -22,7 +22,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,8 +48,6 @@ import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.entities.Securitysplit;
 import grafioschtrader.types.AssetclassType;
 import grafioschtrader.types.SpecialInvestmentInstruments;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
 
 /**
  * Abstract base class providing common functionality for feed connectors that retrieve financial market data from
@@ -67,7 +64,7 @@ import io.github.bucket4j.ConsumptionProbe;
  * <li><strong>URL Validation Framework:</strong> Regex-based validation with connectivity testing</li>
  * <li><strong>HTTP Client Infrastructure:</strong> Configured HTTP clients with proper headers and cookie handling</li>
  * <li><strong>Internationalization:</strong> Multi-language description support from resource files</li>
- * <li><strong>Rate Limiting:</strong> Token bucket implementation for API rate limiting</li>
+ * <li><strong>Rate Limiting:</strong> Request limit shared through the {@link FeedConnectorScheduler}</li>
  * <li><strong>Error Handling:</strong> Standardized error handling and logging</li>
  * </ul>
  * 
@@ -106,6 +103,9 @@ public abstract class BaseFeedConnector implements IFeedConnector {
   @Autowired
   protected ResourceLoader resourceLoader;
 
+  @Autowired(required = false)
+  private FeedConnectorScheduler feedConnectorScheduler;
+
   protected Map<FeedSupport, FeedIdentifier[]> supportedFeed;
   private String shortId;
   protected String readableName;
@@ -643,26 +643,32 @@ public abstract class BaseFeedConnector implements IFeedConnector {
   }
 
   /**
-   * Implements rate limiting using a token bucket algorithm. Blocks until a token is available, respecting the bucket's
-   * rate limits. Used by data providers that have strict rate limiting requirements.
-   * 
-   * @param bucket the token bucket to use for rate limiting
+   * Blocks until the request limit declared in {@link #getRateLimit()} permits the next request to the data provider.
+   * The limit is shared by all callers of this connector. Without a scheduler, as for a connector created for a test,
+   * the request is not throttled.
    */
-  protected void waitForTokenOrGo(Bucket bucket) {
-    do {
-      ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-      if (probe.isConsumed()) {
-        return;
-      } else {
-        long waitForRefill = TimeUnit.MILLISECONDS.convert(probe.getNanosToWaitForRefill(), TimeUnit.NANOSECONDS);
-        try {
-          Thread.sleep(waitForRefill);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          log.warn("Interrupted while waiting for rate-limit token", e);
-        }
-      }
-    } while (true);
+  protected void waitForTokenOrGo() {
+    if (feedConnectorScheduler != null) {
+      feedConnectorScheduler.acquireToken(this);
+    }
+  }
+
+  /**
+   * Like {@link #waitForTokenOrGo()} for a request which the data provider charges as several requests.
+   *
+   * @param tokens the number of requests the data provider counts
+   */
+  protected void waitForTokensOrGo(int tokens) {
+    if (feedConnectorScheduler != null) {
+      feedConnectorScheduler.acquireTokens(this, tokens);
+    }
+  }
+
+  /**
+   * Sets the scheduler of connectors which are not Spring beans.
+   */
+  public void setFeedConnectorScheduler(FeedConnectorScheduler feedConnectorScheduler) {
+    this.feedConnectorScheduler = feedConnectorScheduler;
   }
 
   /**
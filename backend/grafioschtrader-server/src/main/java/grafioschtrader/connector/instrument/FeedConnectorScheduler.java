@@ -0,0 +1,245 @@
+package grafioschtrader.connector.instrument;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import grafiosch.exceptions.TaskInterruptException;
+import grafioschtrader.GlobalConstants;
+import grafioschtrader.connector.instrument.IFeedConnector.FeedSupport;
+import grafioschtrader.connector.instrument.IFeedConnector.RateLimit;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Central throttling of the requests to the data providers, keyed by the id of the {@link IFeedConnector}.
+ * <p>
+ * Each connector id has its own lane with the limits the connector declares in {@link IFeedConnector#getRateLimit()}:
+ * a token bucket for the number of requests per period, which is shared by every caller of the connector, and a fair
+ * semaphore for the number of instruments processed at the same time in a batch update. A batch update of many
+ * instruments is queued per provider, so a slow or strictly limited provider only delays its own instruments while
+ * the other providers are served in parallel. Every instrument runs on its own virtual thread, waiting for a permit or
+ * token therefore does not block a platform thread. The total number of instruments in work is additionally bounded,
+ * since every one of them also writes to the database.
+ * </p>
+ * <p>
+ * The queue depth and the time waited for a request token are published per connector as the meters
+ * {@code gt.connector.queue.depth} and {@code gt.connector.throttle.wait}. The callers report each load of an
+ * instrument with {@link #recordRequest}, it is published as {@code gt.connector.request} with the duration and the
+ * outcome, a load of an instrument whose previous load failed also counts as {@code gt.connector.retry}.
+ * </p>
+ */
+@Service
+public class FeedConnectorScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(FeedConnectorScheduler.class);
+
+  /** Lane of the instruments without a connector, for example when the connector was removed. */
+  private static final String NO_CONNECTOR = "none";
+
+  /**
+   * Instruments of a connector without declared concurrency limit which are processed at the same time. It is 1, so a
+   * provider whose limits are unknown receives one request after the other until its connector declares more.
+   */
+  @Value("${gt.connector.scheduler.default.concurrency:1}")
+  private int defaultConcurrency = 1;
+
+  /** Instruments of all connectors which are processed at the same time, 0 depends on the number of processors. */
+  @Value("${gt.connector.scheduler.parallelism:0}")
+  private int parallelism;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  private final Map<String, ConnectorLane> laneMap = new ConcurrentHashMap<>();
+
+  /**
+   * Blocks until the connector may send its next request to the data provider. Returns immediately when the connector
+   * declares no request limit.
+   *
+   * @param feedConnector the connector which sends the request
+   */
+  public void acquireToken(IFeedConnector feedConnector) {
+    acquireTokens(feedConnector, 1);
+  }
+
+  /**
+   * Blocks until the connector may send a request which the data provider counts as several requests, as a request for
+   * several instruments which is charged per instrument.
+   *
+   * @param feedConnector the connector which sends the request
+   * @param tokens        the number of requests the data provider counts, at most the declared request limit
+   */
+  public void acquireTokens(IFeedConnector feedConnector, int tokens) {
+    ConnectorLane lane = getLane(feedConnector);
+    if (lane.bucket != null) {
+      long startTime = System.nanoTime();
+      try {
+        lane.bucket.asBlocking().consume(tokens);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while waiting for rate-limit token of {}", lane.idConnector);
+      }
+      if (lane.throttleWaitTimer != null) {
+        lane.throttleWaitTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  /**
+   * Records a load of an instrument from the data provider of a connector.
+   *
+   * @param feedConnector the connector which loaded the instrument
+   * @param feedSupport   the kind of data which was loaded
+   * @param nanos         duration of the load
+   * @param success       false if the load failed
+   * @param retry         true if the previous load of this instrument had failed
+   */
+  public void recordRequest(IFeedConnector feedConnector, FeedSupport feedSupport, long nanos, boolean success,
+      boolean retry) {
+    if (meterRegistry != null) {
+      Timer.builder("gt.connector.request").description("Loads of an instrument from the data provider")
+          .tag("connector", feedConnector.getID()).tag("feed", feedSupport.name())
+          .tag("outcome", success ? "success" : "error").register(meterRegistry)
+          .record(nanos, TimeUnit.NANOSECONDS);
+      if (retry) {
+        Counter.builder("gt.connector.retry").description("Loads of an instrument whose previous load failed")
+            .tag("connector", feedConnector.getID()).tag("feed", feedSupport.name()).register(meterRegistry)
+            .increment();
+      }
+    }
+  }
+
+  /**
+   * Processes all items with the concurrency limit of the connector each item is assigned to and returns when all
+   * items are processed. An exception of a single item is logged and does not stop the others.
+   *
+   * @param items       the items, normally instruments, to process
+   * @param connectorOf returns the connector which is used for an item, may return null
+   * @param task        the work for a single item
+   * @throws TaskInterruptException if the calling thread is interrupted, items not yet started are skipped
+   */
+  public <E> void executeAll(List<E> items, Function<E, IFeedConnector> connectorOf, Consumer<E> task) {
+    Semaphore slots = new Semaphore(getParallelism());
+    long startTime = System.currentTimeMillis();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (E item : items) {
+        ConnectorLane lane = getLane(connectorOf.apply(item));
+        lane.queued.incrementAndGet();
+        executor.submit(() -> execute(lane, slots, item, task));
+      }
+    }
+    if (Thread.currentThread().isInterrupted()) {
+      throw new TaskInterruptException(new InterruptedException());
+    }
+    log.debug("Executed {} items in {} ms", items.size(), System.currentTimeMillis() - startTime);
+  }
+
+  private <E> void execute(ConnectorLane lane, Semaphore slots, E item, Consumer<E> task) {
+    try {
+      lane.permits.acquire();
+    } catch (InterruptedException e) {
+      lane.queued.decrementAndGet();
+      Thread.currentThread().interrupt();
+      return;
+    }
+    try {
+      slots.acquire();
+      lane.queued.decrementAndGet();
+      try {
+        task.accept(item);
+      } finally {
+        slots.release();
+      }
+    } catch (InterruptedException e) {
+      lane.queued.decrementAndGet();
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      log.error("Scheduled update with connector {} failed for {}", lane.idConnector, item, e);
+    } finally {
+      lane.permits.release();
+    }
+  }
+
+  /**
+   * Number of items of a connector which wait for their turn in a batch update.
+   */
+  public int getQueueDepth(String idConnector) {
+    ConnectorLane lane = laneMap.get(idConnector);
+    return lane == null ? 0 : lane.queued.get();
+  }
+
+  private int getParallelism() {
+    return parallelism > 0 ? parallelism
+        : Runtime.getRuntime().availableProcessors() * GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER;
+  }
+
+  /**
+   * Returns the lane of the connector. It is replaced when the connector declares other limits, as happens when a
+   * generic connector is reloaded after its definition was changed.
+   */
+  private ConnectorLane getLane(IFeedConnector feedConnector) {
+    String idConnector = feedConnector == null ? NO_CONNECTOR : feedConnector.getID();
+    RateLimit rateLimit = feedConnector == null ? RateLimit.UNLIMITED : feedConnector.getRateLimit();
+    ConnectorLane lane = laneMap.get(idConnector);
+    if (lane == null || !lane.rateLimit.equals(rateLimit)) {
+      lane = laneMap.compute(idConnector, (_, existing) -> {
+        if (existing != null && existing.rateLimit.equals(rateLimit)) {
+          return existing;
+        }
+        if (existing == null) {
+          registerQueueDepthGauge(idConnector);
+        }
+        return new ConnectorLane(idConnector, rateLimit,
+            rateLimit.maxConcurrent() > 0 ? rateLimit.maxConcurrent() : Math.max(1, defaultConcurrency),
+            meterRegistry == null ? null : meterRegistry.timer("gt.connector.throttle.wait", "connector", idConnector));
+      });
+    }
+    return lane;
+  }
+
+  private void registerQueueDepthGauge(String idConnector) {
+    if (meterRegistry != null) {
+      Gauge.builder("gt.connector.queue.depth", this, s -> s.getQueueDepth(idConnector))
+          .description("Instruments waiting for the data provider in a batch update").tag("connector", idConnector)
+          .register(meterRegistry);
+    }
+  }
+
+  private static class ConnectorLane {
+    final String idConnector;
+    final RateLimit rateLimit;
+    final Bucket bucket;
+    final Semaphore permits;
+    final Timer throttleWaitTimer;
+    final AtomicInteger queued = new AtomicInteger();
+
+    ConnectorLane(String idConnector, RateLimit rateLimit, int maxConcurrent, Timer throttleWaitTimer) {
+      this.idConnector = idConnector;
+      this.rateLimit = rateLimit;
+      // Refilled at the end of each period, a greedy refill would exceed the limit of a provider in a sliding window
+      this.bucket = rateLimit.hasRequestLimit() ? Bucket.builder().addLimit(Bandwidth.builder()
+          .capacity(rateLimit.requests()).refillIntervally(rateLimit.requests(), rateLimit.period()).build()).build()
+          : null;
+      this.permits = new Semaphore(maxConcurrent, true);
+      this.throttleWaitTimer = throttleWaitTimer;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package grafioschtrader.connector.instrument;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -156,6 +158,23 @@ public interface IFeedConnector {
     DL_INTRA_FORCE_BACKEND
   }
 
+  /**
+   * Limits of a data provider which are enforced by the {@link FeedConnectorScheduler} for all callers of the
+   * connector.
+   *
+   * @param requests      maximum number of requests within the period, 0 for no limit
+   * @param period        the period of the request limit
+   * @param maxConcurrent maximum number of instruments processed at the same time in a batch update, 0 for the default
+   *                      of the scheduler
+   */
+  public record RateLimit(int requests, Duration period, int maxConcurrent) {
+    public static final RateLimit UNLIMITED = new RateLimit(0, null, 0);
+
+    public boolean hasRequestLimit() {
+      return requests > 0 && period != null;
+    }
+  }
+
   @Schema(description = "Id of the connector as it is used in the database")
   @JsonProperty("id")
   String getID();
@@ -314,6 +333,18 @@ public interface IFeedConnector {
    */
   int getIntradayDelayedSeconds();
 
+  /**
+   * Returns the request and concurrency limits of the data provider. A connector which calls
+   * {@link BaseFeedConnector#waitForTokenOrGo()} before each request shares the declared rate with all other users of
+   * the same connector id.
+   *
+   * @return the limits, by default none
+   */
+  @JsonIgnore
+  default RateLimit getRateLimit() {
+    return RateLimit.UNLIMITED;
+  }
+
   /**
    * Retrieves historical exchange rate data for a currency pair within the specified date range.
    *
@@ -333,6 +364,87 @@ public interface IFeedConnector {
    */
   void updateCurrencyPairLastPrice(Currencypair currencyPair) throws Exception;
 
+  /**
+   * Returns the maximum number of instruments the data provider accepts in a single request. The batch methods below
+   * are only called with more than one instrument if this is greater than 1.
+   *
+   * @param feedSupport FS_INTRA for the last price, FS_HISTORY for the end-of-day history
+   * @return the maximum number of instruments of a request, by default 1
+   */
+  @JsonIgnore
+  default int getMaxBatchSize(FeedSupport feedSupport) {
+    return 1;
+  }
+
+  /**
+   * Updates the last price of several securities with a single request to the data provider. The default
+   * implementation updates them one by one.
+   *
+   * @param securities at most {@link #getMaxBatchSize(FeedSupport)} securities of this connector
+   * @return the updated securities, a security missing in the response of the data provider is not contained
+   * @throws Exception if the request fails, then none of the securities was updated
+   */
+  default List<Security> updateSecuritiesLastPrice(List<Security> securities) throws Exception {
+    for (Security security : securities) {
+      updateSecurityLastPrice(security);
+    }
+    return securities;
+  }
+
+  /**
+   * Updates the last price of several currency pairs with a single request to the data provider. The default
+   * implementation updates them one by one.
+   *
+   * @param currencyPairs at most {@link #getMaxBatchSize(FeedSupport)} currency pairs of this connector
+   * @return the updated currency pairs, a currency pair missing in the response of the data provider is not contained
+   * @throws Exception if the request fails, then none of the currency pairs was updated
+   */
+  default List<Currencypair> updateCurrencyPairsLastPrice(List<Currencypair> currencyPairs) throws Exception {
+    for (Currencypair currencyPair : currencyPairs) {
+      updateCurrencyPairLastPrice(currencyPair);
+    }
+    return currencyPairs;
+  }
+
+  /**
+   * Retrieves the historical end-of-day quotes of several securities for the same date range with a single request to
+   * the data provider. The default implementation requests them one by one.
+   *
+   * @param securities at most {@link #getMaxBatchSize(FeedSupport)} securities of this connector
+   * @param from       the start date (inclusive)
+   * @param to         the end date (inclusive)
+   * @return the quotes sorted by date for each id of a security, a security missing in the response has no entry
+   * @throws Exception if the request fails, then none of the securities was loaded
+   */
+  default Map<Integer, List<Historyquote>> getEodSecuritiesHistory(List<Security> securities, LocalDate from,
+      LocalDate to) throws Exception {
+    Map<Integer, List<Historyquote>> historyquotesById = new HashMap<>();
+    for (Security security : securities) {
+      historyquotesById.put(security.getIdSecuritycurrency(), getEodSecurityHistory(security, from, to));
+    }
+    return historyquotesById;
+  }
+
+  /**
+   * Retrieves the historical exchange rates of several currency pairs for the same date range with a single request to
+   * the data provider. The default implementation requests them one by one.
+   *
+   * @param currencyPairs at most {@link #getMaxBatchSize(FeedSupport)} currency pairs of this connector
+   * @param from          the start date (inclusive)
+   * @param to            the end date (inclusive)
+   * @return the quotes sorted by date for each id of a currency pair, a currency pair missing in the response has no
+   *         entry
+   * @throws Exception if the request fails, then none of the currency pairs was loaded
+   */
+  default Map<Integer, List<Historyquote>> getEodCurrenciesHistory(List<Currencypair> currencyPairs, LocalDate from,
+      LocalDate to) throws Exception {
+    Map<Integer, List<Historyquote>> historyquotesById = new HashMap<>();
+    for (Currencypair currencyPair : currencyPairs) {
+      historyquotesById.put(currencyPair.getIdSecuritycurrency(), getEodCurrencyHistory(currencyPair, from, to));
+    }
+    return historyquotesById;
+  }
+
   /**
    * Indicates whether dividend data from this connector is already adjusted for stock splits.
    * If true, dividend amounts reflect post-split values; if false, raw dividend amounts are provided.
@@ -13,13 +13,18 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import org.apache.commons.math3.fraction.Fraction;
 import org.apache.commons.math3.fraction.FractionFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -35,7 +40,9 @@ import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.entities.Securitysplit;
 import grafioschtrader.types.CreateType;
+import tools.jackson.core.JacksonException;
 import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.json.JsonMapper;
 
@@ -58,6 +65,11 @@ public class EodHistoricalDataConnector extends BaseFeedApiKeyConnector {
   private static final ObjectMapper objectMapper = JsonMapper.builder()
       .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
 
+  /** Tickers of a last price request, the data provider recommends not more than 15 to 20. */
+  private static final int MAX_TICKERS_LAST_PRICE = 15;
+
+  private final Logger log = LoggerFactory.getLogger(this.getClass());
+
   private final Semaphore semaphoreLastPrice = new Semaphore(5);
 
   static {
@@ -209,6 +221,63 @@ public class EodHistoricalDataConnector extends BaseFeedApiKeyConnector {
     }
   }
 
+  @Override
+  public int getMaxBatchSize(FeedSupport feedSupport) {
+    return feedSupport == FeedSupport.FS_INTRA ? MAX_TICKERS_LAST_PRICE : 1;
+  }
+
+  @Override
+  public List<Security> updateSecuritiesLastPrice(final List<Security> securities) throws Exception {
+    return updateLastPrices(securities, Security::getUrlIntraExtend, FeedConnectorHelper::getMinorUnitDivider);
+  }
+
+  @Override
+  public List<Currencypair> updateCurrencyPairsLastPrice(final List<Currencypair> currencypairs) throws Exception {
+    return updateLastPrices(currencypairs, this::getCurrencyPairSymbol, _ -> 1.0);
+  }
+
+  /**
+   * The first ticker is part of the path, the others are passed with the parameter "s". For more than one ticker the
+   * response is an array with an object per ticker, which is identified by its code. The object of a ticker without
+   * price contains "NA" values, the instruments of this ticker are not updated.
+   */
+  private <T extends Securitycurrency<T>> List<T> updateLastPrices(List<T> securitycurrencies,
+      Function<T, String> tickerOf, ToDoubleFunction<T> dividerOf) throws Exception {
+    final Map<String, List<T>> tickerMap = new LinkedHashMap<>();
+    for (T securitycurrency : securitycurrencies) {
+      tickerMap.computeIfAbsent(tickerOf.apply(securitycurrency).toUpperCase(), _ -> new ArrayList<>())
+          .add(securitycurrency);
+    }
+    final List<String> tickers = new ArrayList<>(tickerMap.keySet());
+    final String url = DOMAIN_NAME_API + "real-time/" + tickers.getFirst() + "?" + JSON_PARAM
+        + (tickers.size() > 1 ? "&s=" + String.join(",", tickers.subList(1, tickers.size())) : "")
+        + getApiKeyString();
+    final JsonNode response;
+    semaphoreLastPrice.acquire();
+    try {
+      response = objectMapper.readTree(FeedConnectorHelper.getByHttpClient(url, 10).body());
+    } finally {
+      semaphoreLastPrice.release();
+    }
+    final List<T> updated = new ArrayList<>();
+    for (int i = 0; i < (response.isArray() ? response.size() : 1); i++) {
+      final JsonNode quoteNode = response.isArray() ? response.get(i) : response;
+      final List<T> tickerSecuritycurrencies = tickerMap.get(quoteNode.path("code").asString().toUpperCase());
+      if (tickerSecuritycurrencies != null) {
+        try {
+          final Quote quote = objectMapper.treeToValue(quoteNode, Quote.class);
+          for (T securitycurrency : tickerSecuritycurrencies) {
+            quote.setValues(securitycurrency, dividerOf.applyAsDouble(securitycurrency), getIntradayDelayedSeconds());
+            updated.add(securitycurrency);
+          }
+        } catch (JacksonException e) {
+          log.warn("No last price for ticker {}", quoteNode.path("code").asString());
+        }
+      }
+    }
+    return updated;
+  }
+
   @Override
   public int getIntradayDelayedSeconds() {
     return 900;
@@ -38,8 +38,8 @@ import grafioschtrader.entities.Historyquote;
  * period from 2000 to 2023. It is also possible that the provider does not supply any data for one or all of these
  * requests due to its load.
  *
- * This provider only wants to answer a few requests in a certain time period. Unfortunately, the attempt with Bucket
- * did not bring any improvement, so these are commented out.
+ * This provider only wants to answer a few requests in a certain time period. A rate limit did not bring any
+ * improvement, so the requests are only serialized, a batch update processes one currency pair at a time.
  *
  * No regex pattern is used, as the user cannot make an entry regarding the URL extension. However, the presence of the
  * currency pair is checked.
@@ -59,13 +59,16 @@ public class FxUbcFeedConnector extends BaseFeedConnector {
     supportedFeed.put(FeedSupport.FS_HISTORY, new FeedIdentifier[] { FeedIdentifier.CURRENCY });
   }
 
-  // private final Bucket bucket;
+  private static final RateLimit RATE_LIMIT = new RateLimit(0, null, 1);
 
   public FxUbcFeedConnector() {
     super(supportedFeed, "fxubc", "Pacific Exchange Rate Service", null, EnumSet.of(UrlCheck.HISTORY));
     supportedAssetclassCategories = EnumSet.of(AssetclassCategory.CURRENCY_PAIR);
-    // Bandwidth limit = Bandwidth.builder().capacity(1).refillIntervally(1, Duration.ofSeconds(4)).build();
-    // this.bucket = Bucket.builder().addLimit(limit).build();
+  }
+
+  @Override
+  public RateLimit getRateLimit() {
+    return RATE_LIMIT;
   }
 
   @Override
@@ -2,6 +2,9 @@ package grafioschtrader.connector.instrument.generic;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
@@ -10,6 +13,7 @@ import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.time.DayOfWeek;
@@ -28,6 +32,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -61,8 +66,6 @@ import grafioschtrader.types.NumberFormatType;
 import grafioschtrader.types.RateLimitType;
 import grafioschtrader.types.ResponseFormatType;
 import grafioschtrader.types.TickerBuildStrategy;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.dataformat.yaml.YAMLMapper;
@@ -76,9 +79,13 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   private static final Logger log = LoggerFactory.getLogger(GenericFeedConnector.class);
   private static final ObjectMapper objectMapper = new ObjectMapper();
+  /** Charset parameter of a Content-Type header. */
+  private static final Pattern CHARSET_PATTERN = Pattern.compile("charset=\"?([^;\"\\s]+)", Pattern.CASE_INSENSITIVE);
 
   private final GenericConnectorDef connectorDef;
-  private final Bucket rateLimitBucket;
+  /** History parsers compiled from the endpoints on first use, a changed definition creates a new connector. */
+  private final Map<GenericConnectorEndpoint, GenericHistoryParser> historyParsers = new ConcurrentHashMap<>();
+  private final RateLimit rateLimit;
   private final Semaphore rateLimitSemaphore;
   private String apiKey;
 
@@ -94,7 +101,7 @@ public class GenericFeedConnector extends BaseFeedConnector {
         buildUrlCheckSet(connectorDef));
     this.connectorDef = connectorDef;
     this.apiKey = apiKey;
-    this.rateLimitBucket = buildBucket(connectorDef);
+    this.rateLimit = buildRateLimit(connectorDef);
     this.rateLimitSemaphore = buildSemaphore(connectorDef);
     this.tokenConfig = parseTokenConfig(connectorDef.getTokenConfigYaml());
     parseSupportedCategories(connectorDef.getSupportedCategories());
@@ -361,8 +368,12 @@ public class GenericFeedConnector extends BaseFeedConnector {
     String url = buildUrl(endpoint, ticker, from, to, currencyPair);
     acquireRateLimit();
     try {
-      String body = httpGet(url, endpoint);
-      List<Historyquote> quotes = parseHistoryResponse(endpoint, body);
+      HttpResponse<InputStream> response = httpGet(url, HttpResponse.BodyHandlers.ofInputStream());
+      List<Historyquote> quotes;
+      // A long history is parsed while it is received, the body is never held as a whole
+      try (Reader body = getBodyReader(response)) {
+        quotes = parseHistoryResponse(endpoint, body);
+      }
       if (endpoint.getEndpointOptions().contains(EndpointOption.SKIP_WEEKEND_DATA)) {
         quotes.removeIf(hq -> {
           DayOfWeek dow = hq.getDate().getDayOfWeek();
@@ -490,8 +501,19 @@ public class GenericFeedConnector extends BaseFeedConnector {
   // ======================== HTTP ========================
 
   private String httpGet(String url, GenericConnectorEndpoint endpoint) throws Exception {
+    return httpGet(url, HttpResponse.BodyHandlers.ofString()).body();
+  }
+
+  /**
+   * Sends a GET request, with auto-token it is repeated once with a new token after a 401. Only the body of a response
+   * with status 200 is read, any other status is thrown.
+   */
+  private <T> HttpResponse<T> httpGet(String url, HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+    HttpResponse.BodyHandler<T> okBodyHandler = responseInfo -> responseInfo.statusCode() == 200
+        ? bodyHandler.apply(responseInfo)
+        : HttpResponse.BodySubscribers.replacing(null);
     ensureTokenValid();
-    HttpResponse<String> response = doHttpGet(url);
+    HttpResponse<T> response = doHttpGet(url, okBodyHandler);
     if (response.statusCode() == 401 && tokenConfig != null) {
       log.info("Got 401 for {}, invalidating token and retrying", getShortID());
       synchronized (tokenLock) {
@@ -499,20 +521,41 @@ public class GenericFeedConnector extends BaseFeedConnector {
         this.tokenExpiresAt = null;
       }
       ensureTokenValid();
-      response = doHttpGet(url);
+      response = doHttpGet(url, okBodyHandler);
     }
     if (response.statusCode() != 200) {
       throw new RuntimeException(
           "HTTP " + response.statusCode() + " for " + hideApiKeyForError(url));
     }
-    return response.body();
+    return response;
+  }
+
+  /**
+   * Returns a reader of the response body in the charset of its content type, UTF-8 when none is declared, as
+   * {@link HttpResponse.BodyHandlers#ofString()} decodes it.
+   */
+  private static Reader getBodyReader(HttpResponse<InputStream> response) {
+    Charset charset = StandardCharsets.UTF_8;
+    Matcher matcher = CHARSET_PATTERN.matcher(response.headers().firstValue("Content-Type").orElse(""));
+    if (matcher.find()) {
+      try {
+        charset = Charset.forName(matcher.group(1));
+      } catch (IllegalArgumentException e) {
+        log.debug("Unknown charset '{}', the response is read as UTF-8", matcher.group(1));
+      }
+    }
+    return new InputStreamReader(response.body(), charset);
   }
 
   private HttpResponse<String> doHttpGet(String url) throws Exception {
+    return doHttpGet(url, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private <T> HttpResponse<T> doHttpGet(String url, HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
     HttpClient client = getHttpClient();
     HttpRequest request = buildHttpGetRequest(url);
     try {
-      return client.send(request, HttpResponse.BodyHandlers.ofString());
+      return client.send(request, bodyHandler);
     } catch (IOException e) {
       log.warn("HTTP request failed for {}, retrying with HTTP/1.1: {}", getShortID(), e.getMessage());
       HttpClient fallbackClient = HttpClient.newBuilder()
@@ -521,7 +564,7 @@ public class GenericFeedConnector extends BaseFeedConnector {
           .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
           .connectTimeout(Duration.ofSeconds(30))
           .build();
-      return fallbackClient.send(request, HttpResponse.BodyHandlers.ofString());
+      return fallbackClient.send(request, bodyHandler);
     }
   }
 
@@ -692,18 +735,22 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   // ======================== Response Parsing ========================
 
-  private List<Historyquote> parseHistoryResponse(GenericConnectorEndpoint endpoint, String body) throws Exception {
+  private List<Historyquote> parseHistoryResponse(GenericConnectorEndpoint endpoint, Reader body) throws Exception {
     ResponseFormatType format = endpoint.getResponseFormat();
     switch (format) {
     case JSON:
-      return parseJsonHistory(endpoint, body);
+      return getHistoryParser(endpoint).parseJson(body);
     case CSV:
-      return parseCsvHistory(endpoint, body);
+      return getHistoryParser(endpoint).parseCsv(body);
     default:
       throw new UnsupportedOperationException("Response format " + format + " not supported for history");
     }
   }
 
+  private GenericHistoryParser getHistoryParser(GenericConnectorEndpoint endpoint) {
+    return historyParsers.computeIfAbsent(endpoint, GenericHistoryParser::new);
+  }
+
   private Map<String, Double> parseIntradayResponse(GenericConnectorEndpoint endpoint, String body) throws Exception {
     ResponseFormatType format = endpoint.getResponseFormat();
     switch (format) {
@@ -720,80 +767,6 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   // ======================== JSON Parsing ========================
 
-  private List<Historyquote> parseJsonHistory(GenericConnectorEndpoint endpoint, String body) throws Exception {
-    JsonNode root = objectMapper.readTree(body);
-
-    if (endpoint.getJsonStatusPath() != null) {
-      JsonNode statusNode = navigatePath(root, endpoint.getJsonStatusPath());
-      if (statusNode != null && endpoint.getJsonStatusOkValue() != null
-          && !endpoint.getJsonStatusOkValue().equals(statusNode.asString())) {
-        throw new RuntimeException("Data provider status error: " + statusNode.asString());
-      }
-    }
-
-    JsonNode dataNode = endpoint.getJsonDataPath() != null ? navigatePath(root, endpoint.getJsonDataPath()) : root;
-    List<Historyquote> quotes = new ArrayList<>();
-    JsonDataStructure structure = endpoint.getJsonDataStructure();
-
-    if (structure == JsonDataStructure.ARRAY_OF_OBJECTS && dataNode.isArray()) {
-      for (JsonNode row : dataNode) {
-        Historyquote hq = new Historyquote();
-        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
-          JsonNode valueNode = navigatePath(row, mapping.getSourceExpression());
-          if (valueNode != null && !valueNode.isNull()) {
-            setHistoryField(hq, mapping, valueNode.asString(), endpoint);
-          }
-        }
-        if (hq.getDate() != null) {
-          quotes.add(hq);
-        }
-      }
-    } else if (structure == JsonDataStructure.PARALLEL_ARRAYS && dataNode.isObject()) {
-      Map<String, JsonNode> arrays = new HashMap<>();
-      for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
-        JsonNode arr = navigatePath(dataNode, mapping.getSourceExpression());
-        if (arr != null && arr.isArray()) {
-          arrays.put(mapping.getTargetField(), arr);
-        }
-      }
-      int size = arrays.values().stream().mapToInt(JsonNode::size).min().orElse(0);
-      for (int i = 0; i < size; i++) {
-        Historyquote hq = new Historyquote();
-        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
-          JsonNode arr = arrays.get(mapping.getTargetField());
-          if (arr != null && i < arr.size()) {
-            setHistoryField(hq, mapping, arr.get(i).asString(), endpoint);
-          }
-        }
-        if (hq.getDate() != null) {
-          quotes.add(hq);
-        }
-      }
-    } else if (structure == JsonDataStructure.COLUMN_ROW_ARRAYS) {
-      Map<String, Integer> colIndex = buildColumnIndex(root, endpoint);
-      for (JsonNode row : dataNode) {
-        if (!row.isArray()) {
-          continue;
-        }
-        Historyquote hq = new Historyquote();
-        for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
-          Integer idx = colIndex.get(mapping.getSourceExpression());
-          if (idx != null && idx < row.size()) {
-            JsonNode valueNode = row.get(idx);
-            if (valueNode != null && !valueNode.isNull()) {
-              setHistoryField(hq, mapping, valueNode.asString(), endpoint);
-            }
-          }
-        }
-        if (hq.getDate() != null) {
-          quotes.add(hq);
-        }
-      }
-    }
-
-    return quotes;
-  }
-
   private Map<String, Double> parseJsonIntraday(GenericConnectorEndpoint endpoint, String body) throws Exception {
     JsonNode root = objectMapper.readTree(body);
 
@@ -878,39 +851,6 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   // ======================== CSV Parsing ========================
 
-  private List<Historyquote> parseCsvHistory(GenericConnectorEndpoint endpoint, String body) {
-    List<Historyquote> quotes = new ArrayList<>();
-    String[] lines = body.split("\\r?\\n");
-    int skip = endpoint.getCsvSkipHeaderLines() != null ? endpoint.getCsvSkipHeaderLines() : 1;
-    String delimiter = resolveCsvDelimiter(endpoint);
-
-    for (int i = skip; i < lines.length; i++) {
-      String line = lines[i].trim();
-      if (line.isEmpty()) {
-        continue;
-      }
-      String[] columns = line.split(delimiter, -1);
-      Historyquote hq = new Historyquote();
-      boolean valid = true;
-      for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
-        int colIdx = mapping.getCsvColumnIndex() != null ? mapping.getCsvColumnIndex() : 0;
-        if (colIdx < columns.length) {
-          try {
-            setHistoryField(hq, mapping, stripQuotes(columns[colIdx].trim()), endpoint);
-          } catch (Exception e) {
-            if (mapping.isRequired()) {
-              valid = false;
-            }
-          }
-        }
-      }
-      if (valid && hq.getDate() != null) {
-        quotes.add(hq);
-      }
-    }
-    return quotes;
-  }
-
   private Map<String, Double> parseCsvIntraday(GenericConnectorEndpoint endpoint, String body) {
     String[] lines = body.split("\\r?\\n");
     int skip = endpoint.getCsvSkipHeaderLines() != null ? endpoint.getCsvSkipHeaderLines() : 1;
@@ -924,7 +864,8 @@ public class GenericFeedConnector extends BaseFeedConnector {
         if (colIdx < columns.length && !"date".equals(mapping.getTargetField())
             && !"timestamp".equals(mapping.getTargetField())) {
           try {
-            double val = parseNumber(stripQuotes(columns[colIdx].trim()), endpoint.getNumberFormat());
+            double val = parseNumber(GenericHistoryParser.stripQuotes(columns[colIdx].trim()),
+                endpoint.getNumberFormat());
             if (mapping.getDividerExpression() != null) {
               val /= Double.parseDouble(mapping.getDividerExpression());
             }
@@ -938,14 +879,6 @@ public class GenericFeedConnector extends BaseFeedConnector {
     return values;
   }
 
-  private static String stripQuotes(String value) {
-    if (value != null && value.length() >= 2
-        && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
-      return value.substring(1, value.length() - 1);
-    }
-    return value;
-  }
-
   private String resolveCsvDelimiter(GenericConnectorEndpoint endpoint) {
     String delimiter = endpoint.getCsvDelimiter();
     if (delimiter == null) {
@@ -1064,43 +997,6 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   // ======================== Field Mapping ========================
 
-  private void setHistoryField(Historyquote hq, GenericConnectorFieldMapping mapping, String rawValue,
-      GenericConnectorEndpoint endpoint) {
-    if (rawValue == null || rawValue.isEmpty()) {
-      return;
-    }
-    String target = mapping.getTargetField();
-    try {
-      if ("date".equals(target)) {
-        hq.setDate(parseDate(rawValue, endpoint));
-      } else {
-        double val = parseNumber(rawValue, endpoint.getNumberFormat());
-        if (mapping.getDividerExpression() != null) {
-          val /= Double.parseDouble(mapping.getDividerExpression());
-        }
-        switch (target) {
-        case "open":
-          hq.setOpen(val);
-          break;
-        case "high":
-          hq.setHigh(val);
-          break;
-        case "low":
-          hq.setLow(val);
-          break;
-        case "close":
-          hq.setClose(val);
-          break;
-        case "volume":
-          hq.setVolume((long) val);
-          break;
-        }
-      }
-    } catch (Exception e) {
-      log.debug("Failed to set history field '{}' from '{}': {}", target, rawValue, e.getMessage());
-    }
-  }
-
   private void applyIntradayValues(Security security, Map<String, Double> values) {
     if (values.containsKey("last")) {
       security.setSLast(values.get("last"));
@@ -1148,32 +1044,7 @@ public class GenericFeedConnector extends BaseFeedConnector {
     currencyPair.setSTimestamp(LocalDateTime.now());
   }
 
-  // ======================== Date & Number Parsing ========================
-
-  private LocalDate parseDate(String rawValue, GenericConnectorEndpoint endpoint) {
-    DateFormatType dft = endpoint.getDateFormatType();
-    try {
-      switch (dft) {
-      case UNIX_SECONDS:
-        long epochSec = Long.parseLong(rawValue);
-        return Instant.ofEpochSecond(epochSec).atZone(ZoneId.systemDefault()).toLocalDate();
-      case UNIX_MILLIS:
-        long epochMs = Long.parseLong(rawValue);
-        return Instant.ofEpochMilli(epochMs).atZone(ZoneId.systemDefault()).toLocalDate();
-      case PATTERN:
-        return LocalDate.parse(rawValue, DateTimeFormatter.ofPattern(endpoint.getDateFormatPattern()));
-      case ISO_DATE:
-        return LocalDate.parse(rawValue);
-      case ISO_DATE_TIME:
-        return LocalDate.parse(rawValue.substring(0, Math.min(rawValue.length(), 10)));
-      default:
-        return null;
-      }
-    } catch (Exception e) {
-      log.debug("Failed to parse date '{}' with format {}: {}", rawValue, dft, e.getMessage());
-      return null;
-    }
-  }
+  // ======================== Number Parsing ========================
 
   private double parseNumber(String rawValue, NumberFormatType numberFormat) throws ParseException {
     if (rawValue == null || rawValue.isBlank()) {
@@ -1194,10 +1065,13 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
   // ======================== Rate Limiting ========================
 
+  @Override
+  public RateLimit getRateLimit() {
+    return rateLimit;
+  }
+
   private void acquireRateLimit() {
-    if (rateLimitBucket != null) {
-      waitForTokenOrGo(rateLimitBucket);
-    }
+    waitForTokenOrGo();
     if (rateLimitSemaphore != null) {
       try {
         rateLimitSemaphore.acquire();
@@ -1271,7 +1145,7 @@ public class GenericFeedConnector extends BaseFeedConnector {
 
         List<Map<String, String>> parsedRows;
         if ("FS_HISTORY".equals(feedSupport)) {
-          List<Historyquote> quotes = parseHistoryResponse(endpoint, body);
+          List<Historyquote> quotes = parseHistoryResponse(endpoint, new StringReader(body));
           parsedRows = new ArrayList<>();
           int limit = Math.min(quotes.size(), 200);
           for (int i = 0; i < limit; i++) {
@@ -1340,15 +1214,14 @@ public class GenericFeedConnector extends BaseFeedConnector {
     return EnumSet.noneOf(UrlCheck.class);
   }
 
-  private static Bucket buildBucket(GenericConnectorDef def) {
+  private static RateLimit buildRateLimit(GenericConnectorDef def) {
     if (def.getRateLimitType() == RateLimitType.TOKEN_BUCKET
         && def.getRateLimitRequests() != null && def.getRateLimitPeriodSec() != null) {
-      return Bucket.builder()
-          .addLimit(Bandwidth.builder().capacity(def.getRateLimitRequests())
-              .refillGreedy(def.getRateLimitRequests(), Duration.ofSeconds(def.getRateLimitPeriodSec())).build())
-          .build();
+      return new RateLimit(def.getRateLimitRequests(), Duration.ofSeconds(def.getRateLimitPeriodSec()), 0);
+    } else if (def.getRateLimitType() == RateLimitType.SEMAPHORE && def.getRateLimitConcurrent() != null) {
+      return new RateLimit(0, null, def.getRateLimitConcurrent());
     }
-    return null;
+    return RateLimit.UNLIMITED;
   }
 
   private static Semaphore buildSemaphore(GenericConnectorDef def) {
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 
 import grafiosch.entities.ConnectorApiKey;
 import grafiosch.repository.ConnectorApiKeyJpaRepository;
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
 import grafioschtrader.entities.GenericConnectorDef;
 import grafioschtrader.repository.GenericConnectorDefJpaRepository;
 import grafioschtrader.repository.SecuritycurrencyService;
@@ -36,6 +37,9 @@ public class GenericFeedConnectorFactory {
   @Autowired
   private List<SecuritycurrencyService<?, ?>> securitycurrencyServices;
 
+  @Autowired
+  private FeedConnectorScheduler feedConnectorScheduler;
+
   private final List<GenericFeedConnector> registeredConnectors = new ArrayList<>();
 
   @EventListener(ApplicationReadyEvent.class)
@@ -67,6 +71,7 @@ public class GenericFeedConnectorFactory {
         }
 
         GenericFeedConnector connector = new GenericFeedConnector(def, apiKey);
+        connector.setFeedConnectorScheduler(feedConnectorScheduler);
         registeredConnectors.add(connector);
 
         for (SecuritycurrencyService<?, ?> service : securitycurrencyServices) {
@@ -0,0 +1,639 @@
+package grafioschtrader.connector.instrument.generic;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import grafioschtrader.connector.instrument.FeedConnectorHelper;
+import grafioschtrader.entities.GenericConnectorEndpoint;
+import grafioschtrader.entities.GenericConnectorFieldMapping;
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.types.DateFormatType;
+import grafioschtrader.types.JsonDataStructure;
+import grafioschtrader.types.NumberFormatType;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Parses the history response of a JSON or CSV endpoint of a generic connector.
+ * <p>
+ * The endpoint definition is compiled once: the dot paths become a tree of path segments, the target field, the divider
+ * and the CSV column of each field mapping are resolved, and the date formatter is created. A JSON response is then
+ * read in a single pass with the Jackson streaming parser, only the values on configured paths are materialized and
+ * everything else is skipped. A CSV response is scanned line by line and only the mapped columns are cut out. Both
+ * formats are read from a {@link Reader}, so the connector passes the response stream without holding the whole body
+ * as a string. An instance is immutable and shared by all requests of its endpoint.
+ * </p>
+ */
+public class GenericHistoryParser {
+
+  private static final Logger log = LoggerFactory.getLogger(GenericHistoryParser.class);
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final JsonDataStructure structure;
+  private final String jsonDataPath;
+  private final String jsonStatusOkValue;
+  private final boolean hasColumnNamesPath;
+  private final FieldExtractor[] fields;
+  /** Paths from the document root to the status, the column names, the data and for parallel arrays the fields. */
+  private final PathNode documentPaths = new PathNode();
+  /** Paths of the fields within a row of an array of objects. */
+  private final PathNode rowPaths = new PathNode();
+  private final DateFormatType dateFormatType;
+  private final DateTimeFormatter dateFormatter;
+  private final ZoneId zoneId = ZoneId.systemDefault();
+  private final NumberFormatType numberFormat;
+  private final int csvSkipHeaderLines;
+  private final String csvDelimiter;
+  /** Indexes of the fields by CSV column, null for a column without field. */
+  private final int[][] fieldsByCsvColumn;
+
+  public GenericHistoryParser(GenericConnectorEndpoint endpoint) {
+    this.structure = endpoint.getJsonDataStructure();
+    this.jsonDataPath = endpoint.getJsonDataPath();
+    this.jsonStatusOkValue = endpoint.getJsonStatusOkValue();
+    this.hasColumnNamesPath = endpoint.getJsonColumnNamesPath() != null;
+    this.dateFormatType = endpoint.getDateFormatType();
+    this.dateFormatter = compileDatePattern(endpoint);
+    this.numberFormat = endpoint.getNumberFormat();
+    this.csvSkipHeaderLines = endpoint.getCsvSkipHeaderLines() != null ? endpoint.getCsvSkipHeaderLines() : 1;
+    this.csvDelimiter = resolveCsvDelimiter(endpoint.getCsvDelimiter());
+
+    List<FieldExtractor> compiledFields = new ArrayList<>();
+    for (GenericConnectorFieldMapping mapping : endpoint.getFieldMappings()) {
+      FieldExtractor field = compileField(mapping);
+      if (field != null) {
+        compiledFields.add(field);
+      }
+    }
+    this.fields = compiledFields.toArray(FieldExtractor[]::new);
+
+    if (endpoint.getJsonStatusPath() != null) {
+      documentPaths.add(endpoint.getJsonStatusPath()).status = true;
+    }
+    if (hasColumnNamesPath) {
+      documentPaths.add(endpoint.getJsonColumnNamesPath()).columnNames = true;
+    }
+    PathNode dataNode = jsonDataPath != null ? documentPaths.add(jsonDataPath) : documentPaths;
+    dataNode.data = true;
+    int csvColumns = 0;
+    for (int i = 0; i < fields.length; i++) {
+      String source = fields[i].sourceExpression();
+      if (source != null && structure == JsonDataStructure.PARALLEL_ARRAYS) {
+        dataNode.add(source).addField(i);
+      } else if (source != null && structure == JsonDataStructure.ARRAY_OF_OBJECTS) {
+        rowPaths.add(source).addField(i);
+      }
+      csvColumns = Math.max(csvColumns, fields[i].csvColumnIndex() + 1);
+    }
+    this.fieldsByCsvColumn = new int[csvColumns][];
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].csvColumnIndex() >= 0) {
+        fieldsByCsvColumn[fields[i].csvColumnIndex()] = append(fieldsByCsvColumn[fields[i].csvColumnIndex()], i);
+      }
+    }
+  }
+
+  // ======================== JSON ========================
+
+  /**
+   * Parses a JSON history response with the data structure of the endpoint.
+   *
+   * @param body the response
+   * @return the quotes with a date in the order of the response
+   * @throws RuntimeException when the status value of the response is not the expected one or the data is missing
+   */
+  public List<Historyquote> parseJson(String body) {
+    return parseJson(new StringReader(body));
+  }
+
+  /**
+   * Parses a JSON history response with the data structure of the endpoint while it is read.
+   *
+   * @param body the response, it is closed when the parsing ends
+   * @return the quotes with a date in the order of the response
+   * @throws RuntimeException when the status value of the response is not the expected one or the data is missing
+   */
+  public List<Historyquote> parseJson(Reader body) {
+    JsonState state = new JsonState();
+    if (!hasColumnNamesPath) {
+      state.fieldsByColumn = new int[0][];
+    }
+    try (JsonParser p = objectMapper.createParser(body)) {
+      if (p.nextToken() != null) {
+        readDocumentValue(p, documentPaths, state);
+      }
+    }
+    if (!state.dataFound && (structure == JsonDataStructure.ARRAY_OF_OBJECTS
+        || structure == JsonDataStructure.PARALLEL_ARRAYS || structure == JsonDataStructure.COLUMN_ROW_ARRAYS)) {
+      throw new RuntimeException("No data found at path '" + jsonDataPath + "'");
+    }
+    if (structure == JsonDataStructure.PARALLEL_ARRAYS) {
+      int size = Math.min(state.parallelSize, state.parallelRows.size());
+      for (int i = 0; i < size; i++) {
+        if (state.parallelRows.get(i).getDate() != null) {
+          state.quotes.add(state.parallelRows.get(i));
+        }
+      }
+    } else if (!state.pendingRows.isEmpty()) {
+      int[][] fieldsByColumn = state.fieldsByColumn != null ? state.fieldsByColumn : new int[0][];
+      String[] values = new String[fields.length];
+      for (List<String> row : state.pendingRows) {
+        Arrays.fill(values, null);
+        for (int column = 0; column < Math.min(row.size(), fieldsByColumn.length); column++) {
+          setValues(values, fieldsByColumn[column], row.get(column));
+        }
+        addQuote(values, state.quotes);
+      }
+    }
+    return state.quotes;
+  }
+
+  /**
+   * Reads the value the parser is positioned on, it is reached through the path of the node.
+   */
+  private void readDocumentValue(JsonParser p, PathNode node, JsonState state) {
+    if (node.data) {
+      state.dataFound = true;
+      if (structure == JsonDataStructure.ARRAY_OF_OBJECTS) {
+        readArrayOfObjects(p, state);
+        return;
+      } else if (structure == JsonDataStructure.COLUMN_ROW_ARRAYS) {
+        readColumnRowArrays(p, state);
+        return;
+      }
+    }
+    JsonToken token = p.currentToken();
+    if (node.status) {
+      String status = token.isStructStart() ? "" : p.getString();
+      if (jsonStatusOkValue != null && !jsonStatusOkValue.equals(status)) {
+        throw new RuntimeException("Data provider status error: " + status);
+      }
+    }
+    if (node.columnNames) {
+      state.fieldsByColumn = mapFieldsToColumns(readScalarArray(p));
+    } else if (node.fields != null) {
+      readParallelArray(p, node.fields, state);
+    } else if (node.isLeaf()) {
+      p.skipChildren();
+    } else if (token == JsonToken.START_OBJECT) {
+      while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+        PathNode child = node.nameChildren.get(p.currentName());
+        p.nextToken();
+        if (child == null) {
+          p.skipChildren();
+        } else {
+          readDocumentValue(p, child, state);
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      for (int index = 0; p.nextToken() != JsonToken.END_ARRAY; index++) {
+        PathNode child = node.indexChildren.get(index);
+        if (child == null) {
+          p.skipChildren();
+        } else {
+          readDocumentValue(p, child, state);
+        }
+      }
+    }
+  }
+
+  private void readArrayOfObjects(JsonParser p, JsonState state) {
+    if (p.currentToken() != JsonToken.START_ARRAY) {
+      p.skipChildren();
+      return;
+    }
+    String[] values = new String[fields.length];
+    while (p.nextToken() != JsonToken.END_ARRAY) {
+      Arrays.fill(values, null);
+      readRowValue(p, rowPaths, values);
+      addQuote(values, state.quotes);
+    }
+  }
+
+  private void readRowValue(JsonParser p, PathNode node, String[] values) {
+    JsonToken token = p.currentToken();
+    if (!token.isStructStart()) {
+      if (token != JsonToken.VALUE_NULL) {
+        setValues(values, node.fields, p.getString());
+      }
+    } else if (node.isLeaf()) {
+      p.skipChildren();
+    } else if (token == JsonToken.START_OBJECT) {
+      while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+        PathNode child = node.nameChildren.get(p.currentName());
+        p.nextToken();
+        if (child == null) {
+          p.skipChildren();
+        } else {
+          readRowValue(p, child, values);
+        }
+      }
+    } else {
+      for (int index = 0; p.nextToken() != JsonToken.END_ARRAY; index++) {
+        PathNode child = node.indexChildren.get(index);
+        if (child == null) {
+          p.skipChildren();
+        } else {
+          readRowValue(p, child, values);
+        }
+      }
+    }
+  }
+
+  /**
+   * Each element of the array is a row, the rows are set up by the first array and completed by the others.
+   */
+  private void readParallelArray(JsonParser p, int[] fieldIndexes, JsonState state) {
+    if (p.currentToken() != JsonToken.START_ARRAY) {
+      p.skipChildren();
+      return;
+    }
+    int index = 0;
+    for (; p.nextToken() != JsonToken.END_ARRAY; index++) {
+      String value = readScalar(p);
+      if (index == state.parallelRows.size()) {
+        state.parallelRows.add(new Historyquote());
+      }
+      for (int fieldIndex : fieldIndexes) {
+        setField(state.parallelRows.get(index), fields[fieldIndex], value);
+      }
+    }
+    state.parallelSize = Math.min(state.parallelSize, index);
+  }
+
+  /**
+   * The rows are arrays of values in the order of the column names. A row which precedes the column names in the
+   * response is kept until they are known.
+   */
+  private void readColumnRowArrays(JsonParser p, JsonState state) {
+    JsonToken token = p.currentToken();
+    if (!token.isStructStart()) {
+      return;
+    }
+    boolean object = token == JsonToken.START_OBJECT;
+    String[] values = new String[fields.length];
+    JsonToken rowToken;
+    while ((rowToken = p.nextToken()) != JsonToken.END_ARRAY && rowToken != JsonToken.END_OBJECT) {
+      if (object) {
+        rowToken = p.nextToken();
+      }
+      if (rowToken != JsonToken.START_ARRAY) {
+        p.skipChildren();
+      } else if (state.fieldsByColumn == null) {
+        state.pendingRows.add(readScalarArray(p));
+      } else {
+        Arrays.fill(values, null);
+        for (int column = 0; p.nextToken() != JsonToken.END_ARRAY; column++) {
+          if (column < state.fieldsByColumn.length && state.fieldsByColumn[column] != null) {
+            setValues(values, state.fieldsByColumn[column], readScalar(p));
+          } else {
+            p.skipChildren();
+          }
+        }
+        addQuote(values, state.quotes);
+      }
+    }
+  }
+
+  private int[][] mapFieldsToColumns(List<String> columnNames) {
+    if (columnNames == null) {
+      return new int[0][];
+    }
+    Map<String, Integer> columnIndex = new HashMap<>();
+    for (int i = 0; i < columnNames.size(); i++) {
+      columnIndex.put(columnNames.get(i), i);
+    }
+    int[][] fieldsByColumn = new int[columnNames.size()][];
+    for (int i = 0; i < fields.length; i++) {
+      Integer column = fields[i].sourceExpression() != null ? columnIndex.get(fields[i].sourceExpression()) : null;
+      if (column != null) {
+        fieldsByColumn[column] = append(fieldsByColumn[column], i);
+      }
+    }
+    return fieldsByColumn;
+  }
+
+  /**
+   * Reads an array of scalar values.
+   *
+   * @return the values, null when the parser is not positioned on an array
+   */
+  private static List<String> readScalarArray(JsonParser p) {
+    if (p.currentToken() != JsonToken.START_ARRAY) {
+      p.skipChildren();
+      return null;
+    }
+    List<String> values = new ArrayList<>();
+    while (p.nextToken() != JsonToken.END_ARRAY) {
+      values.add(readScalar(p));
+    }
+    return values;
+  }
+
+  /**
+   * Returns the text of a scalar value, null for a JSON null and for an object or array which is skipped.
+   */
+  private static String readScalar(JsonParser p) {
+    JsonToken token = p.currentToken();
+    if (token.isStructStart()) {
+      p.skipChildren();
+      return null;
+    }
+    return token == JsonToken.VALUE_NULL ? null : p.getString();
+  }
+
+  // ======================== CSV ========================
+
+  /**
+   * Parses a CSV history response, the header lines of the endpoint are skipped.
+   *
+   * @param body the response
+   * @return the quotes with a date in the order of the response
+   */
+  public List<Historyquote> parseCsv(String body) {
+    return parseCsv(new StringReader(body));
+  }
+
+  /**
+   * Parses a CSV history response while it is read, the header lines of the endpoint are skipped.
+   *
+   * @param body the response, the caller closes it
+   * @return the quotes with a date in the order of the response
+   * @throws java.io.UncheckedIOException when the response can not be read
+   */
+  public List<Historyquote> parseCsv(Reader body) {
+    List<Historyquote> quotes = new ArrayList<>();
+    String[] values = new String[fields.length];
+    Iterator<String> lines = new BufferedReader(body).lines().iterator();
+    for (int lineNumber = 0; lines.hasNext(); lineNumber++) {
+      String line = lines.next();
+      if (lineNumber >= csvSkipHeaderLines) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+          start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+          end--;
+        }
+        if (start < end) {
+          Arrays.fill(values, null);
+          readCsvColumns(line, start, end, values);
+          addQuote(values, quotes);
+        }
+      }
+    }
+    return quotes;
+  }
+
+  private void readCsvColumns(String line, int start, int end, String[] values) {
+    int columnStart = start;
+    for (int column = 0; column < fieldsByCsvColumn.length; column++) {
+      int delimiterIndex = line.indexOf(csvDelimiter, columnStart);
+      int columnEnd = delimiterIndex < 0 || delimiterIndex + csvDelimiter.length() > end ? end : delimiterIndex;
+      if (fieldsByCsvColumn[column] != null) {
+        setValues(values, fieldsByCsvColumn[column], stripQuotes(line.substring(columnStart, columnEnd).trim()));
+      }
+      if (columnEnd == end) {
+        break;
+      }
+      columnStart = columnEnd + csvDelimiter.length();
+    }
+  }
+
+  static String stripQuotes(String value) {
+    if (value != null && value.length() >= 2
+        && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+      return value.substring(1, value.length() - 1);
+    }
+    return value;
+  }
+
+  private static String resolveCsvDelimiter(String delimiter) {
+    if (delimiter == null || delimiter.isEmpty()) {
+      return ",";
+    }
+    return "\\t".equals(delimiter) ? "\t" : delimiter;
+  }
+
+  // ======================== Field Mapping ========================
+
+  private static void setValues(String[] values, int[] fieldIndexes, String value) {
+    if (fieldIndexes != null) {
+      for (int fieldIndex : fieldIndexes) {
+        values[fieldIndex] = value;
+      }
+    }
+  }
+
+  private void addQuote(String[] values, List<Historyquote> quotes) {
+    Historyquote hq = new Historyquote();
+    for (int i = 0; i < fields.length; i++) {
+      setField(hq, fields[i], values[i]);
+    }
+    if (hq.getDate() != null) {
+      quotes.add(hq);
+    }
+  }
+
+  private void setField(Historyquote hq, FieldExtractor field, String rawValue) {
+    if (rawValue == null || rawValue.isEmpty()) {
+      return;
+    }
+    try {
+      switch (field.target()) {
+      case DATE:
+        hq.setDate(parseDate(rawValue));
+        break;
+      case OPEN:
+        hq.setOpen(parseNumber(rawValue) / field.divider());
+        break;
+      case HIGH:
+        hq.setHigh(parseNumber(rawValue) / field.divider());
+        break;
+      case LOW:
+        hq.setLow(parseNumber(rawValue) / field.divider());
+        break;
+      case CLOSE:
+        hq.setClose(parseNumber(rawValue) / field.divider());
+        break;
+      case VOLUME:
+        hq.setVolume((long) (parseNumber(rawValue) / field.divider()));
+        break;
+      }
+    } catch (Exception e) {
+      log.debug("Failed to set history field '{}' from '{}': {}", field.target(), rawValue, e.getMessage());
+    }
+  }
+
+  private LocalDate parseDate(String rawValue) {
+    try {
+      switch (dateFormatType) {
+      case UNIX_SECONDS:
+        return Instant.ofEpochSecond(Long.parseLong(rawValue)).atZone(zoneId).toLocalDate();
+      case UNIX_MILLIS:
+        return Instant.ofEpochMilli(Long.parseLong(rawValue)).atZone(zoneId).toLocalDate();
+      case PATTERN:
+        return LocalDate.parse(rawValue, dateFormatter);
+      case ISO_DATE:
+        return LocalDate.parse(rawValue);
+      case ISO_DATE_TIME:
+        return LocalDate.parse(rawValue.substring(0, Math.min(rawValue.length(), 10)));
+      default:
+        return null;
+      }
+    } catch (Exception e) {
+      log.debug("Failed to parse date '{}' with format {}: {}", rawValue, dateFormatType, e.getMessage());
+      return null;
+    }
+  }
+
+  private double parseNumber(String rawValue) {
+    if (rawValue.isBlank()) {
+      return 0.0;
+    }
+    switch (numberFormat) {
+    case GERMAN:
+      return FeedConnectorHelper.parseDoubleGE(rawValue);
+    case US:
+      return FeedConnectorHelper.parseDoubleUS(rawValue);
+    case SWISS:
+      return FeedConnectorHelper.parseDoubleCH(rawValue);
+    case PLAIN:
+    default:
+      return Double.parseDouble(rawValue.replace(",", "").trim());
+    }
+  }
+
+  // ======================== Compilation ========================
+
+  private static DateTimeFormatter compileDatePattern(GenericConnectorEndpoint endpoint) {
+    if (endpoint.getDateFormatType() == DateFormatType.PATTERN) {
+      try {
+        return DateTimeFormatter.ofPattern(endpoint.getDateFormatPattern());
+      } catch (RuntimeException e) {
+        log.warn("Invalid date format pattern '{}', no date can be parsed: {}", endpoint.getDateFormatPattern(),
+            e.getMessage());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the extractor of a field mapping, null for a mapping which can not set a field of a history quote.
+   */
+  private static FieldExtractor compileField(GenericConnectorFieldMapping mapping) {
+    HistoryTarget target = HistoryTarget.of(mapping.getTargetField());
+    if (target == null) {
+      return null;
+    }
+    double divider = 1.0;
+    if (target != HistoryTarget.DATE && mapping.getDividerExpression() != null) {
+      try {
+        divider = Double.parseDouble(mapping.getDividerExpression());
+      } catch (NumberFormatException e) {
+        log.warn("Field '{}' is ignored, its divider '{}' is not a number", mapping.getTargetField(),
+            mapping.getDividerExpression());
+        return null;
+      }
+    }
+    return new FieldExtractor(target, mapping.getSourceExpression(),
+        mapping.getCsvColumnIndex() != null ? mapping.getCsvColumnIndex() : 0, divider);
+  }
+
+  private static int[] append(int[] values, int value) {
+    if (values == null) {
+      return new int[] { value };
+    }
+    int[] extended = Arrays.copyOf(values, values.length + 1);
+    extended[values.length] = value;
+    return extended;
+  }
+
+  private enum HistoryTarget {
+    DATE, OPEN, HIGH, LOW, CLOSE, VOLUME;
+
+    static HistoryTarget of(String targetField) {
+      if (targetField == null) {
+        return null;
+      }
+      switch (targetField) {
+      case "date":
+        return DATE;
+      case "open":
+        return OPEN;
+      case "high":
+        return HIGH;
+      case "low":
+        return LOW;
+      case "close":
+        return CLOSE;
+      case "volume":
+        return VOLUME;
+      default:
+        return null;
+      }
+    }
+  }
+
+  private record FieldExtractor(HistoryTarget target, String sourceExpression, int csvColumnIndex, double divider) {
+  }
+
+  /**
+   * A segment of the configured dot paths. A numeric segment addresses an array element, any other segment a property
+   * of an object.
+   */
+  private static class PathNode {
+    final Map<String, PathNode> nameChildren = new HashMap<>();
+    final Map<Integer, PathNode> indexChildren = new HashMap<>();
+    boolean status;
+    boolean columnNames;
+    boolean data;
+    int[] fields;
+
+    PathNode add(String dotPath) {
+      PathNode node = this;
+      for (String part : dotPath.split("\\.")) {
+        try {
+          node = node.indexChildren.computeIfAbsent(Integer.parseInt(part), _ -> new PathNode());
+        } catch (NumberFormatException e) {
+          node = node.nameChildren.computeIfAbsent(part, _ -> new PathNode());
+        }
+      }
+      return node;
+    }
+
+    void addField(int fieldIndex) {
+      fields = append(fields, fieldIndex);
+    }
+
+    boolean isLeaf() {
+      return nameChildren.isEmpty() && indexChildren.isEmpty();
+    }
+  }
+
+  private static class JsonState {
+    final List<Historyquote> quotes = new ArrayList<>();
+    boolean dataFound;
+    /** Indexes of the fields by column of a column row array, null as long as the column names are not read. */
+    int[][] fieldsByColumn;
+    final List<List<String>> pendingRows = new ArrayList<>();
+    final List<Historyquote> parallelRows = new ArrayList<>();
+    int parallelSize = Integer.MAX_VALUE;
+  }
+}
@@ -16,9 +16,12 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,9 +36,8 @@ import grafioschtrader.entities.Historyquote;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.types.SubscriptionType;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.json.JsonMapper;
 
@@ -57,7 +59,7 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
   private static final ObjectMapper objectMapper = JsonMapper.builder()
       .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
 
-  private final Bucket bucket;
+  private static final RateLimit RATE_LIMIT = new RateLimit(4, Duration.ofMinutes(1), 1);
 
   static {
     supportedFeed = new HashMap<>();
@@ -71,8 +73,11 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
     super(supportedFeed, "twelvedata", "Twelve Data", null, EnumSet.of(UrlCheck.INTRADAY, UrlCheck.HISTORY));
     supportedAssetclassCategories = EnumSet.of(AssetclassCategory.CURRENCY_PAIR, AssetclassCategory.CRYPTOCURRENCY,
         AssetclassCategory.NON_INVESTABLE_INDICES, AssetclassCategory.EQUITIES, AssetclassCategory.ETF);
-    Bandwidth limit = Bandwidth.builder().capacity(4).refillIntervally(4, Duration.ofMinutes(1)).build();
-    this.bucket = Bucket.builder().addLimit(limit).build();
+  }
+
+  @Override
+  public RateLimit getRateLimit() {
+    return RATE_LIMIT;
   }
 
   @Override
@@ -80,6 +85,15 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
     return 900;
   }
 
+  /**
+   * Twelvedata charges a request for several symbols per symbol, so a batch saves only round trips and must not
+   * exceed the credits of a period.
+   */
+  @Override
+  public int getMaxBatchSize(FeedSupport feedSupport) {
+    return RATE_LIMIT.requests();
+  }
+
   private String getApiKeyString() {
     return "&" + TOKEN_PARAM_NAME + "=" + getApiKey();
   }
@@ -166,10 +180,73 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
     return historyquotes;
   }
 
+  @Override
+  public Map<Integer, List<Historyquote>> getEodSecuritiesHistory(final List<Security> securities,
+      final LocalDate from, final LocalDate to) throws Exception {
+    return getEodHistories(securities, Security::getUrlHistoryExtend, FeedConnectorHelper::getMinorUnitDivider, true,
+        from, to);
+  }
+
+  @Override
+  public Map<Integer, List<Historyquote>> getEodCurrenciesHistory(final List<Currencypair> currencyPairs,
+      final LocalDate from, final LocalDate to) throws Exception {
+    return getEodHistories(currencyPairs, this::getCurrencypairSymbol, _ -> 1.0, false, from, to);
+  }
+
+  /**
+   * Requests the time series of several symbols in JSON, the response contains an object for each symbol. A period
+   * which exceeds the data points of a single request is loaded symbol by symbol.
+   */
+  private <T extends Securitycurrency<T>> Map<Integer, List<Historyquote>> getEodHistories(List<T> securitycurrencies,
+      Function<T, String> tickerOf, ToDoubleFunction<T> dividerOf, boolean hasVolume, LocalDate from, LocalDate to)
+      throws Exception {
+    final Map<Integer, List<Historyquote>> historyquotesMap = new HashMap<>();
+    if (ChronoUnit.DAYS.between(from, to) / 7 * 5 > MAX_DATA_POINTS - 100) {
+      for (T securitycurrency : securitycurrencies) {
+        historyquotesMap.put(securitycurrency.getIdSecuritycurrency(), getEodSecurityCurrencypairHistory(
+            tickerOf.apply(securitycurrency), from, to, dividerOf.applyAsDouble(securitycurrency), hasVolume));
+      }
+      return historyquotesMap;
+    }
+    final Map<String, List<T>> tickerMap = groupByTicker(securitycurrencies, tickerOf);
+    final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(BaseConstants.STANDARD_DATE_FORMAT);
+    waitForTokensOrGo(tickerMap.size());
+    final JsonNode response = objectMapper.readTree(new URI(DOMAIN_NAME + "time_series?symbol="
+        + String.join(",", tickerMap.keySet()) + "&interval=1day&order=ASC&start_date=" + dateFormat.format(from)
+        + "&end_date=" + dateFormat.format(to) + "+23:59:59" + getApiKeyString()).toURL().openStream());
+    for (Map.Entry<String, List<T>> entry : tickerMap.entrySet()) {
+      final JsonNode seriesNode = tickerMap.size() == 1 ? response : response.path(entry.getKey());
+      if ("ok".equals(seriesNode.path("status").asString())) {
+        for (T securitycurrency : entry.getValue()) {
+          historyquotesMap.put(securitycurrency.getIdSecuritycurrency(), parseValues(seriesNode.path("values"),
+              dateFormat, dividerOf.applyAsDouble(securitycurrency), hasVolume));
+        }
+      }
+    }
+    return historyquotesMap;
+  }
+
+  private List<Historyquote> parseValues(JsonNode valuesNode, DateTimeFormatter dateFormat, double divider,
+      boolean hasVolume) {
+    final List<Historyquote> historyquotes = new ArrayList<>();
+    for (int i = 0; i < valuesNode.size(); i++) {
+      final JsonNode valueNode = valuesNode.get(i);
+      final String[] items = new String[] { valueNode.path("datetime").asString(), valueNode.path("open").asString(),
+          valueNode.path("high").asString(), valueNode.path("low").asString(), valueNode.path("close").asString(),
+          valueNode.path("volume").asString() };
+      Historyquote hq = parseResponseLineItems(items, dateFormat, divider, hasVolume && valueNode.has("volume"));
+      // Sometimes we get two rows for one date
+      if (historyquotes.isEmpty() || !historyquotes.getLast().getDate().equals(hq.getDate())) {
+        historyquotes.add(hq);
+      }
+    }
+    return historyquotes;
+  }
+
   private List<Historyquote> getEodSecurityCurrencypairHistoryMax5000(URL url, DateTimeFormatter dateFormat,
       double divider, boolean hasVolume) throws Exception {
     final List<Historyquote> historyquotes = new ArrayList<>();
-    waitForTokenOrGo(bucket);
+    waitForTokenOrGo();
     URLConnection connection = url.openConnection();
     try (InputStreamReader inputStream = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
         BufferedReader bufferedReader = new BufferedReader(inputStream)) {
@@ -224,7 +301,7 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
 
   @Override
   public void updateSecurityLastPrice(final Security security) throws Exception {
-    waitForTokenOrGo(bucket);
+    waitForTokenOrGo();
     var quote = objectMapper.readValue(new URI(getSecurityIntradayDownloadLink(security)).toURL().openStream(), Quote.class);
     quote.setValues(security, FeedConnectorHelper.getMinorUnitDivider(security), getIntradayDelayedSeconds());
   }
@@ -240,11 +317,54 @@ public class TwelvedataFeedConnector extends BaseFeedApiKeyConnector {
 
   @Override
   public void updateCurrencyPairLastPrice(final Currencypair currencypair) throws Exception {
-    waitForTokenOrGo(bucket);
+    waitForTokenOrGo();
     var quote = objectMapper.readValue(new URI(getCurrencypairIntradayDownloadLink(currencypair)).toURL().openStream(), Quote.class);
     quote.setValues(currencypair, 1.0, getIntradayDelayedSeconds());
   }
 
+  @Override
+  public List<Security> updateSecuritiesLastPrice(final List<Security> securities) throws Exception {
+    return updateLastPrices(securities, Security::getUrlIntraExtend, FeedConnectorHelper::getMinorUnitDivider);
+  }
+
+  @Override
+  public List<Currencypair> updateCurrencyPairsLastPrice(final List<Currencypair> currencyPairs) throws Exception {
+    return updateLastPrices(currencyPairs, this::getCurrencypairSymbol, _ -> 1.0);
+  }
+
+  /**
+   * Requests the quotes of several symbols, the response contains an object for each symbol. The object of an unknown
+   * symbol is an error, the instruments of this symbol are not updated.
+   */
+  private <T extends Securitycurrency<T>> List<T> updateLastPrices(List<T> securitycurrencies,
+      Function<T, String> tickerOf, ToDoubleFunction<T> dividerOf) throws Exception {
+    final Map<String, List<T>> tickerMap = groupByTicker(securitycurrencies, tickerOf);
+    waitForTokensOrGo(tickerMap.size());
+    final JsonNode response = objectMapper.readTree(
+        new URI(getSecurityCurrencyIntradayDownloadLink(String.join(",", tickerMap.keySet()))).toURL().openStream());
+    final List<T> updated = new ArrayList<>();
+    for (Map.Entry<String, List<T>> entry : tickerMap.entrySet()) {
+      final JsonNode quoteNode = tickerMap.size() == 1 ? response : response.path(entry.getKey());
+      if (quoteNode.has("close")) {
+        final Quote quote = objectMapper.treeToValue(quoteNode, Quote.class);
+        for (T securitycurrency : entry.getValue()) {
+          quote.setValues(securitycurrency, dividerOf.applyAsDouble(securitycurrency), getIntradayDelayedSeconds());
+          updated.add(securitycurrency);
+        }
+      }
+    }
+    return updated;
+  }
+
+  private static <T> Map<String, List<T>> groupByTicker(List<T> securitycurrencies, Function<T, String> tickerOf) {
+    final Map<String, List<T>> tickerMap = new LinkedHashMap<>();
+    for (T securitycurrency : securitycurrencies) {
+      tickerMap.computeIfAbsent(tickerOf.apply(securitycurrency).toUpperCase(), _ -> new ArrayList<>())
+          .add(securitycurrency);
+    }
+    return tickerMap;
+  }
+
   private static class Quote {
     // public String symbol;
     public double open;
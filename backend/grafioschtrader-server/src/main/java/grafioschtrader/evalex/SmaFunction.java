@@ -1,9 +1,7 @@
 package grafioschtrader.evalex;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,44 +12,36 @@ import com.ezylang.evalex.functions.AbstractFunction;
 import com.ezylang.evalex.functions.FunctionParameter;
 import com.ezylang.evalex.parser.Token;
 
-import grafioschtrader.entities.Historyquote;
-import grafioschtrader.ta.TaIndicatorData;
-import grafioschtrader.ta.indicator.calc.SimpleMovingAverage;
+import grafioschtrader.ta.indicator.calc.IncrementalIndicatorState;
 
 /**
- * Custom EvalEx function that computes the Simple Moving Average (SMA) for a given period. Usage in expressions:
- * {@code SMA(200)}, {@code SMA(50)}. The function returns the most recent SMA value computed from historical closing
- * prices. Results are cached by period so that {@code SMA(200) > SMA(50)} computes each SMA only once per evaluation.
+ * Custom EvalEx function that returns the Simple Moving Average (SMA) for a given period. Usage in expressions:
+ * {@code SMA(200)}, {@code SMA(50)}. The function returns the most recent SMA value of the historical closing prices,
+ * taken from the {@link IncrementalIndicatorState} of the security, which keeps it up to date between evaluations.
+ * The history used for the calculation starts at the given date.
  */
 @FunctionParameter(name = "period")
 public class SmaFunction extends AbstractFunction {
 
   private static final Logger log = LoggerFactory.getLogger(SmaFunction.class);
 
-  private final List<Historyquote> historyquotes;
-  private final Map<Integer, Double> cache = new HashMap<>();
+  private final IncrementalIndicatorState indicatorState;
+  private final LocalDate fromDate;
 
-  public SmaFunction(List<Historyquote> historyquotes) {
-    this.historyquotes = historyquotes;
+  public SmaFunction(IncrementalIndicatorState indicatorState, LocalDate fromDate) {
+    this.indicatorState = indicatorState;
+    this.fromDate = fromDate;
   }
 
   @Override
   public EvaluationValue evaluate(Expression expression, Token functionToken, EvaluationValue... parameterValues) {
     int period = parameterValues[0].getNumberValue().intValue();
-    return EvaluationValue.numberValue(BigDecimal.valueOf(cache.computeIfAbsent(period, this::computeSma)));
-  }
-
-  private double computeSma(int period) {
-    if (historyquotes.size() <= period) {
-      log.warn("Insufficient history data for SMA({}): have {} quotes, need > {}", period, historyquotes.size(),
-          period);
-      return 0.0;
-    }
-    SimpleMovingAverage sma = new SimpleMovingAverage(period, historyquotes.size());
-    for (Historyquote hq : historyquotes) {
-      sma.addData(hq.getDate(), hq.getClose());
+    double value = indicatorState.getSma(period, fromDate);
+    if (Double.isNaN(value)) {
+      log.warn("Insufficient history data for SMA({}): have {} quotes, need > {}", period,
+          indicatorState.countFrom(fromDate), period);
+      value = 0.0;
     }
-    TaIndicatorData[] data = sma.getTaIndicatorData();
-    return data.length > 0 ? data[data.length - 1].value : 0.0;
+    return EvaluationValue.numberValue(BigDecimal.valueOf(value));
   }
 }
@@ -0,0 +1,120 @@
+package grafioschtrader.gtnet;
+
+import java.io.OutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import grafiosch.entities.GTNet;
+import grafiosch.gtnet.m2m.model.GTNetPublicDTO;
+import grafioschtrader.gtnet.model.msg.HistoryquoteExchangeMsg;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Converts the payload of the historyquote exchange and push messages between {@link HistoryquoteExchangeMsg} and the
+ * JSON tree of the message envelope. The records are written with {@link HistoryquoteColumnarCodec} when the receiver
+ * announced the encoding through its payload encodings, otherwise as JSON. A received payload is decoded in both
+ * cases.
+ * <p>
+ * With the compact encoding the sizes of the transmitted payload and of the same payload as JSON are determined, so
+ * that the saving can be recorded in the exchange log. For a JSON payload both sizes are 0.
+ * </p>
+ */
+@Component
+public class HistoryquotePayloadEncoder {
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * Checks whether the sender of a received message can read the compact record encoding.
+   */
+  public static boolean isCompactSupported(GTNetPublicDTO sourceGtNet) {
+    return sourceGtNet != null && sourceGtNet.supportsPayloadEncoding(HistoryquoteColumnarCodec.ENCODING);
+  }
+
+  /**
+   * Checks whether a remote server can read the compact record encoding.
+   */
+  public static boolean isCompactSupported(GTNet remoteGTNet) {
+    return remoteGTNet.supportsPayloadEncoding(HistoryquoteColumnarCodec.ENCODING);
+  }
+
+  /**
+   * Creates the envelope payload of a message. With the compact encoding the records are moved out of the instruments
+   * of the message, so counts of records must be taken before.
+   *
+   * @param msg     the message with the records as objects
+   * @param compact true if the receiver can read the compact record encoding
+   * @return the payload and its sizes
+   */
+  public EncodedPayload toPayload(HistoryquoteExchangeMsg msg, boolean compact) {
+    if (!compact || msg.getTotalRecordCount() == 0) {
+      return new EncodedPayload(objectMapper.valueToTree(msg), 0, 0);
+    }
+    long jsonSize = countBytes(msg);
+    HistoryquoteColumnarCodec.encode(msg);
+    msg.jsonSize = jsonSize;
+    JsonNode payload = objectMapper.valueToTree(msg);
+    return new EncodedPayload(payload, countBytes(payload), jsonSize);
+  }
+
+  /**
+   * Reads a received payload and restores compact encoded records.
+   *
+   * @param payload the payload of the received envelope
+   * @return the message with its records as objects, together with the sizes of the payload
+   */
+  public DecodedPayload fromPayload(JsonNode payload) {
+    HistoryquoteExchangeMsg msg = objectMapper.treeToValue(payload, HistoryquoteExchangeMsg.class);
+    if (msg == null || msg.recordEncoding == null) {
+      return new DecodedPayload(msg, 0, 0);
+    }
+    long bytesOnWire = countBytes(payload);
+    long bytesJson = msg.jsonSize == null ? 0 : msg.jsonSize;
+    HistoryquoteColumnarCodec.decode(msg);
+    msg.jsonSize = null;
+    return new DecodedPayload(msg, bytesOnWire, bytesJson);
+  }
+
+  private long countBytes(Object value) {
+    CountingOutputStream out = new CountingOutputStream();
+    objectMapper.writeValue(out, value);
+    return out.count;
+  }
+
+  /**
+   * Envelope payload of a message to be sent.
+   *
+   * @param payload     the JSON tree for the envelope
+   * @param bytesOnWire size of the payload with the compact encoding, 0 for JSON
+   * @param bytesJson   size the payload would have had as JSON, 0 for JSON
+   */
+  public record EncodedPayload(JsonNode payload, long bytesOnWire, long bytesJson) {
+  }
+
+  /**
+   * Message read from a received payload.
+   *
+   * @param msg         the message with its records as objects
+   * @param bytesOnWire size of the payload with the compact encoding, 0 for JSON
+   * @param bytesJson   size the payload would have had as JSON, 0 for JSON
+   */
+  public record DecodedPayload(HistoryquoteExchangeMsg msg, long bytesOnWire, long bytesJson) {
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
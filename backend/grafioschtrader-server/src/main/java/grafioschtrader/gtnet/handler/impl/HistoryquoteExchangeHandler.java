@@ -19,6 +19,8 @@ import grafiosch.gtnet.handler.GTNetMessageContext;
 import grafiosch.gtnet.handler.HandlerResult;
 import grafioschtrader.gtnet.GTNetExchangeKindType;
 import grafioschtrader.gtnet.GTNetMessageCodeType;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder.EncodedPayload;
 import grafioschtrader.gtnet.handler.impl.historyquote.HistoryquoteQueryStrategy;
 import grafioschtrader.gtnet.handler.impl.historyquote.OpenHistoryquoteQueryStrategy;
 import grafioschtrader.gtnet.handler.impl.historyquote.PushOpenHistoryquoteQueryStrategy;
@@ -37,6 +39,8 @@ import grafioschtrader.service.GTNetExchangeLogService;
  *       instruments and local historyquote for local instruments</li>
  *   <li>{@link OpenHistoryquoteQueryStrategy} for AC_OPEN: Queries local historyquote table only</li>
  * </ul>
+ * The records of the response are sent in the compact columnar encoding when the requester announced it in the
+ * payload encodings of its sourceGtNet, otherwise as JSON.
  *
  * @see GTNetMessageCodeType#GT_NET_HISTORYQUOTE_EXCHANGE_SEL_C
  */
@@ -60,6 +64,9 @@ public class HistoryquoteExchangeHandler extends AbstractGTNetMessageHandler {
   @Autowired
   private GTNetExchangeLogService gtNetExchangeLogService;
 
+  @Autowired
+  private HistoryquotePayloadEncoder historyquotePayloadEncoder;
+
   @Override
   public GTNetMessageCodeType getSupportedMessageCode() {
     return GTNetMessageCodeType.GT_NET_HISTORYQUOTE_EXCHANGE_SEL_C;
@@ -131,10 +138,16 @@ public class HistoryquoteExchangeHandler extends AbstractGTNetMessageHandler {
         context.getRemoteGTNet() != null ? context.getRemoteGTNet().getDomainRemoteName() : "unknown",
         acceptMode);
 
+    // Records in the compact encoding when the requester announced it, otherwise as JSON
+    int responseInstrumentCount = response.getTotalInstrumentCount();
+    EncodedPayload encodedPayload = historyquotePayloadEncoder.toPayload(response,
+        HistoryquotePayloadEncoder.isCompactSupported(context.getRequest().sourceGtNet));
+
     // Log exchange statistics as supplier
     if (context.getRemoteGTNet() != null) {
       gtNetExchangeLogService.logAsSupplier(context.getRemoteGTNet(), GTNetExchangeKindType.HISTORICAL_PRICES,
-          totalInstruments, response.getTotalInstrumentCount(), responseRecordCount);
+          totalInstruments, responseInstrumentCount, responseRecordCount, encodedPayload.bytesOnWire(),
+          encodedPayload.bytesJson());
     }
 
     // Store response message
@@ -142,7 +155,8 @@ public class HistoryquoteExchangeHandler extends AbstractGTNetMessageHandler {
         null, null, storedRequest);
 
     // Create response envelope with payload
-    return new HandlerResult.ImmediateResponse<>(createResponseEnvelopeWithPayload(context, responseMsg, response));
+    return new HandlerResult.ImmediateResponse<>(
+        createResponseEnvelopeWithPayload(context, responseMsg, encodedPayload.payload()));
   }
 
   /**
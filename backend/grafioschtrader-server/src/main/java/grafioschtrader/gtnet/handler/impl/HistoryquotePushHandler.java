@@ -24,6 +24,8 @@ import grafioschtrader.entities.GTNetInstrumentSecurity;
 import grafioschtrader.entities.Historyquote;
 import grafioschtrader.gtnet.GTNetExchangeKindType;
 import grafioschtrader.gtnet.GTNetMessageCodeType;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder.DecodedPayload;
 import grafioschtrader.gtnet.m2m.model.HistoryquoteRecordDTO;
 import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
 import grafioschtrader.gtnet.model.msg.HistoryquoteExchangeMsg;
@@ -51,6 +53,7 @@ import grafioschtrader.service.GTNetExchangeLogService;
  *   <li>Local instruments (matching ISIN+currency exists in local security table): stored in historyquote table</li>
  *   <li>Foreign instruments (no local match): stored in gt_net_historyquote table</li>
  * </ul>
+ * The pushed records may be in the compact columnar encoding, see {@link HistoryquotePayloadEncoder}.
  *
  * @see GTNetMessageCodeType#GT_NET_HISTORYQUOTE_PUSH_SEL_C
  * @see GTNetMessageCodeType#GT_NET_HISTORYQUOTE_PUSH_ACK_S
@@ -75,6 +78,9 @@ public class HistoryquotePushHandler extends AbstractGTNetMessageHandler {
   @Autowired
   private GTNetExchangeLogService gtNetExchangeLogService;
 
+  @Autowired
+  private HistoryquotePayloadEncoder historyquotePayloadEncoder;
+
   @Override
   public GTNetMessageCodeType getSupportedMessageCode() {
     return GTNetMessageCodeType.GT_NET_HISTORYQUOTE_PUSH_SEL_C;
@@ -107,7 +113,8 @@ public class HistoryquotePushHandler extends AbstractGTNetMessageHandler {
       return createAckResponse(context, storedRequest, 0);
     }
 
-    HistoryquoteExchangeMsg pushPayload = context.getPayloadAs(HistoryquoteExchangeMsg.class);
+    DecodedPayload decodedPayload = historyquotePayloadEncoder.fromPayload(context.getPayload());
+    HistoryquoteExchangeMsg pushPayload = decodedPayload.msg();
     if (pushPayload == null || pushPayload.isEmpty()) {
       return createAckResponse(context, storedRequest, 0);
     }
@@ -139,7 +146,8 @@ public class HistoryquotePushHandler extends AbstractGTNetMessageHandler {
     // Log exchange statistics as supplier (we're receiving data)
     if (context.getRemoteGTNet() != null) {
       gtNetExchangeLogService.logAsSupplier(context.getRemoteGTNet(), GTNetExchangeKindType.HISTORICAL_PRICES,
-          pushPayload.getTotalInstrumentCount(), pushPayload.getTotalInstrumentCount(), acceptedCount);
+          pushPayload.getTotalInstrumentCount(), pushPayload.getTotalInstrumentCount(), acceptedCount,
+          decodedPayload.bytesOnWire(), decodedPayload.bytesJson());
     }
 
     return createAckResponse(context, storedRequest, acceptedCount);
@@ -2,30 +2,29 @@ package grafioschtrader.gtnet.handler.impl.lastprice;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import grafioschtrader.entities.GTNetInstrumentCurrencypair;
-import grafioschtrader.entities.GTNetInstrumentSecurity;
-import grafioschtrader.entities.GTNetLastprice;
+import grafioschtrader.entities.GTNetInstrument;
 import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
 import grafioschtrader.repository.GTNetInstrumentCurrencypairJpaRepository;
 import grafioschtrader.repository.GTNetInstrumentSecurityJpaRepository;
-import grafioschtrader.repository.GTNetLastpriceJpaRepository;
+import grafioschtrader.service.GTNetLastpricePoolService;
+import grafioschtrader.service.GTNetLastpricePoolStore;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolKey;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolPrice;
 
 /**
  * Strategy for AC_PUSH_OPEN mode: queries GTNetInstrument* and GTNetLastprice tables (shared push pool).
  *
  * Behavior:
  * <ul>
- *   <li>Queries GTNetInstrumentSecurity/GTNetInstrumentCurrencypair and GTNetLastprice tables</li>
+ *   <li>Queries the push pool through its in-memory copy {@link GTNetLastpricePoolStore}</li>
  *   <li>Returns prices from the shared pool that are newer than requested</li>
  *   <li>For instruments NOT found in the pool: creates new entries in GTNetInstrument* and GTNetLastprice
  *       if the request has a non-null last price, then returns the created entry</li>
@@ -42,7 +41,10 @@ public class PushOpenLastpriceQueryStrategy implements LastpriceQueryStrategy {
   private GTNetInstrumentCurrencypairJpaRepository gtNetInstrumentCurrencypairJpaRepository;
 
   @Autowired
-  private GTNetLastpriceJpaRepository gtNetLastpriceJpaRepository;
+  private GTNetLastpricePoolService gtNetLastpricePoolService;
+
+  @Autowired
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
 
   @Override
   @Transactional
@@ -53,69 +55,12 @@ public class PushOpenLastpriceQueryStrategy implements LastpriceQueryStrategy {
       return result;
     }
 
-    // Build list of valid ISIN+currency tuples
-    List<String[]> tuples = new ArrayList<>();
-    Map<String, InstrumentPriceDTO> requestMap = new HashMap<>();
     for (InstrumentPriceDTO req : requested) {
       if (req.getIsin() != null && req.getCurrency() != null) {
-        tuples.add(new String[] { req.getIsin(), req.getCurrency() });
-        requestMap.put(req.getIsin() + ":" + req.getCurrency(), req);
-      }
-    }
-
-    if (tuples.isEmpty()) {
-      return result;
-    }
-
-    // Single batch query for all security instruments from pool
-    List<GTNetInstrumentSecurity> instruments = gtNetInstrumentSecurityJpaRepository.findByIsinCurrencyTuples(tuples);
-
-    // Get lastprice entries for found instruments
-    List<Integer> instrumentIds = instruments.stream()
-        .map(GTNetInstrumentSecurity::getIdGtNetInstrument)
-        .toList();
-    Map<Integer, GTNetLastprice> lastpriceMap = new HashMap<>();
-    if (!instrumentIds.isEmpty()) {
-      gtNetLastpriceJpaRepository.findByGtNetInstrumentIdGtNetInstrumentIn(instrumentIds)
-          .forEach(lp -> lastpriceMap.put(lp.getGtNetInstrument().getIdGtNetInstrument(), lp));
-    }
-
-    // Track which instruments were found in the pool
-    Set<String> foundKeys = new HashSet<>();
-
-    // Match results with requests and filter by timestamp and freshness
-    for (GTNetInstrumentSecurity instrument : instruments) {
-      String key = instrument.getIsin() + ":" + instrument.getCurrency();
-      foundKeys.add(key);
-      InstrumentPriceDTO req = requestMap.get(key);
-      GTNetLastprice lastprice = lastpriceMap.get(instrument.getIdGtNetInstrument());
-
-      if (req != null && lastprice != null && isNewer(lastprice.getTimestamp(), req.getTimestamp())
-          && isFreshEnough(lastprice.getTimestamp(), minAcceptableTimestamp)) {
-        result.add(fromInstrumentAndLastprice(instrument, lastprice));
+        queryPushPool(PoolKey.ofSecurity(req.getIsin(), req.getCurrency()), req, minAcceptableTimestamp, result,
+            () -> gtNetInstrumentSecurityJpaRepository.findOrCreateInstrument(req.getIsin(), req.getCurrency()));
       }
     }
-
-    // For instruments not found in pool, create new entries if last is not null
-    for (Map.Entry<String, InstrumentPriceDTO> entry : requestMap.entrySet()) {
-      if (!foundKeys.contains(entry.getKey())) {
-        InstrumentPriceDTO req = entry.getValue();
-        if (req.getLast() != null) {
-          // Create instrument entry
-          GTNetInstrumentSecurity newInstrument = gtNetInstrumentSecurityJpaRepository
-              .findOrCreateInstrument(req.getIsin(), req.getCurrency());
-
-          // Create lastprice entry
-          GTNetLastprice newLastprice = new GTNetLastprice();
-          newLastprice.setGtNetInstrument(newInstrument);
-          updateLastpriceFromDTO(newLastprice, req);
-          gtNetLastpriceJpaRepository.save(newLastprice);
-
-          result.add(req);
-        }
-      }
-    }
-
     return result;
   }
 
@@ -128,70 +73,32 @@ public class PushOpenLastpriceQueryStrategy implements LastpriceQueryStrategy {
       return result;
     }
 
-    // Build list of valid fromCurrency+toCurrency tuples
-    List<String[]> tuples = new ArrayList<>();
-    Map<String, InstrumentPriceDTO> requestMap = new HashMap<>();
     for (InstrumentPriceDTO req : requested) {
       if (req.getCurrency() != null && req.getToCurrency() != null) {
-        tuples.add(new String[] { req.getCurrency(), req.getToCurrency() });
-        requestMap.put(req.getCurrency() + ":" + req.getToCurrency(), req);
-      }
-    }
-
-    if (tuples.isEmpty()) {
-      return result;
-    }
-
-    // Single batch query for all currency pair instruments from pool
-    List<GTNetInstrumentCurrencypair> instruments = gtNetInstrumentCurrencypairJpaRepository.findByCurrencyTuples(tuples);
-
-    // Get lastprice entries for found instruments
-    List<Integer> instrumentIds = instruments.stream()
-        .map(GTNetInstrumentCurrencypair::getIdGtNetInstrument)
-        .toList();
-    Map<Integer, GTNetLastprice> lastpriceMap = new HashMap<>();
-    if (!instrumentIds.isEmpty()) {
-      gtNetLastpriceJpaRepository.findByGtNetInstrumentIdGtNetInstrumentIn(instrumentIds)
-          .forEach(lp -> lastpriceMap.put(lp.getGtNetInstrument().getIdGtNetInstrument(), lp));
-    }
-
-    // Track which instruments were found in the pool
-    Set<String> foundKeys = new HashSet<>();
-
-    // Match results with requests and filter by timestamp and freshness
-    for (GTNetInstrumentCurrencypair instrument : instruments) {
-      String key = instrument.getFromCurrency() + ":" + instrument.getToCurrency();
-      foundKeys.add(key);
-      InstrumentPriceDTO req = requestMap.get(key);
-      GTNetLastprice lastprice = lastpriceMap.get(instrument.getIdGtNetInstrument());
-
-      if (req != null && lastprice != null && isNewer(lastprice.getTimestamp(), req.getTimestamp())
-          && isFreshEnough(lastprice.getTimestamp(), minAcceptableTimestamp)) {
-        result.add(fromInstrumentAndLastprice(instrument, lastprice));
+        queryPushPool(PoolKey.ofCurrencypair(req.getCurrency(), req.getToCurrency()), req, minAcceptableTimestamp,
+            result, () -> gtNetInstrumentCurrencypairJpaRepository.findOrCreateInstrument(req.getCurrency(),
+                req.getToCurrency()));
       }
     }
+    return result;
+  }
 
-    // For instruments not found in pool, create new entries if last is not null
-    for (Map.Entry<String, InstrumentPriceDTO> entry : requestMap.entrySet()) {
-      if (!foundKeys.contains(entry.getKey())) {
-        InstrumentPriceDTO req = entry.getValue();
-        if (req.getLast() != null) {
-          // Create instrument entry
-          GTNetInstrumentCurrencypair newInstrument = gtNetInstrumentCurrencypairJpaRepository
-              .findOrCreateInstrument(req.getCurrency(), req.getToCurrency());
-
-          // Create lastprice entry
-          GTNetLastprice newLastprice = new GTNetLastprice();
-          newLastprice.setGtNetInstrument(newInstrument);
-          updateLastpriceFromDTO(newLastprice, req);
-          gtNetLastpriceJpaRepository.save(newLastprice);
-
-          result.add(req);
-        }
+  /**
+   * Adds the pool price of a requested instrument if it is newer than the request and fresh enough. An instrument not
+   * found in the pool is created with the price of the request if it has a last price, and the request is returned.
+   */
+  private void queryPushPool(PoolKey key, InstrumentPriceDTO req, LocalDateTime minAcceptableTimestamp,
+      List<InstrumentPriceDTO> result, Supplier<? extends GTNetInstrument> findOrCreate) {
+    if (gtNetLastpricePoolStore.getIdGtNetInstrument(key) != null) {
+      PoolPrice price = gtNetLastpricePoolStore.getPrice(key);
+      if (price != null && isNewer(price.timestamp(), req.getTimestamp())
+          && isFreshEnough(price.timestamp(), minAcceptableTimestamp)) {
+        result.add(price.toInstrumentPriceDTO(key));
       }
+    } else if (req.getLast() != null) {
+      gtNetLastpricePoolService.mergeIfNewer(key, findOrCreate, PoolPrice.of(req));
+      result.add(req);
     }
-
-    return result;
   }
 
   private boolean isNewer(LocalDateTime local, LocalDateTime requested) {
@@ -217,41 +124,4 @@ public class PushOpenLastpriceQueryStrategy implements LastpriceQueryStrategy {
     }
     return !localTimestamp.isBefore(minAcceptableTimestamp);
   }
-
-  private InstrumentPriceDTO fromInstrumentAndLastprice(GTNetInstrumentSecurity instrument, GTNetLastprice price) {
-    InstrumentPriceDTO dto = new InstrumentPriceDTO();
-    dto.setIsin(instrument.getIsin());
-    dto.setCurrency(instrument.getCurrency());
-    dto.setToCurrency(null);
-    dto.setTimestamp(price.getTimestamp());
-    dto.setOpen(price.getOpen());
-    dto.setHigh(price.getHigh());
-    dto.setLow(price.getLow());
-    dto.setLast(price.getLast());
-    dto.setVolume(price.getVolume());
-    return dto;
-  }
-
-  private InstrumentPriceDTO fromInstrumentAndLastprice(GTNetInstrumentCurrencypair instrument, GTNetLastprice price) {
-    InstrumentPriceDTO dto = new InstrumentPriceDTO();
-    dto.setIsin(null);
-    dto.setCurrency(instrument.getFromCurrency());
-    dto.setToCurrency(instrument.getToCurrency());
-    dto.setTimestamp(price.getTimestamp());
-    dto.setOpen(price.getOpen());
-    dto.setHigh(price.getHigh());
-    dto.setLow(price.getLow());
-    dto.setLast(price.getLast());
-    dto.setVolume(price.getVolume());
-    return dto;
-  }
-
-  private void updateLastpriceFromDTO(GTNetLastprice lastprice, InstrumentPriceDTO dto) {
-    lastprice.setTimestamp(dto.getTimestamp());
-    lastprice.setOpen(dto.getOpen());
-    lastprice.setHigh(dto.getHigh());
-    lastprice.setLow(dto.getLow());
-    lastprice.setLast(dto.getLast());
-    lastprice.setVolume(dto.getVolume());
-  }
 }
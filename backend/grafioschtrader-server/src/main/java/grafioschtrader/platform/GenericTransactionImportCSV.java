@@ -18,8 +18,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.mozilla.universalchardet.UniversalDetector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import grafiosch.common.ValueFormatConverter;
@@ -91,7 +89,12 @@ import grafioschtrader.repository.SecurityJpaRepository;
  * <li><b>Transaction Grouping:</b> Groups rows by day and order number</li>
  * <li><b>Import Position Creation:</b> Converts grouped data to import positions</li>
  * <li><b>Error Recording:</b> Captures parsing failures with diagnostic information</li>
+ * <li><b>Security Resolution:</b> Resolves the securities of all positions with set based queries</li>
+ * <li><b>Persistence:</b> Writes all positions and failures with JDBC batches</li>
  * </ol>
+ * <p>
+ * The whole file is parsed before anything is persisted. The duration and throughput of each stage is logged.
+ * </p>
  * 
  * <h3>Template Validation</h3>
  * <p>
@@ -178,8 +181,7 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
       Integer templateId) throws IOException {
     Map<TemplateConfigurationAndStateCsv, ImportTransactionTemplate> templateScannedMap = ImportTransactionHelperCsv
         .readTemplates(importTransactionTemplateList, userLocale);
-    parseCsv(templateScannedMap, importTransactionPosJpaRepository, securityJpaRepository,
-        importTransactionPosFailedJpaRepository, templateId);
+    parseCsv(templateScannedMap, importTransactionPosJpaRepository, securityJpaRepository, templateId);
   }
 
   /**
@@ -190,17 +192,17 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
    * @param templateScannedMap                      Available templates mapped to their configurations
    * @param importTransactionPosJpaRepository       Repository for persisting import positions
    * @param securityJpaRepository                   Repository for resolving security instruments
-   * @param importTransactionPosFailedJpaRepository Repository for recording failures
    * @param idTransactionImportTemplate             Required template ID for CSV processing
    * @throws IOException if file reading fails
    */
   private void parseCsv(Map<TemplateConfigurationAndStateCsv, ImportTransactionTemplate> templateScannedMap,
       ImportTransactionPosJpaRepository importTransactionPosJpaRepository, SecurityJpaRepository securityJpaRepository,
-      ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository,
       Integer idTransactionImportTemplate) throws IOException {
     if (!uploadFile.isEmpty()) {
       List<Cashaccount> cashaccountList = importTransactionHead.getSecurityaccount().getPortfolio()
           .getCashaccountList();
+      CsvImportBatch csvImportBatch = new CsvImportBatch();
+      long startNanos = System.nanoTime();
       TemplateConfigurationAndStateCsv template = null;
       ValueFormatConverter valueFormatConverter = null;
       List<ImportProperties> importPropertiesDuringDay = new ArrayList<>();
@@ -221,17 +223,85 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
             break;
           default:
             parseSingleDataLine(templateScannedMap, template, line, lineCounter, valueFormatConverter,
-                importPropertiesDuringDay, cashaccountList, importTransactionPosJpaRepository, securityJpaRepository,
-                importTransactionPosFailedJpaRepository);
+                importPropertiesDuringDay, csvImportBatch);
           }
         }
       }
       if (!importPropertiesDuringDay.isEmpty()) {
         transferToImportTransactionPosForOneDay(importPropertiesDuringDay, uploadFile.getOriginalFilename(),
-            templateScannedMap.get(template), template, securityJpaRepository, cashaccountList,
-            importTransactionPosJpaRepository);
+            templateScannedMap.get(template), template, csvImportBatch);
       }
+      long parsedNanos = System.nanoTime();
+      int securityCount = resolveSecuritiesAndCashaccounts(csvImportBatch, cashaccountList, securityJpaRepository,
+          importTransactionPosJpaRepository);
+      long resolvedNanos = System.nanoTime();
+      int positionCount = saveCsvImportBatch(csvImportBatch, importTransactionPosJpaRepository);
+      long savedNanos = System.nanoTime();
+      log.info("CSV import {}: parsed {} lines in {} ms ({}/s), resolved securities of {} positions in {} ms, "
+          + "wrote {} positions in {} ms ({}/s)", uploadFile.getOriginalFilename(), lineCounter,
+          (parsedNanos - startNanos) / 1_000_000, perSecond(lineCounter, parsedNanos - startNanos), securityCount,
+          (resolvedNanos - parsedNanos) / 1_000_000, positionCount, (savedNanos - resolvedNanos) / 1_000_000,
+          perSecond(positionCount, savedNanos - resolvedNanos));
+    }
+  }
+
+  /**
+   * Resolves the securities of all security transactions with one query by ISIN and one by ticker symbol. Afterwards
+   * the cash account is assigned and the readiness of every position is checked.
+   *
+   * @return the number of positions of security transactions
+   */
+  private int resolveSecuritiesAndCashaccounts(CsvImportBatch csvImportBatch, List<Cashaccount> cashaccountList,
+      SecurityJpaRepository securityJpaRepository,
+      ImportTransactionPosJpaRepository importTransactionPosJpaRepository) {
+    List<ImportTransactionPos> securityPosList = csvImportBatch.transactionPosGroups.stream()
+        .filter(TransactionPosGroup::securityTransaction).map(g -> g.importTransactionPosList().getFirst()).toList();
+    if (!securityPosList.isEmpty()) {
+      ImportSecurityLookup importSecurityLookup = ImportSecurityLookup.load(securityPosList, securityJpaRepository);
+      securityPosList.forEach(importSecurityLookup::setSecurityToImportWhenPossible);
     }
+    csvImportBatch.transactionPosGroups.forEach(g -> g.importTransactionPosList().forEach(
+        itp -> setCashaccountAndCheckReadyState(cashaccountList, itp, importTransactionPosJpaRepository)));
+    return securityPosList.size();
+  }
+
+  /**
+   * Writes the positions and the failed lines of the file with JDBC batches. The positions of an account transfer are
+   * connected after their IDs are known.
+   *
+   * @return the number of written positions
+   */
+  private int saveCsvImportBatch(CsvImportBatch csvImportBatch,
+      ImportTransactionPosJpaRepository importTransactionPosJpaRepository) {
+    List<ImportTransactionPos> importTransactionPosList = new ArrayList<>();
+    csvImportBatch.transactionPosGroups.forEach(g -> importTransactionPosList.addAll(g.importTransactionPosList()));
+    csvImportBatch.failedLines.forEach(f -> importTransactionPosList.add(f.importTransactionPos()));
+    if (importTransactionPosList.isEmpty()) {
+      return 0;
+    }
+    importTransactionPosJpaRepository.insertBatch(importTransactionPosList);
+
+    List<ImportTransactionPos> connectedPosList = new ArrayList<>();
+    csvImportBatch.transactionPosGroups.stream().filter(TransactionPosGroup::isAccountTransfer).forEach(g -> {
+      connectAccountTransfer(g.importTransactionPosList());
+      connectedPosList.addAll(g.importTransactionPosList());
+    });
+    if (!connectedPosList.isEmpty()) {
+      importTransactionPosJpaRepository.updateConnectedIdTransactionPosBatch(connectedPosList);
+    }
+    if (!csvImportBatch.failedLines.isEmpty()) {
+      importTransactionPosJpaRepository.insertFailedBatch(csvImportBatch.failedLines.stream()
+          .map(f -> new ImportTransactionPosFailed(f.importTransactionPos().getIdTransactionPos(),
+              f.idTransactionImportTemplate(), f.parseLineSuccessError().lastSuccessProperty,
+              f.parseLineSuccessError().isEmpty() ? "Incomplete information"
+                  : f.parseLineSuccessError().errorMessage))
+          .toList());
+    }
+    return importTransactionPosList.size();
+  }
+
+  private static long perSecond(int count, long nanos) {
+    return nanos <= 0 ? count : count * 1_000_000_000L / nanos;
   }
 
   /**
@@ -245,18 +315,13 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
    * @param lineCounter                             Current line number for error reporting
    * @param valueFormatConverter                    Converter for data type transformation
    * @param importPropertiesDuringDay               Accumulator for same-day transactions
-   * @param cashaccountList                         Available cash accounts for assignment
-   * @param importTransactionPosJpaRepository       Repository for persisting positions
-   * @param securityJpaRepository                   Repository for resolving securities
-   * @param importTransactionPosFailedJpaRepository Repository for recording failures
+   * @param csvImportBatch                          Collects the positions and failed lines of the file
    */
   protected void parseSingleDataLine(
       Map<TemplateConfigurationAndStateCsv, ImportTransactionTemplate> templateScannedMap,
       TemplateConfigurationAndStateCsv template, String line, int lineCounter,
       ValueFormatConverter valueFormatConverter, List<ImportProperties> importPropertiesDuringDay,
-      List<Cashaccount> cashaccountList, ImportTransactionPosJpaRepository importTransactionPosJpaRepository,
-      SecurityJpaRepository securityJpaRepository,
-      ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository) {
+      CsvImportBatch csvImportBatch) {
 
     // Data lines
     String[] values = StringUtils.splitByWholeSeparatorPreserveAllTokens(line, template.getDelimiterField());
@@ -270,16 +335,15 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
           // Day of transaction has changed
 
           transferToImportTransactionPosForOneDay(importPropertiesDuringDay, uploadFile.getOriginalFilename(),
-              templateScannedMap.get(template), template, securityJpaRepository, cashaccountList,
-              importTransactionPosJpaRepository);
+              templateScannedMap.get(template), template, csvImportBatch);
           importPropertiesDuringDay.clear();
         }
         importPropertiesDuringDay.add(parseLineSuccessError.importProperties);
 
       } else {
         if (!parseLineSuccessError.isEmpty()) {
-          failedReadLine(importTransactionPosFailedJpaRepository, importTransactionPosJpaRepository,
-              parseLineSuccessError, template.getImportTransactionTemplate().getIdTransactionImportTemplate(),
+          failedReadLine(csvImportBatch, parseLineSuccessError,
+              template.getImportTransactionTemplate().getIdTransactionImportTemplate(),
               uploadFile.getOriginalFilename(), lineCounter);
         }
       }
@@ -371,14 +435,11 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
    * @param fileName                          Original filename for tracking
    * @param importTransactionTemplate         Template used for parsing
    * @param template                          Template configuration for order support checking
-   * @param securityJpaRepository             Repository for resolving securities
-   * @param cashaccountList                   Available cash accounts
-   * @param importTransactionPosJpaRepository Repository for persisting positions
+   * @param csvImportBatch                    Collects the created positions
    */
   private void transferToImportTransactionPosForOneDay(List<ImportProperties> importPropertiesDuringDay,
       String fileName, ImportTransactionTemplate importTransactionTemplate, TemplateConfigurationAndStateCsv template,
-      SecurityJpaRepository securityJpaRepository, List<Cashaccount> cashaccountList,
-      ImportTransactionPosJpaRepository importTransactionPosJpaRepository) {
+      CsvImportBatch csvImportBatch) {
 
     if (importPropertiesDuringDay.size() > 1 && template.isOrderSupport()) {
       Map<String, List<ImportProperties>> orderMap = importPropertiesDuringDay.stream()
@@ -388,39 +449,33 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
             || StringUtils.isNumeric(entry.getKey()) && ignoreOrderPattern.matcher(entry.getKey()).matches()) {
           for (ImportProperties ip : entry.getValue()) {
             createImportTransactionPosByOrder(Arrays.asList(ip), fileName, importTransactionTemplate,
-                securityJpaRepository, cashaccountList, importTransactionPosJpaRepository);
+                csvImportBatch);
           }
         } else {
           // Instance of ImportProperties with same order belongs together
-          createImportTransactionPosByOrder(entry.getValue(), fileName, importTransactionTemplate,
-              securityJpaRepository, cashaccountList, importTransactionPosJpaRepository);
+          createImportTransactionPosByOrder(entry.getValue(), fileName, importTransactionTemplate, csvImportBatch);
         }
       }
     } else {
       importPropertiesDuringDay.forEach(ip -> createImportTransactionPosByOrder(Arrays.asList(ip), fileName,
-          importTransactionTemplate, securityJpaRepository, cashaccountList, importTransactionPosJpaRepository));
+          importTransactionTemplate, csvImportBatch));
     }
   }
 
   /**
    * Creates import transaction positions for a group of related transaction properties. Each group represents a
-   * complete logical transaction that may span multiple CSV rows, processed within its own transaction boundary for
-   * data consistency.
+   * complete logical transaction that may span multiple CSV rows. The positions are persisted with the whole file.
    * 
-   * @param importPropertiesList              Related transaction properties to process together
-   * @param fileName                          Original filename for tracking
-   * @param importTransactionTemplate         Template used for parsing
-   * @param securityJpaRepository             Repository for resolving securities
-   * @param cashaccountList                   Available cash accounts
-   * @param importTransactionPosJpaRepository Repository for persisting positions
+   * @param importPropertiesList      Related transaction properties to process together
+   * @param fileName                  Original filename for tracking
+   * @param importTransactionTemplate Template used for parsing
+   * @param csvImportBatch            Collects the created positions
    */
-  @Transactional
-  @Modifying
   private void createImportTransactionPosByOrder(List<ImportProperties> importPropertiesList, String fileName,
-      ImportTransactionTemplate importTransactionTemplate, SecurityJpaRepository securityJpaRepository,
-      List<Cashaccount> cashaccountList, ImportTransactionPosJpaRepository importTransactionPosJpaRepository) {
-    checkAndSaveSuccessImportTransaction(importTransactionTemplate, cashaccountList, importPropertiesList, fileName,
-        importTransactionPosJpaRepository, securityJpaRepository);
+      ImportTransactionTemplate importTransactionTemplate, CsvImportBatch csvImportBatch) {
+    csvImportBatch.transactionPosGroups.add(new TransactionPosGroup(
+        createImportTransactionPosList(importTransactionTemplate, importPropertiesList, fileName),
+        isSecurityTransaction(importPropertiesList)));
   }
 
   /**
@@ -428,29 +483,19 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
    * position records with failure details including the last successfully parsed field and specific error messages for
    * template and data format issues.
    * 
-   * @param importTransactionPosFailedJpaRepository Repository for storing failure details
-   * @param importTransactionPosJpaRepository       Repository for creating failure records
-   * @param parseLineSuccessError                   Error details from parsing attempt
-   * @param idTransactionImportTemplate             Template ID that was attempted
-   * @param fileName                                Original filename for tracking
-   * @param lineNumber                              Line number where parsing failed
+   * @param csvImportBatch              Collects the failed lines
+   * @param parseLineSuccessError       Error details from parsing attempt
+   * @param idTransactionImportTemplate Template ID that was attempted
+   * @param fileName                    Original filename for tracking
+   * @param lineNumber                  Line number where parsing failed
    */
-  @Transactional
-  @Modifying
-  private void failedReadLine(ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository,
-      ImportTransactionPosJpaRepository importTransactionPosJpaRepository, ParseLineSuccessError parseLineSuccessError,
+  private void failedReadLine(CsvImportBatch csvImportBatch, ParseLineSuccessError parseLineSuccessError,
       Integer idTransactionImportTemplate, String fileName, Integer lineNumber) {
-
     ImportTransactionPos importTransactionPos = new ImportTransactionPos(importTransactionHead.getIdTenant(), fileName,
         importTransactionHead.getIdTransactionHead());
     importTransactionPos.setIdFilePart(lineNumber);
-    importTransactionPos = importTransactionPosJpaRepository.save(importTransactionPos);
-    ImportTransactionPosFailed importTransactionPosFailed = new ImportTransactionPosFailed(
-        importTransactionPos.getIdTransactionPos(), idTransactionImportTemplate,
-        parseLineSuccessError.lastSuccessProperty,
-        parseLineSuccessError.isEmpty() ? "Incomplete information" : parseLineSuccessError.errorMessage);
-    importTransactionPosFailedJpaRepository.save(importTransactionPosFailed);
-
+    csvImportBatch.failedLines.add(new FailedLine(importTransactionPos, idTransactionImportTemplate,
+        parseLineSuccessError));
   }
 
   /**
@@ -483,6 +528,34 @@ public class GenericTransactionImportCSV extends GenericTransactionImportCsvPdfB
     return templateOpt.get();
   }
 
+  /**
+   * Positions and failed lines of a CSV file, they are collected while the file is parsed and persisted together.
+   */
+  protected static class CsvImportBatch {
+    private final List<TransactionPosGroup> transactionPosGroups = new ArrayList<>();
+    private final List<FailedLine> failedLines = new ArrayList<>();
+  }
+
+  /**
+   * The positions of one logical transaction.
+   *
+   * @param importTransactionPosList one position, or the two positions of an account transfer
+   * @param securityTransaction      true when the security of the position must be resolved
+   */
+  private record TransactionPosGroup(List<ImportTransactionPos> importTransactionPosList,
+      boolean securityTransaction) {
+    boolean isAccountTransfer() {
+      return !securityTransaction && importTransactionPosList.size() > 1;
+    }
+  }
+
+  /**
+   * A line which could not be parsed, the failure is written after its position has an ID.
+   */
+  private record FailedLine(ImportTransactionPos importTransactionPos, Integer idTransactionImportTemplate,
+      ParseLineSuccessError parseLineSuccessError) {
+  }
+
   /**
    * Container class for tracking parsing results and error information for individual CSV lines. Provides detailed
    * success/failure status and diagnostic information for troubleshooting template matching and data conversion issues.
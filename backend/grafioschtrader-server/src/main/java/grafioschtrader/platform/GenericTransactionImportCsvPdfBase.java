@@ -120,27 +120,15 @@ public abstract class GenericTransactionImportCsvPdfBase {
       List<Cashaccount> cashaccountList, List<ImportProperties> importPropertiesList, String fileNameOriginal,
       ImportTransactionPosJpaRepository importTransactionPosJpaRepository,
       SecurityJpaRepository securityJpaRepository) {
-    List<ImportTransactionPos> importTransactionPosList = new ArrayList<>();
-    switch (importPropertiesList.getFirst().getTransactionType()) {
-    case ACCUMULATE:
-    case DIVIDEND:
-    case REDUCE:
-    case FINANCE_COST:
-      importTransactionPosList.add(createSecurityTransaction(importTransactionTemplate, cashaccountList,
-          importPropertiesList, fileNameOriginal, securityJpaRepository));
-      break;
-
-    default:
-      if (importPropertiesList.size() > 1) {
-        // Account Transfer in the same portfolio
-        importTransactionPosList.addAll(accountTransferSamePortfolio(importTransactionTemplate, cashaccountList,
-            importPropertiesList, fileNameOriginal, importTransactionPosJpaRepository));
-      } else {
-        // Transaction without security
-        importTransactionPosList.add(ImportTransactionPos.createFromImportPropertiesSuccess(
-            importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
-            importTransactionTemplate.getIdTransactionImportTemplate(), importPropertiesList.getFirst()));
-      }
+    List<ImportTransactionPos> importTransactionPosList = createImportTransactionPosList(importTransactionTemplate,
+        importPropertiesList, fileNameOriginal);
+    if (isSecurityTransaction(importPropertiesList)) {
+      TransactionImportHelper.setSecurityToImportWhenPossible(importTransactionPosList.getFirst(),
+          securityJpaRepository);
+    } else if (importTransactionPosList.size() > 1) {
+      // The connected positions of an account transfer require their IDs
+      importTransactionPosList.replaceAll(importTransactionPosJpaRepository::save);
+      connectAccountTransfer(importTransactionPosList);
     }
     importTransactionPosList.forEach(importTransactionPos -> {
       setCashaccountAndCheckReadyState(cashaccountList, importTransactionPos, importTransactionPosJpaRepository);
@@ -148,21 +136,68 @@ public abstract class GenericTransactionImportCsvPdfBase {
     });
   }
 
+  /**
+   * Creates the import positions of successfully parsed transaction data without persisting them. The security of a
+   * security transaction is not yet resolved and the positions of an account transfer are not yet connected.
+   *
+   * @param importTransactionTemplate Template used for parsing the transaction data
+   * @param importPropertiesList      Parsed transaction properties from the document
+   * @param fileNameOriginal          Original filename of the imported document
+   * @return one position, or the deposit and withdrawal position of an account transfer
+   */
+  protected List<ImportTransactionPos> createImportTransactionPosList(
+      ImportTransactionTemplate importTransactionTemplate, List<ImportProperties> importPropertiesList,
+      String fileNameOriginal) {
+    List<ImportTransactionPos> importTransactionPosList = new ArrayList<>();
+    if (isSecurityTransaction(importPropertiesList)) {
+      importTransactionPosList.add(ImportTransactionPos.createFromImportPropertiesSecuritySuccess(
+          importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
+          importTransactionTemplate.getIdTransactionImportTemplate(), importPropertiesList));
+    } else if (importPropertiesList.size() > 1) {
+      // Account Transfer in the same portfolio
+      importTransactionPosList.addAll(accountTransferSamePortfolio(importTransactionTemplate, importPropertiesList,
+          fileNameOriginal));
+    } else {
+      // Transaction without security
+      importTransactionPosList.add(ImportTransactionPos.createFromImportPropertiesSuccess(
+          importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
+          importTransactionTemplate.getIdTransactionImportTemplate(), importPropertiesList.getFirst()));
+    }
+    return importTransactionPosList;
+  }
+
+  /**
+   * Returns true when the parsed transaction data is a buy, sell, dividend or finance cost of a security.
+   */
+  protected static boolean isSecurityTransaction(List<ImportProperties> importPropertiesList) {
+    return switch (importPropertiesList.getFirst().getTransactionType()) {
+    case ACCUMULATE, DIVIDEND, REDUCE, FINANCE_COST -> true;
+    default -> false;
+    };
+  }
+
+  /**
+   * Links the persisted deposit and withdrawal position of an account transfer with each other.
+   *
+   * @param importTransactionPosList the two positions of the transfer with their IDs
+   */
+  protected static void connectAccountTransfer(List<ImportTransactionPos> importTransactionPosList) {
+    importTransactionPosList.get(0).setConnectedIdTransactionPos(importTransactionPosList.get(1).getIdTransactionPos());
+    importTransactionPosList.get(1).setConnectedIdTransactionPos(importTransactionPosList.get(0).getIdTransactionPos());
+  }
+
   /**
    * Processes cash transfers between different accounts within the same portfolio. Handles multi-currency transfers by
-   * calculating appropriate exchange rates based on the deposit and withdrawal amounts. Links the related transactions
-   * for proper accounting.
+   * calculating appropriate exchange rates based on the deposit and withdrawal amounts. The related positions are
+   * linked after they are persisted.
    * 
-   * @param importTransactionTemplate         Template used for parsing the transfer data
-   * @param cashaccountList                   Available cash accounts in the portfolio
-   * @param importPropertiesList              Transfer properties (typically deposit and withdrawal)
-   * @param fileNameOriginal                  Original filename of the imported document
-   * @param importTransactionPosJpaRepository Repository for persisting import positions
-   * @return List of linked import positions representing the complete transfer
+   * @param importTransactionTemplate Template used for parsing the transfer data
+   * @param importPropertiesList      Transfer properties (typically deposit and withdrawal)
+   * @param fileNameOriginal          Original filename of the imported document
+   * @return the deposit and the withdrawal position of the transfer
    */
   private List<ImportTransactionPos> accountTransferSamePortfolio(ImportTransactionTemplate importTransactionTemplate,
-      List<Cashaccount> cashaccountList, List<ImportProperties> importPropertiesList, String fileNameOriginal,
-      ImportTransactionPosJpaRepository importTransactionPosJpaRepository) {
+      List<ImportProperties> importPropertiesList, String fileNameOriginal) {
 
     List<ImportTransactionPos> importTransactionPosList = new ArrayList<>();
     int lineNumberIndex = 0;
@@ -184,39 +219,13 @@ public abstract class GenericTransactionImportCsvPdfBase {
       withdrawalIp.setCex(exchangeRate);
     }
 
-    importTransactionPosList
-        .add(createAndSaveImportTransactionPos(importTransactionPosJpaRepository, importTransactionTemplate,
-            importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
-            importTransactionTemplate.getIdTransactionImportTemplate(), depositIp));
-    importTransactionPosList
-        .add(createAndSaveImportTransactionPos(importTransactionPosJpaRepository, importTransactionTemplate,
-            importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
-            importTransactionTemplate.getIdTransactionImportTemplate(), withdrawalIp));
-
-    importTransactionPosList.get(0).setConnectedIdTransactionPos(importTransactionPosList.get(1).getIdTransactionPos());
-    importTransactionPosList.get(1).setConnectedIdTransactionPos(importTransactionPosList.get(0).getIdTransactionPos());
-    return importTransactionPosList;
-  }
-
-  /**
-   * Creates an import position for security-related transactions (buy/sell/dividend). Resolves the security instrument
-   * and associates it with the import position for proper portfolio tracking and transaction processing.
-   * 
-   * @param importTransactionTemplate Template used for parsing the transaction
-   * @param cashaccountList           Available cash accounts in the portfolio
-   * @param importPropertiesList      Security transaction properties
-   * @param fileNameOriginal          Original filename of the imported document
-   * @param securityJpaRepository     Repository for resolving security instruments
-   * @return Import position ready for security transaction processing
-   */
-  protected ImportTransactionPos createSecurityTransaction(ImportTransactionTemplate importTransactionTemplate,
-      List<Cashaccount> cashaccountList, List<ImportProperties> importPropertiesList, String fileNameOriginal,
-      SecurityJpaRepository securityJpaRepository) {
-    ImportTransactionPos importTransactionPos = ImportTransactionPos.createFromImportPropertiesSecuritySuccess(
+    importTransactionPosList.add(ImportTransactionPos.createFromImportPropertiesSuccess(
         importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
-        importTransactionTemplate.getIdTransactionImportTemplate(), importPropertiesList);
-    TransactionImportHelper.setSecurityToImportWhenPossible(importTransactionPos, securityJpaRepository);
-    return importTransactionPos;
+        importTransactionTemplate.getIdTransactionImportTemplate(), depositIp));
+    importTransactionPosList.add(ImportTransactionPos.createFromImportPropertiesSuccess(
+        importTransactionHead.getIdTenant(), fileNameOriginal, importTransactionHead.getIdTransactionHead(),
+        importTransactionTemplate.getIdTransactionImportTemplate(), withdrawalIp));
+    return importTransactionPosList;
   }
 
   /**
@@ -233,27 +242,4 @@ public abstract class GenericTransactionImportCsvPdfBase {
     importTransactionPosJpaRepository.setCheckReadyForSingleTransaction(importTransactionPos);
   }
 
-  /**
-   * Creates and immediately persists an import position for simple transactions. Used internally for account transfers
-   * and other multi-step transaction processing.
-   * 
-   * @param importTransactionPosJpaRepository Repository for persisting the import position
-   * @param importTransactionTemplate         Template used for parsing
-   * @param idTenant                          Tenant identifier
-   * @param fileName                          Original filename
-   * @param idTransactionHead                 Import session identifier
-   * @param idTransactionImportTemplate       Template identifier
-   * @param importProperties                  Parsed transaction properties
-   * @return Persisted import position with assigned ID
-   */
-  private ImportTransactionPos createAndSaveImportTransactionPos(
-      ImportTransactionPosJpaRepository importTransactionPosJpaRepository,
-      ImportTransactionTemplate importTransactionTemplate, Integer idTenant, String fileName, Integer idTransactionHead,
-      Integer idTransactionImportTemplate, ImportProperties importProperties) {
-    ImportTransactionPos importTransactionPos = ImportTransactionPos.createFromImportPropertiesSuccess(
-        importTransactionHead.getIdTenant(), fileName, importTransactionHead.getIdTransactionHead(),
-        importTransactionTemplate.getIdTransactionImportTemplate(), importProperties);
-    return importTransactionPosJpaRepository.save(importTransactionPos);
-  }
-
 }
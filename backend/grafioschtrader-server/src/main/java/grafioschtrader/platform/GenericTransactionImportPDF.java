@@ -4,11 +4,13 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +18,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import grafioschtrader.common.ThreadHelper;
 import grafioschtrader.entities.Cashaccount;
 import grafioschtrader.entities.ImportTransactionHead;
 import grafioschtrader.entities.ImportTransactionPos;
@@ -51,7 +54,9 @@ import grafioschtrader.repository.SecurityJpaRepository;
  * 
  * <h4>Batch PDF Processing</h4>
  * <p>Handles multiple PDF files in a single operation, processing each document independently
- * while maintaining consistent error handling and template matching across all files.</p>
+ * while maintaining consistent error handling and template matching across all files. The text extraction and
+ * template matching of a batch of files run in parallel, the results are persisted afterwards in upload order
+ * within the transaction of the request.</p>
  * 
  * <h4>GT-Transform Import</h4>
  * <p>Processes text files created by GT-PDF-Transform containing multiple converted PDF documents.
@@ -79,6 +84,9 @@ public class GenericTransactionImportPDF extends GenericTransactionImportCsvPdfB
 
   private static final Logger log = LoggerFactory.getLogger(GenericTransactionImportPDF.class);
 
+  /** Number of PDF files whose extracted text and parse result are kept in memory before they are persisted. */
+  private static final int PARSE_BATCH_SIZE = 64;
+
   /**
    * Creates a new generic PDF transaction importer with the specified import context.
    * 
@@ -106,11 +114,23 @@ public class GenericTransactionImportPDF extends GenericTransactionImportCsvPdfB
       ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository, Locale userLocale)
       throws Exception {
     Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = ImportTransactionHelperPdf
-        .readTemplates(importTransactionTemplateList, userLocale);
+        .readTemplatesCached(importTransactionTemplateList, userLocale);
 
-    for (MultipartFile uploadFile : uploadFiles) {
-      this.parseSinglePdfForm(templateScannedMap, uploadFile, importTransactionPosJpaRepository, securityJpaRepository,
-          importTransactionPosFailedJpaRepository);
+    for (int from = 0; from < uploadFiles.length; from += PARSE_BATCH_SIZE) {
+      MultipartFile[] batchFiles = Arrays.copyOfRange(uploadFiles, from,
+          Math.min(from + PARSE_BATCH_SIZE, uploadFiles.length));
+      ParsedPdfForm[] parsedPdfForms = new ParsedPdfForm[batchFiles.length];
+      // Text extraction and template matching are CPU bound, persistence stays on the thread of the transaction
+      ThreadHelper.executeForkJoinPool(() -> IntStream.range(0, batchFiles.length).parallel()
+          .forEach(i -> parsedPdfForms[i] = parsePdfForm(templateScannedMap, batchFiles[i])), 1);
+      for (int i = 0; i < batchFiles.length; i++) {
+        if (parsedPdfForms[i] == null) {
+          // The pool logs a failure of the task instead of throwing it, a file without result must not be skipped
+          throw new IllegalStateException("PDF " + batchFiles[i].getOriginalFilename() + " was not parsed");
+        }
+        saveParsedPdfForm(parsedPdfForms[i], batchFiles[i], importTransactionPosJpaRepository, securityJpaRepository,
+            importTransactionPosFailedJpaRepository);
+      }
     }
   }
 
@@ -130,7 +150,7 @@ public class GenericTransactionImportPDF extends GenericTransactionImportCsvPdfB
       ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository, Locale userLocale)
       throws Exception {
     Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = ImportTransactionHelperPdf
-        .readTemplates(importTransactionTemplateList, userLocale);
+        .readTemplatesCached(importTransactionTemplateList, userLocale);
 
     this.parseSinglePdfForm(templateScannedMap, uploadFile, importTransactionPosJpaRepository, securityJpaRepository,
         importTransactionPosFailedJpaRepository);
@@ -152,26 +172,81 @@ public class GenericTransactionImportPDF extends GenericTransactionImportCsvPdfB
       MultipartFile uploadFile, ImportTransactionPosJpaRepository importTransactionPosJpaRepository,
       SecurityJpaRepository securityJpaRepository,
       ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository) throws Exception {
-    List<ImportProperties> importPropertiesList = null;
-    if (!uploadFile.isEmpty()) {
-      try (InputStream is = uploadFile.getInputStream()) {
-        ParseFormInputPDFasTXT parseInputPDFasTXT = new ParseFormInputPDFasTXT(
-            cleanReadPDF(ImportTransactionHelperPdf.transFormPDFToTxt(is)), templateScannedMap);
-        importPropertiesList = parseInputPDFasTXT.parseInput();
-        if (importPropertiesList != null) {
-          Portfolio portfolio = importTransactionHead.getSecurityaccount().getPortfolio();
-          // Found matching template
-          ImportTransactionTemplate importTransactionTemplate = parseInputPDFasTXT
-              .getSuccessTemplate(importPropertiesList);
-          checkAndSaveSuccessImportTransaction(importTransactionTemplate, portfolio.getCashaccountList(),
-              importPropertiesList, uploadFile.getOriginalFilename(), importTransactionPosJpaRepository,
-              securityJpaRepository);
-        } else {
-          this.failedParse(parseInputPDFasTXT, uploadFile.getOriginalFilename(), null,
-              importTransactionPosJpaRepository, importTransactionPosFailedJpaRepository);
-        }
-      }
+    saveParsedPdfForm(parsePdfForm(templateScannedMap, uploadFile), uploadFile, importTransactionPosJpaRepository,
+        securityJpaRepository, importTransactionPosFailedJpaRepository);
+  }
+
+  /**
+   * Converts a PDF to text and matches it against the templates without accessing the database, it may therefore run
+   * in parallel for several files. Every failure, also an error such as a stack overflow of a regular expression, is
+   * kept in the result of its file.
+   *
+   * @param templateScannedMap Available templates mapped to their configurations
+   * @param uploadFile         PDF file to parse
+   * @return the parse result, without parser for an empty file
+   */
+  private ParsedPdfForm parsePdfForm(Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap,
+      MultipartFile uploadFile) {
+    if (uploadFile.isEmpty()) {
+      return new ParsedPdfForm(null, null, null);
+    }
+    try (InputStream is = uploadFile.getInputStream()) {
+      ParseFormInputPDFasTXT parseInputPDFasTXT = new ParseFormInputPDFasTXT(
+          cleanReadPDF(ImportTransactionHelperPdf.transFormPDFToTxt(is)), templateScannedMap);
+      return new ParsedPdfForm(parseInputPDFasTXT, parseInputPDFasTXT.parseInput(), null);
+    } catch (Exception | Error e) {
+      return new ParsedPdfForm(null, null, e);
+    }
+  }
+
+  /**
+   * Persists the parse result of a PDF as import position or as failed import. An exception of the parsing is thrown
+   * here, so that it surfaces in the order of the uploaded files.
+   *
+   * @param parsedPdfForm                           the parse result
+   * @param uploadFile                              the parsed PDF file
+   * @param importTransactionPosJpaRepository       Repository for persisting import positions
+   * @param securityJpaRepository                   Repository for resolving security instruments
+   * @param importTransactionPosFailedJpaRepository Repository for recording failures
+   * @throws Exception if PDF processing failed
+   */
+  private void saveParsedPdfForm(ParsedPdfForm parsedPdfForm, MultipartFile uploadFile,
+      ImportTransactionPosJpaRepository importTransactionPosJpaRepository, SecurityJpaRepository securityJpaRepository,
+      ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository) throws Exception {
+    if (parsedPdfForm.failure() instanceof Exception e) {
+      throw e;
+    }
+    if (parsedPdfForm.failure() instanceof Error e) {
+      throw e;
     }
+    if (parsedPdfForm.parseInputPDFasTXT() == null) {
+      // Empty file
+      return;
+    }
+    List<ImportProperties> importPropertiesList = parsedPdfForm.importPropertiesList();
+    if (importPropertiesList != null) {
+      Portfolio portfolio = importTransactionHead.getSecurityaccount().getPortfolio();
+      // Found matching template
+      ImportTransactionTemplate importTransactionTemplate = parsedPdfForm.parseInputPDFasTXT()
+          .getSuccessTemplate(importPropertiesList);
+      checkAndSaveSuccessImportTransaction(importTransactionTemplate, portfolio.getCashaccountList(),
+          importPropertiesList, uploadFile.getOriginalFilename(), importTransactionPosJpaRepository,
+          securityJpaRepository);
+    } else {
+      this.failedParse(parsedPdfForm.parseInputPDFasTXT(), uploadFile.getOriginalFilename(), null,
+          importTransactionPosJpaRepository, importTransactionPosFailedJpaRepository);
+    }
+  }
+
+  /**
+   * Result of parsing a single PDF.
+   *
+   * @param parseInputPDFasTXT   the parser with the state of every template, null for an empty or failed file
+   * @param importPropertiesList the properties of the matching template, null when no template matched
+   * @param failure              the exception or error of the PDF processing, otherwise null
+   */
+  private record ParsedPdfForm(ParseFormInputPDFasTXT parseInputPDFasTXT, List<ImportProperties> importPropertiesList,
+      Throwable failure) {
   }
 
   /**
@@ -219,7 +294,7 @@ public class GenericTransactionImportPDF extends GenericTransactionImportCsvPdfB
       ImportTransactionPosFailedJpaRepository importTransactionPosFailedJpaRepository, Locale userLocale) {
 
     Map<TemplateConfigurationPDFasTXT, ImportTransactionTemplate> templateScannedMap = ImportTransactionHelperPdf
-        .readTemplates(importTransactionTemplateList, userLocale);
+        .readTemplatesCached(importTransactionTemplateList, userLocale);
     parseGTTransform(uploadFile, templateScannedMap, importTransactionPosJpaRepository, securityJpaRepository,
         importTransactionPosFailedJpaRepository);
   }
@@ -0,0 +1,103 @@
+package grafioschtrader.platform;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import grafioschtrader.entities.ImportTransactionPos;
+import grafioschtrader.entities.Security;
+import grafioschtrader.repository.SecurityJpaRepository;
+import grafioschtrader.types.ImportKnownOtherFlags;
+
+/**
+ * Securities of all positions of a file import, loaded with one query by ISIN and one by ticker symbol instead of up
+ * to two queries for each position. The resolution follows
+ * {@link TransactionImportHelper#setSecurityToImportWhenPossible(ImportTransactionPos, SecurityJpaRepository)}. ISIN
+ * and ticker symbol are compared case insensitive like by the database collation.
+ */
+public class ImportSecurityLookup {
+
+  private final Map<String, List<Security>> securitiesByIsin;
+  private final Map<String, List<Security>> securitiesByTickerSymbol;
+
+  private ImportSecurityLookup(Map<String, List<Security>> securitiesByIsin,
+      Map<String, List<Security>> securitiesByTickerSymbol) {
+    this.securitiesByIsin = securitiesByIsin;
+    this.securitiesByTickerSymbol = securitiesByTickerSymbol;
+  }
+
+  /**
+   * Loads the securities of every distinct ISIN and ticker symbol of the positions.
+   *
+   * @param importTransactionPosList the positions whose security is to be resolved
+   * @param securityJpaRepository    repository for the set based queries
+   */
+  public static ImportSecurityLookup load(Collection<ImportTransactionPos> importTransactionPosList,
+      SecurityJpaRepository securityJpaRepository) {
+    Set<String> isinSet = new HashSet<>();
+    Set<String> tickerSymbolSet = new HashSet<>();
+    for (ImportTransactionPos itp : importTransactionPosList) {
+      if (itp.getIsin() != null) {
+        isinSet.add(itp.getIsin());
+      } else if (itp.getSymbolImp() != null) {
+        String tickerSymbol = getTickerSymbol(itp);
+        if (tickerSymbol != null) {
+          tickerSymbolSet.add(tickerSymbol);
+        }
+      }
+    }
+    List<Security> securitiesIsin = isinSet.isEmpty() ? List.of() : securityJpaRepository.findAllByIsinIn(isinSet);
+    List<Security> securitiesTicker = tickerSymbolSet.isEmpty() ? List.of()
+        : securityJpaRepository.findAllByTickerSymbolIn(tickerSymbolSet);
+    return new ImportSecurityLookup(
+        securitiesIsin.stream().collect(Collectors.groupingBy(s -> normalize(s.getIsin()))),
+        securitiesTicker.stream().collect(Collectors.groupingBy(s -> normalize(s.getTickerSymbol()))));
+  }
+
+  /**
+   * Sets the security of the position when it can be identified.
+   *
+   * @param importTransactionPos the position with ISIN or ticker symbol
+   */
+  public void setSecurityToImportWhenPossible(ImportTransactionPos importTransactionPos) {
+    String currency = importTransactionPos.getCurrencySecurity() == null ? importTransactionPos.getCurrencyAccount()
+        : importTransactionPos.getCurrencySecurity();
+    if (importTransactionPos.getIsin() != null) {
+      List<Security> securities = securitiesByIsin.getOrDefault(normalize(importTransactionPos.getIsin()), List.of());
+      Security security = findByCurrency(securities, currency);
+      if (security != null) {
+        importTransactionPos.setSecurity(security);
+      } else if (securities.size() == 1) {
+        // When there is only one
+        importTransactionPos.setSecurity(securities.getFirst());
+        importTransactionPos.addKnowOtherFlags(ImportKnownOtherFlags.SECURITY_CURRENCY_MISMATCH);
+      }
+    } else if (importTransactionPos.getSymbolImp() != null) {
+      String tickerSymbol = getTickerSymbol(importTransactionPos);
+      if (tickerSymbol != null) {
+        Security security = findByCurrency(
+            securitiesByTickerSymbol.getOrDefault(normalize(tickerSymbol), List.of()), currency);
+        if (security != null) {
+          importTransactionPos.setSecurity(security);
+        }
+      }
+    }
+  }
+
+  private static Security findByCurrency(List<Security> securities, String currency) {
+    return securities.stream().filter(s -> s.getCurrency().equalsIgnoreCase(currency)).findFirst().orElse(null);
+  }
+
+  private static String getTickerSymbol(ImportTransactionPos importTransactionPos) {
+    String[] tickerSymbolParts = importTransactionPos.getSymbolImp().split(":");
+    return tickerSymbolParts.length > 0 ? tickerSymbolParts[0] : null;
+  }
+
+  private static String normalize(String value) {
+    return value == null ? null : value.toUpperCase(Locale.ROOT);
+  }
+}
@@ -1,6 +1,10 @@
 package grafioschtrader.priceupdate;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import grafioschtrader.GlobalConstants;
+import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.rest.RequestGTMappings;
@@ -38,4 +42,32 @@ public abstract class BaseQuoteThru {
         + "?isIntraday=" + isIntraday + "&isSecurity=" + (securitycurrency instanceof Security ? true : false);
   }
 
+  /**
+   * Splits the items of a connector into the requests of a data provider which accepts several instruments per
+   * request.
+   *
+   * @param feedConnector the connector of all items
+   * @param items         the items, normally instruments, in the order they are requested
+   * @param maxBatchSize  the maximum number of items of a request
+   * @return the requests, only the last may contain fewer than maxBatchSize items
+   */
+  protected static <E> List<ConnectorBatch<E>> splitIntoBatches(IFeedConnector feedConnector, List<E> items,
+      int maxBatchSize) {
+    final List<ConnectorBatch<E>> batches = new ArrayList<>();
+    for (int i = 0; i < items.size(); i += maxBatchSize) {
+      batches.add(new ConnectorBatch<>(feedConnector,
+          List.copyOf(items.subList(i, Math.min(i + maxBatchSize, items.size())))));
+    }
+    return batches;
+  }
+
+  /**
+   * Items which are loaded with a single request to the data provider of the connector.
+   *
+   * @param feedConnector the connector, null if the items have none
+   * @param items         the items of the request
+   */
+  protected record ConnectorBatch<E>(IFeedConnector feedConnector, List<E> items) {
+  }
+
 }
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
@@ -109,27 +112,52 @@ public abstract class BaseHistoryquoteThru<S extends Securitycurrency<S>> extend
   public List<S> fillHistoryquoteForSecuritiesCurrencies(
       List<SecurityCurrencyMaxHistoryquoteData<S>> historySecurityCurrencyList, final LocalDate currentDate,
       boolean isExchangeSpecificUpdate) {
-    final List<S> catchUp = new ArrayList<>();
-    ThreadHelper.executeForkJoinPool(
-        () -> historySecurityCurrencyList.parallelStream()
-            .forEach(queryObject -> catchUpHistoryquote(queryObject, currentDate, catchUp, isExchangeSpecificUpdate)),
-        GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER);
+    return fillHistoryquoteForSecuritiesCurrencies(historySecurityCurrencyList, currentDate, isExchangeSpecificUpdate,
+        historyqouteEntityBaseAccess::catchUpSecurityCurrencypairHisotry);
+  }
+
+  /**
+   * Catches up the history quotes of the instruments with missing days.
+   *
+   * @param catchUpAction loads and saves the missing history quotes of a single instrument
+   * @return the instruments whose update succeeded
+   */
+  protected List<S> fillHistoryquoteForSecuritiesCurrencies(
+      List<SecurityCurrencyMaxHistoryquoteData<S>> historySecurityCurrencyList, final LocalDate currentDate,
+      boolean isExchangeSpecificUpdate, CatchUpAction<S> catchUpAction) {
+    final List<S> catchUp = Collections.synchronizedList(new ArrayList<>());
+    executeForAll(historySecurityCurrencyList, SecurityCurrencyMaxHistoryquoteData::getSecurityCurrency,
+        queryObject -> catchUpHistoryquote(queryObject, currentDate, catchUp, isExchangeSpecificUpdate,
+            catchUpAction));
     return catchUp;
   }
 
   protected List<S> catchUpEmptyHistoryquote(List<S> historySecurityCurrencyList) {
-    final List<S> catchUp = new ArrayList<>();
-    ThreadHelper.executeForkJoinPool(() -> historySecurityCurrencyList.parallelStream().forEach(securitycurrency -> {
+    final List<S> catchUp = Collections.synchronizedList(new ArrayList<>());
+    executeForAll(historySecurityCurrencyList, Function.identity(), securitycurrency -> {
       log.info("Create history quote for securitycurrency={}", securitycurrency);
       final S execSecuritycurrency = historyqouteEntityBaseAccess.catchUpSecurityCurrencypairHisotry(securitycurrency,
           null, null);
       if (execSecuritycurrency.getRetryHistoryLoad() == 0) {
         catchUp.add(execSecuritycurrency);
       }
-    }), GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER);
+    });
     return catchUp;
   }
 
+  /**
+   * Processes the items of a batch update in parallel. The base implementation does not know the data provider of an
+   * instrument and uses a fork join pool.
+   *
+   * @param items              the items to process
+   * @param securitycurrencyOf returns the instrument of an item
+   * @param task               the update of a single item
+   */
+  protected <E> void executeForAll(List<E> items, Function<E, S> securitycurrencyOf, Consumer<E> task) {
+    ThreadHelper.executeForkJoinPool(() -> items.parallelStream().forEach(task),
+        GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER);
+  }
+
   protected void addHistoryquotesToSecurity(S securitycurrency, List<Historyquote> historyquotes, LocalDate fromDate,
       LocalDate toDate) {
     if (securitycurrency.getHistoryquoteList() == null || securitycurrency.getHistoryquoteList().isEmpty()) {
@@ -192,17 +220,39 @@ public abstract class BaseHistoryquoteThru<S extends Securitycurrency<S>> extend
 
   /**
    * Updates historical quotes for a single security or currency pair if there are missing days.
-   * Uses the exchange's local timezone for date calculations to correctly determine if updates are needed.
    *
-   * @param queryObject the security/currency with its maximum historical quote date
-   * @param untilCalendar the fallback target date (used for logging compatibility, actual date is timezone-aware)
-   * @param catchUp list to add successfully updated securities to
+   * @param queryObject              the security/currency with its maximum historical quote date
+   * @param untilDate                the fallback target date (used for logging compatibility, actual date is
+   *                                 timezone-aware)
+   * @param catchUp                  list to add successfully updated securities to
+   * @param isExchangeSpecificUpdate true if this is an exchange-specific update, see {@link #getCatchUpPeriod}
+   * @param catchUpAction            loads and saves the missing history quotes
+   */
+  protected void catchUpHistoryquote(final SecurityCurrencyMaxHistoryquoteData<S> queryObject,
+      final LocalDate untilDate, final List<S> catchUp, boolean isExchangeSpecificUpdate,
+      CatchUpAction<S> catchUpAction) {
+    final CatchUpPeriod catchUpPeriod = getCatchUpPeriod(queryObject, isExchangeSpecificUpdate);
+    if (catchUpPeriod != null) {
+      final S execSecuritycurrency = catchUpAction.catchUp(queryObject.getSecurityCurrency(),
+          catchUpPeriod.fromDate(), catchUpPeriod.toDate());
+      if (execSecuritycurrency.getRetryHistoryLoad() == 0) {
+        catchUp.add(execSecuritycurrency);
+      }
+    }
+  }
+
+  /**
+   * Determines the missing days of a security or currency pair. Uses the exchange's local timezone for date
+   * calculations to correctly determine if updates are needed.
+   *
+   * @param queryObject              the security/currency with its maximum historical quote date
    * @param isExchangeSpecificUpdate true if this is an exchange-specific update. For exchange-specific updates,
-   *                                  securities are updated if diffInDays >= 1 (allows same-day updates after
-   *                                  exchange closes). For global daily updates, diffInDays must be > 1.
+   *                                 securities are updated if diffInDays >= 1 (allows same-day updates after exchange
+   *                                 closes). For global daily updates, diffInDays must be > 1.
+   * @return the missing days, null if the instrument is up to date
    */
-  private void catchUpHistoryquote(final SecurityCurrencyMaxHistoryquoteData<S> queryObject,
-      final LocalDate untilDate, final List<S> catchUp, boolean isExchangeSpecificUpdate) {
+  protected CatchUpPeriod getCatchUpPeriod(final SecurityCurrencyMaxHistoryquoteData<S> queryObject,
+      boolean isExchangeSpecificUpdate) {
     final S securitycurrency = queryObject.getSecurityCurrency();
 
     // Get current date in the exchange's local timezone
@@ -218,13 +268,23 @@ public abstract class BaseHistoryquoteThru<S extends Securitycurrency<S>> extend
     if (diffInDays >= minDaysRequired) {
       log.debug("Catchup historyquote, missing Days: diffInDays={} for Security/Currency securitycurrency={}",
           diffInDays, securitycurrency);
-      final LocalDate fromDate = lastQuoteDate.plusDays(1);
-      final S execSecuritycurrency = historyqouteEntityBaseAccess.catchUpSecurityCurrencypairHisotry(securitycurrency,
-          fromDate, currentDateInExchangeZone);
-      if (execSecuritycurrency.getRetryHistoryLoad() == 0) {
-        catchUp.add(execSecuritycurrency);
-      }
+      return new CatchUpPeriod(lastQuoteDate.plusDays(1), currentDateInExchangeZone);
     }
+    return null;
+  }
+
+  /**
+   * The missing days of an instrument.
+   */
+  protected record CatchUpPeriod(LocalDate fromDate, LocalDate toDate) {
+  }
+
+  /**
+   * Loads the history quotes of an instrument for a period and saves them.
+   */
+  @FunctionalInterface
+  protected interface CatchUpAction<S> {
+    S catchUp(S securitycurrency, LocalDate fromDate, LocalDate toDate);
   }
 
 }
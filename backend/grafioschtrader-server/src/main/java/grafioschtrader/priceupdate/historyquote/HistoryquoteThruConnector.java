@@ -5,9 +5,18 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,6 +29,7 @@ import grafiosch.entities.Globalparameters;
 import grafiosch.entities.User;
 import grafioschtrader.GlobalParamKeyDefault;
 import grafioschtrader.connector.ConnectorHelper;
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
 import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.connector.instrument.IFeedConnector.DownloadLink;
 import grafioschtrader.connector.instrument.generic.GenericFeedConnector;
@@ -31,6 +41,8 @@ import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.reportviews.historyquotequality.HistoryquoteQualityGrouped;
 import grafioschtrader.reportviews.historyquotequality.HistoryquoteQualityHead;
 import grafioschtrader.repository.GenericConnectorEndpointJpaRepository;
+import grafioschtrader.repository.HistoryquoteAppendWriter;
+import grafioschtrader.repository.HistoryquoteAppendWriter.AppendQueue;
 import grafioschtrader.repository.ISecuritycurrencyService;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.service.GlobalparametersService;
@@ -63,16 +75,196 @@ public class HistoryquoteThruConnector<S extends Securitycurrency<S>> extends Ba
   private final IHistoryquoteEntityAccess<S> historyquoteEntityAccess;
   private final Class<S> entityType;
   private final GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository;
+  private final FeedConnectorScheduler feedConnectorScheduler;
+  private final HistoryquoteAppendWriter historyquoteAppendWriter;
 
   public HistoryquoteThruConnector(EntityManager entityManager, GlobalparametersService globalparametersService,
       List<IFeedConnector> feedConnectorbeans, IHistoryquoteEntityAccess<S> historyquoteEntityAccess,
-      Class<S> entityType, GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository) {
+      Class<S> entityType, GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository,
+      FeedConnectorScheduler feedConnectorScheduler, HistoryquoteAppendWriter historyquoteAppendWriter) {
     super(globalparametersService, historyquoteEntityAccess);
     this.entityManager = entityManager;
     this.feedConnectorbeans = feedConnectorbeans;
     this.historyquoteEntityAccess = historyquoteEntityAccess;
     this.entityType = entityType;
     this.genericConnectorEndpointJpaRepository = genericConnectorEndpointJpaRepository;
+    this.feedConnectorScheduler = feedConnectorScheduler;
+    this.historyquoteAppendWriter = historyquoteAppendWriter;
+  }
+
+  /**
+   * The instruments are queued per data provider, so the limits of each provider are respected while different
+   * providers are served in parallel.
+   */
+  @Override
+  protected <E> void executeForAll(List<E> items, Function<E, S> securitycurrencyOf, Consumer<E> task) {
+    feedConnectorScheduler.executeAll(items,
+        item -> getConnectorHistoricalForSecuritycurrency(securitycurrencyOf.apply(item)), task);
+  }
+
+  /**
+   * The missing days of all instruments are appended through a single writer, the instrument with its history quotes
+   * is not loaded and saved. Instruments of a data provider which accepts several instruments per request are loaded
+   * with one request for up to {@link IFeedConnector#getMaxBatchSize} instruments. Instruments which need more than an
+   * append, a gap filler or a supplement of the archived history of a previous connector, are updated as before.
+   */
+  @Override
+  public List<S> fillHistoryquoteForSecuritiesCurrencies(
+      List<SecurityCurrencyMaxHistoryquoteData<S>> historySecurityCurrencyList, final LocalDate currentDate,
+      boolean isExchangeSpecificUpdate) {
+    if (historyquoteAppendWriter == null || historySecurityCurrencyList.isEmpty()) {
+      return super.fillHistoryquoteForSecuritiesCurrencies(historySecurityCurrencyList, currentDate,
+          isExchangeSpecificUpdate);
+    }
+    final Set<Integer> idsWithLegacyHistory = historyquoteAppendWriter.getIdsWithLegacyHistory();
+    final List<S> catchUp = Collections.synchronizedList(new ArrayList<>());
+    try (AppendQueue appendQueue = historyquoteAppendWriter.open(entityType.getSimpleName())) {
+      final CatchUpAction<S> catchUpAction = (securitycurrency, fromDate, toDate) -> idsWithLegacyHistory
+          .contains(securitycurrency.getIdSecuritycurrency())
+              ? historyquoteEntityAccess.catchUpSecurityCurrencypairHisotry(securitycurrency, fromDate, toDate)
+              : appendHistoryquotes(appendQueue, securitycurrency, fromDate, toDate);
+      final List<ConnectorBatch<SecurityCurrencyMaxHistoryquoteData<S>>> requests = new ArrayList<>();
+      final Map<IFeedConnector, List<SecurityCurrencyMaxHistoryquoteData<S>>> batchableMap = new LinkedHashMap<>();
+      for (SecurityCurrencyMaxHistoryquoteData<S> queryObject : historySecurityCurrencyList) {
+        final S securitycurrency = queryObject.getSecurityCurrency();
+        final IFeedConnector feedConnector = getConnectorHistoricalForSecuritycurrency(securitycurrency);
+        if (feedConnector == null || feedConnector.getMaxBatchSize(IFeedConnector.FeedSupport.FS_HISTORY) < 2
+            || idsWithLegacyHistory.contains(securitycurrency.getIdSecuritycurrency())
+            || needGapFiller(securitycurrency, feedConnector)) {
+          requests.add(new ConnectorBatch<>(feedConnector, List.of(queryObject)));
+        } else if (getCatchUpPeriod(queryObject, isExchangeSpecificUpdate) != null) {
+          batchableMap.computeIfAbsent(feedConnector, _ -> new ArrayList<>()).add(queryObject);
+        }
+      }
+      // Instruments with a similar last quote share a request, so a request does not span many more days than needed
+      final Set<ConnectorBatch<SecurityCurrencyMaxHistoryquoteData<S>>> batchRequests = Collections
+          .newSetFromMap(new IdentityHashMap<>());
+      batchableMap.forEach((feedConnector, batchable) -> {
+        batchable.sort(Comparator.comparing(SecurityCurrencyMaxHistoryquoteData::getDate));
+        batchRequests.addAll(splitIntoBatches(feedConnector, batchable,
+            feedConnector.getMaxBatchSize(IFeedConnector.FeedSupport.FS_HISTORY)));
+      });
+      requests.addAll(batchRequests);
+      feedConnectorScheduler.executeAll(requests, ConnectorBatch::feedConnector, request -> {
+        if (batchRequests.contains(request)) {
+          appendHistoryquotesBatch(appendQueue, request, isExchangeSpecificUpdate, catchUp);
+        } else {
+          catchUpHistoryquote(request.items().getFirst(), currentDate, catchUp, isExchangeSpecificUpdate,
+              catchUpAction);
+        }
+      });
+      appendQueue.close();
+      catchUp.removeIf(securitycurrency -> appendQueue.isFailed(securitycurrency.getIdSecuritycurrency()));
+    }
+    return catchUp;
+  }
+
+  /**
+   * Downloads the missing days of several instruments of a connector with a single request and queues them for the
+   * writer. The request covers the missing days of all instruments, each instrument gets only its own missing days. An
+   * instrument missing in the response of the data provider counts as failed.
+   */
+  private void appendHistoryquotesBatch(AppendQueue appendQueue,
+      ConnectorBatch<SecurityCurrencyMaxHistoryquoteData<S>> request, boolean isExchangeSpecificUpdate,
+      List<S> catchUp) {
+    final IFeedConnector feedConnector = request.feedConnector();
+    final Map<S, CatchUpPeriod> catchUpPeriodMap = new LinkedHashMap<>();
+    for (SecurityCurrencyMaxHistoryquoteData<S> queryObject : request.items()) {
+      final CatchUpPeriod catchUpPeriod = getCatchUpPeriod(queryObject, isExchangeSpecificUpdate);
+      if (catchUpPeriod != null) {
+        catchUpPeriodMap.put(queryObject.getSecurityCurrency(), catchUpPeriod);
+      }
+    }
+    if (catchUpPeriodMap.isEmpty()) {
+      return;
+    }
+    final List<S> securitycurrencies = new ArrayList<>(catchUpPeriodMap.keySet());
+    final LocalDate fromDate = catchUpPeriodMap.values().stream().map(CatchUpPeriod::fromDate)
+        .min(Comparator.naturalOrder()).get();
+    final LocalDate toDate = catchUpPeriodMap.values().stream().map(CatchUpPeriod::toDate)
+        .max(Comparator.naturalOrder()).get();
+    final boolean retry = securitycurrencies.stream().anyMatch(securitycurrency -> securitycurrency
+        .getRetryHistoryLoad() > 0);
+    final long startTime = System.nanoTime();
+    Map<Integer, List<Historyquote>> historyquotesMap;
+    try {
+      historyquotesMap = historyquoteEntityAccess.getHistoryQuotes(securitycurrencies,
+          substractSomeDays(fromDate, toDate), toDate, feedConnector);
+      feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+          System.nanoTime() - startTime, true, retry);
+    } catch (final Exception ex) {
+      log.error("{} for {} instruments of connector {}", ex.getMessage(), securitycurrencies.size(),
+          feedConnector.getID(), ex);
+      feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+          System.nanoTime() - startTime, false, retry);
+      historyquotesMap = Map.of();
+    }
+    // The writer reports the download time per instrument, so each gets its share of the request
+    final long networkNanos = (System.nanoTime() - startTime) / securitycurrencies.size();
+    for (Map.Entry<S, CatchUpPeriod> entry : catchUpPeriodMap.entrySet()) {
+      final S securitycurrency = entry.getKey();
+      final CatchUpPeriod catchUpPeriod = entry.getValue();
+      final Integer idSecuritycurrency = securitycurrency.getIdSecuritycurrency();
+      final List<Historyquote> loaded = historyquotesMap.get(idSecuritycurrency);
+      if (loaded == null) {
+        log.warn("History quotes missing in batch response securitycurrency={}", securitycurrency);
+        appendQueue.failed(idSecuritycurrency, networkNanos);
+        securitycurrency.setRetryHistoryLoad((short) (securitycurrency.getRetryHistoryLoad() + 1));
+      } else {
+        appendQueue.append(idSecuritycurrency, loaded.stream()
+            .filter(historyquote -> !historyquote.getDate().isBefore(catchUpPeriod.fromDate())
+                && !historyquote.getDate().isAfter(catchUpPeriod.toDate()))
+            .peek(h -> {
+              h.setIdSecuritycurrency(idSecuritycurrency);
+              h.resetNonPositiveOhlcvToNull();
+            }).toList(), networkNanos);
+        markGenericEndpointUsed(feedConnector, securitycurrency);
+        securitycurrency.setRetryHistoryLoad((short) 0);
+        catchUp.add(securitycurrency);
+      }
+    }
+  }
+
+  /**
+   * Downloads the missing days of an instrument and queues them for the writer.
+   *
+   * @return the not persisted instrument with the retry counter it gets with the write
+   */
+  private S appendHistoryquotes(AppendQueue appendQueue, S securitycurrency, final LocalDate fromDate,
+      final LocalDate toDate) {
+    final IFeedConnector feedConnector = getConnectorHistoricalForSecuritycurrency(securitycurrency);
+    if (feedConnector == null || needGapFiller(securitycurrency, feedConnector)) {
+      return historyquoteEntityAccess.catchUpSecurityCurrencypairHisotry(securitycurrency, fromDate, toDate);
+    }
+    final Integer idSecuritycurrency = securitycurrency.getIdSecuritycurrency();
+    long startTime = System.nanoTime();
+    List<Historyquote> historyquotes;
+    try {
+      historyquotes = historyquoteEntityAccess
+          .getHistoryQuote(securitycurrency, substractSomeDays(fromDate, toDate), toDate, feedConnector).stream()
+          .filter(historyquote -> !historyquote.getDate().isBefore(fromDate)).peek(h -> {
+            h.setIdSecuritycurrency(idSecuritycurrency);
+            h.resetNonPositiveOhlcvToNull();
+          }).toList();
+    } catch (final Exception ex) {
+      log.error(ex.getMessage() + " " + securitycurrency, ex);
+      feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+          System.nanoTime() - startTime, false, securitycurrency.getRetryHistoryLoad() > 0);
+      appendQueue.failed(idSecuritycurrency, System.nanoTime() - startTime);
+      securitycurrency.setRetryHistoryLoad((short) (securitycurrency.getRetryHistoryLoad() + 1));
+      return securitycurrency;
+    }
+    feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+        System.nanoTime() - startTime, true, securitycurrency.getRetryHistoryLoad() > 0);
+    appendQueue.append(idSecuritycurrency, historyquotes, System.nanoTime() - startTime);
+    markGenericEndpointUsed(feedConnector, securitycurrency);
+    securitycurrency.setRetryHistoryLoad((short) 0);
+    return securitycurrency;
+  }
+
+  private boolean needGapFiller(S securitycurrency, IFeedConnector feedConnector) {
+    return securitycurrency instanceof Security security && security.getStockexchange().getIdIndexUpdCalendar() != null
+        && feedConnector.needHistoricalGapFiller(security);
   }
 
   @Override
@@ -87,8 +279,18 @@ public class HistoryquoteThruConnector<S extends Securitycurrency<S>> extends Ba
               ? feedConnector.needHistoricalGapFiller(security)
               : false;
       if (feedConnector != null) {
-        HistoryquoteDataChange hdc = createWithHistoryQuoteWithConnector(securitycurrencyService, securitycurrency,
-            feedConnector, fromDate, toDate, needGapFiller);
+        final long startTime = System.nanoTime();
+        HistoryquoteDataChange hdc;
+        try {
+          hdc = createWithHistoryQuoteWithConnector(securitycurrencyService, securitycurrency, feedConnector, fromDate,
+              toDate, needGapFiller);
+        } catch (final Exception e) {
+          feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+              System.nanoTime() - startTime, false, restryHistoryLoad > 0);
+          throw e;
+        }
+        feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_HISTORY,
+            System.nanoTime() - startTime, true, restryHistoryLoad > 0);
 
         if (hdc.removeFromDate != null) {
           historyquoteEntityAccess.getHistoryquoteJpaRepository().deleteByIdSecuritycurrencyAndDateGreaterThanEqual(
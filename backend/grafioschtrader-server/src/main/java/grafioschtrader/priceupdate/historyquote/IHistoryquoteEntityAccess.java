@@ -2,6 +2,7 @@ package grafioschtrader.priceupdate.historyquote;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.entities.Historyquote;
@@ -16,5 +17,14 @@ public interface IHistoryquoteEntityAccess<S extends Securitycurrency<S>> extend
   List<Historyquote> getHistoryQuote(S securitycurrency, LocalDate fromDate, LocalDate toDate, IFeedConnector feedConector)
       throws Exception;
 
+  /**
+   * Gets the new prices of several securities or currency pairs with a single request of a feed connector which
+   * supports batches, see {@link IFeedConnector#getMaxBatchSize}.
+   *
+   * @return the history quotes for each id of an instrument, an instrument missing in the response has no entry
+   */
+  Map<Integer, List<Historyquote>> getHistoryQuotes(List<S> securitycurrencies, LocalDate fromDate, LocalDate toDate,
+      IFeedConnector feedConector) throws Exception;
+
   HistoryquoteJpaRepository getHistoryquoteJpaRepository();
 }
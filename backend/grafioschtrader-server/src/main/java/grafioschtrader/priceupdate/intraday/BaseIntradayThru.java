@@ -1,7 +1,9 @@
 package grafioschtrader.priceupdate.intraday;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import grafioschtrader.GlobalConstants;
 import grafioschtrader.common.ThreadHelper;
@@ -78,7 +80,7 @@ public abstract class BaseIntradayThru<S extends Securitycurrency<S>> extends Ba
    * <ul>
    * <li><strong>Single Entity</strong>: Direct method call without threading overhead for optimal performance</li>
    * <li><strong>Multiple Entities + Single Thread</strong>: Sequential forEach processing for debugging or when parallelism is undesired</li>
-   * <li><strong>Multiple Entities + Parallel</strong>: ForkJoinPool-based parallel execution using ThreadHelper for optimal throughput</li>
+   * <li><strong>Multiple Entities + Parallel</strong>: Parallel execution by {@link #executeForAll}, which a subclass may queue per data provider</li>
    * </ul></p>
    * 
    * <p>The parallel execution leverages {@code FORK_JOIN_POOL_CORE_MULTIPLIER} to optimize thread pool sizing
@@ -96,7 +98,7 @@ public abstract class BaseIntradayThru<S extends Securitycurrency<S>> extends Ba
   public List<S> updateLastPriceOfSecuritycurrency(final List<S> securtycurrencies, final short maxIntraRetry,
       boolean singleThread) {
     final int scIntradayUpdateTimeout = globalparametersService.getSecurityCurrencyIntradayUpdateTimeout();
-    final List<S> securtycurrenciesUpd = new ArrayList<>();
+    final List<S> securtycurrenciesUpd = Collections.synchronizedList(new ArrayList<>());
     if (securtycurrencies.size() > 1) {
       if (singleThread) {
         securtycurrencies.forEach(securitycurrency -> {
@@ -104,10 +106,8 @@ public abstract class BaseIntradayThru<S extends Securitycurrency<S>> extends Ba
               .add(updateLastPriceSecurityCurrency(securitycurrency, maxIntraRetry, scIntradayUpdateTimeout));
         });
       } else {
-        ThreadHelper.executeForkJoinPool(() -> securtycurrencies.parallelStream().forEach(securitycurrency -> {
-          securtycurrenciesUpd
-              .add(updateLastPriceSecurityCurrency(securitycurrency, maxIntraRetry, scIntradayUpdateTimeout));
-        }), GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER);
+        executeForAll(securtycurrencies, securitycurrency -> securtycurrenciesUpd
+            .add(updateLastPriceSecurityCurrency(securitycurrency, maxIntraRetry, scIntradayUpdateTimeout)));
       }
     } else if (securtycurrencies.size() == 1) {
       securtycurrenciesUpd
@@ -115,4 +115,16 @@ public abstract class BaseIntradayThru<S extends Securitycurrency<S>> extends Ba
     }
     return securtycurrenciesUpd;
   }
+
+  /**
+   * Updates the instruments in parallel. The base implementation does not know the data provider of an instrument and
+   * uses a fork join pool.
+   *
+   * @param securtycurrencies the securities or currency pairs to update
+   * @param task              the update of a single instrument
+   */
+  protected void executeForAll(List<S> securtycurrencies, Consumer<S> task) {
+    ThreadHelper.executeForkJoinPool(() -> securtycurrencies.parallelStream().forEach(task),
+        GlobalConstants.FORK_JOIN_POOL_CORE_MULTIPLIER);
+  }
 }
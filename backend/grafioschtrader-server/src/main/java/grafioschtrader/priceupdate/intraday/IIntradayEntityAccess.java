@@ -1,5 +1,7 @@
 package grafioschtrader.priceupdate.intraday;
 
+import java.util.List;
+
 import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.entities.Securitycurrency;
 
@@ -51,4 +53,16 @@ public interface IIntradayEntityAccess<S extends Securitycurrency<S>> {
    *                   invalid responses, or other technical problems during the update process
    */
   void updateIntraSecurityCurrency(final S securitycurrency, final IFeedConnector feedConnector) throws Exception;
+
+  /**
+   * Updates the intraday price information of several entities with a single request of a feed connector which
+   * supports batches, see {@link IFeedConnector#getMaxBatchSize}. As with the single update nothing is persisted.
+   *
+   * @param securitycurrencies the securities or currency pairs of the same feed connector
+   * @param feedConnector      the feed connector of all entities
+   * @return the updated entities, an entity missing in the response of the data provider is not contained
+   * @throws Exception if the request fails, then none of the entities was updated
+   */
+  List<S> updateIntraSecurityCurrencies(final List<S> securitycurrencies, final IFeedConnector feedConnector)
+      throws Exception;
 }
@@ -0,0 +1,154 @@
+package grafioschtrader.priceupdate.intraday;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.entities.Security;
+import grafioschtrader.entities.Securitycurrency;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs the intraday update of an instrument at most once at the same time, keyed by the ID of the instrument.
+ * <p>
+ * Many users open watchlists with the same instruments within the same minute. Without coordination each request
+ * would contact the data provider for these instruments. The first request of an instrument performs the update, a
+ * request which arrives while this update is running waits for it, the last price of the first request is then copied
+ * to its own instrument. The data providers are so contacted once, independent of the number of watchlists. Each
+ * request keeps its own instance, an entity of one persistence context is never handed to another request.
+ * </p>
+ * <p>
+ * The number of performed and of shared updates is published as the meter {@code gt.intraday.fetch} with the tag
+ * {@code result} set to {@code issued} or {@code coalesced}.
+ * </p>
+ */
+@Component
+public class IntradaySingleFlight {
+
+  private static final Logger log = LoggerFactory.getLogger(IntradaySingleFlight.class);
+
+  /** Seconds a request waits for the running update of an instrument, after that it continues with its own state. */
+  @Value("${gt.intraday.singleflight.wait.seconds:60}")
+  private int waitSeconds = 60;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /** Running update of each instrument, keyed by its ID. */
+  private final Map<Integer, CompletableFuture<Securitycurrency<?>>> inFlightMap = new ConcurrentHashMap<>();
+
+  private final LongAdder issued = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  @PostConstruct
+  private void registerMeters() {
+    if (meterRegistry != null) {
+      FunctionCounter.builder("gt.intraday.fetch", issued, LongAdder::sum)
+          .description("Intraday updates of an instrument performed or shared with a running update")
+          .tag("result", "issued").register(meterRegistry);
+      FunctionCounter.builder("gt.intraday.fetch", coalesced, LongAdder::sum)
+          .description("Intraday updates of an instrument performed or shared with a running update")
+          .tag("result", "coalesced").register(meterRegistry);
+    }
+  }
+
+  /**
+   * Updates the instrument, or waits for the update of this instrument which is already running.
+   *
+   * @param securitycurrency the instrument, a not yet persisted instrument is always updated
+   * @param update           the update of the instrument, it contacts the data provider
+   * @return the updated instrument, when the update was shared it is the passed instrument with the last price of the
+   *         first request
+   */
+  public <S extends Securitycurrency<S>> S execute(S securitycurrency, UnaryOperator<S> update) {
+    Integer idSecuritycurrency = securitycurrency.getIdSecuritycurrency();
+    if (idSecuritycurrency == null) {
+      issued.increment();
+      return update.apply(securitycurrency);
+    }
+    CompletableFuture<Securitycurrency<?>> flight = new CompletableFuture<>();
+    CompletableFuture<Securitycurrency<?>> running = inFlightMap.putIfAbsent(idSecuritycurrency, flight);
+    if (running != null) {
+      coalesced.increment();
+      return await(running, securitycurrency);
+    }
+    issued.increment();
+    try {
+      S updated = update.apply(securitycurrency);
+      flight.complete(updated);
+      return updated;
+    } catch (RuntimeException e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightMap.remove(idSecuritycurrency, flight);
+    }
+  }
+
+  /**
+   * Whether the update of this instrument is running.
+   */
+  public boolean isInFlight(Integer idSecuritycurrency) {
+    return inFlightMap.containsKey(idSecuritycurrency);
+  }
+
+  public long getIssuedCount() {
+    return issued.sum();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Waits for the running update and copies its last price to the passed instrument. When it fails or takes too long,
+   * the instrument is returned unchanged, as it happens when the last price is still fresh.
+   */
+  private <S extends Securitycurrency<S>> S await(CompletableFuture<Securitycurrency<?>> running, S securitycurrency) {
+    try {
+      Securitycurrency<?> updated = running.get(waitSeconds, TimeUnit.SECONDS);
+      if (updated != null && updated != securitycurrency && updated.getClass() == securitycurrency.getClass()) {
+        copyLastPrice(updated, securitycurrency);
+      }
+      return securitycurrency;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      log.debug("Shared intraday update failed securitycurrency={}", securitycurrency.getIdSecuritycurrency());
+    } catch (TimeoutException e) {
+      log.warn("Waited {} s for the intraday update of securitycurrency={}", waitSeconds,
+          securitycurrency.getIdSecuritycurrency());
+    }
+    return securitycurrency;
+  }
+
+  /**
+   * Copies the fields set by the intraday update.
+   */
+  private static void copyLastPrice(Securitycurrency<?> source, Securitycurrency<?> target) {
+    target.setSLast(source.getSLast());
+    target.setSOpen(source.getSOpen());
+    target.setSHigh(source.getSHigh());
+    target.setSLow(source.getSLow());
+    target.setSTimestamp(source.getSTimestamp());
+    target.setSPrevClose(source.getSPrevClose());
+    target.setSChangePercentage(source.getSChangePercentage());
+    target.setRetryIntraLoad(source.getRetryIntraLoad());
+    if (source instanceof Security sourceSecurity && target instanceof Security targetSecurity) {
+      targetSecurity.setSVolume(sourceSecurity.getSVolume());
+    }
+  }
+}
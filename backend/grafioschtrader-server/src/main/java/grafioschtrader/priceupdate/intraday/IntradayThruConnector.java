@@ -1,13 +1,21 @@
 package grafioschtrader.priceupdate.intraday;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.CannotAcquireLockException;
 
 import grafioschtrader.connector.ConnectorHelper;
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
 import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.connector.instrument.IFeedConnector.DownloadLink;
 import grafioschtrader.connector.instrument.generic.GenericFeedConnector;
@@ -41,6 +49,8 @@ public class IntradayThruConnector<S extends Securitycurrency<S>> extends BaseIn
   private final SecurityCurrencypairJpaRepository<S> jpaRepository;
   private final IIntradayEntityAccess<S> intraEntityAccess;
   private final GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository;
+  private final FeedConnectorScheduler feedConnectorScheduler;
+  private final IntradaySingleFlight intradaySingleFlight;
 
   /**
    * Constructs an intraday connector-based price updater.
@@ -50,55 +60,181 @@ public class IntradayThruConnector<S extends Securitycurrency<S>> extends BaseIn
    * @param feedConnectorbeans      list of available feed connector implementations
    * @param intraEntityAccess       interface for executing entity-specific intraday updates
    * @param genericConnectorEndpointJpaRepository repository for marking generic endpoints as used (may be null)
+   * @param feedConnectorScheduler  queues the instruments of a batch update per data provider
+   * @param intradaySingleFlight    shares a running update of an instrument with concurrent requests
    */
   public IntradayThruConnector(SecurityCurrencypairJpaRepository<S> jpaRepository,
       GlobalparametersService globalparametersService, List<IFeedConnector> feedConnectorbeans,
       IIntradayEntityAccess<S> intraEntityAccess,
-      GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository) {
+      GenericConnectorEndpointJpaRepository genericConnectorEndpointJpaRepository,
+      FeedConnectorScheduler feedConnectorScheduler, IntradaySingleFlight intradaySingleFlight) {
     super(globalparametersService);
     this.jpaRepository = jpaRepository;
     this.feedConnectorbeans = feedConnectorbeans;
     this.intraEntityAccess = intraEntityAccess;
     this.genericConnectorEndpointJpaRepository = genericConnectorEndpointJpaRepository;
+    this.feedConnectorScheduler = feedConnectorScheduler;
+    this.intradaySingleFlight = intradaySingleFlight;
   }
 
+  @Override
+  protected void executeForAll(List<S> securtycurrencies, Consumer<S> task) {
+    feedConnectorScheduler.executeAll(securtycurrencies, this::getIntradayConnector, task);
+  }
+
+  /**
+   * Updates the last price of the instrument. Concurrent requests for the same instrument, as they happen when many
+   * watchlists contain it, share a single update.
+   */
   @Override
   public S updateLastPriceSecurityCurrency(S securitycurrency, final short maxIntraRetry,
       final int scIntradayUpdateTimeout) {
-    final IFeedConnector feedConnector = ConnectorHelper.getConnectorByConnectorId(feedConnectorbeans,
-        securitycurrency.getIdConnectorIntra(), IFeedConnector.FeedSupport.FS_INTRA);
+    return intradaySingleFlight.execute(securitycurrency,
+        sc -> updateLastPriceThruConnector(sc, maxIntraRetry, scIntradayUpdateTimeout));
+  }
 
-    if (feedConnector != null && (securitycurrency.getRetryIntraLoad() < maxIntraRetry || maxIntraRetry == -1)
-        && securitycurrency.isActiveForIntradayUpdate(java.time.LocalDate.now())
-        && allowDelayedIntradayUpdate(securitycurrency, feedConnector, scIntradayUpdateTimeout)
+  private S updateLastPriceThruConnector(S securitycurrency, final short maxIntraRetry,
+      final int scIntradayUpdateTimeout) {
+    final IFeedConnector feedConnector = getIntradayConnector(securitycurrency);
+
+    if (isUpdateDue(securitycurrency, feedConnector, maxIntraRetry, scIntradayUpdateTimeout)
         && claimIntradayUpdate(securitycurrency, feedConnector, scIntradayUpdateTimeout)) {
+      final boolean retry = securitycurrency.getRetryIntraLoad() > 0;
+      final long startTime = System.nanoTime();
       try {
         intraEntityAccess.updateIntraSecurityCurrency(securitycurrency, feedConnector);
+        feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_INTRA,
+            System.nanoTime() - startTime, true, retry);
         securitycurrency.setRetryIntraLoad((short) 0);
         markGenericEndpointUsed(feedConnector, securitycurrency);
       } catch (final Exception e) {
+        feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_INTRA,
+            System.nanoTime() - startTime, false, retry);
         log.error("Last price update failed securitycurrency={}", securitycurrency.toString(), e);
         securitycurrency.setRetryIntraLoad((short) (securitycurrency.getRetryIntraLoad() + 1));
       }
-      try {
-        securitycurrency = jpaRepository.save(securitycurrency);
-      } catch (final CannotAcquireLockException ex) {
-        // The last price is non critical and is refreshed within minutes, so a lost lock race is not worth a stack
-        // trace. Losing it means another writer is updating the very same row right now.
-        log.warn("Intraday price save skipped, row is locked: securitycurrency={}", securitycurrency);
-      } catch (final Exception ex) {
-        log.error("Save failed for securitycurrency={}", securitycurrency, ex);
+      securitycurrency = saveSecuritycurrency(securitycurrency);
+    }
+    return securitycurrency;
+  }
+
+  /**
+   * Instruments of a data provider which accepts several instruments per request are updated with one request for up
+   * to {@link IFeedConnector#getMaxBatchSize} instruments, the others one by one as before. The batches are queued with
+   * the single instruments per data provider.
+   */
+  @Override
+  public List<S> updateLastPriceOfSecuritycurrency(final List<S> securtycurrencies, final short maxIntraRetry,
+      boolean singleThread) {
+    if (singleThread || securtycurrencies.size() < 2) {
+      return super.updateLastPriceOfSecuritycurrency(securtycurrencies, maxIntraRetry, singleThread);
+    }
+    final int scIntradayUpdateTimeout = globalparametersService.getSecurityCurrencyIntradayUpdateTimeout();
+    final List<S> securtycurrenciesUpd = Collections.synchronizedList(new ArrayList<>());
+    final List<ConnectorBatch<S>> requests = new ArrayList<>();
+    final Map<IFeedConnector, List<S>> batchableMap = new LinkedHashMap<>();
+    for (S securitycurrency : securtycurrencies) {
+      final IFeedConnector feedConnector = getIntradayConnector(securitycurrency);
+      if (feedConnector == null || feedConnector.getMaxBatchSize(IFeedConnector.FeedSupport.FS_INTRA) < 2) {
+        requests.add(new ConnectorBatch<>(feedConnector, List.of(securitycurrency)));
+      } else if (isUpdateDue(securitycurrency, feedConnector, maxIntraRetry, scIntradayUpdateTimeout)) {
+        batchableMap.computeIfAbsent(feedConnector, _ -> new ArrayList<>()).add(securitycurrency);
+      } else {
+        securtycurrenciesUpd.add(securitycurrency);
       }
     }
+    batchableMap.forEach((feedConnector, batchable) -> requests.addAll(splitIntoBatches(feedConnector, batchable,
+        feedConnector.getMaxBatchSize(IFeedConnector.FeedSupport.FS_INTRA))));
+    feedConnectorScheduler.executeAll(requests, ConnectorBatch::feedConnector, request -> {
+      if (batchableMap.containsKey(request.feedConnector())) {
+        securtycurrenciesUpd.addAll(updateLastPriceBatch(request, scIntradayUpdateTimeout));
+      } else {
+        securtycurrenciesUpd
+            .add(updateLastPriceSecurityCurrency(request.items().getFirst(), maxIntraRetry, scIntradayUpdateTimeout));
+      }
+    });
+    return securtycurrenciesUpd;
+  }
+
+  /**
+   * Updates the due instruments of a connector with a single request. Instruments which another writer has claimed are
+   * returned unchanged, an instrument missing in the response of the data provider counts as failed.
+   */
+  private List<S> updateLastPriceBatch(ConnectorBatch<S> request, final int scIntradayUpdateTimeout) {
+    final IFeedConnector feedConnector = request.feedConnector();
+    final List<S> claimed = request.items().stream()
+        .filter(securitycurrency -> claimIntradayUpdate(securitycurrency, feedConnector, scIntradayUpdateTimeout))
+        .toList();
+    if (claimed.isEmpty()) {
+      return request.items();
+    }
+    final boolean retry = claimed.stream().anyMatch(securitycurrency -> securitycurrency.getRetryIntraLoad() > 0);
+    final Set<S> claimedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    claimedSet.addAll(claimed);
+    final Set<S> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+    final long startTime = System.nanoTime();
+    try {
+      updated.addAll(intraEntityAccess.updateIntraSecurityCurrencies(claimed, feedConnector));
+      feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_INTRA,
+          System.nanoTime() - startTime, true, retry);
+    } catch (final Exception e) {
+      feedConnectorScheduler.recordRequest(feedConnector, IFeedConnector.FeedSupport.FS_INTRA,
+          System.nanoTime() - startTime, false, retry);
+      log.error("Last price update failed for {} instruments of connector {}", claimed.size(), feedConnector.getID(),
+          e);
+    }
+    final List<S> securitycurrenciesUpd = new ArrayList<>(request.items().size());
+    for (S securitycurrency : request.items()) {
+      if (claimedSet.contains(securitycurrency)) {
+        if (updated.contains(securitycurrency)) {
+          securitycurrency.setRetryIntraLoad((short) 0);
+          markGenericEndpointUsed(feedConnector, securitycurrency);
+        } else {
+          log.warn("Last price missing in batch response securitycurrency={}", securitycurrency);
+          securitycurrency.setRetryIntraLoad((short) (securitycurrency.getRetryIntraLoad() + 1));
+        }
+        securitycurrency = saveSecuritycurrency(securitycurrency);
+      }
+      securitycurrenciesUpd.add(securitycurrency);
+    }
+    return securitycurrenciesUpd;
+  }
+
+  private S saveSecuritycurrency(S securitycurrency) {
+    try {
+      return jpaRepository.save(securitycurrency);
+    } catch (final CannotAcquireLockException ex) {
+      // The last price is non critical and is refreshed within minutes, so a lost lock race is not worth a stack
+      // trace. Losing it means another writer is updating the very same row right now.
+      log.warn("Intraday price save skipped, row is locked: securitycurrency={}", securitycurrency);
+    } catch (final Exception ex) {
+      log.error("Save failed for securitycurrency={}", securitycurrency, ex);
+    }
     return securitycurrency;
   }
 
+  private IFeedConnector getIntradayConnector(S securitycurrency) {
+    return ConnectorHelper.getConnectorByConnectorId(feedConnectorbeans, securitycurrency.getIdConnectorIntra(),
+        IFeedConnector.FeedSupport.FS_INTRA);
+  }
+
+  /**
+   * Checks on the in-memory entity whether the last price should be requested from the data provider.
+   */
+  private boolean isUpdateDue(final S securitycurrency, final IFeedConnector feedConnector, final short maxIntraRetry,
+      final int scIntradayUpdateTimeout) {
+    return feedConnector != null && (securitycurrency.getRetryIntraLoad() < maxIntraRetry || maxIntraRetry == -1)
+        && securitycurrency.isActiveForIntradayUpdate(java.time.LocalDate.now())
+        && allowDelayedIntradayUpdate(securitycurrency, feedConnector, scIntradayUpdateTimeout);
+  }
+
   /**
    * Claims the intraday update of this instrument against concurrent writers.
    *
    * <p>
-   * {@link #allowDelayedIntradayUpdate} decides purely on the in-memory entity, so two concurrent requests for the same
-   * instrument both pass it and both write the row. This claim resolves that race in the database: only the caller
+   * {@link #allowDelayedIntradayUpdate} decides purely on the in-memory entity. Within this process concurrent requests
+   * for the same instrument are already merged by {@link IntradaySingleFlight}, but another server or a request with an
+   * older entity may still pass it and write the row. This claim resolves that race in the database: only the caller
    * whose conditional UPDATE affected a row proceeds to contact the data provider and save. It runs after the in-memory
    * pre-filter, so the extra statement is only issued when an update actually looks due.
    * </p>
@@ -39,6 +39,7 @@ import grafioschtrader.repository.TenantJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
 import grafioschtrader.repository.helper.AccountGroupMap;
 import grafioschtrader.repository.helper.GroupPortfolio;
+import grafioschtrader.service.CurrencypairRateStore;
 import grafioschtrader.service.GlobalparametersService;
 import grafioschtrader.types.TransactionType;
 
@@ -92,9 +93,15 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
   @Autowired
   private HistoryquoteJpaRepository historyquoteJpaRepository;
 
+  @Autowired
+  private CurrencypairRateStore currencypairRateStore;
+
   @Autowired
   private SecuritysplitJpaRepository securitysplitJpaRepository;
 
+  @Autowired
+  private ReportMeter reportMeter;
+
   private GlobalparametersService globalparametersService;
 
   /**
@@ -127,6 +134,7 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
    */
   public AccountPositionGrandSummary getAccountGrandSummaryIdTenant(final Integer idTenant,
       final AccountGroupMap<?> grouping, final LocalDate untilDate) {
+    long startTime = System.nanoTime();
     final Tenant tenant = tenantJpaRepository.getReferenceById(idTenant);
 
     final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture
@@ -135,14 +143,17 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
         .supplyAsync(() -> currencypairJpaRepository.getAllCurrencypairsForTenantByTenant(idTenant));
 
     final DateTransactionCurrencypairMap dateCurrencyMap = new DateTransactionCurrencypairMap(tenant.getCurrency(),
-        untilDate, dateTransactionCurrencyFuture.join(), currencypairsFuture.join(),
+        untilDate, currencypairRateStore, currencypairsFuture.join(),
         tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate), false);
-    getAccountSummaryPositionSummary(tenant.getPortfolioList(), grouping, tenant.getCurrency(), idTenant,
-        tenant.isExcludeDivTax(), dateCurrencyMap);
+    dateCurrencyMap.putToDateFromCurrencyMap(dateTransactionCurrencyFuture.join());
+    int instruments = getAccountSummaryPositionSummary(tenant.getPortfolioList(), grouping, tenant.getCurrency(),
+        idTenant, tenant.isExcludeDivTax(), dateCurrencyMap);
     grouping.getGroupSummaryList().forEach(g -> g.excludeDivTax = tenant.isExcludeDivTax());
 
-    return grouping.getGrandGroupSummary(dateCurrencyMap,
+    AccountPositionGrandSummary accountPositionGrandSummary = grouping.getGrandGroupSummary(dateCurrencyMap,
         globalparametersService.getPrecisionForCurrency(tenant.getCurrency()));
+    reportMeter.record(this, startTime, instruments);
+    return accountPositionGrandSummary;
   }
 
   /**
@@ -163,7 +174,7 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
    */
   public AccountPositionGroupSummary getAccountGrandSummaryPortfolio(Integer idTenant, final Integer idPortfolio,
       final LocalDate untilDate) {
-
+    long startTime = System.nanoTime();
     final Portfolio portfolio = this.portfolioJpaRepository.getReferenceById(idPortfolio);
     if (portfolio.getIdTenant().equals(idTenant)) {
       if (portfolio.getCashaccountList() != null && !portfolio.getCashaccountList().isEmpty()) {
@@ -177,13 +188,15 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
             .supplyAsync(() -> currencypairJpaRepository.getAllCurrencypairsForPortfolioByPortfolio(idPortfolio));
 
         final DateTransactionCurrencypairMap dateCurrencyMap = new DateTransactionCurrencypairMap(
-            portfolio.getCurrency(), untilDate, dateTransactionCurrencyFuture.join(), currencypairsFuture.join(),
+            portfolio.getCurrency(), untilDate, currencypairRateStore, currencypairsFuture.join(),
             tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate), false);
-        getAccountSummaryPositionSummary(Arrays.asList(portfolio), groupPortfolio, portfolio.getCurrency(),
-            portfolio.getIdTenant(), tenant.isExcludeDivTax(), dateCurrencyMap);
+        dateCurrencyMap.putToDateFromCurrencyMap(dateTransactionCurrencyFuture.join());
+        int instruments = getAccountSummaryPositionSummary(Arrays.asList(portfolio), groupPortfolio,
+            portfolio.getCurrency(), portfolio.getIdTenant(), tenant.isExcludeDivTax(), dateCurrencyMap);
         final AccountPositionGroupSummary accountPositionGroupSummary = groupPortfolio.getGroupSummaryList().get(0);
         accountPositionGroupSummary.excludeDivTax = tenant.isExcludeDivTax();
         accountPositionGroupSummary.calcTotals(dateCurrencyMap);
+        reportMeter.record(this, startTime, instruments);
 
         return accountPositionGroupSummary;
       } else {
@@ -212,13 +225,13 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
    * @param idTenant          the tenant identifier for data access control
    * @param excludeDivTaxcost whether to exclude dividend tax costs from calculations
    * @param dateCurrencyMap   the currency exchange rate context for conversions
+   * @return the number of security positions of all portfolios
    */
-  private void getAccountSummaryPositionSummary(final List<Portfolio> portfolioList,
+  private int getAccountSummaryPositionSummary(final List<Portfolio> portfolioList,
       final AccountGroupMap<?> accountGroupMap, final String mainCurrency, final Integer idTenant,
       final boolean excludeDivTaxcost, final DateTransactionCurrencypairMap dateCurrencyMap) {
 
     Map<Integer, Double> exchangeRateConnectedTransactionMap = new HashMap<>();
-    ReportHelper.loadUntilDateHistoryquotes(idTenant, historyquoteJpaRepository, dateCurrencyMap);
 
     final java.time.LocalDateTime untilDateTime = dateCurrencyMap.getUntilDate().plusDays(1).atStartOfDay();
     final AccessCashaccountPositionSummary accessCashaccountPositionSummary = new AccessCashaccountPositionSummary(
@@ -226,7 +239,7 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
 
     final Map<Integer, List<Securitysplit>> securitysplitMap = securitysplitJpaRepository
         .getSecuritysplitMapByIdTenant(idTenant);
-
+    int instruments = 0;
     for (final Portfolio portfolio : portfolioList) {
       accessCashaccountPositionSummary.preparteForNewPortfolio();
       final List<Transaction> everyKindOfTransactionsUntilDate = new ArrayList<>();
@@ -243,6 +256,7 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
 
       final Map<Security, SecurityPositionSummary> securityPositionSummaryMap = calcSecurityTransaction(
           everyKindOfTransactionsUntilDate, securitysplitMap, excludeDivTaxcost, dateCurrencyMap);
+      instruments += securityPositionSummaryMap.size();
 
       final CurrencySecurityaccountCurrenyResult currencySecurityaccountCurrenyResult = calcAndCreatePortfolioSeucrityTotalPerCurrency(
           securityPositionSummaryMap, dateCurrencyMap, portfolio.getCashaccountList());
@@ -253,6 +267,7 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
     }
     this.currencypairJpaRepository.calcGainLossBasedOnDateOrNewestPrice(accountGroupMap.getAllForeignCurrency(),
         dateCurrencyMap.getUntilDate());
+    return instruments;
   }
 
   //////////////////////////////////////////////
@@ -612,8 +627,8 @@ public class AccountPositionGroupSummaryReport extends SecurityCashaccountGroupB
             cashaccount.getConnectIdSecurityaccount()))
         .collect(Collectors.toSet());
 
-    return createAndCalcSubtotalsPerCurrencyAndIdSecurityaccount(historyquoteJpaRepository, securityPositionSummaryList,
-        dateCurrencyMap, seperateSecurityaccountCurrencySet, globalparametersService.getCurrencyPrecision());
+    return createAndCalcSubtotalsPerCurrencyAndIdSecurityaccount(securityPositionSummaryList, dateCurrencyMap,
+        seperateSecurityaccountCurrencySet, globalparametersService.getCurrencyPrecision());
 
   }
 
@@ -60,7 +60,7 @@ public class CorrelationReport {
         correlationSet.getSecuritycurrencyList(), correlationSet.getSamplingPeriod(), correlationSet.getDateFrom(),
         correlationSet.getDateTo(), correlationSet.isAdjustCurrency());
 
-    if (closePrices.dateCloseTree.isEmpty()) {
+    if (closePrices.closeMatrix.isEmpty()) {
       return createNonMatchingEODDataResult(correlationSet);
     }
     return calculateCorrelationMatrixInternal(correlationSet, closePrices);
@@ -76,12 +76,12 @@ public class CorrelationReport {
   private CorrelationResult calculateCorrelationMatrixInternal(CorrelationSet correlationSet,
       ClosePricesCurrencyClose closePrices) {
     ReportHelper.adjustCloseToSameCurrency(correlationSet.getSecuritycurrencyList(), closePrices);
-    double[][] percentageChanges = ReportHelper.transformToPercentageChange(closePrices.dateCloseTree,
+    double[][] percentageChanges = ReportHelper.transformToPercentageChange(closePrices.closeMatrix,
         correlationSet.getSecuritycurrencyList().size());
     RealMatrix realMatrix = new Array2DRowRealMatrix(percentageChanges);
 
-    CorrelationResult correlationResult = new CorrelationResult(closePrices.dateCloseTree.firstKey(),
-        closePrices.dateCloseTree.lastKey());
+    CorrelationResult correlationResult = new CorrelationResult(closePrices.closeMatrix.getFirstDate(),
+        closePrices.closeMatrix.getLastDate());
     PearsonsCorrelation pearsonsCorrelation = new PearsonsCorrelation(realMatrix);
     RealMatrix correlationMatrix = pearsonsCorrelation.getCorrelationMatrix();
 
@@ -145,7 +145,7 @@ public class CorrelationReport {
         correlationSet.getDateTo(), correlationSet.isAdjustCurrency());
     ReportHelper.adjustCloseToSameCurrency(correlationSet.getSecuritycurrencyList(), closePrices);
 
-    double[][] percentageChanges = ReportHelper.transformToPercentageChange(closePrices.dateCloseTree,
+    double[][] percentageChanges = ReportHelper.transformToPercentageChange(closePrices.closeMatrix,
         correlationSet.getSecuritycurrencyList().size());
     RealMatrix realMatrix = new Array2DRowRealMatrix(percentageChanges);
 
@@ -156,8 +156,7 @@ public class CorrelationReport {
       Double[] correlations = calculateRollingCovCorrBeta(realMatrix.getColumn(colIndexSc1),
           realMatrix.getColumn(colIndexSc2), rollingWindowConfig);
 
-      LocalDate[] datesArray = closePrices.dateCloseTree.keySet()
-          .toArray(new LocalDate[closePrices.dateCloseTree.keySet().size()]);
+      LocalDate[] datesArray = closePrices.closeMatrix.getDates();
       if (rollingWindowConfig.removeEmptyRollingAtStart) {
         datesArray = Arrays.copyOfRange(datesArray, rollingWindowConfig.windowSize, datesArray.length);
       }
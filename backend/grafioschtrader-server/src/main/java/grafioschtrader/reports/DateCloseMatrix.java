@@ -0,0 +1,216 @@
+package grafioschtrader.reports;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import grafioschtrader.types.SamplingPeriodType;
+
+/**
+ * Date-aligned close price matrix of several instruments. Row {@code r} holds the closes of all columns on the trading
+ * day {@link #getEpochDay(int)}; only days on which every column has a close are contained (intersection semantics).
+ * The dates are kept as an ascending epoch-day index and the prices as primitive rows, so loading a watchlist of many
+ * instruments does not allocate a boxed entry per price.
+ *
+ * <p>
+ * The matrix is produced by a {@link Builder} that is fed with the rows of a single historyquote scan ordered by
+ * instrument and date. The builder pivots these rows per instrument and intersects the date series in Java, which
+ * replaces the former N-way self-join of the historyquote table.
+ * </p>
+ */
+public class DateCloseMatrix {
+
+  private final int[] epochDays;
+  private final double[][] closes;
+  private final int columns;
+
+  private DateCloseMatrix(int[] epochDays, double[][] closes, int columns) {
+    this.epochDays = epochDays;
+    this.closes = closes;
+    this.columns = columns;
+  }
+
+  /** Number of rows, which is the number of trading days contained. */
+  public int size() {
+    return epochDays.length;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public boolean isEmpty() {
+    return epochDays.length == 0;
+  }
+
+  public int getEpochDay(int row) {
+    return epochDays[row];
+  }
+
+  public LocalDate getDate(int row) {
+    return LocalDate.ofEpochDay(epochDays[row]);
+  }
+
+  public LocalDate getFirstDate() {
+    return getDate(0);
+  }
+
+  public LocalDate getLastDate() {
+    return getDate(epochDays.length - 1);
+  }
+
+  /**
+   * Returns the closes of all columns of a row. The array is not copied, changes are reflected in the matrix, which is
+   * used by the currency adjustment.
+   */
+  public double[] getRow(int row) {
+    return closes[row];
+  }
+
+  public double[][] getRows() {
+    return closes;
+  }
+
+  public LocalDate[] getDates() {
+    LocalDate[] dates = new LocalDate[epochDays.length];
+    for (int i = 0; i < epochDays.length; i++) {
+      dates[i] = LocalDate.ofEpochDay(epochDays[i]);
+    }
+    return dates;
+  }
+
+  /**
+   * Binary search for the row of the given date.
+   *
+   * @param date the trading day to search
+   * @return the row index or a negative value when the date is not contained
+   */
+  public int indexOf(LocalDate date) {
+    return Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+  }
+
+  /**
+   * Collects the closes of a historyquote scan and pivots them into a {@link DateCloseMatrix}. The rows must be added
+   * ordered by instrument and ascending date, which is the order of the primary key of the historyquote table. The same
+   * instrument may occupy more than one column, its series is loaded only once.
+   */
+  public static class Builder {
+    private final int[] columnIds;
+    /** Distinct instrument ids in ascending order, the index is the series index. */
+    private final int[] distinctIds;
+    /** For every column the index of its series. */
+    private final int[] columnSeries;
+    private final int[][] seriesDays;
+    private final double[][] seriesCloses;
+    private final int[] seriesLength;
+
+    /**
+     * @param columnIds the id of the security or currency pair for every column of the resulting matrix
+     */
+    public Builder(int[] columnIds) {
+      this.columnIds = columnIds;
+      distinctIds = Arrays.stream(columnIds).distinct().sorted().toArray();
+      columnSeries = new int[columnIds.length];
+      for (int col = 0; col < columnIds.length; col++) {
+        columnSeries[col] = Arrays.binarySearch(distinctIds, columnIds[col]);
+      }
+      seriesDays = new int[distinctIds.length][64];
+      seriesCloses = new double[distinctIds.length][64];
+      seriesLength = new int[distinctIds.length];
+    }
+
+    public void add(int idSecuritycurrency, LocalDate date, double close) {
+      add(idSecuritycurrency, (int) date.toEpochDay(), close);
+    }
+
+    public void add(int idSecuritycurrency, int epochDay, double close) {
+      int s = Arrays.binarySearch(distinctIds, idSecuritycurrency);
+      if (s < 0) {
+        return;
+      }
+      int len = seriesLength[s];
+      if (len == seriesDays[s].length) {
+        seriesDays[s] = Arrays.copyOf(seriesDays[s], len * 2);
+        seriesCloses[s] = Arrays.copyOf(seriesCloses[s], len * 2);
+      }
+      seriesDays[s][len] = epochDay;
+      seriesCloses[s][len] = close;
+      seriesLength[s] = len + 1;
+    }
+
+    /**
+     * Intersects the collected series and reduces them to the requested sampling period.
+     *
+     * @param samplingPeriod daily, monthly or annual sampling
+     * @param periodEnd      for monthly and annual sampling, when true the last common trading day of a period is
+     *                       taken, otherwise the first one
+     * @return the date-aligned matrix
+     */
+    public DateCloseMatrix build(SamplingPeriodType samplingPeriod, boolean periodEnd) {
+      int seriesCount = distinctIds.length;
+      int maxRows = seriesCount == 0 ? 0 : Integer.MAX_VALUE;
+      for (int s = 0; s < seriesCount; s++) {
+        maxRows = Math.min(maxRows, seriesLength[s]);
+      }
+      int[] days = new int[maxRows];
+      double[][] rows = new double[maxRows][];
+      int[] pos = new int[seriesCount];
+      int rowCount = 0;
+      int lastPeriod = Integer.MIN_VALUE;
+      while (maxRows > 0 && allHaveNext(pos)) {
+        int day = Integer.MIN_VALUE;
+        for (int s = 0; s < seriesCount; s++) {
+          day = Math.max(day, seriesDays[s][pos[s]]);
+        }
+        boolean allMatch = true;
+        for (int s = 0; s < seriesCount && allMatch; s++) {
+          while (pos[s] < seriesLength[s] && seriesDays[s][pos[s]] < day) {
+            pos[s]++;
+          }
+          allMatch = pos[s] < seriesLength[s] && seriesDays[s][pos[s]] == day;
+        }
+        if (allMatch) {
+          int period = getPeriod(samplingPeriod, day);
+          if (samplingPeriod == SamplingPeriodType.DAILY_RETURNS || period != lastPeriod) {
+            days[rowCount] = day;
+            rows[rowCount++] = createRow(pos);
+            lastPeriod = period;
+          } else if (periodEnd) {
+            days[rowCount - 1] = day;
+            rows[rowCount - 1] = createRow(pos);
+          }
+          for (int s = 0; s < seriesCount; s++) {
+            pos[s]++;
+          }
+        }
+      }
+      return new DateCloseMatrix(Arrays.copyOf(days, rowCount), Arrays.copyOf(rows, rowCount), columnIds.length);
+    }
+
+    private boolean allHaveNext(int[] pos) {
+      for (int s = 0; s < pos.length; s++) {
+        if (pos[s] >= seriesLength[s]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private double[] createRow(int[] pos) {
+      double[] row = new double[columnIds.length];
+      for (int col = 0; col < columnIds.length; col++) {
+        int s = columnSeries[col];
+        row[col] = seriesCloses[s][pos[s]];
+      }
+      return row;
+    }
+
+    private static int getPeriod(SamplingPeriodType samplingPeriod, int epochDay) {
+      if (samplingPeriod == SamplingPeriodType.DAILY_RETURNS) {
+        return epochDay;
+      }
+      LocalDate date = LocalDate.ofEpochDay(epochDay);
+      return samplingPeriod == SamplingPeriodType.MONTHLY_RETURNS ? date.getYear() * 12 + date.getMonthValue() - 1
+          : date.getYear();
+    }
+  }
+}
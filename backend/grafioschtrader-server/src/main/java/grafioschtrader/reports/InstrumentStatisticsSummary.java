@@ -416,7 +416,7 @@ public class InstrumentStatisticsSummary {
         dateTo, adjustCurrency);
     adjustCloseOfDifferentTenantCurrency(securitycurrencyList, currencyAvailableRequired, closePrices);
     int columns = currencyAvailableRequired == null ? 1 : 2;
-    double[][] percentageChange = ReportHelper.transformToPercentageChange(closePrices.dateCloseTree, columns);
+    double[][] percentageChange = ReportHelper.transformToPercentageChange(closePrices.closeMatrix, columns);
     SummaryStatistics[] stats = Stream.iterate(0, x -> x + 1).limit(columns).map(_ -> new SummaryStatistics())
         .toArray(SummaryStatistics[]::new);
     for (double[] element : percentageChange) {
@@ -34,6 +34,7 @@ import grafioschtrader.reportviews.performance.WeekYear;
 import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
 import grafioschtrader.repository.PortfolioJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
+import grafioschtrader.service.PeriodValuationService;
 
 /**
  * Service component responsible for generating period performance reports for portfolios and tenants.
@@ -66,7 +67,8 @@ import grafioschtrader.repository.TradingDaysPlusJpaRepository;
  * </p>
  * <p>
  * The class employs a passive expiring cache with a 2-minute TTL to store FirstAndMissingTradingDays objects, reducing
- * database queries for frequently accessed trading day information.
+ * database queries for frequently accessed trading day information. The daily holdings are read from the series
+ * materialized by {@link PeriodValuationService} instead of being recalculated for every request.
  * </p>
  * 
  */
@@ -85,6 +87,9 @@ public class PerformanceReport {
   @Autowired
   private PortfolioJpaRepository portfolioJpaRepository;
 
+  @Autowired
+  private PeriodValuationService periodValuationService;
+
   /**
    * Cache for trading day metadata with 2-minute expiration to improve performance. Maps portfolio/tenant keys to their
    * corresponding trading day information.
@@ -364,7 +369,7 @@ public class PerformanceReport {
     checkInputParam(firstAndMissingTradingDays, user.getLocaleStr(), dateFrom, dateTo, periodSplit,
         () -> holdSecurityaccountSecurityRepository.getCurrencypairsWithoutAnyQuoteByTenant(user.getIdTenant()));
     List<IPeriodHolding> periodHoldings = prependZeroBaseHolding(
-        holdSecurityaccountSecurityRepository.getPeriodHoldingsByTenant(user.getIdTenant(), dateFrom, dateTo), dateFrom,
+        periodValuationService.getPeriodHoldingsByTenant(user.getIdTenant(), dateFrom, dateTo), dateFrom,
         firstAndMissingTradingDays, () -> holdSecurityaccountSecurityRepository
             .getPeriodHoldingZeroBaseByTenant(user.getIdTenant(), dateFrom));
     return getPeriodPerformance(firstAndMissingTradingDays, periodHoldings, periodSplit);
@@ -397,7 +402,8 @@ public class PerformanceReport {
     checkInputParam(firstAndMissingTradingDays, user.getLocaleStr(), dateFrom, dateTo, periodSplit,
         () -> holdSecurityaccountSecurityRepository.getCurrencypairsWithoutAnyQuoteByPortfolio(idPortfolio));
     List<IPeriodHolding> periodHoldings = prependZeroBaseHolding(
-        holdSecurityaccountSecurityRepository.getPeriodHoldingsByPortfolio(idPortfolio, dateFrom, dateTo), dateFrom,
+        periodValuationService.getPeriodHoldingsByPortfolio(user.getIdTenant(), idPortfolio, dateFrom, dateTo),
+        dateFrom,
         firstAndMissingTradingDays,
         () -> holdSecurityaccountSecurityRepository.getPeriodHoldingZeroBaseByPortfolio(idPortfolio, dateFrom));
     return getPeriodPerformance(firstAndMissingTradingDays, periodHoldings, periodSplit);
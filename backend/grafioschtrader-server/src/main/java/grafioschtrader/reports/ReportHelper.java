@@ -1,30 +1,22 @@
 package grafioschtrader.reports;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 
-import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.ResultSetExtractor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
-import grafiosch.entities.User;
 import grafioschtrader.entities.Currencypair;
 import grafioschtrader.entities.Historyquote;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.entities.projection.CurrencyCount;
-import grafioschtrader.reportviews.DateTransactionCurrencypairMap;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.types.SamplingPeriodType;
 
 /**
@@ -42,96 +34,27 @@ import grafioschtrader.types.SamplingPeriodType;
 public abstract class ReportHelper {
   private final static String WHERE_WORD = " WHERE ";
 
-  /**
-   * Loads tenant-specific historical exchange rate data for the specified until date if not already cached. Uses the
-   * current user's tenant context to retrieve only the currency conversion data relevant to that tenant's portfolio and
-   * trading history.
-   * 
-   * <p>
-   * This method implements the first tier of the two-level currency loading strategy, focusing on tenant-specific
-   * currency context rather than analysis-specific requirements. It loads historical exchange rates only for currencies
-   * that the tenant has actually used in their transactions and holdings, optimizing both performance and data
-   * relevance.
-   * </p>
-   * 
-   * <p>
-   * The loaded currency data is cached in the DateTransactionCurrencypairMap to avoid redundant database queries and
-   * provide efficient access to historical conversion rates for subsequent analysis operations within the same tenant
-   * context.
-   * </p>
-   * 
-   * @param historyquoteJpaRepository repository for accessing historical quote data
-   * @param dateCurrencyMap           currency mapping context that tracks loaded data and conversion rates
-   */
-  public static void loadUntilDateHistoryquotes(final HistoryquoteJpaRepository historyquoteJpaRepository,
-      DateTransactionCurrencypairMap dateCurrencyMap) {
-    if (!dateCurrencyMap.isUntilDateEqualNowOrAfter() && !dateCurrencyMap.isUntilDateDataLoaded()) {
-      final User user = (User) SecurityContextHolder.getContext().getAuthentication().getDetails();
-      loadUntilDateHistoryquotesWithoutCheck(user.getIdTenant(), historyquoteJpaRepository, dateCurrencyMap);
-    }
-  }
-
-  /**
-   * Loads tenant-specific historical exchange rate data for the specified until date and tenant if not already cached.
-   * Provides tenant-isolated currency conversion data for accurate historical analysis while maintaining multi-tenant
-   * data separation.
-   * 
-   * <p>
-   * This method enables loading currency data for a specific tenant without relying on the security context, making it
-   * suitable for batch processing, administrative operations, or cross-tenant analysis scenarios. It maintains the same
-   * tenant-specific optimization by loading only currencies relevant to the specified tenant's portfolio.
-   * </p>
-   * 
-   * @param idTenant                  the tenant identifier for accessing appropriate tenant-specific currency data
-   * @param historyquoteJpaRepository repository for accessing historical quote data
-   * @param dateCurrencyMap           currency mapping context that tracks loaded data and conversion rates
-   */
-  public static void loadUntilDateHistoryquotes(final Integer idTenant,
-      final HistoryquoteJpaRepository historyquoteJpaRepository, DateTransactionCurrencypairMap dateCurrencyMap) {
-    if (!dateCurrencyMap.isUntilDateEqualNowOrAfter() && !dateCurrencyMap.isUntilDateDataLoaded()) {
-      loadUntilDateHistoryquotesWithoutCheck(idTenant, historyquoteJpaRepository, dateCurrencyMap);
-    }
-  }
-
-  /**
-   * Forces loading of tenant-specific historical exchange rate data without checking cache status. Retrieves currency
-   * conversion rates for the specified date and tenant, updating the currency map with only the currencies that are
-   * relevant to that tenant's trading history and portfolio.
-   * 
-   * @param idTenant                  the tenant identifier for accessing tenant-specific currency usage data
-   * @param historyquoteJpaRepository repository for accessing historical quote data
-   * @param dateCurrencyMap           currency mapping context to populate with tenant-relevant conversion rates
-   */
-  public static void loadUntilDateHistoryquotesWithoutCheck(final Integer idTenant,
-      final HistoryquoteJpaRepository historyquoteJpaRepository, DateTransactionCurrencypairMap dateCurrencyMap) {
-    List<Object[]> currencyList = historyquoteJpaRepository.getUsedCurrencyHistoryquotesByIdTenantAndDate(idTenant,
-        dateCurrencyMap.getUntilDate());
-    dateCurrencyMap.putToDateFromCurrencyMap(currencyList);
-    dateCurrencyMap.untilDateDataIsLoaded();
-  }
-
   /**
    * Loads closing price data for a list of securities, optionally adjusted into a single target currency, over a given
    * date range and sampling period. This ensures that the prices of all transferred securities are always available for
-   * each date.
+   * each date. The history quotes of all instruments are read with a single scan and intersected by date in
+   * {@link DateCloseMatrix.Builder}. For monthly and annual sampling the first common trading day of each period is
+   * taken.
    *
    * @param jdbcTemplate              the Spring JDBC template to execute queries
    * @param currencypairJpaRepository repository to fetch currency‐pair conversion info
    * @param securitycurrencyList      list of security‐currency entities to load
    * @param samplingPeriod            daily, monthly, or annual sampling
    * @param dateFrom                  inclusive lower bound for dates
-   * @param dateTo                    exclusive upper bound for dates
+   * @param dateTo                    inclusive upper bound for dates
    * @param adjustToSingleCurrency    If true, the currency pairs that allow normalization to a currency are also added
    *                                  to the query
-   * @return a ClosePricesCurrencyClose wrapping a date→prices map and any currency‐conversion info
+   * @return a ClosePricesCurrencyClose wrapping a date-aligned close matrix and any currency‐conversion info
    */
   public static ClosePricesCurrencyClose loadCloseData(JdbcTemplate jdbcTemplate,
       CurrencypairJpaRepository currencypairJpaRepository, List<Securitycurrency<?>> securitycurrencyList,
       SamplingPeriodType samplingPeriod, LocalDate dateFrom, LocalDate dateTo, boolean adjustToSingleCurrency) {
     CurrencyRequired cr = null;
-    StringBuilder qSelect = new StringBuilder("SELECT h0.date");
-    StringBuilder qFrom = new StringBuilder(" FROM ");
-    StringBuilder qWhere = new StringBuilder(WHERE_WORD);
     List<Integer> securityCurrencyIds = securitycurrencyList.stream().map(sc -> sc.getIdSecuritycurrency())
         .collect(Collectors.toList());
 
@@ -142,27 +65,38 @@ public abstract class ReportHelper {
         cfa.column = securityCurrencyIds.size() - 1;
       });
     }
+    return new ClosePricesCurrencyClose(
+        loadCloseMatrix(jdbcTemplate, securityCurrencyIds, samplingPeriod, dateFrom, dateTo, false), cr);
+  }
 
-    for (int i = 0; i < securityCurrencyIds.size(); i++) {
-      qSelect.append(", h" + i + ".close AS c" + i);
-      if (i == 0) {
-        qFrom.append(Historyquote.TABNAME + " h" + i);
-      } else {
-        qFrom.append(" JOIN " + Historyquote.TABNAME + " h" + i + " ON " + "h0.date=h" + i + ".date");
-      }
-      if (i > 0) {
-        qWhere.append(" AND ");
-      }
-      qWhere.append("h" + i + ".id_securitycurrency=" + securityCurrencyIds.get(i));
-    }
-    addDateBoundry(dateFrom, qWhere, ">");
-    addDateBoundry(dateTo, qWhere, "<");
-    StringBuilder qGroup = addMonthYearGroupBy(samplingPeriod);
-
-    String query = qSelect.append(qFrom).append(WHERE_WORD.endsWith(qWhere.toString()) ? "" : qWhere).append(qGroup)
-        .append(" ORDER BY h0.date").toString();
-    return new ClosePricesCurrencyClose(getQueryDateCloseAsTreeMap(jdbcTemplate, query, securityCurrencyIds.size()),
-        cr);
+  /**
+   * Loads the close prices of the given instruments as date-aligned matrix. Only trading days on which all instruments
+   * have a close are contained. An instrument id may be passed more than once, each occurrence becomes its own column.
+   *
+   * @param jdbcTemplate        the Spring JDBC template to execute the query
+   * @param securityCurrencyIds the id of the security or currency pair for each column
+   * @param samplingPeriod      daily, monthly, or annual sampling
+   * @param dateFrom            inclusive lower bound for dates, may be null
+   * @param dateTo              inclusive upper bound for dates, may be null
+   * @param periodEnd           for monthly and annual sampling, true takes the last common trading day of a period
+   *                            instead of the first
+   * @return the close matrix, it is empty when the instruments have no common trading day
+   */
+  public static DateCloseMatrix loadCloseMatrix(JdbcTemplate jdbcTemplate, List<Integer> securityCurrencyIds,
+      SamplingPeriodType samplingPeriod, LocalDate dateFrom, LocalDate dateTo, boolean periodEnd) {
+    DateCloseMatrix.Builder builder = new DateCloseMatrix.Builder(
+        securityCurrencyIds.stream().mapToInt(Integer::intValue).toArray());
+    List<Object> params = new ArrayList<>(securityCurrencyIds);
+    StringBuilder query = new StringBuilder("SELECT id_securitycurrency, date, close FROM " + Historyquote.TABNAME)
+        .append(WHERE_WORD).append("id_securitycurrency IN (")
+        .append(securityCurrencyIds.stream().map(_ -> "?").collect(Collectors.joining(","))).append(")");
+    addDateBoundry(dateFrom, query, ">", params);
+    addDateBoundry(dateTo, query, "<", params);
+    query.append(" ORDER BY id_securitycurrency, date");
+    jdbcTemplate.query(query.toString(),
+        (RowCallbackHandler) rs -> builder.add(rs.getInt(1), rs.getObject(2, LocalDate.class), rs.getDouble(3)),
+        params.toArray());
+    return builder.build(samplingPeriod, periodEnd);
   }
 
   /**
@@ -194,7 +128,7 @@ public abstract class ReportHelper {
           && !((Security) securitycurrencyList.get(col)).getCurrency().equals(cpcc.currencyRequired.adjustCurrency)) {
         Security s = (Security) securitycurrencyList.get(col);
         CurrencyAvailableRequired car = cr.get2ndCurrency(s.getCurrency());
-        for (double[] closeRow : cpcc.dateCloseTree.values()) {
+        for (double[] closeRow : cpcc.closeMatrix.getRows()) {
           closeRow[col] *= cr.isAdjustCurrencyEqualsFromCurrency(car) ? 1.0 / closeRow[car.column]
               : closeRow[car.column];
         }
@@ -206,56 +140,23 @@ public abstract class ReportHelper {
    * Transforms a time series of price data into percentage change data for return analysis. Calculates
    * period-over-period percentage changes for statistical and performance analysis.
    * 
-   * @param closeValuesMap chronologically ordered map of price data by date
-   * @param columns        number of securities/instruments in the price series
+   * @param closeMatrix chronologically ordered matrix of price data
+   * @param columns     number of securities/instruments in the price series
    * @return two-dimensional array of percentage changes with rows representing time periods and columns representing
    *         securities
    */
-  public static double[][] transformToPercentageChange(Map<LocalDate, double[]> closeValuesMap, int columns) {
-    double[][] data = new double[closeValuesMap.size() - 1][columns];
-    double[] prevCloseRow = null;
-    int l = 0;
-    for (double[] closeRow : closeValuesMap.values()) {
-      if (prevCloseRow == null) {
-        prevCloseRow = closeRow;
-      } else {
-        for (int colCounter = 0; colCounter < columns; colCounter++) {
-          data[l][colCounter] = (closeRow[colCounter] / prevCloseRow[colCounter] - 1) * 100.0;
-        }
-        prevCloseRow = closeRow;
-        l++;
+  public static double[][] transformToPercentageChange(DateCloseMatrix closeMatrix, int columns) {
+    double[][] data = new double[Math.max(closeMatrix.size() - 1, 0)][columns];
+    for (int row = 1; row < closeMatrix.size(); row++) {
+      double[] prevCloseRow = closeMatrix.getRow(row - 1);
+      double[] closeRow = closeMatrix.getRow(row);
+      for (int colCounter = 0; colCounter < columns; colCounter++) {
+        data[row - 1][colCounter] = (closeRow[colCounter] / prevCloseRow[colCounter] - 1) * 100.0;
       }
     }
     return data;
   }
 
-  /**
-   * Executes the constructed SQL query and transforms results into a chronologically ordered map. Uses efficient result
-   * set processing to handle large price datasets with optimal memory usage.
-   * 
-   * @param jdbcTemplate the JDBC template for query execution
-   * @param query        the complete SQL query string
-   * @param columns      number of price columns to extract from each result row
-   * @return tree map with dates as keys and price arrays as values, maintaining chronological order
-   */
-  private static TreeMap<LocalDate, double[]> getQueryDateCloseAsTreeMap(JdbcTemplate jdbcTemplate, String query,
-      int columns) {
-    return jdbcTemplate.query(query, new ResultSetExtractor<TreeMap<LocalDate, double[]>>() {
-      @Override
-      public TreeMap<LocalDate, double[]> extractData(ResultSet rs) throws SQLException, DataAccessException {
-        TreeMap<LocalDate, double[]> resultCloseMap = new TreeMap<>();
-        while (rs.next()) {
-          var closeColumns = new double[columns];
-          for (int i = 0; i < columns; i++) {
-            closeColumns[i] = rs.getDouble(2 + i);
-          }
-          resultCloseMap.put(rs.getObject(1, LocalDate.class), closeColumns);
-        }
-        return resultCloseMap;
-      }
-    });
-  }
-
   /**
    * Analyzes currency requirements and determines the optimal target currency for normalization. Identifies existing
    * currency pairs and determines which additional pairs need to be created.
@@ -356,29 +257,13 @@ public abstract class ReportHelper {
    * @param date     the boundary date to add (null values are ignored)
    * @param qWhere   the WHERE clause builder to modify
    * @param lessMore the comparison operator (">" for greater than, "<" for less than)
+   * @param params   the query parameters, the date is appended when it is set
    */
-  private static void addDateBoundry(LocalDate date, StringBuilder qWhere, String lessMore) {
+  private static void addDateBoundry(LocalDate date, StringBuilder qWhere, String lessMore, List<Object> params) {
     if (date != null) {
-      qWhere.append(" AND h0.date " + lessMore + "= \"" + date + "\" ");
-    }
-  }
-
-  /**
-   * Constructs GROUP BY clause for different sampling periods to aggregate price data. Adds appropriate grouping for
-   * monthly or annual sampling while leaving daily data ungrouped.
-   * 
-   * @param samplingPeriodType the desired sampling frequency for data aggregation
-   * @return SQL GROUP BY clause appropriate for the sampling period
-   */
-  private static StringBuilder addMonthYearGroupBy(SamplingPeriodType samplingPeriodType) {
-    StringBuilder qGroup = new StringBuilder("");
-    if (samplingPeriodType != SamplingPeriodType.DAILY_RETURNS) {
-      qGroup.append(" GROUP BY YEAR(h0.date)");
-      if (samplingPeriodType == SamplingPeriodType.MONTHLY_RETURNS) {
-        qGroup.append(", MONTH(h0.date)");
-      }
+      qWhere.append(" AND date " + lessMore + "= ?");
+      params.add(date);
     }
-    return qGroup;
   }
 
   /**
@@ -486,19 +371,18 @@ public abstract class ReportHelper {
    */
   public static class ClosePricesCurrencyClose {
     /**
-     * Chronologically ordered map of price data by date. Each date maps to an array of closing prices for all
-     * securities and currency pairs in the analysis. TreeMap ensures proper chronological ordering for time series
-     * analysis.
+     * Chronologically ordered price data. Each row holds the closing prices of all securities and currency pairs in the
+     * analysis for one trading day.
      */
-    public final TreeMap<LocalDate, double[]> dateCloseTree;
+    public final DateCloseMatrix closeMatrix;
     /**
      * Currency conversion requirements and configuration for multi-currency analysis. Null when all securities use the
      * same currency and no conversion is needed.
      */
     public CurrencyRequired currencyRequired;
 
-    public ClosePricesCurrencyClose(TreeMap<LocalDate, double[]> dateCloseTree, CurrencyRequired currencyRequired) {
-      this.dateCloseTree = dateCloseTree;
+    public ClosePricesCurrencyClose(DateCloseMatrix closeMatrix, CurrencyRequired currencyRequired) {
+      this.closeMatrix = closeMatrix;
       this.currencyRequired = currencyRequired;
     }
 
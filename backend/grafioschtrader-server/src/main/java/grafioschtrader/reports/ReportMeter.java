@@ -0,0 +1,39 @@
+package grafioschtrader.reports;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes the build time of a report as {@code gt.report.build} and the number of instruments it processed as
+ * {@code gt.report.instruments}. Both meters are tagged with the simple class name of the report. Without a
+ * {@link MeterRegistry} nothing is recorded.
+ */
+@Component
+public class ReportMeter {
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Records a built report.
+   *
+   * @param report      the report, its class name is the tag
+   * @param startNanos  value of {@link System#nanoTime()} when the build started
+   * @param instruments number of securities and currency pairs the report processed
+   */
+  public void record(Object report, long startNanos, int instruments) {
+    if (meterRegistry != null) {
+      String reportName = report.getClass().getSimpleName();
+      Timer.builder("gt.report.build").description("Build time of a report").tag("report", reportName)
+          .register(meterRegistry).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+      DistributionSummary.builder("gt.report.instruments").description("Instruments processed by a report")
+          .tag("report", reportName).register(meterRegistry).record(instruments);
+    }
+  }
+}
@@ -11,17 +11,20 @@ import java.util.TreeSet;
 import java.util.function.ToIntFunction;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import grafioschtrader.dto.SeasonalReturnsResult;
 import grafioschtrader.dto.SeasonalReturnsResult.SeasonalColumnStat;
 import grafioschtrader.dto.SeasonalReturnsResult.SeasonalYearRow;
 import grafioschtrader.entities.Currencypair;
+import grafioschtrader.entities.Dividend;
 import grafioschtrader.entities.Securitycurrency;
-import grafioschtrader.entities.projection.SecurityPeriodClose;
 import grafioschtrader.repository.CurrencypairJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.repository.TenantJpaRepository;
 import grafioschtrader.service.RiskFreeRateService;
+import grafioschtrader.types.SamplingPeriodType;
 import grafioschtrader.types.SeasonalPeriodType;
 
 /**
@@ -30,21 +33,28 @@ import grafioschtrader.types.SeasonalPeriodType;
  * statistics.
  *
  * <p>
- * Returns are derived from month-end closes ({@link SecurityPeriodClose}). The same monthly dataset feeds the monthly,
- * quarterly and annual aggregations: a quarter/year return uses the close of the last available month-end in the
- * period, and dividends with an ex-date in the period are summed in. Currency conversion into the tenant main currency
- * reuses the instrument/currency-pair resolution of {@link InstrumentStatisticsSummary}.
+ * Returns are derived from month-end closes, which are loaded with {@link ReportHelper#loadCloseMatrix}. The same
+ * monthly dataset feeds the monthly, quarterly and annual aggregations: a quarter/year return uses the close of the
+ * last available month-end in the period, and dividends with an ex-date in the period are summed in. Currency
+ * conversion into the tenant main currency reuses the instrument/currency-pair resolution of
+ * {@link InstrumentStatisticsSummary}; a month is omitted when the currency pair has no close on its month-end date.
  * </p>
  */
 public class SeasonalReturnsReport {
 
+  private static final String MONTH_DIV_SUM_QUERY = "SELECT YEAR(ex_date), MONTH(ex_date), SUM(amount_adjusted) FROM "
+      + Dividend.TABNAME + " WHERE id_securitycurrency = ? GROUP BY YEAR(ex_date), MONTH(ex_date)";
+
+  private final JdbcTemplate jdbcTemplate;
   private final SecurityJpaRepository securityJpaRepository;
   private final TenantJpaRepository tenantJpaRepository;
   private final CurrencypairJpaRepository currencypairJpaRepository;
   private final RiskFreeRateService riskFreeRateService;
 
-  public SeasonalReturnsReport(SecurityJpaRepository securityJpaRepository, TenantJpaRepository tenantJpaRepository,
-      CurrencypairJpaRepository currencypairJpaRepository, RiskFreeRateService riskFreeRateService) {
+  public SeasonalReturnsReport(JdbcTemplate jdbcTemplate, SecurityJpaRepository securityJpaRepository,
+      TenantJpaRepository tenantJpaRepository, CurrencypairJpaRepository currencypairJpaRepository,
+      RiskFreeRateService riskFreeRateService) {
+    this.jdbcTemplate = jdbcTemplate;
     this.securityJpaRepository = securityJpaRepository;
     this.tenantJpaRepository = tenantJpaRepository;
     this.currencypairJpaRepository = currencypairJpaRepository;
@@ -71,17 +81,22 @@ public class SeasonalReturnsReport {
     boolean convert = inTenantCurrency && currencyConversionAvailable;
     boolean divide = convert && iss.isCurrencyDivide();
 
-    List<SecurityPeriodClose> rawList = convert
-        ? securityJpaRepository.getSecurityMonthDivSumCurrencyClose(idSecuritycurrency,
-            iss.getCurrencypairs().getFirst().getIdSecuritycurrency())
-        : securityJpaRepository.getSecurityMonthCloseDivSum(idSecuritycurrency);
+    DateCloseMatrix monthEndCloses = ReportHelper.loadCloseMatrix(jdbcTemplate, List.of(idSecuritycurrency),
+        SamplingPeriodType.MONTHLY_RETURNS, null, null, true);
+    DateCloseMatrix currencyCloses = convert
+        ? ReportHelper.loadCloseMatrix(jdbcTemplate, List.of(iss.getCurrencypairs().getFirst().getIdSecuritycurrency()),
+            SamplingPeriodType.DAILY_RETURNS, monthEndCloses.isEmpty() ? null : monthEndCloses.getFirstDate(), null,
+            false)
+        : null;
+    Map<Integer, Double> monthDivMap = loadMonthDividendSum(idSecuritycurrency);
 
-    boolean dividendsAvailable = rawList.stream().anyMatch(p -> p.getPeriodDiv() != 0.0);
+    boolean dividendsAvailable = monthDivMap.values().stream().anyMatch(d -> d != 0.0);
     SeasonalReturnsResult result = new SeasonalReturnsResult(periodType,
         currencyLabel(iss, convert), includeDividends && dividendsAvailable, convert, dividendsAvailable,
         currencyConversionAvailable);
 
-    List<Point> points = buildPoints(rawList, convert, divide, includeDividends && dividendsAvailable);
+    List<Point> points = buildPoints(monthEndCloses, currencyCloses, monthDivMap, divide,
+        includeDividends && dividendsAvailable);
     if (points.isEmpty()) {
       return result;
     }
@@ -106,17 +121,43 @@ public class SeasonalReturnsReport {
     return sc instanceof Currencypair cp ? cp.getToCurrency() : iss.getCurrencyOfSecurity();
   }
 
-  /** Converts the raw projections into currency-adjusted month points. */
-  private List<Point> buildPoints(List<SecurityPeriodClose> rawList, boolean convert, boolean divide,
-      boolean includeDividends) {
-    List<Point> points = new ArrayList<>();
-    for (SecurityPeriodClose pc : rawList) {
-      double factor = !convert ? 1.0 : divide ? 1.0 / pc.getCurrencyClose() : pc.getCurrencyClose();
-      double value = pc.getSecurityClose() * factor;
-      double div = includeDividends ? pc.getPeriodDiv() * factor : 0.0;
-      points.add(new Point(pc.getDate(), value, div));
+  /** Sum of the adjusted dividends per month of the ex-date, keyed by {@link #monthKey(int, int)}. */
+  private Map<Integer, Double> loadMonthDividendSum(Integer idSecuritycurrency) {
+    Map<Integer, Double> monthDivMap = new HashMap<>();
+    jdbcTemplate.query(MONTH_DIV_SUM_QUERY,
+        (RowCallbackHandler) rs -> monthDivMap.put(monthKey(rs.getInt(1), rs.getInt(2)), rs.getDouble(3)),
+        idSecuritycurrency);
+    return monthDivMap;
+  }
+
+  private static int monthKey(int year, int month) {
+    return year * 12 + month - 1;
+  }
+
+  /**
+   * Converts the month-end closes into currency-adjusted month points. Without currency closes no conversion takes
+   * place.
+   */
+  private List<Point> buildPoints(DateCloseMatrix monthEndCloses, DateCloseMatrix currencyCloses,
+      Map<Integer, Double> monthDivMap, boolean divide, boolean includeDividends) {
+    List<Point> points = new ArrayList<>(monthEndCloses.size());
+    for (int row = 0; row < monthEndCloses.size(); row++) {
+      LocalDate date = monthEndCloses.getDate(row);
+      double factor = 1.0;
+      if (currencyCloses != null) {
+        int currencyRow = currencyCloses.indexOf(date);
+        if (currencyRow < 0) {
+          continue;
+        }
+        double currencyClose = currencyCloses.getRow(currencyRow)[0];
+        factor = divide ? 1.0 / currencyClose : currencyClose;
+      }
+      double value = monthEndCloses.getRow(row)[0] * factor;
+      double div = includeDividends
+          ? monthDivMap.getOrDefault(monthKey(date.getYear(), date.getMonthValue()), 0.0) * factor
+          : 0.0;
+      points.add(new Point(date, value, div));
     }
-    points.sort(Comparator.comparing(p -> p.date));
     return points;
   }
 
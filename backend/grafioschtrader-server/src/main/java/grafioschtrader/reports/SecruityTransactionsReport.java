@@ -35,7 +35,6 @@ import grafioschtrader.reportviews.securityaccount.SecurityaccountOpenPositionUn
 import grafioschtrader.reportviews.transaction.SecurityTransactionPosition;
 import grafioschtrader.reportviews.transaction.SecurityTransactionSummary;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.IPositionCloseOnLatestPrice;
 import grafioschtrader.repository.PortfolioJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
@@ -43,6 +42,7 @@ import grafioschtrader.repository.SecuritysplitJpaRepository;
 import grafioschtrader.repository.TenantJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
 import grafioschtrader.repository.TransactionJpaRepository;
+import grafioschtrader.service.CurrencypairRateStore;
 import grafioschtrader.service.GlobalparametersService;
 import grafioschtrader.types.TransactionType;
 
@@ -65,7 +65,7 @@ public class SecruityTransactionsReport {
   private TenantJpaRepository tenantJpaRepository;
 
   @Autowired
-  private HistoryquoteJpaRepository historyquoteJpaRepository;
+  private CurrencypairRateStore currencypairRateStore;
 
   @Autowired
   private SecurityJpaRepository securityJpaRepository;
@@ -226,13 +226,11 @@ public class SecruityTransactionsReport {
                 ? transactionJpaRepository.findByIdTenantAndIdSecurity(idTenant, idSecuritycurrency)
                 : transactionJpaRepository.findByIdTenantAndSecurityAccountsIdSecurity(idTenant, idsSecurityaccount,
                     idSecuritycurrency));
-    final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture.supplyAsync(
-        () -> historyquoteJpaRepository.findByIdTenantAndIdSecurityFoCuHistoryquotes(idTenant, idSecuritycurrency));
     final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture
         .supplyAsync(() -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(idTenant));
     final CompletableFuture<DateTransactionCurrencypairMap> dateCurrencyMapFuture = CompletableFuture
-        .supplyAsync(() -> new DateTransactionCurrencypairMap(tenant.getCurrency(), untilDate,
-            dateTransactionCurrencyFuture.join(), currencypairsFuture.join(),
+        .supplyAsync(() -> new DateTransactionCurrencypairMap(tenant.getCurrency(), untilDate, currencypairRateStore,
+            currencypairsFuture.join(),
             this.tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate)));
     return calcSummaryForTransactions(transactionsFuture.join(),
         securityJpaRepository.getReferenceById(idSecuritycurrency), untilDate, secruityTransactionsReportOptions,
@@ -259,15 +257,12 @@ public class SecruityTransactionsReport {
       final CompletableFuture<List<Transaction>> transactionsFuture = CompletableFuture.supplyAsync(
           () -> transactionJpaRepository.findByIdPortfolioAndIdSecurity(portfolio.getSecurityaccountList().stream()
               .map(Securityaccount::getIdSecuritycashAccount).collect(Collectors.toList()), idSecuritycurrency));
-      final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture
-          .supplyAsync(() -> historyquoteJpaRepository.findByIdPortfolioAndIdSecurityFoCuHistoryquotes(idPortfolio,
-              idSecuritycurrency));
       final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
           () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(portfolio.getIdTenant()));
       final CompletableFuture<DateTransactionCurrencypairMap> dateCurrencyMapFuture = CompletableFuture
           .supplyAsync(() -> new DateTransactionCurrencypairMap(portfolio.getCurrency(), untilDate,
-              dateTransactionCurrencyFuture.join(), currencypairsFuture.join(), this.tradingDaysPlusJpaRepository
-                  .hasTradingDayBetweenUntilYesterday(untilDate)));
+              currencypairRateStore, currencypairsFuture.join(),
+              this.tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate)));
       return calcSummaryForTransactions(transactionsFuture.join(),
           securityJpaRepository.getReferenceById(idSecuritycurrency), untilDate, secruityTransactionsReportOptions,
           dateCurrencyMapFuture.join());
@@ -293,14 +288,11 @@ public class SecruityTransactionsReport {
         .findBySecuritycashaccountList_idSecuritycashAccountAndIdTenant(idSecuritycashAccount, idTenant);
     final CompletableFuture<List<Transaction>> transactionsFuture = CompletableFuture.supplyAsync(
         () -> transactionJpaRepository.findByIdSecurityaccountAndIdSecurity(idSecuritycashAccount, idSecuritycurrency));
-    final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture
-        .supplyAsync(() -> historyquoteJpaRepository
-            .findByIdSecurityaccountAndIdSecurityFoCuHistoryquotes(idSecuritycashAccount, idSecuritycurrency));
     final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
         () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(portfolio.getIdTenant()));
     final CompletableFuture<DateTransactionCurrencypairMap> dateCurrencyMapFuture = CompletableFuture
         .supplyAsync(() -> new DateTransactionCurrencypairMap(portfolio.getCurrency(), untilDate,
-            dateTransactionCurrencyFuture.join(), currencypairsFuture.join(),
+            currencypairRateStore, currencypairsFuture.join(),
             this.tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate)));
     return calcSummaryForTransactions(transactionsFuture.join(),
         securityJpaRepository.getReferenceById(idSecuritycurrency), untilDate, secruityTransactionsReportOptions,
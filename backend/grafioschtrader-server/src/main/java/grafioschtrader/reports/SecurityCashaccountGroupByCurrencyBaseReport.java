@@ -17,7 +17,6 @@ import grafioschtrader.reportviews.DateTransactionCurrencypairMap;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionCurrenyGroupSummary;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionSummary;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
 
@@ -90,25 +89,21 @@ public class SecurityCashaccountGroupByCurrencyBaseReport {
    * Creates and calculates subtotals for security positions grouped by currency only. This is a convenience method that
    * delegates to the more comprehensive grouping method.
    * 
-   * @param historyquoteJpaRepository   repository for historical quote data
    * @param securityPositionSummaryList list of security positions to group and calculate
    * @param dateCurrencyMap             currency and date mapping context for exchange rate calculations
    * @return map of currency codes to their aggregated position summaries
    */
   public Map<String, SecurityPositionCurrenyGroupSummary> createAndCalcSubtotalsPerCurrency(
-      final HistoryquoteJpaRepository historyquoteJpaRepository,
       final List<SecurityPositionSummary> securityPositionSummaryList,
       final DateTransactionCurrencypairMap dateCurrencyMap) {
-    return this.createAndCalcSubtotalsPerCurrencyAndIdSecurityaccount(historyquoteJpaRepository,
-        securityPositionSummaryList, dateCurrencyMap, Collections.emptySet(), currencyPrecisionMap).currencyTotalMap;
+    return this.createAndCalcSubtotalsPerCurrencyAndIdSecurityaccount(securityPositionSummaryList, dateCurrencyMap,
+        Collections.emptySet(), currencyPrecisionMap).currencyTotalMap;
   }
 
   /**
    * Creates and calculates subtotals for security positions grouped by currency and optionally by security account.
-   * This method performs currency conversion, loads necessary historical quotes, and aggregates positions according to
-   * the specified grouping criteria.
+   * This method performs currency conversion and aggregates positions according to the specified grouping criteria.
    * 
-   * @param historyquoteJpaRepository          repository for historical quote data access
    * @param securityPositionSummaryList        list of security positions to process and group
    * @param dateCurrencyMap                    currency and date mapping context containing exchange rate information
    * @param seperateSecurityaccountCurrencySet set defining which currency/account combinations should be grouped
@@ -117,7 +112,6 @@ public class SecurityCashaccountGroupByCurrencyBaseReport {
    * @return result object containing both currency-only and currency/account groupings
    */
   public CurrencySecurityaccountCurrenyResult createAndCalcSubtotalsPerCurrencyAndIdSecurityaccount(
-      final HistoryquoteJpaRepository historyquoteJpaRepository,
       final List<SecurityPositionSummary> securityPositionSummaryList,
       final DateTransactionCurrencypairMap dateCurrencyMap,
       final Set<SeperateSecurityaccountCurrency> seperateSecurityaccountCurrencySet,
@@ -127,8 +121,6 @@ public class SecurityCashaccountGroupByCurrencyBaseReport {
 
     final CurrencySecurityaccountCurrenyResult cscr = new CurrencySecurityaccountCurrenyResult();
 
-    ReportHelper.loadUntilDateHistoryquotes(historyquoteJpaRepository, dateCurrencyMap);
-
     for (final SecurityPositionSummary securityPositionSummary : securityPositionSummaryList) {
       final String currency = securityPositionSummary.securitycurrency.getCurrency();
 
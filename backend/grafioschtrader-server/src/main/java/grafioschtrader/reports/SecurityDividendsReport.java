@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Comparator;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -19,7 +20,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import grafioschtrader.entities.Cashaccount;
-import grafioschtrader.entities.Currencypair;
 import grafioschtrader.entities.Historyquote;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitysplit;
@@ -45,6 +45,7 @@ import grafioschtrader.entities.TaxYearCorrection;
 import grafioschtrader.repository.TaxYearCorrectionJpaRepository;
 import grafioschtrader.repository.TaxYearJpaRepository;
 import grafioschtrader.repository.TenantJpaRepository;
+import grafioschtrader.service.CurrencypairRateStore;
 import grafioschtrader.service.GlobalparametersService;
 import grafioschtrader.types.TaxYearCorrectionType;
 import grafioschtrader.types.TransactionType;
@@ -90,6 +91,9 @@ public class SecurityDividendsReport {
   @Autowired
   private HistoryquoteJpaRepository historyquoteJpaRepository;
 
+  @Autowired
+  private CurrencypairRateStore currencypairRateStore;
+
   @Autowired
   private GlobalparametersService globalparametersService;
 
@@ -108,6 +112,9 @@ public class SecurityDividendsReport {
   @Autowired
   private TaxYearCorrectionJpaRepository taxYearCorrectionJpaRepository;
 
+  @Autowired
+  private ReportMeter reportMeter;
+
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
   /**
@@ -147,7 +154,7 @@ public class SecurityDividendsReport {
    */
   public SecurityDividendsGrandTotal getSecurityDividendsGrandTotalByTenant(final Integer idTenant,
       final List<Integer> idsSecurityaccount, final List<Integer> idsCashaccount) {
-
+    long startTime = System.nanoTime();
     final Tenant tenant = tenantJpaRepository.getReferenceById(idTenant);
     SecurityDividendsGrandTotal securityDividendsGrandTotal = new SecurityDividendsGrandTotal(tenant.getCurrency(),
         globalparametersService.getCurrencyPrecision());
@@ -174,6 +181,8 @@ public class SecurityDividendsReport {
         .distinct()
         .sorted(Comparator.reverseOrder())
         .toList();
+    reportMeter.record(this, startTime,
+        (int) transactions.stream().map(Transaction::getSecurity).filter(Objects::nonNull).distinct().count());
     return securityDividendsGrandTotal;
   }
 
@@ -190,14 +199,9 @@ public class SecurityDividendsReport {
    * @return a DateTransactionCurrencypairMap containing currency conversion data and historical quotes
    */
   private DateTransactionCurrencypairMap getHistoryquoteAndCurrencypairs(final Tenant tenant) {
-    final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture.supplyAsync(
-        () -> historyquoteJpaRepository.getHistoryquoteCurrenciesForIntrFeeBuySellDivByIdTenantAndMainCurrency(
-            tenant.getIdTenant(), tenant.getCurrency()));
-    final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
-        () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()));
-
-    return new DateTransactionCurrencypairMap(tenant.getCurrency(), null, dateTransactionCurrencyFuture.join(),
-        currencypairsFuture.join(), true, false);
+    return new DateTransactionCurrencypairMap(tenant.getCurrency(), null, currencypairRateStore,
+        currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()), true,
+        false);
   }
 
   /**
@@ -56,8 +56,6 @@ public class SecurityGroupByBaseReport<T> extends SecurityPositionSummaryReport
       DateTransactionCurrencypairMap dateCurrencyMap) throws Exception {
     Map<T, SecurityPositionDynamicGroupSummary<T>> groupMap = new HashMap<>();
 
-    ReportHelper.loadUntilDateHistoryquotes(historyquoteJpaRepository, dateCurrencyMap);
-
     for (final SecurityPositionSummary securityPositionSummary : securityPositionSummaryList) {
       Security security = securityPositionSummary.getSecurity();
 
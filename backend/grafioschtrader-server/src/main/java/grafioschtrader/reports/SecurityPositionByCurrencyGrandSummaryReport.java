@@ -3,7 +3,6 @@ package grafioschtrader.reports;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import grafioschtrader.entities.Tenant;
@@ -11,7 +10,6 @@ import grafioschtrader.reportviews.DateTransactionCurrencypairMap;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionCurrenyGroupSummary;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionGrandSummary;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionSummary;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
 
 /**
@@ -21,9 +19,6 @@ import grafioschtrader.repository.TradingDaysPlusJpaRepository;
 @Component
 public class SecurityPositionByCurrencyGrandSummaryReport extends SecurityPositionSummaryReport {
 
-  @Autowired
-  protected HistoryquoteJpaRepository historyquoteJpaRepository;
-
   private final SecurityCashaccountGroupByCurrencyBaseReport securityCashaccountGroupByCurrencyBaseReport;
 
   public SecurityPositionByCurrencyGrandSummaryReport(TradingDaysPlusJpaRepository tradingDaysPlusJpaRepository,
@@ -41,7 +36,7 @@ public class SecurityPositionByCurrencyGrandSummaryReport extends SecurityPositi
       final List<SecurityPositionSummary> securityPositionSummaryList,
       final DateTransactionCurrencypairMap dateCurrencyMap) {
     final Map<String, SecurityPositionCurrenyGroupSummary> currencyTotalMap = securityCashaccountGroupByCurrencyBaseReport
-        .createAndCalcSubtotalsPerCurrency(historyquoteJpaRepository, securityPositionSummaryList, dateCurrencyMap);
+        .createAndCalcSubtotalsPerCurrency(securityPositionSummaryList, dateCurrencyMap);
     final SecurityPositionGrandSummary securityPositionGrandSummary = new SecurityPositionGrandSummary(
         dateCurrencyMap.getMainCurrency(),
         globalparametersService.getPrecisionForCurrency(dateCurrencyMap.getMainCurrency()));
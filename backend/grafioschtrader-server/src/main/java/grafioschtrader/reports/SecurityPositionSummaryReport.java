@@ -6,7 +6,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +15,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import grafiosch.BaseConstants;
 import grafiosch.entities.User;
-import grafioschtrader.entities.Currencypair;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securityaccount;
 import grafioschtrader.entities.Securitysplit;
@@ -28,12 +26,12 @@ import grafioschtrader.reportviews.securityaccount.SecurityPositionGrandSummary;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionSummary;
 import grafioschtrader.repository.CashaccountJpaRepository;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.repository.SecurityaccountJpaRepository;
 import grafioschtrader.repository.SecuritysplitJpaRepository;
 import grafioschtrader.repository.TenantJpaRepository;
 import grafioschtrader.repository.TradingDaysPlusJpaRepository;
+import grafioschtrader.service.CurrencypairRateStore;
 import grafioschtrader.service.GlobalparametersService;
 
 /**
@@ -74,7 +72,7 @@ public abstract class SecurityPositionSummaryReport {
   protected SecuritysplitJpaRepository securitysplitJpaRepository;
 
   @Autowired
-  HistoryquoteJpaRepository historyquoteJpaRepository;
+  protected CurrencypairRateStore currencypairRateStore;
 
   @Autowired
   protected CashaccountJpaRepository cashaccountJpaRepository;
@@ -91,6 +89,9 @@ public abstract class SecurityPositionSummaryReport {
   @Autowired
   protected TradingDaysPlusJpaRepository tradingDaysPlusJpaRepository;
 
+  @Autowired
+  protected ReportMeter reportMeter;
+
   /**
    * Template method for creating position groups and calculating grand totals. Subclasses must implement this method to
    * define specific grouping strategies and calculation logic for their particular reporting requirements.
@@ -129,14 +130,9 @@ public abstract class SecurityPositionSummaryReport {
 
     final Tenant tenant = tenantJpaRepository.getReferenceById(idTenant);
 
-    final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture
-        .supplyAsync(() -> historyquoteJpaRepository.getHistoryquotesForAllForeignTransactionsByIdTenant(idTenant));
-    final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture
-        .supplyAsync(() -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(idTenant));
-
     final DateTransactionCurrencypairMap dateCurrencyMap = new DateTransactionCurrencypairMap(tenant.getCurrency(),
-        untilDate, dateTransactionCurrencyFuture.join(), currencypairsFuture.join(),
-        false);
+        untilDate, currencypairRateStore,
+        currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(idTenant), false);
 
     final List<Securityaccount> securityaccountList = tenant.getPortfolioList().stream()
         .map(portfolio -> portfolio.getSecurityaccountList()).flatMap(Collection::stream).collect(Collectors.toList());
@@ -172,14 +168,9 @@ public abstract class SecurityPositionSummaryReport {
     } else {
       Tenant tenant = tenantJpaRepository.getReferenceById(securityaccountList.get(0).getPortfolio().getIdTenant());
 
-      final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture.supplyAsync(
-          () -> historyquoteJpaRepository.getHistoryquotesForAllForeignTransactionsByIdPortfolio(idPortfolio));
-      final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
-          () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()));
-
       final DateTransactionCurrencypairMap dateCurrencyMap = new DateTransactionCurrencypairMap(
-          securityaccountList.get(0).getPortfolio().getCurrency(), untilDate, dateTransactionCurrencyFuture.join(),
-          currencypairsFuture.join(),
+          securityaccountList.get(0).getPortfolio().getCurrency(), untilDate, currencypairRateStore,
+          currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()),
           tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate));
       return getSecurityPositionGrandSummary(tenant, securityaccountList, includeClosedPosition,
           tenant.isExcludeDivTax(), dateCurrencyMap);
@@ -216,15 +207,9 @@ public abstract class SecurityPositionSummaryReport {
       securityList.add(securityaccount);
       Tenant tenant = tenantJpaRepository.getReferenceById(securityaccount.getPortfolio().getIdTenant());
 
-      final CompletableFuture<List<Object[]>> dateTransactionCurrencyFuture = CompletableFuture
-          .supplyAsync(() -> historyquoteJpaRepository
-              .getHistoryquotesForAllForeignTransactionsByIdSecuritycashAccount(idSecurityaccount));
-      final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
-          () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()));
-
       final DateTransactionCurrencypairMap dateCurrencyMap = new DateTransactionCurrencypairMap(
-          securityaccount.getPortfolio().getCurrency(), untilDate, dateTransactionCurrencyFuture.join(),
-          currencypairsFuture.join(),
+          securityaccount.getPortfolio().getCurrency(), untilDate, currencypairRateStore,
+          currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()),
           tradingDaysPlusJpaRepository.hasTradingDayBetweenUntilYesterday(untilDate));
 
       return getSecurityPositionGrandSummary(tenant, securityList, includeClosedPosition, tenant.isExcludeDivTax(),
@@ -249,7 +234,7 @@ public abstract class SecurityPositionSummaryReport {
   private SecurityPositionGrandSummary getSecurityPositionGrandSummary(final Tenant tenant,
       final List<Securityaccount> securityaccountList, final boolean includeClosedPosition,
       final boolean excludeDivTaxcost, final DateTransactionCurrencypairMap dateCurrencyMap) throws Exception {
-
+    long startTime = System.nanoTime();
     LocalDate untilDatePlus = dateCurrencyMap.getUntilDate().plusDays(1);
 
     final Map<Security, SecurityPositionSummary> securityPositionSummaryMap = new HashMap<>();
@@ -269,7 +254,7 @@ public abstract class SecurityPositionSummaryReport {
     SecurityPositionGrandSummary securityPositionGrandSummary = createGroupsAndCalcGrandTotal(tenant,
         securityPositionSummaryList, dateCurrencyMap);
     sortSecurityPositionSummaryInGroupsByName(securityPositionGrandSummary);
-
+    reportMeter.record(this, startTime, securityPositionSummaryMap.size());
     return securityPositionGrandSummary;
 
   }
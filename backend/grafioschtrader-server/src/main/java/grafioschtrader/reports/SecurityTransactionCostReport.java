@@ -15,9 +15,9 @@ import grafioschtrader.reportviews.transactioncost.TransactionCostGrandSummary;
 import grafioschtrader.reportviews.transactioncost.TransactionCostGroupSummary;
 import grafioschtrader.reportviews.transactioncost.TransactionCostPosition;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.TenantJpaRepository;
 import grafioschtrader.repository.TransactionJpaRepository;
+import grafioschtrader.service.CurrencypairRateStore;
 import grafioschtrader.service.GlobalparametersService;
 import grafioschtrader.types.AssetclassType;
 import grafioschtrader.types.SpecialInvestmentInstruments;
@@ -60,7 +60,7 @@ public class SecurityTransactionCostReport {
   private TransactionJpaRepository transactionJpaRepository;
 
   @Autowired
-  private HistoryquoteJpaRepository historyquoteJpaRepository;
+  private CurrencypairRateStore currencypairRateStore;
 
   @Autowired
   private CurrencypairJpaRepository currencypairJpaRepository;
@@ -94,14 +94,11 @@ public class SecurityTransactionCostReport {
     final CompletableFuture<List<Transaction>> cfTransactionJpaRepository = CompletableFuture
         .supplyAsync(() -> transactionJpaRepository.getSecurityAccountTransactionsByTenant(idTenant,
             TransactionType.REDUCE.getValue()));
-    final CompletableFuture<List<Object[]>> cfDateTransactionCurrency = CompletableFuture
-        .supplyAsync(() -> historyquoteJpaRepository.getHistoryquoteCurrenciesForBuyAndSellByIdTenantAndMainCurrency(
-            tenant.getIdTenant(), tenant.getCurrency()));
     final CompletableFuture<List<Currencypair>> currencypairsFuture = CompletableFuture.supplyAsync(
         () -> currencypairJpaRepository.getAllCurrencypairsByTenantInPortfolioAndAccounts(tenant.getIdTenant()));
 
     TransactionCostGrandSummary transactionCostGrandSummary = createTransactionCost(tenant,
-        cfTransactionJpaRepository.join(), cfDateTransactionCurrency.join(), currencypairsFuture.join());
+        cfTransactionJpaRepository.join(), currencypairsFuture.join());
 
     return transactionCostGrandSummary;
   }
@@ -124,17 +121,16 @@ public class SecurityTransactionCostReport {
    * 
    * @param tenant                  the tenant entity containing currency and configuration information
    * @param transactions            list of all security transactions that potentially have costs
-   * @param dateTransactionCurrency historical exchange rate data for currency conversions
    * @param currencypairs           available currency pairs for the tenant's trading activities
    * @return completed transaction cost grand summary with calculated totals and groupings
    */
   private TransactionCostGrandSummary createTransactionCost(Tenant tenant, List<Transaction> transactions,
-      List<Object[]> dateTransactionCurrency, List<Currencypair> currencypairs) {
+      List<Currencypair> currencypairs) {
 
     TransactionCostGrandSummary transactionCostGrandSummary = new TransactionCostGrandSummary(tenant.getCurrency(),
         globalparametersService.getCurrencyPrecision());
     DateTransactionCurrencypairMap dateTransactionCurrencyMap = new DateTransactionCurrencypairMap(tenant.getCurrency(),
-        null, dateTransactionCurrency, currencypairs, true, false);
+        null, currencypairRateStore, currencypairs, true, false);
     transactions.stream()
         .filter(transaction -> transaction.getTransactionCost() != null && transaction.getTransactionCost() != 0.0)
         .forEach(transaction -> {
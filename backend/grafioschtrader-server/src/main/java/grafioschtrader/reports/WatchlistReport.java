@@ -13,13 +13,18 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -55,6 +60,7 @@ import grafioschtrader.repository.TransactionJpaRepository;
 import grafioschtrader.repository.WatchlistJpaRepository;
 import grafioschtrader.service.GTNetLastpriceService;
 import grafioschtrader.service.GlobalparametersService;
+import grafioschtrader.service.LastpriceRefreshService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
@@ -64,6 +70,16 @@ import jakarta.persistence.PersistenceContext;
 @Component
 public class WatchlistReport {
 
+  /** User destination of the rows whose last price was changed by a background update. */
+  public static final String WATCHLIST_LASTPRICE_DESTINATION = "/queue/watchlist/lastprice";
+
+  /**
+   * Reads and sends the changed last prices on a virtual thread of its own, also when the refresh is already completed
+   * and the request thread would otherwise run it.
+   */
+  private static final Executor LASTPRICE_SEND_EXECUTOR = task -> Thread.ofVirtual().name("watchlist-lastprice-send")
+      .start(task);
+
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
   @Autowired
@@ -102,9 +118,34 @@ public class WatchlistReport {
   @Autowired
   private UDFSpecialTypeDisableUserRepository uDFSpecialTypeDisUserRep;
 
+  @Autowired
+  private LastpriceRefreshService lastpriceRefreshService;
+
+  @Autowired(required = false)
+  private SimpMessageSendingOperations messagingTemplate;
+
+  @Autowired
+  @Lazy
+  private WatchlistReport self;
+
   @PersistenceContext
   private EntityManager entityManager;
 
+  /**
+   * How a watchlist with period performance updates stale last prices.
+   */
+  public enum LastpriceUpdate {
+    /** The prices are updated before the watchlist is returned. */
+    WAIT,
+    /** The watchlist is returned with the last known prices, they are updated in the background. */
+    BACKGROUND,
+    /** The prices are not updated. */
+    NONE
+  }
+
+  private record LastpriceState(Double last, LocalDateTime timestamp) {
+  }
+
   /**
    * Returns the watchlist with the youngest date of history quote. This should help to detect non working historical
    * data feeds.
@@ -253,6 +294,25 @@ public class WatchlistReport {
   @Modifying
   public SecuritycurrencyGroup getWatchlistwithPeriodPerformance(final Integer idWatchlist, final Integer idTenant,
       final Integer daysTimeFrame) {
+    return getWatchlistwithPeriodPerformance(idWatchlist, idTenant, daysTimeFrame, LastpriceUpdate.WAIT);
+  }
+
+  /**
+   * Same as {@link #getWatchlistwithPeriodPerformance(Integer, Integer, Integer)}, the caller decides whether it waits
+   * for the update of the last prices.
+   * <p>
+   * With {@link LastpriceUpdate#BACKGROUND} the watchlist is returned at once with the last known prices. It is marked
+   * with {@link SecuritycurrencyGroup#lastpriceRefreshPending} when the prices are being updated, either by this
+   * request or by a running update of the same instruments. When the update has ended, the rows with a changed price
+   * are sent over the web socket to the user.
+   * </p>
+   *
+   * @param lastpriceUpdate how the last prices are updated when they are stale
+   */
+  @Transactional
+  @Modifying
+  public SecuritycurrencyGroup getWatchlistwithPeriodPerformance(final Integer idWatchlist, final Integer idTenant,
+      final Integer daysTimeFrame, final LastpriceUpdate lastpriceUpdate) {
 
     Watchlist watchlist = watchlistJpaRepository.getReferenceById(idWatchlist);
     if (!watchlist.getIdTenant().equals(idTenant)) {
@@ -274,16 +334,34 @@ public class WatchlistReport {
     // both try to update the same watchlist row via saveAndFlush.
     final LocalDateTime now = LocalDateTime.now();
     final LocalDateTime threshold = now.minusSeconds(globalparametersService.getWatchlistIntradayUpdateTimeout());
-    final boolean needsPriceUpdate = watchlistJpaRepository.updateLastTimestampIfStale(
-        now, idWatchlist, threshold) > 0;
+    final boolean needsPriceUpdate = lastpriceUpdate != LastpriceUpdate.NONE
+        && watchlistJpaRepository.updateLastTimestampIfStale(now, idWatchlist, threshold) > 0;
     if (needsPriceUpdate) {
       log.info("Intraday update for {}", watchlist.getName());
     }
 
     // Capture final reference for lambda
     final Watchlist finalWatchlist = watchlist;
-    final CompletableFuture<GTNetLastpriceService.SecurityCurrency> securityCurrencyCF = CompletableFuture
-        .supplyAsync(() -> executeLastPriceUpdate(tenant, finalWatchlist, needsPriceUpdate));
+    final CompletableFuture<GTNetLastpriceService.SecurityCurrency> securityCurrencyCF;
+    CompletableFuture<Void> backgroundRefresh = null;
+    Map<Integer, LastpriceState> lastpriceBeforeRefresh = null;
+    if (lastpriceUpdate == LastpriceUpdate.WAIT) {
+      securityCurrencyCF = CompletableFuture
+          .supplyAsync(() -> executeLastPriceUpdate(tenant, finalWatchlist, needsPriceUpdate));
+    } else {
+      final List<Security> securities = watchlist.getSecuritycurrencyListByType(Security.class);
+      final List<Currencypair> currencypairs = watchlist.getSecuritycurrencyListByType(Currencypair.class);
+      securityCurrencyCF = CompletableFuture
+          .completedFuture(new GTNetLastpriceService.SecurityCurrency(securities, currencypairs));
+      if (lastpriceUpdate == LastpriceUpdate.BACKGROUND) {
+        // Taken before the update starts, the refreshed prices are read again when it is finished
+        lastpriceBeforeRefresh = getLastpriceStates(securities, currencypairs);
+        backgroundRefresh = needsPriceUpdate
+            ? lastpriceRefreshService.refresh(getIds(securities), getIds(currencypairs),
+                getIds(updateDependingCurrencyWhenPerformanceWatchlist(tenant, watchlist, currencypairs)))
+            : lastpriceRefreshService.getRunningRefresh(lastpriceBeforeRefresh.keySet());
+      }
+    }
     final CompletableFuture<Map<Integer, ISecuritycurrencyIdDateClose>> historyquoteMaxDayCF = CompletableFuture
         .supplyAsync(() -> getMaxDayHistoryquotesByIdWatchlist(idWatchlist));
     final CompletableFuture<Map<Integer, ISecuritycurrencyIdDateClose>> historyquoteLastDayYearCF = CompletableFuture
@@ -321,10 +399,66 @@ public class WatchlistReport {
         securitiesIsUsedElsewhere, currencypairIsUsedElsewhere,
         watchlistSecurtiesTransaction, reloadedWatchlist, daysTimeFrame, securitysplitMap, dateCurrencyMap);
     securitycurrencyGroup.idWatchlist = idWatchlist;
-
+    if (backgroundRefresh != null) {
+      securitycurrencyGroup.lastpriceRefreshPending = true;
+      sendChangedLastpricesWhenRefreshed(backgroundRefresh, lastpriceBeforeRefresh, idWatchlist, idTenant,
+          daysTimeFrame);
+    }
     return securitycurrencyGroup;
   }
 
+  /**
+   * Sends the rows of the watchlist whose last price was changed by the update to the user who requested the
+   * watchlist. Nothing is sent when the web socket is not enabled.
+   */
+  private void sendChangedLastpricesWhenRefreshed(CompletableFuture<Void> refresh,
+      Map<Integer, LastpriceState> lastpriceBeforeRefresh, final Integer idWatchlist, final Integer idTenant,
+      final Integer daysTimeFrame) {
+    final SecurityContext securityContext = SecurityContextHolder.getContext();
+    if (messagingTemplate == null || securityContext.getAuthentication() == null) {
+      return;
+    }
+    final String userName = securityContext.getAuthentication().getName();
+    refresh.thenRunAsync(DelegatingSecurityContextRunnable.create(() -> {
+      try {
+        SecuritycurrencyGroup refreshed = self.getWatchlistwithPeriodPerformance(idWatchlist, idTenant,
+            daysTimeFrame, LastpriceUpdate.NONE);
+        SecuritycurrencyGroup changed = new SecuritycurrencyGroup(
+            getChangedPositions(refreshed.securityPositionList, lastpriceBeforeRefresh),
+            getChangedPositions(refreshed.currencypairPositionList, lastpriceBeforeRefresh), refreshed.lastTimestamp,
+            idWatchlist);
+        if (!changed.securityPositionList.isEmpty() || !changed.currencypairPositionList.isEmpty()) {
+          messagingTemplate.convertAndSendToUser(userName, WATCHLIST_LASTPRICE_DESTINATION, changed);
+        }
+      } catch (RuntimeException e) {
+        log.error("Sending the updated last prices of watchlist {} failed", idWatchlist, e);
+      }
+    }, securityContext), LASTPRICE_SEND_EXECUTOR);
+  }
+
+  private static List<Integer> getIds(List<? extends Securitycurrency<?>> securitycurrencyList) {
+    return securitycurrencyList.stream().map(Securitycurrency::getIdSecuritycurrency).toList();
+  }
+
+  private Map<Integer, LastpriceState> getLastpriceStates(List<Security> securities,
+      List<Currencypair> currencypairs) {
+    Map<Integer, LastpriceState> lastpriceStates = new HashMap<>();
+    securities.forEach(s -> lastpriceStates.put(s.getIdSecuritycurrency(), new LastpriceState(s.getSLast(),
+        s.getSTimestamp())));
+    currencypairs.forEach(c -> lastpriceStates.put(c.getIdSecuritycurrency(), new LastpriceState(c.getSLast(),
+        c.getSTimestamp())));
+    return lastpriceStates;
+  }
+
+  private <S extends Securitycurrency<S>> List<SecuritycurrencyPosition<S>> getChangedPositions(
+      List<SecuritycurrencyPosition<S>> securitycurrencyPositionList,
+      Map<Integer, LastpriceState> lastpriceBeforeRefresh) {
+    return securitycurrencyPositionList.stream()
+        .filter(scp -> !new LastpriceState(scp.securitycurrency.getSLast(), scp.securitycurrency.getSTimestamp())
+            .equals(lastpriceBeforeRefresh.get(scp.securitycurrency.getIdSecuritycurrency())))
+        .collect(Collectors.toList());
+  }
+
   private SecuritycurrencyGroup combineSecuritycurrencyGroupWithSecurtiesTransaction(
       SecuritycurrencyGroup securitycurrencyGroup, int[] watchlistSecuritesHasTransactionIds) {
     markWatchlistSecurityHasEverTransactionTenant(watchlistSecuritesHasTransactionIds,
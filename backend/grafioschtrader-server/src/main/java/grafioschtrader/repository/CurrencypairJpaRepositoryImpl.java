@@ -81,11 +81,13 @@ public class CurrencypairJpaRepositoryImpl extends SecuritycurrencyService<Curre
   @PostConstruct
   private void postConstruct() {
     HistoryquoteThruConnector<Currencypair> connectorThru = new HistoryquoteThruConnector<>(entityManager,
-        globalparametersService, feedConnectorbeans, this, Currencypair.class, genericConnectorEndpointJpaRepository);
+        globalparametersService, feedConnectorbeans, this, Currencypair.class, genericConnectorEndpointJpaRepository,
+        feedConnectorScheduler, historyquoteAppendWriter);
     historyquoteThruConnector = new HistoryquoteThruGTNet<>(connectorThru, gtNetHistoryquoteService,
         globalparametersJpaRepository, globalparametersService, currencypairJpaRepository);
     intradayThruConnector = new IntradayThruConnector<>(currencypairJpaRepository, globalparametersService,
-        feedConnectorbeans, this, genericConnectorEndpointJpaRepository);
+        feedConnectorbeans, this, genericConnectorEndpointJpaRepository, feedConnectorScheduler,
+        intradaySingleFlight);
   }
 
   @Override
@@ -265,6 +267,12 @@ public class CurrencypairJpaRepositoryImpl extends SecuritycurrencyService<Curre
     return feedConector.getEodCurrencyHistory(currencypair, fromDate, toDate);
   }
 
+  @Override
+  public Map<Integer, List<Historyquote>> getHistoryQuotes(final List<Currencypair> currencypairs,
+      final LocalDate fromDate, final LocalDate toDate, final IFeedConnector feedConnector) throws Exception {
+    return feedConnector.getEodCurrenciesHistory(currencypairs, fromDate, toDate);
+  }
+
   @Override
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   @Modifying
@@ -380,6 +388,12 @@ public class CurrencypairJpaRepositoryImpl extends SecuritycurrencyService<Curre
     feedConnector.updateCurrencyPairLastPrice(securitycurrency);
   }
 
+  @Override
+  public List<Currencypair> updateIntraSecurityCurrencies(final List<Currencypair> currencypairs,
+      final IFeedConnector feedConnector) throws Exception {
+    return feedConnector.updateCurrencyPairsLastPrice(currencypairs);
+  }
+
   @Override
   public SecurityCurrencypairJpaRepository<Currencypair> getJpaRepository() {
     return currencypairJpaRepository;
@@ -0,0 +1,306 @@
+package grafioschtrader.repository;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import grafioschtrader.entities.Historyquote;
+
+/**
+ * Appends the end of day quotes which a batch update downloads for many instruments to the history quotes. The quotes
+ * are written with multi-row inserts instead of adding them to the history quote list of every instrument and saving
+ * the instrument with its history through JPA.
+ * <p>
+ * A batch update opens an {@link AppendQueue}. The threads which download the quotes put them into its bounded queue,
+ * a single writer takes them out and writes the rows of several instruments at once. A quote of an already existing
+ * day is overwritten. In the same transaction the retry counter of these instruments is reset, a failed download or
+ * write increases it. When the queue is full, the downloading threads wait for the writer.
+ * </p>
+ */
+@Component
+public class HistoryquoteAppendWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(HistoryquoteAppendWriter.class);
+
+  private static final String INSERT = "INSERT INTO historyquote (id_securitycurrency, date, close, volume, open, "
+      + "high, low, create_type) VALUES ";
+
+  private static final String INSERT_ROW = "(?,?,?,?,?,?,?,?)";
+
+  private static final String ON_DUPLICATE = " ON DUPLICATE KEY UPDATE close=VALUES(close), volume=VALUES(volume), "
+      + "open=VALUES(open), high=VALUES(high), low=VALUES(low), create_type=VALUES(create_type)";
+
+  private static final String RESET_RETRY = "UPDATE securitycurrency SET retry_history_load=0, version=version+1 "
+      + "WHERE retry_history_load<>0 AND id_securitycurrency IN ";
+
+  private static final String INCREASE_RETRY = "UPDATE securitycurrency SET retry_history_load=retry_history_load+1, "
+      + "version=version+1 WHERE id_securitycurrency IN ";
+
+  /** Instruments whose quotes may wait in the queue. */
+  @Value("${gt.history.append.queue.capacity:200}")
+  private int queueCapacity = 200;
+
+  /** Quotes which are written with a single insert statement. */
+  @Value("${gt.history.append.batch.rows:1000}")
+  private int batchRows = 1000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  /**
+   * Starts the writer of a batch update. It must be closed when all instruments are processed.
+   *
+   * @param name used for the thread of the writer and the log
+   */
+  public AppendQueue open(String name) {
+    return new AppendQueue(name);
+  }
+
+  /**
+   * Returns the instruments with archived quotes of a previous connector. After a download the archive supplements
+   * the missing days, these instruments are therefore not updated by an append.
+   */
+  public Set<Integer> getIdsWithLegacyHistory() {
+    return new HashSet<>(
+        jdbcTemplate.queryForList("SELECT DISTINCT id_securitycurrency FROM historyquote_legacy", Integer.class));
+  }
+
+  static String createInsertSql(int rowCount) {
+    return INSERT + String.join(",", Collections.nCopies(rowCount, INSERT_ROW)) + ON_DUPLICATE;
+  }
+
+  static String createInClause(int count) {
+    return "(" + String.join(",", Collections.nCopies(count, "?")) + ")";
+  }
+
+  private static Object[] createInsertArgs(List<Historyquote> historyquotes) {
+    Object[] args = new Object[historyquotes.size() * 8];
+    int i = 0;
+    for (Historyquote historyquote : historyquotes) {
+      args[i++] = historyquote.getIdSecuritycurrency();
+      args[i++] = Date.valueOf(historyquote.getDate());
+      args[i++] = historyquote.getClose();
+      args[i++] = historyquote.getVolume();
+      args[i++] = historyquote.getOpen();
+      args[i++] = historyquote.getHigh();
+      args[i++] = historyquote.getLow();
+      args[i++] = historyquote.getCreateType() == null ? null : historyquote.getCreateType().getValue();
+    }
+    return args;
+  }
+
+  /**
+   * Throughput of a batch update. The time of the data providers is the sum over all instruments, which are downloaded
+   * in parallel, and can therefore exceed the elapsed time.
+   */
+  public record AppendStatistics(int instruments, long rows, int failed, long elapsedMillis, long databaseMillis,
+      long networkMillis) {
+
+    public long rowsPerSecond() {
+      return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+  }
+
+  private record InstrumentQuotes(Integer idSecuritycurrency, List<Historyquote> historyquotes, boolean failed) {
+  }
+
+  /**
+   * Queue of a single batch update, it is drained by its own writer thread.
+   */
+  public class AppendQueue implements AutoCloseable {
+
+    private final InstrumentQuotes end = new InstrumentQuotes(null, List.of(), true);
+
+    private final String name;
+    private final BlockingQueue<InstrumentQuotes> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    private final Set<Integer> failedIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong networkNanos = new AtomicLong();
+    private final long startTime = System.nanoTime();
+    private final Thread writer;
+
+    // Only used by the writer thread, read after it has ended
+    private final List<InstrumentQuotes> pending = new ArrayList<>();
+    private int pendingRows;
+    private int instruments;
+    private long rows;
+    private long databaseNanos;
+
+    private AppendStatistics statistics;
+
+    private AppendQueue(String name) {
+      this.name = name;
+      writer = Thread.ofPlatform().name("historyquote-append-" + name).start(this::write);
+    }
+
+    /**
+     * Queues the downloaded quotes of an instrument, waits while the queue is full.
+     *
+     * @param idSecuritycurrency the instrument
+     * @param historyquotes      the quotes, may be empty when the data provider has no new quote
+     * @param networkNanos       the time of the download
+     */
+    public void append(Integer idSecuritycurrency, List<Historyquote> historyquotes, long networkNanos) {
+      this.networkNanos.addAndGet(networkNanos);
+      put(new InstrumentQuotes(idSecuritycurrency, historyquotes, false));
+    }
+
+    /**
+     * Queues the failed download of an instrument, its retry counter is increased.
+     */
+    public void failed(Integer idSecuritycurrency, long networkNanos) {
+      this.networkNanos.addAndGet(networkNanos);
+      failedIds.add(idSecuritycurrency);
+      put(new InstrumentQuotes(idSecuritycurrency, List.of(), true));
+    }
+
+    /**
+     * Whether the download or the write of the quotes of an instrument has failed. Final after {@link #close()}.
+     */
+    public boolean isFailed(Integer idSecuritycurrency) {
+      return failedIds.contains(idSecuritycurrency);
+    }
+
+    /**
+     * Statistics of the batch update, available after {@link #close()}.
+     */
+    public AppendStatistics getStatistics() {
+      return statistics;
+    }
+
+    /**
+     * Writes the remaining quotes and waits for the writer to end.
+     */
+    @Override
+    public synchronized void close() {
+      if (statistics != null) {
+        return;
+      }
+      put(end);
+      boolean interrupted = false;
+      while (writer.isAlive()) {
+        try {
+          writer.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      statistics = new AppendStatistics(instruments, rows, failedIds.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), TimeUnit.NANOSECONDS.toMillis(databaseNanos),
+          TimeUnit.NANOSECONDS.toMillis(networkNanos.get()));
+      if (instruments > 0) {
+        log.info("Appended {} history quotes of {} instruments ({}) in {} ms, {} rows/s, database {} ms, "
+            + "data providers {} ms, failed {}", statistics.rows(), statistics.instruments(), name,
+            statistics.elapsedMillis(), statistics.rowsPerSecond(), statistics.databaseMillis(),
+            statistics.networkMillis(), statistics.failed());
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void put(InstrumentQuotes instrumentQuotes) {
+      try {
+        while (!queue.offer(instrumentQuotes, 1, TimeUnit.SECONDS)) {
+          if (!writer.isAlive()) {
+            throw new IllegalStateException("The writer of the history quotes " + name + " has ended");
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while queuing the history quotes " + name, e);
+      }
+    }
+
+    private void write() {
+      try {
+        while (true) {
+          InstrumentQuotes instrumentQuotes = queue.poll();
+          if (instrumentQuotes == null) {
+            // Nothing else is ready, write what was collected so far before waiting
+            flush();
+            instrumentQuotes = queue.take();
+          }
+          if (instrumentQuotes == end) {
+            flush();
+            return;
+          }
+          pending.add(instrumentQuotes);
+          pendingRows += instrumentQuotes.historyquotes().size();
+          if (pendingRows >= batchRows) {
+            flush();
+          }
+        }
+      } catch (InterruptedException e) {
+        log.warn("Writer of the history quotes {} was interrupted", name);
+      }
+    }
+
+    private void flush() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      long flushStart = System.nanoTime();
+      List<Integer> succeededIds = new ArrayList<>();
+      List<Integer> increaseIds = new ArrayList<>();
+      List<Historyquote> historyquotes = new ArrayList<>(pendingRows);
+      for (InstrumentQuotes instrumentQuotes : pending) {
+        if (instrumentQuotes.failed()) {
+          increaseIds.add(instrumentQuotes.idSecuritycurrency());
+        } else {
+          succeededIds.add(instrumentQuotes.idSecuritycurrency());
+          historyquotes.addAll(instrumentQuotes.historyquotes());
+        }
+      }
+      try {
+        transactionTemplate.executeWithoutResult(_ -> {
+          for (int from = 0; from < historyquotes.size(); from += batchRows) {
+            List<Historyquote> rowBatch = historyquotes.subList(from, Math.min(historyquotes.size(), from + batchRows));
+            jdbcTemplate.update(createInsertSql(rowBatch.size()), createInsertArgs(rowBatch));
+          }
+          updateRetry(RESET_RETRY, succeededIds);
+        });
+        rows += historyquotes.size();
+      } catch (RuntimeException e) {
+        log.error("Writing the history quotes of the instruments {} failed", succeededIds, e);
+        failedIds.addAll(succeededIds);
+        increaseIds.addAll(succeededIds);
+      }
+      try {
+        updateRetry(INCREASE_RETRY, increaseIds);
+      } catch (RuntimeException e) {
+        log.error("Increasing the retry counter of the instruments {} failed", increaseIds, e);
+      }
+      instruments += pending.size();
+      databaseNanos += System.nanoTime() - flushStart;
+      pending.clear();
+      pendingRows = 0;
+    }
+
+    private void updateRetry(String sql, List<Integer> ids) {
+      if (!ids.isEmpty()) {
+        jdbcTemplate.update(sql + createInClause(ids.size()), ids.toArray());
+      }
+    }
+  }
+}
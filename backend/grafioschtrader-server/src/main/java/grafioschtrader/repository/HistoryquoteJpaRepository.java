@@ -1,6 +1,7 @@
 package grafioschtrader.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -48,6 +49,8 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   List<Historyquote> findByIdSecuritycurrencyAndDateBetweenOrderByDate(Integer idSecuritycurrency, LocalDate fromDate,
       LocalDate toDate);
 
+  long countByIdSecuritycurrencyAndDateBetween(Integer idSecuritycurrency, LocalDate fromDate, LocalDate toDate);
+
   /**
    * Batch query for historical quotes across multiple securities/currency pairs.
    * Returns all quotes for the given IDs where the date is greater than or equal to the fromDate.
@@ -167,6 +170,26 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   @Query(nativeQuery = false)
   List<HistoryquoteDateOHLC> findOhlcByIdSecuritycurrencyOrderByDateAsc(Integer idSecuritycurrency);
 
+  /**
+   * Same as {@link #findOhlcByIdSecuritycurrencyOrderByDateAsc(Integer)} but limited to the quotes between both dates,
+   * the dates are included.
+   *
+   * Named query: Historyquote.findOhlcByIdSecuritycurrencyAndDateBetweenOrderByDateAsc
+   */
+  @Query(nativeQuery = false)
+  List<HistoryquoteDateOHLC> findOhlcByIdSecuritycurrencyAndDateBetweenOrderByDateAsc(Integer idSecuritycurrency,
+      LocalDate fromDate, LocalDate toDate);
+
+  /**
+   * Same as {@link #findDateCloseByIdSecuritycurrencyAndCreateTypeFalseOrderByDateAsc(Integer)} but limited to the
+   * quotes between both dates, the dates are included.
+   *
+   * Named query: Historyquote.findDateCloseByIdSecuritycurrencyAndDateBetweenOrderByDateAsc
+   */
+  @Query(nativeQuery = false)
+  List<HistoryquoteDateClose> findDateCloseByIdSecuritycurrencyAndDateBetweenOrderByDateAsc(Integer idSecuritycurrency,
+      LocalDate fromDate, LocalDate toDate);
+
   /**
    * Calculates and retrieves a data quality report for the End-of-Day (EOD) historical quotes of a specific security.
    * <p>
@@ -349,27 +372,6 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   @Query(nativeQuery = true)
   List<Historyquote> getSecuritycurrencyHistoryEndOfYearsByIdTenant(Integer idTenant);
 
-  /**
-   * Retrieves distinct historical closing prices for currency pairs actively used by a specific tenant, for a given
-   * date. These are typically pairs needed to convert amounts to the tenant's main currency or to the currencies of its
-   * portfolios.
-   * <p>
-   * The method determines "used" currency pairs by analyzing transactions, security currencies, and cash account
-   * currencies associated with the tenant's portfolios. It then fetches the EOD (End-of-Day) exchange rates for these
-   * pairs for the specified date, ensuring the conversion target is either the tenant's primary currency or a
-   * portfolio's currency.
-   *
-   * @param idTenant The identifier of the tenant for whom relevant currency exchange rates are required.
-   * @param date     The specific date for which the historical exchange rates are to be fetched.
-   * @return A list of object arrays. Each array contains three elements in order: first, a Date object representing the
-   *         date of the historical quote (this will be the same as the input 'date'); second, a String indicating the
-   *         'from' currency code of the identified currency pair; and third, a Double value for the closing EOD
-   *         exchange rate of this pair on the specified date. Returns an empty list if no relevant currency pair data
-   *         is found for the tenant and date.
-   */
-  @Query(nativeQuery = true)
-  List<Object[]> getUsedCurrencyHistoryquotesByIdTenantAndDate(Integer idTenant, LocalDate date);
-
   /**
    * Return exchange rate for dividend transactions depending on tenant and main currency. This include all exchange
    * rates from history quotes with transactions on foreign cash account.
@@ -377,55 +379,6 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   @Query(nativeQuery = true)
   List<Object[]> getHistoryquoteCurrenciesForDividendsByIdTenantAndMainCurrency(Integer idTenant, String mainCurrency);
 
-  /**
-   * For a given tenant and a specified main currency, this method retrieves historical end-of-day (EOD) exchange rates.
-   * These rates are specifically for ACCUMULATE (buy) and REDUCE (sell) transactions (as defined in the TransactionType
-   * enum) that occurred in cash accounts denominated in a currency different from the specified main currency.
-   * <p>
-   * A cash account's currency is considered "foreign" if it does not match the provided main currency. The fetched
-   * exchange rates represent the conversion from the foreign cash account's currency to the specified main currency,
-   * effective as of the date of each relevant ACCUMULATE or REDUCE transaction. This is useful for valuing such
-   * transactions in the context of the main currency.
-   *
-   * @param idTenant     The identifier of the tenant whose transactions are being analyzed.
-   * @param mainCurrency The target currency (e.g., tenant's main reporting currency) against which foreign cash account
-   *                     currencies are compared and to which they are converted.
-   * @return A list of object arrays. Each array corresponds to an ACCUMULATE or REDUCE transaction in a foreign
-   *         currency cash account and includes three elements in order: first, a Date object representing the
-   *         transaction date (which is also the EOD exchange rate date); second, a String indicating the currency code
-   *         of the foreign cash account involved in the transaction; and third, a Double value for the EOD exchange
-   *         rate from that cash account's currency to the specified main currency. Returns an empty list if no such
-   *         transactions or corresponding exchange rates are found.
-   */
-  @Query(nativeQuery = true)
-  List<Object[]> getHistoryquoteCurrenciesForBuyAndSellByIdTenantAndMainCurrency(Integer idTenant, String mainCurrency);
-
-  /**
-   * For a given tenant and a specified main currency, this method retrieves historical end-of-day (EOD) exchange rates.
-   * These rates are associated with specific transaction types including INTEREST_CASHACCOUNT, FEE, ACCUMULATE (buy),
-   * REDUCE (sell), and DIVIDEND (corresponding to TransactionType enum values 2 through 6), which occurred in cash
-   * accounts denominated in a currency different from the specified main currency.
-   * <p>
-   * A cash account's currency is considered "foreign" if it does not match the provided main currency. The fetched
-   * exchange rates represent the conversion from the foreign cash account's currency to the specified main currency,
-   * effective as of the date of each relevant transaction. This is useful for valuing these various transaction types
-   * in the context of the main currency.
-   *
-   * @param idTenant     The identifier of the tenant whose transactions are being analyzed.
-   * @param mainCurrency The target currency (e.g., tenant's main reporting currency) against which foreign cash account
-   *                     currencies are compared and to which they are converted.
-   * @return A list of object arrays. Each array corresponds to one of the specified transaction types
-   *         (INTEREST_CASHACCOUNT, FEE, ACCUMULATE, REDUCE, DIVIDEND) in a foreign currency cash account and includes
-   *         three elements in order: first, a Date object representing the transaction date (which is also the EOD
-   *         exchange rate date); second, a String indicating the currency code of the foreign cash account involved in
-   *         the transaction; and third, a Double value for the EOD exchange rate from that cash account's currency to
-   *         the specified main currency. Returns an empty list if no such transactions or corresponding exchange rates
-   *         are found.
-   */
-  @Query(nativeQuery = true)
-  List<Object[]> getHistoryquoteCurrenciesForIntrFeeBuySellDivByIdTenantAndMainCurrency(Integer idTenant,
-      String mainCurrency);
-
   /**
    * For every transaction occurring in a cash account whose currency differs from the tenant's main currency, this
    * method retrieves the corresponding historical end-of-day (EOD) exchange rate. The fetched rate facilitates the
@@ -471,92 +424,6 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   @Query(nativeQuery = true)
   List<Object[]> getHistoryquotesForAllForeignTransactionsByIdPortfolio(Integer idPortfolio);
 
-  //@formatter:off
-  /**
-   * For every transaction within a specified cash account, this method retrieves the historical
-   * end-of-day (EOD) exchange rate. This rate is used for converting the currency of the
-   * security involved in the transaction to the main currency of the portfolio to which the
-   * cash account belongs. The exchange rate corresponds to the date of each transaction.
-   * <p>
-   * This method is typically used to value transactions involving foreign securities in the
-   * portfolio's reference currency at the time they occurred.
-   * Retrieves the end-of-day exchange rate for every transaction in the specified cash account (?1).
-   * - Joins portfolio → cash account → transaction → securitycurrency → security → currencypair
-   *   to determine each security’s currency pair relative to the portfolio.
-   * - Joins historyquote on transaction date (t.tt_date = h.date) to fetch the closing rate.
-   * - Returns one row per transaction with:
-   *     • date (h.date)
-   *     • source currency code (cp.from_currency)
-   *     • exchange rate (h.close)
-   * @param idSecurityaccount The identifier of the cash account for which transaction-related exchange rates are being fetched.
-   * @return see above
-   */
-  //@formatter:on
-  @Query(nativeQuery = true)
-  List<Object[]> getHistoryquotesForAllForeignTransactionsByIdSecuritycashAccount(Integer idSecurityaccount);
-
-  /**
-   * For all transactions associated with a specific security across all portfolios of a given tenant, this method
-   * retrieves the historical end-of-day (EOD) exchange rate. The rate is for converting the security's currency to the
-   * tenant's main currency, as of each transaction's date.
-   * <p>
-   * This is useful for analyzing transaction values in the tenant's primary reference currency.
-   *
-   * @param idTenant           The identifier of the tenant whose transactions are being considered.
-   * @param idSecuritycurrency The identifier of the security involved in the transactions.
-   * @return A list of object arrays, where each array represents a transaction and its corresponding exchange rate.
-   *         Each array contains three elements in order: first, a Date object for the transaction date (also the EOD
-   *         exchange rate date); second, a String for the security's currency code (the source currency for
-   *         conversion); and third, a Double value for the EOD exchange rate from the security's currency to the
-   *         tenant's main currency (representing the 'close' price from historical quotes for the relevant currency
-   *         pair). An empty list is returned if no matching transactions or exchange rates are found.
-   */
-  @Query(nativeQuery = true)
-  List<Object[]> findByIdTenantAndIdSecurityFoCuHistoryquotes(Integer idTenant, Integer idSecuritycurrency);
-
-  /**
-   * For each transaction involving a specific security within a given portfolio, this method retrieves the relevant
-   * historical end-of-day (EOD) exchange rate. The rate provided is for converting the security's currency to the main
-   * currency of the portfolio, as of the transaction's date.
-   * <p>
-   * This is typically used to determine the value of security transactions in the portfolio's reference currency at the
-   * time they occurred.
-   *
-   * @param idPortfolio        The identifier of the portfolio containing the transactions.
-   * @param idSecuritycurrency The identifier of the security for which the conversion rates for its transactions are
-   *                           being sought.
-   * @return A list of object arrays. Each array corresponds to a transaction of the specified security within the
-   *         portfolio and contains three elements in order: first, a Date object representing the transaction date
-   *         (which is also the EOD exchange rate date); second, a String for the security's currency code (the 'from'
-   *         currency in the conversion); and third, a Double value for the EOD exchange rate from the security's
-   *         currency to the portfolio's main currency (representing the 'close' price from historical quotes for the
-   *         relevant currency pair). Returns an empty list if no such transactions or corresponding exchange rates are
-   *         found.
-   */
-
-  @Query(nativeQuery = true)
-  List<Object[]> findByIdPortfolioAndIdSecurityFoCuHistoryquotes(Integer idPortfolio, Integer idSecuritycurrency);
-
- //@formatter:off
- /**
-  * For each transaction of the specified security (?2) in the given cash account (?1),
-  * retrieves the end-of-day exchange rate from the security’s currency to the portfolio’s currency.
-  * - Joins portfolio → cash account → transaction → securitycurrency → security → currencypair
-  *   to identify the correct currency pair.
-  * - Joins historyquote on the transaction date (t.tt_date = h.date) to get the close price.
-  * - Returns one row per transaction containing:
-  *     • date (h.date)
-  *     • source currency code (cp.from_currency)
-  *     • conversion rate (h.close)
-  * @param idSecuritycashAccount The identifier of the cash account where the transactions occurred.
-  * @param idSecuritycurrency The identifier of the security involved in the transactions.
-  * @return see above
-  */
-  //@formatter:on
-  @Query(nativeQuery = true)
-  List<Object[]> findByIdSecurityaccountAndIdSecurityFoCuHistoryquotes(Integer idSecuritycashAccount,
-      Integer idSecuritycurrency);
-
   /**
    * Calculates and returns a list of dates representing End-of-Day (EOD) records that are missing for a given security.
    * These missing dates are identified by comparing the EOD records of the specified security against those of a
@@ -631,10 +498,42 @@ public interface HistoryquoteJpaRepository extends JpaRepository<Historyquote, I
   @Query("SELECT MIN(h.date), MAX(h.date), COUNT(h) FROM Historyquote h WHERE h.idSecuritycurrency = ?1")
   Object[] findMinMaxDateAndCount(Integer idSecuritycurrency);
 
+  /**
+   * Returns the number of history quotes, the youngest date and the last modification of a security or currency pair.
+   * Used to detect whether history quotes which are held in memory still match the database.
+   *
+   * @param idSecuritycurrency the ID of the security or currency pair
+   * @return the version of the history quotes, the count is 0 when there are none
+   */
+  @Query("""
+      SELECT COUNT(h) AS quoteCount, MAX(h.date) AS maxDate, MAX(h.createModifyTime) AS maxModifyTime
+      FROM Historyquote h WHERE h.idSecuritycurrency = ?1""")
+  HistoryquoteVersion getVersionByIdSecuritycurrency(Integer idSecuritycurrency);
+
+  @Query("SELECT h.date AS date, h.close AS close FROM Historyquote h WHERE h.idSecuritycurrency = ?1 ORDER BY h.date")
+  List<IDateAndClose> getDateAndCloseByIdSecuritycurrency(Integer idSecuritycurrency);
+
+  /**
+   * Returns the history quotes of a security or currency pair which were created or modified at or after a point in
+   * time.
+   */
+  @Query("""
+      SELECT h.date AS date, h.close AS close FROM Historyquote h
+      WHERE h.idSecuritycurrency = ?1 AND h.createModifyTime >= ?2 ORDER BY h.date""")
+  List<IDateAndClose> getDateAndCloseModifiedSince(Integer idSecuritycurrency, LocalDateTime since);
+
   public interface SecurityCurrencyIdAndDate {
     Integer getIdSecuritycurrency();
 
     LocalDate getDate();
   }
 
+  public interface HistoryquoteVersion {
+    long getQuoteCount();
+
+    LocalDate getMaxDate();
+
+    LocalDateTime getMaxModifyTime();
+  }
+
 }
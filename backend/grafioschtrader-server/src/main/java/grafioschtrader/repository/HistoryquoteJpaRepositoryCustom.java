@@ -11,6 +11,7 @@ import grafiosch.entities.User;
 import grafiosch.repository.BaseRepositoryCustom;
 import grafioschtrader.dto.DeleteHistoryquotesSuccess;
 import grafioschtrader.dto.HistoryquoteChartResponse;
+import grafioschtrader.dto.HistoryquoteChartVersion;
 import grafioschtrader.dto.HistoryquotesWithMissings;
 import grafioschtrader.dto.IDateAndClose;
 import grafioschtrader.dto.ISecuritycurrencyIdDateClose;
@@ -97,11 +98,30 @@ public interface HistoryquoteJpaRepositoryCustom extends BaseRepositoryCustom<Hi
    * The method ensures user access validation before fetching data.
    * </p>
    *
+   * <p>
+   * The quotes can be limited to a date range and reduced to about the number of points the chart can show. A close
+   * series is reduced with Largest-Triangle-Three-Buckets, OHLC data is aggregated over consecutive days, see
+   * {@link grafioschtrader.common.ChartDownsampler}.
+   * </p>
+   *
    * @param idSecuritycurrency The unique identifier of the security or currency pair.
+   * @param fromDate           The first day of the chart, null for the oldest quote.
+   * @param toDate             The last day of the chart, null for the youngest quote.
+   * @param maxPoints          The maximum number of returned points, null or 0 returns every quote.
+   * @param columnar           True to return the data as parallel arrays instead of a list of objects.
    * @return A HistoryquoteChartResponse containing either OHLC data (when available) or simple date/close data. The
    *         response includes an ohlcAvailable flag to indicate which format was returned.
    */
-  HistoryquoteChartResponse getHistoryquoteForChart(Integer idSecuritycurrency);
+  HistoryquoteChartResponse getHistoryquoteForChart(Integer idSecuritycurrency, LocalDate fromDate, LocalDate toDate,
+      Integer maxPoints, boolean columnar);
+
+  /**
+   * Returns the state of the history quotes of an instrument, a chart is sent again only when it has changed.
+   *
+   * @param idSecuritycurrency The unique identifier of the security or currency pair.
+   * @return the number of quotes and their latest modification time
+   */
+  HistoryquoteChartVersion getHistoryquoteChartVersion(Integer idSecuritycurrency);
 
   /**
    * Calculates and returns technical analysis (TA) indicator data for a given security or currency pair, based on
@@ -1,7 +1,6 @@
 package grafioschtrader.repository;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,15 +14,14 @@ import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.ClassUtils;
 
 import com.ezylang.evalex.EvaluationException;
 
@@ -35,9 +33,12 @@ import grafiosch.entities.User;
 import grafiosch.repository.BaseRepositoryImpl;
 import grafiosch.repository.TaskDataChangeJpaRepository;
 import grafiosch.types.TaskDataExecPriority;
+import grafioschtrader.common.ChartDownsampler;
 import grafioschtrader.common.DataBusinessHelper;
 import grafioschtrader.dto.DeleteHistoryquotesSuccess;
+import grafioschtrader.dto.HistoryquoteChartColumns;
 import grafioschtrader.dto.HistoryquoteChartResponse;
+import grafioschtrader.dto.HistoryquoteChartVersion;
 import grafioschtrader.dto.HistoryquoteDateClose;
 import grafioschtrader.dto.HistoryquoteDateOHLC;
 import grafioschtrader.dto.HistoryquotesWithMissings;
@@ -52,12 +53,10 @@ import grafioschtrader.entities.projection.IFormulaInSecurity;
 import grafioschtrader.entities.projection.IFormulaSecurityLoad;
 import grafioschtrader.priceupdate.ThruCalculationHelper;
 import grafioschtrader.service.GlobalparametersService;
+import grafioschtrader.service.IndicatorStateStore;
 import grafioschtrader.ta.TaIndicators;
 import grafioschtrader.ta.TaTraceIndicatorData;
-import grafioschtrader.ta.indicator.calc.CalcAccessIndicator;
-import grafioschtrader.ta.indicator.calc.ExponentialMovingAverage;
-import grafioschtrader.ta.indicator.calc.RelativeStrengthIndex;
-import grafioschtrader.ta.indicator.calc.SimpleMovingAverage;
+import grafioschtrader.ta.indicator.calc.TaIndicatorEngine;
 import grafioschtrader.ta.indicator.model.ShortMediumInputPeriod;
 import grafioschtrader.ta.indicator.model.ShortMediumLongInputPeriod;
 import grafioschtrader.types.HistoryquoteCreateType;
@@ -72,6 +71,13 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
       + "(id_securitycurrency, date, close, open, high, low, volume, create_type, create_modify_time) "
       + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW())";
 
+  private static final String CHART_VERSION_SQL = "SELECT COUNT(*), MAX(create_modify_time) FROM historyquote "
+      + "WHERE id_securitycurrency = ?";
+
+  /** Bounds of an open date range of a chart, the supported range of the DATE type of MariaDB. */
+  private static final LocalDate CHART_FIRST_DATE = LocalDate.of(1000, 1, 1);
+  private static final LocalDate CHART_LAST_DATE = LocalDate.of(9999, 12, 31);
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
@@ -102,6 +108,17 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
   @Autowired
   private TaskDataChangeJpaRepository taskDataChangeJpaRepository;
 
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
+  // Circular Dependency -> Lazy
+  private IndicatorStateStore indicatorStateStore;
+
+  @Autowired
+  public void setIndicatorStateStore(@Lazy final IndicatorStateStore indicatorStateStore) {
+    this.indicatorStateStore = indicatorStateStore;
+  }
+
   @Override
   public ISecuritycurrencyIdDateClose getCertainOrOlderDayInHistorquoteByIdSecuritycurrency(
       final Integer idSecuritycurrency, final String dateString, final boolean asTraded) throws ParseException {
@@ -188,6 +205,9 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
     Historyquote historyquoteSaved = historyquoteJpaRepository.save(historyquote);
     updateHolidaysWeekendHistoryquotes(historyquoteSaved);
     updateCalculationByChangedHistoryquote(historyquoteSaved);
+    indicatorStateStore.invalidateAfterCommit(historyquoteSaved.getIdSecuritycurrency());
+    holdPeriodValuationStore.markDirtyByInstrument(historyquoteSaved.getIdSecuritycurrency(),
+        historyquoteSaved.getDate());
     if (dayDiff > 1) {
       Optional<Security> securityOpt = securityJpaRepository.findById(historyquote.getIdSecuritycurrency());
       if (securityOpt.isEmpty()) {
@@ -220,11 +240,18 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
   @Modifying
   public void afterDelete(Optional<Historyquote> deletedHistoryquoteOpt) {
     if (deletedHistoryquoteOpt.isPresent()) {
+      Historyquote deletedHistoryquote = deletedHistoryquoteOpt.get();
+      indicatorStateStore.invalidateAfterCommit(deletedHistoryquote.getIdSecuritycurrency());
+      holdPeriodValuationStore.markDirtyByInstrument(deletedHistoryquote.getIdSecuritycurrency(),
+          deletedHistoryquote.getDate());
       List<IFormulaSecurityLoad> dependingSecurities = securityJpaRepository
-          .getBySecurityDerivedLinkByIdSecurityLink(deletedHistoryquoteOpt.get().getIdSecuritycurrency());
+          .getBySecurityDerivedLinkByIdSecurityLink(deletedHistoryquote.getIdSecuritycurrency());
       for (IFormulaInSecurity security : dependingSecurities) {
         historyquoteJpaRepository.deleteByIdSecuritycurrencyAndDate(security.getIdSecuritycurrency(),
-            deletedHistoryquoteOpt.get().getDate());
+            deletedHistoryquote.getDate());
+        indicatorStateStore.invalidateAfterCommit(security.getIdSecuritycurrency());
+        holdPeriodValuationStore.markDirtyByInstrument(security.getIdSecuritycurrency(),
+            deletedHistoryquote.getDate());
       }
     }
   }
@@ -242,6 +269,8 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
         .getBySecurityDerivedLinkByIdSecurityLink(savedHistoryquote.getIdSecuritycurrency());
 
     for (IFormulaInSecurity security : dependingSecurities) {
+      indicatorStateStore.invalidateAfterCommit(security.getIdSecuritycurrency());
+      holdPeriodValuationStore.markDirtyByInstrument(security.getIdSecuritycurrency(), savedHistoryquote.getDate());
       List<Historyquote> historyquotes = ThruCalculationHelper.loadDataAndCreateHistoryquotes(
           securityDerivedLinkJpaRepository, historyquoteJpaRepository, security, savedHistoryquote.getDate(),
           savedHistoryquote.getDate());
@@ -408,97 +437,95 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
   }
 
   @Override
-  public HistoryquoteChartResponse getHistoryquoteForChart(Integer idSecuritycurrency) {
+  public HistoryquoteChartResponse getHistoryquoteForChart(Integer idSecuritycurrency, LocalDate fromDate,
+      LocalDate toDate, Integer maxPoints, boolean columnar) {
     checkUserAccess(idSecuritycurrency);
+    boolean ranged = fromDate != null || toDate != null;
+    LocalDate from = fromDate == null ? CHART_FIRST_DATE : fromDate;
+    LocalDate to = toDate == null ? CHART_LAST_DATE : toDate;
+    int points = maxPoints == null ? 0 : maxPoints;
     Integer ohlcAvailable = historyquoteJpaRepository.isOhlcAvailable(idSecuritycurrency);
+    HistoryquoteChartResponse response;
     if (Integer.valueOf(1).equals(ohlcAvailable)) {
-      List<HistoryquoteDateOHLC> ohlcList = historyquoteJpaRepository
-          .findOhlcByIdSecuritycurrencyOrderByDateAsc(idSecuritycurrency);
+      List<HistoryquoteDateOHLC> ohlcList = ranged
+          ? historyquoteJpaRepository.findOhlcByIdSecuritycurrencyAndDateBetweenOrderByDateAsc(idSecuritycurrency,
+              from, to)
+          : historyquoteJpaRepository.findOhlcByIdSecuritycurrencyOrderByDateAsc(idSecuritycurrency);
       boolean volumeAvailable = ohlcList.stream()
           .anyMatch(ohlc -> ohlc.getVolume() != null && ohlc.getVolume() > 0);
-      HistoryquoteChartResponse response = HistoryquoteChartResponse.ofOhlc(ohlcList);
+      List<HistoryquoteDateOHLC> chartList = ChartDownsampler.downsampleOhlc(ohlcList, points);
+      response = columnar
+          ? HistoryquoteChartResponse.ofColumns(HistoryquoteChartColumns.ofOhlc(chartList, volumeAvailable), true)
+          : HistoryquoteChartResponse.ofOhlc(chartList);
       response.setVolumeAvailable(volumeAvailable);
-      return response;
+      response.setDownsampled(chartList != ohlcList);
     } else {
-      List<HistoryquoteDateClose> dateCloseList = historyquoteJpaRepository
-          .findDateCloseByIdSecuritycurrencyAndCreateTypeFalseOrderByDateAsc(idSecuritycurrency);
-      return HistoryquoteChartResponse.ofDateClose(dateCloseList);
+      List<HistoryquoteDateClose> dateCloseList = ranged
+          ? historyquoteJpaRepository.findDateCloseByIdSecuritycurrencyAndDateBetweenOrderByDateAsc(idSecuritycurrency,
+              from, to)
+          : historyquoteJpaRepository.findDateCloseByIdSecuritycurrencyAndCreateTypeFalseOrderByDateAsc(
+              idSecuritycurrency);
+      List<HistoryquoteDateClose> chartList = ChartDownsampler.downsampleClose(dateCloseList, points);
+      response = columnar ? HistoryquoteChartResponse.ofColumns(HistoryquoteChartColumns.ofDateClose(chartList), false)
+          : HistoryquoteChartResponse.ofDateClose(chartList);
+      response.setDownsampled(chartList != dateCloseList);
     }
+    return response;
+  }
+
+  @Override
+  public HistoryquoteChartVersion getHistoryquoteChartVersion(Integer idSecuritycurrency) {
+    checkUserAccess(idSecuritycurrency);
+    return jdbcTemplate.queryForObject(CHART_VERSION_SQL,
+        (rs, _) -> new HistoryquoteChartVersion(rs.getLong(1), rs.getObject(2, LocalDateTime.class)),
+        idSecuritycurrency);
   }
 
   @Override
   public List<TaTraceIndicatorData> getTaWithShortMediumLongInputPeriod(Integer idSecuritycurrency,
       TaIndicators taIndicator, ShortMediumLongInputPeriod shortMediumLongInputPeriod) {
     checkUserAccess(idSecuritycurrency);
-    List<TaTraceIndicatorData> taTraceIndicatorData = new ArrayList<>();
-    List<HistoryquoteDateClose> historyquoteDateClose = historyquoteJpaRepository
-        .findDateCloseByIdSecuritycurrencyAndCreateTypeFalseOrderByDateAsc(idSecuritycurrency);
-    Class<? extends CalcAccessIndicator> taClass = null;
-    if (taIndicator == TaIndicators.SMA) {
-      taClass = SimpleMovingAverage.class;
-    } else if (taIndicator == TaIndicators.EMA) {
-      taClass = ExponentialMovingAverage.class;
-    }
-
-    if (shortMediumLongInputPeriod.taShortPeriod != null
-        && historyquoteDateClose.size() > shortMediumLongInputPeriod.taShortPeriod) {
-      taTraceIndicatorData
-          .add(getTrace(taIndicator, taClass, shortMediumLongInputPeriod.taShortPeriod, historyquoteDateClose));
-    }
-
-    if (shortMediumLongInputPeriod.taMediumPeriod != null
-        && historyquoteDateClose.size() > shortMediumLongInputPeriod.taMediumPeriod) {
-      taTraceIndicatorData
-          .add(getTrace(taIndicator, taClass, shortMediumLongInputPeriod.taMediumPeriod, historyquoteDateClose));
-    }
-
-    if (shortMediumLongInputPeriod.taLongPeriod != null
-        && historyquoteDateClose.size() > shortMediumLongInputPeriod.taLongPeriod) {
-      taTraceIndicatorData
-          .add(getTrace(taIndicator, taClass, shortMediumLongInputPeriod.taLongPeriod, historyquoteDateClose));
-    }
-    return taTraceIndicatorData;
+    return getTraces(idSecuritycurrency, taIndicator, shortMediumLongInputPeriod.taShortPeriod,
+        shortMediumLongInputPeriod.taMediumPeriod, shortMediumLongInputPeriod.taLongPeriod);
   }
 
   @Override
   public List<TaTraceIndicatorData> getTaWithShortMediumInputPeriod(Integer idSecuritycurrency,
       TaIndicators taIndicator, ShortMediumInputPeriod shortMediumInputPeriod) {
     checkUserAccess(idSecuritycurrency);
-    List<TaTraceIndicatorData> taTraceIndicatorData = new ArrayList<>();
+    return getTraces(idSecuritycurrency, taIndicator, shortMediumInputPeriod.taShortPeriod,
+        shortMediumInputPeriod.taMediumPeriod);
+  }
+
+  /**
+   * Calculates the traces of all given periods with a single pass over the close series. Periods which are null or not
+   * smaller than the number of quotes are skipped.
+   */
+  private List<TaTraceIndicatorData> getTraces(Integer idSecuritycurrency, TaIndicators taIndicator,
+      Integer... periods) {
     List<HistoryquoteDateClose> historyquoteDateClose = historyquoteJpaRepository
         .findDateCloseByIdSecuritycurrencyAndCreateTypeFalseOrderByDateAsc(idSecuritycurrency);
-    Class<? extends CalcAccessIndicator> taClass = null;
-    if (taIndicator == TaIndicators.RSI) {
-      taClass = RelativeStrengthIndex.class;
-    }
-
-    if (shortMediumInputPeriod.taShortPeriod != null
-        && historyquoteDateClose.size() > shortMediumInputPeriod.taShortPeriod) {
-      taTraceIndicatorData
-          .add(getTrace(taIndicator, taClass, shortMediumInputPeriod.taShortPeriod, historyquoteDateClose));
+    int size = historyquoteDateClose.size();
+    int[] epochDays = new int[size];
+    double[] closes = new double[size];
+    for (int i = 0; i < size; i++) {
+      HistoryquoteDateClose hdc = historyquoteDateClose.get(i);
+      epochDays[i] = (int) hdc.getDate().toEpochDay();
+      closes[i] = hdc.getClose();
     }
 
-    if (shortMediumInputPeriod.taMediumPeriod != null
-        && historyquoteDateClose.size() > shortMediumInputPeriod.taMediumPeriod) {
-      taTraceIndicatorData
-          .add(getTrace(taIndicator, taClass, shortMediumInputPeriod.taMediumPeriod, historyquoteDateClose));
+    TaIndicatorEngine taIndicatorEngine = new TaIndicatorEngine(size);
+    List<TaTraceIndicatorData> taTraceIndicatorData = new ArrayList<>();
+    for (Integer period : periods) {
+      if (period != null && size > period) {
+        taTraceIndicatorData.add(new TaTraceIndicatorData(taIndicator, taIndicator.name(), period,
+            taIndicatorEngine.add(taIndicator, period)));
+      }
     }
-
+    taIndicatorEngine.run(epochDays, closes);
     return taTraceIndicatorData;
   }
 
-  private TaTraceIndicatorData getTrace(TaIndicators taIndicator, Class<? extends CalcAccessIndicator> taClass,
-      int period, List<HistoryquoteDateClose> historyquoteDateClose) {
-    Constructor<? extends CalcAccessIndicator> constructor = ClassUtils.getConstructorIfAvailable(taClass, int.class,
-        int.class);
-    CalcAccessIndicator calcAccessIndicator = BeanUtils.instantiateClass(constructor, period,
-        historyquoteDateClose.size());
-    historyquoteDateClose
-        .forEach(historyquote -> calcAccessIndicator.addData(historyquote.getDate(), historyquote.getClose()));
-
-    return new TaTraceIndicatorData(taIndicator, taIndicator.name(), period, calcAccessIndicator.getTaIndicatorData());
-  }
-
   /**
    * Check if user can get this history quotes
    *
@@ -539,6 +566,8 @@ public class HistoryquoteJpaRepositoryImpl extends BaseRepositoryImpl<Historyquo
         throw new SecurityException(BaseConstants.LIMIT_SECURITY_BREACH);
       }
     }
+    indicatorStateStore.invalidateAfterCommit(idSecuritycurrency);
+    holdPeriodValuationStore.markDirtyByInstrument(idSecuritycurrency, null);
     return dhs;
   }
 
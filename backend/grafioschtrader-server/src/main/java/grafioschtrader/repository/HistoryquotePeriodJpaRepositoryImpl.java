@@ -47,6 +47,9 @@ public class HistoryquotePeriodJpaRepositoryImpl implements HistoryquotePeriodJp
   @Autowired
   private GlobalparametersService globalparametersService;
 
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
   @Override
   public void adjustHistoryquotePeriod(Security security) {
     List<HistoryquotePeriod> historyquotePeriods = historyquotePeriodJpaRepository
@@ -72,7 +75,7 @@ public class HistoryquotePeriodJpaRepositoryImpl implements HistoryquotePeriodJp
         historyquotePeriodJpaRepository.save(hpLast);
       }
     }
-
+    holdPeriodValuationStore.markDirtyByInstrument(security.getIdSecuritycurrency(), null);
   }
 
   @Override
@@ -172,6 +175,7 @@ public class HistoryquotePeriodJpaRepositoryImpl implements HistoryquotePeriodJp
         hpsNewSorted = historyquotePeriodJpaRepository.saveAll(hpsNewSorted);
         historyquotePeriodJpaRepository.updatLastPriceFromHistoricalPeriod();
       }
+      holdPeriodValuationStore.markDirtyByInstrument(security.getIdSecuritycurrency(), null);
     } else {
       // User can't change history quote periods directly if another user created the
       // security -> create a proposal change
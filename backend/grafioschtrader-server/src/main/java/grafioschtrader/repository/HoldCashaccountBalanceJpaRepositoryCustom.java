@@ -30,18 +30,6 @@ import grafioschtrader.repository.helper.TransactionPreImage;
  */
 public interface HoldCashaccountBalanceJpaRepositoryCustom {
 
-  /**
-   * Creates complete cash account balance holdings for all tenants in the system.
-   * 
-   * <p>
-   * This method performs a full rebuild of cash account balance time-frames for every tenant. It processes all cash
-   * transactions (deposits, withdrawals, interest, fees) and creates holding periods that accurately represent balance
-   * changes over time.
-   * </p>
-   * 
-   */
-  void createCashaccountBalanceEntireForAllTenants();
-
   /**
    * Creates complete cash account balance holdings for a specific tenant.
    * 
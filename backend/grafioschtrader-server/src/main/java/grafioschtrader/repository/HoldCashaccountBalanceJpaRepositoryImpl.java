@@ -60,13 +60,11 @@ public class HoldCashaccountBalanceJpaRepositoryImpl implements HoldCashaccountB
   @Autowired
   private GlobalparametersService globalparametersService;
 
-  @Override
-  @Transactional
-  @Modifying
-  public void createCashaccountBalanceEntireForAllTenants() {
-    List<Tenant> tenants = tenantJpaRepository.findAll();
-    tenants.forEach(this::createCashaccountBalanceEntireByTenant);
-  }
+  @Autowired
+  private HoldTenantBatchWriter holdTenantBatchWriter;
+
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
 
   @Override
   @Transactional
@@ -82,11 +80,11 @@ public class HoldCashaccountBalanceJpaRepositoryImpl implements HoldCashaccountB
    * This method performs a full rebuild of balance holdings by:
    * </p>
    * <ul>
-   * <li>Removing all existing holdings for the tenant</li>
    * <li>Loading currency conversion mappings</li>
    * <li>Processing all cash account balance change transactions</li>
    * <li>Creating time-period holdings with proper start/end dates</li>
    * <li>Accumulating balances across transaction types</li>
+   * <li>Replacing the existing holdings of the tenant with a bulk delete and batched inserts</li>
    * </ul>
    * 
    * <p>
@@ -100,7 +98,6 @@ public class HoldCashaccountBalanceJpaRepositoryImpl implements HoldCashaccountB
    * @param tenant the tenant entity for which to rebuild holdings
    */
   private void createCashaccountBalanceEntireByTenant(Tenant tenant) {
-    holdCashaccountBalanceJpaRepository.removeByIdTenant(tenant.getIdTenant());
     Map<FromToCurrency, Currencypair> currencypairFromToCurrencyMap = HoldingsHelper
         .getUsedCurrencypiarsByIdTenant(tenant.getIdTenant(), currencypairJpaRepository);
     List<CashaccountBalanceChangeTransaction> cashaccountSaldoChangeTransactionList = holdCashaccountBalanceJpaRepository
@@ -121,8 +118,7 @@ public class HoldCashaccountBalanceJpaRepositoryImpl implements HoldCashaccountB
       holdCashaccountBalanceList
           .add(getHoldCashaccountBalance(tenant, csct, cashaccountSum, currencypairFromToCurrencyMap));
     }
-    holdCashaccountBalanceJpaRepository.saveAll(holdCashaccountBalanceList);
-
+    holdTenantBatchWriter.replaceCashaccountBalances(tenant.getIdTenant(), holdCashaccountBalanceList);
   }
 
   @Override
@@ -159,6 +155,7 @@ public class HoldCashaccountBalanceJpaRepositoryImpl implements HoldCashaccountB
     List<HoldCashaccountBalance> holdCashaccountBalanceList = new ArrayList<>();
     holdCashaccountBalanceJpaRepository.removeByIdTenantAndIdEmIdSecuritycashAccountAndIdEmFromHoldDateGreaterThanEqual(
         tenant.getIdTenant(), idCashaccount, fromDate);
+    holdPeriodValuationStore.markDirty(tenant.getIdTenant(), fromDate);
 
     HoldCashaccountBalance youngestValidBalance = holdCashaccountBalanceJpaRepository
         .getCashaccountBalanceMaxFromDateByCashaccount(idCashaccount);
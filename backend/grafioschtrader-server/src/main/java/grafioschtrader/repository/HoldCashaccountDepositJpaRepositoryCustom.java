@@ -9,12 +9,6 @@ import grafioschtrader.repository.helper.TransactionPreImage;
  */
 public interface HoldCashaccountDepositJpaRepositoryCustom {
 
-  /**
-   * Creates cash account deposit time frames for all tenants in the system. This method is responsible for generating
-   * periodic snapshots or records of cash account deposits across all tenant accounts.
-   */
-  void createCashaccountDepositTimeFrameForAllTenant();
-
   /**
    * Creates cash account deposit time frames for a specific tenant. This method generates periodic snapshots or records
    * of cash account deposits for the tenant identified by the given ID.
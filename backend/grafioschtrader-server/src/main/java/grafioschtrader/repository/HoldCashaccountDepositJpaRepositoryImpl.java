@@ -69,13 +69,8 @@ public class HoldCashaccountDepositJpaRepositoryImpl implements HoldCashaccountD
   @Autowired
   private TransactionJpaRepository transactionJpaRepository;
 
-  @Override
-  @Transactional
-  @Modifying
-  public void createCashaccountDepositTimeFrameForAllTenant() {
-    List<Tenant> tenants = tenantJpaRepository.findAll();
-    tenants.forEach(this::createCashaccountDepositTimeFrameByTenant);
-  }
+  @Autowired
+  private HoldTenantBatchWriter holdTenantBatchWriter;
 
   @Transactional
   @Modifying
@@ -91,20 +86,20 @@ public class HoldCashaccountDepositJpaRepositoryImpl implements HoldCashaccountD
    * This method performs a full rebuild of deposit holdings by:
    * </p>
    * <ul>
-   * <li>Removing all existing deposit holdings for the tenant</li>
    * <li>Loading exchange rate data and currency conversion mappings</li>
    * <li>Processing all portfolios and their cash accounts</li>
    * <li>Creating time-period holdings for deposit/withdrawal transactions</li>
+   * <li>Replacing the existing deposit holdings of the tenant with a bulk delete and batched inserts</li>
    * </ul>
    * 
    * @param tenant the tenant entity for which to rebuild deposit holdings
    */
   private void createCashaccountDepositTimeFrameByTenant(Tenant tenant) {
-    holdCashaccountDepositJpaRepository.removeByIdTenant(tenant.getIdTenant());
     HoldDepositForTenant holdDepositForTenant = new HoldDepositForTenant();
     holdDepositForTenant.setTenant(tenant);
     holdDepositForTenant.loadDataForTenant(holdCashaccountDepositJpaRepository, currencypairJpaRepository);
-    createCashaccountDepositTimeFrameForPortfolios(holdDepositForTenant);
+    holdTenantBatchWriter.replaceCashaccountDeposits(tenant.getIdTenant(),
+        createCashaccountDepositTimeFrameForPortfolios(holdDepositForTenant));
   }
 
   @Override
@@ -261,8 +256,10 @@ public class HoldCashaccountDepositJpaRepositoryImpl implements HoldCashaccountD
    * </p>
    * 
    * @param holdDepositForTenant context object with tenant data and exchange rate mappings
+   * @return the deposit holdings of all cash accounts of the tenant
    */
-  private void createCashaccountDepositTimeFrameForPortfolios(HoldDepositForTenant holdDepositForTenant) {
+  private List<HoldCashaccountDeposit> createCashaccountDepositTimeFrameForPortfolios(
+      HoldDepositForTenant holdDepositForTenant) {
     List<HoldCashaccountDeposit> holdCashaccountList = new ArrayList<>();
     for (final Portfolio portfolio : holdDepositForTenant.tenant.getPortfolioList()) {
       for (Cashaccount cashaccount : portfolio.getCashaccountList()) {
@@ -275,7 +272,7 @@ public class HoldCashaccountDepositJpaRepositoryImpl implements HoldCashaccountD
             portfolio.getIdPortfolio(), portfolio.getCurrency(), holdDepositForTenant, null));
       }
     }
-    holdCashaccountDepositJpaRepository.saveAll(holdCashaccountList);
+    return holdCashaccountList;
   }
 
   /**
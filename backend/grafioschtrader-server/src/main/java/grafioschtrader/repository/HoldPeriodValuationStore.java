@@ -0,0 +1,362 @@
+package grafioschtrader.repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.reportviews.performance.IPeriodHolding;
+import grafioschtrader.reportviews.performance.PeriodHoldingAndDiff;
+
+/**
+ * Reads and writes the materialized daily valuation series of the period performance report and tracks which part of
+ * a series is outdated.
+ * <p>
+ * The series of a tenant consists of the rows with {@link #ID_PORTFOLIO_TENANT} for the whole tenant and the rows of
+ * each of its portfolios. The state row of a tenant holds the first outdated day ({@code dirty_from}) and the last day
+ * the series was calculated for ({@code computed_until}). A tenant without a state row has never requested the report
+ * and is not maintained, a state row without {@code computed_until} requires a calculation of the whole series.
+ * </p>
+ * <p>
+ * The value of a day only depends on the holdings, deposits and quotes of that same day. Every change of these marks
+ * the series from the day of the change on as dirty, the days before it stay valid. The marking statements run on the
+ * connection of the current transaction, so they are rolled back together with the change they mark.
+ * </p>
+ * <p>
+ * The state row is only locked while it is read and claimed, not during the recalculation. Claiming moves the first
+ * dirty day into {@code computed_until}, so every marking during the recalculation sets {@code dirty_from} again. The
+ * new rows are only written when the state is still the claimed one, otherwise they are discarded.
+ * </p>
+ */
+@Component
+public class HoldPeriodValuationStore {
+
+  /** Portfolio id of the rows which value the whole tenant in its currency. */
+  public static final int ID_PORTFOLIO_TENANT = 0;
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_VALUATION = """
+      INSERT INTO hold_period_valuation (id_tenant, id_portfolio, valuation_date, dividend_real_mc, fee_real_mc,
+      interest_cashaccount_real_mc, accumulate_reduce_mc, cash_balance_mc, external_cash_transfer_mc, securities_mc,
+      margin_close_gain_mc, security_risk_mc, gain_mc) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)""";
+
+  private static final String SELECT_VALUATION = """
+      SELECT valuation_date, dividend_real_mc, fee_real_mc, interest_cashaccount_real_mc, accumulate_reduce_mc,
+      cash_balance_mc, external_cash_transfer_mc, securities_mc, margin_close_gain_mc, security_risk_mc, gain_mc
+      FROM hold_period_valuation WHERE id_tenant = ? AND id_portfolio = ? AND valuation_date BETWEEN ? AND ?
+      ORDER BY valuation_date""";
+
+  /** Stores a calculation only when the state is still the claimed one, {@code <=>} also compares NULL values. */
+  private static final String UPDATE_CLAIMED_STATE = """
+      UPDATE hold_period_valuation_state SET dirty_from = NULL, computed_until = ?
+      WHERE id_tenant = ? AND dirty_from <=> ? AND computed_until <=> ?""";
+
+  private static final String SET_DIRTY = "s.dirty_from = LEAST(IFNULL(s.dirty_from, d.dirty_from), d.dirty_from)";
+
+  /** First day of a series, marking from this day on marks from the first day an instrument was held. */
+  private static final LocalDate FIRST_DAY = LocalDate.of(1900, 1, 1);
+
+  /**
+   * Instruments of the holdings and cash balances of all tenants with their hold period, a security is also represented
+   * by the currency pairs it is valued with.
+   */
+  private static final String HOLDING_INSTRUMENTS = """
+      (SELECT id_tenant, id_securitycurrency AS id_sc, from_hold_date, to_hold_date
+          FROM hold_securityaccount_security
+        UNION ALL SELECT id_tenant, id_currency_pair_tenant, from_hold_date, to_hold_date
+          FROM hold_securityaccount_security WHERE id_currency_pair_tenant IS NOT NULL
+        UNION ALL SELECT id_tenant, id_currency_pair_portfolio, from_hold_date, to_hold_date
+          FROM hold_securityaccount_security WHERE id_currency_pair_portfolio IS NOT NULL
+        UNION ALL SELECT id_tenant, id_currency_pair_tenant, from_hold_date, to_hold_date
+          FROM hold_cashaccount_balance WHERE id_currency_pair_tenant IS NOT NULL
+        UNION ALL SELECT id_tenant, id_currency_pair_portfolio, from_hold_date, to_hold_date
+          FROM hold_cashaccount_balance WHERE id_currency_pair_portfolio IS NOT NULL) h
+      """;
+
+  /**
+   * Tenants whose holdings or cash balances on or after the first changed quote of an instrument depend on that
+   * instrument, either directly or through a currency pair.
+   */
+  private static final String MARK_DIRTY_BY_HISTORYQUOTE = """
+      UPDATE hold_period_valuation_state s JOIN (
+        SELECT h.id_tenant, MIN(GREATEST(q.min_date, h.from_hold_date)) AS dirty_from
+        FROM (SELECT id_securitycurrency, MIN(date) AS min_date FROM historyquote WHERE create_modify_time >= ?
+          GROUP BY id_securitycurrency) q
+        JOIN\s""" + HOLDING_INSTRUMENTS + """
+        ON h.id_sc = q.id_securitycurrency AND (h.to_hold_date IS NULL OR h.to_hold_date >= q.min_date)
+        GROUP BY h.id_tenant) d ON d.id_tenant = s.id_tenant SET\s""" + SET_DIRTY;
+
+  /**
+   * Tenants whose holdings or cash balances on or after a day depend on a single instrument, either directly or
+   * through a currency pair.
+   */
+  private static final String MARK_DIRTY_BY_INSTRUMENT = """
+      UPDATE hold_period_valuation_state s JOIN (
+        SELECT h.id_tenant, MIN(GREATEST(?, h.from_hold_date)) AS dirty_from FROM\s""" + HOLDING_INSTRUMENTS + """
+        WHERE h.id_sc = ? AND (h.to_hold_date IS NULL OR h.to_hold_date >= ?)
+        GROUP BY h.id_tenant) d ON d.id_tenant = s.id_tenant SET\s""" + SET_DIRTY;
+
+  private static final String MARK_DIRTY_BY_SECURITY = """
+      UPDATE hold_period_valuation_state s JOIN (SELECT id_tenant, MIN(from_hold_date) AS dirty_from
+      FROM hold_securityaccount_security WHERE id_securitycurrency = ? GROUP BY id_tenant) d
+      ON d.id_tenant = s.id_tenant SET\s""" + SET_DIRTY;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /**
+   * State of the valuation series of a tenant.
+   *
+   * @param dirtyFrom     first day that must be recalculated, null when no day is outdated
+   * @param computedUntil last day the series was calculated for, null when the whole series must be calculated
+   */
+  public record ValuationState(LocalDate dirtyFrom, LocalDate computedUntil) {
+
+    /**
+     * Returns true when the series can be read up to and including the given day without a recalculation.
+     */
+    public boolean isValidUntil(LocalDate until) {
+      return computedUntil != null && !computedUntil.isBefore(until)
+          && (dirtyFrom == null || dirtyFrom.isAfter(until));
+    }
+
+    /**
+     * Returns the first day to recalculate, the earlier of the first dirty day and the day after the last calculated
+     * one, or null when the whole series must be calculated.
+     */
+    public LocalDate recalculateFrom() {
+      if (computedUntil == null) {
+        return null;
+      }
+      LocalDate next = computedUntil.plusDays(1);
+      return dirtyFrom != null && dirtyFrom.isBefore(next) ? dirtyFrom : next;
+    }
+
+    /**
+     * Returns the state after the recalculation was claimed: without dirty day and calculated until the day before
+     * the first day to recalculate.
+     */
+    public ValuationState claim() {
+      LocalDate fromDate = recalculateFrom();
+      return new ValuationState(null, fromDate == null ? null : fromDate.minusDays(1));
+    }
+  }
+
+  /**
+   * Marks the series of a tenant as outdated from the given day on. Nothing happens for a tenant without a series.
+   *
+   * @param idTenant the tenant
+   * @param fromDate first day whose value may have changed
+   */
+  public void markDirty(Integer idTenant, LocalDate fromDate) {
+    jdbcTemplate.update(
+        "UPDATE hold_period_valuation_state SET dirty_from = LEAST(IFNULL(dirty_from, ?), ?) WHERE id_tenant = ?",
+        Date.valueOf(fromDate), Date.valueOf(fromDate), idTenant);
+  }
+
+  /**
+   * Marks the whole series of a tenant as outdated, used when its hold tables were replaced entirely. The dirty day is
+   * set as well, so a running calculation of the whole series notices the change.
+   *
+   * @param idTenant the tenant
+   */
+  public void invalidate(Integer idTenant) {
+    jdbcTemplate.update(
+        "UPDATE hold_period_valuation_state SET dirty_from = ?, computed_until = NULL WHERE id_tenant = ?",
+        Date.valueOf(FIRST_DAY), idTenant);
+  }
+
+  /**
+   * Marks the series of every tenant holding the security as outdated from the first day it was held, used after the
+   * holdings of a security were rebuilt because of a split.
+   *
+   * @param idSecuritycurrency the security
+   */
+  public void markDirtyBySecurity(Integer idSecuritycurrency) {
+    jdbcTemplate.update(MARK_DIRTY_BY_SECURITY, idSecuritycurrency);
+  }
+
+  /**
+   * Marks the series of every tenant depending on an instrument as outdated from the given day on, used when quotes of
+   * the instrument were changed or deleted outside of the daily price update.
+   *
+   * @param idSecuritycurrency the security or currency pair
+   * @param fromDate           first day whose quote may have changed, null for the first day the instrument was held
+   */
+  public void markDirtyByInstrument(Integer idSecuritycurrency, LocalDate fromDate) {
+    Date from = Date.valueOf(fromDate == null ? FIRST_DAY : fromDate);
+    jdbcTemplate.update(MARK_DIRTY_BY_INSTRUMENT, from, idSecuritycurrency, from);
+  }
+
+  /**
+   * Marks the series of all tenants as outdated from the given day on, used when the trading days were changed.
+   *
+   * @param fromDate first changed day
+   */
+  public void markDirtyAll(LocalDate fromDate) {
+    jdbcTemplate.update("UPDATE hold_period_valuation_state SET dirty_from = LEAST(IFNULL(dirty_from, ?), ?)",
+        Date.valueOf(fromDate), Date.valueOf(fromDate));
+  }
+
+  /**
+   * Marks the series of all tenants which depend on a history quote created or changed since the given time. Deleted
+   * history quotes and changes of user edits are marked where they happen with
+   * {@link #markDirtyByInstrument(Integer, LocalDate)}.
+   *
+   * @param since database time of the previous scan
+   * @return the number of tenants whose series was marked
+   */
+  public int markDirtyByHistoryquoteChanges(LocalDateTime since) {
+    return jdbcTemplate.update(MARK_DIRTY_BY_HISTORYQUOTE, since);
+  }
+
+  public LocalDateTime getDatabaseTime() {
+    return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", LocalDateTime.class);
+  }
+
+  /**
+   * Returns the state of the series of a tenant without locking it.
+   *
+   * @param idTenant the tenant
+   * @return the state, or null when the tenant has no series
+   */
+  public ValuationState getState(Integer idTenant) {
+    List<ValuationState> states = jdbcTemplate.query(
+        "SELECT dirty_from, computed_until FROM hold_period_valuation_state WHERE id_tenant = ?",
+        (rs, _) -> mapState(rs), idTenant);
+    return states.isEmpty() ? null : states.getFirst();
+  }
+
+  /**
+   * Creates the state row of a tenant if missing and claims the recalculation of its outdated days, see
+   * {@link ValuationState#claim()}. The row is locked until the end of the current transaction, which should end
+   * before the recalculation starts. Nothing is claimed when only days after {@code today} are outdated.
+   *
+   * @param idTenant the tenant
+   * @param today    the last day to calculate
+   * @return the claimed state, to be passed to {@link #replaceSeries}
+   */
+  public ValuationState claimState(Integer idTenant, LocalDate today) {
+    jdbcTemplate.update("INSERT IGNORE INTO hold_period_valuation_state (id_tenant) VALUES (?)", idTenant);
+    ValuationState state = jdbcTemplate.queryForObject(
+        "SELECT dirty_from, computed_until FROM hold_period_valuation_state WHERE id_tenant = ? FOR UPDATE",
+        (rs, _) -> mapState(rs), idTenant);
+    LocalDate fromDate = state.recalculateFrom();
+    if (state.dirtyFrom() == null || fromDate != null && fromDate.isAfter(today)) {
+      return state;
+    }
+    ValuationState claimed = state.claim();
+    jdbcTemplate.update(
+        "UPDATE hold_period_valuation_state SET dirty_from = NULL, computed_until = ? WHERE id_tenant = ?",
+        toDate(claimed.computedUntil()), idTenant);
+    return claimed;
+  }
+
+  /**
+   * Returns the tenants whose series is outdated on the given day.
+   *
+   * @param today the current day
+   * @return ids of the tenants
+   */
+  public List<Integer> getOutdatedTenants(LocalDate today) {
+    return jdbcTemplate.queryForList("""
+        SELECT id_tenant FROM hold_period_valuation_state WHERE dirty_from <= ? OR computed_until IS NULL
+        OR computed_until < ?""", Integer.class, Date.valueOf(today), Date.valueOf(today));
+  }
+
+  /**
+   * Replaces the series of a tenant from the first day to recalculate of the claimed state on and marks it as valid up
+   * to {@code computedUntil}. Nothing is written when the state differs from the claimed one, because a change was
+   * marked or another thread stored its calculation in the meantime.
+   *
+   * @param idTenant          the tenant
+   * @param claimedState      the state returned by {@link #claimState(Integer, LocalDate)}
+   * @param seriesByPortfolio the new rows per portfolio, {@link #ID_PORTFOLIO_TENANT} for the whole tenant
+   * @param computedUntil     last day the rows were calculated for
+   * @return true if the series was replaced, false if the state was changed since it was claimed
+   */
+  public boolean replaceSeries(Integer idTenant, ValuationState claimedState,
+      Map<Integer, List<IPeriodHolding>> seriesByPortfolio, LocalDate computedUntil) {
+    // Also locks the state row until the end of the transaction, the markings of concurrent changes wait for the rows
+    if (jdbcTemplate.update(UPDATE_CLAIMED_STATE, Date.valueOf(computedUntil), idTenant,
+        toDate(claimedState.dirtyFrom()), toDate(claimedState.computedUntil())) == 0) {
+      return false;
+    }
+    LocalDate fromDate = claimedState.recalculateFrom();
+    if (fromDate == null) {
+      jdbcTemplate.update("DELETE FROM hold_period_valuation WHERE id_tenant = ?", idTenant);
+    } else {
+      jdbcTemplate.update("DELETE FROM hold_period_valuation WHERE id_tenant = ? AND valuation_date >= ?", idTenant,
+          Date.valueOf(fromDate));
+    }
+    List<SeriesRow> rows = new ArrayList<>();
+    seriesByPortfolio.forEach((idPortfolio, series) -> series.forEach(ph -> rows.add(new SeriesRow(idPortfolio, ph))));
+    jdbcTemplate.batchUpdate(INSERT_VALUATION, rows, BATCH_SIZE, (ps, row) -> {
+      IPeriodHolding ph = row.holding();
+      ps.setInt(1, idTenant);
+      ps.setInt(2, row.idPortfolio());
+      ps.setDate(3, Date.valueOf(ph.getDate()));
+      ps.setDouble(4, ph.getDividendRealMC());
+      ps.setDouble(5, ph.getFeeRealMC());
+      ps.setDouble(6, ph.getInterestCashaccountRealMC());
+      ps.setDouble(7, ph.getAccumulateReduceMC());
+      ps.setDouble(8, ph.getCashBalanceMC());
+      ps.setDouble(9, ph.getExternalCashTransferMC());
+      ps.setDouble(10, ph.getSecuritiesMC());
+      ps.setDouble(11, ph.getMarginCloseGainMC());
+      ps.setDouble(12, ph.getSecurityRiskMC());
+      ps.setDouble(13, ph.getGainMC());
+    });
+    return true;
+  }
+
+  /**
+   * Reads a contiguous slice of the series of a tenant or one of its portfolios.
+   *
+   * @param idTenant    the tenant
+   * @param idPortfolio the portfolio or {@link #ID_PORTFOLIO_TENANT}
+   * @param dateFrom    first day, inclusive
+   * @param dateTo      last day, inclusive
+   * @return the rows in ascending order of the date
+   */
+  public List<IPeriodHolding> getSeries(Integer idTenant, int idPortfolio, LocalDate dateFrom, LocalDate dateTo) {
+    return jdbcTemplate.query(SELECT_VALUATION, (rs, _) -> {
+      PeriodHoldingAndDiff ph = new PeriodHoldingAndDiff();
+      ph.setDate(rs.getDate(1).toLocalDate());
+      ph.setDividendRealMC(rs.getDouble(2));
+      ph.setFeeRealMC(rs.getDouble(3));
+      ph.setInterestCashaccountRealMC(rs.getDouble(4));
+      ph.setAccumulateReduceMC(rs.getDouble(5));
+      ph.setCashBalanceMC(rs.getDouble(6));
+      ph.setExternalCashTransferMC(rs.getDouble(7));
+      ph.setSecuritiesMC(rs.getDouble(8));
+      ph.setMarginCloseGainMC(rs.getDouble(9));
+      ph.setSecurityRiskMC(rs.getDouble(10));
+      ph.setGainMC(rs.getDouble(11));
+      return ph;
+    }, idTenant, idPortfolio, Date.valueOf(dateFrom), Date.valueOf(dateTo));
+  }
+
+  private record SeriesRow(int idPortfolio, IPeriodHolding holding) {
+  }
+
+  private static Date toDate(LocalDate date) {
+    return date == null ? null : Date.valueOf(date);
+  }
+
+  private static ValuationState mapState(ResultSet rs) throws SQLException {
+    Date dirtyFrom = rs.getDate(1);
+    Date computedUntil = rs.getDate(2);
+    return new ValuationState(dirtyFrom == null ? null : dirtyFrom.toLocalDate(),
+        computedUntil == null ? null : computedUntil.toLocalDate());
+  }
+}
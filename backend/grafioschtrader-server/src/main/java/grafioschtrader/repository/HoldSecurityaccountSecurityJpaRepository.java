@@ -45,6 +45,28 @@ public interface HoldSecurityaccountSecurityJpaRepository
   void deleteByHsskIdSecuritycashAccountAndHsskIdSecuritycurrency(Integer idSecuritycashAccount,
       Integer idSecuritycurrency);
 
+  @UpdateQuery(value = """
+      DELETE FROM hold_securityaccount_security
+      WHERE id_securitycash_account = ?1 AND id_securitycurrency = ?2 AND from_hold_date >= ?3""", nativeQuery = true)
+  void removeFromDateBySecurityaccountAndSecurity(Integer idSecuritycashAccount, Integer idSecuritycurrency,
+      LocalDate fromDate);
+
+  List<HoldSecurityaccountSecurity> findByHsskIdSecuritycashAccountAndHsskIdSecuritycurrencyOrderByHsskFromHoldDate(
+      Integer idSecuritycashAccount, Integer idSecuritycurrency);
+
+  /**
+   * Returns the youngest holding period of a security in a security account that started before the given date. Its
+   * holdings are the position at the end of the day before that date, unless the period was already closed earlier.
+   *
+   * @param idSecuritycashAccount the security account
+   * @param idSecuritycurrency    the security
+   * @param date                  periods starting on or after this date are ignored
+   * @return the preceding holding period or null when there is none
+   */
+  @Query(nativeQuery = true)
+  HoldSecurityaccountSecurity getLastBeforeDateBySecurityaccountAndSecurity(Integer idSecuritycashAccount,
+      Integer idSecuritycurrency, LocalDate date);
+
   //@formatter:off
   /**
    * Counts, per tenant and kind, the {@code hold_securityaccount_security} rows that disagree with the ACCUMULATE and
@@ -142,6 +164,19 @@ public interface HoldSecurityaccountSecurityJpaRepository
   List<ITransactionSecuritySplit> getBuySellTransWithSecuritySplitByIdSecurityaccountAndSecurity(
       Integer idSecurityaccount, Integer idSecuritycurrency);
 
+  /**
+   * Same as {@link #getBuySellTransWithSecuritySplitByIdSecurityaccountAndSecurity} but only with the transactions and
+   * splits on or after the given date.
+   *
+   * @param idSecurityaccount  the ID of the security cash account
+   * @param idSecuritycurrency the ID of the security
+   * @param fromDate           the first transaction date and split date to include
+   * @return a list of ITransactionSecuritySplit projections with one entry per date
+   */
+  @Query(nativeQuery = true)
+  List<ITransactionSecuritySplit> getBuySellTransWithSecuritySplitByIdSecurityaccountAndSecurityFromDate(
+      Integer idSecurityaccount, Integer idSecuritycurrency, LocalDate fromDate);
+
   //@formatter:off
   /**
    * Retrieves a combined list of buy/sell transactions and security splits for the given security account and security.
@@ -1,5 +1,6 @@
 package grafioschtrader.repository;
 
+import java.time.LocalDate;
 import java.util.concurrent.ExecutionException;
 
 import grafioschtrader.dto.MissingQuotesWithSecurities;
@@ -32,17 +33,6 @@ import grafioschtrader.entities.Securityaccount;
  */
 public interface HoldSecurityaccountSecurityJpaRepositoryCustom {
 
-  /**
-   * Creates complete security holdings for all tenants in the system.
-   * 
-   * <p>
-   * This method performs a full rebuild of security holdings time-frames for every tenant. It processes all securities
-   * transactions across all security accounts and creates holding periods that accurately represent position changes
-   * over time.
-   * </p>
-   */
-  void createSecurityHoldingsEntireForAllTenant();
-
   /**
    * Security holdings are completely rebuild for a tenant.
    * 
@@ -88,6 +78,23 @@ public interface HoldSecurityaccountSecurityJpaRepositoryCustom {
    */
   void rebuildHoldingsForSecurityaccountAndSecurity(Securityaccount securityaccount, Integer idSecuritycurrency);
 
+  /**
+   * Brings the holdings series of one security in one security account in line with its transactions from a date on.
+   *
+   * <p>
+   * Holding periods which start before {@code fromDate} are kept. The period that was open the day before is reopened
+   * and the transactions and splits from {@code fromDate} on are replayed on top of it. For a margin instrument, or when
+   * no earlier period exists, the whole series is rebuilt with
+   * {@link #rebuildHoldingsForSecurityaccountAndSecurity(Securityaccount, Integer)}. The same flush requirement applies.
+   * </p>
+   *
+   * @param securityaccount    the security account whose series is adjusted
+   * @param idSecuritycurrency the security whose series is adjusted
+   * @param fromDate           the earliest date whose transactions changed
+   */
+  void adjustHoldingsForSecurityaccountAndSecurity(Securityaccount securityaccount, Integer idSecuritycurrency,
+      LocalDate fromDate);
+
   /**
    * Rebuilds holdings for a specific security across all tenants and accounts.
    * 
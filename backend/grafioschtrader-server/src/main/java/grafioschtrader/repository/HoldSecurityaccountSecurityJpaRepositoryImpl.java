@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
@@ -82,6 +84,16 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
 
   private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+  /** Relative tolerance for comparing the holdings of an incremental replay with a full rebuild. */
+  private static final double HOLDINGS_TOLERANCE = 0.000001;
+
+  /**
+   * When set, every incremental replay is compared with a full rebuild of the series in memory. A deviation is logged
+   * and the series is rebuilt completely.
+   */
+  @Value("${gt.holdings.incremental.verify:false}")
+  private boolean verifyIncremental;
+
   @Autowired
   private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
 
@@ -100,13 +112,11 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
   @Autowired
   private TransactionJpaRepository transactionJpaRepository;
 
-  @Override
-  @Transactional
-  @Modifying
-  public void createSecurityHoldingsEntireForAllTenant() {
-    List<Tenant> tenants = tenantJpaRepository.findAll();
-    tenants.stream().forEach(this::createSecurityHoldingsEntireByTenant);
-  }
+  @Autowired
+  private HoldTenantBatchWriter holdTenantBatchWriter;
+
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
 
   @Transactional
   @Modifying
@@ -123,14 +133,16 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
    * 
    * <p>
    * This method delegates to portfolio-level processing, loading currency conversion data and security split
-   * information needed for accurate position calculations.
+   * information needed for accurate position calculations. The holdings of all security accounts are collected first
+   * and then replace the existing rows of the tenant with one bulk delete and batched inserts.
    * </p>
    * 
    * @param tenant the tenant entity for which to rebuild holdings
    */
   private void createSecurityHoldingsEntireByTenant(Tenant tenant) {
-    createSecurityHoldingsForTimeFrameByPortfolios(tenant.getPortfolioList(), tenant.getCurrency(),
-        loadCurrencypairSecuritySplit(tenant.getIdTenant()));
+    List<HoldSecurityaccountSecurity> holdings = createSecurityHoldingsForTimeFrameByPortfolios(
+        tenant.getPortfolioList(), tenant.getCurrency(), loadCurrencypairSecuritySplit(tenant.getIdTenant()));
+    holdTenantBatchWriter.replaceSecurityHoldings(tenant.getIdTenant(), holdings);
   }
 
   @Override
@@ -147,6 +159,96 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
     log.debug("End - HoldSecurityaccountSecurity: {}", System.currentTimeMillis() - startTime);
   }
 
+  @Override
+  public void adjustHoldingsForSecurityaccountAndSecurity(Securityaccount securityaccount, Integer idSecuritycurrency,
+      LocalDate fromDate) {
+    long startTime = System.currentTimeMillis();
+    Optional<Security> securityOpt = securityJpaRepository.findById(idSecuritycurrency);
+    if (securityOpt.isEmpty()) {
+      return;
+    }
+    Security security = securityOpt.get();
+    Integer idSecurityaccount = securityaccount.getIdSecuritycashAccount();
+    holdPeriodValuationStore.markDirty(securityaccount.getIdTenant(), fromDate);
+    HoldSecurityaccountSecurity preceding = security.isMarginInstrument() ? null
+        : holdSecurityaccountSecurityRepository.getLastBeforeDateBySecurityaccountAndSecurity(idSecurityaccount,
+            idSecuritycurrency, fromDate);
+    if (preceding == null || preceding.getToHoldDate() != null
+        && preceding.getToHoldDate().isBefore(preceding.getHssk().getFromHoldDate())) {
+      rebuildHoldingsForSecurityaccountAndSecurity(securityaccount, idSecuritycurrency);
+      return;
+    }
+    Tenant tenant = tenantJpaRepository.getReferenceById(securityaccount.getIdTenant());
+    String portfolioCurrency = securityaccount.getPortfolio().getCurrency();
+    CurrencypairSecuritySplit css = createCurrencypairSecuritySplit(security);
+
+    holdSecurityaccountSecurityRepository.removeFromDateBySecurityaccountAndSecurity(idSecurityaccount,
+        idSecuritycurrency, fromDate);
+    HoldPositionTimeFrameSecurity holdPositionTimeFrameSecurity = new HoldPositionTimeFrameSecurity(
+        currencypairJpaRepository, tenant.getCurrency(), portfolioCurrency, css, null);
+    holdPositionTimeFrameSecurity.continueWith(preceding, fromDate);
+    for (ITransactionSecuritySplit tss : holdSecurityaccountSecurityRepository
+        .getBuySellTransWithSecuritySplitByIdSecurityaccountAndSecurityFromDate(idSecurityaccount, idSecuritycurrency,
+            fromDate)) {
+      holdPositionTimeFrameSecurity.addTransactionOrSplit(securityaccount.getIdTenant(),
+          securityaccount.getPortfolio().getIdPortfolio(), idSecurityaccount, tss, null, false);
+    }
+    holdSecurityaccountSecurityRepository.saveAll(holdPositionTimeFrameSecurity.prepareNextSecurityaccount());
+    if (verifyIncremental) {
+      verifyIncrementalSeries(securityaccount, security, tenant.getCurrency(), portfolioCurrency, css);
+    }
+    log.debug("End - incremental HoldSecurityaccountSecurity from {}: {}", fromDate,
+        System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Compares the stored series of a security in a security account with a full rebuild in memory. The rules are those
+   * of the {@code ROW_HOLDINGS} and period checks of {@code HoldTableConsistencyCheckTask}, applied to a single series
+   * right after it was written. A deviating series is logged and rebuilt completely.
+   *
+   * @param securityaccount   the security account
+   * @param security          the security of the series
+   * @param tenantCurrency    the tenant's base currency
+   * @param portfolioCurrency the portfolio's base currency
+   * @param css               currency and split context
+   */
+  private void verifyIncrementalSeries(Securityaccount securityaccount, Security security, String tenantCurrency,
+      String portfolioCurrency, CurrencypairSecuritySplit css) {
+    List<HoldSecurityaccountSecurity> expected = createSecurityHoldingsForSecurityaccountAndSecurity(securityaccount,
+        tenantCurrency, portfolioCurrency, css, getMarginNormalTransactions(securityaccount, security), null);
+    List<HoldSecurityaccountSecurity> stored = holdSecurityaccountSecurityRepository
+        .findByHsskIdSecuritycashAccountAndHsskIdSecuritycurrencyOrderByHsskFromHoldDate(
+            securityaccount.getIdSecuritycashAccount(), security.getIdSecuritycurrency());
+    if (!isSameSeries(expected, stored)) {
+      log.warn("Incremental holdings of security {} in security account {} deviate from a full rebuild, rebuilding",
+          security.getIdSecuritycurrency(), securityaccount.getIdSecuritycashAccount());
+      holdSecurityaccountSecurityRepository.deleteByHsskIdSecuritycashAccountAndHsskIdSecuritycurrency(
+          securityaccount.getIdSecuritycashAccount(), security.getIdSecuritycurrency());
+      holdSecurityaccountSecurityRepository.saveAll(expected);
+    }
+  }
+
+  /**
+   * Compares two holdings series of the same security, both ordered by the start of the period.
+   */
+  static boolean isSameSeries(List<HoldSecurityaccountSecurity> expected, List<HoldSecurityaccountSecurity> actual) {
+    if (expected.size() != actual.size()) {
+      return false;
+    }
+    for (int i = 0; i < expected.size(); i++) {
+      HoldSecurityaccountSecurity e = expected.get(i);
+      HoldSecurityaccountSecurity a = actual.get(i);
+      if (!e.getHssk().getFromHoldDate().equals(a.getHssk().getFromHoldDate())
+          || !Objects.equals(e.getToHoldDate(), a.getToHoldDate())
+          || Math.abs(e.getHodlings() - a.getHodlings()) > Math.abs(e.getHodlings()) * HOLDINGS_TOLERANCE
+          || !Objects.equals(e.getIdCurrencypairTenant(), a.getIdCurrencypairTenant())
+          || !Objects.equals(e.getIdCurrencypairPortoflio(), a.getIdCurrencypairPortoflio())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   @Transactional
   public void rebuildHoldingsForSecurity(Integer idSecuritycurrency) {
@@ -167,6 +269,7 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
             .getHoldSecuritySplitTransactionBySecurity(security.getIdSecuritycurrency());
         rebuildHoldingsForSecurity(security, hstbsList, null);
       }
+      holdPeriodValuationStore.markDirtyBySecurity(idSecuritycurrency);
     }
   }
 
@@ -294,15 +397,19 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
    * @param allTenantPortfolios           list of portfolios for the tenant
    * @param tenantCurrency                the tenant's base currency
    * @param loadCurrencypairSecuritySplit currency and split context for conversions
+   * @return the holdings of all security accounts of the portfolios
    */
-  private void createSecurityHoldingsForTimeFrameByPortfolios(final List<Portfolio> allTenantPortfolios,
-      final String tenantCurrency, CurrencypairSecuritySplit loadCurrencypairSecuritySplit) {
+  private List<HoldSecurityaccountSecurity> createSecurityHoldingsForTimeFrameByPortfolios(
+      final List<Portfolio> allTenantPortfolios, final String tenantCurrency,
+      CurrencypairSecuritySplit loadCurrencypairSecuritySplit) {
+    List<HoldSecurityaccountSecurity> holdings = new ArrayList<>();
     allTenantPortfolios.forEach(portfolio -> {
       portfolio.getSecurityaccountList()
-          .forEach(securityaccount -> loadForSecurityHoldingsBySecurityaccount(portfolio.getIdTenant(),
+          .forEach(securityaccount -> holdings.addAll(loadForSecurityHoldingsBySecurityaccount(portfolio.getIdTenant(),
               portfolio.getIdPortfolio(), securityaccount.getIdSecuritycashAccount(), tenantCurrency,
-              portfolio.getCurrency(), loadCurrencypairSecuritySplit));
+              portfolio.getCurrency(), loadCurrencypairSecuritySplit)));
     });
+    return holdings;
   }
 
   /**
@@ -332,13 +439,12 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
    * @param tenantCurrency        the tenant's base currency
    * @param portfolioCurrency     the portfolio's base currency
    * @param css                   currency and split context for calculations
+   * @return the holdings of the security account, not yet saved
    */
-  private void loadForSecurityHoldingsBySecurityaccount(Integer idTenant, Integer idPortfolio,
-      Integer idSecuritycashAccount, String tenantCurrency, String portfolioCurrency, CurrencypairSecuritySplit css) {
-
-    holdSecurityaccountSecurityRepository.removeAllByIdSecuritycashAccount(idSecuritycashAccount);
-
-    createSecurityHoldingsBySecurityaccount(idTenant, idPortfolio, idSecuritycashAccount, tenantCurrency,
+  private List<HoldSecurityaccountSecurity> loadForSecurityHoldingsBySecurityaccount(Integer idTenant,
+      Integer idPortfolio, Integer idSecuritycashAccount, String tenantCurrency, String portfolioCurrency,
+      CurrencypairSecuritySplit css) {
+    return createSecurityHoldingsBySecurityaccount(idTenant, idPortfolio, idSecuritycashAccount, tenantCurrency,
         portfolioCurrency, css,
         holdSecurityaccountSecurityRepository.getBuySellTransWithSecuritySplitByIdSecurityaccount(
             idSecuritycashAccount),
@@ -371,10 +477,12 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
    * @param css                          currency and split context for calculations
    * @param transactionSecuritySplitList list of transactions and splits for the account
    * @param marginTransactionMap         map of margin transactions for reference
+   * @return the holdings of the security account
    */
-  private void createSecurityHoldingsBySecurityaccount(Integer idTenant, Integer idPortfolio,
-      Integer idSecuritycashAccount, String tenantCurrency, String portfolioCurrency, CurrencypairSecuritySplit css,
-      List<ITransactionSecuritySplit> transactionSecuritySplitList, Map<Integer, Transaction> marginTransactionMap) {
+  private List<HoldSecurityaccountSecurity> createSecurityHoldingsBySecurityaccount(Integer idTenant,
+      Integer idPortfolio, Integer idSecuritycashAccount, String tenantCurrency, String portfolioCurrency,
+      CurrencypairSecuritySplit css, List<ITransactionSecuritySplit> transactionSecuritySplitList,
+      Map<Integer, Transaction> marginTransactionMap) {
     Integer lastIdSecuritycurrency = null;
     HoldPositionTimeFrameSecurity holdPositionTimeFrameSecurity = new HoldPositionTimeFrameSecurity(
         this.currencypairJpaRepository, tenantCurrency, portfolioCurrency, css, marginTransactionMap);
@@ -400,8 +508,7 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
       holdPositionTimeFrameSecurity.addTransactionOrSplit(idTenant, idPortfolio, idSecuritycashAccount, tss,
           marginTransaction, isNextMarginSameDate);
     }
-    holdPositionTimeFrameSecurity.prepareNextSecurityaccountAndSaveAll(holdSecurityaccountSecurityRepository);
-
+    return holdPositionTimeFrameSecurity.prepareNextSecurityaccount();
   }
 
   /**
@@ -467,8 +574,9 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
         ? getMarginTransactionByIdSecurityaccountAndSecurity(securityaccount.getIdSecuritycashAccount(),
             security.getIdSecuritycurrency())
         : null;
-    createSecurityHoldingsForSecurityaccountAndSecurity(securityaccount, tenantCurrency, portfolioCurrency, css,
-        getMarginNormalTransactions(securityaccount, security), marginTransactionMap);
+    holdSecurityaccountSecurityRepository.saveAll(createSecurityHoldingsForSecurityaccountAndSecurity(securityaccount,
+        tenantCurrency, portfolioCurrency, css, getMarginNormalTransactions(securityaccount, security),
+        marginTransactionMap));
   }
 
   /**
@@ -507,11 +615,11 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
    * @param css                          currency and split context
    * @param transactionSecuritySplitList the stored transactions and splits, oldest first
    * @param marginTransactionMap         margin transaction lookup map, null for a regular security
+   * @return the holdings of the security, not yet saved
    */
-  private void createSecurityHoldingsForSecurityaccountAndSecurity(Securityaccount securityaccount,
-      String tenantCurrency, String portfolioCurrency, CurrencypairSecuritySplit css,
-      List<ITransactionSecuritySplit> transactionSecuritySplitList,
-      Map<Integer, Transaction> marginTransactionMap) {
+  private List<HoldSecurityaccountSecurity> createSecurityHoldingsForSecurityaccountAndSecurity(
+      Securityaccount securityaccount, String tenantCurrency, String portfolioCurrency, CurrencypairSecuritySplit css,
+      List<ITransactionSecuritySplit> transactionSecuritySplitList, Map<Integer, Transaction> marginTransactionMap) {
 
     HoldPositionTimeFrameSecurity holdPositionTimeFrameSecurity = new HoldPositionTimeFrameSecurity(
         currencypairJpaRepository, tenantCurrency, portfolioCurrency, css, marginTransactionMap);
@@ -528,7 +636,7 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
           securityaccount.getPortfolio().getIdPortfolio(), securityaccount.getIdSecuritycashAccount(), tss,
           marginTransaction, isNextMarginSameDate);
     }
-    holdPositionTimeFrameSecurity.prepareNextSecurityaccountAndSaveAll(holdSecurityaccountSecurityRepository);
+    return holdPositionTimeFrameSecurity.prepareNextSecurityaccount();
   }
 
   /**
@@ -605,6 +713,26 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
       this.marginTransactionMap = marginTransactionMap;
     }
 
+    /**
+     * Continues the series after a stored holding period instead of starting with an empty position. When the period
+     * still lasted until the day before {@code fromDate}, it is reopened and becomes the last record, so the next
+     * transaction or split closes it. Otherwise the position had been closed earlier and the replay starts from zero.
+     * Only valid for a regular security, the running values of a margin position are not stored.
+     *
+     * @param preceding the youngest stored period which starts before {@code fromDate}
+     * @param fromDate  the date of the first replayed transaction or split
+     */
+    public void continueWith(HoldSecurityaccountSecurity preceding, LocalDate fromDate) {
+      if (preceding.getToHoldDate() != null && preceding.getToHoldDate().isBefore(fromDate.minusDays(1))) {
+        return;
+      }
+      preceding.setToHoldDate(null);
+      units = preceding.getHodlings();
+      idCurrencypairTenant = preceding.getIdCurrencypairTenant();
+      idCurrencypairPortfolio = preceding.getIdCurrencypairPortoflio();
+      toSaveHoldForSecurityList.add(preceding);
+    }
+
     public void addTransactionOrSplit(Integer idTenant, Integer idPortfolio, Integer idSecuritycashAccount,
         ITransactionSecuritySplit tss, Transaction marginTransaction, boolean isNextMarginTransactionAndSameDate) {
 
@@ -756,8 +884,17 @@ public class HoldSecurityaccountSecurityJpaRepositoryImpl implements HoldSecurit
      */
     public void prepareNextSecurityaccountAndSaveAll(
         HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository) {
+      holdSecurityaccountSecurityRepository.saveAll(prepareNextSecurityaccount());
+    }
+
+    /**
+     * Finalizes processing for the current security account and returns the accumulated holdings without saving them.
+     *
+     * @return the holdings of all securities of the security account
+     */
+    public List<HoldSecurityaccountSecurity> prepareNextSecurityaccount() {
       this.prepareNextSecurity();
-      holdSecurityaccountSecurityRepository.saveAll(this.toSaveHoldForSecurityaccountList);
+      return this.toSaveHoldForSecurityaccountList;
     }
 
     /**
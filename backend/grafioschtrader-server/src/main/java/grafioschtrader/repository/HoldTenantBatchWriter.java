@@ -0,0 +1,148 @@
+package grafioschtrader.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.entities.HoldCashaccountBalance;
+import grafioschtrader.entities.HoldCashaccountDeposit;
+import grafioschtrader.entities.HoldSecurityaccountSecurity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Replaces all holding rows of a tenant in one of the hold tables. The existing rows are removed with a single bulk
+ * delete and the new rows are written with JDBC batch inserts instead of persisting one entity after the other.
+ * <p>
+ * The statements run on the connection of the current transaction. Pending changes of the persistence context are
+ * flushed first, because a rebuild may have created currency pairs which are referenced by the new rows. The rows
+ * written here are not attached to the persistence context. The materialized period valuation of the tenant is marked
+ * for a complete recalculation.
+ * </p>
+ */
+@Component
+public class HoldTenantBatchWriter {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_SECURITY = """
+      INSERT INTO hold_securityaccount_security (id_securitycash_account, id_securitycurrency, from_hold_date,
+      to_hold_date, holdings, margin_real_holdings, margin_average_price, split_price_factor, id_currency_pair_tenant,
+      id_currency_pair_portfolio, id_tenant, id_portfolio, valid_timestamp) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)""";
+
+  private static final String INSERT_DEPOSIT = """
+      INSERT INTO hold_cashaccount_deposit (id_securitycash_account, from_hold_date, to_hold_date, deposit,
+      deposit_portfolio_currency, deposit_tenant_currency, id_tenant, id_portfolio, valid_timestamp)
+      VALUES (?,?,?,?,?,?,?,?,?)""";
+
+  private static final String INSERT_BALANCE = """
+      INSERT INTO hold_cashaccount_balance (id_securitycash_account, from_hold_date, to_hold_date, withdrawl_deposit,
+      interest_cashaccount, fee, accumulate_reduce, dividend, balance, id_currency_pair_tenant,
+      id_currency_pair_portfolio, id_tenant, id_portfolio, valid_timestamp) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?)""";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public void replaceSecurityHoldings(Integer idTenant, List<HoldSecurityaccountSecurity> holdings) {
+    deleteByTenant("hold_securityaccount_security", idTenant);
+    jdbcTemplate.batchUpdate(INSERT_SECURITY, holdings, BATCH_SIZE, (ps, h) -> {
+      ps.setInt(1, h.getHssk().getIdSecuritycashAccount());
+      ps.setInt(2, h.getHssk().getIdSecuritycurrency());
+      setDate(ps, 3, h.getHssk().getFromHoldDate());
+      setDate(ps, 4, h.getToHoldDate());
+      ps.setDouble(5, h.getHodlings());
+      setDouble(ps, 6, h.getMarginRealHoldings());
+      setDouble(ps, 7, h.getMarginAveragePrice());
+      ps.setDouble(8, h.getSplitPriceFactor());
+      setInteger(ps, 9, h.getIdCurrencypairTenant());
+      setInteger(ps, 10, h.getIdCurrencypairPortoflio());
+      ps.setInt(11, h.getIdTenant());
+      ps.setInt(12, h.getIdPortfolio());
+      setTimestamp(ps, 13, h.getValidTimestamp());
+    });
+  }
+
+  public void replaceCashaccountDeposits(Integer idTenant, List<HoldCashaccountDeposit> deposits) {
+    deleteByTenant("hold_cashaccount_deposit", idTenant);
+    jdbcTemplate.batchUpdate(INSERT_DEPOSIT, deposits, BATCH_SIZE, (ps, h) -> {
+      ps.setInt(1, h.getHoldCashaccountKey().getIdSecuritycashAccount());
+      setDate(ps, 2, h.getHoldCashaccountKey().getFromHoldDate());
+      setDate(ps, 3, h.getToHoldDate());
+      ps.setDouble(4, h.getDeposit());
+      ps.setDouble(5, h.getDepositPortfolioCurrency());
+      ps.setDouble(6, h.getDepositTenantCurrency());
+      ps.setInt(7, h.getIdTenant());
+      ps.setInt(8, h.getIdPortfolio());
+      setTimestamp(ps, 9, h.getValidTimestamp());
+    });
+  }
+
+  public void replaceCashaccountBalances(Integer idTenant, List<HoldCashaccountBalance> balances) {
+    deleteByTenant("hold_cashaccount_balance", idTenant);
+    jdbcTemplate.batchUpdate(INSERT_BALANCE, balances, BATCH_SIZE, (ps, h) -> {
+      ps.setInt(1, h.getIdEm().getIdSecuritycashAccount());
+      setDate(ps, 2, h.getIdEm().getFromHoldDate());
+      setDate(ps, 3, h.getToHoldDate());
+      setDouble(ps, 4, h.getWithdrawlDeposit());
+      setDouble(ps, 5, h.getInterestCashaccount());
+      setDouble(ps, 6, h.getFee());
+      setDouble(ps, 7, h.getAccumulateReduce());
+      setDouble(ps, 8, h.getDividend());
+      ps.setDouble(9, h.getBalance());
+      setInteger(ps, 10, h.getIdCurrencypairTenant());
+      setInteger(ps, 11, h.getIdCurrencypairPortoflio());
+      ps.setInt(12, h.getIdTenant());
+      ps.setInt(13, h.getIdPortfolio());
+      setTimestamp(ps, 14, h.getValidTimestamp());
+    });
+  }
+
+  private void deleteByTenant(String table, Integer idTenant) {
+    entityManager.flush();
+    jdbcTemplate.update("DELETE FROM " + table + " WHERE id_tenant=?", idTenant);
+    holdPeriodValuationStore.invalidate(idTenant);
+  }
+
+  private static void setDate(PreparedStatement ps, int index, LocalDate date) throws SQLException {
+    if (date == null) {
+      ps.setNull(index, Types.DATE);
+    } else {
+      ps.setDate(index, Date.valueOf(date));
+    }
+  }
+
+  private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime timestamp) throws SQLException {
+    ps.setTimestamp(index, Timestamp.valueOf(timestamp == null ? LocalDateTime.now() : timestamp));
+  }
+
+  private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.DOUBLE);
+    } else {
+      ps.setDouble(index, value);
+    }
+  }
+
+  private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.INTEGER);
+    } else {
+      ps.setInt(index, value);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package grafioschtrader.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.entities.IctaxPayment;
+import grafioschtrader.entities.IctaxSecurityTaxData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes the tax data of an ICTax Kursliste import with JDBC batch inserts. Both tables use an identity column, which
+ * prevents Hibernate from batching the inserts of these entities. The importer passes the parsed securities in chunks
+ * while the Kursliste is still being read, so only one chunk is held in memory.
+ * <p>
+ * The statements run on the connection of the current transaction. The securities receive their generated identifier,
+ * they and their payments are not attached to the persistence context.
+ * </p>
+ */
+@Component
+public class IctaxSecurityTaxDataBatchWriter {
+
+  private static final String INSERT_DATA = """
+      INSERT INTO ictax_security_tax_data (id_tax_upload, isin, valor_number, tax_value_chf, quotation_type,
+      security_group, institution_name, country, currency) VALUES (?,?,?,?,?,?,?,?,?)""";
+
+  private static final String INSERT_PAYMENT = """
+      INSERT INTO ictax_payment (id_ictax_data, payment_date, ex_date, currency, payment_value, exchange_rate,
+      payment_value_chf, capital_gain) VALUES (?,?,?,?,?,?,?,?)""";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Inserts the securities with their payments as one batch for each table.
+   *
+   * @param dataList parsed securities without identifier
+   */
+  public void insert(List<IctaxSecurityTaxData> dataList) {
+    if (dataList.isEmpty()) {
+      return;
+    }
+    entityManager.flush();
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      List<IctaxPayment> payments = new ArrayList<>();
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_DATA, Statement.RETURN_GENERATED_KEYS)) {
+        for (IctaxSecurityTaxData data : dataList) {
+          setDataParameters(ps, data);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+          for (IctaxSecurityTaxData data : dataList) {
+            if (!keys.next()) {
+              throw new SQLException("Missing generated key for " + IctaxSecurityTaxData.TABNAME);
+            }
+            data.setIdIctaxData(keys.getInt(1));
+            payments.addAll(data.getPayments());
+          }
+        }
+      }
+      if (!payments.isEmpty()) {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_PAYMENT)) {
+          for (IctaxPayment payment : payments) {
+            setPaymentParameters(ps, payment);
+            ps.addBatch();
+          }
+          ps.executeBatch();
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Removes the tax data of an upload, the payments are removed by the cascading foreign key.
+   */
+  public void deleteByIdTaxUpload(int idTaxUpload) {
+    entityManager.flush();
+    jdbcTemplate.update("DELETE FROM " + IctaxSecurityTaxData.TABNAME + " WHERE id_tax_upload=?", idTaxUpload);
+  }
+
+  private static void setDataParameters(PreparedStatement ps, IctaxSecurityTaxData data) throws SQLException {
+    ps.setInt(1, data.getIdTaxUpload());
+    ps.setString(2, data.getIsin());
+    setInteger(ps, 3, data.getValorNumber());
+    setDouble(ps, 4, data.getTaxValueChf());
+    ps.setString(5, data.getQuotationType());
+    ps.setString(6, data.getSecurityGroup());
+    ps.setString(7, data.getInstitutionName());
+    ps.setString(8, data.getCountry());
+    ps.setString(9, data.getCurrency());
+  }
+
+  private static void setPaymentParameters(PreparedStatement ps, IctaxPayment payment) throws SQLException {
+    ps.setInt(1, payment.getIctaxSecurityTaxData().getIdIctaxData());
+    setDate(ps, 2, payment.getPaymentDate());
+    setDate(ps, 3, payment.getExDate());
+    ps.setString(4, payment.getCurrency());
+    setDouble(ps, 5, payment.getPaymentValue());
+    setDouble(ps, 6, payment.getExchangeRate());
+    setDouble(ps, 7, payment.getPaymentValueChf());
+    ps.setBoolean(8, Boolean.TRUE.equals(payment.getCapitalGain()));
+  }
+
+  private static void setDate(PreparedStatement ps, int index, LocalDate date) throws SQLException {
+    if (date == null) {
+      ps.setNull(index, Types.DATE);
+    } else {
+      ps.setDate(index, Date.valueOf(date));
+    }
+  }
+
+  private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.DOUBLE);
+    } else {
+      ps.setDouble(index, value);
+    }
+  }
+
+  private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.INTEGER);
+    } else {
+      ps.setInt(index, value);
+    }
+  }
+}
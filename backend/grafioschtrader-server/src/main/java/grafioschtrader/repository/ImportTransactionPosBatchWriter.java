@@ -0,0 +1,192 @@
+package grafioschtrader.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.entities.ImportTransactionPos;
+import grafioschtrader.entities.ImportTransactionPosFailed;
+import grafioschtrader.types.ImportKnownOtherFlags;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * Writes new import positions and their failures with JDBC batch inserts. Both tables use an identity column, which
+ * prevents Hibernate from batching the inserts of these entities.
+ * <p>
+ * The statements run on the connection of the current transaction. The positions are validated like on persisting
+ * the entity and receive their generated identifier, they are not attached to the persistence context.
+ * </p>
+ */
+@Component
+public class ImportTransactionPosBatchWriter {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_POS = """
+      INSERT INTO imp_trans_pos (id_trans_head, transaction_time, ex_date, transaction_type, transaction_type_imp,
+      id_cash_account, id_tenant, currency_account, cash_account_imp, currency_security, isin, symbol_imp,
+      security_name_imp, id_securitycurrency, currency_ex_rate, units, quotation, tax_cost, transaction_cost,
+      currency_cost, cashaccount_amount, accepted_total_diff, accrued_interest, field1_string_imp,
+      ready_for_transaction, id_transaction, id_transaction_maybe, id_trans_imp_template, id_file_part,
+      file_name_original, con_id_trans_pos, known_other_flags, transaction_error, calc_rounding_step)
+      VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)""";
+
+  private static final String INSERT_FAILED = """
+      INSERT INTO imp_trans_pos_failed (id_trans_imp_template, last_matching_property, id_trans_pos, error_message)
+      VALUES (?,?,?,?)""";
+
+  private static final String UPDATE_CONNECTED = "UPDATE imp_trans_pos SET con_id_trans_pos=? WHERE id_trans_pos=?";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private Validator validator;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Inserts the positions and sets their generated identifier.
+   *
+   * @param importTransactionPosList new positions without identifier
+   * @throws ConstraintViolationException if a position violates its bean validation constraints
+   */
+  public void insertPositions(List<ImportTransactionPos> importTransactionPosList) {
+    for (ImportTransactionPos importTransactionPos : importTransactionPosList) {
+      Set<ConstraintViolation<ImportTransactionPos>> violations = validator.validate(importTransactionPos);
+      if (!violations.isEmpty()) {
+        throw new ConstraintViolationException(violations);
+      }
+    }
+    entityManager.flush();
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_POS, Statement.RETURN_GENERATED_KEYS)) {
+        for (int from = 0; from < importTransactionPosList.size(); from += BATCH_SIZE) {
+          List<ImportTransactionPos> batch = importTransactionPosList.subList(from,
+              Math.min(from + BATCH_SIZE, importTransactionPosList.size()));
+          for (ImportTransactionPos itp : batch) {
+            setPositionParameters(ps, itp);
+            ps.addBatch();
+          }
+          ps.executeBatch();
+          try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (ImportTransactionPos itp : batch) {
+              if (!keys.next()) {
+                throw new SQLException("Missing generated key for " + ImportTransactionPos.TABNAME);
+              }
+              itp.setIdTransactionPos(keys.getInt(1));
+            }
+          }
+        }
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Inserts the failures of already inserted positions.
+   */
+  public void insertFailures(List<ImportTransactionPosFailed> importTransactionPosFailedList) {
+    jdbcTemplate.batchUpdate(INSERT_FAILED, importTransactionPosFailedList, BATCH_SIZE, (ps, f) -> {
+      ps.setInt(1, f.getIdTransactionImportTemplate());
+      ps.setString(2, f.getLastMatchingProperty());
+      ps.setInt(3, f.getIdTransactionPos());
+      ps.setString(4, f.getErrorMessage());
+    });
+  }
+
+  /**
+   * Writes the connection between positions of the same transfer, which is only known after their insert.
+   */
+  public void updateConnectedPositions(List<ImportTransactionPos> importTransactionPosList) {
+    jdbcTemplate.batchUpdate(UPDATE_CONNECTED, importTransactionPosList, BATCH_SIZE, (ps, itp) -> {
+      setInteger(ps, 1, itp.getConnectedIdTransactionPos());
+      ps.setInt(2, itp.getIdTransactionPos());
+    });
+  }
+
+  private static void setPositionParameters(PreparedStatement ps, ImportTransactionPos itp) throws SQLException {
+    ps.setInt(1, itp.getIdTransactionHead());
+    if (itp.getTransactionTime() == null) {
+      ps.setNull(2, Types.TIMESTAMP);
+    } else {
+      ps.setTimestamp(2, Timestamp.valueOf(itp.getTransactionTime()));
+    }
+    if (itp.getExDate() == null) {
+      ps.setNull(3, Types.DATE);
+    } else {
+      ps.setDate(3, Date.valueOf(itp.getExDate()));
+    }
+    if (itp.getTransactionType() == null) {
+      ps.setNull(4, Types.SMALLINT);
+    } else {
+      ps.setShort(4, itp.getTransactionType().getValue());
+    }
+    ps.setString(5, itp.getTransactionTypeImp());
+    setInteger(ps, 6, itp.getCashaccount() == null ? null : itp.getCashaccount().getIdSecuritycashAccount());
+    ps.setInt(7, itp.getIdTenant());
+    ps.setString(8, itp.getCurrencyAccount());
+    ps.setString(9, itp.getCashAccountImp());
+    ps.setString(10, itp.getCurrencySecurity());
+    ps.setString(11, itp.getIsin());
+    ps.setString(12, itp.getSymbolImp());
+    ps.setString(13, itp.getSecurityNameImp());
+    setInteger(ps, 14, itp.getSecurity() == null ? null : itp.getSecurity().getIdSecuritycurrency());
+    setDouble(ps, 15, itp.getCurrencyExRate());
+    setDouble(ps, 16, itp.getUnits());
+    setDouble(ps, 17, itp.getQuotation());
+    setDouble(ps, 18, itp.getTaxCost());
+    setDouble(ps, 19, itp.getTransactionCost());
+    ps.setString(20, itp.getCurrencyCost());
+    setDouble(ps, 21, itp.getCashaccountAmount());
+    setDouble(ps, 22, itp.getAcceptedTotalDiff());
+    setDouble(ps, 23, itp.getAccruedInterest());
+    ps.setString(24, itp.getField1StringImp());
+    ps.setBoolean(25, itp.isReadyForTransaction());
+    setInteger(ps, 26, itp.getIdTransaction());
+    setInteger(ps, 27, itp.getIdTransactionMaybe());
+    setInteger(ps, 28, itp.getIdTransactionImportTemplate());
+    setInteger(ps, 29, itp.getIdFilePart());
+    ps.setString(30, itp.getFileNameOriginal());
+    setInteger(ps, 31, itp.getConnectedIdTransactionPos());
+    if (itp.hasKnownOtherFlags()) {
+      ps.setLong(32, ImportKnownOtherFlags.encode(itp.getKnownOtherFlags()));
+    } else {
+      ps.setNull(32, Types.INTEGER);
+    }
+    ps.setString(33, itp.getTransactionError());
+    setDouble(ps, 34, itp.getCalcRoundingStep());
+  }
+
+  private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.DOUBLE);
+    } else {
+      ps.setDouble(index, value);
+    }
+  }
+
+  private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.INTEGER);
+    } else {
+      ps.setInt(index, value);
+    }
+  }
+}
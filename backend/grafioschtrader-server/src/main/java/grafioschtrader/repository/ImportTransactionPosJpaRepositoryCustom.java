@@ -6,6 +6,7 @@ import java.util.Map;
 import grafiosch.exceptions.GeneralNotTranslatedWithArgumentsException;
 import grafioschtrader.entities.ImportTransactionHead;
 import grafioschtrader.entities.ImportTransactionPos;
+import grafioschtrader.entities.ImportTransactionPosFailed;
 import grafioschtrader.entities.Security;
 import grafioschtrader.platformimport.CombineTemplateAndImpTransPos;
 import grafioschtrader.repository.ImportTransactionPosJpaRepositoryImpl.CreatedTransactionsResult;
@@ -264,4 +265,27 @@ public interface ImportTransactionPosJpaRepositoryCustom {
    * @return the number of import positions that were updated
    */
   int assignSecurityToMatchingImportPositions(Security security);
+
+  /**
+   * Inserts new import positions with JDBC batches. It is used by file imports with many positions, the positions
+   * receive their generated ID but are not attached to the persistence context.
+   *
+   * @param importTransactionPosList new positions without ID
+   */
+  void insertBatch(List<ImportTransactionPos> importTransactionPosList);
+
+  /**
+   * Writes the connected position of positions inserted by {@link #insertBatch(List)}, for example the two positions
+   * of an account transfer.
+   *
+   * @param importTransactionPosList inserted positions with the ID of their connected position
+   */
+  void updateConnectedIdTransactionPosBatch(List<ImportTransactionPos> importTransactionPosList);
+
+  /**
+   * Inserts the failures of positions inserted by {@link #insertBatch(List)} with JDBC batches.
+   *
+   * @param importTransactionPosFailedList failures of inserted positions
+   */
+  void insertFailedBatch(List<ImportTransactionPosFailed> importTransactionPosFailedList);
 }
@@ -43,6 +43,7 @@ import grafioschtrader.entities.Currencypair;
 import grafioschtrader.entities.HoldSecurityaccountSecurity;
 import grafioschtrader.entities.ImportTransactionHead;
 import grafioschtrader.entities.ImportTransactionPos;
+import grafioschtrader.entities.ImportTransactionPosFailed;
 import grafioschtrader.entities.ImportTransactionTemplate;
 import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Transaction;
@@ -102,6 +103,9 @@ public class ImportTransactionPosJpaRepositoryImpl implements ImportTransactionP
   @Autowired
   private MessageSource messageSource;
 
+  @Autowired
+  private ImportTransactionPosBatchWriter importTransactionPosBatchWriter;
+
   @PersistenceContext
   private EntityManager entityManager;
 
@@ -914,6 +918,21 @@ public class ImportTransactionPosJpaRepositoryImpl implements ImportTransactionP
     return matchingPositions.size();
   }
 
+  @Override
+  public void insertBatch(List<ImportTransactionPos> importTransactionPosList) {
+    importTransactionPosBatchWriter.insertPositions(importTransactionPosList);
+  }
+
+  @Override
+  public void updateConnectedIdTransactionPosBatch(List<ImportTransactionPos> importTransactionPosList) {
+    importTransactionPosBatchWriter.updateConnectedPositions(importTransactionPosList);
+  }
+
+  @Override
+  public void insertFailedBatch(List<ImportTransactionPosFailed> importTransactionPosFailedList) {
+    importTransactionPosBatchWriter.insertFailures(importTransactionPosFailedList);
+  }
+
   /**
    * Data holder class that links a successfully created transaction with its corresponding import position.
    * This class serves as a return type for transaction creation operations, providing both the
@@ -969,4 +988,5 @@ public class ImportTransactionPosJpaRepositoryImpl implements ImportTransactionP
       this.overTransactionLimitCount = overTransactionLimitCount;
     }
   }
+
 }
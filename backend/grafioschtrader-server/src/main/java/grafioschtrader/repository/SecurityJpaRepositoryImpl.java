@@ -68,6 +68,7 @@ import grafioschtrader.rest.RequestGTMappings;
 import grafioschtrader.search.SecuritySearchBuilder;
 import grafioschtrader.search.SecuritycurrencySearch;
 import grafioschtrader.service.GTNetHistoryquoteService;
+import grafioschtrader.service.IndicatorStateStore;
 import grafioschtrader.types.AssetclassType;
 import grafioschtrader.types.HistoryquoteCreateType;
 import grafioschtrader.types.SeasonalPeriodType;
@@ -127,6 +128,9 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
   @Autowired
   private HistoryquoteLegacyJpaRepository historyquoteLegacyJpaRepository;
 
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
   // Circular Dependency -> Lazy
   private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
 
@@ -136,16 +140,26 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
     this.holdSecurityaccountSecurityRepository = holdSecurityaccountSecurityRepository;
   }
 
+  // Circular Dependency -> Lazy
+  private IndicatorStateStore indicatorStateStore;
+
+  @Autowired
+  public void setIndicatorStateStore(@Lazy final IndicatorStateStore indicatorStateStore) {
+    this.indicatorStateStore = indicatorStateStore;
+  }
+
   @PostConstruct
   private void postConstruct() {
     HistoryquoteThruConnector<Security> connectorThru = new HistoryquoteThruConnector<>(entityManager,
-        globalparametersService, feedConnectorbeans, this, Security.class, genericConnectorEndpointJpaRepository);
+        globalparametersService, feedConnectorbeans, this, Security.class, genericConnectorEndpointJpaRepository,
+        feedConnectorScheduler, historyquoteAppendWriter);
     historyquoteThruConnector = new HistoryquoteThruGTNet<>(connectorThru, gtNetHistoryquoteService,
         globalparametersJpaRepository, globalparametersService, securityJpaRepository);
     historyquoteThruCalculation = new HistoryquoteThruCalculation<>(securityJpaRepository, historyquoteJpaRepository,
         securityDerivedLinkJpaRepository, globalparametersService, this);
     intradayThruConnector = new IntradayThruConnector<>(securityJpaRepository, globalparametersService,
-        feedConnectorbeans, this, genericConnectorEndpointJpaRepository);
+        feedConnectorbeans, this, genericConnectorEndpointJpaRepository, feedConnectorScheduler,
+        intradaySingleFlight);
     intradayThruCalculation = new IntradayThruCalculation<>(globalparametersService, securityJpaRepository,
         securityDerivedLinkJpaRepository);
   }
@@ -203,6 +217,12 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
     return feedConnector.getEodSecurityHistory(security, fromDate, toDate);
   }
 
+  @Override
+  public Map<Integer, List<Historyquote>> getHistoryQuotes(final List<Security> securities, final LocalDate fromDate,
+      final LocalDate toDate, final IFeedConnector feedConnector) throws Exception {
+    return feedConnector.getEodSecuritiesHistory(securities, fromDate, toDate);
+  }
+
   @Override
   @Transactional
   @Modifying
@@ -211,6 +231,8 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
       historyquoteLegacyJpaRepository.copyLiveToLegacy(security.getIdSecuritycurrency(), LocalDate.now());
     }
     historyquoteJpaRepository.removeAllSecurityHistoryquote(security.getIdSecuritycurrency());
+    indicatorStateStore.invalidateAfterCommit(security.getIdSecuritycurrency());
+    holdPeriodValuationStore.markDirtyByInstrument(security.getIdSecuritycurrency(), null);
     Security rebuilt = getHistorquoteLoad(security).createHistoryQuotesAndSave(securityJpaRepository, security, null,
         null);
     supplementFromShadow(rebuilt);
@@ -518,6 +540,12 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
     feedConcector.updateSecurityLastPrice(securitycurrency);
   }
 
+  @Override
+  public List<Security> updateIntraSecurityCurrencies(final List<Security> securities,
+      final IFeedConnector feedConnector) throws Exception {
+    return feedConnector.updateSecuritiesLastPrice(securities);
+  }
+
   protected IIntradayLoad<Security> getIntradayLoad(Security security) {
     return security.isDerivedInstrument() ? intradayThruCalculation : intradayThruConnector;
   }
@@ -800,8 +828,9 @@ public class SecurityJpaRepositoryImpl extends SecuritycurrencyService<Security,
   @Override
   public SeasonalReturnsResult getSeasonalReturns(Integer idSecuritycurrency, SeasonalPeriodType periodType,
       boolean includeDividends, boolean inTenantCurrency) {
-    return new SeasonalReturnsReport(securityJpaRepository, tenantJpaRepository, currencypairJpaRepository,
-        riskFreeRateService).calculate(idSecuritycurrency, periodType, includeDividends, inTenantCurrency);
+    return new SeasonalReturnsReport(jdbcTemplate, securityJpaRepository, tenantJpaRepository,
+        currencypairJpaRepository, riskFreeRateService).calculate(idSecuritycurrency, periodType, includeDividends,
+            inTenantCurrency);
   }
 
   @Override
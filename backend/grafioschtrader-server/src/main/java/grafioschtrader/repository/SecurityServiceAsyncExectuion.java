@@ -3,6 +3,7 @@ package grafioschtrader.repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.reportviews.SecuritycurrencyPositionSummary;
+import grafioschtrader.service.IndicatorStateStore;
 
 @Component
 public class SecurityServiceAsyncExectuion<S extends Securitycurrency<S>, U extends SecuritycurrencyPositionSummary<S>> {
@@ -21,6 +23,17 @@ public class SecurityServiceAsyncExectuion<S extends Securitycurrency<S>, U exte
   @Autowired
   private PlatformTransactionManager platformTransactionManager;
 
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
+  // Circular Dependency -> Lazy
+  private IndicatorStateStore indicatorStateStore;
+
+  @Autowired
+  public void setIndicatorStateStore(@Lazy final IndicatorStateStore indicatorStateStore) {
+    this.indicatorStateStore = indicatorStateStore;
+  }
+
   @Transactional
   @Modifying
   @Async
@@ -34,6 +47,8 @@ public class SecurityServiceAsyncExectuion<S extends Securitycurrency<S>, U exte
 
         if (sc.getIdSecuritycurrency() != null && withDeletion) {
           securitycurrencyService.historyquoteJpaRepository.removeAllSecurityHistoryquote(sc.getIdSecuritycurrency());
+          indicatorStateStore.invalidateAfterCommit(sc.getIdSecuritycurrency());
+          holdPeriodValuationStore.markDirtyByInstrument(sc.getIdSecuritycurrency(), null);
           sc = securitycurrencyService.getJpaRepository().getReferenceById(sc.getIdSecuritycurrency());
         }
         sc = securitycurrencyService.updateLastPriceSecurityCurrency(sc, maxIntraRetry, scIntradayUpdateTimeout);
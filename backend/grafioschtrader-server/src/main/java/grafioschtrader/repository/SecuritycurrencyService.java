@@ -31,6 +31,7 @@ import grafiosch.exceptions.DataViolationException;
 import grafiosch.repository.BaseRepositoryImpl;
 import grafiosch.repository.GlobalparametersJpaRepository;
 import grafioschtrader.connector.ConnectorHelper;
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
 import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.connector.instrument.IFeedConnector.FeedSupport;
 import grafioschtrader.dto.ISecuritycurrencyIdDateClose;
@@ -41,6 +42,7 @@ import grafioschtrader.priceupdate.historyquote.IHistoryquoteEntityAccess;
 import grafioschtrader.priceupdate.historyquote.IHistoryquoteLoad;
 import grafioschtrader.priceupdate.intraday.IIntradayEntityAccess;
 import grafioschtrader.priceupdate.intraday.IIntradayLoad;
+import grafioschtrader.priceupdate.intraday.IntradaySingleFlight;
 import grafioschtrader.reportviews.SecuritycurrencyPositionSummary;
 import grafioschtrader.reportviews.securityaccount.SecurityPositionSummary;
 import grafioschtrader.entities.Stockexchange;
@@ -74,6 +76,15 @@ public abstract class SecuritycurrencyService<S extends Securitycurrency<S>, U e
   @Autowired
   protected HistoryquoteJpaRepository historyquoteJpaRepository;
 
+  @Autowired
+  protected FeedConnectorScheduler feedConnectorScheduler;
+
+  @Autowired
+  protected HistoryquoteAppendWriter historyquoteAppendWriter;
+
+  @Autowired
+  protected IntradaySingleFlight intradaySingleFlight;
+
   @PersistenceContext
   protected EntityManager entityManager;
 
@@ -16,6 +16,7 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +43,7 @@ import grafioschtrader.entities.Securitysplit;
 import grafioschtrader.repository.SecurityJpaRepository.SplitAdjustedHistoryquotes;
 import grafioschtrader.repository.SecurityJpaRepository.SplitAdjustedHistoryquotesResult;
 import grafioschtrader.service.GlobalparametersService;
+import grafioschtrader.service.IndicatorStateStore;
 import grafioschtrader.types.CreateType;
 import grafioschtrader.types.TaskTypeExtended;
 
@@ -70,6 +72,14 @@ public class SecuritysplitJpaRepositoryImpl implements SecuritysplitJpaRepositor
   @Autowired
   private GlobalparametersService globalparametersService;
 
+  // Circular Dependency -> Lazy
+  private IndicatorStateStore indicatorStateStore;
+
+  @Autowired
+  public void setIndicatorStateStore(@Lazy final IndicatorStateStore indicatorStateStore) {
+    this.indicatorStateStore = indicatorStateStore;
+  }
+
   @Override
   public Map<Integer, List<Securitysplit>> getSecuritysplitMapByIdTenant(final Integer idTenant) {
     return getMapForList(securitysplitJpaRepository.getByIdTenant(idTenant));
@@ -136,6 +146,7 @@ public class SecuritysplitJpaRepositoryImpl implements SecuritysplitJpaRepositor
         }
       }
       securitysplitJpaRepository.deleteByIdSecuritycurrency(sdacm.idSecuritycurrency);
+      indicatorStateStore.invalidateAfterCommit(sdacm.idSecuritycurrency);
       if (security.canHaveSplitConnector()) {
         securitysplitsExisting = securitysplitJpaRepository
             .saveAll(new ArrayList<>(Arrays.asList(sdacm.getSecuritysplits())));
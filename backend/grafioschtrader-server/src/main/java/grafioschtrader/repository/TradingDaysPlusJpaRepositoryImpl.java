@@ -22,6 +22,9 @@ public class TradingDaysPlusJpaRepositoryImpl implements TradingDaysPlusJpaRepos
   @Autowired
   private TradingDaysPlusJpaRepository tradingDaysPlusJpaRepository;
 
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
   private Map<LocalDate, Long> numberOfTradingDaysYesterdayNowMap = new ConcurrentHashMap<>();
   private LocalDate untilYesterday = null;
 
@@ -70,6 +73,8 @@ public class TradingDaysPlusJpaRepositoryImpl implements TradingDaysPlusJpaRepos
       numberOfTradingDaysYesterdayNowMap.clear();
       tradingDaysPlusJpaRepository.saveAll(createTradingDaysPlusList);
       tradingDaysPlusJpaRepository.deleteAllInBatch(deleteTradingDaysPlusList);
+      saveTradingDays.addRemoveDays.stream().map(addRemoveDay -> addRemoveDay.date).min(LocalDate::compareTo)
+          .ifPresent(holdPeriodValuationStore::markDirtyAll);
       return getTradingDaysByYear(saveTradingDays.year);
     } else {
       throw new SecurityException(BaseConstants.CLIENT_SECURITY_BREACH);
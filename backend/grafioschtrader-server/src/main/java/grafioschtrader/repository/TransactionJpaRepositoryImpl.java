@@ -722,6 +722,10 @@ public class TransactionJpaRepositoryImpl extends BaseRepositoryImpl<Transaction
    * counting units the account no longer holds.
    * </p>
    *
+   * <p>
+   * Only the part of a series from the earliest affected date on is replayed, the older holding periods are unchanged.
+   * </p>
+   *
    * @param transaction     the transaction that affects holdings, already saved or deleted and flushed
    * @param preImage        snapshot of the transaction's former security account and security, or null
    * @param securityaccount the security account (retrieved if null)
@@ -736,6 +740,7 @@ public class TransactionJpaRepositoryImpl extends BaseRepositoryImpl<Transaction
         ? securityaccountJpaRepository.findByIdSecuritycashAccountAndIdTenant(transaction.getIdSecurityaccount(),
             transaction.getIdTenant())
         : securityaccount;
+    LocalDate txDate = transaction.getTransactionTime().toLocalDate();
     if (preImage != null && preImage.securityPositionChanged(transaction.getIdSecurityaccount(),
         transaction.getSecurity() == null ? null : transaction.getSecurity().getIdSecuritycurrency())) {
       // Only the security may have changed, in which case the account is unchanged and can be reused.
@@ -744,12 +749,16 @@ public class TransactionJpaRepositoryImpl extends BaseRepositoryImpl<Transaction
               : securityaccountJpaRepository.findByIdSecuritycashAccountAndIdTenant(preImage.idSecurityaccount(),
                   transaction.getIdTenant());
       if (formerSecurityaccount != null) {
-        holdSecurityaccountSecurityRepository.rebuildHoldingsForSecurityaccountAndSecurity(formerSecurityaccount,
-            preImage.idSecuritycurrency());
+        holdSecurityaccountSecurityRepository.adjustHoldingsForSecurityaccountAndSecurity(formerSecurityaccount,
+            preImage.idSecuritycurrency(), preImage.transactionDate());
       }
+      holdSecurityaccountSecurityRepository.adjustHoldingsForSecurityaccountAndSecurity(targetSecurityaccount,
+          transaction.getSecurity().getIdSecuritycurrency(), txDate);
+    } else {
+      holdSecurityaccountSecurityRepository.adjustHoldingsForSecurityaccountAndSecurity(targetSecurityaccount,
+          transaction.getSecurity().getIdSecuritycurrency(),
+          preImage == null ? txDate : preImage.earliestAffectedDate(txDate));
     }
-    holdSecurityaccountSecurityRepository.rebuildHoldingsForSecurityaccountAndSecurity(targetSecurityaccount,
-        transaction.getSecurity().getIdSecuritycurrency());
   }
 
   /**
@@ -37,6 +37,7 @@ import grafioschtrader.entities.GTNetSecurityImpHead;
 import grafioschtrader.entities.GTNetSecurityImpPos;
 import grafioschtrader.entities.GTNetSupplierDetailHist;
 import grafioschtrader.entities.GTNetSupplierDetailLast;
+import grafioschtrader.service.GTNetLastpricePoolStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -72,11 +73,15 @@ public class GTNetDataExportResource {
   @Autowired
   private TaskDataChangeJpaRepository taskDataChangeJpaRepository;
 
+  @Autowired
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
+
   @Operation(summary = "Exports all GTNet data as SQL", description = "Admin-only. Returns a single SQL file with DELETE + INSERT statements for all GTNet tables (base and app).", tags = {
       RequestGTMappings.GTNETDATAEXPORT })
   @PreAuthorize("hasRole('ADMIN')")
   @GetMapping(value = "/export", produces = MediaType.TEXT_PLAIN_VALUE)
   public ResponseEntity<String> exportGTNetData() {
+    gtNetLastpricePoolStore.flush();
     String sql = gtNetJpaRepository.exportGTNetConfig(EXPORT_HEADER, DELETE_ONLY_TABLES, EXPORT_AND_DELETE_TABLES);
     HttpHeaders headers = new HttpHeaders();
     headers.setContentDisposition(
@@ -91,6 +96,7 @@ public class GTNetDataExportResource {
   public ResponseEntity<Void> importGTNetData(@RequestParam() MultipartFile file) throws Exception {
     String sqlStatements = new String(file.getBytes(), StandardCharsets.UTF_8);
     gtNetJpaRepository.importGTNetConfig(sqlStatements, EXPORT_HEADER);
+    gtNetLastpricePoolStore.reload();
     schedulePostImportTasks();
     return ResponseEntity.ok().build();
   }
@@ -4,6 +4,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +12,9 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import grafiosch.entities.Auditable;
@@ -28,6 +33,7 @@ import grafiosch.entities.User;
 import grafiosch.rest.UpdateCreateJpaRepository;
 import grafioschtrader.dto.DeleteHistoryquotesSuccess;
 import grafioschtrader.dto.HistoryquoteChartResponse;
+import grafioschtrader.dto.HistoryquoteChartVersion;
 import grafioschtrader.dto.HistoryquotesWithMissings;
 import grafioschtrader.dto.IDateAndClose;
 import grafioschtrader.dto.ISecuritycurrencyIdDateClose;
@@ -107,13 +113,28 @@ public class HistoryquoteResource extends HistoryquoteResourceBase<Historyquote>
   @Operation(summary = "Returns chart data for a security or currency pair", description = """
       Returns historical quote data optimized for chart rendering. Automatically selects between OHLC
       (Open-High-Low-Close) data and simple date/close data based on availability. The response includes
-      an ohlcAvailable flag to indicate whether candlestick and OHLC charts can be displayed.""", tags = {
-      Historyquote.TABNAME })
+      an ohlcAvailable flag to indicate whether candlestick and OHLC charts can be displayed. The quotes can be
+      limited to a date range and reduced to a number of points, optionally returned as parallel arrays. The
+      response carries an ETag and Last-Modified of the quotes of the instrument, a request with If-None-Match
+      receives 304 Not Modified when the quotes have not changed.""", tags = { Historyquote.TABNAME })
   @GetMapping(value = "/securitycurrency/{idSecuritycurrency}/forchart", produces = APPLICATION_JSON_VALUE)
   public ResponseEntity<HistoryquoteChartResponse> getHistoryquoteForChart(
-      @Parameter(description = "Id of security or currency pair", required = true) @PathVariable final Integer idSecuritycurrency) {
+      @Parameter(description = "Id of security or currency pair", required = true) @PathVariable final Integer idSecuritycurrency,
+      @Parameter(description = "First day of the chart, the oldest quote when missing", required = false) @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) final LocalDate fromDate,
+      @Parameter(description = "Last day of the chart, the youngest quote when missing", required = false) @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) final LocalDate toDate,
+      @Parameter(description = "Maximum number of points, every quote when missing", required = false) @RequestParam(required = false) final Integer maxPoints,
+      @Parameter(description = "True to return the data as parallel arrays", required = false) @RequestParam(defaultValue = "false") final boolean columnar,
+      WebRequest request) {
     historyquoteReadLimitService.assertReadAllowed(idSecuritycurrency);
-    return new ResponseEntity<>(historyquoteJpaRepository.getHistoryquoteForChart(idSecuritycurrency), HttpStatus.OK);
+    HistoryquoteChartVersion version = historyquoteJpaRepository.getHistoryquoteChartVersion(idSecuritycurrency);
+    String eTag = version.eTag(fromDate + "_" + toDate + "_" + maxPoints + "_" + columnar);
+    if (request.checkNotModified(eTag, version.lastModifiedMillis())) {
+      // checkNotModified() has already written 304 and the validators; returning a body here would be ignored.
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate())
+        .body(historyquoteJpaRepository.getHistoryquoteForChart(idSecuritycurrency, fromDate, toDate, maxPoints,
+            columnar));
   }
 
   @Operation(summary = "Returns the meta data model for all tecnical indicators like SMA, EMA ", description = "May be used to for the UI to build a dynamic form", tags = {
@@ -29,6 +29,7 @@ import grafioschtrader.dto.IntraHistoricalWatchlistProblem;
 import grafioschtrader.dto.WatchlistSecurityStatus;
 import grafioschtrader.entities.Watchlist;
 import grafioschtrader.reports.WatchlistReport;
+import grafioschtrader.reports.WatchlistReport.LastpriceUpdate;
 import grafioschtrader.reportviews.securitycurrency.SecuritycurrencyGroup;
 import grafioschtrader.reportviews.securitycurrency.SecuritycurrencyLists;
 import grafioschtrader.reportviews.securitycurrency.SecuritycurrencyUDFGroup;
@@ -207,15 +208,17 @@ public class WatchlistResource extends UpdateCreateDeleteWithTenantResource<Watc
     return new ResponseEntity<>(watchlistReport.getWatchlistWithoutUpdate(idWatchlist), HttpStatus.OK);
   }
 
-  @Operation(summary = "Returns the content of watchlist with updated prices", description = "This operation can take many seconds", tags = {
+  @Operation(summary = "Returns the content of watchlist with updated prices", description = """
+      This operation can take many seconds. With refreshInBackground it returns at once with the last known prices,
+      the rows with changed prices are sent over the web socket when the update has ended.""", tags = {
       Watchlist.TABNAME })
   @GetMapping(value = "/{idWatchlist}/quote", produces = APPLICATION_JSON_VALUE)
   public ResponseEntity<SecuritycurrencyGroup> updateLastPriceByIdWatchlist(@PathVariable final Integer idWatchlist,
-      @RequestParam() final Integer daysTimeFrame) {
+      @RequestParam() final Integer daysTimeFrame,
+      @Parameter(description = "Return at once and update the prices in the background", required = false) @RequestParam(defaultValue = "false") final boolean refreshInBackground) {
     final User user = (User) SecurityContextHolder.getContext().getAuthentication().getDetails();
-    return new ResponseEntity<>(
-        watchlistReport.getWatchlistwithPeriodPerformance(idWatchlist, user.getIdTenant(), daysTimeFrame),
-        HttpStatus.OK);
+    return new ResponseEntity<>(watchlistReport.getWatchlistwithPeriodPerformance(idWatchlist, user.getIdTenant(),
+        daysTimeFrame, refreshInBackground ? LastpriceUpdate.BACKGROUND : LastpriceUpdate.WAIT), HttpStatus.OK);
   }
 
   @Operation(summary = "Returns the content of a watchlist with the setting of youngest date of history quote. "
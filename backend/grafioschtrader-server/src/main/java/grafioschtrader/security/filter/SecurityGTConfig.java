@@ -1,5 +1,8 @@
 package grafioschtrader.security.filter;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
@@ -15,11 +18,13 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 
 import grafiosch.entities.Role;
 import grafiosch.repository.ProposeUserTaskJpaRepository;
 import grafiosch.rest.RequestMappings;
 import grafiosch.security.SecurityConfig;
+import grafiosch.security.filter.GzipRequestBodyFilter;
 import grafiosch.security.filter.StatelessAuthenticationFilter;
 import grafiosch.security.filter.StatelessLoginFilter;
 import grafiosch.security.filter.TenantReadOnlyFilter;
@@ -70,6 +75,13 @@ public class SecurityGTConfig {
   @Value("${gt.limit.request}")
   private boolean limitRequest;
 
+  /** Addresses or CIDR ranges which may scrape the Prometheus actuator endpoint. */
+  @Value("${gt.metrics.prometheus.allowed:127.0.0.1,::1}")
+  private String[] prometheusAllowed;
+
+  @Value("${gt.gtnet.m2m.request.max.inflated.bytes:33554432}")
+  private int m2mMaxInflatedBytes;
+
   @Autowired
   private AuthenticationManager authenticationManager;
 
@@ -101,7 +113,12 @@ public class SecurityGTConfig {
 
     http.csrf(csrf -> csrf.disable());
 
+    List<IpAddressMatcher> prometheusMatchers = Arrays.stream(prometheusAllowed).map(String::trim)
+        .map(IpAddressMatcher::new).toList();
     http.authorizeHttpRequests(authz -> {
+      // The metrics reveal internals of the instance, unlike the other actuator endpoints they are not public
+      authz.requestMatchers(request -> request.getRequestURI().endsWith(RequestMappings.ACTUATOR_MAP + "/prometheus")
+          && prometheusMatchers.stream().noneMatch(matcher -> matcher.matches(request))).denyAll();
       authz.requestMatchers("/").permitAll().requestMatchers(HttpMethod.GET, "/swagger-ui/**").permitAll()
           .requestMatchers(HttpMethod.GET, "/api-docs/**").permitAll()
           .requestMatchers(HttpMethod.GET,
@@ -125,6 +142,10 @@ public class SecurityGTConfig {
     http.addFilterBefore(new StatelessLoginFilter("/api/login", tokenAuthenticationService, userService,
         authenticationManager, proposeUserTaskJpaRepository, messages), UsernamePasswordAuthenticationFilter.class);
 
+    // GTNet instances may send large M2M requests gzip compressed
+    http.addFilterBefore(new GzipRequestBodyFilter(RequestMappings.GTNET_M2M_MAP, m2mMaxInflatedBytes),
+        UsernamePasswordAuthenticationFilter.class);
+
     http.addFilterBefore(
         new StatelessAuthenticationFilter(tokenAuthenticationService, messages, userService, limitRequest),
         UsernamePasswordAuthenticationFilter.class);
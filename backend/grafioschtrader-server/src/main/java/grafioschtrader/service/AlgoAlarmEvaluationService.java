@@ -50,10 +50,7 @@ import grafioschtrader.repository.AlgoTopJpaRepository;
 import grafioschtrader.repository.HistoryquoteJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.repository.WatchlistJpaRepository;
-import grafioschtrader.ta.TaIndicatorData;
-import grafioschtrader.ta.indicator.calc.ExponentialMovingAverage;
-import grafioschtrader.ta.indicator.calc.RelativeStrengthIndex;
-import grafioschtrader.ta.indicator.calc.SimpleMovingAverage;
+import grafioschtrader.ta.indicator.calc.IncrementalIndicatorState;
 import grafioschtrader.types.MessageGTComType;
 import jakarta.mail.MessagingException;
 import tools.jackson.databind.ObjectMapper;
@@ -82,7 +79,7 @@ public class AlgoAlarmEvaluationService {
   /** Stale threshold: prices older than 4 hours are refreshed before Tier 2 evaluation. */
   private static final long STALE_THRESHOLD_MS = 4 * 60 * 60 * 1000L;
 
-  /** Maximum number of trading days loaded for indicator calculation. */
+  /** Maximum number of calendar days of history an indicator is calculated on. */
   private static final int MAX_HISTORY_DAYS = 1200;
 
   @Autowired
@@ -103,6 +100,9 @@ public class AlgoAlarmEvaluationService {
   @Autowired
   private HistoryquoteJpaRepository historyquoteJpaRepository;
 
+  @Autowired
+  private IndicatorStateStore indicatorStateStore;
+
   @Autowired
   private AlgoMessageAlertJpaRepository algoMessageAlertJpaRepository;
 
@@ -350,24 +350,28 @@ public class AlgoAlarmEvaluationService {
 
   /**
    * Evaluates indicator-based alert conditions for all active AlgoTop configurations and standalone alerts.
-   * Refreshes stale prices (older than 4 hours) before evaluation.
+   * Refreshes stale prices (older than 4 hours) before evaluation. The indicators are read from the
+   * {@link IndicatorStateStore}, which only appends the history quotes added since the previous evaluation. The state
+   * of a security is brought up to date once per evaluation, all alerts on this security read it from memory.
    */
   public void evaluateIndicatorAlerts() {
     if (!featureConfig.isAlgo() || !featureConfig.isAlert()) {
       return;
     }
-    evaluateAlgoTopIndicatorAlerts();
-    evaluateStandaloneIndicatorAlerts();
+    Map<Integer, IncrementalIndicatorState> indicatorStates = new HashMap<>();
+    evaluateAlgoTopIndicatorAlerts(indicatorStates);
+    evaluateStandaloneIndicatorAlerts(indicatorStates);
+    indicatorStateStore.retainAll(indicatorStates.keySet());
   }
 
-  private void evaluateAlgoTopIndicatorAlerts() {
+  private void evaluateAlgoTopIndicatorAlerts(Map<Integer, IncrementalIndicatorState> indicatorStates) {
     List<AlgoTop> activeAlgoTops = algoTopJpaRepository.findByActivatableTrue();
     if (activeAlgoTops.isEmpty()) {
       return;
     }
     for (AlgoTop algoTop : activeAlgoTops) {
       try {
-        evaluateIndicatorAlertsForAlgoTop(algoTop);
+        evaluateIndicatorAlertsForAlgoTop(algoTop, indicatorStates);
       } catch (Exception e) {
         log.error("Error evaluating indicator alerts for AlgoTop {}: {}", algoTop.getIdAlgoAssetclassSecurity(),
             e.getMessage(), e);
@@ -375,7 +379,7 @@ public class AlgoAlarmEvaluationService {
     }
   }
 
-  private void evaluateStandaloneIndicatorAlerts() {
+  private void evaluateStandaloneIndicatorAlerts(Map<Integer, IncrementalIndicatorState> indicatorStates) {
     List<AlgoSecurity> standaloneAlerts = algoSecurityJpaRepository
         .findByActivatableTrueAndIdAlgoSecurityParentIsNull();
     if (standaloneAlerts.isEmpty()) {
@@ -398,12 +402,13 @@ public class AlgoAlarmEvaluationService {
       List<AlgoStrategy> strategies = algoStrategyJpaRepository
           .findByIdAlgoAssetclassSecurityAndIdTenant(as.getIdAlgoAssetclassSecurity(), as.getIdTenant());
       for (AlgoStrategy strategy : strategies) {
-        evaluateIndicatorStrategy(as.getIdTenant(), security.getName(), strategy, security);
+        evaluateIndicatorStrategy(as.getIdTenant(), security.getName(), strategy, security, indicatorStates);
       }
     }
   }
 
-  private void evaluateIndicatorAlertsForAlgoTop(AlgoTop algoTop) {
+  private void evaluateIndicatorAlertsForAlgoTop(AlgoTop algoTop,
+      Map<Integer, IncrementalIndicatorState> indicatorStates) {
     Watchlist watchlist = watchlistJpaRepository.findById(algoTop.getIdWatchlist()).orElse(null);
     if (watchlist == null) {
       return;
@@ -437,13 +442,13 @@ public class AlgoAlarmEvaluationService {
         .findByIdAlgoAssetclassSecurityAndIdTenant(algoTop.getIdAlgoAssetclassSecurity(), algoTop.getIdTenant());
     for (Security security : allSecurities) {
       for (AlgoStrategy strategy : strategies) {
-        evaluateIndicatorStrategy(algoTop.getIdTenant(), algoTop.getName(), strategy, security);
+        evaluateIndicatorStrategy(algoTop.getIdTenant(), algoTop.getName(), strategy, security, indicatorStates);
       }
     }
   }
 
   private void evaluateIndicatorStrategy(Integer idTenant, String alertName, AlgoStrategy strategy,
-      Security security) {
+      Security security, Map<Integer, IncrementalIndicatorState> indicatorStates) {
     if (!strategy.isActivatable()) {
       return;
     }
@@ -454,13 +459,13 @@ public class AlgoAlarmEvaluationService {
     try {
       switch (implType) {
       case AS_OBSERVED_SECURITY_MA_CROSSING:
-        evaluateMaCrossingAlert(idTenant, alertName, strategy, security);
+        evaluateMaCrossingAlert(idTenant, alertName, strategy, security, indicatorStates);
         break;
       case AS_OBSERVED_SECURITY_RSI_THRESHOLD:
-        evaluateRsiThresholdAlert(idTenant, alertName, strategy, security);
+        evaluateRsiThresholdAlert(idTenant, alertName, strategy, security, indicatorStates);
         break;
       case AS_OBSERVED_SECURITY_EXPRESSION:
-        evaluateExpressionAlert(idTenant, alertName, strategy, security);
+        evaluateExpressionAlert(idTenant, alertName, strategy, security, indicatorStates);
         break;
       default:
         break;
@@ -471,35 +476,19 @@ public class AlgoAlarmEvaluationService {
     }
   }
 
-  private void evaluateMaCrossingAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security)
-      throws Exception {
+  private void evaluateMaCrossingAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security,
+      Map<Integer, IncrementalIndicatorState> indicatorStates) throws Exception {
     if (security.getSLast() == null) {
       return;
     }
     MaCrossingAlert config = objectMapper.readValue(strategy.getStrategyConfig(), MaCrossingAlert.class);
-    List<Historyquote> hqs = loadHistoryForIndicator(security.getIdSecuritycurrency(), config.getPeriod() + 10);
-    if (hqs.size() <= config.getPeriod()) {
-      return;
-    }
-    // Compute MA
-    TaIndicatorData[] maData;
-    if ("EMA".equals(config.getIndicatorType())) {
-      ExponentialMovingAverage ema = new ExponentialMovingAverage(config.getPeriod(), hqs.size());
-      for (Historyquote hq : hqs) {
-        ema.addData(hq.getDate(), hq.getClose());
-      }
-      maData = ema.getTaIndicatorData();
-    } else {
-      SimpleMovingAverage sma = new SimpleMovingAverage(config.getPeriod(), hqs.size());
-      for (Historyquote hq : hqs) {
-        sma.addData(hq.getDate(), hq.getClose());
-      }
-      maData = sma.getTaIndicatorData();
-    }
-    if (maData.length == 0) {
+    IncrementalIndicatorState indicatorState = getIndicatorState(indicatorStates, security);
+    LocalDate fromDate = getIndicatorFromDate(config.getPeriod() + 10);
+    double lastMaValue = "EMA".equals(config.getIndicatorType()) ? indicatorState.getEma(config.getPeriod(), fromDate)
+        : indicatorState.getSma(config.getPeriod(), fromDate);
+    if (Double.isNaN(lastMaValue)) {
       return;
     }
-    double lastMaValue = maData[maData.length - 1].value;
     double lastPrice = security.getSLast();
     boolean triggered = false;
     if ("ABOVE".equals(config.getCrossDirection()) && lastPrice > lastMaValue) {
@@ -515,25 +504,17 @@ public class AlgoAlarmEvaluationService {
     }
   }
 
-  private void evaluateRsiThresholdAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security)
-      throws Exception {
+  private void evaluateRsiThresholdAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security,
+      Map<Integer, IncrementalIndicatorState> indicatorStates) throws Exception {
     if (security.getSLast() == null) {
       return;
     }
     RsiThresholdAlert config = objectMapper.readValue(strategy.getStrategyConfig(), RsiThresholdAlert.class);
-    List<Historyquote> hqs = loadHistoryForIndicator(security.getIdSecuritycurrency(), config.getRsiPeriod() + 20);
-    if (hqs.size() <= config.getRsiPeriod()) {
+    double lastRsi = getIndicatorState(indicatorStates, security).getRsi(config.getRsiPeriod(),
+        getIndicatorFromDate(config.getRsiPeriod() + 20));
+    if (Double.isNaN(lastRsi)) {
       return;
     }
-    RelativeStrengthIndex rsi = new RelativeStrengthIndex(config.getRsiPeriod(), hqs.size());
-    for (Historyquote hq : hqs) {
-      rsi.addData(hq.getDate(), hq.getClose());
-    }
-    TaIndicatorData[] rsiData = rsi.getTaIndicatorData();
-    if (rsiData.length == 0) {
-      return;
-    }
-    double lastRsi = rsiData[rsiData.length - 1].value;
     boolean triggered = false;
     String direction = null;
     if (config.getLowerThreshold() != null && lastRsi < config.getLowerThreshold()) {
@@ -551,8 +532,8 @@ public class AlgoAlarmEvaluationService {
     }
   }
 
-  private void evaluateExpressionAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security)
-      throws Exception {
+  private void evaluateExpressionAlert(Integer idTenant, String alertName, AlgoStrategy strategy, Security security,
+      Map<Integer, IncrementalIndicatorState> indicatorStates) throws Exception {
     if (security.getSLast() == null) {
       return;
     }
@@ -562,12 +543,13 @@ public class AlgoAlarmEvaluationService {
     // Build expression with or without indicator functions
     Expression expression;
     if (usesIndicatorFunctions(exprStr)) {
-      List<Historyquote> hqs = loadHistoryForIndicator(security.getIdSecuritycurrency(), MAX_HISTORY_DAYS);
+      IncrementalIndicatorState indicatorState = getIndicatorState(indicatorStates, security);
+      LocalDate fromDate = getIndicatorFromDate(MAX_HISTORY_DAYS);
       ExpressionConfiguration exprConfig = ExpressionConfiguration.defaultConfiguration()
           .withAdditionalFunctions(
-              Map.entry("SMA", new SmaFunction(hqs)),
-              Map.entry("EMA", new EmaFunction(hqs)),
-              Map.entry("RSI", new RsiFunction(hqs)));
+              Map.entry("SMA", new SmaFunction(indicatorState, fromDate)),
+              Map.entry("EMA", new EmaFunction(indicatorState, fromDate)),
+              Map.entry("RSI", new RsiFunction(indicatorState, fromDate)));
       expression = new Expression(exprStr, exprConfig);
     } else {
       expression = new Expression(exprStr);
@@ -666,12 +648,21 @@ public class AlgoAlarmEvaluationService {
 
   // == Helpers ===============================================================
 
-  private List<Historyquote> loadHistoryForIndicator(Integer idSecuritycurrency, int minDays) {
-    int daysToLoad = Math.min(Math.max(minDays, 100), MAX_HISTORY_DAYS);
-    LocalDate fromDate = LocalDate.now().minusDays(daysToLoad);
-    LocalDate toDate = LocalDate.now();
-    return historyquoteJpaRepository.findByIdSecuritycurrencyAndDateBetweenOrderByDate(idSecuritycurrency, fromDate,
-        toDate);
+  /**
+   * Returns the indicator state of a security, it is brought up to date with the first alert of the evaluation which
+   * needs it.
+   */
+  private IncrementalIndicatorState getIndicatorState(Map<Integer, IncrementalIndicatorState> indicatorStates,
+      Security security) {
+    return indicatorStates.computeIfAbsent(security.getIdSecuritycurrency(), indicatorStateStore::getCurrentState);
+  }
+
+  /**
+   * Start of the history an indicator is calculated on. The EMA and RSI depend on it, the window is at least 100 and
+   * at most {@link #MAX_HISTORY_DAYS} calendar days.
+   */
+  private LocalDate getIndicatorFromDate(int minDays) {
+    return LocalDate.now().minusDays(Math.min(Math.max(minDays, 100), MAX_HISTORY_DAYS));
   }
 
 }
@@ -0,0 +1,117 @@
+package grafioschtrader.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import grafioschtrader.dto.IDateAndClose;
+import grafioschtrader.entities.Currencypair;
+import grafioschtrader.reportviews.CurrencypairRateSeries;
+import grafioschtrader.reportviews.CurrencypairRateSource;
+import grafioschtrader.reportviews.FromToCurrency;
+import grafioschtrader.repository.CurrencypairJpaRepository;
+import grafioschtrader.repository.HistoryquoteJpaRepository;
+import grafioschtrader.repository.HistoryquoteJpaRepository.HistoryquoteVersion;
+
+/**
+ * Keeps the closing rates of the currency pairs for the reports of all tenants, so a report no longer reads the
+ * exchange rates it needs from the database.
+ * <p>
+ * The history of a currency pair is loaded once. On each request the number of quotes, the youngest date and the last
+ * modification are compared with the database. When only younger quotes were added, as by the daily update of the
+ * exchange rates, they are appended. Any other change, for example a corrected or deleted quote or a filled gap, loads
+ * the history again.
+ * </p>
+ */
+@Service
+public class CurrencypairRateStore implements CurrencypairRateSource {
+
+  private static final Logger log = LoggerFactory.getLogger(CurrencypairRateStore.class);
+
+  @Autowired
+  private CurrencypairJpaRepository currencypairJpaRepository;
+
+  @Autowired
+  private HistoryquoteJpaRepository historyquoteJpaRepository;
+
+  private final Map<FromToCurrency, Integer> idCurrencypairMap = new ConcurrentHashMap<>();
+
+  private final Map<Integer, VersionedRateSeries> rateSeriesMap = new ConcurrentHashMap<>();
+
+  @Override
+  public CurrencypairRateSeries getRateSeries(String fromCurrency, String toCurrency) {
+    FromToCurrency fromToCurrency = new FromToCurrency(fromCurrency, toCurrency);
+    Integer idCurrencypair = idCurrencypairMap.get(fromToCurrency);
+    if (idCurrencypair == null) {
+      Currencypair currencypair = currencypairJpaRepository.findByFromCurrencyAndToCurrency(fromCurrency, toCurrency);
+      if (currencypair == null) {
+        return null;
+      }
+      idCurrencypair = currencypair.getIdSecuritycurrency();
+      idCurrencypairMap.put(fromToCurrency, idCurrencypair);
+    }
+    return getRateSeries(idCurrencypair);
+  }
+
+  /**
+   * Returns the closing rates of a currency pair which match the history quotes in the database.
+   *
+   * @param idCurrencypair the currency pair
+   */
+  public CurrencypairRateSeries getRateSeries(Integer idCurrencypair) {
+    HistoryquoteVersion version = historyquoteJpaRepository.getVersionByIdSecuritycurrency(idCurrencypair);
+    VersionedRateSeries cached = rateSeriesMap.get(idCurrencypair);
+    if (cached != null && cached.isVersion(version)) {
+      return cached.rateSeries;
+    }
+    CurrencypairRateSeries rateSeries = cached == null ? null : appendYoungerQuotes(idCurrencypair, cached, version);
+    if (rateSeries == null) {
+      log.debug("Loading the history of currency pair {}", idCurrencypair);
+      rateSeries = CurrencypairRateSeries
+          .of(historyquoteJpaRepository.getDateAndCloseByIdSecuritycurrency(idCurrencypair));
+    }
+    rateSeriesMap.put(idCurrencypair, new VersionedRateSeries(rateSeries, version.getMaxModifyTime()));
+    return rateSeries;
+  }
+
+  /**
+   * Appends the quotes which were written since the cached version, when all of them are younger than its last quote.
+   *
+   * @return the extended series, or null when the history has to be loaded again
+   */
+  private CurrencypairRateSeries appendYoungerQuotes(Integer idCurrencypair, VersionedRateSeries cached,
+      HistoryquoteVersion version) {
+    CurrencypairRateSeries rateSeries = cached.rateSeries;
+    if (cached.maxModifyTime == null || rateSeries.getQuoteCount() == 0) {
+      return null;
+    }
+    List<IDateAndClose> younger = new ArrayList<>();
+    // The modification time has only a precision of seconds, so the quotes of the last known second are read again
+    for (IDateAndClose quote : historyquoteJpaRepository.getDateAndCloseModifiedSince(idCurrencypair,
+        cached.maxModifyTime)) {
+      if (quote.getDate().isAfter(rateSeries.getLastDate())) {
+        younger.add(quote);
+      } else if (Double.compare(rateSeries.getExactRate(quote.getDate()), quote.getClose()) != 0) {
+        return null;
+      }
+    }
+    return rateSeries.getQuoteCount() + younger.size() == version.getQuoteCount() ? rateSeries.append(younger) : null;
+  }
+
+  private record VersionedRateSeries(CurrencypairRateSeries rateSeries, LocalDateTime maxModifyTime) {
+
+    boolean isVersion(HistoryquoteVersion version) {
+      return rateSeries.getQuoteCount() == version.getQuoteCount()
+          && Objects.equals(rateSeries.getLastDate(), version.getMaxDate())
+          && Objects.equals(maxModifyTime, version.getMaxModifyTime());
+    }
+  }
+}
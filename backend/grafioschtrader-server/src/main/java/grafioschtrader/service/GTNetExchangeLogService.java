@@ -48,4 +48,60 @@ public class GTNetExchangeLogService {
         remoteGTNet, entityKind, false,
         entitiesSent, entitiesUpdated, entitiesReceived);
   }
+
+  /**
+   * Logs an exchange operation from the supplier (receiver) perspective together with the payload sizes of a compact
+   * payload encoding.
+   *
+   * @param remoteGTNet the remote GTNet that sent the request
+   * @param entityKind the type of data exchanged
+   * @param entitiesReceived number of entities received in the request
+   * @param entitiesWithNewerData number of entities we had newer data for
+   * @param entitiesSent number of entities sent in the response
+   * @param bytesOnWire size in bytes of the transmitted payload
+   * @param bytesJson size in bytes the payload would have had as JSON
+   */
+  public void logAsSupplier(GTNet remoteGTNet, GTNetExchangeKindType entityKind,
+      int entitiesReceived, int entitiesWithNewerData, int entitiesSent, long bytesOnWire, long bytesJson) {
+    gtNetExchangeLogJpaRepository.logExchange(
+        remoteGTNet, entityKind, true,
+        entitiesReceived, entitiesWithNewerData, entitiesSent, bytesOnWire, bytesJson);
+  }
+
+  /**
+   * Logs an exchange operation from the consumer (requester) perspective together with the payload sizes of a compact
+   * payload encoding.
+   *
+   * @param remoteGTNet the remote GTNet that provided the data
+   * @param entityKind the type of data exchanged
+   * @param entitiesSent number of entities sent in the request
+   * @param entitiesUpdated number of entities successfully updated from the response
+   * @param entitiesReceived number of entities received in the response
+   * @param bytesOnWire size in bytes of the transmitted payload
+   * @param bytesJson size in bytes the payload would have had as JSON
+   */
+  public void logAsConsumer(GTNet remoteGTNet, GTNetExchangeKindType entityKind,
+      int entitiesSent, int entitiesUpdated, int entitiesReceived, long bytesOnWire, long bytesJson) {
+    gtNetExchangeLogJpaRepository.logExchange(
+        remoteGTNet, entityKind, false,
+        entitiesSent, entitiesUpdated, entitiesReceived, bytesOnWire, bytesJson);
+  }
+
+  /**
+   * Logs an exchange operation from the consumer (requester) perspective together with the response time of the
+   * remote server. The response times are the base of the latency percentiles of the supplier selection.
+   *
+   * @param remoteGTNet the remote GTNet that provided the data
+   * @param entityKind the type of data exchanged
+   * @param entitiesSent number of entities sent in the request
+   * @param entitiesUpdated number of entities successfully updated from the response
+   * @param entitiesReceived number of entities received in the response
+   * @param responseMillis time in milliseconds until the response was received
+   */
+  public void logAsConsumerTimed(GTNet remoteGTNet, GTNetExchangeKindType entityKind,
+      int entitiesSent, int entitiesUpdated, int entitiesReceived, long responseMillis) {
+    gtNetExchangeLogJpaRepository.logExchange(
+        remoteGTNet, entityKind, false,
+        entitiesSent, entitiesUpdated, entitiesReceived, 0, 0, Math.max(1, responseMillis));
+  }
 }
@@ -28,6 +28,7 @@ import grafioschtrader.connector.instrument.IFeedConnector;
 import grafioschtrader.entities.Historyquote;
 import grafioschtrader.entities.Security;
 import grafioschtrader.gtnet.GTNetMessageCodeType;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder;
 import grafioschtrader.gtnet.m2m.model.HistoryquoteRecordDTO;
 import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
 import grafioschtrader.gtnet.model.msg.HistoryquoteCoverageQueryMsg;
@@ -78,6 +79,9 @@ public class GTNetHistoricalImportService extends BaseGTNetExchangeService {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private HistoryquotePayloadEncoder historyquotePayloadEncoder;
+
   /**
    * Queries all eligible GTNet peers for coverage metadata for the given securities.
    *
@@ -232,7 +236,7 @@ public class GTNetHistoricalImportService extends BaseGTNetExchangeService {
     }
 
     try {
-      HistoryquoteExchangeMsg responsePayload = objectMapper.treeToValue(response.payload, HistoryquoteExchangeMsg.class);
+      HistoryquoteExchangeMsg responsePayload = historyquotePayloadEncoder.fromPayload(response.payload).msg();
       if (responsePayload == null || responsePayload.securities == null || responsePayload.securities.isEmpty()) {
         return Collections.emptyList();
       }
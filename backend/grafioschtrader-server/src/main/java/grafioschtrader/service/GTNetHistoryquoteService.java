@@ -24,6 +24,7 @@ import grafiosch.gtnet.m2m.model.GTNetPublicDTO;
 import grafiosch.gtnet.m2m.model.MessageEnvelope;
 import grafiosch.m2m.GTNetMessageHelper;
 import grafiosch.m2m.client.BaseDataClient;
+import grafiosch.m2m.client.BaseDataClient.PeerRequest;
 import grafiosch.m2m.client.BaseDataClient.SendResult;
 import grafiosch.repository.GTNetJpaRepository;
 import grafiosch.repository.GTNetSupplierDetailJpaRepository;
@@ -38,6 +39,9 @@ import grafioschtrader.entities.Security;
 import grafioschtrader.entities.Securitycurrency;
 import grafioschtrader.gtnet.GTNetExchangeKindType;
 import grafioschtrader.gtnet.GTNetMessageCodeType;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder.DecodedPayload;
+import grafioschtrader.gtnet.HistoryquotePayloadEncoder.EncodedPayload;
 import grafioschtrader.gtnet.m2m.model.HistoryquoteRecordDTO;
 import grafioschtrader.gtnet.m2m.model.InstrumentHistoryquoteDTO;
 import grafioschtrader.gtnet.model.msg.HistoryquoteExchangeMsg;
@@ -78,6 +82,10 @@ import tools.jackson.databind.ObjectMapper;
  *   <li>If instrument is foreign (no local match): store in gt_net_historyquote table</li>
  * </ul>
  *
+ * <h3>Payload Encoding</h3>
+ * The records are exchanged in the compact columnar encoding of {@link HistoryquotePayloadEncoder} when the receiver
+ * announced it in its payload encodings, otherwise as JSON. The payload sizes are recorded in the exchange log.
+ *
  * @see GTNetLastpriceService for intraday price exchange
  * @see BaseGTNetExchangeService for shared supplier prioritization logic
  */
@@ -128,6 +136,9 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private HistoryquotePayloadEncoder historyquotePayloadEncoder;
+
   /**
    * Requests historical quotes for a security from GTNet suppliers.
    *
@@ -305,6 +316,8 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
     log.info("Pushing connector-fetched data to {} interested suppliers for {} instruments",
         wantToReceiveMap.size(), filledByConnector.size());
 
+    GTNet myGTNet = getMyGTNet();
+    List<PeerRequest> peerRequests = new ArrayList<>();
     for (Map.Entry<GTNet, List<InstrumentHistoryquoteDTO>> entry : wantToReceiveMap.entrySet()) {
       GTNet supplier = entry.getKey();
       List<InstrumentHistoryquoteDTO> wantedInstruments = entry.getValue();
@@ -312,12 +325,13 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
       try {
         HistoryquoteExchangeMsg pushPayload = buildPushPayloadFromConnectorData(filledByConnector, wantedInstruments);
         if (!pushPayload.isEmpty()) {
-          sendPushToSupplier(supplier, pushPayload);
+          addPushRequest(peerRequests, myGTNet, supplier, pushPayload);
         }
       } catch (Exception e) {
         log.warn("Failed to push connector data to {}: {}", supplier.getDomainRemoteName(), e.getMessage());
       }
     }
+    sendPushRequests(peerRequests);
   }
 
   /**
@@ -459,43 +473,56 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
         && pair.getToCurrency().equals(dto.getToCurrency());
   }
 
+  private GTNet getMyGTNet() {
+    Integer myGTNetId = GTNetMessageHelper.getGTNetMyEntryIDOrThrow(globalparametersJpaRepository);
+    return gtNetJpaRepository.findById(myGTNetId)
+        .orElseThrow(() -> new IllegalStateException("Local GTNet entry not found: " + myGTNetId));
+  }
+
   /**
-   * Sends push payload to a supplier.
+   * Creates the push message for a supplier and adds it to the requests. Unauthorized suppliers are skipped.
    */
-  private void sendPushToSupplier(GTNet supplier, HistoryquoteExchangeMsg pushPayload) {
+  private void addPushRequest(List<PeerRequest> peerRequests, GTNet myGTNet, GTNet supplier,
+      HistoryquoteExchangeMsg pushPayload) {
     GTNetConfig config = supplier.getGtNetConfig();
     if (config == null || !config.isAuthorizedRemoteEntry()) {
       log.debug("Skipping push to unauthorized server: {}", supplier.getDomainRemoteName());
       return;
     }
 
-    Integer myGTNetId = GTNetMessageHelper.getGTNetMyEntryIDOrThrow(globalparametersJpaRepository);
-    GTNet myGTNet = gtNetJpaRepository.findById(myGTNetId)
-        .orElseThrow(() -> new IllegalStateException("Local GTNet entry not found: " + myGTNetId));
-
     MessageEnvelope pushEnvelope = new MessageEnvelope();
     pushEnvelope.sourceDomain = myGTNet.getDomainRemoteName();
     pushEnvelope.sourceGtNet = new GTNetPublicDTO(myGTNet);
     pushEnvelope.serverBusy = myGTNet.isServerBusy();
     pushEnvelope.messageCode = GTNetMessageCodeType.GT_NET_HISTORYQUOTE_PUSH_SEL_C.getValue();
     pushEnvelope.timestamp = LocalDateTime.now();
-    pushEnvelope.payload = objectMapper.valueToTree(pushPayload);
+    int recordCount = pushPayload.getTotalRecordCount();
+    EncodedPayload encodedPayload = historyquotePayloadEncoder.toPayload(pushPayload,
+        HistoryquotePayloadEncoder.isCompactSupported(supplier));
+    pushEnvelope.payload = encodedPayload.payload();
 
-    log.info("Pushing {} securities, {} pairs to {}",
-        pushPayload.securities.size(), pushPayload.currencypairs.size(),
-        supplier.getDomainRemoteName());
+    log.info("Pushing {} securities, {} pairs with {} records to {} ({} bytes, {} bytes as JSON)",
+        pushPayload.securities.size(), pushPayload.currencypairs.size(), recordCount,
+        supplier.getDomainRemoteName(), encodedPayload.bytesOnWire(), encodedPayload.bytesJson());
 
-    SendResult result = baseDataClient.sendToMsgWithStatus(
-        config.getTokenRemote(),
-        supplier.getDomainRemoteName(),
-        pushEnvelope,
-        GTNetTimeoutHelper.resolveTimeout(supplier, globalparametersJpaRepository));
+    peerRequests.add(new PeerRequest(config.getTokenRemote(), supplier.getDomainRemoteName(), pushEnvelope,
+        GTNetTimeoutHelper.resolveTimeout(supplier, globalparametersJpaRepository)));
+  }
 
-    if (result.isFailed()) {
-      if (result.httpError()) {
-        log.warn("GTNet server {} returned HTTP error {} for push", supplier.getDomainRemoteName(), result.httpStatusCode());
-      } else {
-        log.warn("GTNet server {} is unreachable for push", supplier.getDomainRemoteName());
+  /**
+   * Sends the push messages to all suppliers at the same time and logs the failed deliveries.
+   */
+  private void sendPushRequests(List<PeerRequest> peerRequests) {
+    List<SendResult> results = baseDataClient.sendToMsgsWithStatus(peerRequests);
+    for (int i = 0; i < results.size(); i++) {
+      SendResult result = results.get(i);
+      String domain = peerRequests.get(i).targetDomain();
+      if (result.isFailed()) {
+        if (result.httpError()) {
+          log.warn("GTNet server {} returned HTTP error {} for push", domain, result.httpStatusCode());
+        } else {
+          log.warn("GTNet server {} is unreachable for push", domain);
+        }
       }
     }
   }
@@ -607,9 +634,15 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
       return new QueryResult(0, null, null);
     }
 
+    // The supplier announces with every message which payload encodings it can read, a push back depends on it
+    if (response.sourceGtNet != null) {
+      supplier.setPayloadEncodings(response.sourceGtNet.getPayloadEncodings());
+    }
+
     // Parse response
     try {
-      HistoryquoteExchangeMsg responsePayload = objectMapper.treeToValue(response.payload, HistoryquoteExchangeMsg.class);
+      DecodedPayload decodedPayload = historyquotePayloadEncoder.fromPayload(response.payload);
+      HistoryquoteExchangeMsg responsePayload = decodedPayload.msg();
 
       if (responsePayload == null) {
         log.debug("Empty response payload from {}", supplier.getDomainRemoteName());
@@ -625,7 +658,7 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
       // Log exchange statistics as consumer (storage happens later in HistoryquoteThruGTNet)
       int instrumentsSent = request.getTotalInstrumentCount();
       gtNetExchangeLogService.logAsConsumer(supplier, GTNetExchangeKindType.HISTORICAL_PRICES,
-          instrumentsSent, recordCount, recordCount);
+          instrumentsSent, recordCount, recordCount, decodedPayload.bytesOnWire(), decodedPayload.bytesJson());
 
       // Build want-to-receive response for push back
       HistoryquoteExchangeMsg wantToReceive = null;
@@ -649,30 +682,31 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
   private void pushHistoricalDataToInterestedSuppliers(Map<GTNet, HistoryquoteExchangeMsg> wantToReceiveMap) {
     log.info("Pushing historical data to {} interested suppliers", wantToReceiveMap.size());
 
+    GTNet myGTNet = getMyGTNet();
+    List<PeerRequest> peerRequests = new ArrayList<>();
     for (Map.Entry<GTNet, HistoryquoteExchangeMsg> entry : wantToReceiveMap.entrySet()) {
       GTNet supplier = entry.getKey();
       HistoryquoteExchangeMsg wantedInstruments = entry.getValue();
 
       try {
-        pushHistoricalDataToSupplier(supplier, wantedInstruments);
+        HistoryquoteExchangeMsg pushPayload = buildHistoricalPushPayload(wantedInstruments);
+        if (pushPayload.isEmpty()) {
+          log.debug("No historical data available to push to {}", supplier.getDomainRemoteName());
+        } else {
+          addPushRequest(peerRequests, myGTNet, supplier, pushPayload);
+        }
       } catch (Exception e) {
         log.warn("Failed to push historical data to {}: {}",
             supplier.getDomainRemoteName(), e.getMessage());
       }
     }
+    sendPushRequests(peerRequests);
   }
 
   /**
-   * Pushes historical data to a specific supplier for instruments they requested.
+   * Builds the push payload with our local historical data for the instruments a supplier requested.
    */
-  private void pushHistoricalDataToSupplier(GTNet supplier, HistoryquoteExchangeMsg wantedInstruments) {
-    GTNetConfig config = supplier.getGtNetConfig();
-    if (config == null || !config.isAuthorizedRemoteEntry()) {
-      log.debug("Skipping push to unauthorized server: {}", supplier.getDomainRemoteName());
-      return;
-    }
-
-    // Build push payload with our local historical data
+  private HistoryquoteExchangeMsg buildHistoricalPushPayload(HistoryquoteExchangeMsg wantedInstruments) {
     HistoryquoteExchangeMsg pushPayload = new HistoryquoteExchangeMsg();
 
     // Query local data for requested securities
@@ -696,44 +730,7 @@ public class GTNetHistoryquoteService extends BaseGTNetExchangeService {
         }
       }
     }
-
-    if (pushPayload.isEmpty()) {
-      log.debug("No historical data available to push to {}", supplier.getDomainRemoteName());
-      return;
-    }
-
-    // Get local GTNet entry for source identification
-    Integer myGTNetId = GTNetMessageHelper.getGTNetMyEntryIDOrThrow(globalparametersJpaRepository);
-    GTNet myGTNet = gtNetJpaRepository.findById(myGTNetId)
-        .orElseThrow(() -> new IllegalStateException("Local GTNet entry not found: " + myGTNetId));
-
-    // Build and send push message
-    MessageEnvelope pushEnvelope = new MessageEnvelope();
-    pushEnvelope.sourceDomain = myGTNet.getDomainRemoteName();
-    pushEnvelope.sourceGtNet = new GTNetPublicDTO(myGTNet);
-    pushEnvelope.serverBusy = myGTNet.isServerBusy();
-    pushEnvelope.messageCode = GTNetMessageCodeType.GT_NET_HISTORYQUOTE_PUSH_SEL_C.getValue();
-    pushEnvelope.timestamp = LocalDateTime.now();
-    pushEnvelope.payload = objectMapper.valueToTree(pushPayload);
-
-    log.info("Pushing {} securities, {} pairs historical data to {}",
-        pushPayload.securities.size(), pushPayload.currencypairs.size(),
-        supplier.getDomainRemoteName());
-
-    SendResult result = baseDataClient.sendToMsgWithStatus(
-        config.getTokenRemote(),
-        supplier.getDomainRemoteName(),
-        pushEnvelope,
-        GTNetTimeoutHelper.resolveTimeout(supplier, globalparametersJpaRepository));
-
-    if (result.isFailed()) {
-      if (result.httpError()) {
-        log.warn("GTNet server {} returned HTTP error {} for historical data push",
-            supplier.getDomainRemoteName(), result.httpStatusCode());
-      } else {
-        log.warn("GTNet server {} is unreachable for historical data push", supplier.getDomainRemoteName());
-      }
-    }
+    return pushPayload;
   }
 
   /**
@@ -1,28 +1,27 @@
 package grafioschtrader.service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import grafioschtrader.entities.Currencypair;
 import grafioschtrader.entities.GTNetInstrument;
-import grafioschtrader.entities.GTNetInstrumentCurrencypair;
-import grafioschtrader.entities.GTNetInstrumentSecurity;
-import grafioschtrader.entities.GTNetLastprice;
 import grafioschtrader.entities.Security;
 import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
 import grafioschtrader.repository.GTNetInstrumentCurrencypairJpaRepository;
 import grafioschtrader.repository.GTNetInstrumentSecurityJpaRepository;
-import grafioschtrader.repository.GTNetLastpriceJpaRepository;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolKey;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolPrice;
 
 /**
  * Service for managing the GTNet lastprice push pool.
@@ -38,9 +37,11 @@ import grafioschtrader.repository.GTNetLastpriceJpaRepository;
  * All methods follow the same pattern:
  * <ol>
  *   <li>Find or create GTNetInstrument entry</li>
- *   <li>Find or create GTNetLastprice entry</li>
- *   <li>Update only if the new price has a newer timestamp</li>
+ *   <li>Update the price in {@link GTNetLastpricePoolStore} only if the new price has a newer timestamp</li>
  * </ol>
+ * The prices are merged in memory, the store writes them to the GTNetLastprice table in batches. Only a missing
+ * instrument is created immediately in the database. The instruments and prices are put into the store when the
+ * transaction is committed, so the store never holds the ID of an instrument which was rolled back.
  */
 @Service
 public class GTNetLastpricePoolService {
@@ -54,7 +55,7 @@ public class GTNetLastpricePoolService {
   private GTNetInstrumentCurrencypairJpaRepository gtNetInstrumentCurrencypairJpaRepository;
 
   @Autowired
-  private GTNetLastpriceJpaRepository gtNetLastpriceJpaRepository;
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
 
   // ==================== Security Methods ====================
 
@@ -70,49 +71,19 @@ public class GTNetLastpricePoolService {
       return 0;
     }
 
-    // Filter securities that have valid ISIN, currency, and timestamp
-    List<Security> validSecurities = securities.stream()
-        .filter(s -> s.getIsin() != null && !s.getIsin().isEmpty()
-            && s.getCurrency() != null && s.getSTimestamp() != null)
-        .collect(Collectors.toList());
-
-    if (validSecurities.isEmpty()) {
-      return 0;
-    }
-
-    // Get existing instrument entries from pool
-    List<String[]> pairs = validSecurities.stream()
-        .map(s -> new String[] { s.getIsin(), s.getCurrency() })
-        .collect(Collectors.toList());
-    Map<String, GTNetInstrumentSecurity> instrumentMap = buildSecurityInstrumentMap(pairs);
-
-    // Get existing lastprice entries
-    Map<Integer, GTNetLastprice> lastpriceMap = buildLastpriceMap(
-        instrumentMap.values().stream()
-            .map(GTNetInstrumentSecurity::getIdGtNetInstrument)
-            .collect(Collectors.toList()));
-
-    int updatedCount = 0;
-
-    for (Security security : validSecurities) {
-      String key = security.getIsin() + "|" + security.getCurrency();
-      GTNetInstrumentSecurity instrument = instrumentMap.get(key);
-
-      // Create instrument if it doesn't exist
-      if (instrument == null) {
-        instrument = gtNetInstrumentSecurityJpaRepository
-            .findOrCreateInstrument(security.getIsin(), security.getCurrency());
-        instrumentMap.put(key, instrument);
-        log.debug("Created new instrument pool entry for security ISIN={}", security.getIsin());
-      }
-
-      // Update lastprice if newer
-      if (updateLastpriceIfNewer(instrument, lastpriceMap, security.getSTimestamp(),
-          security.getSOpen(), security.getSHigh(), security.getSLow(),
-          security.getSLast(), security.getSVolume())) {
-        updatedCount++;
+    List<PoolUpdate> updates = new ArrayList<>();
+    for (Security security : securities) {
+      // Only securities with valid ISIN, currency, and timestamp
+      if (security.getIsin() != null && !security.getIsin().isEmpty() && security.getCurrency() != null
+          && security.getSTimestamp() != null) {
+        updates.add(new PoolUpdate(PoolKey.ofSecurity(security.getIsin(), security.getCurrency()),
+            () -> gtNetInstrumentSecurityJpaRepository.findOrCreateInstrument(security.getIsin(),
+                security.getCurrency()),
+            new PoolPrice(security.getSTimestamp(), security.getSOpen(), security.getSHigh(), security.getSLow(),
+                security.getSLast(), security.getSVolume())));
       }
     }
+    int updatedCount = mergeAfterCommit(updates);
 
     if (updatedCount > 0) {
       log.info("Updated {} security lastprice entries in push pool", updatedCount);
@@ -133,47 +104,16 @@ public class GTNetLastpricePoolService {
       return 0;
     }
 
-    // Filter DTOs that have valid ISIN, currency, and last price
-    List<InstrumentPriceDTO> validDTOs = dtos.stream()
-        .filter(dto -> dto.getIsin() != null && dto.getCurrency() != null && dto.getLast() != null)
-        .collect(Collectors.toList());
-
-    if (validDTOs.isEmpty()) {
-      return 0;
-    }
-
-    // Get existing instrument entries from pool
-    List<String[]> pairs = validDTOs.stream()
-        .map(dto -> new String[] { dto.getIsin(), dto.getCurrency() })
-        .collect(Collectors.toList());
-    Map<String, GTNetInstrumentSecurity> instrumentMap = buildSecurityInstrumentMap(pairs);
-
-    // Get existing lastprice entries
-    Map<Integer, GTNetLastprice> lastpriceMap = buildLastpriceMap(
-        instrumentMap.values().stream()
-            .map(GTNetInstrumentSecurity::getIdGtNetInstrument)
-            .collect(Collectors.toList()));
-
-    int updatedCount = 0;
-
-    for (InstrumentPriceDTO dto : validDTOs) {
-      String key = dto.getIsin() + "|" + dto.getCurrency();
-      GTNetInstrumentSecurity instrument = instrumentMap.get(key);
-
-      // Create instrument if it doesn't exist
-      if (instrument == null) {
-        instrument = gtNetInstrumentSecurityJpaRepository
-            .findOrCreateInstrument(dto.getIsin(), dto.getCurrency());
-        instrumentMap.put(key, instrument);
-        log.debug("Created new instrument pool entry for security ISIN={}", dto.getIsin());
-      }
-
-      // Update lastprice if newer
-      if (updateLastpriceIfNewer(instrument, lastpriceMap, dto.getTimestamp(),
-          dto.getOpen(), dto.getHigh(), dto.getLow(), dto.getLast(), dto.getVolume())) {
-        updatedCount++;
+    List<PoolUpdate> updates = new ArrayList<>();
+    for (InstrumentPriceDTO dto : dtos) {
+      // Only DTOs with valid ISIN, currency, and last price
+      if (dto.getIsin() != null && dto.getCurrency() != null && dto.getLast() != null) {
+        updates.add(new PoolUpdate(PoolKey.ofSecurity(dto.getIsin(), dto.getCurrency()),
+            () -> gtNetInstrumentSecurityJpaRepository.findOrCreateInstrument(dto.getIsin(), dto.getCurrency()),
+            PoolPrice.of(dto)));
       }
     }
+    int updatedCount = mergeAfterCommit(updates);
 
     if (updatedCount > 0) {
       log.info("Updated {} security lastprice entries in push pool from DTOs", updatedCount);
@@ -196,51 +136,21 @@ public class GTNetLastpricePoolService {
       return 0;
     }
 
-    // Filter currency pairs that have valid currencies and timestamp
-    List<Currencypair> validPairs = currencypairs.stream()
-        .filter(cp -> cp.getFromCurrency() != null && !cp.getFromCurrency().isEmpty()
-            && cp.getToCurrency() != null && !cp.getToCurrency().isEmpty()
-            && cp.getSTimestamp() != null)
-        .collect(Collectors.toList());
-
-    if (validPairs.isEmpty()) {
-      return 0;
-    }
-
-    // Get existing instrument entries from pool
-    List<String[]> pairs = validPairs.stream()
-        .map(cp -> new String[] { cp.getFromCurrency(), cp.getToCurrency() })
-        .collect(Collectors.toList());
-    Map<String, GTNetInstrumentCurrencypair> instrumentMap = buildCurrencypairInstrumentMap(pairs);
-
-    // Get existing lastprice entries
-    Map<Integer, GTNetLastprice> lastpriceMap = buildLastpriceMap(
-        instrumentMap.values().stream()
-            .map(GTNetInstrumentCurrencypair::getIdGtNetInstrument)
-            .collect(Collectors.toList()));
-
-    int updatedCount = 0;
-
-    for (Currencypair currencypair : validPairs) {
-      String key = currencypair.getFromCurrency() + "|" + currencypair.getToCurrency();
-      GTNetInstrumentCurrencypair instrument = instrumentMap.get(key);
-
-      // Create instrument if it doesn't exist
-      if (instrument == null) {
-        instrument = gtNetInstrumentCurrencypairJpaRepository
-            .findOrCreateInstrument(currencypair.getFromCurrency(), currencypair.getToCurrency());
-        instrumentMap.put(key, instrument);
-        log.debug("Created new instrument pool entry for currencypair {}/{}",
-            currencypair.getFromCurrency(), currencypair.getToCurrency());
-      }
-
-      // Update lastprice if newer (currencypairs don't have volume)
-      if (updateLastpriceIfNewer(instrument, lastpriceMap, currencypair.getSTimestamp(),
-          currencypair.getSOpen(), currencypair.getSHigh(), currencypair.getSLow(),
-          currencypair.getSLast(), null)) {
-        updatedCount++;
+    List<PoolUpdate> updates = new ArrayList<>();
+    for (Currencypair currencypair : currencypairs) {
+      // Only currency pairs with valid currencies and timestamp
+      if (currencypair.getFromCurrency() != null && !currencypair.getFromCurrency().isEmpty()
+          && currencypair.getToCurrency() != null && !currencypair.getToCurrency().isEmpty()
+          && currencypair.getSTimestamp() != null) {
+        // Currencypairs don't have volume
+        updates.add(new PoolUpdate(PoolKey.ofCurrencypair(currencypair.getFromCurrency(), currencypair.getToCurrency()),
+            () -> gtNetInstrumentCurrencypairJpaRepository.findOrCreateInstrument(currencypair.getFromCurrency(),
+                currencypair.getToCurrency()),
+            new PoolPrice(currencypair.getSTimestamp(), currencypair.getSOpen(), currencypair.getSHigh(),
+                currencypair.getSLow(), currencypair.getSLast(), null)));
       }
     }
+    int updatedCount = mergeAfterCommit(updates);
 
     if (updatedCount > 0) {
       log.info("Updated {} currencypair lastprice entries in push pool", updatedCount);
@@ -261,48 +171,17 @@ public class GTNetLastpricePoolService {
       return 0;
     }
 
-    // Filter DTOs that have valid currencies and last price
-    List<InstrumentPriceDTO> validDTOs = dtos.stream()
-        .filter(dto -> dto.getCurrency() != null && dto.getToCurrency() != null && dto.getLast() != null)
-        .collect(Collectors.toList());
-
-    if (validDTOs.isEmpty()) {
-      return 0;
-    }
-
-    // Get existing instrument entries from pool
-    List<String[]> pairs = validDTOs.stream()
-        .map(dto -> new String[] { dto.getCurrency(), dto.getToCurrency() })
-        .collect(Collectors.toList());
-    Map<String, GTNetInstrumentCurrencypair> instrumentMap = buildCurrencypairInstrumentMap(pairs);
-
-    // Get existing lastprice entries
-    Map<Integer, GTNetLastprice> lastpriceMap = buildLastpriceMap(
-        instrumentMap.values().stream()
-            .map(GTNetInstrumentCurrencypair::getIdGtNetInstrument)
-            .collect(Collectors.toList()));
-
-    int updatedCount = 0;
-
-    for (InstrumentPriceDTO dto : validDTOs) {
-      String key = dto.getCurrency() + "|" + dto.getToCurrency();
-      GTNetInstrumentCurrencypair instrument = instrumentMap.get(key);
-
-      // Create instrument if it doesn't exist
-      if (instrument == null) {
-        instrument = gtNetInstrumentCurrencypairJpaRepository
-            .findOrCreateInstrument(dto.getCurrency(), dto.getToCurrency());
-        instrumentMap.put(key, instrument);
-        log.debug("Created new instrument pool entry for currencypair {}/{}",
-            dto.getCurrency(), dto.getToCurrency());
-      }
-
-      // Update lastprice if newer
-      if (updateLastpriceIfNewer(instrument, lastpriceMap, dto.getTimestamp(),
-          dto.getOpen(), dto.getHigh(), dto.getLow(), dto.getLast(), dto.getVolume())) {
-        updatedCount++;
+    List<PoolUpdate> updates = new ArrayList<>();
+    for (InstrumentPriceDTO dto : dtos) {
+      // Only DTOs with valid currencies and last price
+      if (dto.getCurrency() != null && dto.getToCurrency() != null && dto.getLast() != null) {
+        updates.add(new PoolUpdate(PoolKey.ofCurrencypair(dto.getCurrency(), dto.getToCurrency()),
+            () -> gtNetInstrumentCurrencypairJpaRepository.findOrCreateInstrument(dto.getCurrency(),
+                dto.getToCurrency()),
+            PoolPrice.of(dto)));
       }
     }
+    int updatedCount = mergeAfterCommit(updates);
 
     if (updatedCount > 0) {
       log.info("Updated {} currencypair lastprice entries in push pool from DTOs", updatedCount);
@@ -314,94 +193,56 @@ public class GTNetLastpricePoolService {
   // ==================== Helper Methods ====================
 
   /**
-   * Builds a map of existing security instruments by key "ISIN|CURRENCY".
-   */
-  private Map<String, GTNetInstrumentSecurity> buildSecurityInstrumentMap(List<String[]> pairs) {
-    List<GTNetInstrumentSecurity> existing = gtNetInstrumentSecurityJpaRepository.findByIsinCurrencyTuples(pairs);
-    return existing.stream()
-        .collect(Collectors.toMap(
-            e -> e.getIsin() + "|" + e.getCurrency(),
-            Function.identity()));
-  }
-
-  /**
-   * Builds a map of existing currencypair instruments by key "FROM|TO".
-   */
-  private Map<String, GTNetInstrumentCurrencypair> buildCurrencypairInstrumentMap(List<String[]> pairs) {
-    List<GTNetInstrumentCurrencypair> existing = gtNetInstrumentCurrencypairJpaRepository.findByCurrencyTuples(pairs);
-    return existing.stream()
-        .collect(Collectors.toMap(
-            e -> e.getFromCurrency() + "|" + e.getToCurrency(),
-            Function.identity()));
-  }
-
-  /**
-   * Builds a map of existing lastprice entries by instrument ID.
+   * Merges the price of a single instrument into the push pool, a missing instrument is created in the database.
+   *
+   * @param key          the instrument
+   * @param findOrCreate finds or creates the instrument entity
+   * @param price        the new price
+   * @return true if the price is newer than the price in the pool
    */
-  private Map<Integer, GTNetLastprice> buildLastpriceMap(List<Integer> instrumentIds) {
-    if (instrumentIds == null || instrumentIds.isEmpty()) {
-      return new HashMap<>();
-    }
-    return gtNetLastpriceJpaRepository.findByGtNetInstrumentIdGtNetInstrumentIn(instrumentIds).stream()
-        .collect(Collectors.toMap(
-            lp -> lp.getGtNetInstrument().getIdGtNetInstrument(),
-            Function.identity()));
+  public boolean mergeIfNewer(PoolKey key, Supplier<? extends GTNetInstrument> findOrCreate, PoolPrice price) {
+    return mergeAfterCommit(List.of(new PoolUpdate(key, findOrCreate, price))) > 0;
   }
 
   /**
-   * Updates or creates a lastprice entry if the new timestamp is newer.
+   * Creates the instruments which the push pool does not know yet in the database. The instruments and prices are put
+   * into the store after the current transaction is committed, without an active transaction immediately.
    *
-   * @param instrument the GTNet instrument (security or currencypair)
-   * @param lastpriceMap map of existing lastprice entries (will be updated with new entries)
-   * @param timestamp the new timestamp
-   * @param open the new open price
-   * @param high the new high price
-   * @param low the new low price
-   * @param last the new last price
-   * @param volume the new volume (may be null for currencypairs)
-   * @return true if the entry was created or updated
+   * @return number of prices which are newer than the price in the pool
    */
-  private boolean updateLastpriceIfNewer(GTNetInstrument instrument, Map<Integer, GTNetLastprice> lastpriceMap,
-      LocalDateTime timestamp, Double open, Double high, Double low, Double last, Long volume) {
-
-    Integer instrumentId = instrument.getIdGtNetInstrument();
-    GTNetLastprice existing = lastpriceMap.get(instrumentId);
-
-    if (existing == null) {
-      // Create new lastprice entry
-      GTNetLastprice newLastprice = new GTNetLastprice();
-      newLastprice.setGtNetInstrument(instrument);
-      updateLastpriceFields(newLastprice, timestamp, open, high, low, last, volume);
-      gtNetLastpriceJpaRepository.save(newLastprice);
-      lastpriceMap.put(instrumentId, newLastprice);
-      return true;
-    } else if (isNewer(timestamp, existing.getTimestamp())) {
-      // Update existing entry with newer price
-      updateLastpriceFields(existing, timestamp, open, high, low, last, volume);
-      gtNetLastpriceJpaRepository.save(existing);
-      return true;
+  private int mergeAfterCommit(List<PoolUpdate> updates) {
+    Map<PoolKey, Integer> createdInstruments = new HashMap<>();
+    int newerCount = 0;
+    for (PoolUpdate update : updates) {
+      if (gtNetLastpricePoolStore.getIdGtNetInstrument(update.key()) == null
+          && !createdInstruments.containsKey(update.key())) {
+        createdInstruments.put(update.key(), update.findOrCreate().get().getIdGtNetInstrument());
+        log.debug("Created new instrument pool entry for {}", update.key());
+      }
+      PoolPrice existing = gtNetLastpricePoolStore.getPrice(update.key());
+      if (existing == null || GTNetLastpricePoolStore.isNewer(update.price().timestamp(), existing.timestamp())) {
+        newerCount++;
+      }
     }
-
-    return false;
-  }
-
-  private void updateLastpriceFields(GTNetLastprice lastprice, LocalDateTime timestamp,
-      Double open, Double high, Double low, Double last, Long volume) {
-    lastprice.setTimestamp(timestamp);
-    lastprice.setOpen(open);
-    lastprice.setHigh(high);
-    lastprice.setLow(low);
-    lastprice.setLast(last);
-    lastprice.setVolume(volume);
+    if (!updates.isEmpty()) {
+      Runnable merge = () -> {
+        createdInstruments.forEach(gtNetLastpricePoolStore::putInstrument);
+        updates.forEach(update -> gtNetLastpricePoolStore.mergeIfNewer(update.key(), update.price()));
+      };
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            merge.run();
+          }
+        });
+      } else {
+        merge.run();
+      }
+    }
+    return newerCount;
   }
 
-  private boolean isNewer(LocalDateTime newTimestamp, LocalDateTime existingTimestamp) {
-    if (newTimestamp == null) {
-      return false;
-    }
-    if (existingTimestamp == null) {
-      return true;
-    }
-    return newTimestamp.isAfter(existingTimestamp);
+  private record PoolUpdate(PoolKey key, Supplier<? extends GTNetInstrument> findOrCreate, PoolPrice price) {
   }
 }
@@ -0,0 +1,332 @@
+package grafioschtrader.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory copy of the GTNet lastprice push pool (GTNetInstrument* and GTNetLastprice tables).
+ * <p>
+ * Every lastprice exchange of an AC_PUSH_OPEN server reads or merges prices of the pool. Instead of looking up the
+ * instruments and their prices with tuple queries for each exchange, the instrument IDs and the prices are held in
+ * concurrent maps keyed by {@link PoolKey}. A price is replaced only by a price with a newer timestamp. Changed prices
+ * are marked and written to the gt_net_lastprice table with JDBC batch upserts by {@link #flush()}, which runs
+ * periodically and at shutdown. The maps are loaded when the application is ready or at the first access.
+ * </p>
+ * <p>
+ * Instruments are not created here, the caller creates a missing instrument in the database and registers its ID with
+ * {@link #putInstrument(PoolKey, Integer)} after the transaction was committed, so that the price can reference it.
+ * </p>
+ */
+@Component
+public class GTNetLastpricePoolStore {
+
+  private static final Logger log = LoggerFactory.getLogger(GTNetLastpricePoolStore.class);
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String SELECT_POOL = """
+      SELECT i.id_gt_net_instrument, s.isin, s.currency, c.from_currency, c.to_currency, l.timestamp, l.open, l.high,
+      l.low, l.last, l.volume FROM gt_net_instrument i
+      LEFT JOIN gt_net_instrument_security s ON i.id_gt_net_instrument = s.id_gt_net_instrument
+      LEFT JOIN gt_net_instrument_currencypair c ON i.id_gt_net_instrument = c.id_gt_net_instrument
+      LEFT JOIN gt_net_lastprice l ON i.id_gt_net_instrument = l.id_gt_net_instrument""";
+
+  private static final String UPSERT_LASTPRICE = """
+      INSERT INTO gt_net_lastprice (id_gt_net_instrument, timestamp, open, high, low, last, volume)
+      VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE timestamp=VALUES(timestamp), open=VALUES(open),
+      high=VALUES(high), low=VALUES(low), last=VALUES(last), volume=VALUES(volume)""";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /** ID of each instrument of the pool, also of those without a price. */
+  private final Map<PoolKey, Integer> instrumentIdMap = new ConcurrentHashMap<>();
+
+  /** Current price of each instrument with a price. */
+  private final Map<PoolKey, PoolPrice> priceMap = new ConcurrentHashMap<>();
+
+  /** Instruments whose price was changed since the last flush. */
+  private final Set<PoolKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+  private volatile boolean loaded;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmLoad() {
+    ensureLoaded();
+  }
+
+  /**
+   * Returns the ID of the pool instrument.
+   *
+   * @param key the instrument
+   * @return the ID, or null if the instrument is not in the pool
+   */
+  public Integer getIdGtNetInstrument(PoolKey key) {
+    ensureLoaded();
+    return instrumentIdMap.get(key);
+  }
+
+  /**
+   * Registers an instrument which was created in the database.
+   *
+   * @param key               the instrument
+   * @param idGtNetInstrument ID of the gt_net_instrument row
+   */
+  public void putInstrument(PoolKey key, Integer idGtNetInstrument) {
+    ensureLoaded();
+    instrumentIdMap.put(key, idGtNetInstrument);
+  }
+
+  /**
+   * Returns the current price of a pool instrument.
+   *
+   * @param key the instrument
+   * @return the price, or null if the instrument is not in the pool or has no price
+   */
+  public PoolPrice getPrice(PoolKey key) {
+    ensureLoaded();
+    return priceMap.get(key);
+  }
+
+  /**
+   * Sets the price of a registered instrument if it has no price yet or the given price is newer. An accepted price is
+   * written to the database with the next flush.
+   *
+   * @param key   the instrument, it must be registered
+   * @param price the new price
+   * @return true if the price was accepted
+   */
+  public boolean mergeIfNewer(PoolKey key, PoolPrice price) {
+    ensureLoaded();
+    if (!instrumentIdMap.containsKey(key)) {
+      throw new IllegalStateException("Instrument is not in the push pool: " + key);
+    }
+    boolean[] accepted = new boolean[1];
+    priceMap.compute(key, (_, existing) -> {
+      accepted[0] = existing == null || isNewer(price.timestamp(), existing.timestamp());
+      return accepted[0] ? price : existing;
+    });
+    if (accepted[0]) {
+      dirtyKeys.add(key);
+    }
+    return accepted[0];
+  }
+
+  /**
+   * Writes the changed prices to the gt_net_lastprice table. When the batch fails, the prices are written one by one.
+   * A price whose instrument no longer exists is discarded together with the instrument, the other prices which can not
+   * be written are kept for the next flush.
+   */
+  @Scheduled(fixedDelayString = "${gt.gtnet.lastprice.pool.flush.ms:5000}")
+  @PreDestroy
+  public synchronized void flush() {
+    if (dirtyKeys.isEmpty()) {
+      return;
+    }
+    List<PoolKey> keys = new ArrayList<>(dirtyKeys);
+    // Remove before reading the price, a concurrent merge marks the instrument again
+    dirtyKeys.removeAll(keys);
+    List<LastpriceRow> rows = new ArrayList<>(keys.size());
+    for (PoolKey key : keys) {
+      PoolPrice price = priceMap.get(key);
+      Integer idGtNetInstrument = instrumentIdMap.get(key);
+      if (price != null && idGtNetInstrument != null) {
+        rows.add(new LastpriceRow(key, idGtNetInstrument, price));
+      }
+    }
+    try {
+      jdbcTemplate.batchUpdate(UPSERT_LASTPRICE, rows, BATCH_SIZE, GTNetLastpricePoolStore::setParameters);
+      log.debug("Flushed {} push pool lastprice entries", rows.size());
+    } catch (RuntimeException e) {
+      log.warn("Flushing {} push pool lastprice entries as batch failed, they are written one by one", rows.size(), e);
+      flushSingly(rows);
+    }
+  }
+
+  private void flushSingly(List<LastpriceRow> rows) {
+    for (int i = 0; i < rows.size(); i++) {
+      LastpriceRow row = rows.get(i);
+      try {
+        jdbcTemplate.update(UPSERT_LASTPRICE, ps -> setParameters(ps, row));
+      } catch (DataIntegrityViolationException e) {
+        instrumentIdMap.remove(row.key(), row.idGtNetInstrument());
+        priceMap.remove(row.key());
+        log.error("Push pool lastprice of {} can not be written, it is removed from the pool", row.key(), e);
+      } catch (RuntimeException e) {
+        // Not caused by the row, the database is probably not available
+        rows.subList(i, rows.size()).forEach(r -> dirtyKeys.add(r.key()));
+        log.error("Flushing {} push pool lastprice entries failed, they are kept for the next flush", rows.size() - i,
+            e);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Discards the in-memory pool, it is loaded again at the next access. Used after the pool tables were replaced in
+   * the database.
+   */
+  public synchronized void reload() {
+    dirtyKeys.clear();
+    priceMap.clear();
+    instrumentIdMap.clear();
+    loaded = false;
+  }
+
+  private void ensureLoaded() {
+    if (!loaded) {
+      load();
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded) {
+      return;
+    }
+    jdbcTemplate.query(SELECT_POOL, (RowCallbackHandler) rs -> {
+      PoolKey key = rs.getString("isin") != null
+          ? PoolKey.ofSecurity(rs.getString("isin"), rs.getString("currency"))
+          : rs.getString("from_currency") != null
+              ? PoolKey.ofCurrencypair(rs.getString("from_currency"), rs.getString("to_currency"))
+              : null;
+      if (key != null) {
+        instrumentIdMap.put(key, rs.getInt("id_gt_net_instrument"));
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        Double last = getDouble(rs, "last");
+        if (timestamp != null || last != null) {
+          priceMap.put(key, new PoolPrice(timestamp == null ? null : timestamp.toLocalDateTime(),
+              getDouble(rs, "open"), getDouble(rs, "high"), getDouble(rs, "low"), last, getLong(rs, "volume")));
+        }
+      }
+    });
+    loaded = true;
+    log.info("Loaded push pool with {} instruments and {} lastprices", instrumentIdMap.size(), priceMap.size());
+  }
+
+  static boolean isNewer(LocalDateTime newTimestamp, LocalDateTime existingTimestamp) {
+    if (newTimestamp == null) {
+      return false;
+    }
+    if (existingTimestamp == null) {
+      return true;
+    }
+    return newTimestamp.isAfter(existingTimestamp);
+  }
+
+  private static Double getDouble(ResultSet rs, String column) throws SQLException {
+    double value = rs.getDouble(column);
+    return rs.wasNull() ? null : value;
+  }
+
+  private static Long getLong(ResultSet rs, String column) throws SQLException {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? null : value;
+  }
+
+  private static void setParameters(PreparedStatement ps, LastpriceRow row) throws SQLException {
+    PoolPrice price = row.price();
+    ps.setInt(1, row.idGtNetInstrument());
+    setTimestamp(ps, 2, price.timestamp());
+    setDouble(ps, 3, price.open());
+    setDouble(ps, 4, price.high());
+    setDouble(ps, 5, price.low());
+    setDouble(ps, 6, price.last());
+    if (price.volume() == null) {
+      ps.setNull(7, Types.BIGINT);
+    } else {
+      ps.setLong(7, price.volume());
+    }
+  }
+
+  private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime timestamp) throws SQLException {
+    if (timestamp == null) {
+      ps.setNull(index, Types.TIMESTAMP);
+    } else {
+      ps.setTimestamp(index, Timestamp.valueOf(timestamp));
+    }
+  }
+
+  private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.DOUBLE);
+    } else {
+      ps.setDouble(index, value);
+    }
+  }
+
+  /**
+   * Identification of a pool instrument: ISIN and currency of a security, or from and to currency of a currency
+   * pair. The codes are upper case, like they are compared by the database collation.
+   */
+  public record PoolKey(boolean currencypair, String first, String second) {
+
+    public static PoolKey ofSecurity(String isin, String currency) {
+      return new PoolKey(false, isin.toUpperCase(Locale.ROOT), currency.toUpperCase(Locale.ROOT));
+    }
+
+    public static PoolKey ofCurrencypair(String fromCurrency, String toCurrency) {
+      return new PoolKey(true, fromCurrency.toUpperCase(Locale.ROOT), toCurrency.toUpperCase(Locale.ROOT));
+    }
+  }
+
+  /**
+   * Price of a pool instrument. It is replaced as a whole by a newer price.
+   */
+  public record PoolPrice(LocalDateTime timestamp, Double open, Double high, Double low, Double last, Long volume) {
+
+    public static PoolPrice of(InstrumentPriceDTO dto) {
+      return new PoolPrice(dto.getTimestamp(), dto.getOpen(), dto.getHigh(), dto.getLow(), dto.getLast(),
+          dto.getVolume());
+    }
+
+    /**
+     * Creates the exchange DTO of this price.
+     *
+     * @param key the instrument of the price
+     */
+    public InstrumentPriceDTO toInstrumentPriceDTO(PoolKey key) {
+      InstrumentPriceDTO dto = new InstrumentPriceDTO();
+      if (key.currencypair()) {
+        dto.setCurrency(key.first());
+        dto.setToCurrency(key.second());
+      } else {
+        dto.setIsin(key.first());
+        dto.setCurrency(key.second());
+      }
+      dto.setTimestamp(timestamp);
+      dto.setOpen(open);
+      dto.setHigh(high);
+      dto.setLow(low);
+      dto.setLast(last);
+      dto.setVolume(volume);
+      return dto;
+    }
+  }
+
+  private record LastpriceRow(PoolKey key, int idGtNetInstrument, PoolPrice price) {
+  }
+}
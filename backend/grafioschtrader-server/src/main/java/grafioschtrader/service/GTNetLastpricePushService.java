@@ -1,6 +1,7 @@
 package grafioschtrader.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -16,6 +17,7 @@ import grafiosch.gtnet.m2m.model.GTNetPublicDTO;
 import grafiosch.gtnet.m2m.model.MessageEnvelope;
 import grafiosch.m2m.GTNetMessageHelper;
 import grafiosch.m2m.client.BaseDataClient;
+import grafiosch.m2m.client.BaseDataClient.PeerRequest;
 import grafiosch.m2m.client.BaseDataClient.SendResult;
 import grafiosch.repository.GTNetJpaRepository;
 import grafiosch.repository.GlobalparametersJpaRepository;
@@ -34,7 +36,7 @@ import tools.jackson.databind.ObjectMapper;
  * server originally sent, allowing those servers to update their push pools with fresher data.
  *
  * The push is fire-and-forget: the frontend receives the price update response immediately
- * without waiting for push operations to complete.
+ * without waiting for push operations to complete. The servers are contacted concurrently.
  */
 @Component
 public class GTNetLastpricePushService {
@@ -83,19 +85,21 @@ public class GTNetLastpricePushService {
     GTNet myGTNet = gtNetJpaRepository.findById(myGTNetId)
         .orElseThrow(() -> new IllegalStateException("Local GTNet entry not found: " + myGTNetId));
 
-    int totalPushed = 0;
-    int serversContacted = 0;
-
+    // Build all messages first, then send them at once so that a slow server does not delay the others
+    List<GTNet> targetServers = new ArrayList<>();
+    List<LastpriceExchangeMsg> targetPrices = new ArrayList<>();
+    List<PeerRequest> peerRequests = new ArrayList<>();
     for (GTNet server : serversToUpdate) {
       try {
         LastpriceExchangeMsg pricesToPush = pushContext.getPricesToPushForServer(
             server, allSecurities, allCurrencypairs);
 
         if (!pricesToPush.isEmpty()) {
-          boolean success = pushToServer(myGTNet, server, pricesToPush);
-          if (success) {
-            totalPushed += pricesToPush.getTotalCount();
-            serversContacted++;
+          PeerRequest peerRequest = createPushRequest(myGTNet, server, pricesToPush);
+          if (peerRequest != null) {
+            targetServers.add(server);
+            targetPrices.add(pricesToPush);
+            peerRequests.add(peerRequest);
           }
         } else {
           log.debug("No newer prices to push to server {}", server.getDomainRemoteName());
@@ -105,22 +109,38 @@ public class GTNetLastpricePushService {
       }
     }
 
+    List<SendResult> results = baseDataClient.sendToMsgsWithStatus(peerRequests);
+
+    int totalPushed = 0;
+    int serversContacted = 0;
+    for (int i = 0; i < results.size(); i++) {
+      try {
+        if (processPushResult(targetServers.get(i), targetPrices.get(i), results.get(i))) {
+          totalPushed += targetPrices.get(i).getTotalCount();
+          serversContacted++;
+        }
+      } catch (Exception e) {
+        log.warn("Failed to push prices to server {}: {}", targetServers.get(i).getDomainRemoteName(),
+            e.getMessage());
+      }
+    }
+
     log.info("Async push completed: {} prices pushed to {} server(s)", totalPushed, serversContacted);
   }
 
   /**
-   * Pushes price updates to a single PUSH_OPEN server.
+   * Creates the push message for a single PUSH_OPEN server.
    *
    * @param myGTNet the local GTNet entry (source of the push)
    * @param server the target PUSH_OPEN server
    * @param pricesToPush the prices to push
-   * @return true if push was successful
+   * @return the request or null if the server is not authorized
    */
-  private boolean pushToServer(GTNet myGTNet, GTNet server, LastpriceExchangeMsg pricesToPush) {
+  private PeerRequest createPushRequest(GTNet myGTNet, GTNet server, LastpriceExchangeMsg pricesToPush) {
     GTNetConfig config = server.getGtNetConfig();
     if (config == null || !config.isAuthorizedRemoteEntry()) {
       log.debug("Skipping unauthorized server for push: {}", server.getDomainRemoteName());
-      return false;
+      return null;
     }
 
     // Build push message envelope
@@ -137,13 +157,19 @@ public class GTNetLastpricePushService {
         pricesToPush.currencypairs != null ? pricesToPush.currencypairs.size() : 0,
         server.getDomainRemoteName());
 
-    // Send push message
-    SendResult result = baseDataClient.sendToMsgWithStatus(
-        config.getTokenRemote(),
-        server.getDomainRemoteName(),
-        pushEnvelope,
+    return new PeerRequest(config.getTokenRemote(), server.getDomainRemoteName(), pushEnvelope,
         GTNetTimeoutHelper.resolveTimeout(server, globalparametersJpaRepository));
+  }
 
+  /**
+   * Evaluates the answer of a single PUSH_OPEN server and logs the exchange statistics.
+   *
+   * @param server the target PUSH_OPEN server
+   * @param pricesToPush the pushed prices
+   * @param result the result of the push message
+   * @return true if push was successful
+   */
+  private boolean processPushResult(GTNet server, LastpriceExchangeMsg pricesToPush, SendResult result) {
     if (result.isFailed()) {
       if (result.httpError()) {
         log.warn("Push to {} returned HTTP error {}", server.getDomainRemoteName(), result.httpStatusCode());
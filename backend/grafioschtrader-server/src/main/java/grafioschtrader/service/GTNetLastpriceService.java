@@ -1,5 +1,6 @@
 package grafioschtrader.service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -8,11 +9,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import grafiosch.entities.GTNet;
@@ -54,12 +59,18 @@ import tools.jackson.databind.ObjectMapper;
  * <ol>
  *   <li>Filter instruments by GTNetExchange.lastpriceRecv configuration</li>
  *   <li>Query push-open servers first (by priority with random selection for same priority)</li>
- *   <li>Query open servers for remaining unfilled instruments</li>
+ *   <li>Query open servers for remaining unfilled instruments, ordered by coverage, success rate and latency</li>
  *   <li>Fall back to connectors (IFeedConnector) for any still-unfilled instruments</li>
  *   <li>If own mode is push-open: push connector-fetched prices back to remote servers</li>
  *   <li>If own mode is AC_OPEN: async push updated prices to previously contacted PUSH_OPEN servers</li>
  * </ol>
  *
+ * The suppliers of steps 2 and 3 are queried in their order. With {@code gt.gtnet.lastprice.hedge.delay.ms} the
+ * unfilled instruments are also sent to the next supplier when the running request did not answer within the delay.
+ * A request is given up after {@code gt.gtnet.lastprice.request.timeout.ms}. The response of a request which is still
+ * running when the exchange is finished is not used, but it is logged with its response time, so that the latency of
+ * a slow supplier is not only measured by the requests it won.
+ *
  * @see InstrumentExchangeSet for tracking which instruments have been filled
  */
 @Service
@@ -112,6 +123,14 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
   @Autowired
   private ObjectMapper objectMapper;
 
+  /** Delay after which the next supplier is queried in parallel to a slow supplier, 0 queries them sequentially. */
+  @Value("${gt.gtnet.lastprice.hedge.delay.ms:1500}")
+  private long hedgeDelayMillis;
+
+  /** Maximum time of a lastprice request to a supplier, it is then handled as unreachable. */
+  @Value("${gt.gtnet.lastprice.request.timeout.ms:30000}")
+  private long requestTimeoutMillis;
+
   /**
    * Main entry point for intraday price update with GTNet integration.
    * Called from WatchlistReport.executeLastPriceUpdate().
@@ -196,11 +215,14 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
     }
     log.debug("Step 2b - Load supplier details: {} ms", (System.nanoTime() - stepStart) / 1_000_000);
 
-    // 2c. Load success rates for AC_OPEN supplier scoring (past 30 days)
+    // 2c. Load success rates (past 30 days) and response time percentiles for AC_OPEN supplier scoring. The response
+    //     times only exist in the individual logs which are not yet aggregated, by default those of the last day.
     LocalDate fromDate = LocalDate.now().minusDays(30);
     List<Object[]> successRateData = gtNetExchangeLogJpaRepository
         .getSupplierSuccessRates(GTNetExchangeKindType.LAST_PRICE.getValue(), fromDate);
-    SupplierScoreCalculator scoreCalculator = new SupplierScoreCalculator(successRateData);
+    List<Object[]> latencyData = gtNetExchangeLogJpaRepository
+        .getSupplierLatencyPercentiles(GTNetExchangeKindType.LAST_PRICE.getValue());
+    SupplierScoreCalculator scoreCalculator = new SupplierScoreCalculator(successRateData, latencyData);
     Set<Integer> requestedInstrumentIds = new HashSet<>(allInstrumentIds);
 
     // 3. If local server is AC_PUSH_OPEN, query own push pool first (before contacting remote servers)
@@ -214,16 +236,18 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
     // PUSH_OPEN uses priority+random algorithm (unchanged)
     // Also track server responses for potential push-back in Step 10 (AC_OPEN mode only)
     PushOpenServerContext pushContext = new PushOpenServerContext();
+    int openRankOffset = 0;
     if (needsFilling(gtNetInstruments)) {
       stepStart = System.nanoTime();
       List<GTNet> pushOpenSuppliers = getSuppliersByPriorityWithRandomization(
           excludeOwnEntry(gtNetJpaRepository.findPushOpenSuppliers()), GTNetExchangeKindType.LAST_PRICE);
       queryRemoteServersWithTracking(pushOpenSuppliers, gtNetInstruments, pushContext);
+      openRankOffset = pushOpenSuppliers.size();
       log.debug("Step 4 - Query push-open servers: {} ms", (System.nanoTime() - stepStart) / 1_000_000);
     }
 
     // 5. Query open servers for remaining (excluding own entry to prevent self-communication)
-    // AC_OPEN uses score-based selection: coverage x success_rate, then priority, then random
+    // AC_OPEN uses score-based selection: coverage x success_rate x latency, then priority, then random
     if (needsFilling(gtNetInstruments)) {
       stepStart = System.nanoTime();
       List<GTNet> openSuppliers = getSuppliersByScoreWithRandomization(
@@ -232,7 +256,7 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
           scoreCalculator,
           filter,
           requestedInstrumentIds);
-      queryRemoteServersFiltered(openSuppliers, gtNetInstruments, filter);
+      queryRemoteServersFiltered(openSuppliers, gtNetInstruments, filter, openRankOffset);
       log.debug("Step 5 - Query open servers: {} ms", (System.nanoTime() - stepStart) / 1_000_000);
     }
 
@@ -353,53 +377,122 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
    */
   private void queryRemoteServersWithTracking(List<GTNet> suppliers, InstrumentExchangeSet instruments,
       PushOpenServerContext pushContext) {
-    for (GTNet supplier : suppliers) {
-      if (instruments.allFilled()) {
-        break;
-      }
-
-      try {
-        queryRemoteServerWithTracking(supplier, instruments, null, pushContext);
-      } catch (Exception e) {
-        log.warn("Failed to query GTNet server {}: {}", supplier.getDomainRemoteName(), e.getMessage(), e);
-      }
-    }
+    queryRemoteServersHedged(suppliers, instruments, null, pushContext, 0);
   }
 
   /**
    * Queries remote servers with instrument filtering (for AC_OPEN suppliers).
    * Only sends instruments that the supplier is known to support based on GTNetSupplierDetail.
    * No tracking is performed for AC_OPEN suppliers (they don't receive push-backs).
+   *
+   * @param rankOffset rank of the first supplier, it follows the ranks of the PUSH_OPEN suppliers
    */
   private void queryRemoteServersFiltered(List<GTNet> suppliers, InstrumentExchangeSet instruments,
-      SupplierInstrumentFilter filter) {
-    for (GTNet supplier : suppliers) {
-      if (instruments.allFilled()) {
-        break;
+      SupplierInstrumentFilter filter, int rankOffset) {
+    queryRemoteServersHedged(suppliers, instruments, filter, null, rankOffset);
+  }
+
+  /**
+   * Queries the suppliers in their order until all instruments are filled. The requests are sent without blocking,
+   * their responses are processed one by one in the calling thread, which owns the instrument set.
+   *
+   * With a hedge delay, the still unfilled instruments are also requested from the next supplier when no response
+   * arrived within the delay, so a slow supplier does not hold up the exchange. If two suppliers deliver an instrument
+   * with the same timestamp, the supplier earlier in the order wins, independent of which one answered first. Requests
+   * still running when all instruments are filled are abandoned, their responses are only logged. Without a hedge delay
+   * the suppliers are queried one after the other.
+   *
+   * @param suppliers the suppliers in the order of preference
+   * @param instruments the instrument exchange set
+   * @param filter optional filter for AC_OPEN suppliers (null for AC_PUSH_OPEN)
+   * @param pushContext optional context to track server responses for later push-back (null to skip)
+   * @param rankOffset rank of the first supplier
+   */
+  private void queryRemoteServersHedged(List<GTNet> suppliers, InstrumentExchangeSet instruments,
+      SupplierInstrumentFilter filter, PushOpenServerContext pushContext, int rankOffset) {
+    SupplierResponses responses = new SupplierResponses();
+    int next = 0;
+    int running = 0;
+    try {
+      while (!instruments.allFilled()) {
+        SupplierResponse response = null;
+        if (running > 0) {
+          response = hedgeDelayMillis > 0 && next < suppliers.size()
+              ? responses.poll(hedgeDelayMillis)
+              : responses.take();
+        }
+        if (response != null) {
+          running--;
+          applySupplierResponse(response, instruments, pushContext);
+          continue;
+        }
+        // Nothing is running, or no response arrived within the hedge delay
+        boolean started = false;
+        while (!started && next < suppliers.size()) {
+          started = startSupplierRequest(suppliers.get(next), rankOffset + next, instruments, filter, responses);
+          next++;
+        }
+        if (started) {
+          running++;
+        } else if (running == 0) {
+          break;
+        }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Query of GTNet lastprice suppliers was interrupted");
+    }
+    if (running > 0) {
+      log.debug("Abandoned {} running GTNet lastprice requests", running);
+    }
+    responses.abandon();
+  }
 
-      try {
-        queryRemoteServerWithTracking(supplier, instruments, filter, null);
-      } catch (Exception e) {
-        log.warn("Failed to query GTNet server {}: {}", supplier.getDomainRemoteName(), e.getMessage(), e);
+  /**
+   * Sends the request for the unfilled instruments to a supplier. The response is added to the queue when it arrives,
+   * also when the delivery failed or timed out.
+   *
+   * @return true if a request was sent
+   */
+  private boolean startSupplierRequest(GTNet supplier, int rank, InstrumentExchangeSet instruments,
+      SupplierInstrumentFilter filter, SupplierResponses responses) {
+    try {
+      SupplierRequest request = prepareSupplierRequest(supplier, rank, instruments, filter);
+      if (request == null) {
+        return false;
       }
+      log.debug("Sending lastprice request to {} with {} securities, {} pairs",
+          supplier.getDomainRemoteName(), request.securityDTOs().size(), request.currencypairDTOs().size());
+      long startNanos = System.nanoTime();
+      baseDataClient.sendToMsgWithStatusAsync(supplier.getGtNetConfig().getTokenRemote(),
+          supplier.getDomainRemoteName(), request.envelope(),
+          GTNetTimeoutHelper.resolveTimeout(supplier, globalparametersJpaRepository))
+          .timeout(Duration.ofMillis(requestTimeoutMillis))
+          .onErrorReturn(SendResult.unreachable())
+          .subscribe(result -> responses.deliver(
+              new SupplierResponse(request, result, (System.nanoTime() - startNanos) / 1_000_000)));
+      return true;
+    } catch (Exception e) {
+      log.warn("Failed to query GTNet server {}: {}", supplier.getDomainRemoteName(), e.getMessage(), e);
+      return false;
     }
   }
 
   /**
-   * Queries a single remote server for price data, optionally tracking the response.
+   * Builds the request with the unfilled instruments for a single remote server.
    *
    * @param supplier the GTNet supplier to query
+   * @param rank position of the supplier in the supplier order
    * @param instruments the instrument exchange set
    * @param filter optional filter for AC_OPEN suppliers (null for AC_PUSH_OPEN)
-   * @param pushContext optional context to track server responses for later push-back (null to skip)
+   * @return the request, or null if nothing is requested from this supplier
    */
-  private void queryRemoteServerWithTracking(GTNet supplier, InstrumentExchangeSet instruments,
-      SupplierInstrumentFilter filter, PushOpenServerContext pushContext) {
+  private SupplierRequest prepareSupplierRequest(GTNet supplier, int rank, InstrumentExchangeSet instruments,
+      SupplierInstrumentFilter filter) {
     GTNetConfig config = supplier.getGtNetConfig();
     if (config == null || !config.isAuthorizedRemoteEntry()) {
       log.debug("Skipping unauthorized server: {}", supplier.getDomainRemoteName());
-      return;
+      return null;
     }
 
     // Build request with unfilled instruments, their current timestamps, and freshness threshold
@@ -413,7 +506,7 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
 
       if (allowedIds.isEmpty()) {
         log.debug("No supported instruments for AC_OPEN supplier {}, skipping", supplier.getDomainRemoteName());
-        return;
+        return null;
       }
 
       securityDTOs = instruments.getUnfilledSecurityDTOsFiltered(allowedIds);
@@ -425,7 +518,7 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
     }
 
     if (securityDTOs.isEmpty() && currencypairDTOs.isEmpty()) {
-      return;
+      return null;
     }
 
     // Calculate minimum acceptable timestamp for freshness filtering
@@ -448,15 +541,21 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
     requestEnvelope.timestamp = LocalDateTime.now();
     requestEnvelope.payload = objectMapper.valueToTree(requestPayload);
 
-    log.debug("Sending lastprice request to {} with {} securities, {} pairs",
-        supplier.getDomainRemoteName(), securityDTOs.size(), currencypairDTOs.size());
+    return new SupplierRequest(supplier, rank, securityDTOs, currencypairDTOs, requestEnvelope);
+  }
 
-    // Send request
-    SendResult result = baseDataClient.sendToMsgWithStatus(
-        config.getTokenRemote(),
-        supplier.getDomainRemoteName(),
-        requestEnvelope,
-        GTNetTimeoutHelper.resolveTimeout(supplier, globalparametersJpaRepository));
+  /**
+   * Processes the response of a single remote server, optionally tracking it.
+   *
+   * @param supplierResponse the response together with its request
+   * @param instruments the instrument exchange set
+   * @param pushContext optional context to track server responses for later push-back (null to skip)
+   */
+  private void applySupplierResponse(SupplierResponse supplierResponse, InstrumentExchangeSet instruments,
+      PushOpenServerContext pushContext) {
+    SupplierRequest request = supplierResponse.request();
+    GTNet supplier = request.supplier();
+    SendResult result = supplierResponse.result();
 
     if (result.isFailed()) {
       if (result.httpError()) {
@@ -485,15 +584,10 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
         return;
       }
 
-      int responseCount = 0;
-      if (responsePayload.securities != null) {
-        responseCount += responsePayload.securities.size();
-      }
-      if (responsePayload.currencypairs != null) {
-        responseCount += responsePayload.currencypairs.size();
-      }
+      int responseCount = countEntities(responsePayload);
 
-      log.info("Received {} price updates from {}", responseCount, supplier.getDomainRemoteName());
+      log.info("Received {} price updates from {} in {} ms", responseCount, supplier.getDomainRemoteName(),
+          supplierResponse.responseMillis());
 
       // Track server response for potential push-back (only for PUSH_OPEN servers)
       if (pushContext != null && responseCount > 0) {
@@ -501,18 +595,52 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
       }
 
       // Process response - update instruments and mark as filled
-      int updatedCount = instruments.processResponse(responsePayload.securities, responsePayload.currencypairs);
+      int updatedCount = instruments.processResponse(responsePayload.securities, responsePayload.currencypairs,
+          request.rank());
 
-      // Log exchange statistics as consumer
-      int entitiesSent = securityDTOs.size() + currencypairDTOs.size();
-      gtNetExchangeLogService.logAsConsumer(supplier, GTNetExchangeKindType.LAST_PRICE,
-          entitiesSent, updatedCount, responseCount);
+      // Log exchange statistics as consumer, the response time is used for the latency of the supplier
+      int entitiesSent = request.securityDTOs().size() + request.currencypairDTOs().size();
+      gtNetExchangeLogService.logAsConsumerTimed(supplier, GTNetExchangeKindType.LAST_PRICE,
+          entitiesSent, updatedCount, responseCount, supplierResponse.responseMillis());
 
     } catch (Exception e) {
       log.error("Failed to parse lastprice response from {}", supplier.getDomainRemoteName(), e);
     }
   }
 
+  /**
+   * Logs the response of a request which was abandoned. Nothing of it is used, but its response time counts for the
+   * latency of the supplier. A request which timed out is logged with the timeout as response time.
+   */
+  private void logAbandonedResponse(SupplierResponse supplierResponse) {
+    SupplierRequest request = supplierResponse.request();
+    MessageEnvelope response = supplierResponse.result().isFailed() ? null : supplierResponse.result().response();
+    int responseCount = 0;
+    if (response != null && response.payload != null) {
+      try {
+        responseCount = countEntities(objectMapper.treeToValue(response.payload, LastpriceExchangeMsg.class));
+      } catch (Exception e) {
+        log.debug("Failed to parse abandoned lastprice response from {}", request.supplier().getDomainRemoteName(), e);
+      }
+    }
+    log.debug("Abandoned lastprice request to {} finished after {} ms", request.supplier().getDomainRemoteName(),
+        supplierResponse.responseMillis());
+    gtNetExchangeLogService.logAsConsumerTimed(request.supplier(), GTNetExchangeKindType.LAST_PRICE,
+        request.securityDTOs().size() + request.currencypairDTOs().size(), 0, responseCount,
+        supplierResponse.responseMillis());
+  }
+
+  private static int countEntities(LastpriceExchangeMsg payload) {
+    int count = 0;
+    if (payload != null && payload.securities != null) {
+      count += payload.securities.size();
+    }
+    if (payload != null && payload.currencypairs != null) {
+      count += payload.currencypairs.size();
+    }
+    return count;
+  }
+
   /**
    * Queries the local push pool if this server is configured as AC_PUSH_OPEN.
    * This allows the server to use its own cached prices before contacting remote servers.
@@ -717,4 +845,49 @@ public class GTNetLastpriceService extends BaseGTNetExchangeService {
       this.currencypairs = currencypairs;
     }
   }
+
+  /**
+   * Lastprice request to a supplier.
+   *
+   * @param rank position of the supplier in the supplier order, lower is preferred for prices with the same timestamp
+   */
+  private record SupplierRequest(GTNet supplier, int rank, List<InstrumentPriceDTO> securityDTOs,
+      List<InstrumentPriceDTO> currencypairDTOs, MessageEnvelope envelope) {
+  }
+
+  private record SupplierResponse(SupplierRequest request, SendResult result, long responseMillis) {
+  }
+
+  /**
+   * Responses of the suppliers of one query, they are taken by the querying thread. When the query is finished, a
+   * response which is still in the queue or arrives later is logged as abandoned.
+   */
+  private class SupplierResponses {
+    private final BlockingQueue<SupplierResponse> queue = new LinkedBlockingQueue<>();
+    private boolean abandoned;
+
+    synchronized void deliver(SupplierResponse response) {
+      if (abandoned) {
+        // Called by a thread of the HTTP client, the log is written to the database
+        Thread.ofVirtual().name("gtnet-lastprice-abandoned").start(() -> logAbandonedResponse(response));
+      } else {
+        queue.add(response);
+      }
+    }
+
+    SupplierResponse poll(long timeoutMillis) throws InterruptedException {
+      return queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    SupplierResponse take() throws InterruptedException {
+      return queue.take();
+    }
+
+    synchronized void abandon() {
+      abandoned = true;
+      List<SupplierResponse> unprocessed = new ArrayList<>();
+      queue.drainTo(unprocessed);
+      unprocessed.forEach(GTNetLastpriceService.this::logAbandonedResponse);
+    }
+  }
 }
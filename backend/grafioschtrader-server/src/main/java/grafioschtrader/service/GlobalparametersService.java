@@ -308,6 +308,34 @@ public class GlobalparametersService {
     return globalparametersJpaRepository.save(gp);
   }
 
+  /**
+   * Gets the time up to which changed history quotes were checked against the materialized period valuation.
+   *
+   * @return the time of the last scan, or epoch if never scanned
+   * @see GlobalParamKeyDefault#GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP
+   */
+  public LocalDateTime getPeriodValuationScanTimestamp() {
+    return globalparametersJpaRepository.findById(GlobalParamKeyDefault.GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP)
+        .map(Globalparameters::getPropertyDateTime)
+        .orElse(GlobalParamKeyDefault.DEFAULT_PERIOD_VALUATION_SCAN_TIMESTAMP);
+  }
+
+  /**
+   * Sets the time up to which changed history quotes were checked against the materialized period valuation.
+   *
+   * @param scanTimestamp the database time when the scan started
+   * @return the saved Globalparameters entity
+   * @see GlobalParamKeyDefault#GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP
+   */
+  public Globalparameters updatePeriodValuationScanTimestamp(LocalDateTime scanTimestamp) {
+    Globalparameters gp = globalparametersJpaRepository
+        .findById(GlobalParamKeyDefault.GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP)
+        .orElse(new Globalparameters(GlobalParamKeyDefault.GLOB_KEY_PERIOD_VALUATION_SCAN_TIMESTAMP));
+    gp.setPropertyDateTime(scanTimestamp);
+    gp.setChangedBySystem(true);
+    return globalparametersJpaRepository.save(gp);
+  }
+
 
   /**
    * Retrieves a global parameter entity by its property name.
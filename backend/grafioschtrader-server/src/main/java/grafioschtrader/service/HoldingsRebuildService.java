@@ -0,0 +1,154 @@
+package grafioschtrader.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import grafiosch.exceptions.TaskBackgroundException;
+import grafiosch.exceptions.TaskInterruptException;
+import grafiosch.task.TenantTaskLock;
+import grafioschtrader.entities.Tenant;
+import grafioschtrader.repository.HoldCashaccountBalanceJpaRepository;
+import grafioschtrader.repository.HoldCashaccountDepositJpaRepository;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
+import grafioschtrader.repository.TenantJpaRepository;
+
+/**
+ * Rebuilds the holding tables (security holdings, cash account deposits and cash account balances) of one or all
+ * tenants.
+ * <p>
+ * The tenants are independent of each other, so a rebuild of all tenants processes them in parallel with a bounded
+ * number of threads. Each tenant is rebuilt in its own transaction, a failing tenant is rolled back alone and does not
+ * prevent the rebuild of the others. The number of threads should stay below the size of the database connection pool,
+ * since every thread holds a connection for the duration of its tenant. After its rebuild the materialized period
+ * valuation of a tenant is recalculated, if it has one. While a tenant is rebuilt it is locked with
+ * {@link TenantTaskLock}, a background task which changes the data of this tenant does not run at the same time.
+ * </p>
+ * <p>
+ * A rebuild creates the currency pairs it needs but does not find. Two tenants rebuilt at the same time may create the
+ * same pair, the second insert then fails on the unique key. The rebuild of this tenant is repeated once in a new
+ * transaction, which finds the pair committed by the other tenant.
+ * </p>
+ */
+@Service
+public class HoldingsRebuildService {
+
+  private static final Logger log = LoggerFactory.getLogger(HoldingsRebuildService.class);
+
+  @Value("${gt.holdings.rebuild.parallelism:4}")
+  private int parallelism;
+
+  @Autowired
+  private TenantJpaRepository tenantJpaRepository;
+
+  @Autowired
+  private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
+
+  @Autowired
+  private HoldCashaccountDepositJpaRepository holdCashaccountDepositJpaRepository;
+
+  @Autowired
+  private HoldCashaccountBalanceJpaRepository holdCashaccountBalanceJpaRepository;
+
+  @Autowired
+  private PeriodValuationService periodValuationService;
+
+  @Autowired
+  private PlatformTransactionManager platformTransactionManager;
+
+  @Autowired
+  private TenantTaskLock tenantTaskLock;
+
+  /**
+   * Rebuilds all holding tables of a single tenant in one transaction, the transaction of the caller is joined.
+   *
+   * @param idTenant the tenant whose holdings are rebuilt
+   */
+  @Transactional
+  public void rebuildTenant(Integer idTenant) {
+    holdSecurityaccountSecurityRepository.createSecurityHoldingsEntireByTenant(idTenant);
+    holdCashaccountDepositJpaRepository.createCashaccountDepositTimeFrameByTenant(idTenant);
+    holdCashaccountBalanceJpaRepository.createCashaccountBalanceEntireByTenant(idTenant);
+  }
+
+  /**
+   * Rebuilds the holding tables of every tenant, in parallel and with a separate transaction per tenant. The progress
+   * is logged after each tenant.
+   *
+   * @throws TaskBackgroundException when the rebuild of at least one tenant failed, the other tenants are committed
+   * @throws TaskInterruptException  when the calling thread is interrupted, tenants not yet started are skipped
+   */
+  public void rebuildAllTenants() throws TaskBackgroundException {
+    List<Integer> idsTenant = tenantJpaRepository.findAll().stream().map(Tenant::getIdTenant).toList();
+    TransactionTemplate transactionTemplate = new TransactionTemplate(platformTransactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    AtomicInteger finished = new AtomicInteger();
+    List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    long startTime = System.currentTimeMillis();
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+        Thread.ofPlatform().name("HoldingsRebuild-", 1).factory());
+    try {
+      List<Future<?>> futures = new ArrayList<>(idsTenant.size());
+      for (Integer idTenant : idsTenant) {
+        futures.add(executor.submit(() -> {
+          long tenantStartTime = System.currentTimeMillis();
+          try (TenantTaskLock.TenantLock _ = tenantTaskLock.lock(idTenant)) {
+            rebuildTenantWithRetry(transactionTemplate, idTenant);
+            periodValuationService.refreshTenantWithSeries(idTenant);
+            log.info("Holdings of tenant {} rebuilt in {} ms ({}/{})", idTenant,
+                System.currentTimeMillis() - tenantStartTime, finished.incrementAndGet(), idsTenant.size());
+          } catch (RuntimeException e) {
+            finished.incrementAndGet();
+            failures.add("Tenant " + idTenant + ": " + e.getMessage());
+            log.error("Rebuild of holdings for tenant {} failed", idTenant, e);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException ie) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new TaskInterruptException(ie);
+    } catch (ExecutionException ee) {
+      // Not expected, every tenant catches its own exceptions
+      log.error("Unexpected failure in holdings rebuild", ee);
+    } finally {
+      executor.close();
+    }
+    log.info("Holdings of {} tenants rebuilt in {} ms, {} failed", idsTenant.size(),
+        System.currentTimeMillis() - startTime, failures.size());
+    if (!failures.isEmpty()) {
+      throw new TaskBackgroundException("gt.holdings.rebuild.failure", failures, false);
+    }
+  }
+
+  private void rebuildTenantWithRetry(TransactionTemplate transactionTemplate, Integer idTenant) {
+    try {
+      transactionTemplate.executeWithoutResult(_ -> rebuildTenant(idTenant));
+    } catch (DataIntegrityViolationException e) {
+      // Most likely a currency pair created in parallel by the rebuild of another tenant
+      log.info("Rebuild of holdings for tenant {} is repeated after a concurrent insert: {}", idTenant,
+          e.getMessage());
+      transactionTemplate.executeWithoutResult(_ -> rebuildTenant(idTenant));
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package grafioschtrader.service;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,9 +10,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 import grafiosch.entities.TaxUpload;
 import grafiosch.entities.TaxYear;
 import grafioschtrader.entities.IctaxSecurityTaxData;
-import grafioschtrader.repository.IctaxSecurityTaxDataJpaRepository;
+import grafioschtrader.repository.IctaxSecurityTaxDataBatchWriter;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.repository.TaxUploadJpaRepository;
 import grafioschtrader.repository.TaxYearJpaRepository;
@@ -34,12 +35,20 @@ import grafioschtrader.tax.swiss.ictax.IctaxKurslisteParser;
 /**
  * Service for importing ICTax Kursliste XML data from uploaded zip files. Handles file storage, XML parsing, and
  * database persistence of Swiss tax data.
+ * <p>
+ * The uploaded zip file is copied to the storage directory and the XML is read from there as a stream. The parsed
+ * securities are written in chunks while the file is still being read, so the memory used does not depend on the size
+ * of the Kursliste.
+ * </p>
  */
 @Service
 public class IctaxImportService {
 
   private static final Logger log = LoggerFactory.getLogger(IctaxImportService.class);
 
+  /** Number of parsed securities which are written together. */
+  private static final int BATCH_SIZE = 500;
+
   @Value("${gt.taxdata.storage.path:#{systemProperties['user.home'] + '/.grafioschtrader/taxdata'}}")
   private String storagePath;
 
@@ -50,7 +59,7 @@ public class IctaxImportService {
   private TaxUploadJpaRepository taxUploadJpaRepository;
 
   @Autowired
-  private IctaxSecurityTaxDataJpaRepository ictaxSecurityTaxDataJpaRepository;
+  private IctaxSecurityTaxDataBatchWriter ictaxSecurityTaxDataBatchWriter;
 
   @Autowired
   private SecurityJpaRepository securityJpaRepository;
@@ -94,11 +103,10 @@ public class IctaxImportService {
       throw new IOException("Stored zip file not found: " + upload.getFilePath());
     }
 
-    ictaxSecurityTaxDataJpaRepository.deleteByIdTaxUpload(idTaxUpload);
+    ictaxSecurityTaxDataBatchWriter.deleteByIdTaxUpload(idTaxUpload);
     Set<String> allIsins = getAllIsinsFromSecurities();
 
-    byte[] zipBytes = Files.readAllBytes(zipPath);
-    int count = importFromZipBytes(zipBytes, upload.getIdTaxUpload(), allIsins);
+    int count = importFromZipFile(zipPath, upload.getIdTaxUpload(), allIsins);
     upload.setRecordCount(count);
     return taxUploadJpaRepository.save(upload);
   }
@@ -133,55 +141,44 @@ public class IctaxImportService {
     upload.setRecordCount(0);
     upload = taxUploadJpaRepository.save(upload);
 
-    // Import data from zip
-    byte[] zipBytes = Files.readAllBytes(storedPath);
-    int count = importFromZipBytes(zipBytes, upload.getIdTaxUpload(), allIsins);
+    // Import data from the stored zip
+    int count = importFromZipFile(storedPath, upload.getIdTaxUpload(), allIsins);
     upload.setRecordCount(count);
     return taxUploadJpaRepository.save(upload);
   }
 
-  private int importFromZipBytes(byte[] zipBytes, int idTaxUpload, Set<String> allIsins) throws IOException {
-    byte[] xmlBytes = null;
-
-    try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipBytes))) {
-      ZipEntry entry;
-      while ((entry = zis.getNextEntry()) != null) {
-        if (entry.getName().toLowerCase().endsWith(".xml")) {
-          xmlBytes = zis.readAllBytes();
-        }
+  private int importFromZipFile(Path zipPath, int idTaxUpload, Set<String> allIsins) throws IOException {
+    try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+      ZipEntry xmlEntry = zipFile.stream().filter(e -> e.getName().toLowerCase().endsWith(".xml"))
+          .reduce((_, last) -> last).orElse(null);
+      if (xmlEntry == null) {
+        log.warn("No XML file found in zip for upload {}", idTaxUpload);
+        return 0;
       }
-    }
 
-    if (xmlBytes == null) {
-      log.warn("No XML file found in zip for upload {}", idTaxUpload);
-      return 0;
-    }
-
-    List<IctaxSecurityTaxData> dataList;
-    try {
-      if (!allIsins.isEmpty()) {
-        // Selective import: full parse then filter by portfolio ISINs
-        dataList = parser.parseSelective(xmlBytes, allIsins, idTaxUpload);
-      } else {
-        // Full import
-        dataList = parser.parseFull(new ByteArrayInputStream(xmlBytes), idTaxUpload);
+      List<IctaxSecurityTaxData> batch = new ArrayList<>(BATCH_SIZE);
+      int count;
+      try (InputStream xmlStream = zipFile.getInputStream(xmlEntry)) {
+        // Selective import of the portfolio ISINs, full import when GT has no securities with ISIN
+        count = parser.parse(xmlStream, allIsins.isEmpty() ? null : allIsins, idTaxUpload, data -> {
+          batch.add(data);
+          if (batch.size() == BATCH_SIZE) {
+            ictaxSecurityTaxDataBatchWriter.insert(batch);
+            batch.clear();
+          }
+        });
+      } catch (XMLStreamException e) {
+        log.error("Failed to parse XML for upload {}", idTaxUpload, e);
+        ictaxSecurityTaxDataBatchWriter.deleteByIdTaxUpload(idTaxUpload);
+        return 0;
       }
-    } catch (Exception e) {
-      log.error("Failed to parse XML for upload {}", idTaxUpload, e);
-      return 0;
-    }
-
-    if (!dataList.isEmpty()) {
-      ictaxSecurityTaxDataJpaRepository.saveAll(dataList);
+      ictaxSecurityTaxDataBatchWriter.insert(batch);
+      log.info("Imported {} securities for upload {}", count, idTaxUpload);
+      return count;
     }
-    log.info("Imported {} securities for upload {}", dataList.size(), idTaxUpload);
-    return dataList.size();
   }
 
   private Set<String> getAllIsinsFromSecurities() {
-    return securityJpaRepository.findAll().stream()
-        .filter(s -> s.getIsin() != null && !s.getIsin().isEmpty())
-        .map(s -> s.getIsin())
-        .collect(Collectors.toSet());
+    return securityJpaRepository.findDistinctIsins();
   }
 }
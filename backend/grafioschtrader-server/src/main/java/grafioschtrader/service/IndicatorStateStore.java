@@ -0,0 +1,128 @@
+package grafioschtrader.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.repository.HistoryquoteJpaRepository;
+import grafioschtrader.ta.indicator.calc.IncrementalIndicatorState;
+
+/**
+ * Keeps an {@link IncrementalIndicatorState} per security between the alert evaluations, so the indicators of an alert
+ * are not recomputed from the full history on every run.
+ * <p>
+ * The history is loaded once per security. Later calls only read the quotes since the last known trading day and append
+ * them. Past quotes can be rewritten by a split adjustment, a reload of the history or the filling of gaps. This is
+ * detected by comparing the close of the last known trading day and the number of quotes in the buffered date range
+ * with the database, in which case the state is built again from the history.
+ * </p>
+ * <p>
+ * The writers of a user edit, a quote deletion, a split change or a full reload of the history remove the state of the
+ * security with {@link #invalidateAfterCommit(Integer)}, so it does not depend on this check alone. All methods are
+ * synchronized, a removal waits for a running rebuild and is not overwritten by it.
+ * </p>
+ */
+@Service
+public class IndicatorStateStore {
+
+  private static final Logger log = LoggerFactory.getLogger(IndicatorStateStore.class);
+
+  /** Calendar days of history loaded when a state is built. */
+  private static final int MAX_HISTORY_DAYS = 1200;
+
+  /** Maximum number of closes kept per security, enough for an instrument which is traded on every calendar day. */
+  private static final int MAX_CLOSES = MAX_HISTORY_DAYS + 1;
+
+  @Autowired
+  private HistoryquoteJpaRepository historyquoteJpaRepository;
+
+  private final Map<Integer, IncrementalIndicatorState> states = new HashMap<>();
+
+  /**
+   * Returns the indicator state of a security, brought up to date with the history quotes in the database.
+   *
+   * @param idSecuritycurrency the security
+   * @return the current state, it must only be used by one thread at a time
+   */
+  public synchronized IncrementalIndicatorState getCurrentState(Integer idSecuritycurrency) {
+    IncrementalIndicatorState state = states.get(idSecuritycurrency);
+    LocalDate today = LocalDate.now();
+    if (state != null && !state.isEmpty()) {
+      if (appendNewQuotes(idSecuritycurrency, state, today)) {
+        return state;
+      }
+      log.debug("History of security {} was changed, rebuilding indicator state", idSecuritycurrency);
+    }
+    state = new IncrementalIndicatorState(MAX_CLOSES);
+    for (Historyquote hq : historyquoteJpaRepository.findByIdSecuritycurrencyAndDateBetweenOrderByDate(
+        idSecuritycurrency, today.minusDays(MAX_HISTORY_DAYS), today)) {
+      state.append(hq.getDate(), hq.getClose());
+    }
+    states.put(idSecuritycurrency, state);
+    return state;
+  }
+
+  /**
+   * Appends the quotes after the last known trading day.
+   *
+   * @return false when the stored history no longer matches the database
+   */
+  private boolean appendNewQuotes(Integer idSecuritycurrency, IncrementalIndicatorState state, LocalDate today) {
+    LocalDate lastDate = state.getLastDate();
+    List<Historyquote> hqs = historyquoteJpaRepository.findByIdSecuritycurrencyAndDateBetweenOrderByDate(
+        idSecuritycurrency, lastDate, today);
+    if (hqs.isEmpty() || !hqs.getFirst().getDate().equals(lastDate)
+        || Double.compare(hqs.getFirst().getClose(), state.getLastClose()) != 0
+        || historyquoteJpaRepository.countByIdSecuritycurrencyAndDateBetween(idSecuritycurrency, state.getFirstDate(),
+            lastDate) != state.size()) {
+      return false;
+    }
+    for (int i = 1; i < hqs.size(); i++) {
+      state.append(hqs.get(i).getDate(), hqs.get(i).getClose());
+    }
+    return true;
+  }
+
+  /**
+   * Removes the state of a security, it is built again with the next access.
+   */
+  public synchronized void invalidate(Integer idSecuritycurrency) {
+    states.remove(idSecuritycurrency);
+  }
+
+  /**
+   * Removes the state of a security when the current transaction is committed, a rebuild in between would still read
+   * the old history. Without an active transaction the state is removed immediately.
+   */
+  public void invalidateAfterCommit(Integer idSecuritycurrency) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          invalidate(idSecuritycurrency);
+        }
+      });
+    } else {
+      invalidate(idSecuritycurrency);
+    }
+  }
+
+  /**
+   * Drops the states of securities which are no longer observed by an alert.
+   *
+   * @param idsSecuritycurrency the securities still in use
+   */
+  public synchronized void retainAll(Set<Integer> idsSecuritycurrency) {
+    states.keySet().retainAll(idsSecuritycurrency);
+  }
+}
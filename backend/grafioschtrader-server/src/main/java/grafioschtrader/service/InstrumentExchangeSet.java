@@ -23,12 +23,18 @@ import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
  *   <li>Marking instruments as filled when prices are received</li>
  *   <li>Returning unfilled instruments for fallback to connectors</li>
  * </ul>
+ *
+ * When several suppliers are asked for the same instruments in parallel, each response carries the rank of its
+ * supplier. A filled instrument is replaced by a newer price, or by a price with the same timestamp from a supplier
+ * with a lower rank, so the result does not depend on the order in which overlapping responses arrive.
  */
 public class InstrumentExchangeSet {
 
   private final Map<String, Security> securities = new HashMap<>();
   private final Map<String, Currencypair> currencypairs = new HashMap<>();
   private final Set<String> filledKeys = new HashSet<>();
+  /** Rank of the supplier which filled an instrument, a lower rank is preferred for the same timestamp. */
+  private final Map<String, Integer> filledRanks = new HashMap<>();
 
   /**
    * Adds a security to the exchange set.
@@ -58,7 +64,12 @@ public class InstrumentExchangeSet {
    * @param key the instrument key (ISIN:currency or from:to)
    */
   public void markAsFilled(String key) {
+    markAsFilled(key, 0);
+  }
+
+  private void markAsFilled(String key, int rank) {
     filledKeys.add(key);
+    filledRanks.put(key, rank);
   }
 
   /**
@@ -70,14 +81,27 @@ public class InstrumentExchangeSet {
    */
   public int processResponse(List<InstrumentPriceDTO> responseSecurities,
       List<InstrumentPriceDTO> responseCurrencypairs) {
+    return processResponse(responseSecurities, responseCurrencypairs, 0);
+  }
+
+  /**
+   * Processes a response from a remote server with the rank of the server in the supplier order.
+   *
+   * @param responseSecurities list of security price DTOs from the response
+   * @param responseCurrencypairs list of currency pair price DTOs from the response
+   * @param rank position of the supplier in the supplier order, lower is preferred
+   * @return the number of entities that were successfully updated with newer data
+   */
+  public int processResponse(List<InstrumentPriceDTO> responseSecurities,
+      List<InstrumentPriceDTO> responseCurrencypairs, int rank) {
     int updatedCount = 0;
     if (responseSecurities != null) {
       for (InstrumentPriceDTO dto : responseSecurities) {
         String key = dto.getKey();
         Security security = securities.get(key);
-        if (security != null && isNewer(dto.getTimestamp(), security.getSTimestamp())) {
+        if (security != null && isAccepted(key, dto.getTimestamp(), security.getSTimestamp(), rank)) {
           updateSecurityFromDTO(security, dto);
-          markAsFilled(key);
+          markAsFilled(key, rank);
           updatedCount++;
         }
       }
@@ -86,9 +110,9 @@ public class InstrumentExchangeSet {
       for (InstrumentPriceDTO dto : responseCurrencypairs) {
         String key = dto.getKey();
         Currencypair currencypair = currencypairs.get(key);
-        if (currencypair != null && isNewer(dto.getTimestamp(), currencypair.getSTimestamp())) {
+        if (currencypair != null && isAccepted(key, dto.getTimestamp(), currencypair.getSTimestamp(), rank)) {
           updateCurrencypairFromDTO(currencypair, dto);
-          markAsFilled(key);
+          markAsFilled(key, rank);
           updatedCount++;
         }
       }
@@ -293,6 +317,17 @@ public class InstrumentExchangeSet {
 
   // Helper methods
 
+  /**
+   * A price is accepted if it is newer, or if it has the timestamp of the price set by a supplier with a higher rank.
+   */
+  private boolean isAccepted(String key, LocalDateTime incoming, LocalDateTime existing, int rank) {
+    if (isNewer(incoming, existing)) {
+      return true;
+    }
+    Integer filledRank = filledRanks.get(key);
+    return filledRank != null && rank < filledRank && incoming != null && incoming.equals(existing);
+  }
+
   private static String buildSecurityKey(String isin, String currency) {
     return isin + ":" + currency;
   }
@@ -12,19 +12,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import grafioschtrader.entities.Currencypair;
-import grafioschtrader.entities.GTNetInstrumentCurrencypair;
-import grafioschtrader.entities.GTNetInstrumentSecurity;
-import grafioschtrader.entities.GTNetLastprice;
 import grafioschtrader.entities.Security;
 import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
 import grafioschtrader.repository.CurrencypairJpaRepository;
-import grafioschtrader.repository.GTNetInstrumentCurrencypairJpaRepository;
-import grafioschtrader.repository.GTNetInstrumentSecurityJpaRepository;
-import grafioschtrader.repository.GTNetLastpriceJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolKey;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolPrice;
 
 /**
- * Service for querying the local push pool (GTNetInstrument* and GTNetLastprice tables) for intraday prices.
+ * Service for querying the local push pool (GTNetInstrument* and GTNetLastprice tables) for intraday prices. The
+ * push pool is read from its in-memory copy {@link GTNetLastpricePoolStore}.
  *
  * This service provides reusable query logic for:
  * <ul>
@@ -43,13 +40,7 @@ import grafioschtrader.repository.SecurityJpaRepository;
 public class LastpricePoolQueryService {
 
   @Autowired
-  private GTNetInstrumentSecurityJpaRepository gtNetInstrumentSecurityJpaRepository;
-
-  @Autowired
-  private GTNetInstrumentCurrencypairJpaRepository gtNetInstrumentCurrencypairJpaRepository;
-
-  @Autowired
-  private GTNetLastpriceJpaRepository gtNetLastpriceJpaRepository;
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
 
   @Autowired
   private SecurityJpaRepository securityJpaRepository;
@@ -90,56 +81,10 @@ public class LastpricePoolQueryService {
       return new PoolQueryResult(result, notFoundKeys);
     }
 
-    // Build list of valid ISIN+currency tuples
-    List<String[]> tuples = new ArrayList<>();
-    Map<String, InstrumentPriceDTO> requestMap = new HashMap<>();
     for (InstrumentPriceDTO req : requested) {
       if (req.getIsin() != null && req.getCurrency() != null) {
-        tuples.add(new String[] { req.getIsin(), req.getCurrency() });
-        requestMap.put(req.getIsin() + ":" + req.getCurrency(), req);
-      }
-    }
-
-    if (tuples.isEmpty()) {
-      return new PoolQueryResult(result, notFoundKeys);
-    }
-
-    // Single batch query for all security instruments
-    List<GTNetInstrumentSecurity> instruments = gtNetInstrumentSecurityJpaRepository.findByIsinCurrencyTuples(tuples);
-
-    // Get lastprice entries for found instruments
-    List<Integer> instrumentIds = instruments.stream()
-        .map(GTNetInstrumentSecurity::getIdGtNetInstrument)
-        .toList();
-    Map<Integer, GTNetLastprice> lastpriceMap = new HashMap<>();
-    if (!instrumentIds.isEmpty()) {
-      gtNetLastpriceJpaRepository.findByGtNetInstrumentIdGtNetInstrumentIn(instrumentIds)
-          .forEach(lp -> lastpriceMap.put(lp.getGtNetInstrument().getIdGtNetInstrument(), lp));
-    }
-
-    // Track which instruments were found in the pool
-    Set<String> foundKeys = new HashSet<>();
-
-    // Match results with requests and filter by timestamp
-    for (GTNetInstrumentSecurity instrument : instruments) {
-      String key = instrument.getIsin() + ":" + instrument.getCurrency();
-      foundKeys.add(key);
-      InstrumentPriceDTO req = requestMap.get(key);
-      GTNetLastprice lastprice = lastpriceMap.get(instrument.getIdGtNetInstrument());
-
-      if (req != null && lastprice != null && isNewer(lastprice.getTimestamp(), req.getTimestamp())) {
-        result.add(fromInstrumentAndLastprice(instrument, lastprice));
-      }
-    }
-
-    // For instruments not found in pool, return request as final price if last is non-zero
-    for (Map.Entry<String, InstrumentPriceDTO> entry : requestMap.entrySet()) {
-      if (!foundKeys.contains(entry.getKey())) {
-        notFoundKeys.add(entry.getKey());
-        InstrumentPriceDTO req = entry.getValue();
-        if (req.getLast() != null && req.getLast() != 0.0) {
-          result.add(req);
-        }
+        addFromPushPool(PoolKey.ofSecurity(req.getIsin(), req.getCurrency()), req.getIsin() + ":" + req.getCurrency(),
+            req, result, notFoundKeys);
       }
     }
 
@@ -162,56 +107,10 @@ public class LastpricePoolQueryService {
       return new PoolQueryResult(result, notFoundKeys);
     }
 
-    // Build list of valid fromCurrency+toCurrency tuples
-    List<String[]> tuples = new ArrayList<>();
-    Map<String, InstrumentPriceDTO> requestMap = new HashMap<>();
     for (InstrumentPriceDTO req : requested) {
       if (req.getCurrency() != null && req.getToCurrency() != null) {
-        tuples.add(new String[] { req.getCurrency(), req.getToCurrency() });
-        requestMap.put(req.getCurrency() + ":" + req.getToCurrency(), req);
-      }
-    }
-
-    if (tuples.isEmpty()) {
-      return new PoolQueryResult(result, notFoundKeys);
-    }
-
-    // Single batch query for all currency pair instruments
-    List<GTNetInstrumentCurrencypair> instruments = gtNetInstrumentCurrencypairJpaRepository.findByCurrencyTuples(tuples);
-
-    // Get lastprice entries for found instruments
-    List<Integer> instrumentIds = instruments.stream()
-        .map(GTNetInstrumentCurrencypair::getIdGtNetInstrument)
-        .toList();
-    Map<Integer, GTNetLastprice> lastpriceMap = new HashMap<>();
-    if (!instrumentIds.isEmpty()) {
-      gtNetLastpriceJpaRepository.findByGtNetInstrumentIdGtNetInstrumentIn(instrumentIds)
-          .forEach(lp -> lastpriceMap.put(lp.getGtNetInstrument().getIdGtNetInstrument(), lp));
-    }
-
-    // Track which instruments were found in the pool
-    Set<String> foundKeys = new HashSet<>();
-
-    // Match results with requests and filter by timestamp
-    for (GTNetInstrumentCurrencypair instrument : instruments) {
-      String key = instrument.getFromCurrency() + ":" + instrument.getToCurrency();
-      foundKeys.add(key);
-      InstrumentPriceDTO req = requestMap.get(key);
-      GTNetLastprice lastprice = lastpriceMap.get(instrument.getIdGtNetInstrument());
-
-      if (req != null && lastprice != null && isNewer(lastprice.getTimestamp(), req.getTimestamp())) {
-        result.add(fromInstrumentAndLastprice(instrument, lastprice));
-      }
-    }
-
-    // For instruments not found in pool, return request as final price if last is non-zero
-    for (Map.Entry<String, InstrumentPriceDTO> entry : requestMap.entrySet()) {
-      if (!foundKeys.contains(entry.getKey())) {
-        notFoundKeys.add(entry.getKey());
-        InstrumentPriceDTO req = entry.getValue();
-        if (req.getLast() != null && req.getLast() != 0.0) {
-          result.add(req);
-        }
+        addFromPushPool(PoolKey.ofCurrencypair(req.getCurrency(), req.getToCurrency()),
+            req.getCurrency() + ":" + req.getToCurrency(), req, result, notFoundKeys);
       }
     }
 
@@ -326,36 +225,21 @@ public class LastpricePoolQueryService {
   }
 
   /**
-   * Creates an InstrumentPriceDTO from a GTNetInstrumentSecurity and GTNetLastprice.
-   */
-  private InstrumentPriceDTO fromInstrumentAndLastprice(GTNetInstrumentSecurity instrument, GTNetLastprice price) {
-    InstrumentPriceDTO dto = new InstrumentPriceDTO();
-    dto.setIsin(instrument.getIsin());
-    dto.setCurrency(instrument.getCurrency());
-    dto.setToCurrency(null);
-    dto.setTimestamp(price.getTimestamp());
-    dto.setOpen(price.getOpen());
-    dto.setHigh(price.getHigh());
-    dto.setLow(price.getLow());
-    dto.setLast(price.getLast());
-    dto.setVolume(price.getVolume());
-    return dto;
-  }
-
-  /**
-   * Creates an InstrumentPriceDTO from a GTNetInstrumentCurrencypair and GTNetLastprice.
+   * Adds the pool price of a requested instrument if it is newer than the request. For an instrument not found in the
+   * pool the request is returned as "final price" if its last price is non-zero.
    */
-  private InstrumentPriceDTO fromInstrumentAndLastprice(GTNetInstrumentCurrencypair instrument, GTNetLastprice price) {
-    InstrumentPriceDTO dto = new InstrumentPriceDTO();
-    dto.setIsin(null);
-    dto.setCurrency(instrument.getFromCurrency());
-    dto.setToCurrency(instrument.getToCurrency());
-    dto.setTimestamp(price.getTimestamp());
-    dto.setOpen(price.getOpen());
-    dto.setHigh(price.getHigh());
-    dto.setLow(price.getLow());
-    dto.setLast(price.getLast());
-    dto.setVolume(price.getVolume());
-    return dto;
+  private void addFromPushPool(PoolKey key, String requestKey, InstrumentPriceDTO req, List<InstrumentPriceDTO> result,
+      Set<String> notFoundKeys) {
+    if (gtNetLastpricePoolStore.getIdGtNetInstrument(key) == null) {
+      notFoundKeys.add(requestKey);
+      if (req.getLast() != null && req.getLast() != 0.0) {
+        result.add(req);
+      }
+    } else {
+      PoolPrice price = gtNetLastpricePoolStore.getPrice(key);
+      if (price != null && isNewer(price.timestamp(), req.getTimestamp())) {
+        result.add(price.toInstrumentPriceDTO(key));
+      }
+    }
   }
 }
@@ -0,0 +1,128 @@
+package grafioschtrader.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import grafioschtrader.entities.Currencypair;
+import grafioschtrader.entities.Security;
+import grafioschtrader.repository.CurrencypairJpaRepository;
+import grafioschtrader.repository.SecurityJpaRepository;
+
+/**
+ * Updates the last prices of instruments in the background. A watchlist can so be returned at once with the last
+ * known prices while the prices are updated.
+ * <p>
+ * An instrument is updated by a single refresh at a time. When a watchlist requests instruments whose update is
+ * already running for another watchlist or user, it waits for this update and only the remaining instruments are
+ * requested from the data providers.
+ * </p>
+ * <p>
+ * Only the IDs of the instruments are passed to the background thread. It loads the instruments in its own
+ * transaction, the entities of the persistence context of the requesting thread are never changed by it.
+ * </p>
+ */
+@Service
+public class LastpriceRefreshService {
+
+  private static final Logger log = LoggerFactory.getLogger(LastpriceRefreshService.class);
+
+  @Autowired
+  private GTNetLastpriceService gTNetLastpriceService;
+
+  @Autowired
+  private SecurityJpaRepository securityJpaRepository;
+
+  @Autowired
+  private CurrencypairJpaRepository currencypairJpaRepository;
+
+  @Autowired
+  private PlatformTransactionManager platformTransactionManager;
+
+  /** Running refresh of each instrument, keyed by its ID. */
+  private final Map<Integer, CompletableFuture<Void>> inFlightMap = new ConcurrentHashMap<>();
+
+  /**
+   * Starts the update of the last prices. Instruments which are already updated join the running update.
+   *
+   * @param idsSecurity              the IDs of the securities
+   * @param idsCurrencypair          the IDs of the currency pairs
+   * @param idsCurrencypairNotInList the IDs of additional currency pairs needed for calculations
+   * @return completes when the last prices of all instruments are updated, also when an update failed
+   */
+  public CompletableFuture<Void> refresh(List<Integer> idsSecurity, List<Integer> idsCurrencypair,
+      List<Integer> idsCurrencypairNotInList) {
+    CompletableFuture<Void> refresh = new CompletableFuture<>();
+    List<CompletableFuture<Void>> running = new ArrayList<>();
+    List<Integer> ownIdsSecurity = claim(idsSecurity, refresh, running);
+    List<Integer> ownIdsCurrencypair = claim(idsCurrencypair, refresh, running);
+    List<Integer> ownIdsCurrencypairNotInList = claim(idsCurrencypairNotInList, refresh, running);
+    List<Integer> ownIds = new ArrayList<>(ownIdsSecurity);
+    ownIds.addAll(ownIdsCurrencypair);
+    ownIds.addAll(ownIdsCurrencypairNotInList);
+
+    if (ownIds.isEmpty()) {
+      refresh.complete(null);
+    } else {
+      log.debug("Refresh last price of {} instruments", ownIds.size());
+      Thread.ofVirtual().name("lastprice-refresh").start(() -> {
+        try {
+          TransactionTemplate transactionTemplate = new TransactionTemplate(platformTransactionManager);
+          transactionTemplate.setReadOnly(true);
+          List<Security> securities = new ArrayList<>();
+          List<Currencypair> currencypairs = new ArrayList<>();
+          List<Currencypair> currenciesNotInList = new ArrayList<>();
+          // Loaded in a transaction of this thread, the instances are detached when they are updated
+          transactionTemplate.executeWithoutResult(_ -> {
+            securities.addAll(securityJpaRepository.findAllById(ownIdsSecurity));
+            currencypairs.addAll(currencypairJpaRepository.findAllById(ownIdsCurrencypair));
+            currenciesNotInList.addAll(currencypairJpaRepository.findAllById(ownIdsCurrencypairNotInList));
+          });
+          gTNetLastpriceService.updateLastpriceIncludeSupplier(securities, currencypairs, currenciesNotInList);
+        } catch (RuntimeException e) {
+          log.error("Refresh of last prices failed", e);
+        } finally {
+          ownIds.forEach(id -> inFlightMap.remove(id, refresh));
+          refresh.complete(null);
+        }
+      });
+    }
+    running.add(refresh);
+    return CompletableFuture.allOf(running.toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Returns the running update of any of these instruments.
+   *
+   * @return completes when these updates are finished, or null when none of the instruments is updated
+   */
+  public CompletableFuture<Void> getRunningRefresh(Collection<Integer> idsSecuritycurrency) {
+    CompletableFuture<?>[] running = idsSecuritycurrency.stream().map(inFlightMap::get).filter(f -> f != null)
+        .distinct().toArray(CompletableFuture[]::new);
+    return running.length == 0 ? null : CompletableFuture.allOf(running);
+  }
+
+  private List<Integer> claim(List<Integer> idsSecuritycurrency, CompletableFuture<Void> refresh,
+      List<CompletableFuture<Void>> running) {
+    List<Integer> own = new ArrayList<>();
+    for (Integer idSecuritycurrency : idsSecuritycurrency) {
+      CompletableFuture<Void> existing = inFlightMap.putIfAbsent(idSecuritycurrency, refresh);
+      if (existing == null) {
+        own.add(idSecuritycurrency);
+      } else if (existing != refresh) {
+        running.add(existing);
+      }
+    }
+    return own;
+  }
+}
@@ -0,0 +1,172 @@
+package grafioschtrader.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import grafioschtrader.entities.Portfolio;
+import grafioschtrader.reportviews.performance.IPeriodHolding;
+import grafioschtrader.repository.HoldPeriodValuationStore;
+import grafioschtrader.repository.HoldPeriodValuationStore.ValuationState;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
+import grafioschtrader.repository.PortfolioJpaRepository;
+
+/**
+ * Maintains the materialized daily valuation series of the period performance report.
+ * <p>
+ * The series of a tenant is calculated with the same queries the report used to run on every request, but only once
+ * and afterwards only from the first outdated day on. A tenant gets a series with its first request of the report.
+ * After the daily price update and after a rebuild of the holdings the outdated series are recalculated in the
+ * background, changes of transactions are recalculated with the next request. The report then reads a contiguous slice
+ * of the series.
+ * </p>
+ */
+@Service
+public class PeriodValuationService {
+
+  private static final Logger log = LoggerFactory.getLogger(PeriodValuationService.class);
+
+  /** Lower bound of the trading days for a calculation of the whole series. */
+  private static final LocalDate SERIES_START = LocalDate.of(1900, 1, 1);
+
+  /** Calculations of a series which are discarded because of concurrent changes, before the refresh gives up. */
+  private static final int MAX_REFRESH_ATTEMPTS = 3;
+
+  @Autowired
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
+  @Autowired
+  private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
+
+  @Autowired
+  private PortfolioJpaRepository portfolioJpaRepository;
+
+  @Autowired
+  private GlobalparametersService globalparametersService;
+
+  @Autowired
+  private PlatformTransactionManager platformTransactionManager;
+
+  /**
+   * Returns the daily valuation of a tenant in its currency, the series is brought up to date first if necessary.
+   *
+   * @param idTenant the tenant
+   * @param dateFrom first day, inclusive
+   * @param dateTo   last day, inclusive
+   * @return the days with all quotes available in ascending order
+   */
+  public List<IPeriodHolding> getPeriodHoldingsByTenant(Integer idTenant, LocalDate dateFrom, LocalDate dateTo) {
+    refreshWhenOutdated(idTenant, dateTo);
+    return holdPeriodValuationStore.getSeries(idTenant, HoldPeriodValuationStore.ID_PORTFOLIO_TENANT, dateFrom,
+        dateTo);
+  }
+
+  /**
+   * Returns the daily valuation of a portfolio in its currency, the series is brought up to date first if necessary.
+   *
+   * @param idTenant    the tenant of the portfolio
+   * @param idPortfolio the portfolio
+   * @param dateFrom    first day, inclusive
+   * @param dateTo      last day, inclusive
+   * @return the days with all quotes available in ascending order
+   */
+  public List<IPeriodHolding> getPeriodHoldingsByPortfolio(Integer idTenant, Integer idPortfolio, LocalDate dateFrom,
+      LocalDate dateTo) {
+    refreshWhenOutdated(idTenant, dateTo);
+    return holdPeriodValuationStore.getSeries(idTenant, idPortfolio, dateFrom, dateTo);
+  }
+
+  /**
+   * Marks the series which depend on history quotes changed since the last run and recalculates all outdated series.
+   * Called after the daily price update.
+   */
+  public void refreshAfterPriceUpdate() {
+    LocalDateTime scanTimestamp = holdPeriodValuationStore.getDatabaseTime();
+    int markedTenants = holdPeriodValuationStore
+        .markDirtyByHistoryquoteChanges(globalparametersService.getPeriodValuationScanTimestamp());
+    globalparametersService.updatePeriodValuationScanTimestamp(scanTimestamp);
+    log.info("Period valuation of {} tenants outdated by changed history quotes", markedTenants);
+    refreshOutdatedTenants();
+  }
+
+  /**
+   * Recalculates the outdated series of all tenants which have one. A failing tenant is logged and does not stop the
+   * others.
+   */
+  public void refreshOutdatedTenants() {
+    for (Integer idTenant : holdPeriodValuationStore.getOutdatedTenants(LocalDate.now())) {
+      try {
+        refreshTenant(idTenant);
+      } catch (RuntimeException e) {
+        log.error("Refresh of the period valuation for tenant {} failed", idTenant, e);
+      }
+    }
+  }
+
+  /**
+   * Recalculates the series of a tenant after its holdings were rebuilt, a tenant without series is skipped.
+   *
+   * @param idTenant the tenant
+   */
+  public void refreshTenantWithSeries(Integer idTenant) {
+    if (holdPeriodValuationStore.getState(idTenant) != null) {
+      refreshTenant(idTenant);
+    }
+  }
+
+  private void refreshWhenOutdated(Integer idTenant, LocalDate dateTo) {
+    LocalDate today = LocalDate.now();
+    ValuationState state = holdPeriodValuationStore.getState(idTenant);
+    if (state == null || !state.isValidUntil(dateTo.isBefore(today) ? dateTo : today)) {
+      refreshTenant(idTenant);
+    }
+  }
+
+  /**
+   * Recalculates the outdated part of the series of a tenant. The state is claimed and the new rows are stored in two
+   * short transactions, the calculation between them holds no lock. When a change was marked during the calculation,
+   * the rows are discarded and the calculation is repeated, after the last attempt the series stays outdated for the
+   * next refresh.
+   */
+  private void refreshTenant(Integer idTenant) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(platformTransactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    for (int attempt = 1; attempt <= MAX_REFRESH_ATTEMPTS; attempt++) {
+      LocalDate today = LocalDate.now();
+      ValuationState claimedState = transactionTemplate
+          .execute(_ -> holdPeriodValuationStore.claimState(idTenant, today));
+      LocalDate fromDate = claimedState.recalculateFrom();
+      if (fromDate != null && fromDate.isAfter(today)) {
+        // Another thread was faster or only days in the future are dirty
+        return;
+      }
+      long startTime = System.currentTimeMillis();
+      LocalDate dateFrom = fromDate == null ? SERIES_START : fromDate;
+      Map<Integer, List<IPeriodHolding>> seriesByPortfolio = new LinkedHashMap<>();
+      seriesByPortfolio.put(HoldPeriodValuationStore.ID_PORTFOLIO_TENANT,
+          holdSecurityaccountSecurityRepository.getPeriodHoldingsByTenant(idTenant, dateFrom, today));
+      for (Portfolio portfolio : portfolioJpaRepository.findByIdTenantOrderByName(idTenant)) {
+        seriesByPortfolio.put(portfolio.getIdPortfolio(), holdSecurityaccountSecurityRepository
+            .getPeriodHoldingsByPortfolio(portfolio.getIdPortfolio(), dateFrom, today));
+      }
+      if (Boolean.TRUE.equals(transactionTemplate
+          .execute(_ -> holdPeriodValuationStore.replaceSeries(idTenant, claimedState, seriesByPortfolio, today)))) {
+        log.debug("Period valuation of tenant {} calculated from {} in {} ms", idTenant, dateFrom,
+            System.currentTimeMillis() - startTime);
+        return;
+      }
+      log.debug("Period valuation of tenant {} changed during calculation, attempt {}", idTenant, attempt);
+    }
+    log.warn("Period valuation of tenant {} kept changing during calculation, it stays outdated", idTenant);
+  }
+}
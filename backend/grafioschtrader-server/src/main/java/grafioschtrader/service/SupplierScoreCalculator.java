@@ -12,11 +12,15 @@ import grafiosch.entities.GTNet;
 import grafioschtrader.gtnet.GTNetExchangeKindType;
 
 /**
- * Calculates supplier scores based on coverage and success rate for optimized AC_OPEN supplier selection.
+ * Calculates supplier scores based on coverage, success rate and latency for optimized AC_OPEN supplier selection.
  *
- * The scoring formula is: score = coverageCount x successRate
+ * The scoring formula is: score = coverageCount x successRate x latencyFactor
  * - coverageCount: number of requested instruments this supplier supports (from GTNetSupplierDetail)
  * - successRate: entitiesUpdated / entitiesSent from recent exchange logs (default 1.0 if no history)
+ * - latencyFactor: 1.0 if the 90th percentile of the recent response times is within
+ *   {@link #LATENCY_REFERENCE_MILLIS}, otherwise reduced in proportion. The response times are those of the individual
+ *   exchange logs not yet aggregated, by default of the last day. A supplier without response times, for example when
+ *   exchange logging is off, gets the neutral factor 1.0
  *
  * Suppliers are sorted by score descending, then priority ascending, with random shuffle for ties
  * within the same score+priority bucket.
@@ -29,15 +33,31 @@ public class SupplierScoreCalculator {
   /** Default success rate when no historical data exists */
   private static final double DEFAULT_SUCCESS_RATE = 1.0;
 
+  /** Response time up to which a supplier keeps its full score */
+  static final double LATENCY_REFERENCE_MILLIS = 1000.0;
+
   /** Map: supplierId -> success rate (0.0 to 1.0) */
   private final Map<Integer, Double> successRates;
 
+  /** Map: supplierId -> latency percentiles of the recent response times */
+  private final Map<Integer, LatencyPercentiles> latencies = new HashMap<>();
+
   /**
    * Creates a new score calculator with preloaded success rates.
    *
    * @param successRateData list of [idGtNet, successRate] from database query
    */
   public SupplierScoreCalculator(List<Object[]> successRateData) {
+    this(successRateData, null);
+  }
+
+  /**
+   * Creates a new score calculator with preloaded success rates and latency percentiles.
+   *
+   * @param successRateData list of [idGtNet, successRate] from database query
+   * @param latencyData list of [idGtNet, p50, p90] in milliseconds from database query
+   */
+  public SupplierScoreCalculator(List<Object[]> successRateData, List<Object[]> latencyData) {
     this.successRates = new HashMap<>();
 
     if (successRateData != null) {
@@ -47,6 +67,14 @@ public class SupplierScoreCalculator {
         successRates.put(idGtNet, rate);
       }
     }
+    if (latencyData != null) {
+      for (Object[] row : latencyData) {
+        if (row[1] != null && row[2] != null) {
+          latencies.put(((Number) row[0]).intValue(),
+              new LatencyPercentiles(((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue()));
+        }
+      }
+    }
   }
 
   /**
@@ -54,11 +82,33 @@ public class SupplierScoreCalculator {
    *
    * @param idGtNet the supplier ID
    * @param coverageCount the number of requested instruments this supplier supports
-   * @return the score (coverageCount x successRate)
+   * @return the score (coverageCount x successRate x latencyFactor)
    */
   public double calculateScore(Integer idGtNet, int coverageCount) {
     double successRate = successRates.getOrDefault(idGtNet, DEFAULT_SUCCESS_RATE);
-    return coverageCount * successRate;
+    return coverageCount * successRate * getLatencyFactor(idGtNet);
+  }
+
+  /**
+   * Gets the factor by which a slow supplier's score is reduced.
+   *
+   * @param idGtNet the supplier ID
+   * @return 1.0 for a supplier with a 90th percentile within the reference time or without response times, otherwise
+   *         the reference time divided by the 90th percentile
+   */
+  public double getLatencyFactor(Integer idGtNet) {
+    LatencyPercentiles latency = latencies.get(idGtNet);
+    return latency == null ? 1.0 : Math.min(1.0, LATENCY_REFERENCE_MILLIS / Math.max(1.0, latency.p90()));
+  }
+
+  /**
+   * Gets the latency percentiles of a supplier.
+   *
+   * @param idGtNet the supplier ID
+   * @return the percentiles, or null if no response times were recorded
+   */
+  public LatencyPercentiles getLatency(Integer idGtNet) {
+    return latencies.get(idGtNet);
   }
 
   /**
@@ -150,6 +200,12 @@ public class SupplierScoreCalculator {
         .orElse((byte) 0);
   }
 
+  /**
+   * Median and 90th percentile of the recent response times of a supplier in milliseconds.
+   */
+  public record LatencyPercentiles(double p50, double p90) {
+  }
+
   /**
    * Internal class for holding scored supplier data during sorting.
    */
@@ -44,6 +44,11 @@ public class CurrencyChangedTenantAndPortfolioTask implements ITask {
     return TaskTypeExtended.CURRENCY_CHANGED_ON_TENANT_AND_PORTFOLIO;
   }
 
+  @Override
+  public Integer getLockedIdTenant(TaskDataChange taskDataChange) {
+    return taskDataChange.getIdEntity();
+  }
+
   @Override
   @Transactional
   public void doWork(TaskDataChange taskDataChange) {
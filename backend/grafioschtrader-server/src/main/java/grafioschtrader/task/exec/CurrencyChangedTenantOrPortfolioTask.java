@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import grafiosch.entities.TaskDataChange;
 import grafiosch.task.ITask;
+import grafiosch.task.TenantTaskLock;
 import grafiosch.types.ITaskType;
 import grafioschtrader.entities.Portfolio;
 import grafioschtrader.entities.Tenant;
@@ -51,6 +52,15 @@ public class CurrencyChangedTenantOrPortfolioTask implements ITask {
     return Arrays.asList(Portfolio.class.getSimpleName(), Tenant.class.getSimpleName());
   }
 
+  @Override
+  public Integer getLockedIdTenant(TaskDataChange taskDataChange) {
+    if (Tenant.class.getSimpleName().equals(taskDataChange.getEntity())) {
+      return taskDataChange.getIdEntity();
+    }
+    return portfolioJpaRepository.findById(taskDataChange.getIdEntity()).map(Portfolio::getIdTenant)
+        .orElse(TenantTaskLock.ALL_TENANTS);
+  }
+
   @Override
   @Transactional
   public void doWork(TaskDataChange taskDataChange) {
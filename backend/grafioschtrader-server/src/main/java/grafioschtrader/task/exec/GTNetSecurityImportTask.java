@@ -27,6 +27,7 @@ import grafiosch.repository.GlobalparametersJpaRepository;
 import grafiosch.repository.UserEntityChangeCountJpaRepository;
 import grafiosch.repository.UserJpaRepository;
 import grafiosch.task.ITask;
+import grafiosch.task.TaskConcurrencyClass;
 import grafiosch.types.ITaskType;
 import grafiosch.types.OperationType;
 import grafioschtrader.GlobalParamKeyDefault;
@@ -134,6 +135,11 @@ public class GTNetSecurityImportTask implements ITask {
     return TaskTypeExtended.GTNET_SECURITY_IMPORT_POSITIONS;
   }
 
+  @Override
+  public TaskConcurrencyClass getConcurrencyClass() {
+    return TaskConcurrencyClass.LONG_RUNNING;
+  }
+
   @Override
   public List<String> getAllowedEntities() {
     return Arrays.asList(GTNetSecurityImpHead.class.getSimpleName());
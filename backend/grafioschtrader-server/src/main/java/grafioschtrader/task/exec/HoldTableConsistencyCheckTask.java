@@ -40,6 +40,12 @@ import jakarta.mail.MessagingException;
  * </p>
  *
  * <p>
+ * For the security holdings the incremental maintenance replays only the transactions from the changed date on and
+ * carries the preceding stored period forward. An error in an older period is therefore not repaired by later changes
+ * of the same series, it stays until a full rebuild.
+ * </p>
+ *
+ * <p>
  * <strong>It reports, it does not repair.</strong> A rebuild of a tenant is expensive and replaces data wholesale, so
  * the decision stays with the administrator, who can queue
  * {@code REBUILD_HOLDINGS_ALL_OR_SINGLE_TENANT} for the reported tenant from the task administration. Nothing is sent
@@ -19,10 +19,12 @@ import grafioschtrader.repository.HistoryquotePeriodJpaRepository;
 import grafioschtrader.repository.HoldCashaccountDepositJpaRepository;
 import grafioschtrader.repository.SecurityJpaRepository;
 import grafioschtrader.service.GlobalparametersService;
+import grafioschtrader.service.PeriodValuationService;
 import grafioschtrader.types.TaskTypeExtended;
 
 /**
- * It reads the EOD day from external resources and the dividend, split calendars.
+ * It reads the EOD day from external resources and the dividend, split calendars. Afterwards the materialized period
+ * valuation of the tenants affected by changed prices is recalculated.
  * <p>
  * Should run on every day but Sunday is not required.
  * </p>
@@ -59,6 +61,9 @@ public class PriceDividendSplitCalendarUpdateTask implements ITask {
   @Autowired
   private GlobalparametersService globalparametersService;
 
+  @Autowired
+  private PeriodValuationService periodValuationService;
+
   @Scheduled(cron = "${gt.eod.cron.quotation}", zone = BaseConstants.TIME_ZONE)
   public void createPriceDividendSplitCalendarUpdateTask() {
     TaskDataChange taskDataChange = new TaskDataChange(getTaskType(), TaskDataExecPriority.PRIO_VERY_HIGH);
@@ -84,6 +89,7 @@ public class PriceDividendSplitCalendarUpdateTask implements ITask {
     splitCalendarAppender.appendSecuritySplitsUntilToday();
     holdCashaccountDepositJpaRepository.adjustBecauseOfHistoryquotePriceChanges();
     currencypairJpaRepository.createTaskDataChangeOfEmptyHistoryqoute();
+    periodValuationService.refreshAfterPriceUpdate();
   }
 
   @Override
@@ -7,52 +7,63 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import grafiosch.entities.TaskDataChange;
+import grafiosch.exceptions.TaskBackgroundException;
 import grafiosch.task.ITask;
+import grafiosch.task.TaskConcurrencyClass;
+import grafiosch.task.TenantTaskLock;
 import grafiosch.types.ITaskType;
 import grafioschtrader.entities.Tenant;
-import grafioschtrader.repository.HoldCashaccountBalanceJpaRepository;
-import grafioschtrader.repository.HoldCashaccountDepositJpaRepository;
-import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
+import grafioschtrader.service.HoldingsRebuildService;
+import grafioschtrader.service.PeriodValuationService;
 import grafioschtrader.types.TaskTypeExtended;
 
 /**
  * The inventory tables are only updated if the transactions are processed in the usual way. This may not be the case
  * when importing data or copying demo user accounts. Therefore, the holding tables can be updated for one or all
- * tenants with this task.
+ * tenants with this task. All tenants are rebuilt in parallel, each in its own transaction. The task runs beside the
+ * serial tasks, the tenant being rebuilt is locked with {@link TenantTaskLock}, so a serial task which rewrites the
+ * holdings of the same tenant waits for it and the other way round.
  */
 @Component
 public class RebuildHolingAllTenantOrSingleTask implements ITask {
 
   @Autowired
-  private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
+  private HoldingsRebuildService holdingsRebuildService;
 
   @Autowired
-  private HoldCashaccountDepositJpaRepository holdCashaccountDepositJpaRepository;
-
-  @Autowired
-  private HoldCashaccountBalanceJpaRepository holdCashaccountBalanceJpaRepository;
+  private PeriodValuationService periodValuationService;
 
   @Override
   public ITaskType getTaskType() {
     return TaskTypeExtended.REBUILD_HOLDINGS_ALL_OR_SINGLE_TENANT;
   }
 
+  @Override
+  public TaskConcurrencyClass getConcurrencyClass() {
+    return TaskConcurrencyClass.LONG_RUNNING;
+  }
+
+  /**
+   * A single tenant is locked for the whole task, the rebuild of all tenants locks each tenant while it is rebuilt.
+   */
+  @Override
+  public Integer getLockedIdTenant(TaskDataChange taskDataChange) {
+    return taskDataChange.getIdEntity();
+  }
+
   @Override
   public List<String> getAllowedEntities() {
     return Arrays.asList("", Tenant.class.getSimpleName());
   }
 
   @Override
-  public void doWork(TaskDataChange taskDataChange) {
+  public void doWork(TaskDataChange taskDataChange) throws TaskBackgroundException {
     Integer idTenant = taskDataChange.getIdEntity();
     if (idTenant == null) {
-      holdSecurityaccountSecurityRepository.createSecurityHoldingsEntireForAllTenant();
-      holdCashaccountDepositJpaRepository.createCashaccountDepositTimeFrameForAllTenant();
-      holdCashaccountBalanceJpaRepository.createCashaccountBalanceEntireForAllTenants();
+      holdingsRebuildService.rebuildAllTenants();
     } else {
-      holdSecurityaccountSecurityRepository.createSecurityHoldingsEntireByTenant(idTenant);
-      holdCashaccountDepositJpaRepository.createCashaccountDepositTimeFrameByTenant(idTenant);
-      holdCashaccountBalanceJpaRepository.createCashaccountBalanceEntireByTenant(idTenant);
+      holdingsRebuildService.rebuildTenant(idTenant);
+      periodValuationService.refreshTenantWithSeries(idTenant);
     }
   }
 
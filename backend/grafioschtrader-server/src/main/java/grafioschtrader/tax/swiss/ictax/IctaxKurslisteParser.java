@@ -1,15 +1,14 @@
 package grafioschtrader.tax.swiss.ictax;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -20,12 +19,16 @@ import grafioschtrader.entities.IctaxPayment;
 import grafioschtrader.entities.IctaxSecurityTaxData;
 
 /**
- * StAX-based parser for ICTax Kursliste XML files. Supports both selective import (using .ix index for specific ISINs)
- * and full import of all securities.
+ * StAX-based parser for ICTax Kursliste XML files. The annual Kursliste is several hundred MB, therefore the parsed
+ * securities are passed one after the other to a consumer instead of being collected. Supports both selective import
+ * of specific ISINs and full import of all securities.
+ * <p>
+ * The selective import decides on the ISIN attribute of the security element. The subtree of a security which is not
+ * requested is skipped without creating any objects for it or its payments.
+ * </p>
  */
 public class IctaxKurslisteParser {
 
-
   private static final Charset XML_CHARSET = Charset.forName("ISO-8859-1");
   private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
@@ -33,38 +36,43 @@ public class IctaxKurslisteParser {
       "currencyNote", "mediumTermBond");
 
   /**
-   * Selective import: stream-parses the full XML and returns only entries whose ISIN is in the target set.
+   * Full import: stream-parses the entire XML file and collects all securities. Intended for small documents, the
+   * import of a Kursliste uses {@link #parse(InputStream, Set, int, Consumer)}.
    *
-   * @param xmlBytes    full XML file content as byte array
-   * @param targetIsins ISINs to extract
+   * @param xmlStream   input stream for the full XML file
    * @param idTaxUpload the upload ID to link extracted data to
-   * @return list of extracted tax data entries matching target ISINs
+   * @return list of all extracted tax data entries
    */
-  public List<IctaxSecurityTaxData> parseSelective(byte[] xmlBytes, Collection<String> targetIsins,
-      int idTaxUpload) throws XMLStreamException {
-    Set<String> isinSet = Set.copyOf(targetIsins);
-    List<IctaxSecurityTaxData> allData = parseFull(new ByteArrayInputStream(xmlBytes), idTaxUpload);
-    return allData.stream().filter(d -> isinSet.contains(d.getIsin())).toList();
+  public List<IctaxSecurityTaxData> parseFull(InputStream xmlStream, int idTaxUpload) throws XMLStreamException {
+    List<IctaxSecurityTaxData> results = new ArrayList<>();
+    parse(xmlStream, null, idTaxUpload, results::add);
+    return results;
   }
 
   /**
-   * Full import: stream-parses the entire XML file and extracts all securities.
+   * Stream-parses the XML file and passes each extracted security with its payments to the consumer as soon as its
+   * element is closed.
    *
-   * @param xmlStream   input stream for the full XML file
+   * @param xmlStream   input stream for the full XML file, it is not closed
+   * @param targetIsins ISINs to extract, null for a full import
    * @param idTaxUpload the upload ID to link extracted data to
-   * @return list of all extracted tax data entries
+   * @param consumer    receives the extracted tax data entries in document order
+   * @return number of entries passed to the consumer
    */
-  public List<IctaxSecurityTaxData> parseFull(InputStream xmlStream, int idTaxUpload) throws XMLStreamException {
+  public int parse(InputStream xmlStream, Set<String> targetIsins, int idTaxUpload,
+      Consumer<IctaxSecurityTaxData> consumer) throws XMLStreamException {
     XMLInputFactory factory = createSecureXmlFactory();
     XMLStreamReader reader = factory.createXMLStreamReader(new InputStreamReader(xmlStream, XML_CHARSET));
-    List<IctaxSecurityTaxData> results = parseSecurities(reader, idTaxUpload);
-    reader.close();
-    return results;
+    try {
+      return parseSecurities(reader, targetIsins, idTaxUpload, consumer);
+    } finally {
+      reader.close();
+    }
   }
 
-  private List<IctaxSecurityTaxData> parseSecurities(XMLStreamReader reader, int idTaxUpload)
-      throws XMLStreamException {
-    List<IctaxSecurityTaxData> results = new ArrayList<>();
+  private int parseSecurities(XMLStreamReader reader, Set<String> targetIsins, int idTaxUpload,
+      Consumer<IctaxSecurityTaxData> consumer) throws XMLStreamException {
+    int count = 0;
     IctaxSecurityTaxData currentData = null;
 
     while (reader.hasNext()) {
@@ -72,10 +80,15 @@ public class IctaxKurslisteParser {
       if (event == XMLStreamConstants.START_ELEMENT) {
         String localName = reader.getLocalName();
         if (SECURITY_ELEMENTS.contains(localName)) {
+          String isin = getAttr(reader, "isin");
+          if (targetIsins != null && (isin == null || !targetIsins.contains(isin))) {
+            skipElement(reader);
+            continue;
+          }
           currentData = new IctaxSecurityTaxData();
           currentData.setIdTaxUpload(idTaxUpload);
           currentData.setPayments(new ArrayList<>());
-          currentData.setIsin(getAttr(reader, "isin"));
+          currentData.setIsin(isin);
           currentData.setValorNumber(getAttrInt(reader, "valorNumber"));
           currentData.setSecurityGroup(getAttr(reader, "securityGroup"));
           currentData.setInstitutionName(getAttr(reader, "institutionName"));
@@ -108,13 +121,27 @@ public class IctaxKurslisteParser {
         String localName = reader.getLocalName();
         if (SECURITY_ELEMENTS.contains(localName) && currentData != null) {
           if (currentData.getIsin() != null && !currentData.getIsin().isEmpty()) {
-            results.add(currentData);
+            consumer.accept(currentData);
+            count++;
           }
           currentData = null;
         }
       }
     }
-    return results;
+    return count;
+  }
+
+  /** Skips the current start element including all its children, the reader is positioned on its end element. */
+  private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
   }
 
   private XMLInputFactory createSecureXmlFactory() {
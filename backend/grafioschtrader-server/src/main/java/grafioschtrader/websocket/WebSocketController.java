@@ -9,11 +9,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 
 import grafiosch.entities.User;
 import grafiosch.security.UserAuthentication;
 import grafioschtrader.reports.WatchlistReport;
+import grafioschtrader.reports.WatchlistReport.LastpriceUpdate;
 import grafioschtrader.reportviews.securitycurrency.SecuritycurrencyGroup;;
 
 @Controller
@@ -33,9 +35,15 @@ public class WebSocketController {
   public String processMessageFromClient(Principal principal, QueryParam queryParam) throws Exception {
     log.info("Websocket - idWachtlist: {}", queryParam);
     final User user = (User) ((UserAuthentication) principal).getDetails();
-    SecuritycurrencyGroup securitycurrencyGroup = watchlistReport
-        .getWatchlistwithPeriodPerformance(queryParam.idWatchlist, user.getIdTenant(), queryParam.daysFrameDate);
-    messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/security", securitycurrencyGroup);
+    // The rows with changed prices follow on WatchlistReport.WATCHLIST_LASTPRICE_DESTINATION
+    SecurityContextHolder.getContext().setAuthentication((UserAuthentication) principal);
+    try {
+      SecuritycurrencyGroup securitycurrencyGroup = watchlistReport.getWatchlistwithPeriodPerformance(
+          queryParam.idWatchlist, user.getIdTenant(), queryParam.daysFrameDate, LastpriceUpdate.BACKGROUND);
+      messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/security", securitycurrencyGroup);
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
     return null;
   }
 
@@ -0,0 +1,13 @@
+-- GTNet peers may exchange the historical prices in a compact columnar encoding instead of JSON.
+--
+-- gt_net.payload_encodings              comma separated encodings a server can read besides JSON;
+--                                       announced with every message, NULL for JSON only
+-- gt_net_exchange_log.bytes_on_wire     payload bytes as transmitted with a compact encoding
+-- gt_net_exchange_log.bytes_json        payload bytes the same data would have had as JSON
+
+ALTER TABLE gt_net
+  ADD COLUMN IF NOT EXISTS payload_encodings VARCHAR(64) DEFAULT NULL AFTER allow_server_creation;
+
+ALTER TABLE gt_net_exchange_log
+  ADD COLUMN IF NOT EXISTS bytes_on_wire BIGINT(20) NOT NULL DEFAULT 0 AFTER request_count,
+  ADD COLUMN IF NOT EXISTS bytes_json BIGINT(20) NOT NULL DEFAULT 0 AFTER bytes_on_wire;
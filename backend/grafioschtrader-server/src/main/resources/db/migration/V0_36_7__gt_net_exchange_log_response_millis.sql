@@ -0,0 +1,7 @@
+-- Response times of GTNet consumer requests, the lastprice supplier selection weights the peers by their latency.
+--
+-- gt_net_exchange_log.response_millis   milliseconds until the response of the remote server was received,
+--                                       summed over the aggregated requests; 0 when not measured
+
+ALTER TABLE gt_net_exchange_log
+  ADD COLUMN IF NOT EXISTS response_millis BIGINT(20) NOT NULL DEFAULT 0 AFTER bytes_json;
@@ -0,0 +1,40 @@
+-- Daily valuation series of the period performance report, materialized per tenant and per portfolio.
+--
+-- hold_period_valuation            one row per trading day with all quotes available, id_portfolio 0 is the
+--                                  whole tenant in its currency, other rows are in the currency of the portfolio
+-- hold_period_valuation_state      per tenant: dirty_from is the first day that must be recalculated (NULL when
+--                                  clean), computed_until the last day the series was calculated for; a tenant
+--                                  without a row has no series yet
+-- gt.period.valuation.scan.timestamp  history quotes changed after this time mark the series of the tenants holding
+--                                  them as dirty, the scan uses the new index on historyquote.create_modify_time
+
+CREATE TABLE IF NOT EXISTS hold_period_valuation (
+  id_tenant INT(11) NOT NULL,
+  id_portfolio INT(11) NOT NULL,
+  valuation_date DATE NOT NULL,
+  dividend_real_mc DOUBLE NOT NULL,
+  fee_real_mc DOUBLE NOT NULL,
+  interest_cashaccount_real_mc DOUBLE NOT NULL,
+  accumulate_reduce_mc DOUBLE NOT NULL,
+  cash_balance_mc DOUBLE NOT NULL,
+  external_cash_transfer_mc DOUBLE NOT NULL,
+  securities_mc DOUBLE NOT NULL,
+  margin_close_gain_mc DOUBLE NOT NULL,
+  security_risk_mc DOUBLE NOT NULL,
+  gain_mc DOUBLE NOT NULL,
+  PRIMARY KEY (id_tenant, id_portfolio, valuation_date),
+  CONSTRAINT FK_HoldPeriodValuation_Tenant FOREIGN KEY (id_tenant) REFERENCES tenant (id_tenant) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci;
+
+CREATE TABLE IF NOT EXISTS hold_period_valuation_state (
+  id_tenant INT(11) NOT NULL,
+  dirty_from DATE DEFAULT NULL,
+  computed_until DATE DEFAULT NULL,
+  PRIMARY KEY (id_tenant),
+  CONSTRAINT FK_HoldPeriodValuationState_Tenant FOREIGN KEY (id_tenant) REFERENCES tenant (id_tenant) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci;
+
+ALTER TABLE historyquote ADD KEY IF NOT EXISTS I_HistoryQuote_CreateModifyTime (create_modify_time);
+
+DELETE FROM globalparameters WHERE property_name = "gt.period.valuation.scan.timestamp";
+INSERT INTO globalparameters(property_name, property_date_time, changed_by_system) VALUES ("gt.period.valuation.scan.timestamp", CURRENT_TIMESTAMP, 1);
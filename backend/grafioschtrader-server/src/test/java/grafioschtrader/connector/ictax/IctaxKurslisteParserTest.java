@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -61,6 +63,35 @@ class IctaxKurslisteParserTest {
     assertEquals(2, payments.stream().filter(p -> !Boolean.TRUE.equals(p.getCapitalGain())).count());
   }
 
+  @Test
+  @DisplayName("Selective parse passes only the requested ISINs with their payments to the consumer")
+  void parsesSelectedIsinsOnly() throws Exception {
+    String xml = """
+        <?xml version="1.0" encoding="ISO-8859-1"?>
+        <kursliste>
+          <share id="1" isin="CH0038863350" securityGroup="SHARE" country="CH" currency="CHF">
+            <yearend id="2" quotationType="PIECE" taxValueCHF="85.2"/>
+            <payment id="3" paymentDate="2025-04-17" currency="CHF" paymentValueCHF="3.05"/>
+          </share>
+          <fund id="4" isin="IE00B9M04V95" securityGroup="FUND" country="IE" currency="USD">
+            <yearend id="5" quotationType="PIECE" taxValueCHF="41.7"/>
+            <payment id="6" paymentDate="2025-06-20" currency="USD" paymentValueCHF="0.31"/>
+          </fund>
+          <bond id="7" isin="CH0012032048" securityGroup="BOND" country="CH" currency="CHF"/>
+        </kursliste>
+        """;
+    List<IctaxSecurityTaxData> result = new ArrayList<>();
+
+    int count = new IctaxKurslisteParser().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.ISO_8859_1)),
+        Set.of("IE00B9M04V95", "CH0012032048"), 1, result::add);
+
+    assertEquals(2, count);
+    assertEquals(List.of("IE00B9M04V95", "CH0012032048"), result.stream().map(IctaxSecurityTaxData::getIsin).toList());
+    assertEquals(41.7, result.getFirst().getTaxValueChf());
+    assertEquals(1, result.getFirst().getPayments().size());
+    assertEquals(0.31, result.getFirst().getPayments().getFirst().getPaymentValueChf());
+  }
+
   @Test
   @DisplayName("Large Kursliste parses despite a strict jdk.xml.maxGeneralEntitySizeLimit")
   void parsesDocumentLargerThanEntitySizeLimit() throws Exception {
@@ -0,0 +1,131 @@
+package grafioschtrader.connector.instrument;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import grafioschtrader.connector.instrument.IFeedConnector.FeedSupport;
+import grafioschtrader.connector.instrument.IFeedConnector.RateLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests the queuing of batch updates per data provider in {@link FeedConnectorScheduler}, including the request metrics
+ * it records.
+ */
+class FeedConnectorSchedulerTest {
+
+  private final FeedConnectorScheduler scheduler = new FeedConnectorScheduler();
+
+  @Test
+  @DisplayName("Each connector keeps its concurrency limit while different connectors run in parallel")
+  void concurrencyPerConnectorTest() {
+    IFeedConnector serial = connector("gt.datafeed.serial", 1);
+    IFeedConnector parallel = connector("gt.datafeed.parallel", 3);
+    List<IFeedConnector> items = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      items.add(serial);
+      items.add(parallel);
+    }
+    Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+    AtomicInteger runningTotal = new AtomicInteger();
+    AtomicInteger maxRunningTotal = new AtomicInteger();
+    AtomicInteger processed = new AtomicInteger();
+
+    scheduler.executeAll(items, item -> item, item -> {
+      int now = running.computeIfAbsent(item.getID(), _ -> new AtomicInteger()).incrementAndGet();
+      maxRunning.computeIfAbsent(item.getID(), _ -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+      maxRunningTotal.accumulateAndGet(runningTotal.incrementAndGet(), Math::max);
+      sleep(30);
+      runningTotal.decrementAndGet();
+      running.get(item.getID()).decrementAndGet();
+      processed.incrementAndGet();
+    });
+
+    assertThat(processed.get()).isEqualTo(items.size());
+    assertThat(maxRunning.get(serial.getID()).get()).isEqualTo(1);
+    assertThat(maxRunning.get(parallel.getID()).get()).isBetween(2, 3);
+    assertThat(maxRunningTotal.get()).isGreaterThan(maxRunning.get(parallel.getID()).get());
+    assertThat(scheduler.getQueueDepth(serial.getID())).isZero();
+  }
+
+  @Test
+  @DisplayName("A connector without declared concurrency limit processes one instrument after the other")
+  void defaultConcurrencyTest() {
+    IFeedConnector connector = connector("gt.datafeed.undeclared", 0);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    scheduler.executeAll(List.of(1, 2, 3, 4), _ -> connector, _ -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(20);
+      running.decrementAndGet();
+    });
+
+    assertThat(maxRunning.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("A failing item does not stop the other items")
+  void failingItemTest() {
+    IFeedConnector connector = connector("gt.datafeed.failing", 2);
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+    scheduler.executeAll(List.of(1, 2, 3, 4), _ -> connector, item -> {
+      if (item == 2) {
+        throw new IllegalStateException("Provider not available");
+      }
+      processed.add(item);
+    });
+
+    assertThat(processed).containsExactlyInAnyOrder(1, 3, 4);
+  }
+
+  @Test
+  @DisplayName("Requests are counted by connector, feed and outcome, retries separately")
+  void recordRequestTest() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(scheduler, "meterRegistry", registry);
+    IFeedConnector connector = connector("gt.datafeed.metered", 1);
+
+    scheduler.recordRequest(connector, FeedSupport.FS_HISTORY, TimeUnit.MILLISECONDS.toNanos(20), true, false);
+    scheduler.recordRequest(connector, FeedSupport.FS_HISTORY, TimeUnit.MILLISECONDS.toNanos(40), false, true);
+    scheduler.recordRequest(connector, FeedSupport.FS_HISTORY, TimeUnit.MILLISECONDS.toNanos(30), true, true);
+    scheduler.recordRequest(connector, FeedSupport.FS_INTRA, TimeUnit.MILLISECONDS.toNanos(10), true, false);
+
+    assertThat(registry.get("gt.connector.request").tag("connector", "gt.datafeed.metered")
+        .tag("feed", "FS_HISTORY").tag("outcome", "success").timer().count()).isEqualTo(2);
+    assertThat(registry.get("gt.connector.request").tag("feed", "FS_HISTORY").tag("outcome", "error").timer()
+        .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40.0);
+    assertThat(registry.get("gt.connector.request").tag("feed", "FS_INTRA").timer().count()).isEqualTo(1);
+    assertThat(registry.get("gt.connector.retry").tag("feed", "FS_HISTORY").counter().count()).isEqualTo(2.0);
+    assertThat(registry.find("gt.connector.retry").tag("feed", "FS_INTRA").counter()).isNull();
+  }
+
+  private static IFeedConnector connector(String id, int maxConcurrent) {
+    IFeedConnector connector = mock(IFeedConnector.class);
+    when(connector.getID()).thenReturn(id);
+    when(connector.getRateLimit()).thenReturn(new RateLimit(0, null, maxConcurrent));
+    return connector;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
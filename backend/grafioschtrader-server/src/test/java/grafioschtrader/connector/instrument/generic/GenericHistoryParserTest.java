@@ -0,0 +1,182 @@
+package grafioschtrader.connector.instrument.generic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.entities.GenericConnectorEndpoint;
+import grafioschtrader.entities.GenericConnectorFieldMapping;
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.types.DateFormatType;
+import grafioschtrader.types.JsonDataStructure;
+import grafioschtrader.types.NumberFormatType;
+
+/**
+ * Parses small JSON and CSV responses of each supported structure with {@link GenericHistoryParser}, also when they are
+ * read from a stream. The field mappings of the endpoints are set up the way a user defines them for a generic
+ * connector.
+ */
+class GenericHistoryParserTest {
+
+  @Test
+  @DisplayName("Array of objects: nested paths are followed, other values skipped and rows without date dropped")
+  void arrayOfObjectsTest() {
+    GenericConnectorEndpoint endpoint = endpoint(JsonDataStructure.ARRAY_OF_OBJECTS, DateFormatType.PATTERN);
+    endpoint.setDateFormatPattern("dd.MM.yyyy");
+    endpoint.setJsonDataPath("result.values");
+    endpoint.setJsonStatusPath("status");
+    endpoint.setJsonStatusOkValue("ok");
+    endpoint.getFieldMappings().add(mapping("date", "day", null));
+    endpoint.getFieldMappings().add(mapping("close", "price.last", "100"));
+    endpoint.getFieldMappings().add(mapping("volume", "volume", null));
+    String body = """
+        {"meta":{"symbol":"NESN","values":[1,2]},"result":{"values":[
+          {"day":"02.01.2025","note":{"text":"x"},"price":{"last":10550},"volume":1200},
+          {"day":null,"price":{"last":10600}},
+          {"day":"03.01.2025","price":{"last":"10625.5","prev":[1,2]},"volume":900}]},"status":"ok"}""";
+
+    List<Historyquote> quotes = new GenericHistoryParser(endpoint).parseJson(body);
+
+    assertThat(quotes).hasSize(2);
+    assertThat(quotes.get(0).getDate()).isEqualTo(LocalDate.of(2025, 1, 2));
+    assertThat(quotes.get(0).getClose()).isEqualTo(105.5);
+    assertThat(quotes.get(0).getVolume()).isEqualTo(1200L);
+    assertThat(quotes.get(1).getClose()).isEqualTo(106.255);
+  }
+
+  @Test
+  @DisplayName("A status value other than the expected one fails the response")
+  void statusErrorTest() {
+    GenericConnectorEndpoint endpoint = endpoint(JsonDataStructure.ARRAY_OF_OBJECTS, DateFormatType.ISO_DATE);
+    endpoint.setJsonDataPath("values");
+    endpoint.setJsonStatusPath("status");
+    endpoint.setJsonStatusOkValue("ok");
+    endpoint.getFieldMappings().add(mapping("date", "date", null));
+
+    assertThatThrownBy(() -> new GenericHistoryParser(endpoint)
+        .parseJson("{\"status\":\"error\",\"values\":[{\"date\":\"2025-01-02\"}]}"))
+        .hasMessageContaining("Data provider status error: error");
+  }
+
+  @Test
+  @DisplayName("Parallel arrays: a row for each index present in all arrays")
+  void parallelArraysTest() {
+    GenericConnectorEndpoint endpoint = endpoint(JsonDataStructure.PARALLEL_ARRAYS, DateFormatType.UNIX_SECONDS);
+    endpoint.setJsonDataPath("chart.result.0");
+    endpoint.getFieldMappings().add(mapping("date", "timestamp", null));
+    endpoint.getFieldMappings().add(mapping("close", "indicators.quote.0.close", null));
+    long epochSecond = LocalDate.of(2025, 1, 2).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+    String body = "{\"chart\":{\"result\":[{\"indicators\":{\"quote\":[{\"close\":[10.5,null,11.25]}]},"
+        + "\"timestamp\":[" + epochSecond + "," + (epochSecond + 86400) + "]}],\"error\":null}}";
+
+    List<Historyquote> quotes = new GenericHistoryParser(endpoint).parseJson(body);
+
+    assertThat(quotes).extracting(Historyquote::getDate).containsExactly(LocalDate.of(2025, 1, 2),
+        LocalDate.of(2025, 1, 3));
+    assertThat(quotes.get(0).getClose()).isEqualTo(10.5);
+    assertThat(quotes.get(1).getClose()).isZero();
+  }
+
+  @Test
+  @DisplayName("Column row arrays: the column names may follow the rows in the response")
+  void columnRowArraysTest() {
+    GenericConnectorEndpoint endpoint = endpoint(JsonDataStructure.COLUMN_ROW_ARRAYS, DateFormatType.ISO_DATE);
+    endpoint.setJsonDataPath("dataset.data");
+    endpoint.setJsonColumnNamesPath("dataset.column_names");
+    endpoint.getFieldMappings().add(mapping("date", "Date", null));
+    endpoint.getFieldMappings().add(mapping("close", "Close", null));
+    String namesFirst = """
+        {"dataset":{"column_names":["Date","Open","Close"],"data":[["2025-01-02",1.0,2.5],["2025-01-03",1.5,3.5]]}}""";
+    String namesLast = """
+        {"dataset":{"data":[["2025-01-02",1.0,2.5],["2025-01-03",1.5,3.5]],"column_names":["Date","Open","Close"]}}""";
+
+    GenericHistoryParser parser = new GenericHistoryParser(endpoint);
+
+    for (String body : List.of(namesFirst, namesLast)) {
+      List<Historyquote> quotes = parser.parseJson(body);
+      assertThat(quotes).extracting(Historyquote::getClose).containsExactly(2.5, 3.5);
+    }
+  }
+
+  @Test
+  @DisplayName("CSV: header skipped, quoted German numbers of the mapped columns parsed")
+  void csvTest() {
+    GenericConnectorEndpoint endpoint = endpoint(null, DateFormatType.ISO_DATE);
+    endpoint.setNumberFormat(NumberFormatType.GERMAN);
+    endpoint.setCsvDelimiter(";");
+    endpoint.getFieldMappings().add(csvMapping("date", 0));
+    endpoint.getFieldMappings().add(csvMapping("close", 2));
+    String body = "Datum;Eröffnung;Schluss\r\n2025-01-02;1,00;\"1.234,50\"\r\n\r\n2025-01-03;2,00;17,25;\n";
+
+    List<Historyquote> quotes = new GenericHistoryParser(endpoint).parseCsv(body);
+
+    assertThat(quotes).extracting(Historyquote::getClose).containsExactly(1234.5, 17.25);
+    assertThat(quotes.get(1).getDate()).isEqualTo(LocalDate.of(2025, 1, 3));
+  }
+
+  @Test
+  @DisplayName("A response read from a stream in small pieces gives the same quotes as the whole body")
+  void streamedResponseTest() {
+    GenericConnectorEndpoint csvEndpoint = endpoint(null, DateFormatType.ISO_DATE);
+    csvEndpoint.getFieldMappings().add(csvMapping("date", 0));
+    csvEndpoint.getFieldMappings().add(csvMapping("close", 1));
+    String csv = "Date,Close\r\n2025-01-02,12.5\r\n2025-01-03,13.25\r\n";
+    GenericConnectorEndpoint jsonEndpoint = endpoint(JsonDataStructure.ARRAY_OF_OBJECTS, DateFormatType.ISO_DATE);
+    jsonEndpoint.getFieldMappings().add(mapping("date", "d", null));
+    jsonEndpoint.getFieldMappings().add(mapping("close", "c", null));
+    String json = """
+        [{"d":"2025-01-02","c":12.5},{"d":"2025-01-03","c":13.25}]""";
+
+    assertThat(new GenericHistoryParser(csvEndpoint).parseCsv(new PieceReader(csv)))
+        .extracting(Historyquote::getClose).containsExactly(12.5, 13.25);
+    assertThat(new GenericHistoryParser(jsonEndpoint).parseJson(new PieceReader(json)))
+        .extracting(Historyquote::getClose).containsExactly(12.5, 13.25);
+  }
+
+  private static GenericConnectorEndpoint endpoint(JsonDataStructure structure, DateFormatType dateFormatType) {
+    GenericConnectorEndpoint endpoint = new GenericConnectorEndpoint();
+    endpoint.setJsonDataStructure(structure);
+    endpoint.setDateFormatType(dateFormatType);
+    endpoint.setNumberFormat(NumberFormatType.PLAIN);
+    endpoint.setFieldMappings(new ArrayList<>());
+    return endpoint;
+  }
+
+  private static GenericConnectorFieldMapping mapping(String targetField, String sourceExpression,
+      String dividerExpression) {
+    GenericConnectorFieldMapping mapping = new GenericConnectorFieldMapping();
+    mapping.setTargetField(targetField);
+    mapping.setSourceExpression(sourceExpression);
+    mapping.setDividerExpression(dividerExpression);
+    return mapping;
+  }
+
+  private static GenericConnectorFieldMapping csvMapping(String targetField, int csvColumnIndex) {
+    GenericConnectorFieldMapping mapping = mapping(targetField, null, null);
+    mapping.setCsvColumnIndex((short) csvColumnIndex);
+    return mapping;
+  }
+
+  /**
+   * Returns at most three characters per read, like a response which arrives in small pieces.
+   */
+  private static class PieceReader extends StringReader {
+    PieceReader(String body) {
+      super(body);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      return super.read(buffer, offset, Math.min(length, 3));
+    }
+  }
+}
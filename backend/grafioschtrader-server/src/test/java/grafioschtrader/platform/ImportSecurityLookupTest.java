@@ -0,0 +1,80 @@
+package grafioschtrader.platform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import grafioschtrader.entities.ImportTransactionPos;
+import grafioschtrader.entities.Security;
+import grafioschtrader.repository.SecurityJpaRepository;
+import grafioschtrader.types.ImportKnownOtherFlags;
+
+/**
+ * Checks that {@link ImportSecurityLookup} resolves the securities of all import positions with one query each for
+ * ISIN, ticker and valor and still returns the same security as the lookup of a single position.
+ */
+@ExtendWith(MockitoExtension.class)
+class ImportSecurityLookupTest {
+
+  @Mock
+  private SecurityJpaRepository securityJpaRepository;
+
+  @Test
+  @DisplayName("Securities of all positions are loaded once and resolved like the single lookup")
+  void resolveTest() {
+    Security nestleChf = security("CH0038863350", "NESN", "CHF");
+    Security nestleEur = security("CH0038863350", "NESN", "EUR");
+    Security apple = security("US0378331005", "AAPL", "USD");
+    Security tesla = security(null, "TSLA", "USD");
+    when(securityJpaRepository.findAllByIsinIn(Set.of("CH0038863350", "us0378331005")))
+        .thenReturn(List.of(nestleChf, nestleEur, apple));
+    when(securityJpaRepository.findAllByTickerSymbolIn(Set.of("TSLA"))).thenReturn(List.of(tesla));
+
+    ImportTransactionPos nestlePos = position("CH0038863350", null, "EUR");
+    ImportTransactionPos applePos = position("us0378331005", null, "CHF");
+    ImportTransactionPos teslaPos = position(null, "TSLA:NASDAQ", "USD");
+    ImportTransactionPos unknownPos = position(null, "XYZ", "USD");
+    List<ImportTransactionPos> positions = List.of(nestlePos, applePos, teslaPos, unknownPos);
+
+    ImportSecurityLookup importSecurityLookup = ImportSecurityLookup.load(positions, securityJpaRepository);
+    positions.forEach(importSecurityLookup::setSecurityToImportWhenPossible);
+
+    assertThat(nestlePos.getSecurity()).isSameAs(nestleEur);
+    assertThat(nestlePos.getKnownOtherFlags()).doesNotContain(ImportKnownOtherFlags.SECURITY_CURRENCY_MISMATCH);
+    assertThat(applePos.getSecurity()).isSameAs(apple);
+    assertThat(applePos.getKnownOtherFlags()).contains(ImportKnownOtherFlags.SECURITY_CURRENCY_MISMATCH);
+    assertThat(teslaPos.getSecurity()).isSameAs(tesla);
+    assertThat(unknownPos.getSecurity()).isNull();
+    verify(securityJpaRepository, times(1)).findAllByIsinIn(anySet());
+    verify(securityJpaRepository, times(1)).findAllByTickerSymbolIn(anySet());
+  }
+
+  private static Security security(String isin, String tickerSymbol, String currency) {
+    Security security = new Security();
+    security.setIsin(isin);
+    security.setTickerSymbol(tickerSymbol);
+    security.setCurrency(currency);
+    return security;
+  }
+
+  private static ImportTransactionPos position(String isin, String symbolImp, String currencyAccount) {
+    ImportTransactionPos importTransactionPos = new ImportTransactionPos(1, "export.csv", 1);
+    importTransactionPos.setIsin(isin);
+    importTransactionPos.setSymbolImp(symbolImp);
+    importTransactionPos.setCurrencyAccount(currencyAccount);
+    importTransactionPos.setKnownOtherFlags(EnumSet.noneOf(ImportKnownOtherFlags.class));
+    return importTransactionPos;
+  }
+}
@@ -0,0 +1,205 @@
+package grafioschtrader.priceupdate.historyquote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
+import grafioschtrader.connector.instrument.IFeedConnector;
+import grafioschtrader.connector.instrument.IFeedConnector.FeedIdentifier;
+import grafioschtrader.connector.instrument.IFeedConnector.FeedSupport;
+import grafioschtrader.connector.instrument.IFeedConnector.RateLimit;
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.entities.Security;
+import grafioschtrader.entities.Stockexchange;
+import grafioschtrader.repository.HistoryquoteAppendWriter;
+import grafioschtrader.repository.HistoryquoteAppendWriter.AppendQueue;
+import grafioschtrader.service.GlobalparametersService;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Tests the history quote update of {@link HistoryquoteThruConnector} through the append writer. A connector with
+ * batch support loads several instruments with one request, each instrument must get the same quotes and the same
+ * failure handling as with a request of its own.
+ */
+class HistoryquoteThruConnectorTest {
+
+  private static final String ID_CONNECTOR = "gt.datafeed.batch";
+  private static final int ID_MISSING = 3;
+
+  private final LocalDate today = LocalDate.now();
+
+  @Test
+  @DisplayName("A batch appends the same quotes as single requests, a missing instrument fails like a failed request")
+  void batchTest() throws Exception {
+    UpdateResult batch = update(5, false);
+    UpdateResult single = update(1, false);
+
+    assertThat(batch.appended()).isEqualTo(single.appended()).containsOnlyKeys(1, 2, 4);
+    assertThat(batch.appended().get(1)).hasSize(10).first().isEqualTo(today.minusDays(9));
+    assertThat(batch.appended().get(2)).hasSize(5).first().isEqualTo(today.minusDays(4));
+    assertThat(batch.failed()).isEqualTo(single.failed()).containsExactly(ID_MISSING);
+    assertThat(batch.updated()).isEqualTo(single.updated()).containsExactly(1, 2, 4);
+    assertThat(batch.retryHistoryLoad()).isEqualTo(single.retryHistoryLoad())
+        .containsEntry(ID_MISSING, (short) 1).containsEntry(1, (short) 0);
+  }
+
+  @Test
+  @DisplayName("A failing batch request counts as failed for all its instruments")
+  void failingBatchTest() throws Exception {
+    UpdateResult batch = update(5, true);
+    UpdateResult single = update(1, true);
+
+    assertThat(batch.appended()).isEmpty();
+    assertThat(batch.failed()).isEqualTo(single.failed()).containsExactly(1, 2, 3, 4);
+    assertThat(batch.updated()).isEmpty();
+    assertThat(single.updated()).isEmpty();
+    assertThat(batch.retryHistoryLoad()).isEqualTo(single.retryHistoryLoad())
+        .allSatisfy((_, retry) -> assertThat(retry).isEqualTo((short) 1));
+  }
+
+  /**
+   * Updates four instruments, the third is not delivered by the data provider. The second is five days more recent than
+   * the others.
+   */
+  private UpdateResult update(int maxBatchSize, boolean providerFails) throws Exception {
+    IFeedConnector feedConnector = connector(maxBatchSize);
+    @SuppressWarnings("unchecked")
+    IHistoryquoteEntityAccess<Security> entityAccess = mock(IHistoryquoteEntityAccess.class);
+    when(entityAccess.getHistoryQuote(any(), any(), any(), any())).thenAnswer(invocation -> {
+      Security security = invocation.getArgument(0);
+      if (providerFails || security.getIdSecuritycurrency() == ID_MISSING) {
+        throw new IllegalStateException("Provider not available");
+      }
+      return providerQuotes(invocation.getArgument(1), invocation.getArgument(2));
+    });
+    when(entityAccess.getHistoryQuotes(anyList(), any(), any(), any())).thenAnswer(invocation -> {
+      if (providerFails) {
+        throw new IllegalStateException("Provider not available");
+      }
+      Map<Integer, List<Historyquote>> quotesMap = new HashMap<>();
+      for (Security security : invocation.<List<Security>>getArgument(0)) {
+        if (security.getIdSecuritycurrency() != ID_MISSING) {
+          quotesMap.put(security.getIdSecuritycurrency(),
+              providerQuotes(invocation.getArgument(1), invocation.getArgument(2)));
+        }
+      }
+      return quotesMap;
+    });
+
+    Map<Integer, List<Historyquote>> appended = new TreeMap<>();
+    Set<Integer> failed = new TreeSet<>();
+    AppendQueue appendQueue = mock(AppendQueue.class);
+    doAnswer(invocation -> {
+      synchronized (appended) {
+        appended.put(invocation.getArgument(0), invocation.getArgument(1));
+      }
+      return null;
+    }).when(appendQueue).append(any(), anyList(), anyLong());
+    doAnswer(invocation -> {
+      synchronized (failed) {
+        failed.add(invocation.getArgument(0));
+      }
+      return null;
+    }).when(appendQueue).failed(any(), anyLong());
+    HistoryquoteAppendWriter historyquoteAppendWriter = mock(HistoryquoteAppendWriter.class);
+    when(historyquoteAppendWriter.open(anyString())).thenReturn(appendQueue);
+    when(historyquoteAppendWriter.getIdsWithLegacyHistory()).thenReturn(Set.of());
+
+    HistoryquoteThruConnector<Security> historyquoteThruConnector = new HistoryquoteThruConnector<>(
+        mock(EntityManager.class), mock(GlobalparametersService.class), List.of(feedConnector), entityAccess,
+        Security.class, null, new FeedConnectorScheduler(), historyquoteAppendWriter);
+    List<Security> securities = List.of(security(1), security(2), security(3), security(4));
+    List<SecurityCurrencyMaxHistoryquoteData<Security>> maxDataList = securities.stream()
+        .map(security -> maxData(security, today.minusDays(security.getIdSecuritycurrency() == 2 ? 5 : 10)))
+        .toList();
+
+    List<Security> updated = historyquoteThruConnector.fillHistoryquoteForSecuritiesCurrencies(maxDataList, today,
+        true);
+
+    if (maxBatchSize > 1) {
+      verify(entityAccess, never()).getHistoryQuote(any(), any(), any(), any());
+    } else {
+      verify(entityAccess, never()).getHistoryQuotes(anyList(), any(), any(), any());
+    }
+    Map<Integer, List<LocalDate>> appendedDates = new TreeMap<>();
+    appended.forEach((idSecuritycurrency, historyquotes) -> {
+      assertThat(historyquotes).extracting(Historyquote::getIdSecuritycurrency).containsOnly(idSecuritycurrency);
+      appendedDates.put(idSecuritycurrency, historyquotes.stream().map(Historyquote::getDate).toList());
+    });
+    Map<Integer, Short> retryHistoryLoad = new TreeMap<>();
+    securities.forEach(security -> retryHistoryLoad.put(security.getIdSecuritycurrency(),
+        security.getRetryHistoryLoad()));
+    return new UpdateResult(appendedDates, failed,
+        new TreeSet<>(updated.stream().map(Security::getIdSecuritycurrency).toList()), retryHistoryLoad);
+  }
+
+  /**
+   * Returns a quote for every day of the requested period and a few days before, like data providers which do not cut
+   * the response exactly.
+   */
+  private List<Historyquote> providerQuotes(LocalDate fromDate, LocalDate toDate) {
+    List<Historyquote> historyquotes = new ArrayList<>();
+    for (LocalDate date = fromDate.minusDays(3); !date.isAfter(toDate); date = date.plusDays(1)) {
+      Historyquote historyquote = new Historyquote(date);
+      historyquote.setClose(100.0 + date.getDayOfMonth());
+      historyquotes.add(historyquote);
+    }
+    return historyquotes;
+  }
+
+  private static IFeedConnector connector(int maxBatchSize) {
+    IFeedConnector connector = mock(IFeedConnector.class);
+    when(connector.getID()).thenReturn(ID_CONNECTOR);
+    when(connector.getSecuritycurrencyFeedSupport(FeedSupport.FS_HISTORY))
+        .thenReturn(new FeedIdentifier[] { FeedIdentifier.SECURITY_URL });
+    when(connector.getRateLimit()).thenReturn(RateLimit.UNLIMITED);
+    when(connector.getMaxBatchSize(FeedSupport.FS_HISTORY)).thenReturn(maxBatchSize);
+    return connector;
+  }
+
+  private static Security security(int id) {
+    Security security = new Security();
+    security.setIdSecuritycurrency(id);
+    security.setIdConnectorHistory(ID_CONNECTOR);
+    security.setStockexchange(new Stockexchange());
+    return security;
+  }
+
+  private static SecurityCurrencyMaxHistoryquoteData<Security> maxData(Security security, LocalDate date) {
+    return new SecurityCurrencyMaxHistoryquoteData<>() {
+      @Override
+      public Security getSecurityCurrency() {
+        return security;
+      }
+
+      @Override
+      public LocalDate getDate() {
+        return date;
+      }
+    };
+  }
+
+  private record UpdateResult(Map<Integer, List<LocalDate>> appended, Set<Integer> failed, Set<Integer> updated,
+      Map<Integer, Short> retryHistoryLoad) {
+  }
+}
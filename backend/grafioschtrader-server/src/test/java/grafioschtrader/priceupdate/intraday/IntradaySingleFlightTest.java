@@ -0,0 +1,100 @@
+package grafioschtrader.priceupdate.intraday;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.entities.Security;
+
+/**
+ * Concurrent requests for the intraday price of the same instrument must share one update of {@link
+ * IntradaySingleFlight}, while different instruments and later requests are updated on their own.
+ */
+class IntradaySingleFlightTest {
+
+  private final IntradaySingleFlight intradaySingleFlight = new IntradaySingleFlight();
+
+  @Test
+  @DisplayName("A request for an instrument whose update is running waits for it and receives its last price")
+  void coalescedTest() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger fetches = new AtomicInteger();
+    Security updated = security(1);
+    updated.setSLast(12.5);
+    updated.setSVolume(300L);
+    updated.setRetryIntraLoad((short) 0);
+    Security secondSecurity = security(1);
+    secondSecurity.setRetryIntraLoad((short) 2);
+
+    CompletableFuture<Security> first = CompletableFuture.supplyAsync(() -> intradaySingleFlight.execute(security(1),
+        _ -> {
+          fetches.incrementAndGet();
+          started.countDown();
+          await(release);
+          return updated;
+        }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Security> second = CompletableFuture
+        .supplyAsync(() -> intradaySingleFlight.execute(secondSecurity, s -> {
+          fetches.incrementAndGet();
+          return s;
+        }));
+    while (intradaySingleFlight.getCoalescedCount() == 0) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(secondSecurity);
+    assertThat(secondSecurity.getSLast()).isEqualTo(12.5);
+    assertThat(secondSecurity.getSVolume()).isEqualTo(300L);
+    assertThat(secondSecurity.getRetryIntraLoad()).isZero();
+    assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(updated);
+    assertThat(fetches.get()).isEqualTo(1);
+    assertThat(intradaySingleFlight.getIssuedCount()).isEqualTo(1);
+    assertThat(intradaySingleFlight.getCoalescedCount()).isEqualTo(1);
+    assertThat(intradaySingleFlight.isInFlight(1)).isFalse();
+  }
+
+  @Test
+  @DisplayName("Sequential requests and different instruments are updated each on their own")
+  void notCoalescedTest() {
+    intradaySingleFlight.execute(security(1), s -> s);
+    intradaySingleFlight.execute(security(1), s -> s);
+    intradaySingleFlight.execute(security(2), s -> s);
+
+    assertThat(intradaySingleFlight.getIssuedCount()).isEqualTo(3);
+    assertThat(intradaySingleFlight.getCoalescedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("A failed update releases the instrument")
+  void failedTest() {
+    assertThatThrownBy(() -> intradaySingleFlight.execute(security(3), _ -> {
+      throw new IllegalStateException("Provider not available");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(intradaySingleFlight.isInFlight(3)).isFalse();
+  }
+
+  private static Security security(int id) {
+    Security security = new Security();
+    security.setIdSecuritycurrency(id);
+    return security;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
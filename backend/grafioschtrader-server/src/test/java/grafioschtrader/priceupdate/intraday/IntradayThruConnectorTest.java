@@ -0,0 +1,121 @@
+package grafioschtrader.priceupdate.intraday;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.connector.instrument.FeedConnectorScheduler;
+import grafioschtrader.connector.instrument.IFeedConnector;
+import grafioschtrader.connector.instrument.IFeedConnector.FeedIdentifier;
+import grafioschtrader.connector.instrument.IFeedConnector.FeedSupport;
+import grafioschtrader.connector.instrument.IFeedConnector.RateLimit;
+import grafioschtrader.entities.Security;
+import grafioschtrader.repository.SecurityCurrencypairJpaRepository;
+import grafioschtrader.service.GlobalparametersService;
+
+/**
+ * Tests the intraday update of {@link IntradayThruConnector}. A connector with batch support receives the instruments
+ * in batches, an instrument missing in a response or a failing batch raise the retry counter like a failed single
+ * request.
+ */
+class IntradayThruConnectorTest {
+
+  private static final String ID_CONNECTOR = "gt.datafeed.batch";
+
+  @SuppressWarnings("unchecked")
+  private final SecurityCurrencypairJpaRepository<Security> jpaRepository = mock(
+      SecurityCurrencypairJpaRepository.class);
+  @SuppressWarnings("unchecked")
+  private final IIntradayEntityAccess<Security> intraEntityAccess = mock(IIntradayEntityAccess.class);
+  private final List<List<Integer>> requestedIds = new ArrayList<>();
+
+  @Test
+  @DisplayName("Instruments of a batch connector are requested in batches, one missing in a response counts as failed")
+  void batchTest() throws Exception {
+    IntradayThruConnector<Security> intradayThruConnector = intradayThruConnector(connector(2));
+    when(intraEntityAccess.updateIntraSecurityCurrencies(anyList(), any())).thenAnswer(invocation -> {
+      List<Security> securities = invocation.getArgument(0);
+      synchronized (requestedIds) {
+        requestedIds.add(securities.stream().map(Security::getIdSecuritycurrency).toList());
+      }
+      return securities.stream().filter(security -> security.getIdSecuritycurrency() != 3).toList();
+    });
+    List<Security> securities = List.of(security(1), security(2), security(3), security(4), security(5));
+
+    List<Security> updated = intradayThruConnector.updateLastPriceOfSecuritycurrency(securities, (short) 3, false);
+
+    assertThat(updated).hasSize(5);
+    assertThat(requestedIds).hasSize(3).allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(2));
+    assertThat(requestedIds.stream().flatMap(List::stream)).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+    assertThat(updated).filteredOn(security -> security.getRetryIntraLoad() == 1)
+        .extracting(Security::getIdSecuritycurrency).containsExactly(3);
+    verify(intraEntityAccess, never()).updateIntraSecurityCurrency(any(), any());
+  }
+
+  @Test
+  @DisplayName("A failing batch request counts as failed for all its instruments")
+  void failingBatchTest() throws Exception {
+    IntradayThruConnector<Security> intradayThruConnector = intradayThruConnector(connector(5));
+    when(intraEntityAccess.updateIntraSecurityCurrencies(anyList(), any()))
+        .thenThrow(new IllegalStateException("Provider not available"));
+
+    List<Security> updated = intradayThruConnector
+        .updateLastPriceOfSecuritycurrency(List.of(security(1), security(2), security(3)), (short) 3, false);
+
+    assertThat(updated).hasSize(3)
+        .allSatisfy(security -> assertThat(security.getRetryIntraLoad()).isEqualTo((short) 1));
+  }
+
+  @Test
+  @DisplayName("Instruments of a connector without batch support are updated one by one")
+  void singleTest() throws Exception {
+    IFeedConnector feedConnector = connector(1);
+    IntradayThruConnector<Security> intradayThruConnector = intradayThruConnector(feedConnector);
+    List<Security> securities = List.of(security(1), security(2));
+
+    List<Security> updated = intradayThruConnector.updateLastPriceOfSecuritycurrency(securities, (short) 3, false);
+
+    assertThat(updated).hasSize(2);
+    verify(intraEntityAccess, never()).updateIntraSecurityCurrencies(anyList(), any());
+    for (Security security : securities) {
+      verify(intraEntityAccess).updateIntraSecurityCurrency(security, feedConnector);
+    }
+  }
+
+  private IntradayThruConnector<Security> intradayThruConnector(IFeedConnector feedConnector) {
+    when(jpaRepository.claimIntradayUpdate(any(), any(), any())).thenReturn(1);
+    when(jpaRepository.save(any(Security.class))).then(returnsFirstArg());
+    return new IntradayThruConnector<>(jpaRepository, mock(GlobalparametersService.class), List.of(feedConnector),
+        intraEntityAccess, null, new FeedConnectorScheduler(), new IntradaySingleFlight());
+  }
+
+  private static IFeedConnector connector(int maxBatchSize) {
+    IFeedConnector connector = mock(IFeedConnector.class);
+    when(connector.getID()).thenReturn(ID_CONNECTOR);
+    when(connector.getSecuritycurrencyFeedSupport(FeedSupport.FS_INTRA))
+        .thenReturn(new FeedIdentifier[] { FeedIdentifier.SECURITY_URL });
+    when(connector.getRateLimit()).thenReturn(RateLimit.UNLIMITED);
+    when(connector.getMaxBatchSize(FeedSupport.FS_INTRA)).thenReturn(maxBatchSize);
+    return connector;
+  }
+
+  private static Security security(int id) {
+    Security security = new Security();
+    security.setIdSecuritycurrency(id);
+    security.setIdConnectorIntra(ID_CONNECTOR);
+    security.setActiveToDate(LocalDate.now().plusYears(1));
+    return security;
+  }
+}
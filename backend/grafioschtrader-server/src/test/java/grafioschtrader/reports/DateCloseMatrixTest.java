@@ -0,0 +1,84 @@
+package grafioschtrader.reports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.types.SamplingPeriodType;
+
+/**
+ * Tests how {@link DateCloseMatrix.Builder} pivots the closing prices of several instruments into a matrix of the
+ * trading days common to all of them.
+ */
+class DateCloseMatrixTest {
+
+  @Test
+  @DisplayName("Only trading days common to all instruments are contained")
+  void intersectionTest() {
+    DateCloseMatrix.Builder builder = new DateCloseMatrix.Builder(new int[] { 7, 3 });
+    builder.add(3, LocalDate.of(2024, 1, 2), 10.0);
+    builder.add(3, LocalDate.of(2024, 1, 3), 11.0);
+    builder.add(3, LocalDate.of(2024, 1, 5), 12.0);
+    builder.add(7, LocalDate.of(2024, 1, 3), 100.0);
+    builder.add(7, LocalDate.of(2024, 1, 4), 101.0);
+    builder.add(7, LocalDate.of(2024, 1, 5), 102.0);
+    DateCloseMatrix matrix = builder.build(SamplingPeriodType.DAILY_RETURNS, false);
+
+    assertThat(matrix.size()).isEqualTo(2);
+    assertThat(matrix.getColumns()).isEqualTo(2);
+    assertThat(matrix.getFirstDate()).isEqualTo(LocalDate.of(2024, 1, 3));
+    assertThat(matrix.getLastDate()).isEqualTo(LocalDate.of(2024, 1, 5));
+    assertThat(matrix.getRow(0)).containsExactly(100.0, 11.0);
+    assertThat(matrix.getRow(1)).containsExactly(102.0, 12.0);
+    assertThat(matrix.indexOf(LocalDate.of(2024, 1, 4))).isNegative();
+  }
+
+  @Test
+  @DisplayName("The same instrument may occupy more than one column")
+  void duplicateColumnTest() {
+    DateCloseMatrix.Builder builder = new DateCloseMatrix.Builder(new int[] { 5, 5, 9 });
+    builder.add(5, LocalDate.of(2024, 2, 1), 1.5);
+    builder.add(9, LocalDate.of(2024, 2, 1), 0.9);
+    DateCloseMatrix matrix = builder.build(SamplingPeriodType.DAILY_RETURNS, false);
+
+    assertThat(matrix.size()).isEqualTo(1);
+    assertThat(matrix.getRow(0)).containsExactly(1.5, 1.5, 0.9);
+  }
+
+  @Test
+  @DisplayName("Monthly sampling takes the first or the last common trading day of a month")
+  void monthlySamplingTest() {
+    DateCloseMatrix.Builder builder = new DateCloseMatrix.Builder(new int[] { 1 });
+    double close = 1.0;
+    for (int month = 1; month <= 2; month++) {
+      for (int day = 1; day <= 28; day++) {
+        builder.add(1, LocalDate.of(2023, month, day), close++);
+      }
+    }
+    builder.add(1, LocalDate.of(2023, 3, 30), close);
+
+    DateCloseMatrix first = builder.build(SamplingPeriodType.MONTHLY_RETURNS, false);
+    assertThat(first.getDates()).containsExactly(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1),
+        LocalDate.of(2023, 3, 30));
+    DateCloseMatrix last = builder.build(SamplingPeriodType.MONTHLY_RETURNS, true);
+    assertThat(last.getDates()).containsExactly(LocalDate.of(2023, 1, 28), LocalDate.of(2023, 2, 28),
+        LocalDate.of(2023, 3, 30));
+    assertThat(last.getRow(1)).containsExactly(56.0);
+
+    DateCloseMatrix annual = builder.build(SamplingPeriodType.ANNUAL_RETURNS, false);
+    assertThat(annual.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("A missing instrument series results in an empty matrix")
+  void emptyTest() {
+    DateCloseMatrix.Builder builder = new DateCloseMatrix.Builder(new int[] { 1, 2 });
+    builder.add(1, LocalDate.of(2024, 1, 2), 10.0);
+    DateCloseMatrix matrix = builder.build(SamplingPeriodType.DAILY_RETURNS, false);
+    assertThat(matrix.isEmpty()).isTrue();
+    assertThat(ReportHelper.transformToPercentageChange(matrix, 2)).isEmpty();
+  }
+}
@@ -0,0 +1,115 @@
+package grafioschtrader.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.Invocation;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import grafioschtrader.entities.Historyquote;
+import grafioschtrader.repository.HistoryquoteAppendWriter.AppendQueue;
+import grafioschtrader.types.HistoryquoteCreateType;
+
+/**
+ * Tests the append of downloaded history quotes by {@link HistoryquoteAppendWriter}. The quotes of several instruments
+ * share multi-row insert statements and the retry counters are updated in bulk.
+ */
+@ExtendWith(MockitoExtension.class)
+class HistoryquoteAppendWriterTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private HistoryquoteAppendWriter historyquoteAppendWriter;
+
+  @Test
+  @DisplayName("The quotes of several instruments are written with few statements and the retry counters in bulk")
+  void appendTest() {
+    AppendQueue appendQueue = historyquoteAppendWriter.open("test");
+    appendQueue.append(1, quotes(1, 700), 1_000_000);
+    appendQueue.append(2, quotes(2, 700), 1_000_000);
+    appendQueue.append(3, List.of(), 1_000_000);
+    appendQueue.failed(4, 1_000_000);
+    appendQueue.close();
+
+    List<Object[]> inserts = getUpdates("INSERT INTO historyquote");
+    assertThat(inserts).hasSizeBetween(2, 3);
+    assertThat(inserts.stream().mapToInt(args -> args.length).sum()).isEqualTo(1400 * 8);
+    assertThat(getUpdates("UPDATE securitycurrency SET retry_history_load=0").stream().flatMap(Arrays::stream))
+        .containsExactlyInAnyOrder(1, 2, 3);
+    assertThat(getUpdates("UPDATE securitycurrency SET retry_history_load=retry_history_load+1").stream()
+        .flatMap(Arrays::stream)).containsExactly(4);
+    assertThat(appendQueue.getStatistics().rows()).isEqualTo(1400);
+    assertThat(appendQueue.getStatistics().instruments()).isEqualTo(4);
+    assertThat(appendQueue.getStatistics().networkMillis()).isEqualTo(4);
+    assertThat(appendQueue.isFailed(4)).isTrue();
+    assertThat(appendQueue.isFailed(1)).isFalse();
+  }
+
+  @Test
+  @DisplayName("A failed write increases the retry counter of its instruments")
+  void failedWriteTest() {
+    when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+      if (invocation.<String>getArgument(0).startsWith("INSERT INTO historyquote")) {
+        throw new DataIntegrityViolationException("Data too long");
+      }
+      return 1;
+    });
+    AppendQueue appendQueue = historyquoteAppendWriter.open("test");
+    appendQueue.append(5, quotes(5, 3), 0);
+    appendQueue.close();
+
+    assertThat(appendQueue.isFailed(5)).isTrue();
+    assertThat(appendQueue.getStatistics().rows()).isZero();
+    assertThat(getUpdates("UPDATE securitycurrency SET retry_history_load=retry_history_load+1").stream()
+        .flatMap(Arrays::stream)).containsExactly(5);
+  }
+
+  @Test
+  @DisplayName("The insert statement has a row of placeholders for each quote")
+  void createInsertSqlTest() {
+    String sql = HistoryquoteAppendWriter.createInsertSql(2);
+    assertThat(sql).contains("VALUES (?,?,?,?,?,?,?,?),(?,?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE");
+    assertThat(HistoryquoteAppendWriter.createInClause(3)).isEqualTo("(?,?,?)");
+  }
+
+  private List<Object[]> getUpdates(String sqlStart) {
+    List<Object[]> updates = new ArrayList<>();
+    for (Invocation invocation : mockingDetails(jdbcTemplate).getInvocations()) {
+      Object[] rawArguments = invocation.getRawArguments();
+      if (invocation.getMethod().getName().equals("update") && ((String) rawArguments[0]).startsWith(sqlStart)) {
+        updates.add((Object[]) rawArguments[1]);
+      }
+    }
+    return updates;
+  }
+
+  private static List<Historyquote> quotes(Integer idSecuritycurrency, int count) {
+    List<Historyquote> historyquotes = new ArrayList<>();
+    LocalDate date = LocalDate.of(2020, 1, 1);
+    for (int i = 0; i < count; i++) {
+      historyquotes.add(new Historyquote(idSecuritycurrency, HistoryquoteCreateType.CONNECTOR_CREATED,
+          date.plusDays(i), 100 + i));
+    }
+    return historyquotes;
+  }
+}
@@ -0,0 +1,62 @@
+package grafioschtrader.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.repository.HoldPeriodValuationStore.ValuationState;
+
+/**
+ * Tests the dirty range tracking of {@link HoldPeriodValuationStore}: which days of a stored period valuation may be
+ * read, from which day the series has to be calculated again and the state a calculation claims.
+ */
+class HoldPeriodValuationStoreTest {
+
+  private static final LocalDate COMPUTED_UNTIL = LocalDate.of(2026, 3, 6);
+
+  @Test
+  @DisplayName("A clean series is valid up to the last calculated day and extended from the following day")
+  void cleanSeriesTest() {
+    ValuationState state = new ValuationState(null, COMPUTED_UNTIL);
+
+    assertThat(state.isValidUntil(COMPUTED_UNTIL)).isTrue();
+    assertThat(state.isValidUntil(COMPUTED_UNTIL.plusDays(1))).isFalse();
+    assertThat(state.recalculateFrom()).isEqualTo(COMPUTED_UNTIL.plusDays(1));
+  }
+
+  @Test
+  @DisplayName("A dirty day invalidates the series from that day on, the days before remain readable")
+  void dirtySeriesTest() {
+    LocalDate dirtyFrom = LocalDate.of(2025, 11, 3);
+    ValuationState state = new ValuationState(dirtyFrom, COMPUTED_UNTIL);
+
+    assertThat(state.isValidUntil(dirtyFrom.minusDays(1))).isTrue();
+    assertThat(state.isValidUntil(dirtyFrom)).isFalse();
+    assertThat(state.recalculateFrom()).isEqualTo(dirtyFrom);
+    assertThat(new ValuationState(COMPUTED_UNTIL.plusDays(5), COMPUTED_UNTIL).recalculateFrom())
+        .isEqualTo(COMPUTED_UNTIL.plusDays(1));
+  }
+
+  @Test
+  @DisplayName("Claiming moves the first dirty day into the last calculated day")
+  void claimTest() {
+    LocalDate dirtyFrom = LocalDate.of(2025, 11, 3);
+
+    assertThat(new ValuationState(dirtyFrom, COMPUTED_UNTIL).claim())
+        .isEqualTo(new ValuationState(null, dirtyFrom.minusDays(1)));
+    assertThat(new ValuationState(dirtyFrom, COMPUTED_UNTIL).claim().recalculateFrom()).isEqualTo(dirtyFrom);
+    assertThat(new ValuationState(dirtyFrom, null).claim()).isEqualTo(new ValuationState(null, null));
+  }
+
+  @Test
+  @DisplayName("A series without calculated day is never valid and calculated as a whole")
+  void invalidatedSeriesTest() {
+    ValuationState state = new ValuationState(null, null);
+
+    assertThat(state.isValidUntil(LocalDate.of(2000, 1, 3))).isFalse();
+    assertThat(state.recalculateFrom()).isNull();
+  }
+}
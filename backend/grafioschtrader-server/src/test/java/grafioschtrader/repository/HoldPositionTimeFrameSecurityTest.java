@@ -0,0 +1,100 @@
+package grafioschtrader.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.entities.HoldSecurityaccountSecurity;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository.ITransactionSecuritySplit;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository.TransactionSecuritySplit;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepositoryImpl.CurrencypairSecuritySplit;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepositoryImpl.HoldPositionTimeFrameSecurity;
+
+/**
+ * Replaying the transactions from a date on top of the stored periods before that date must give the same holdings
+ * series as a replay of all transactions of the security account.
+ */
+class HoldPositionTimeFrameSecurityTest {
+
+  private static final Integer ID_SECURITY = 10;
+  private static final String CHF = "CHF";
+
+  private final List<ITransactionSecuritySplit> events = List.of(
+      tx(LocalDate.of(2023, 1, 10), 100), tx(LocalDate.of(2023, 3, 1), 50), split(LocalDate.of(2023, 5, 2), 2),
+      tx(LocalDate.of(2023, 6, 15), -300), tx(LocalDate.of(2023, 9, 1), 20), tx(LocalDate.of(2023, 11, 20), -5));
+
+  @Test
+  @DisplayName("A transaction inserted while the position is open continues the preceding period")
+  void insertIntoOpenPositionTest() {
+    assertIncrementalSameAsFull(LocalDate.of(2023, 4, 3), -30);
+  }
+
+  @Test
+  @DisplayName("A transaction on the day after the last change reopens the preceding period")
+  void insertRightAfterLastChangeTest() {
+    assertIncrementalSameAsFull(LocalDate.of(2023, 3, 2), 10);
+  }
+
+  @Test
+  @DisplayName("A transaction after the position was closed starts from zero units")
+  void insertAfterClosedPositionTest() {
+    assertIncrementalSameAsFull(LocalDate.of(2023, 7, 20), 40);
+  }
+
+  private void assertIncrementalSameAsFull(LocalDate fromDate, double units) {
+    List<HoldSecurityaccountSecurity> stored = replay(events, null, fromDate);
+    List<ITransactionSecuritySplit> changedEvents = new ArrayList<>(events);
+    changedEvents.add(tx(fromDate, units));
+    changedEvents.sort((a, b) -> a.getTsDate().compareTo(b.getTsDate()));
+
+    List<HoldSecurityaccountSecurity> expected = replay(changedEvents, null, fromDate);
+    // What stays in the database: the periods which start before the changed date
+    List<HoldSecurityaccountSecurity> actual = new ArrayList<>(
+        stored.stream().filter(h -> h.getHssk().getFromHoldDate().isBefore(fromDate)).map(this::copy).toList());
+    HoldSecurityaccountSecurity preceding = actual.removeLast();
+    List<HoldSecurityaccountSecurity> replayed = replay(changedEvents, preceding, fromDate);
+    if (replayed.isEmpty() || replayed.getFirst() != preceding) {
+      actual.add(preceding);
+    }
+    actual.addAll(replayed);
+
+    assertThat(HoldSecurityaccountSecurityJpaRepositoryImpl.isSameSeries(expected, actual)).isTrue();
+  }
+
+  private List<HoldSecurityaccountSecurity> replay(List<ITransactionSecuritySplit> tssList,
+      HoldSecurityaccountSecurity preceding, LocalDate fromDate) {
+    HoldPositionTimeFrameSecurity holdPositionTimeFrameSecurity = new HoldPositionTimeFrameSecurity(null, CHF, CHF,
+        new CurrencypairSecuritySplit(new HashMap<>(), new HashMap<>()), null);
+    if (preceding != null) {
+      holdPositionTimeFrameSecurity.continueWith(preceding, fromDate);
+    }
+    for (ITransactionSecuritySplit tss : tssList) {
+      if (preceding == null || !tss.getTsDate().toLocalDate().isBefore(fromDate)) {
+        holdPositionTimeFrameSecurity.addTransactionOrSplit(1, 2, 3, tss, null, false);
+      }
+    }
+    return holdPositionTimeFrameSecurity.prepareNextSecurityaccount();
+  }
+
+  private HoldSecurityaccountSecurity copy(HoldSecurityaccountSecurity h) {
+    HoldSecurityaccountSecurity copy = new HoldSecurityaccountSecurity(h.getIdTenant(), h.getIdPortfolio(),
+        h.getHssk().getIdSecuritycashAccount(), ID_SECURITY, h.getHssk().getFromHoldDate(), h.getHodlings(), null, null,
+        h.getSplitPriceFactor(), h.getIdCurrencypairTenant(), h.getIdCurrencypairPortoflio());
+    copy.setToHoldDate(h.getToHoldDate());
+    return copy;
+  }
+
+  private static ITransactionSecuritySplit tx(LocalDate date, double units) {
+    return new TransactionSecuritySplit(null, ID_SECURITY, date.atTime(10, 0), units, null, CHF);
+  }
+
+  private static ITransactionSecuritySplit split(LocalDate date, double factor) {
+    return new TransactionSecuritySplit(null, ID_SECURITY, date.atStartOfDay(), factor, null, null);
+  }
+}
@@ -0,0 +1,98 @@
+package grafioschtrader.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import grafioschtrader.entities.GTNetInstrumentSecurity;
+import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
+import grafioschtrader.repository.GTNetInstrumentCurrencypairJpaRepository;
+import grafioschtrader.repository.GTNetInstrumentSecurityJpaRepository;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolKey;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolPrice;
+
+/**
+ * Tests that {@link GTNetLastpricePoolService} changes the push pool only when the transaction which created the
+ * missing instruments is committed.
+ */
+@ExtendWith(MockitoExtension.class)
+class GTNetLastpricePoolServiceTest {
+
+  private static final PoolKey NESTLE = PoolKey.ofSecurity("CH0038863350", "CHF");
+
+  @Mock
+  private GTNetInstrumentSecurityJpaRepository gtNetInstrumentSecurityJpaRepository;
+
+  @Mock
+  private GTNetInstrumentCurrencypairJpaRepository gtNetInstrumentCurrencypairJpaRepository;
+
+  @Mock
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
+
+  @InjectMocks
+  private GTNetLastpricePoolService gtNetLastpricePoolService;
+
+  @BeforeEach
+  void setUp() {
+    TransactionSynchronizationManager.initSynchronization();
+    GTNetInstrumentSecurity instrument = mock(GTNetInstrumentSecurity.class);
+    when(instrument.getIdGtNetInstrument()).thenReturn(7);
+    when(gtNetInstrumentSecurityJpaRepository.findOrCreateInstrument("CH0038863350", "CHF")).thenReturn(instrument);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  @DisplayName("A created instrument and its price are put into the store after the commit")
+  void commitTest() {
+    assertThat(gtNetLastpricePoolService.updateSecurityLastpricesFromDTO(List.of(createDTO()))).isEqualTo(1);
+    verify(gtNetLastpricePoolStore, never()).putInstrument(any(), any());
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+    verify(gtNetLastpricePoolStore).putInstrument(NESTLE, 7);
+    verify(gtNetLastpricePoolStore).mergeIfNewer(eq(NESTLE), any(PoolPrice.class));
+  }
+
+  @Test
+  @DisplayName("After a rollback the store does not know the instrument and its price")
+  void rollbackTest() {
+    gtNetLastpricePoolService.updateSecurityLastpricesFromDTO(List.of(createDTO()));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    verify(gtNetLastpricePoolStore, never()).putInstrument(any(), any());
+    verify(gtNetLastpricePoolStore, never()).mergeIfNewer(any(), any());
+  }
+
+  private static InstrumentPriceDTO createDTO() {
+    InstrumentPriceDTO dto = new InstrumentPriceDTO();
+    dto.setIsin("CH0038863350");
+    dto.setCurrency("CHF");
+    dto.setTimestamp(LocalDateTime.of(2026, 3, 2, 15, 30));
+    dto.setLast(100.0);
+    return dto;
+  }
+}
@@ -0,0 +1,153 @@
+package grafioschtrader.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolKey;
+import grafioschtrader.service.GTNetLastpricePoolStore.PoolPrice;
+
+/**
+ * Tests the in-memory pool of prices pushed by GTNet peers in {@link GTNetLastpricePoolStore}: replacement by newer
+ * prices, the flush of the changed prices with the isolation of a failing price and the conversion to security and
+ * currency pair prices.
+ */
+@ExtendWith(MockitoExtension.class)
+class GTNetLastpricePoolStoreTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2026, 3, 2, 15, 30);
+  private static final PoolKey NESTLE = PoolKey.ofSecurity("CH0038863350", "CHF");
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks
+  private GTNetLastpricePoolStore gtNetLastpricePoolStore;
+
+  @Captor
+  private ArgumentCaptor<Collection<?>> rowsCaptor;
+
+  @Test
+  @DisplayName("Only a price with a newer timestamp replaces the price, the pool is loaded once")
+  void mergeIfNewerTest() {
+    gtNetLastpricePoolStore.putInstrument(NESTLE, 7);
+
+    assertThat(gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME, 100.0))).isTrue();
+    assertThat(gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME, 101.0))).isFalse();
+    assertThat(gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(null, 102.0))).isFalse();
+    assertThat(gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME.plusMinutes(1), 103.0))).isTrue();
+
+    assertThat(gtNetLastpricePoolStore.getPrice(NESTLE).last()).isEqualTo(103.0);
+    assertThat(gtNetLastpricePoolStore.getIdGtNetInstrument(PoolKey.ofSecurity("ch0038863350", "chf"))).isEqualTo(7);
+    assertThatThrownBy(() -> gtNetLastpricePoolStore.mergeIfNewer(PoolKey.ofCurrencypair("EUR", "USD"),
+        price(TIME, 1.1))).isInstanceOf(IllegalStateException.class);
+    verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class));
+  }
+
+  @Test
+  @DisplayName("A flush writes each changed price once, a failed flush is repeated")
+  @SuppressWarnings("unchecked")
+  void flushTest() {
+    PoolKey eurUsd = PoolKey.ofCurrencypair("EUR", "USD");
+    gtNetLastpricePoolStore.putInstrument(NESTLE, 7);
+    gtNetLastpricePoolStore.putInstrument(eurUsd, 8);
+    gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME, 100.0));
+    gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME.plusMinutes(1), 101.0));
+    gtNetLastpricePoolStore.mergeIfNewer(eurUsd, price(TIME, 1.1));
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+        any(ParameterizedPreparedStatementSetter.class))).thenThrow(new DataAccessResourceFailureException("down"))
+        .thenReturn(new int[0][]);
+    when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+
+    gtNetLastpricePoolStore.flush();
+    gtNetLastpricePoolStore.flush();
+    gtNetLastpricePoolStore.flush();
+
+    verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rowsCaptor.capture(), eq(500),
+        any(ParameterizedPreparedStatementSetter.class));
+    assertThat(rowsCaptor.getAllValues()).allSatisfy(r -> assertThat(r).hasSize(2));
+  }
+
+  @Test
+  @DisplayName("A price whose instrument no longer exists is removed, the other prices of the batch are written")
+  @SuppressWarnings("unchecked")
+  void flushIntegrityViolationTest() {
+    PoolKey eurUsd = PoolKey.ofCurrencypair("EUR", "USD");
+    gtNetLastpricePoolStore.putInstrument(NESTLE, 7);
+    gtNetLastpricePoolStore.putInstrument(eurUsd, 8);
+    gtNetLastpricePoolStore.mergeIfNewer(NESTLE, price(TIME, 100.0));
+    gtNetLastpricePoolStore.mergeIfNewer(eurUsd, price(TIME, 1.1));
+    when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+        any(ParameterizedPreparedStatementSetter.class))).thenThrow(new DataIntegrityViolationException("fk"));
+    when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(invocation -> {
+      PreparedStatement ps = mock(PreparedStatement.class);
+      invocation.getArgument(1, PreparedStatementSetter.class).setValues(ps);
+      ArgumentCaptor<Integer> idCaptor = ArgumentCaptor.forClass(Integer.class);
+      verify(ps).setInt(eq(1), idCaptor.capture());
+      if (idCaptor.getValue() == 7) {
+        throw new DataIntegrityViolationException("fk");
+      }
+      return 1;
+    });
+
+    gtNetLastpricePoolStore.flush();
+    gtNetLastpricePoolStore.flush();
+
+    verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(),
+        any(ParameterizedPreparedStatementSetter.class));
+    verify(jdbcTemplate, times(2)).update(anyString(), any(PreparedStatementSetter.class));
+    assertThat(gtNetLastpricePoolStore.getIdGtNetInstrument(NESTLE)).isNull();
+    assertThat(gtNetLastpricePoolStore.getPrice(NESTLE)).isNull();
+    assertThat(gtNetLastpricePoolStore.getPrice(eurUsd).last()).isEqualTo(1.1);
+  }
+
+  @Test
+  @DisplayName("A pool price is returned as security or currency pair price")
+  void toInstrumentPriceDTOTest() {
+    InstrumentPriceDTO security = price(TIME, 100.0).toInstrumentPriceDTO(NESTLE);
+    assertThat(security.getIsin()).isEqualTo("CH0038863350");
+    assertThat(security.getCurrency()).isEqualTo("CHF");
+    assertThat(security.getToCurrency()).isNull();
+    assertThat(security.getTimestamp()).isEqualTo(TIME);
+
+    InstrumentPriceDTO currencypair = price(TIME, 1.1).toInstrumentPriceDTO(PoolKey.ofCurrencypair("EUR", "USD"));
+    assertThat(currencypair.getIsin()).isNull();
+    assertThat(currencypair.getCurrency()).isEqualTo("EUR");
+    assertThat(currencypair.getToCurrency()).isEqualTo("USD");
+    verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class));
+  }
+
+  private static PoolPrice price(LocalDateTime timestamp, double last) {
+    return new PoolPrice(timestamp, null, null, null, last, null);
+  }
+}
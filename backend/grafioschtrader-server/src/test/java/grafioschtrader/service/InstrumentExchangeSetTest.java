@@ -0,0 +1,75 @@
+package grafioschtrader.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import grafioschtrader.entities.Security;
+import grafioschtrader.gtnet.m2m.model.InstrumentPriceDTO;
+
+/**
+ * When several GTNet suppliers answer a lastprice request, {@link InstrumentExchangeSet} must keep the newest price and
+ * prefer the supplier with the lower rank on equal timestamps.
+ */
+class InstrumentExchangeSetTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2026, 3, 2, 15, 30);
+
+  @Test
+  @DisplayName("With the same timestamp the supplier with the lower rank wins, independent of the response order")
+  void processResponseRankTest() {
+    assertThat(mergeInOrder(new int[] { 0, 1 })).isEqualTo(100.0);
+    assertThat(mergeInOrder(new int[] { 1, 0 })).isEqualTo(100.0);
+  }
+
+  @Test
+  @DisplayName("A newer price replaces the price of a supplier with a lower rank, an older price never")
+  void processResponseNewerTest() {
+    Security security = security();
+    InstrumentExchangeSet instruments = new InstrumentExchangeSet();
+    instruments.addSecurity(security);
+
+    assertThat(instruments.processResponse(List.of(price(TIME, 100.0)), null, 0)).isEqualTo(1);
+    assertThat(instruments.processResponse(List.of(price(TIME.minusMinutes(1), 101.0)), null, 0)).isZero();
+    assertThat(instruments.processResponse(List.of(price(TIME.plusMinutes(1), 102.0)), null, 3)).isEqualTo(1);
+    assertThat(instruments.processResponse(List.of(price(TIME, 103.0)), null, 0)).isZero();
+    assertThat(instruments.processResponse(List.of(price(TIME.plusMinutes(1), 104.0)), null, 1)).isEqualTo(1);
+
+    assertThat(security.getSLast()).isEqualTo(104.0);
+    assertThat(instruments.allFilled()).isTrue();
+  }
+
+  /**
+   * Processes a response with the last price 100 from the supplier of rank 0 and one with 200 from the supplier of
+   * rank 1 in the given order.
+   */
+  private static Double mergeInOrder(int[] ranks) {
+    Security security = security();
+    InstrumentExchangeSet instruments = new InstrumentExchangeSet();
+    instruments.addSecurity(security);
+    for (int rank : ranks) {
+      instruments.processResponse(List.of(price(TIME, rank == 0 ? 100.0 : 200.0)), null, rank);
+    }
+    return security.getSLast();
+  }
+
+  private static Security security() {
+    Security security = new Security();
+    security.setIsin("CH0038863350");
+    security.setCurrency("CHF");
+    return security;
+  }
+
+  private static InstrumentPriceDTO price(LocalDateTime timestamp, double last) {
+    InstrumentPriceDTO dto = new InstrumentPriceDTO();
+    dto.setIsin("CH0038863350");
+    dto.setCurrency("CHF");
+    dto.setTimestamp(timestamp);
+    dto.setLast(last);
+    return dto;
+  }
+}
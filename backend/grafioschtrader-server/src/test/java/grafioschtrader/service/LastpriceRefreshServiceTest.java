@@ -0,0 +1,98 @@
+package grafioschtrader.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import grafioschtrader.entities.Security;
+import grafioschtrader.repository.CurrencypairJpaRepository;
+import grafioschtrader.repository.SecurityJpaRepository;
+
+/**
+ * Tests the background update of last prices which is shared by concurrent watchlist requests. The instruments are
+ * passed by their IDs and loaded again by the update.
+ */
+@ExtendWith(MockitoExtension.class)
+class LastpriceRefreshServiceTest {
+
+  @Mock
+  private GTNetLastpriceService gTNetLastpriceService;
+
+  @Mock
+  private SecurityJpaRepository securityJpaRepository;
+
+  @Mock
+  private CurrencypairJpaRepository currencypairJpaRepository;
+
+  @Mock
+  private PlatformTransactionManager platformTransactionManager;
+
+  @InjectMocks
+  private LastpriceRefreshService lastpriceRefreshService;
+
+  @Test
+  @DisplayName("Instruments of a running update are not requested again and the caller waits for that update")
+  void sharedRefreshTest() throws Exception {
+    mockSecurityLoad();
+    CountDownLatch release = new CountDownLatch(1);
+    List<List<Integer>> requestedIds = new CopyOnWriteArrayList<>();
+    when(gTNetLastpriceService.updateLastpriceIncludeSupplier(any(), any(), any())).thenAnswer(invocation -> {
+      List<Security> securities = invocation.getArgument(0);
+      requestedIds.add(securities.stream().map(Security::getIdSecuritycurrency).toList());
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    });
+
+    CompletableFuture<Void> first = lastpriceRefreshService.refresh(List.of(1, 2, 3), List.of(), List.of());
+    CompletableFuture<Void> second = lastpriceRefreshService.refresh(List.of(2, 3, 4), List.of(), List.of());
+
+    assertThat(lastpriceRefreshService.getRunningRefresh(List.of(3))).isNotNull();
+    assertThat(lastpriceRefreshService.getRunningRefresh(List.of(5))).isNull();
+    assertThat(second).isNotDone();
+    release.countDown();
+    second.get(5, TimeUnit.SECONDS);
+    first.get(5, TimeUnit.SECONDS);
+
+    assertThat(requestedIds).containsExactlyInAnyOrder(List.of(1, 2, 3), List.of(4));
+    assertThat(lastpriceRefreshService.getRunningRefresh(List.of(1, 2, 3, 4))).isNull();
+  }
+
+  @Test
+  @DisplayName("A failed update completes and releases its instruments")
+  void failedRefreshTest() throws Exception {
+    mockSecurityLoad();
+    when(gTNetLastpriceService.updateLastpriceIncludeSupplier(any(), any(), any()))
+        .thenThrow(new IllegalStateException("Provider not available"));
+
+    lastpriceRefreshService.refresh(List.of(7), List.of(), List.of()).get(5, TimeUnit.SECONDS);
+
+    assertThat(lastpriceRefreshService.getRunningRefresh(List.of(7))).isNull();
+  }
+
+  private void mockSecurityLoad() {
+    when(securityJpaRepository.findAllById(any())).thenAnswer(invocation -> {
+      List<Security> securities = new ArrayList<>();
+      for (Integer id : invocation.<Iterable<Integer>>getArgument(0)) {
+        Security security = new Security();
+        security.setIdSecuritycurrency(id);
+        securities.add(security);
+      }
+      return securities;
+    });
+  }
+}
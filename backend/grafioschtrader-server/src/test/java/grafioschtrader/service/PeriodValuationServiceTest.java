@@ -0,0 +1,141 @@
+package grafioschtrader.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import grafioschtrader.repository.HoldPeriodValuationStore;
+import grafioschtrader.repository.HoldPeriodValuationStore.ValuationState;
+import grafioschtrader.repository.HoldSecurityaccountSecurityJpaRepository;
+import grafioschtrader.repository.PortfolioJpaRepository;
+
+/**
+ * Tests that {@link PeriodValuationService} recalculates a stored period valuation from the first dirty day on, after
+ * a history quote change marked it as outdated, repeats a calculation which a concurrent change made obsolete and
+ * reads a valid series without recalculation.
+ */
+@ExtendWith(MockitoExtension.class)
+class PeriodValuationServiceTest {
+
+  private static final Integer ID_TENANT = 5;
+
+  @Mock
+  private HoldPeriodValuationStore holdPeriodValuationStore;
+
+  @Mock
+  private HoldSecurityaccountSecurityJpaRepository holdSecurityaccountSecurityRepository;
+
+  @Mock
+  private PortfolioJpaRepository portfolioJpaRepository;
+
+  @Mock
+  private GlobalparametersService globalparametersService;
+
+  @Mock
+  private PlatformTransactionManager platformTransactionManager;
+
+  @InjectMocks
+  private PeriodValuationService periodValuationService;
+
+  private LocalDate today;
+
+  @BeforeEach
+  void setUp() {
+    today = LocalDate.now();
+  }
+
+  @Test
+  @DisplayName("A history quote changed since the last scan recalculates the series from the dirty day")
+  void changedHistoryquoteTest() {
+    LocalDateTime lastScan = LocalDateTime.of(2026, 3, 5, 22, 0);
+    LocalDate dirtyFrom = today.minusDays(20);
+    when(holdPeriodValuationStore.getDatabaseTime()).thenReturn(lastScan.plusDays(1));
+    when(globalparametersService.getPeriodValuationScanTimestamp()).thenReturn(lastScan);
+    when(holdPeriodValuationStore.markDirtyByHistoryquoteChanges(lastScan)).thenReturn(1);
+    when(holdPeriodValuationStore.getOutdatedTenants(today)).thenReturn(List.of(ID_TENANT));
+    stubDirtyState(dirtyFrom);
+
+    periodValuationService.refreshAfterPriceUpdate();
+
+    verify(globalparametersService).updatePeriodValuationScanTimestamp(lastScan.plusDays(1));
+    verify(holdSecurityaccountSecurityRepository).getPeriodHoldingsByTenant(ID_TENANT, dirtyFrom, today);
+    verify(holdPeriodValuationStore).replaceSeries(eq(ID_TENANT), eq(claimed(dirtyFrom)), anyMap(), eq(today));
+  }
+
+  @Test
+  @DisplayName("A series marked dirty by an edited or deleted quote is recalculated with the next request")
+  void dirtySeriesRequestTest() {
+    LocalDate dirtyFrom = today.minusDays(3);
+    when(holdPeriodValuationStore.getState(ID_TENANT)).thenReturn(new ValuationState(dirtyFrom, today));
+    stubDirtyState(dirtyFrom);
+
+    periodValuationService.getPeriodHoldingsByTenant(ID_TENANT, today.minusYears(1), today);
+
+    verify(holdSecurityaccountSecurityRepository).getPeriodHoldingsByTenant(ID_TENANT, dirtyFrom, today);
+    verify(holdPeriodValuationStore).replaceSeries(eq(ID_TENANT), eq(claimed(dirtyFrom)), anyMap(), eq(today));
+    verify(holdPeriodValuationStore).getSeries(ID_TENANT, HoldPeriodValuationStore.ID_PORTFOLIO_TENANT,
+        today.minusYears(1), today);
+  }
+
+  @Test
+  @DisplayName("A valid series is read without recalculation")
+  void validSeriesRequestTest() {
+    when(holdPeriodValuationStore.getState(ID_TENANT)).thenReturn(new ValuationState(null, today));
+
+    periodValuationService.getPeriodHoldingsByTenant(ID_TENANT, today.minusYears(1), today);
+
+    verify(holdPeriodValuationStore, never()).claimState(any(), any());
+    verify(holdPeriodValuationStore, never()).replaceSeries(any(), any(), anyMap(), any());
+    verify(holdPeriodValuationStore).getSeries(ID_TENANT, HoldPeriodValuationStore.ID_PORTFOLIO_TENANT,
+        today.minusYears(1), today);
+  }
+
+  @Test
+  @DisplayName("A change marked during the calculation discards the rows and calculates the series again")
+  void changedDuringCalculationTest() {
+    LocalDate dirtyFrom = today.minusDays(3);
+    LocalDate markedFrom = today.minusDays(10);
+    when(platformTransactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(holdPeriodValuationStore.getState(ID_TENANT)).thenReturn(new ValuationState(dirtyFrom, today));
+    when(holdPeriodValuationStore.claimState(ID_TENANT, today)).thenReturn(claimed(dirtyFrom), claimed(markedFrom));
+    when(holdPeriodValuationStore.replaceSeries(eq(ID_TENANT), eq(claimed(dirtyFrom)), anyMap(), eq(today)))
+        .thenReturn(false);
+    when(holdPeriodValuationStore.replaceSeries(eq(ID_TENANT), eq(claimed(markedFrom)), anyMap(), eq(today)))
+        .thenReturn(true);
+
+    periodValuationService.getPeriodHoldingsByTenant(ID_TENANT, today.minusYears(1), today);
+
+    verify(holdSecurityaccountSecurityRepository).getPeriodHoldingsByTenant(ID_TENANT, dirtyFrom, today);
+    verify(holdSecurityaccountSecurityRepository).getPeriodHoldingsByTenant(ID_TENANT, markedFrom, today);
+    verify(holdPeriodValuationStore, times(2)).claimState(ID_TENANT, today);
+  }
+
+  private void stubDirtyState(LocalDate dirtyFrom) {
+    when(platformTransactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(holdPeriodValuationStore.claimState(ID_TENANT, today)).thenReturn(claimed(dirtyFrom));
+    when(holdPeriodValuationStore.replaceSeries(eq(ID_TENANT), eq(claimed(dirtyFrom)), anyMap(), eq(today)))
+        .thenReturn(true);
+  }
+
+  private ValuationState claimed(LocalDate dirtyFrom) {
+    return new ValuationState(dirtyFrom, today).claim();
+  }
+}
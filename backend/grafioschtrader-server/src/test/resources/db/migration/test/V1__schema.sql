@@ -614,6 +614,7 @@ CREATE TABLE `gt_net` (
   `spread_capability` tinyint(1) NOT NULL DEFAULT 0,
   `daily_req_limit` int(11) DEFAULT NULL,
   `allow_server_creation` tinyint(1) NOT NULL DEFAULT 0,
+  `payload_encodings` varchar(64) DEFAULT NULL,
   `server_busy` tinyint(1) NOT NULL DEFAULT 0,
   `server_online` tinyint(1) NOT NULL DEFAULT 0,
   `last_modified_time` timestamp NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
@@ -703,6 +704,9 @@ CREATE TABLE `gt_net_exchange_log` (
   `entities_updated` int(11) NOT NULL DEFAULT 0,
   `entities_in_response` int(11) NOT NULL DEFAULT 0,
   `request_count` int(11) NOT NULL DEFAULT 1,
+  `bytes_on_wire` bigint(20) NOT NULL DEFAULT 0,
+  `bytes_json` bigint(20) NOT NULL DEFAULT 0,
+  `response_millis` bigint(20) NOT NULL DEFAULT 0,
   PRIMARY KEY (`id_gt_net_exchange_log`),
   KEY `FK_GtNetExchangeLog_GtNet` (`id_gt_net`),
   CONSTRAINT `FK_GtNetExchangeLog_GtNet` FOREIGN KEY (`id_gt_net`) REFERENCES `gt_net` (`id_gt_net`) ON DELETE CASCADE
@@ -1026,6 +1030,7 @@ CREATE TABLE `historyquote` (
   PRIMARY KEY (`id_history_quote`),
   UNIQUE KEY `IHistoryQuote_id_Date` (`id_securitycurrency`,`date`),
   KEY `FK_HistoryQuote_SecurityCurrency` (`id_securitycurrency`) USING BTREE,
+  KEY `I_HistoryQuote_CreateModifyTime` (`create_modify_time`),
   CONSTRAINT `FK_HistoryQuote_SecurityCurrency` FOREIGN KEY (`id_securitycurrency`) REFERENCES `securitycurrency` (`id_securitycurrency`) ON DELETE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=9584482 DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -1180,6 +1185,48 @@ CREATE TABLE `hold_cashaccount_deposit` (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci ROW_FORMAT=COMPACT;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `hold_period_valuation`
+--
+
+DROP TABLE IF EXISTS `hold_period_valuation`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `hold_period_valuation` (
+  `id_tenant` int(11) NOT NULL,
+  `id_portfolio` int(11) NOT NULL,
+  `valuation_date` date NOT NULL,
+  `dividend_real_mc` double NOT NULL,
+  `fee_real_mc` double NOT NULL,
+  `interest_cashaccount_real_mc` double NOT NULL,
+  `accumulate_reduce_mc` double NOT NULL,
+  `cash_balance_mc` double NOT NULL,
+  `external_cash_transfer_mc` double NOT NULL,
+  `securities_mc` double NOT NULL,
+  `margin_close_gain_mc` double NOT NULL,
+  `security_risk_mc` double NOT NULL,
+  `gain_mc` double NOT NULL,
+  PRIMARY KEY (`id_tenant`,`id_portfolio`,`valuation_date`),
+  CONSTRAINT `FK_HoldPeriodValuation_Tenant` FOREIGN KEY (`id_tenant`) REFERENCES `tenant` (`id_tenant`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `hold_period_valuation_state`
+--
+
+DROP TABLE IF EXISTS `hold_period_valuation_state`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `hold_period_valuation_state` (
+  `id_tenant` int(11) NOT NULL,
+  `dirty_from` date DEFAULT NULL,
+  `computed_until` date DEFAULT NULL,
+  PRIMARY KEY (`id_tenant`),
+  CONSTRAINT `FK_HoldPeriodValuationState_Tenant` FOREIGN KEY (`id_tenant`) REFERENCES `tenant` (`id_tenant`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_general_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `hold_securityaccount_security`
 --